@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 import org.apache.commons.collections4.SetUtils;
 import org.apache.helix.AccessOption;
 import org.apache.helix.HelixAdmin;
@@ -179,8 +180,9 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
    */
   private void createOrUpdateRateLimiter(String tableNameWithType, ExternalView brokerResource,
       QuotaConfig quotaConfig) {
-    if (quotaConfig == null || quotaConfig.getMaxQueriesPerSecond() == null) {
-      LOGGER.info("No qps config specified for table: {}", tableNameWithType);
+    if (quotaConfig == null || (quotaConfig.getMaxQueriesPerSecond() == null
+        && quotaConfig.getMaxDocsScannedPerSecond() == null)) {
+      LOGGER.info("No qps or docs scanned config specified for table: {}", tableNameWithType);
       buildEmptyOrResetRateLimiterInQueryQuotaEntity(tableNameWithType);
       return;
     }
@@ -210,6 +212,7 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
 
     // Get the dynamic rate
     double overallRate = quotaConfig.getMaxQPS();
+    double overallDocsScannedRate = quotaConfig.getMaxDocsScannedRate();
 
     // Get stat from property store
     String tableConfigPath = constructTableConfigPath(tableNameWithType);
@@ -218,9 +221,9 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
 
     QueryQuotaEntity queryQuotaEntity = _rateLimiterMap.get(tableNameWithType);
     if (queryQuotaEntity == null) {
-      queryQuotaEntity =
-          new QueryQuotaEntity(RateLimiter.create(perBrokerRate), new HitCounter(ONE_SECOND_TIME_RANGE_IN_SECOND),
-              new MaxHitRateTracker(ONE_MINUTE_TIME_RANGE_IN_SECOND), onlineCount, overallRate, stat.getVersion());
+      queryQuotaEntity = new QueryQuotaEntity(overallRate > 0 ? RateLimiter.create(perBrokerRate) : null,
+          new HitCounter(ONE_SECOND_TIME_RANGE_IN_SECOND), new MaxHitRateTracker(ONE_MINUTE_TIME_RANGE_IN_SECOND),
+          onlineCount, overallRate, stat.getVersion());
       _rateLimiterMap.put(tableNameWithType, queryQuotaEntity);
       LOGGER.info(
           "Rate limiter for table: {} has been initialized. Overall rate: {}. Per-broker rate: {}. Number of online "
@@ -229,7 +232,10 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
     } else {
       RateLimiter rateLimiter = queryQuotaEntity.getRateLimiter();
       double previousRate = -1;
-      if (rateLimiter == null) {
+      if (overallRate <= 0) {
+        // Query quota is removed from the table, or only docs scanned quota is specified.
+        queryQuotaEntity.setRateLimiter(null);
+      } else if (rateLimiter == null) {
         // Query quota is just added to the table.
         rateLimiter = RateLimiter.create(perBrokerRate);
         queryQuotaEntity.setRateLimiter(rateLimiter);
@@ -246,6 +252,14 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
               + "per-broker rate: {}. Number of online broker instances: {}. Table config stat version: {}",
           tableNameWithType, overallRate, previousRate, perBrokerRate, onlineCount, stat.getVersion());
     }
+    queryQuotaEntity.setDocsScannedRateLimiter(
+        createOrUpdateDocsScannedRateLimiter(queryQuotaEntity.getDocsScannedRateLimiter(), overallDocsScannedRate,
+            onlineCount));
+    queryQuotaEntity.setOverallDocsScannedRate(overallDocsScannedRate);
+    if (overallDocsScannedRate > 0) {
+      LOGGER.info("Docs scanned rate limiter for table: {} has been initialized or updated. Overall rate: {}. "
+          + "Per-broker rate: {}", tableNameWithType, overallDocsScannedRate, overallDocsScannedRate / onlineCount);
+    }
     addMaxBurstQPSCallbackTableGaugeIfNeeded(tableNameWithType, queryQuotaEntity);
     addQueryQuotaCapacityUtilizationRateTableGaugeIfNeeded(tableNameWithType, queryQuotaEntity);
     if (isQueryRateLimitDisabled()) {
@@ -253,6 +267,26 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
     }
   }
 
+  /**
+   * Creates or updates the docs scanned rate limiter with the per-broker share of the given overall rate, or returns
+   * {@code null} if the docs scanned quota is not specified.
+   */
+  @Nullable
+  private static TokenBucketRateLimiter createOrUpdateDocsScannedRateLimiter(
+      @Nullable TokenBucketRateLimiter rateLimiter, double overallDocsScannedRate, int numOnlineBrokers) {
+    if (overallDocsScannedRate <= 0) {
+      return null;
+    }
+    double perBrokerRate = overallDocsScannedRate / numOnlineBrokers;
+    if (rateLimiter == null) {
+      return new TokenBucketRateLimiter(perBrokerRate);
+    }
+    if (Math.abs(rateLimiter.getRate() - perBrokerRate) > 0.001) {
+      rateLimiter.setRate(perBrokerRate);
+    }
+    return rateLimiter;
+  }
+
   /**
    * Updates the database rate limiter if it already exists. Will not create a new database rate limiter.
    * @param databaseName database name for which rate limiter needs to be updated
@@ -272,7 +306,8 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
             CommonConstants.Helix.BROKER_RESOURCE_INSTANCE);
     for (String databaseName : databaseNames) {
       double databaseQpsQuota = getEffectiveQueryQuotaOnDatabase(databaseName);
-      if (databaseQpsQuota < 0) {
+      double databaseDocsScannedQuota = getDocsScannedQuotaOnDatabase(databaseName);
+      if (databaseQpsQuota < 0 && databaseDocsScannedQuota < 0) {
         buildEmptyOrResetDatabaseRateLimiter(databaseName);
         continue;
       }
@@ -280,13 +315,22 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
       double perBrokerQpsQuota = databaseQpsQuota / numOnlineBrokers;
       QueryQuotaEntity oldQueryQuotaEntity = _databaseRateLimiterMap.get(databaseName);
       if (oldQueryQuotaEntity == null) {
-        LOGGER.info("Adding new query rate limiter for database {} with rate {}.", databaseName, perBrokerQpsQuota);
-        QueryQuotaEntity queryQuotaEntity = new QueryQuotaEntity(RateLimiter.create(perBrokerQpsQuota),
-            new HitCounter(ONE_SECOND_TIME_RANGE_IN_SECOND), new MaxHitRateTracker(ONE_MINUTE_TIME_RANGE_IN_SECOND),
-            numOnlineBrokers, databaseQpsQuota, -1);
+        LOGGER.info("Adding new query rate limiter for database {} with rate {} and docs scanned rate {}.",
+            databaseName, perBrokerQpsQuota, databaseDocsScannedQuota / numOnlineBrokers);
+        QueryQuotaEntity queryQuotaEntity =
+            new QueryQuotaEntity(databaseQpsQuota > 0 ? RateLimiter.create(perBrokerQpsQuota) : null,
+                new HitCounter(ONE_SECOND_TIME_RANGE_IN_SECOND), new MaxHitRateTracker(ONE_MINUTE_TIME_RANGE_IN_SECOND),
+                numOnlineBrokers, databaseQpsQuota, -1);
+        queryQuotaEntity.setDocsScannedRateLimiter(
+            createOrUpdateDocsScannedRateLimiter(null, databaseDocsScannedQuota, numOnlineBrokers));
+        queryQuotaEntity.setOverallDocsScannedRate(databaseDocsScannedQuota);
         _databaseRateLimiterMap.put(databaseName, queryQuotaEntity);
         continue;
       }
+      oldQueryQuotaEntity.setDocsScannedRateLimiter(
+          createOrUpdateDocsScannedRateLimiter(oldQueryQuotaEntity.getDocsScannedRateLimiter(),
+              databaseDocsScannedQuota, numOnlineBrokers));
+      oldQueryQuotaEntity.setOverallDocsScannedRate(databaseDocsScannedQuota);
       boolean changeDetected = false;
       double oldQuota = oldQueryQuotaEntity.getRateLimiter() != null ? oldQueryQuotaEntity.getRateLimiter().getRate()
           : -1;
@@ -308,7 +352,7 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
       }
       LOGGER.info("Updating existing query rate limiter for database {} from rate {} to {}", databaseName, oldQuota,
           perBrokerQpsQuota);
-      oldQueryQuotaEntity.setRateLimiter(RateLimiter.create(perBrokerQpsQuota));
+      oldQueryQuotaEntity.setRateLimiter(databaseQpsQuota > 0 ? RateLimiter.create(perBrokerQpsQuota) : null);
     }
   }
 
@@ -337,6 +381,20 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
     return _defaultQpsQuotaForDatabase;
   }
 
+  /**
+   * Utility to get the docs scanned quota being imposed on a database, which is set at database config.
+   * @param databaseName database name to get the docs scanned quota on.
+   * @return docs scanned quota being applied, -1 if not set
+   */
+  private double getDocsScannedQuotaOnDatabase(String databaseName) {
+    DatabaseConfig databaseConfig =
+        ZKMetadataProvider.getDatabaseConfig(_helixManager.getHelixPropertyStore(), databaseName);
+    if (databaseConfig != null && databaseConfig.getQuotaConfig() != null) {
+      return databaseConfig.getQuotaConfig().getMaxDocsScannedRate();
+    }
+    return -1;
+  }
+
   /**
    * Creates a new database rate limiter. Will not update the database rate limiter if it already exists.
    * @param databaseName database name for which rate limiter needs to be created
@@ -362,6 +420,7 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
     } else {
       // Set rate limiter to null for an existing QueryQuotaEntity object.
       queryQuotaEntity.setRateLimiter(null);
+      queryQuotaEntity.setDocsScannedRateLimiter(null);
     }
   }
 
@@ -379,6 +438,7 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
     } else {
       // Set rate limiter to null for an existing QueryQuotaEntity object.
       queryQuotaEntity.setRateLimiter(null);
+      queryQuotaEntity.setDocsScannedRateLimiter(null);
     }
     addMaxBurstQPSCallbackTableGaugeIfNeeded(tableNameWithType, queryQuotaEntity);
     addQueryQuotaCapacityUtilizationRateTableGaugeIfNeeded(tableNameWithType, queryQuotaEntity);
@@ -442,6 +502,90 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
     return quotaEntity == null || quotaEntity.getRateLimiter() == null ? 0 : quotaEntity.getRateLimiter().getRate();
   }
 
+  @Override
+  public boolean acquireDocsScanned(String tableNameWithType, long numDocsScanned, long maxWaitMs) {
+    // Return true if query quota is disabled in the current broker.
+    if (isQueryRateLimitDisabled()) {
+      return true;
+    }
+    QueryQuotaEntity queryQuota = _rateLimiterMap.get(tableNameWithType);
+    if (queryQuota == null) {
+      return true;
+    }
+    LOGGER.debug("Trying to acquire {} docs scanned for table: {}", numDocsScanned, tableNameWithType);
+    return tryAcquireDocsScanned(tableNameWithType, queryQuota, numDocsScanned, maxWaitMs);
+  }
+
+  @Override
+  public boolean acquireDatabaseDocsScanned(String databaseName, long numDocsScanned, long maxWaitMs) {
+    // Return true if query quota is disabled in the current broker.
+    if (isQueryRateLimitDisabled()) {
+      return true;
+    }
+    QueryQuotaEntity queryQuota = _databaseRateLimiterMap.get(databaseName);
+    if (queryQuota == null) {
+      return true;
+    }
+    LOGGER.debug("Trying to acquire {} docs scanned for database: {}", numDocsScanned, databaseName);
+    return tryAcquireDocsScanned(databaseName, queryQuota, numDocsScanned, maxWaitMs);
+  }
+
+  @Override
+  public void releaseDocsScanned(String tableNameWithType, long numDocsScanned) {
+    releaseDocsScanned(_rateLimiterMap.get(tableNameWithType), numDocsScanned);
+  }
+
+  @Override
+  public void releaseDatabaseDocsScanned(String databaseName, long numDocsScanned) {
+    releaseDocsScanned(_databaseRateLimiterMap.get(databaseName), numDocsScanned);
+  }
+
+  private void releaseDocsScanned(@Nullable QueryQuotaEntity queryQuotaEntity, long numDocsScanned) {
+    if (queryQuotaEntity == null) {
+      return;
+    }
+    TokenBucketRateLimiter rateLimiter = queryQuotaEntity.getDocsScannedRateLimiter();
+    if (rateLimiter != null) {
+      rateLimiter.release(numDocsScanned);
+    }
+  }
+
+  @Override
+  public double getTableDocsScannedQuota(String tableNameWithType) {
+    return getDocsScannedQuota(_rateLimiterMap.get(tableNameWithType));
+  }
+
+  @Override
+  public double getDatabaseDocsScannedQuota(String databaseName) {
+    return getDocsScannedQuota(_databaseRateLimiterMap.get(databaseName));
+  }
+
+  private double getDocsScannedQuota(QueryQuotaEntity quotaEntity) {
+    return quotaEntity == null || quotaEntity.getDocsScannedRateLimiter() == null ? 0
+        : quotaEntity.getDocsScannedRateLimiter().getRate();
+  }
+
+  /**
+   * Try to acquire the estimated number of documents to scan from the docs scanned rate limiter, waiting up to the
+   * given time. The rate limiter does not borrow from the future quota, and an expensive query is charged at most one
+   * second of the per-broker quota, so that it cannot lock out the following queries for longer than that.
+   * @return true if there's no docs scanned quota for that table/database, or the docs are acquired successfully.
+   */
+  private boolean tryAcquireDocsScanned(String resourceName, QueryQuotaEntity queryQuotaEntity, long numDocsScanned,
+      long maxWaitMs) {
+    TokenBucketRateLimiter rateLimiter = queryQuotaEntity.getDocsScannedRateLimiter();
+    // Return true if no rate limiter is initialized or there is nothing to scan.
+    if (rateLimiter == null || numDocsScanned <= 0) {
+      return true;
+    }
+    if (!rateLimiter.tryAcquire(numDocsScanned, maxWaitMs)) {
+      LOGGER.info("Docs scanned quota is exceeded for table/database: {}. Per-broker rate: {}. Estimated docs scanned: "
+          + "{}", resourceName, rateLimiter.getRate(), numDocsScanned);
+      return false;
+    }
+    return true;
+  }
+
   /**
    * {@inheritDoc}
    * <p>Acquires a token from rate limiter based on the table name.
@@ -553,7 +697,7 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
       Map.Entry<String, QueryQuotaEntity> entry = it.next();
       String tableNameWithType = entry.getKey();
       QueryQuotaEntity queryQuotaEntity = entry.getValue();
-      if (queryQuotaEntity.getRateLimiter() == null) {
+      if (queryQuotaEntity.getRateLimiter() == null && queryQuotaEntity.getDocsScannedRateLimiter() == null) {
         // No rate limiter set, skip this table.
         continue;
       }
@@ -590,23 +734,41 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
       }
 
       double overallRate;
+      double overallDocsScannedRate;
       // Get latest quota config only if stat don't match.
       if (stat.getVersion() != queryQuotaEntity.getTableConfigStatVersion()) {
         QuotaConfig quotaConfig = getQuotaConfigFromPropertyStore(tableNameWithType);
-        if (quotaConfig == null || quotaConfig.getMaxQueriesPerSecond() == null) {
+        if (quotaConfig == null || (quotaConfig.getMaxQueriesPerSecond() == null
+            && quotaConfig.getMaxDocsScannedPerSecond() == null)) {
           LOGGER.info("No query quota config or the config is invalid for Table {}. Removing its rate limit.",
               tableNameWithType);
           it.remove();
           continue;
         }
         overallRate = quotaConfig.getMaxQPS();
+        overallDocsScannedRate = quotaConfig.getMaxDocsScannedRate();
       } else {
         overallRate = queryQuotaEntity.getOverallRate();
+        overallDocsScannedRate = queryQuotaEntity.getOverallDocsScannedRate();
+      }
+      queryQuotaEntity.setDocsScannedRateLimiter(
+          createOrUpdateDocsScannedRateLimiter(queryQuotaEntity.getDocsScannedRateLimiter(), overallDocsScannedRate,
+              onlineBrokerCount));
+      queryQuotaEntity.setOverallDocsScannedRate(overallDocsScannedRate);
+      RateLimiter rateLimiter = queryQuotaEntity.getRateLimiter();
+      if (rateLimiter == null || overallRate <= 0) {
+        // The qps quota is added or removed, or only the docs scanned quota is specified
+        queryQuotaEntity.setRateLimiter(overallRate > 0 ? RateLimiter.create(overallRate / onlineBrokerCount) : null);
+        queryQuotaEntity.setNumOnlineBrokers(onlineBrokerCount);
+        queryQuotaEntity.setOverallRate(overallRate);
+        queryQuotaEntity.setTableConfigStatVersion(stat.getVersion());
+        numRebuilt++;
+        continue;
       }
       double latestRate = overallRate / onlineBrokerCount;
-      double previousRate = queryQuotaEntity.getRateLimiter().getRate();
+      double previousRate = rateLimiter.getRate();
       if (Math.abs(latestRate - previousRate) > 0.001) {
-        queryQuotaEntity.getRateLimiter().setRate(latestRate);
+        rateLimiter.setRate(latestRate);
         queryQuotaEntity.setNumOnlineBrokers(onlineBrokerCount);
         queryQuotaEntity.setOverallRate(overallRate);
         queryQuotaEntity.setTableConfigStatVersion(stat.getVersion());
@@ -627,6 +789,9 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
       if (quota.getOverallRate() > 0) {
         quota.setRateLimiter(RateLimiter.create(quota.getOverallRate() / onlineBrokerCount));
       }
+      quota.setDocsScannedRateLimiter(
+          createOrUpdateDocsScannedRateLimiter(quota.getDocsScannedRateLimiter(), quota.getOverallDocsScannedRate(),
+              onlineBrokerCount));
     }
 
     if (isQueryRateLimitDisabled()) {
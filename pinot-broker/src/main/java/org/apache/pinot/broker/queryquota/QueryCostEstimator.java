@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.queryquota;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.ExpressionType;
+import org.apache.pinot.common.request.Function;
+import org.apache.pinot.common.request.PinotQuery;
+
+
+/**
+ * The {@code QueryCostEstimator} estimates the number of documents to be scanned by a single-stage query before it is
+ * sent to the servers, which is used to enforce the docs scanned quota.
+ *
+ * <p>The estimate is the number of documents in the routed segments multiplied by the fraction of them scanned by the
+ * previous executions of the queries with the same shape (the query with all the literals removed), tracked as an
+ * exponentially weighted moving average. This way a point lookup served by an index is charged a tiny fraction of a
+ * full scan over the same segments. Query shapes without history fall back to the moving average over all the queries
+ * on the same table, and are not charged when the table has no history either, so that a cold query is never charged a
+ * full scan it most likely won't do.
+ *
+ * <p>This class is thread safe.
+ */
+public class QueryCostEstimator {
+  // Weight of the latest execution in the moving average of the scanned fraction
+  static final double ALPHA = 0.2;
+
+  private final Cache<String, Double> _scannedFractions;
+  private final Cache<String, Double> _tableScannedFractions;
+
+  public QueryCostEstimator(int maxNumQueryShapes) {
+    _scannedFractions = CacheBuilder.newBuilder().maximumSize(maxNumQueryShapes).build();
+    _tableScannedFractions = CacheBuilder.newBuilder().maximumSize(maxNumQueryShapes).build();
+  }
+
+  /**
+   * Returns the shape of the given query, where all the literals are replaced with '?' and consecutive literal
+   * arguments (e.g. the values of IN predicate) are collapsed into one.
+   */
+  public static String getQueryShape(PinotQuery pinotQuery) {
+    StringBuilder stringBuilder = new StringBuilder("SELECT ");
+    appendExpressions(stringBuilder, pinotQuery.getSelectList());
+    stringBuilder.append(" FROM ").append(pinotQuery.getDataSource().getTableName());
+    if (pinotQuery.getFilterExpression() != null) {
+      appendExpression(stringBuilder.append(" WHERE "), pinotQuery.getFilterExpression());
+    }
+    if (CollectionUtils.isNotEmpty(pinotQuery.getGroupByList())) {
+      appendExpressions(stringBuilder.append(" GROUP BY "), pinotQuery.getGroupByList());
+    }
+    if (pinotQuery.getHavingExpression() != null) {
+      appendExpression(stringBuilder.append(" HAVING "), pinotQuery.getHavingExpression());
+    }
+    if (CollectionUtils.isNotEmpty(pinotQuery.getOrderByList())) {
+      appendExpressions(stringBuilder.append(" ORDER BY "), pinotQuery.getOrderByList());
+    }
+    return stringBuilder.toString();
+  }
+
+  private static void appendExpressions(StringBuilder stringBuilder, @Nullable List<Expression> expressions) {
+    if (expressions == null) {
+      return;
+    }
+    boolean previousIsLiteral = false;
+    boolean first = true;
+    for (Expression expression : expressions) {
+      boolean isLiteral = expression.getType() == ExpressionType.LITERAL;
+      if (isLiteral && previousIsLiteral) {
+        continue;
+      }
+      if (!first) {
+        stringBuilder.append(',');
+      }
+      appendExpression(stringBuilder, expression);
+      previousIsLiteral = isLiteral;
+      first = false;
+    }
+  }
+
+  private static void appendExpression(StringBuilder stringBuilder, Expression expression) {
+    switch (expression.getType()) {
+      case LITERAL:
+        stringBuilder.append('?');
+        break;
+      case IDENTIFIER:
+        stringBuilder.append(expression.getIdentifier().getName());
+        break;
+      case FUNCTION:
+        Function function = expression.getFunctionCall();
+        stringBuilder.append(function.getOperator()).append('(');
+        appendExpressions(stringBuilder, function.getOperands());
+        stringBuilder.append(')');
+        break;
+      default:
+        throw new IllegalStateException("Unsupported expression type: " + expression.getType());
+    }
+  }
+
+  /**
+   * Returns the estimated number of documents scanned by the query with the given shape on the given table over the
+   * given number of routed documents.
+   */
+  public long estimateNumDocsScanned(String tableName, String queryShape, long numDocs) {
+    Double scannedFraction = _scannedFractions.getIfPresent(queryShape);
+    if (scannedFraction == null) {
+      scannedFraction = _tableScannedFractions.getIfPresent(tableName);
+      if (scannedFraction == null) {
+        return 0;
+      }
+    }
+    return (long) Math.ceil(numDocs * scannedFraction);
+  }
+
+  /**
+   * Records the number of documents scanned by an execution of the query with the given shape on the given table over
+   * the given number of routed documents.
+   */
+  public void recordNumDocsScanned(String tableName, String queryShape, long numDocs, long numDocsScanned) {
+    if (numDocs <= 0) {
+      return;
+    }
+    double scannedFraction = Math.min((double) numDocsScanned / numDocs, 1.0);
+    _scannedFractions.asMap().merge(queryShape, scannedFraction, QueryCostEstimator::updateMovingAverage);
+    _tableScannedFractions.asMap().merge(tableName, scannedFraction, QueryCostEstimator::updateMovingAverage);
+  }
+
+  private static Double updateMovingAverage(Double oldValue, Double newValue) {
+    return oldValue * (1 - ALPHA) + newValue * ALPHA;
+  }
+
+  public long size() {
+    return _scannedFractions.size();
+  }
+}
@@ -29,6 +29,8 @@ public class QueryQuotaEntity {
   private int _numOnlineBrokers;
   private double _overallRate;
   private int _tableConfigStatVersion;
+  private TokenBucketRateLimiter _docsScannedRateLimiter;
+  private double _overallDocsScannedRate;
 
   public QueryQuotaEntity(RateLimiter rateLimiter, HitCounter qpsTracker, MaxHitRateTracker maxQpsTracker,
       int numOnlineBrokers, double overallRate, int tableConfigStatVersion) {
@@ -79,4 +81,20 @@ public class QueryQuotaEntity {
   public void setTableConfigStatVersion(int tableConfigStatVersion) {
     _tableConfigStatVersion = tableConfigStatVersion;
   }
+
+  public TokenBucketRateLimiter getDocsScannedRateLimiter() {
+    return _docsScannedRateLimiter;
+  }
+
+  public void setDocsScannedRateLimiter(TokenBucketRateLimiter docsScannedRateLimiter) {
+    _docsScannedRateLimiter = docsScannedRateLimiter;
+  }
+
+  public double getOverallDocsScannedRate() {
+    return _overallDocsScannedRate;
+  }
+
+  public void setOverallDocsScannedRate(double overallDocsScannedRate) {
+    _overallDocsScannedRate = overallDocsScannedRate;
+  }
 }
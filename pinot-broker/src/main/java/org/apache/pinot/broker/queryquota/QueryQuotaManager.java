@@ -47,4 +47,55 @@ public interface QueryQuotaManager {
    * @return effective quota qps. 0 if no qps quota is set.
    */
   double getDatabaseQueryQuota(String databaseName);
+
+  /**
+   * Try to acquire the given estimated number of documents to scan from the docs scanned quota of the given table. When
+   * the quota is exhausted by the previous queries, waits up to the given time for it to be refilled. The quota is
+   * never borrowed from the future, and a query is charged at most one second of the quota.
+   * @param tableNameWithType table name with type
+   * @param numDocsScanned estimated number of documents to scan
+   * @param maxWaitMs max time to wait for the quota
+   * @return {@code true} if the table docs scanned quota has not been reached, {@code false} otherwise
+   */
+  boolean acquireDocsScanned(String tableNameWithType, long numDocsScanned, long maxWaitMs);
+
+  /**
+   * Try to acquire the given estimated number of documents to scan from the docs scanned quota of the given database.
+   * When the quota is exhausted by the previous queries, waits up to the given time for it to be refilled.
+   * @param databaseName database name
+   * @param numDocsScanned estimated number of documents to scan
+   * @param maxWaitMs max time to wait for the quota
+   * @return {@code true} if the database docs scanned quota has not been reached, {@code false} otherwise
+   */
+  boolean acquireDatabaseDocsScanned(String databaseName, long numDocsScanned, long maxWaitMs);
+
+  /**
+   * Returns the documents previously acquired with {@link #acquireDocsScanned(String, long, long)} to the docs scanned
+   * quota of the given table, e.g. when the query is rejected by another quota.
+   * @param tableNameWithType table name with type
+   * @param numDocsScanned number of documents acquired
+   */
+  void releaseDocsScanned(String tableNameWithType, long numDocsScanned);
+
+  /**
+   * Returns the documents previously acquired with {@link #acquireDatabaseDocsScanned(String, long, long)} to the docs
+   * scanned quota of the given database, e.g. when the query is rejected by another quota.
+   * @param databaseName database name
+   * @param numDocsScanned number of documents acquired
+   */
+  void releaseDatabaseDocsScanned(String databaseName, long numDocsScanned);
+
+  /**
+   * Get the docs scanned per second quota in effect for the table
+   * @param tableNameWithType table name with type
+   * @return effective quota of docs scanned per second. 0 if no docs scanned quota is set.
+   */
+  double getTableDocsScannedQuota(String tableNameWithType);
+
+  /**
+   * Get the docs scanned per second quota in effect for the database
+   * @param databaseName database name
+   * @return effective quota of docs scanned per second. 0 if no docs scanned quota is set.
+   */
+  double getDatabaseDocsScannedQuota(String databaseName);
 }
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.queryquota;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * Token bucket rate limiter for the docs scanned quota.
+ *
+ * <p>Unlike Guava {@link com.google.common.util.concurrent.RateLimiter}, it never borrows permits from the future: a
+ * request is granted only when the bucket holds enough tokens, so one expensive query cannot lock out the following
+ * queries for longer than the bucket takes to refill. The bucket holds at most one second worth of tokens, and a
+ * request for more permits than that is charged the full bucket. Acquired permits can be returned with
+ * {@link #release(long)}, e.g. when the query is rejected by another quota.
+ */
+@ThreadSafe
+public class TokenBucketRateLimiter {
+  private final Ticker _ticker;
+
+  private double _rate;
+  private double _numTokens;
+  private long _lastRefillTimeNs;
+
+  public TokenBucketRateLimiter(double rate) {
+    this(rate, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  TokenBucketRateLimiter(double rate, Ticker ticker) {
+    Preconditions.checkArgument(rate > 0, "Rate must be positive, got: %s", rate);
+    _ticker = ticker;
+    _rate = rate;
+    // Start with a full bucket so that the queries are not rejected right after the quota is set up
+    _numTokens = rate;
+    _lastRefillTimeNs = ticker.read();
+  }
+
+  public synchronized double getRate() {
+    return _rate;
+  }
+
+  public synchronized void setRate(double rate) {
+    Preconditions.checkArgument(rate > 0, "Rate must be positive, got: %s", rate);
+    refill();
+    _rate = rate;
+    _numTokens = Math.min(_numTokens, rate);
+  }
+
+  /**
+   * Tries to acquire the given number of permits (capped at the bucket capacity), waiting up to the given time for the
+   * bucket to be refilled.
+   * @return {@code true} if the permits are acquired, {@code false} if they cannot be acquired within the given time
+   */
+  public boolean tryAcquire(long permits, long maxWaitMs) {
+    if (permits <= 0) {
+      return true;
+    }
+    long deadlineNs = _ticker.read() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    while (true) {
+      long waitNs;
+      synchronized (this) {
+        refill();
+        double numTokensToAcquire = Math.min(permits, _rate);
+        if (_numTokens >= numTokensToAcquire) {
+          _numTokens -= numTokensToAcquire;
+          return true;
+        }
+        waitNs = (long) Math.ceil((numTokensToAcquire - _numTokens) / _rate * TimeUnit.SECONDS.toNanos(1));
+        if (_lastRefillTimeNs + waitNs > deadlineNs) {
+          return false;
+        }
+      }
+      Uninterruptibles.sleepUninterruptibly(waitNs, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Returns the given number of permits previously acquired with {@link #tryAcquire(long, long)} to the bucket.
+   */
+  public synchronized void release(long permits) {
+    if (permits > 0) {
+      refill();
+      _numTokens = Math.min(_numTokens + Math.min(permits, _rate), _rate);
+    }
+  }
+
+  private void refill() {
+    long currentTimeNs = _ticker.read();
+    double numTokensRefilled = (currentTimeNs - _lastRefillTimeNs) * _rate / TimeUnit.SECONDS.toNanos(1);
+    _numTokens = Math.min(_numTokens + numTokensRefilled, _rate);
+    _lastRefillTimeNs = currentTimeNs;
+  }
+}
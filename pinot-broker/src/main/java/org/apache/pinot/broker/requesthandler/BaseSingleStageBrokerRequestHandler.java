@@ -54,7 +54,9 @@ import org.apache.pinot.broker.api.AccessControl;
 import org.apache.pinot.broker.api.RequesterIdentity;
 import org.apache.pinot.broker.broker.AccessControlFactory;
 import org.apache.pinot.broker.querylog.QueryLogger;
+import org.apache.pinot.broker.queryquota.QueryCostEstimator;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
+import org.apache.pinot.broker.resultcache.BrokerResultCache;
 import org.apache.pinot.broker.routing.BrokerRoutingManager;
 import org.apache.pinot.common.config.provider.TableCache;
 import org.apache.pinot.common.exception.QueryException;
@@ -142,6 +144,9 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
   protected final boolean _enableDistinctCountBitmapOverride;
   protected final int _queryResponseLimit;
   protected final Map<Long, QueryServers> _queriesById;
+  protected final BrokerResultCache _resultCache;
+  protected final QueryCostEstimator _queryCostEstimator;
+  protected final long _docsScannedQuotaMaxWaitMs;
   protected final boolean _enableMultistageMigrationMetric;
   protected ExecutorService _multistageCompileExecutor;
   protected BlockingQueue<Pair<String, String>> _multistageCompileQueryQueue;
@@ -162,6 +167,15 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
     boolean enableQueryCancellation =
         Boolean.parseBoolean(config.getProperty(Broker.CONFIG_OF_BROKER_ENABLE_QUERY_CANCELLATION));
     _queriesById = enableQueryCancellation ? new ConcurrentHashMap<>() : null;
+    long resultCacheMaxSizeBytes = DataSizeUtils.toBytes(
+        _config.getProperty(Broker.CONFIG_OF_RESULT_CACHE_MAX_SIZE, Broker.DEFAULT_RESULT_CACHE_MAX_SIZE));
+    _resultCache = resultCacheMaxSizeBytes > 0 ? new BrokerResultCache(resultCacheMaxSizeBytes,
+        _config.getProperty(Broker.CONFIG_OF_RESULT_CACHE_REALTIME_EXPIRE_MS,
+            Broker.DEFAULT_RESULT_CACHE_REALTIME_EXPIRE_MS)) : null;
+    _queryCostEstimator = new QueryCostEstimator(
+        _config.getProperty(Broker.CONFIG_OF_QUERY_COST_STATS_MAX_SIZE, Broker.DEFAULT_QUERY_COST_STATS_MAX_SIZE));
+    _docsScannedQuotaMaxWaitMs = _config.getProperty(Broker.CONFIG_OF_DOCS_SCANNED_QUOTA_MAX_WAIT_MS,
+        Broker.DEFAULT_DOCS_SCANNED_QUOTA_MAX_WAIT_MS);
 
     _enableMultistageMigrationMetric = _config.getProperty(Broker.CONFIG_OF_BROKER_ENABLE_MULTISTAGE_MIGRATION_METRIC,
         Broker.DEFAULT_ENABLE_MULTISTAGE_MIGRATION_METRIC);
@@ -613,6 +627,14 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
         realtimeBrokerRequest.getPinotQuery().setFilterExpression(null);
       }
 
+      // Read the routing versions for the result cache before calculating the routing tables, so that a cached
+      // response never covers a routing change that happened after reading the version
+      boolean useResultCache = isResultCacheEnabled(pinotQuery, requestContext);
+      Long offlineRoutingVersion =
+          useResultCache && offlineBrokerRequest != null ? _routingManager.getRoutingVersion(offlineTableName) : null;
+      Long realtimeRoutingVersion =
+          useResultCache && realtimeBrokerRequest != null ? _routingManager.getRoutingVersion(realtimeTableName) : null;
+
       // Calculate routing table for the query
       // TODO: Modify RoutingManager interface to directly take PinotQuery
       long routingStartTimeNs = System.nanoTime();
@@ -688,6 +710,57 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
       _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_ROUTING,
           routingEndTimeNs - routingStartTimeNs);
 
+      // Look up the result cache. Responses with unavailable segments are not cached.
+      String resultCacheKey = null;
+      if (useResultCache && numUnavailableSegments == 0 && (offlineBrokerRequest == null
+          || offlineRoutingVersion != null) && (realtimeBrokerRequest == null || realtimeRoutingVersion != null)) {
+        resultCacheKey = BrokerResultCache.getKey(pinotQuery, offlineBrokerRequest, offlineRoutingVersion,
+            realtimeBrokerRequest, realtimeRoutingVersion);
+        BrokerResponseNative cachedResponse = _resultCache.get(resultCacheKey);
+        if (cachedResponse != null) {
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1);
+          long totalTimeMs = System.currentTimeMillis() - requestContext.getRequestArrivalTimeMillis();
+          cachedResponse.setTimeUsedMs(totalTimeMs);
+          augmentStatistics(requestContext, cachedResponse);
+          if (QueryOptionsUtils.shouldDropResults(pinotQuery.getQueryOptions())) {
+            cachedResponse.setResultTable(null);
+          }
+          _brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.QUERY_TOTAL_TIME_MS, totalTimeMs,
+              TimeUnit.MILLISECONDS);
+          _queryLogger.log(
+              new QueryLogger.QueryLogParams(requestContext, tableName, cachedResponse, requesterIdentity, null));
+          return cachedResponse;
+        }
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1);
+      }
+
+      // Validate docs scanned quota with the estimated number of documents to scan before sending the query to servers
+      String queryShape = null;
+      long numDocsRouted = 0;
+      String databaseName = DatabaseUtils.extractDatabaseFromFullyQualifiedTableName(tableName);
+      if (!pinotQuery.isExplain() && hasDocsScannedQuota(databaseName, offlineRoutingTable != null ? offlineTableName
+          : null, realtimeRoutingTable != null ? realtimeTableName : null)) {
+        queryShape = QueryCostEstimator.getQueryShape(serverPinotQuery);
+        long numOfflineDocs =
+            offlineRoutingTable != null ? _routingManager.getNumDocs(offlineTableName, offlineRoutingTable) : 0;
+        long numRealtimeDocs =
+            realtimeRoutingTable != null ? _routingManager.getNumDocs(realtimeTableName, realtimeRoutingTable) : 0;
+        numDocsRouted = numOfflineDocs + numRealtimeDocs;
+        String quotaExceededResource =
+            acquireDocsScannedQuota(rawTableName, queryShape, databaseName, offlineTableName, numOfflineDocs,
+                realtimeTableName, numRealtimeDocs);
+        if (quotaExceededResource != null) {
+          String errorMessage =
+              String.format("Request %d: %s exceeds docs scanned quota for table/database: %s", requestId, query,
+                  quotaExceededResource);
+          LOGGER.info(errorMessage);
+          requestContext.setErrorCode(QueryException.TOO_MANY_REQUESTS_ERROR_CODE);
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.QUERY_DOCS_SCANNED_QUOTA_EXCEEDED, 1);
+          return new BrokerResponseNative(
+              QueryException.getException(QueryException.QUOTA_EXCEEDED_ERROR, errorMessage));
+        }
+      }
+
       // Set timeout in the requests
       long timeSpentMs = TimeUnit.NANOSECONDS.toMillis(routingEndTimeNs - compilationStartTimeNs);
       // Remaining time in milliseconds for the server query execution
@@ -807,6 +880,17 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
             1);
       }
 
+      // Record the number of documents scanned for the docs scanned quota estimation
+      if (queryShape != null && brokerResponse.getExceptions().isEmpty()) {
+        _queryCostEstimator.recordNumDocsScanned(rawTableName, queryShape, numDocsRouted,
+            brokerResponse.getNumDocsScanned());
+      }
+
+      // Only cache complete responses
+      if (resultCacheKey != null && !brokerResponse.isPartialResult()) {
+        _resultCache.put(resultCacheKey, brokerResponse, realtimeBrokerRequest != null);
+      }
+
       // Set total query processing time
       long totalTimeMs = System.currentTimeMillis() - requestContext.getRequestArrivalTimeMillis();
       brokerResponse.setTimeUsedMs(totalTimeMs);
@@ -827,6 +911,19 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
     }
   }
 
+  /**
+   * Returns whether the result cache can be used for the query. The cache is skipped for the explain and the traced
+   * queries, and when explicitly disabled in the query options.
+   */
+  private boolean isResultCacheEnabled(PinotQuery pinotQuery, RequestContext requestContext) {
+    if (_resultCache == null || pinotQuery.isExplain() || requestContext.isSampledRequest()) {
+      return false;
+    }
+    Map<String, String> queryOptions = pinotQuery.getQueryOptions();
+    return !QueryOptionsUtils.isSkipResultCache(queryOptions) && !Boolean.parseBoolean(
+        queryOptions.get(Broker.Request.TRACE));
+  }
+
   @VisibleForTesting
   static String addRoutingPolicyInErrMsg(String errorMessage, String realtimeRoutingPolicy,
       String offlineRoutingPolicy) {
@@ -1852,6 +1949,48 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
     }
   }
 
+  private boolean hasDocsScannedQuota(String database, @Nullable String offlineTableName,
+      @Nullable String realtimeTableName) {
+    return _queryQuotaManager.getDatabaseDocsScannedQuota(database) > 0 || (offlineTableName != null
+        && _queryQuotaManager.getTableDocsScannedQuota(offlineTableName) > 0) || (realtimeTableName != null
+        && _queryQuotaManager.getTableDocsScannedQuota(realtimeTableName) > 0);
+  }
+
+  /**
+   * Acquires the estimated number of documents to scan from the docs scanned quota of the database and the queried
+   * tables, returns the name of the database/table whose quota is exceeded, or {@code null} if all the quotas are
+   * acquired. When a quota is exceeded, the quotas already acquired for the query are released.
+   */
+  @Nullable
+  private String acquireDocsScannedQuota(String rawTableName, String queryShape, String database,
+      @Nullable String offlineTableName, long numOfflineDocs, @Nullable String realtimeTableName,
+      long numRealtimeDocs) {
+    long numOfflineDocsScanned = _queryCostEstimator.estimateNumDocsScanned(rawTableName, queryShape, numOfflineDocs);
+    long numRealtimeDocsScanned =
+        _queryCostEstimator.estimateNumDocsScanned(rawTableName, queryShape, numRealtimeDocs);
+    long numDocsScanned = numOfflineDocsScanned + numRealtimeDocsScanned;
+    if (numDocsScanned == 0) {
+      return null;
+    }
+    if (!_queryQuotaManager.acquireDatabaseDocsScanned(database, numDocsScanned, _docsScannedQuotaMaxWaitMs)) {
+      return database;
+    }
+    if (numOfflineDocsScanned > 0 && !_queryQuotaManager.acquireDocsScanned(offlineTableName, numOfflineDocsScanned,
+        _docsScannedQuotaMaxWaitMs)) {
+      _queryQuotaManager.releaseDatabaseDocsScanned(database, numDocsScanned);
+      return offlineTableName;
+    }
+    if (numRealtimeDocsScanned > 0 && !_queryQuotaManager.acquireDocsScanned(realtimeTableName,
+        numRealtimeDocsScanned, _docsScannedQuotaMaxWaitMs)) {
+      _queryQuotaManager.releaseDatabaseDocsScanned(database, numDocsScanned);
+      if (numOfflineDocsScanned > 0) {
+        _queryQuotaManager.releaseDocsScanned(offlineTableName, numOfflineDocsScanned);
+      }
+      return realtimeTableName;
+    }
+    return null;
+  }
+
   /**
    * Processes the optimized broker requests for both OFFLINE and REALTIME table.
    * TODO: Directly take PinotQuery
@@ -54,6 +54,7 @@ import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.auth.Actions;
 import org.apache.pinot.core.auth.TargetType;
 import org.apache.pinot.query.QueryEnvironment;
+import org.apache.pinot.query.QueryPlanCache;
 import org.apache.pinot.query.catalog.PinotCatalog;
 import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.planner.physical.DispatchablePlanFragment;
@@ -84,6 +85,9 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
   private final WorkerManager _workerManager;
   private final QueryDispatcher _queryDispatcher;
   private final PinotCatalog _catalog;
+  private final QueryPlanCache _planCache;
+  private final boolean _enableJoinReorder;
+  private final long _autoBroadcastJoinMaxRowCount;
 
   public MultiStageBrokerRequestHandler(PinotConfiguration config, String brokerId, BrokerRoutingManager routingManager,
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, TableCache tableCache) {
@@ -93,6 +97,22 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
     _workerManager = new WorkerManager(hostname, port, _routingManager);
     _queryDispatcher = new QueryDispatcher(new MailboxService(hostname, port, config));
     _catalog = new PinotCatalog(tableCache);
+    int planCacheMaxSize = config.getProperty(CommonConstants.Broker.CONFIG_OF_MULTI_STAGE_PLAN_CACHE_MAX_SIZE,
+        CommonConstants.Broker.DEFAULT_MULTI_STAGE_PLAN_CACHE_MAX_SIZE);
+    if (planCacheMaxSize > 0) {
+      _planCache = new QueryPlanCache(planCacheMaxSize,
+          config.getProperty(CommonConstants.Broker.CONFIG_OF_MULTI_STAGE_PLAN_CACHE_EXPIRE_MS,
+              CommonConstants.Broker.DEFAULT_MULTI_STAGE_PLAN_CACHE_EXPIRE_MS));
+      tableCache.registerTableConfigChangeListener(tableConfigs -> _planCache.invalidateAll());
+      tableCache.registerSchemaChangeListener(schemas -> _planCache.invalidateAll());
+    } else {
+      _planCache = null;
+    }
+    _enableJoinReorder = config.getProperty(CommonConstants.Broker.CONFIG_OF_MULTI_STAGE_ENABLE_JOIN_REORDER,
+        CommonConstants.Broker.DEFAULT_MULTI_STAGE_ENABLE_JOIN_REORDER);
+    _autoBroadcastJoinMaxRowCount =
+        config.getProperty(CommonConstants.Broker.CONFIG_OF_MULTI_STAGE_AUTO_BROADCAST_JOIN_MAX_ROW_COUNT,
+            CommonConstants.Broker.DEFAULT_MULTI_STAGE_AUTO_BROADCAST_JOIN_MAX_ROW_COUNT);
     LOGGER.info("Initialized MultiStageBrokerRequestHandler on host: {}, port: {} with broker id: {}, timeout: {}ms, "
             + "query log max length: {}, query log max rate: {}", hostname, port, _brokerId, _brokerTimeoutMs,
         _queryLogger.getMaxQueryLengthToLog(), _queryLogger.getLogRateLimit());
@@ -125,7 +145,9 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
       Long timeoutMsFromQueryOption = QueryOptionsUtils.getTimeoutMs(queryOptions);
       queryTimeoutMs = timeoutMsFromQueryOption != null ? timeoutMsFromQueryOption : _brokerTimeoutMs;
       database = DatabaseUtils.extractDatabaseFromQueryRequest(queryOptions, httpHeaders);
-      QueryEnvironment queryEnvironment = new QueryEnvironment(database, _tableCache, _workerManager);
+      QueryEnvironment queryEnvironment =
+          new QueryEnvironment(database, _tableCache, _workerManager, _planCache, _enableJoinReorder,
+              _autoBroadcastJoinMaxRowCount);
       switch (sqlNodeAndOptions.getSqlNode().getKind()) {
         case EXPLAIN:
           queryPlanResult = queryEnvironment.explainQuery(query, sqlNodeAndOptions, requestId);
@@ -42,7 +42,9 @@ import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
 import org.apache.pinot.common.response.broker.QueryProcessingException;
 import org.apache.pinot.core.query.reduce.BrokerReduceService;
+import org.apache.pinot.core.query.reduce.GroupByRecordPartitioner;
 import org.apache.pinot.core.transport.AsyncQueryResponse;
+import org.apache.pinot.core.transport.QueryHedger;
 import org.apache.pinot.core.transport.QueryResponse;
 import org.apache.pinot.core.transport.QueryRouter;
 import org.apache.pinot.core.transport.ServerInstance;
@@ -76,7 +78,14 @@ public class SingleConnectionBrokerRequestHandler extends BaseSingleStageBrokerR
       ServerRoutingStatsManager serverRoutingStatsManager) {
     super(config, brokerId, routingManager, accessControlFactory, queryQuotaManager, tableCache);
     _brokerReduceService = new BrokerReduceService(_config);
-    _queryRouter = new QueryRouter(_brokerId, _brokerMetrics, nettyConfig, tlsConfig, serverRoutingStatsManager);
+    QueryHedger queryHedger = null;
+    if (_config.getProperty(CommonConstants.Broker.CONFIG_OF_ENABLE_HEDGED_REQUESTS,
+        CommonConstants.Broker.DEFAULT_ENABLE_HEDGED_REQUESTS)) {
+      LOGGER.info("Enable hedged requests");
+      queryHedger = new QueryHedger(_config, routingManager::getReplicaServerInstance);
+    }
+    _queryRouter = new QueryRouter(_brokerId, _brokerMetrics, nettyConfig, tlsConfig, serverRoutingStatsManager,
+        queryHedger);
     _failureDetector = FailureDetectorFactory.getFailureDetector(config, _brokerMetrics);
   }
 
@@ -109,10 +118,21 @@ public class SingleConnectionBrokerRequestHandler extends BaseSingleStageBrokerR
     }
 
     String rawTableName = TableNameBuilder.extractRawTableName(serverBrokerRequest.getQuerySource().getTableName());
+    // Start extracting the group-by records from the server responses as they arrive if enabled
+    int numServersToQuery = 0;
+    if (offlineRoutingTable != null) {
+      numServersToQuery += offlineRoutingTable.size();
+    }
+    if (realtimeRoutingTable != null) {
+      numServersToQuery += realtimeRoutingTable.size();
+    }
+    GroupByRecordPartitioner recordPartitioner =
+        _brokerReduceService.getRecordPartitioner(serverBrokerRequest, numServersToQuery);
     long scatterGatherStartTimeNs = System.nanoTime();
     AsyncQueryResponse asyncQueryResponse =
         _queryRouter.submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable,
-            realtimeBrokerRequest, realtimeRoutingTable, timeoutMs);
+            realtimeBrokerRequest, realtimeRoutingTable, timeoutMs,
+            recordPartitioner != null ? recordPartitioner::submit : null);
     _failureDetector.notifyQuerySubmitted(asyncQueryResponse);
     Map<ServerRoutingInstance, ServerResponse> finalResponses = asyncQueryResponse.getFinalResponses();
     if (asyncQueryResponse.getStatus() == QueryResponse.Status.TIMED_OUT) {
@@ -144,7 +164,7 @@ public class SingleConnectionBrokerRequestHandler extends BaseSingleStageBrokerR
     long reduceTimeoutMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs);
     BrokerResponseNative brokerResponse =
         _brokerReduceService.reduceOnDataTable(originalBrokerRequest, serverBrokerRequest, dataTableMap,
-            reduceTimeoutMs, _brokerMetrics);
+            reduceTimeoutMs, _brokerMetrics, recordPartitioner);
     long reduceTimeNanos = System.nanoTime() - reduceStartTimeNs;
     _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.REDUCE, reduceTimeNanos);
 
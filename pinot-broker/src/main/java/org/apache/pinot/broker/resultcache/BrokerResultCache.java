@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.resultcache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code BrokerResultCache} caches the responses of the single-stage queries on the broker, so that repeated
+ * queries (e.g. dashboard refreshes) can be answered without querying the servers.
+ *
+ * <p>The responses are keyed by the compiled queries sent to the servers (which already carry the table name, the time
+ * boundary and the query options) and by the routing version of the queried tables. The routing version changes on
+ * every segment change observed by the {@link org.apache.pinot.broker.routing.BrokerRoutingManager}, so the cached
+ * responses are implicitly invalidated by the segment changes, and evicted from the cache when it runs out of space.
+ * The responses involving a real-time table also expire after a configured time because the consuming segments keep
+ * changing without any routing change.
+ *
+ * <p>The responses are stored serialized so that each query gets its own copy, and the memory used by the cache is
+ * bounded by the total size of the serialized responses.
+ *
+ * <p>This class is thread safe.
+ */
+public class BrokerResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+
+  private final Cache<String, CachedResponse> _cache;
+  private final long _realtimeExpireMs;
+
+  public BrokerResultCache(long maxSizeBytes, long realtimeExpireMs) {
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeBytes)
+        .<String, CachedResponse>weigher((key, value) -> key.length() + value._responseJson.length()).build();
+    _realtimeExpireMs = realtimeExpireMs;
+  }
+
+  /**
+   * Returns the cache key for the given query, where the offline/real-time broker request and routing version should
+   * be both provided or both {@code null}.
+   */
+  public static String getKey(PinotQuery pinotQuery, @Nullable BrokerRequest offlineBrokerRequest,
+      @Nullable Long offlineRoutingVersion, @Nullable BrokerRequest realtimeBrokerRequest,
+      @Nullable Long realtimeRoutingVersion) {
+    StringBuilder stringBuilder = new StringBuilder().append(pinotQuery);
+    if (offlineBrokerRequest != null) {
+      stringBuilder.append("\nOFFLINE:").append(offlineRoutingVersion).append(':')
+          .append(offlineBrokerRequest.getPinotQuery());
+    }
+    if (realtimeBrokerRequest != null) {
+      stringBuilder.append("\nREALTIME:").append(realtimeRoutingVersion).append(':')
+          .append(realtimeBrokerRequest.getPinotQuery());
+    }
+    return Hashing.sha256().hashString(stringBuilder, StandardCharsets.UTF_8).toString();
+  }
+
+  /**
+   * Returns a copy of the cached response for the given key, or {@code null} if it is not cached or has expired.
+   */
+  @Nullable
+  public BrokerResponseNative get(String key) {
+    CachedResponse cachedResponse = _cache.getIfPresent(key);
+    if (cachedResponse == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() >= cachedResponse._expirationTimeMs) {
+      _cache.invalidate(key);
+      return null;
+    }
+    try {
+      return BrokerResponseNative.fromJsonString(cachedResponse._responseJson);
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while deserializing the cached response, invalidating it", e);
+      _cache.invalidate(key);
+      return null;
+    }
+  }
+
+  /**
+   * Caches the given response. The response should not have any exception.
+   */
+  public void put(String key, BrokerResponseNative brokerResponse, boolean hasRealtimeTable) {
+    String responseJson;
+    try {
+      responseJson = brokerResponse.toJsonString();
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while serializing the response, skipping caching it", e);
+      return;
+    }
+    long expirationTimeMs = hasRealtimeTable ? System.currentTimeMillis() + _realtimeExpireMs : Long.MAX_VALUE;
+    _cache.put(key, new CachedResponse(responseJson, expirationTimeMs));
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  private static class CachedResponse {
+    final String _responseJson;
+    final long _expirationTimeMs;
+
+    CachedResponse(String responseJson, long expirationTimeMs) {
+      _responseJson = responseJson;
+      _expirationTimeMs = expirationTimeMs;
+    }
+  }
+}
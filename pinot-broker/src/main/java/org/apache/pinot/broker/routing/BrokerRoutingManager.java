@@ -46,6 +46,7 @@ import org.apache.pinot.broker.routing.instanceselector.InstanceSelector;
 import org.apache.pinot.broker.routing.instanceselector.InstanceSelectorFactory;
 import org.apache.pinot.broker.routing.segmentmetadata.SegmentZkMetadataFetchListener;
 import org.apache.pinot.broker.routing.segmentmetadata.SegmentZkMetadataFetcher;
+import org.apache.pinot.broker.routing.segmentmetadata.TableNumDocsManager;
 import org.apache.pinot.broker.routing.segmentpartition.SegmentPartitionMetadataManager;
 import org.apache.pinot.broker.routing.segmentpreselector.SegmentPreSelector;
 import org.apache.pinot.broker.routing.segmentpreselector.SegmentPreSelectorFactory;
@@ -105,6 +106,8 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
   private final Map<String, ServerInstance> _enabledServerInstanceMap = new ConcurrentHashMap<>();
   // NOTE: _excludedServers doesn't need to be concurrent because it is only accessed within the synchronized block
   private final Set<String> _excludedServers = new HashSet<>();
+  // NOTE: _routingVersion doesn't need to be atomic because it is only updated within the synchronized block
+  private long _routingVersion;
   private final ServerRoutingStatsManager _serverRoutingStatsManager;
   private final PinotConfiguration _pinotConfig;
 
@@ -191,6 +194,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
               continue;
             }
             routingEntry.onAssignmentChange(idealState, externalView);
+            routingEntry.setRoutingVersion(++_routingVersion);
           } catch (Exception e) {
             LOGGER.error(
                 "Caught unexpected exception while updating routing entry on segment assignment change for table: {}",
@@ -528,12 +532,15 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     if (partitionMetadataManager != null) {
       segmentZkMetadataFetcher.register(partitionMetadataManager);
     }
+    TableNumDocsManager numDocsManager = new TableNumDocsManager();
+    segmentZkMetadataFetcher.register(numDocsManager);
     segmentZkMetadataFetcher.init(idealState, externalView, preSelectedOnlineSegments);
 
     RoutingEntry routingEntry =
         new RoutingEntry(tableNameWithType, idealStatePath, externalViewPath, segmentPreSelector, segmentSelector,
             segmentPruners, instanceSelector, idealStateVersion, externalViewVersion, segmentZkMetadataFetcher,
-            timeBoundaryManager, partitionMetadataManager, queryTimeoutMs);
+            timeBoundaryManager, partitionMetadataManager, numDocsManager, queryTimeoutMs);
+    routingEntry.setRoutingVersion(++_routingVersion);
     if (_routingEntryMap.put(tableNameWithType, routingEntry) == null) {
       LOGGER.info("Built routing for table: {}", tableNameWithType);
     } else {
@@ -589,6 +596,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
     if (routingEntry != null) {
       routingEntry.refreshSegment(segment);
+      routingEntry.setRoutingVersion(++_routingVersion);
       LOGGER.info("Refreshed segment: {} for table: {}", segment, tableNameWithType);
     } else {
       LOGGER.warn("Routing does not exist for table: {}, skipping refreshing segment", tableNameWithType);
@@ -701,6 +709,62 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     return routingEntry._instanceSelector.getServingInstances();
   }
 
+  @Nullable
+  @Override
+  public Long getNumDocs(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    if (routingEntry == null) {
+      return null;
+    }
+    return routingEntry.getNumDocsManager().getNumDocs();
+  }
+
+  /**
+   * Returns the estimated total number of documents in the segments of the given routing table, or 0 if the routing
+   * does not exist.
+   */
+  public long getNumDocs(String tableNameWithType,
+      Map<ServerInstance, Pair<List<String>, List<String>>> serverInstanceToSegmentsMap) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    if (routingEntry == null) {
+      return 0;
+    }
+    TableNumDocsManager numDocsManager = routingEntry.getNumDocsManager();
+    long numDocs = 0;
+    for (Pair<List<String>, List<String>> segments : serverInstanceToSegmentsMap.values()) {
+      numDocs += numDocsManager.getNumDocs(segments.getLeft());
+      if (segments.getRight() != null) {
+        numDocs += numDocsManager.getNumDocs(segments.getRight());
+      }
+    }
+    return numDocs;
+  }
+
+  /**
+   * Returns an enabled server instance other than the given instance which is online for all the given segments of the
+   * given table, or {@code null} if the routing does not exist or there is no such instance.
+   */
+  @Nullable
+  public ServerInstance getReplicaServerInstance(String tableNameWithType, String instanceId, List<String> segments) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    if (routingEntry == null) {
+      return null;
+    }
+    String replica = routingEntry._instanceSelector.getReplicaInstance(instanceId, segments);
+    return replica != null ? _enabledServerInstanceMap.get(replica) : null;
+  }
+
+  /**
+   * Returns the version of the routing for the given table, or {@code null} if the routing does not exist. The version
+   * changes after every segment assignment change or segment refresh of the table, and is never reused, so it can be
+   * used to tell whether anything has changed in the routing since it was read.
+   */
+  @Nullable
+  public Long getRoutingVersion(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    return routingEntry != null ? routingEntry.getRoutingVersion() : null;
+  }
+
   /**
    * Returns the table-level query timeout in milliseconds for the given table, or {@code null} if the timeout is not
    * configured in the table config.
@@ -719,6 +783,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     final SegmentSelector _segmentSelector;
     final List<SegmentPruner> _segmentPruners;
     final SegmentPartitionMetadataManager _partitionMetadataManager;
+    final TableNumDocsManager _numDocsManager;
     final InstanceSelector _instanceSelector;
     final Long _queryTimeoutMs;
     final SegmentZkMetadataFetcher _segmentZkMetadataFetcher;
@@ -728,12 +793,15 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     transient int _lastUpdateExternalViewVersion;
     // Time boundary manager is only available for the offline part of the hybrid table
     transient TimeBoundaryManager _timeBoundaryManager;
+    // Version of the routing, updated after every change of the segments
+    volatile long _routingVersion;
 
     RoutingEntry(String tableNameWithType, String idealStatePath, String externalViewPath,
         SegmentPreSelector segmentPreSelector, SegmentSelector segmentSelector, List<SegmentPruner> segmentPruners,
         InstanceSelector instanceSelector, int lastUpdateIdealStateVersion, int lastUpdateExternalViewVersion,
         SegmentZkMetadataFetcher segmentZkMetadataFetcher, @Nullable TimeBoundaryManager timeBoundaryManager,
-        @Nullable SegmentPartitionMetadataManager partitionMetadataManager, @Nullable Long queryTimeoutMs) {
+        @Nullable SegmentPartitionMetadataManager partitionMetadataManager, TableNumDocsManager numDocsManager,
+        @Nullable Long queryTimeoutMs) {
       _tableNameWithType = tableNameWithType;
       _idealStatePath = idealStatePath;
       _externalViewPath = externalViewPath;
@@ -745,6 +813,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       _lastUpdateExternalViewVersion = lastUpdateExternalViewVersion;
       _timeBoundaryManager = timeBoundaryManager;
       _partitionMetadataManager = partitionMetadataManager;
+      _numDocsManager = numDocsManager;
       _queryTimeoutMs = queryTimeoutMs;
       _segmentZkMetadataFetcher = segmentZkMetadataFetcher;
     }
@@ -761,6 +830,14 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       return _lastUpdateExternalViewVersion;
     }
 
+    long getRoutingVersion() {
+      return _routingVersion;
+    }
+
+    void setRoutingVersion(long routingVersion) {
+      _routingVersion = routingVersion;
+    }
+
     void setTimeBoundaryManager(@Nullable TimeBoundaryManager timeBoundaryManager) {
       _timeBoundaryManager = timeBoundaryManager;
     }
@@ -775,6 +852,10 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       return _partitionMetadataManager;
     }
 
+    TableNumDocsManager getNumDocsManager() {
+      return _numDocsManager;
+    }
+
     Long getQueryTimeoutMs() {
       return _queryTimeoutMs;
     }
@@ -29,6 +29,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.helix.AccessOption;
@@ -458,6 +459,45 @@ abstract class BaseInstanceSelector implements InstanceSelector {
     return _segmentStates.getServingInstances();
   }
 
+  @Nullable
+  @Override
+  public String getReplicaInstance(String instance, List<String> segments) {
+    if (segments.isEmpty()) {
+      return null;
+    }
+    SegmentStates segmentStates = _segmentStates;
+    List<String> replicas = null;
+    for (String segment : segments) {
+      List<SegmentInstanceCandidate> candidates = segmentStates.getCandidates(segment);
+      if (candidates == null) {
+        return null;
+      }
+      if (replicas == null) {
+        replicas = new ArrayList<>(candidates.size());
+        for (SegmentInstanceCandidate candidate : candidates) {
+          if (candidate.isOnline() && !candidate.getInstance().equals(instance)) {
+            replicas.add(candidate.getInstance());
+          }
+        }
+      } else {
+        replicas.removeIf(replica -> !isOnlineCandidate(candidates, replica));
+      }
+      if (replicas.isEmpty()) {
+        return null;
+      }
+    }
+    return replicas.get(ThreadLocalRandom.current().nextInt(replicas.size()));
+  }
+
+  private static boolean isOnlineCandidate(List<SegmentInstanceCandidate> candidates, String instance) {
+    for (SegmentInstanceCandidate candidate : candidates) {
+      if (candidate.isOnline() && candidate.getInstance().equals(instance)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Selects the server instances for the given segments based on the request id and segment states. Returns two maps
    * from segment to selected server instance hosting the segment. The 2nd map is for optional segments. The optional
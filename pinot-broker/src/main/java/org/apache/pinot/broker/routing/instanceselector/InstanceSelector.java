@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.helix.model.ExternalView;
 import org.apache.helix.model.IdealState;
@@ -79,6 +80,15 @@ public interface InstanceSelector {
    */
   Set<String> getServingInstances();
 
+  /**
+   * Returns an enabled server instance other than the given instance which is online for all the given segments, or
+   * {@code null} if there is no such instance. This is used to send hedged requests to another replica.
+   */
+  @Nullable
+  default String getReplicaInstance(String instance, List<String> segments) {
+    return null;
+  }
+
   class SelectionResult {
     private final Pair<Map<String, String>, Map<String, String>/*optional segments*/> _segmentToInstanceMap;
     private final List<String> _unavailableSegments;
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.segmentmetadata;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.spi.utils.CommonConstants;
+
+
+/**
+ * The {@code TableNumDocsManager} tracks the total number of documents in the online segments of a table based on the
+ * segment ZK metadata. It is used by the multi-stage query planner to estimate the size of the tables, and by the
+ * broker to estimate the number of documents in the routed segments.
+ * Segments with -1 total docs (that can be either error case or CONSUMING segment) are estimated with the average
+ * number of documents per segment of the table.
+ */
+public class TableNumDocsManager implements SegmentZkMetadataFetchListener {
+  // Map from segment to its number of documents, only contains segments with valid total docs
+  // NOTE: Modified under the lock, but can be read concurrently by the query threads
+  private final Map<String, Long> _segmentNumDocsMap = new ConcurrentHashMap<>();
+
+  // Total number of documents in the segments with valid total docs
+  private volatile long _numDocs;
+  // Estimated total number of documents in the online segments, null when it cannot be estimated
+  private volatile Long _estimatedNumDocs;
+  private int _numOnlineSegments;
+
+  @Override
+  public synchronized void init(IdealState idealState, ExternalView externalView, List<String> onlineSegments,
+      List<ZNRecord> znRecords) {
+    for (int idx = 0; idx < onlineSegments.size(); idx++) {
+      updateSegment(onlineSegments.get(idx), znRecords.get(idx));
+    }
+    _numOnlineSegments = onlineSegments.size();
+    updateNumDocs();
+  }
+
+  @Override
+  public synchronized void onAssignmentChange(IdealState idealState, ExternalView externalView,
+      Set<String> onlineSegments, List<String> pulledSegments, List<ZNRecord> znRecords) {
+    for (int idx = 0; idx < pulledSegments.size(); idx++) {
+      updateSegment(pulledSegments.get(idx), znRecords.get(idx));
+    }
+    _segmentNumDocsMap.keySet().retainAll(onlineSegments);
+    _numOnlineSegments = onlineSegments.size();
+    updateNumDocs();
+  }
+
+  @Override
+  public synchronized void refreshSegment(String segment, @Nullable ZNRecord znRecord) {
+    updateSegment(segment, znRecord);
+    updateNumDocs();
+  }
+
+  /**
+   * Returns the estimated total number of documents in the online segments of the table. Segments without valid total
+   * docs (e.g. CONSUMING segments) are estimated with the average number of documents per segment of the table. Returns
+   * {@code null} when the number of documents cannot be estimated, i.e. none of the online segments has valid total
+   * docs (e.g. a new real-time table with only CONSUMING segments).
+   */
+  @Nullable
+  public Long getNumDocs() {
+    return _estimatedNumDocs;
+  }
+
+  /**
+   * Returns the total number of documents in the given segments. Segments without valid total docs (e.g. CONSUMING
+   * segments) are estimated with the average number of documents per segment of the table.
+   */
+  public long getNumDocs(List<String> segments) {
+    long numDocs = 0;
+    int numUnknownSegments = 0;
+    for (String segment : segments) {
+      Long segmentNumDocs = _segmentNumDocsMap.get(segment);
+      if (segmentNumDocs != null) {
+        numDocs += segmentNumDocs;
+      } else {
+        numUnknownSegments++;
+      }
+    }
+    if (numUnknownSegments > 0) {
+      int numSegments = _segmentNumDocsMap.size();
+      if (numSegments > 0) {
+        numDocs += _numDocs / numSegments * numUnknownSegments;
+      }
+    }
+    return numDocs;
+  }
+
+  private void updateSegment(String segment, @Nullable ZNRecord znRecord) {
+    long numDocs = znRecord != null ? znRecord.getLongField(CommonConstants.Segment.TOTAL_DOCS, -1) : -1;
+    if (numDocs >= 0) {
+      _segmentNumDocsMap.put(segment, numDocs);
+    } else {
+      _segmentNumDocsMap.remove(segment);
+    }
+  }
+
+  private void updateNumDocs() {
+    long numDocs = 0;
+    for (long segmentNumDocs : _segmentNumDocsMap.values()) {
+      numDocs += segmentNumDocs;
+    }
+    _numDocs = numDocs;
+    int numSegments = _segmentNumDocsMap.size();
+    int numUnknownSegments = _numOnlineSegments - numSegments;
+    if (numUnknownSegments <= 0) {
+      _estimatedNumDocs = numDocs;
+    } else if (numSegments > 0) {
+      _estimatedNumDocs = numDocs + numDocs / numSegments * numUnknownSegments;
+    } else {
+      _estimatedNumDocs = null;
+    }
+  }
+}
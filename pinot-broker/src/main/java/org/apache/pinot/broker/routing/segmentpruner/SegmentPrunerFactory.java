@@ -19,10 +19,12 @@
 package org.apache.pinot.broker.routing.segmentpruner;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
@@ -35,6 +37,8 @@ import org.apache.pinot.spi.config.table.SegmentsValidationAndRetentionConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,10 +80,16 @@ public class SegmentPrunerFactory {
               configuredSegmentPruners.add(timeSegmentPruner);
             }
           }
+          if (RoutingConfig.VALUE_SEGMENT_PRUNER_TYPE.equalsIgnoreCase(segmentPrunerType)) {
+            ValueSegmentPruner valueSegmentPruner = getValueSegmentPruner(tableConfig, propertyStore);
+            if (valueSegmentPruner != null) {
+              configuredSegmentPruners.add(valueSegmentPruner);
+            }
+          }
         }
-        // Sort all segment pruners in order of: empty -> time -> partition. We are trying to sort them in a this order
-        // for improving the performance, this order may not be the optimal case -- we need move the pruner that will
-        // potentially prune the most segments to front)
+        // Sort all segment pruners in order of: empty -> time -> partition -> value. We are trying to sort them in a
+        // this order for improving the performance, this order may not be the optimal case -- we need move the pruner
+        // that will potentially prune the most segments to front)
         segmentPruners.addAll(sortSegmentPruners(configuredSegmentPruners));
       } else {
         // Handle legacy configs for backward-compatibility
@@ -149,9 +159,41 @@ public class SegmentPrunerFactory {
     return new TimeSegmentPruner(tableConfig, timeFieldSpec);
   }
 
+  @Nullable
+  private static ValueSegmentPruner getValueSegmentPruner(TableConfig tableConfig,
+      ZkHelixPropertyStore<ZNRecord> propertyStore) {
+    String tableNameWithType = tableConfig.getTableName();
+    List<String> valuePruningColumns = tableConfig.getRoutingConfig().getValuePruningColumns();
+    if (CollectionUtils.isEmpty(valuePruningColumns)) {
+      LOGGER.warn("Cannot enable value pruning without value pruning columns for table: {}", tableNameWithType);
+      return null;
+    }
+    Schema schema = ZKMetadataProvider.getTableSchema(propertyStore, tableConfig);
+    if (schema == null) {
+      LOGGER.warn("Cannot enable value pruning without schema for table: {}", tableNameWithType);
+      return null;
+    }
+    Map<String, DataType> columnDataTypes = new HashMap<>();
+    for (String column : valuePruningColumns) {
+      FieldSpec fieldSpec = schema.getFieldSpecFor(column);
+      if (fieldSpec == null) {
+        LOGGER.warn("Skipping value pruning on column: {} without field spec for table: {}", column,
+            tableNameWithType);
+        continue;
+      }
+      columnDataTypes.put(column, fieldSpec.getDataType());
+    }
+    if (columnDataTypes.isEmpty()) {
+      LOGGER.warn("Cannot enable value pruning without valid value pruning columns for table: {}", tableNameWithType);
+      return null;
+    }
+    LOGGER.info("Using ValueSegmentPruner on columns: {} for table: {}", columnDataTypes.keySet(), tableNameWithType);
+    return new ValueSegmentPruner(tableNameWithType, columnDataTypes);
+  }
+
   private static List<SegmentPruner> sortSegmentPruners(List<SegmentPruner> pruners) {
     // If there's multiple pruners, always prune empty segments first. After that, pruned based on time range, and
-    // followed by partition pruners.
+    // followed by partition pruners, and finally value pruners.
     // Partition pruner run time is proportional to input # of segments while time range pruner is not,
     // Prune based on time range first will have a smaller input size for partition pruners, so have better performance.
     List<SegmentPruner> sortedPruners = new ArrayList<>();
@@ -171,6 +213,11 @@ public class SegmentPrunerFactory {
         sortedPruners.add(pruner);
       }
     }
+    for (SegmentPruner pruner : pruners) {
+      if (pruner instanceof ValueSegmentPruner) {
+        sortedPruners.add(pruner);
+      }
+    }
     return sortedPruners;
   }
 }
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -64,7 +65,9 @@ public class TimeSegmentPruner implements SegmentPruner {
   private final String _timeColumn;
   private final DateTimeFormatSpec _timeFormatSpec;
 
-  private volatile IntervalTree<String> _intervalTree;
+  // The interval tree is immutable and is replaced on each update, so that the readers don't need to lock it. The
+  // interval map is only accessed by the writers.
+  private volatile IntervalTree<String> _intervalTree = IntervalTree.empty();
   private final Map<String, Interval> _intervalMap = new HashMap<>();
 
   public TimeSegmentPruner(TableConfig tableConfig, DateTimeFieldSpec timeFieldSpec) {
@@ -109,20 +112,40 @@ public class TimeSegmentPruner implements SegmentPruner {
       Set<String> onlineSegments, List<String> pulledSegments, List<ZNRecord> znRecords) {
     // NOTE: We don't update all the segment ZK metadata for every external view change, but only the new added/removed
     //       ones. The refreshed segment ZK metadata change won't be picked up.
+    // Incrementally update the interval tree with the added/removed segments instead of rebuilding it
+    IntervalTree<String> intervalTree = _intervalTree;
     for (int idx = 0; idx < pulledSegments.size(); idx++) {
       String segment = pulledSegments.get(idx);
-      ZNRecord zNrecord = znRecords.get(idx);
-      _intervalMap.computeIfAbsent(segment, k -> extractIntervalFromSegmentZKMetaZNRecord(k, zNrecord));
+      if (!_intervalMap.containsKey(segment)) {
+        Interval interval = extractIntervalFromSegmentZKMetaZNRecord(segment, znRecords.get(idx));
+        _intervalMap.put(segment, interval);
+        intervalTree = intervalTree.add(segment, interval);
+      }
     }
-    _intervalMap.keySet().retainAll(onlineSegments);
-    _intervalTree = new IntervalTree<>(_intervalMap);
+    Iterator<Map.Entry<String, Interval>> iterator = _intervalMap.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Interval> entry = iterator.next();
+      String segment = entry.getKey();
+      if (!onlineSegments.contains(segment)) {
+        intervalTree = intervalTree.remove(segment, entry.getValue());
+        iterator.remove();
+      }
+    }
+    _intervalTree = intervalTree;
   }
 
   @Override
   public synchronized void refreshSegment(String segment, @Nullable ZNRecord znRecord) {
     Interval interval = extractIntervalFromSegmentZKMetaZNRecord(segment, znRecord);
-    _intervalMap.put(segment, interval);
-    _intervalTree = new IntervalTree<>(_intervalMap);
+    Interval oldInterval = _intervalMap.put(segment, interval);
+    IntervalTree<String> intervalTree = _intervalTree;
+    if (oldInterval != null) {
+      if (oldInterval.equals(interval)) {
+        return;
+      }
+      intervalTree = intervalTree.remove(segment, oldInterval);
+    }
+    _intervalTree = intervalTree.add(segment, interval);
   }
 
   /**
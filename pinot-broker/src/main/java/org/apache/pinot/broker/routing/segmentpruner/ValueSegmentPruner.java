@@ -0,0 +1,305 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.segmentpruner;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.Function;
+import org.apache.pinot.common.request.Identifier;
+import org.apache.pinot.common.request.context.RequestContextUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.CommonConstants.Query.Range;
+import org.apache.pinot.spi.utils.CommonConstants.Segment;
+import org.apache.pinot.sql.FilterKind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code ValueSegmentPruner} prunes segments based on the column min/max values stored in the segment ZK metadata.
+ * The min/max values are only published for the columns configured in {@code RoutingConfig.valuePruningColumns}. The
+ * pruner supports queries with filter (or nested filter) of EQUALITY, IN and RANGE predicates. Segments without
+ * min/max values for the filtered columns are never pruned.
+ */
+public class ValueSegmentPruner implements SegmentPruner {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ValueSegmentPruner.class);
+
+  private final String _tableNameWithType;
+  // Map from column to data type
+  private final Map<String, DataType> _columnDataTypes;
+  // Map from segment to the min/max values of the columns
+  private final Map<String, Map<String, MinMaxValue>> _minMaxValuesMap = new ConcurrentHashMap<>();
+
+  public ValueSegmentPruner(String tableNameWithType, Map<String, DataType> columnDataTypes) {
+    _tableNameWithType = tableNameWithType;
+    _columnDataTypes = columnDataTypes;
+  }
+
+  @Override
+  public void init(IdealState idealState, ExternalView externalView, List<String> onlineSegments,
+      List<ZNRecord> znRecords) {
+    for (int idx = 0; idx < onlineSegments.size(); idx++) {
+      String segment = onlineSegments.get(idx);
+      Map<String, MinMaxValue> minMaxValues = extractMinMaxValues(segment, znRecords.get(idx));
+      if (minMaxValues != null) {
+        _minMaxValuesMap.put(segment, minMaxValues);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void onAssignmentChange(IdealState idealState, ExternalView externalView,
+      Set<String> onlineSegments, List<String> pulledSegments, List<ZNRecord> znRecords) {
+    // NOTE: We don't update all the segment ZK metadata for every external view change, but only the new added/removed
+    //       ones. The refreshed segment ZK metadata change won't be picked up.
+    for (int idx = 0; idx < pulledSegments.size(); idx++) {
+      String segment = pulledSegments.get(idx);
+      ZNRecord znRecord = znRecords.get(idx);
+      _minMaxValuesMap.computeIfAbsent(segment, k -> extractMinMaxValues(k, znRecord));
+    }
+    _minMaxValuesMap.keySet().retainAll(onlineSegments);
+  }
+
+  @Override
+  public synchronized void refreshSegment(String segment, @Nullable ZNRecord znRecord) {
+    Map<String, MinMaxValue> minMaxValues = extractMinMaxValues(segment, znRecord);
+    if (minMaxValues != null) {
+      _minMaxValuesMap.put(segment, minMaxValues);
+    } else {
+      _minMaxValuesMap.remove(segment);
+    }
+  }
+
+  /**
+   * NOTE: Returns {@code null} when the ZNRecord is missing or does not contain min/max values for any of the pruning
+   *       columns.
+   */
+  @Nullable
+  private Map<String, MinMaxValue> extractMinMaxValues(String segment, @Nullable ZNRecord znRecord) {
+    if (znRecord == null) {
+      LOGGER.warn("Failed to find segment ZK metadata for segment: {}, table: {}", segment, _tableNameWithType);
+      return null;
+    }
+    Map<String, String> minValues = znRecord.getMapField(Segment.COLUMN_MIN_VALUES);
+    Map<String, String> maxValues = znRecord.getMapField(Segment.COLUMN_MAX_VALUES);
+    if (minValues == null || maxValues == null) {
+      return null;
+    }
+    Map<String, MinMaxValue> minMaxValues = new HashMap<>();
+    for (Map.Entry<String, DataType> entry : _columnDataTypes.entrySet()) {
+      String column = entry.getKey();
+      String minValue = minValues.get(column);
+      String maxValue = maxValues.get(column);
+      if (minValue == null || maxValue == null) {
+        continue;
+      }
+      DataType dataType = entry.getValue();
+      try {
+        minMaxValues.put(column,
+            new MinMaxValue(dataType.convertInternal(minValue), dataType.convertInternal(maxValue)));
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while parsing min/max values for column: {}, segment: {}, table: {}", column,
+            segment, _tableNameWithType, e);
+      }
+    }
+    return !minMaxValues.isEmpty() ? minMaxValues : null;
+  }
+
+  @Override
+  public Set<String> prune(BrokerRequest brokerRequest, Set<String> segments) {
+    Expression filterExpression = brokerRequest.getPinotQuery().getFilterExpression();
+    if (filterExpression == null) {
+      return segments;
+    }
+    Set<String> selectedSegments = new HashSet<>();
+    for (String segment : segments) {
+      Map<String, MinMaxValue> minMaxValues = _minMaxValuesMap.get(segment);
+      if (minMaxValues == null || isValueMatch(filterExpression, minMaxValues)) {
+        selectedSegments.add(segment);
+      }
+    }
+    return selectedSegments;
+  }
+
+  /**
+   * Returns {@code false} only if the filter cannot match any record in the segment with the given min/max values.
+   */
+  private boolean isValueMatch(Expression filterExpression, Map<String, MinMaxValue> minMaxValues) {
+    Function function = filterExpression.getFunctionCall();
+    if (function == null) {
+      return true;
+    }
+    FilterKind filterKind = FilterKind.valueOf(function.getOperator());
+    List<Expression> operands = function.getOperands();
+    switch (filterKind) {
+      case AND:
+        for (Expression child : operands) {
+          if (!isValueMatch(child, minMaxValues)) {
+            return false;
+          }
+        }
+        return true;
+      case OR:
+        for (Expression child : operands) {
+          if (isValueMatch(child, minMaxValues)) {
+            return true;
+          }
+        }
+        return false;
+      case EQUALS:
+      case IN: {
+        MinMaxValue minMaxValue = getMinMaxValue(operands.get(0), minMaxValues);
+        if (minMaxValue == null) {
+          return true;
+        }
+        DataType dataType = _columnDataTypes.get(operands.get(0).getIdentifier().getName());
+        int numOperands = operands.size();
+        for (int i = 1; i < numOperands; i++) {
+          Comparable value = convertValue(operands.get(i), dataType);
+          if (value == null || minMaxValue.overlaps(value, true, value, true)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      case GREATER_THAN:
+      case GREATER_THAN_OR_EQUAL:
+      case LESS_THAN:
+      case LESS_THAN_OR_EQUAL:
+      case BETWEEN: {
+        MinMaxValue minMaxValue = getMinMaxValue(operands.get(0), minMaxValues);
+        if (minMaxValue == null) {
+          return true;
+        }
+        DataType dataType = _columnDataTypes.get(operands.get(0).getIdentifier().getName());
+        Comparable value = convertValue(operands.get(1), dataType);
+        if (value == null) {
+          return true;
+        }
+        switch (filterKind) {
+          case GREATER_THAN:
+            return minMaxValue.overlaps(value, false, null, false);
+          case GREATER_THAN_OR_EQUAL:
+            return minMaxValue.overlaps(value, true, null, false);
+          case LESS_THAN:
+            return minMaxValue.overlaps(null, false, value, false);
+          case LESS_THAN_OR_EQUAL:
+            return minMaxValue.overlaps(null, false, value, true);
+          default:
+            Comparable upperValue = convertValue(operands.get(2), dataType);
+            return upperValue == null || minMaxValue.overlaps(value, true, upperValue, true);
+        }
+      }
+      case RANGE: {
+        MinMaxValue minMaxValue = getMinMaxValue(operands.get(0), minMaxValues);
+        if (minMaxValue == null) {
+          return true;
+        }
+        DataType dataType = _columnDataTypes.get(operands.get(0).getIdentifier().getName());
+        return isRangeMatch(operands.get(1).getLiteral().getStringValue(), dataType, minMaxValue);
+      }
+      default:
+        return true;
+    }
+  }
+
+  @Nullable
+  private static MinMaxValue getMinMaxValue(Expression lhs, Map<String, MinMaxValue> minMaxValues) {
+    Identifier identifier = lhs.getIdentifier();
+    return identifier != null ? minMaxValues.get(identifier.getName()) : null;
+  }
+
+  /**
+   * Converts the literal into the internal representation of the column data type, or returns {@code null} if the
+   * value cannot be converted (in which case the segment should not be pruned).
+   */
+  @Nullable
+  private static Comparable convertValue(Expression literal, DataType dataType) {
+    if (literal.getLiteral() == null) {
+      return null;
+    }
+    try {
+      return dataType.convertInternal(RequestContextUtils.getStringValue(literal));
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static boolean isRangeMatch(String rangeString, DataType dataType, MinMaxValue minMaxValue) {
+    int length = rangeString.length();
+    boolean lowerInclusive = rangeString.charAt(0) != Range.LOWER_EXCLUSIVE;
+    boolean upperInclusive = rangeString.charAt(length - 1) != Range.UPPER_EXCLUSIVE;
+    String[] split = StringUtils.split(rangeString.substring(1, length - 1), Range.DELIMITER);
+    Comparable lowerValue = null;
+    Comparable upperValue = null;
+    try {
+      if (!split[0].equals(Range.UNBOUNDED)) {
+        lowerValue = dataType.convertInternal(split[0]);
+      }
+      if (!split[1].equals(Range.UNBOUNDED)) {
+        upperValue = dataType.convertInternal(split[1]);
+      }
+    } catch (Exception e) {
+      return true;
+    }
+    return minMaxValue.overlaps(lowerValue, lowerInclusive, upperValue, upperInclusive);
+  }
+
+  private static class MinMaxValue {
+    final Comparable _minValue;
+    final Comparable _maxValue;
+
+    MinMaxValue(Comparable minValue, Comparable maxValue) {
+      _minValue = minValue;
+      _maxValue = maxValue;
+    }
+
+    /**
+     * Returns whether the [min, max] range overlaps the given range. {@code null} bound means unbounded.
+     */
+    @SuppressWarnings("unchecked")
+    boolean overlaps(@Nullable Comparable lowerValue, boolean lowerInclusive, @Nullable Comparable upperValue,
+        boolean upperInclusive) {
+      if (lowerValue != null) {
+        int result = lowerValue.compareTo(_maxValue);
+        if (result > 0 || (result == 0 && !lowerInclusive)) {
+          return false;
+        }
+      }
+      if (upperValue != null) {
+        int result = upperValue.compareTo(_minValue);
+        if (result < 0 || (result == 0 && !upperInclusive)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
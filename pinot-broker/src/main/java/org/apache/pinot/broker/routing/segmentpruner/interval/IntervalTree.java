@@ -18,108 +18,85 @@
  */
 package org.apache.pinot.broker.routing.segmentpruner.interval;
 
-import com.google.common.base.Preconditions;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import org.apache.pinot.spi.utils.Pairs;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 
 
 /**
- * The {@code IntervalTree} class represents read-only balanced binary interval tree map (from intervals to values)
+ * The {@code IntervalTree} class represents an immutable (persistent) balanced binary interval tree map (from values to
+ * intervals). Each value is associated with one interval, and multiple values can share the same interval.
+ *
+ * <p>Adding or removing a value returns a new tree in O(logN) time, which shares all the untouched nodes with the
+ * original tree (path copying), so that the tree can be updated incrementally without blocking the readers of the
+ * original tree.
+ *
+ * <p>The tree is a weight-balanced tree ordered by (interval, value), where each node keeps the size and the max
+ * interval right end of the subtree rooted at it.
  */
-public class IntervalTree<VALUE> {
+@Immutable
+public class IntervalTree<VALUE extends Comparable<VALUE>> {
+  // Weight-balanced tree parameters (same as Haskell's Data.Map): a subtree can be at most DELTA times the size of its
+  // sibling, and a double rotation is performed when the inner grandchild is at least RATIO times the outer one.
+  private static final int DELTA = 3;
+  private static final int RATIO = 2;
 
-  // List representation of BST with root at index 0. For node with index x, it's left child index is (2x+1), right
-  // child index is (2x+2)
-  private final List<Node> _nodes;
+  private static final IntervalTree EMPTY = new IntervalTree<>((Node) null);
 
-  public IntervalTree(Map<VALUE, Interval> valueToIntervalMap) {
-    Map<Interval, List<VALUE>> intervalToValuesMap = new HashMap<>();
-    for (Map.Entry<VALUE, Interval> entry : valueToIntervalMap.entrySet()) {
-      intervalToValuesMap.putIfAbsent(entry.getValue(), new ArrayList<>());
-      intervalToValuesMap.get(entry.getValue()).add(entry.getKey());
-    }
+  @Nullable
+  private final Node<VALUE> _root;
 
-    List<Node<VALUE>> sortedNodes = new ArrayList<>();
-    for (Map.Entry<Interval, List<VALUE>> entry : intervalToValuesMap.entrySet()) {
-      sortedNodes.add(new Node(entry.getKey(), entry.getValue()));
-    }
-    Collections.sort(sortedNodes);
-    _nodes = buildIntervalTree(sortedNodes);
-    buildAuxiliaryInfo();
+  private IntervalTree(@Nullable Node<VALUE> root) {
+    _root = root;
   }
 
   /**
-   * Build interval bst by bfs, the root for each subtree will be the one with median interval.
-   * A typical balanced tree:
-   *                              [10, 20]
-   *                              /       \
-   *                       [8, 15]        [12, 20]
-   *                          /            /
-   *                   [5, 10]       [10, 30]
-   * is represented as  { [10, 20], [8, 15], [12, 20], [5, 10], null, [10, 30] }
+   * Builds a balanced interval tree from the given map from values to intervals.
    */
-  private List<Node> buildIntervalTree(List<Node<VALUE>> sortedNodes) {
-    List<Node> resNodes = new ArrayList<>();
-    LinkedList<Pairs.IntPair> indexQueue = new LinkedList<>();
-    indexQueue.add(new Pairs.IntPair(0, sortedNodes.size()));
-    int count = 0;
-    while (count < sortedNodes.size()) {
-      Pairs.IntPair indexPair = indexQueue.pollFirst();
-      int start = indexPair.getLeft();
-      int end = indexPair.getRight();
-
-      if (start < end) {
-        int mid = start + (end - start) / 2;
-        resNodes.add(sortedNodes.get(mid));
-        count++;
-        indexQueue.add(new Pairs.IntPair(start, mid));
-        indexQueue.add(new Pairs.IntPair(mid + 1, end));
-      } else {
-        resNodes.add(null);
-      }
-    }
-    return resNodes;
+  public IntervalTree(Map<VALUE, Interval> valueToIntervalMap) {
+    List<Map.Entry<VALUE, Interval>> sortedEntries = new ArrayList<>(valueToIntervalMap.entrySet());
+    sortedEntries.sort((e1, e2) -> compare(e1.getValue(), e1.getKey(), e2.getValue(), e2.getKey()));
+    _root = build(sortedEntries, 0, sortedEntries.size());
   }
 
-  private void buildAuxiliaryInfo() {
-    // Build max info for the interval tree by dfs
-    buildAuxiliaryInfo(0);
+  @SuppressWarnings("unchecked")
+  public static <VALUE extends Comparable<VALUE>> IntervalTree<VALUE> empty() {
+    return (IntervalTree<VALUE>) EMPTY;
   }
 
-  private void buildAuxiliaryInfo(int nodeIndex) {
-    if (!hasNode(nodeIndex)) {
-      return;
+  @Nullable
+  private static <VALUE extends Comparable<VALUE>> Node<VALUE> build(List<Map.Entry<VALUE, Interval>> sortedEntries,
+      int start, int end) {
+    if (start >= end) {
+      return null;
     }
-
-    int leftChildIndex = getLeftChildIndex(nodeIndex);
-    int rightChildIndex = getRightChildIndex(nodeIndex);
-
-    buildAuxiliaryInfo(leftChildIndex);
-    buildAuxiliaryInfo(rightChildIndex);
-
-    long max = _nodes.get(nodeIndex)._interval._max;
-    max = Math.max(getMax(rightChildIndex), Math.max(max, getMax(leftChildIndex)));
-    _nodes.get(nodeIndex)._max = max;
+    int mid = start + (end - start) / 2;
+    Map.Entry<VALUE, Interval> entry = sortedEntries.get(mid);
+    return new Node<>(entry.getValue(), entry.getKey(), build(sortedEntries, start, mid),
+        build(sortedEntries, mid + 1, end));
   }
 
-  private int getLeftChildIndex(int nodeIndex) {
-    return nodeIndex * 2 + 1;
+  public int size() {
+    return size(_root);
   }
 
-  private int getRightChildIndex(int nodeIndex) {
-    return nodeIndex * 2 + 2;
+  /**
+   * Returns a new tree with the given value associated with the given interval added. The caller should remove the
+   * previous interval associated with the value (if any) before adding a new one.
+   */
+  public IntervalTree<VALUE> add(VALUE value, Interval interval) {
+    return new IntervalTree<>(add(_root, interval, value));
   }
 
-  private long getMax(int index) {
-    if (!hasNode(index)) {
-      return Long.MIN_VALUE;
-    }
-    return _nodes.get(index)._max;
+  /**
+   * Returns a new tree with the given value associated with the given interval removed, or this tree if the value is
+   * not associated with the given interval.
+   */
+  public IntervalTree<VALUE> remove(VALUE value, Interval interval) {
+    Node<VALUE> root = remove(_root, interval, value);
+    return root != _root ? new IntervalTree<>(root) : this;
   }
 
   /**
@@ -133,70 +110,164 @@ public class IntervalTree<VALUE> {
     if (searchInterval == null) {
       return list;
     }
-    searchAll(0, searchInterval, list);
+    searchAll(_root, searchInterval, list);
     return list;
   }
 
-  private void searchAll(int nodeIndex, Interval searchInterval, List<VALUE> list) {
-    if (!hasNode(nodeIndex)) {
-      return;
+  private static <VALUE extends Comparable<VALUE>> void searchAll(@Nullable Node<VALUE> node, Interval searchInterval,
+      List<VALUE> list) {
+    // Nodes are sorted by interval left end, and each node keeps the max interval right end of its subtree
+    while (node != null && node._max >= searchInterval._min) {
+      searchAll(node._left, searchInterval, list);
+      Interval interval = node._interval;
+      if (interval._min > searchInterval._max) {
+        return;
+      }
+      if (interval._max >= searchInterval._min) {
+        list.add(node._value);
+      }
+      node = node._right;
     }
+  }
 
-    int leftChildIndex = getLeftChildIndex(nodeIndex);
-    int rightChildIndex = getRightChildIndex(nodeIndex);
+  private static <VALUE extends Comparable<VALUE>> int compare(Interval interval1, VALUE value1, Interval interval2,
+      VALUE value2) {
+    int result = interval1.compareTo(interval2);
+    return result != 0 ? result : value1.compareTo(value2);
+  }
 
-    if (hasNode(leftChildIndex) && getMax(leftChildIndex) >= searchInterval._min) {
-      searchAll(leftChildIndex, searchInterval, list);
-    }
+  private static int size(@Nullable Node<?> node) {
+    return node != null ? node._size : 0;
+  }
 
-    Node<VALUE> node = _nodes.get(nodeIndex);
-    Interval interval = node._interval;
-    if (searchInterval.intersects(interval)) {
-      list.addAll(node._values);
+  private static <VALUE extends Comparable<VALUE>> Node<VALUE> add(@Nullable Node<VALUE> node, Interval interval,
+      VALUE value) {
+    if (node == null) {
+      return new Node<>(interval, value, null, null);
     }
-
-    if (interval._min <= searchInterval._max) {
-      searchAll(rightChildIndex, searchInterval, list);
+    int result = compare(interval, value, node._interval, node._value);
+    if (result < 0) {
+      return balance(node._interval, node._value, add(node._left, interval, value), node._right);
+    } else if (result > 0) {
+      return balance(node._interval, node._value, node._left, add(node._right, interval, value));
+    } else {
+      return node;
     }
   }
 
-  private boolean hasNode(int nodeIndex) {
-    return nodeIndex < _nodes.size() && _nodes.get(nodeIndex) != null;
+  @Nullable
+  private static <VALUE extends Comparable<VALUE>> Node<VALUE> remove(@Nullable Node<VALUE> node, Interval interval,
+      VALUE value) {
+    if (node == null) {
+      return null;
+    }
+    int result = compare(interval, value, node._interval, node._value);
+    if (result < 0) {
+      Node<VALUE> left = remove(node._left, interval, value);
+      return left != node._left ? balance(node._interval, node._value, left, node._right) : node;
+    } else if (result > 0) {
+      Node<VALUE> right = remove(node._right, interval, value);
+      return right != node._right ? balance(node._interval, node._value, node._left, right) : node;
+    } else {
+      return glue(node._left, node._right);
+    }
   }
 
-  private class Node<VALUE> implements Comparable<Node> {
-    private final Interval _interval;
-    private final List<VALUE> _values;
-    private long _max; // max interval right end of subtree rooted at this node
-
-    Node(Interval interval, List<VALUE> values) {
-      _interval = interval;
-      _values = values;
+  /**
+   * Joins the left and right subtree of a removed node, where the left and right subtree are balanced with each other.
+   */
+  @Nullable
+  private static <VALUE extends Comparable<VALUE>> Node<VALUE> glue(@Nullable Node<VALUE> left,
+      @Nullable Node<VALUE> right) {
+    if (left == null) {
+      return right;
     }
-
-    @Override
-    public int compareTo(Node o) {
-      Preconditions.checkNotNull(o, "Compare to invalid node: null");
-      return _interval.compareTo(o._interval);
+    if (right == null) {
+      return left;
     }
-
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) {
-        return true;
+    if (left._size > right._size) {
+      Node<VALUE> max = left;
+      while (max._right != null) {
+        max = max._right;
       }
-      if (o == null || getClass() != o.getClass()) {
-        return false;
+      return balance(max._interval, max._value, remove(left, max._interval, max._value), right);
+    } else {
+      Node<VALUE> min = right;
+      while (min._left != null) {
+        min = min._left;
       }
+      return balance(min._interval, min._value, left, remove(right, min._interval, min._value));
+    }
+  }
 
-      Node<?> node = (Node<?>) o;
-
-      return _interval.equals(node._interval);
+  /**
+   * Creates a node with the given subtrees, and rotates it if the subtrees are out of balance after a single add or
+   * remove.
+   */
+  private static <VALUE extends Comparable<VALUE>> Node<VALUE> balance(Interval interval, VALUE value,
+      @Nullable Node<VALUE> left, @Nullable Node<VALUE> right) {
+    int leftSize = size(left);
+    int rightSize = size(right);
+    if (leftSize + rightSize <= 1) {
+      return new Node<>(interval, value, left, right);
+    }
+    if (rightSize > DELTA * leftSize) {
+      assert right != null;
+      Node<VALUE> rightLeft = right._left;
+      if (size(rightLeft) < RATIO * size(right._right)) {
+        // Single left rotation
+        return new Node<>(right._interval, right._value, new Node<>(interval, value, left, rightLeft), right._right);
+      } else {
+        // Double left rotation
+        assert rightLeft != null;
+        return new Node<>(rightLeft._interval, rightLeft._value,
+            new Node<>(interval, value, left, rightLeft._left),
+            new Node<>(right._interval, right._value, rightLeft._right, right._right));
+      }
+    }
+    if (leftSize > DELTA * rightSize) {
+      assert left != null;
+      Node<VALUE> leftRight = left._right;
+      if (size(leftRight) < RATIO * size(left._left)) {
+        // Single right rotation
+        return new Node<>(left._interval, left._value, left._left, new Node<>(interval, value, leftRight, right));
+      } else {
+        // Double right rotation
+        assert leftRight != null;
+        return new Node<>(leftRight._interval, leftRight._value,
+            new Node<>(left._interval, left._value, left._left, leftRight._left),
+            new Node<>(interval, value, leftRight._right, right));
+      }
     }
+    return new Node<>(interval, value, left, right);
+  }
+
+  @Immutable
+  private static class Node<VALUE> {
+    final Interval _interval;
+    final VALUE _value;
+    final Node<VALUE> _left;
+    final Node<VALUE> _right;
+    final int _size; // number of nodes in the subtree rooted at this node
+    final long _max; // max interval right end of the subtree rooted at this node
 
-    @Override
-    public int hashCode() {
-      return _interval.hashCode();
+    Node(Interval interval, VALUE value, @Nullable Node<VALUE> left, @Nullable Node<VALUE> right) {
+      _interval = interval;
+      _value = value;
+      _left = left;
+      _right = right;
+      long max = interval._max;
+      int size = 1;
+      if (left != null) {
+        max = Math.max(max, left._max);
+        size += left._size;
+      }
+      if (right != null) {
+        max = Math.max(max, right._max);
+        size += right._size;
+      }
+      _size = size;
+      _max = max;
     }
   }
 }
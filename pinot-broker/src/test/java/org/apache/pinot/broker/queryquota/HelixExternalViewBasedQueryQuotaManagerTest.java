@@ -282,6 +282,59 @@ public class HelixExternalViewBasedQueryQuotaManagerTest {
     Assert.assertEquals(dbQuotaMap.get(dbList.get(2)).getRateLimiter().getRate(), 2);
   }
 
+  @Test
+  public void testOfflineTableDocsScannedQuota() {
+    ExternalView brokerResource = generateBrokerResource(OFFLINE_TABLE_NAME);
+    TableConfig tableConfig = generateDefaultTableConfig(OFFLINE_TABLE_NAME);
+    tableConfig.setQuotaConfig(new QuotaConfig(null, null, "1000"));
+    ZKMetadataProvider.setTableConfig(_testPropertyStore, tableConfig);
+    _queryQuotaManager.initOrUpdateTableQueryQuota(tableConfig, brokerResource);
+    Assert.assertEquals(_queryQuotaManager.getRateLimiterMapSize(), 1);
+    Assert.assertEquals(_queryQuotaManager.getTableQueryQuota(OFFLINE_TABLE_NAME), 0);
+    Assert.assertEquals(_queryQuotaManager.getTableDocsScannedQuota(OFFLINE_TABLE_NAME), 1000);
+
+    // No qps quota
+    Assert.assertTrue(_queryQuotaManager.acquire(OFFLINE_TABLE_NAME));
+    // An expensive query is charged at most one second of the quota, and the following queries should be throttled
+    // until the quota is refilled
+    Assert.assertTrue(_queryQuotaManager.acquireDocsScanned(OFFLINE_TABLE_NAME, 5000, 0));
+    Assert.assertFalse(_queryQuotaManager.acquireDocsScanned(OFFLINE_TABLE_NAME, 500, 0));
+    // Queries not scanning any document should not be throttled
+    Assert.assertTrue(_queryQuotaManager.acquireDocsScanned(OFFLINE_TABLE_NAME, 0, 0));
+    // The quota should not be borrowed from the future, so the queries can go through once the quota is refilled
+    Assert.assertTrue(_queryQuotaManager.acquireDocsScanned(OFFLINE_TABLE_NAME, 500, 1000));
+    // Released docs should be returned to the quota
+    _queryQuotaManager.releaseDocsScanned(OFFLINE_TABLE_NAME, 5000);
+    Assert.assertTrue(_queryQuotaManager.acquireDocsScanned(OFFLINE_TABLE_NAME, 1000, 0));
+
+    // Remove the docs scanned quota
+    tableConfig.setQuotaConfig(new QuotaConfig(null, TABLE_MAX_QPS_STR));
+    _queryQuotaManager.initOrUpdateTableQueryQuota(tableConfig, brokerResource);
+    Assert.assertEquals(_queryQuotaManager.getTableQueryQuota(OFFLINE_TABLE_NAME), TABLE_MAX_QPS);
+    Assert.assertEquals(_queryQuotaManager.getTableDocsScannedQuota(OFFLINE_TABLE_NAME), 0);
+    Assert.assertTrue(_queryQuotaManager.acquireDocsScanned(OFFLINE_TABLE_NAME, 5000, 0));
+  }
+
+  @Test
+  public void testDatabaseDocsScannedQuota() {
+    DatabaseConfig databaseConfig =
+        new DatabaseConfig(CommonConstants.DEFAULT_DATABASE, new QuotaConfig(null, null, "1000"));
+    ZKMetadataProvider.setDatabaseConfig(_testPropertyStore, databaseConfig);
+    _queryQuotaManager.createDatabaseRateLimiter(CommonConstants.DEFAULT_DATABASE);
+    Assert.assertEquals(_queryQuotaManager.getDatabaseQueryQuota(CommonConstants.DEFAULT_DATABASE), 0);
+    Assert.assertEquals(_queryQuotaManager.getDatabaseDocsScannedQuota(CommonConstants.DEFAULT_DATABASE), 1000);
+    Assert.assertTrue(_queryQuotaManager.acquireDatabase(CommonConstants.DEFAULT_DATABASE));
+    Assert.assertTrue(_queryQuotaManager.acquireDatabaseDocsScanned(CommonConstants.DEFAULT_DATABASE, 5000, 0));
+    Assert.assertFalse(_queryQuotaManager.acquireDatabaseDocsScanned(CommonConstants.DEFAULT_DATABASE, 500, 0));
+    _queryQuotaManager.releaseDatabaseDocsScanned(CommonConstants.DEFAULT_DATABASE, 1000);
+    Assert.assertTrue(_queryQuotaManager.acquireDatabaseDocsScanned(CommonConstants.DEFAULT_DATABASE, 500, 0));
+
+    databaseConfig.setQuotaConfig(new QuotaConfig(null, null, "2000"));
+    ZKMetadataProvider.setDatabaseConfig(_testPropertyStore, databaseConfig);
+    _queryQuotaManager.updateDatabaseRateLimiter(CommonConstants.DEFAULT_DATABASE);
+    Assert.assertEquals(_queryQuotaManager.getDatabaseDocsScannedQuota(CommonConstants.DEFAULT_DATABASE), 2000);
+  }
+
   @Test
   public void testOfflineTableWithNullQuotaAndNoRealtimeTableConfig() {
     ExternalView brokerResource = generateBrokerResource(OFFLINE_TABLE_NAME);
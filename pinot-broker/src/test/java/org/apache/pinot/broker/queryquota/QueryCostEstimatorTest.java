@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.queryquota;
+
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+
+public class QueryCostEstimatorTest {
+
+  @Test
+  public void testQueryShape() {
+    String shape1 = getQueryShape("SELECT COUNT(*) FROM myTable WHERE a = 1 AND b IN ('x', 'y') GROUP BY c LIMIT 10");
+    String shape2 =
+        getQueryShape("SELECT COUNT(*) FROM myTable WHERE a = 2 AND b IN ('x', 'y', 'z') GROUP BY c LIMIT 100");
+    assertEquals(shape1, shape2);
+    assertEquals(shape1, "SELECT count(*) FROM myTable WHERE AND(EQUALS(a,?),IN(b,?)) GROUP BY c");
+    // Different columns or predicates should have different shapes
+    assertNotEquals(getQueryShape("SELECT COUNT(*) FROM myTable WHERE a = 1"),
+        getQueryShape("SELECT COUNT(*) FROM myTable WHERE b = 1"));
+    assertNotEquals(getQueryShape("SELECT COUNT(*) FROM myTable WHERE a = 1"),
+        getQueryShape("SELECT COUNT(*) FROM myTable WHERE a > 1"));
+  }
+
+  @Test
+  public void testEstimateNumDocsScanned() {
+    QueryCostEstimator queryCostEstimator = new QueryCostEstimator(1);
+    String shape = getQueryShape("SELECT * FROM myTable WHERE a = 1");
+
+    // Cold query should not be charged without any history of the table
+    assertEquals(queryCostEstimator.estimateNumDocsScanned("myTable", shape, 1000), 0);
+
+    // First execution scans 1% of the documents
+    queryCostEstimator.recordNumDocsScanned("myTable", shape, 10000, 100);
+    assertEquals(queryCostEstimator.estimateNumDocsScanned("myTable", shape, 1000), 10);
+
+    // Second execution scans all the documents
+    queryCostEstimator.recordNumDocsScanned("myTable", shape, 10000, 10000);
+    double scannedFraction = 0.01 * (1 - QueryCostEstimator.ALPHA) + QueryCostEstimator.ALPHA;
+    assertEquals(queryCostEstimator.estimateNumDocsScanned("myTable", shape, 1000),
+        (long) Math.ceil(1000 * scannedFraction));
+
+    // Executions without routed documents should be ignored
+    queryCostEstimator.recordNumDocsScanned("myTable", shape, 0, 0);
+    assertEquals(queryCostEstimator.estimateNumDocsScanned("myTable", shape, 1000),
+        (long) Math.ceil(1000 * scannedFraction));
+
+    // Query shape without history should fall back to the history of the table
+    String otherShape = getQueryShape("SELECT * FROM myTable WHERE b = 1");
+    assertEquals(queryCostEstimator.estimateNumDocsScanned("myTable", otherShape, 1000),
+        (long) Math.ceil(1000 * scannedFraction));
+    assertEquals(queryCostEstimator.estimateNumDocsScanned("otherTable", otherShape, 1000), 0);
+
+    // Least recently used shape should be evicted
+    queryCostEstimator.recordNumDocsScanned("myTable", otherShape, 10000, 0);
+    assertEquals(queryCostEstimator.size(), 1);
+    assertEquals(queryCostEstimator.estimateNumDocsScanned("myTable", otherShape, 1000), 0);
+    scannedFraction *= 1 - QueryCostEstimator.ALPHA;
+    assertEquals(queryCostEstimator.estimateNumDocsScanned("myTable", shape, 1000),
+        (long) Math.ceil(1000 * scannedFraction));
+  }
+
+  private static String getQueryShape(String query) {
+    return QueryCostEstimator.getQueryShape(CalciteSqlParser.compileToPinotQuery(query));
+  }
+}
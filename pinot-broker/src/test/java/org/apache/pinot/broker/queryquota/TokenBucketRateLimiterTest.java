@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.queryquota;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TokenBucketRateLimiterTest {
+
+  @Test
+  public void testTryAcquire() {
+    FakeTicker ticker = new FakeTicker();
+    TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1000, ticker);
+
+    // Request larger than the bucket capacity should be charged the full bucket instead of borrowing from the future
+    Assert.assertTrue(rateLimiter.tryAcquire(5000, 0));
+    Assert.assertFalse(rateLimiter.tryAcquire(1, 0));
+    Assert.assertTrue(rateLimiter.tryAcquire(0, 0));
+
+    // Bucket should be refilled at the given rate
+    ticker.advance(100);
+    Assert.assertFalse(rateLimiter.tryAcquire(101, 0));
+    Assert.assertTrue(rateLimiter.tryAcquire(100, 0));
+
+    // Bucket should not hold more than one second worth of tokens
+    ticker.advance(5000);
+    Assert.assertTrue(rateLimiter.tryAcquire(1000, 0));
+    Assert.assertFalse(rateLimiter.tryAcquire(1, 0));
+  }
+
+  @Test
+  public void testRelease() {
+    FakeTicker ticker = new FakeTicker();
+    TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1000, ticker);
+    Assert.assertTrue(rateLimiter.tryAcquire(800, 0));
+    Assert.assertFalse(rateLimiter.tryAcquire(800, 0));
+    rateLimiter.release(800);
+    Assert.assertTrue(rateLimiter.tryAcquire(800, 0));
+
+    // Released tokens should not exceed the bucket capacity
+    rateLimiter.release(5000);
+    Assert.assertTrue(rateLimiter.tryAcquire(1000, 0));
+    Assert.assertFalse(rateLimiter.tryAcquire(1, 0));
+  }
+
+  @Test
+  public void testSetRate() {
+    FakeTicker ticker = new FakeTicker();
+    TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1000, ticker);
+    rateLimiter.setRate(100);
+    Assert.assertEquals(rateLimiter.getRate(), 100.0);
+    Assert.assertTrue(rateLimiter.tryAcquire(100, 0));
+    Assert.assertFalse(rateLimiter.tryAcquire(1, 0));
+    ticker.advance(500);
+    Assert.assertTrue(rateLimiter.tryAcquire(50, 0));
+    Assert.assertFalse(rateLimiter.tryAcquire(1, 0));
+  }
+
+  @Test
+  public void testWait() {
+    TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1000);
+    Assert.assertTrue(rateLimiter.tryAcquire(1000, 0));
+    // Should wait for the bucket to be refilled
+    long startTimeMs = System.currentTimeMillis();
+    Assert.assertTrue(rateLimiter.tryAcquire(100, 1000));
+    Assert.assertTrue(System.currentTimeMillis() - startTimeMs >= 90);
+    // Should not wait when the bucket cannot be refilled within the given time
+    startTimeMs = System.currentTimeMillis();
+    Assert.assertFalse(rateLimiter.tryAcquire(900, 100));
+    Assert.assertTrue(System.currentTimeMillis() - startTimeMs < 500);
+  }
+
+  private static class FakeTicker extends Ticker {
+    long _timeNs;
+
+    void advance(long timeMs) {
+      _timeNs += TimeUnit.MILLISECONDS.toNanos(timeMs);
+    }
+
+    @Override
+    public long read() {
+      return _timeNs;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.resultcache;
+
+import java.util.List;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+
+public class BrokerResultCacheTest {
+  private static final BrokerRequest BROKER_REQUEST =
+      CalciteSqlCompiler.compileToBrokerRequest("SELECT col1, COUNT(*) FROM myTable GROUP BY col1");
+  private static final BrokerRequest OTHER_BROKER_REQUEST =
+      CalciteSqlCompiler.compileToBrokerRequest("SELECT col1, COUNT(*) FROM myTable WHERE col2 > 5 GROUP BY col1");
+
+  @Test
+  public void testGetKey() {
+    String key = BrokerResultCache.getKey(BROKER_REQUEST.getPinotQuery(), BROKER_REQUEST, 1L, null, null);
+    assertEquals(BrokerResultCache.getKey(BROKER_REQUEST.getPinotQuery(), BROKER_REQUEST, 1L, null, null), key);
+    // Routing change
+    assertNotEquals(BrokerResultCache.getKey(BROKER_REQUEST.getPinotQuery(), BROKER_REQUEST, 2L, null, null), key);
+    // Real-time table instead of offline table
+    assertNotEquals(BrokerResultCache.getKey(BROKER_REQUEST.getPinotQuery(), null, null, BROKER_REQUEST, 1L), key);
+    // Different query
+    assertNotEquals(
+        BrokerResultCache.getKey(OTHER_BROKER_REQUEST.getPinotQuery(), OTHER_BROKER_REQUEST, 1L, null, null), key);
+  }
+
+  @Test
+  public void testGetAndPut() {
+    BrokerResultCache resultCache = new BrokerResultCache(1_000_000, 60_000);
+    String key = BrokerResultCache.getKey(BROKER_REQUEST.getPinotQuery(), BROKER_REQUEST, 1L, null, null);
+    assertNull(resultCache.get(key));
+
+    resultCache.put(key, getBrokerResponse(), false);
+    BrokerResponseNative cachedResponse = resultCache.get(key);
+    assertNotNull(cachedResponse);
+    assertEquals(cachedResponse.getNumDocsScanned(), 100);
+    assertEquals(cachedResponse.getResultTable().getRows().size(), 2);
+    assertEquals(cachedResponse.getResultTable().getRows().get(0), new Object[]{"a", 10});
+
+    // Each get returns a new copy of the response
+    cachedResponse.setResultTable(null);
+    assertNotNull(resultCache.get(key).getResultTable());
+  }
+
+  @Test
+  public void testRealtimeExpiration() {
+    BrokerResultCache resultCache = new BrokerResultCache(1_000_000, 0);
+    String offlineKey = BrokerResultCache.getKey(BROKER_REQUEST.getPinotQuery(), BROKER_REQUEST, 1L, null, null);
+    String realtimeKey = BrokerResultCache.getKey(BROKER_REQUEST.getPinotQuery(), null, null, BROKER_REQUEST, 1L);
+    resultCache.put(offlineKey, getBrokerResponse(), false);
+    resultCache.put(realtimeKey, getBrokerResponse(), true);
+    assertNotNull(resultCache.get(offlineKey));
+    assertNull(resultCache.get(realtimeKey));
+    assertEquals(resultCache.size(), 1);
+  }
+
+  @Test
+  public void testMaxSize()
+      throws Exception {
+    int entrySize = 64 + getBrokerResponse().toJsonString().length();
+    BrokerResultCache resultCache = new BrokerResultCache(10L * entrySize, 60_000);
+    for (long routingVersion = 0; routingVersion < 100; routingVersion++) {
+      resultCache.put(
+          BrokerResultCache.getKey(BROKER_REQUEST.getPinotQuery(), BROKER_REQUEST, routingVersion, null, null),
+          getBrokerResponse(), false);
+    }
+    long size = resultCache.size();
+    assertTrue(size > 0 && size <= 10, "Unexpected cache size: " + size);
+  }
+
+  private static BrokerResponseNative getBrokerResponse() {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"col1", "count(*)"}, new ColumnDataType[]{ColumnDataType.STRING,
+            ColumnDataType.LONG});
+    brokerResponse.setResultTable(new ResultTable(dataSchema, List.of(new Object[]{"a", 10}, new Object[]{"b", 5})));
+    brokerResponse.setNumDocsScanned(100);
+    return brokerResponse;
+  }
+}
@@ -74,6 +74,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -1387,6 +1388,56 @@ public class InstanceSelectorTest {
     }
   }
 
+  @Test
+  public void testGetReplicaInstance() {
+    String offlineTableName = "testTable_OFFLINE";
+    BalancedInstanceSelector balancedInstanceSelector =
+        new BalancedInstanceSelector(offlineTableName, mock(ZkHelixPropertyStore.class), mock(BrokerMetrics.class),
+            null, Clock.systemUTC(), false, 300);
+
+    // {
+    //   segment0: {instance0: ONLINE, instance1: ONLINE, instance2: ONLINE},
+    //   segment1: {instance0: ONLINE, instance1: ONLINE},
+    //   segment2: {instance0: ONLINE}
+    // }
+    String instance0 = "instance0";
+    String instance1 = "instance1";
+    String instance2 = "instance2";
+    String segment0 = "segment0";
+    String segment1 = "segment1";
+    String segment2 = "segment2";
+    IdealState idealState = new IdealState(offlineTableName);
+    ExternalView externalView = new ExternalView(offlineTableName);
+    Map<String, List<String>> segmentInstances =
+        Map.of(segment0, List.of(instance0, instance1, instance2), segment1, List.of(instance0, instance1), segment2,
+            List.of(instance0));
+    for (Map.Entry<String, List<String>> entry : segmentInstances.entrySet()) {
+      Map<String, String> instanceStateMap = new TreeMap<>();
+      for (String instance : entry.getValue()) {
+        instanceStateMap.put(instance, ONLINE);
+      }
+      idealState.getRecord().getMapFields().put(entry.getKey(), instanceStateMap);
+      externalView.getRecord().getMapFields().put(entry.getKey(), new TreeMap<>(instanceStateMap));
+    }
+    Set<String> enabledInstances = new HashSet<>(List.of(instance0, instance1, instance2));
+    balancedInstanceSelector.init(enabledInstances, idealState, externalView, segmentInstances.keySet());
+
+    assertEquals(balancedInstanceSelector.getReplicaInstance(instance0, List.of(segment0, segment1)), instance1);
+    assertEquals(balancedInstanceSelector.getReplicaInstance(instance1, List.of(segment1)), instance0);
+    assertTrue(Set.of(instance0, instance1).contains(balancedInstanceSelector.getReplicaInstance(instance2,
+        List.of(segment0))));
+    // No single replica hosts all the segments
+    assertNull(balancedInstanceSelector.getReplicaInstance(instance0, List.of(segment0, segment1, segment2)));
+    assertNull(balancedInstanceSelector.getReplicaInstance(instance0, List.of(segment2)));
+    assertNull(balancedInstanceSelector.getReplicaInstance(instance0, List.of("nonExistingSegment")));
+
+    // Disabled instance should not be selected
+    enabledInstances = new HashSet<>(List.of(instance0, instance2));
+    balancedInstanceSelector.onInstancesChange(enabledInstances, List.of(instance1));
+    assertNull(balancedInstanceSelector.getReplicaInstance(instance0, List.of(segment0, segment1)));
+    assertEquals(balancedInstanceSelector.getReplicaInstance(instance0, List.of(segment0)), instance2);
+  }
+
   @Test(dataProvider = "selectorType")
   public void testNewSegmentFromZKMetadataSelection(String selectorType) {
     String oldSeg = "segment0";
@@ -23,6 +23,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import org.apache.pinot.broker.routing.segmentpruner.interval.Interval;
 import org.apache.pinot.broker.routing.segmentpruner.interval.IntervalTree;
 import org.testng.Assert;
@@ -86,4 +88,60 @@ public class IntervalTreeTest {
     Assert.assertEquals(new HashSet<>(intervalTree.searchAll(new Interval(20, 30))),
         new HashSet<>(Arrays.asList(name8, name9, name10, name11, name12)));
   }
+
+  @Test
+  public void testIncrementalUpdate() {
+    Random random = new Random();
+    Map<String, Interval> nameToIntervalMap = new HashMap<>();
+    IntervalTree<String> intervalTree = IntervalTree.empty();
+    for (int i = 0; i < 10_000; i++) {
+      String name = "segment_" + random.nextInt(2000);
+      Interval oldInterval = nameToIntervalMap.remove(name);
+      if (oldInterval != null) {
+        IntervalTree<String> newIntervalTree = intervalTree.remove(name, oldInterval);
+        Assert.assertEquals(newIntervalTree.size(), intervalTree.size() - 1);
+        intervalTree = newIntervalTree;
+      }
+      // Add back the value with a new interval for 2/3 of the time
+      if (oldInterval == null || random.nextInt(3) > 0) {
+        long min = random.nextInt(10_000);
+        Interval interval = new Interval(min, min + random.nextInt(100));
+        nameToIntervalMap.put(name, interval);
+        intervalTree = intervalTree.add(name, interval);
+      }
+      Assert.assertEquals(intervalTree.size(), nameToIntervalMap.size());
+      if (i % 100 == 0) {
+        long min = random.nextInt(10_000);
+        Interval searchInterval = new Interval(min, min + random.nextInt(200));
+        Assert.assertEquals(new HashSet<>(intervalTree.searchAll(searchInterval)),
+            getIntersectingValues(nameToIntervalMap, searchInterval));
+        // Tree built in bulk should return the same result
+        Assert.assertEquals(new HashSet<>(new IntervalTree<>(nameToIntervalMap).searchAll(searchInterval)),
+            getIntersectingValues(nameToIntervalMap, searchInterval));
+      }
+    }
+
+    // Removing a value with a non-matching interval should not change the tree
+    Map.Entry<String, Interval> entry = nameToIntervalMap.entrySet().iterator().next();
+    Interval interval = entry.getValue();
+    Assert.assertSame(intervalTree.remove(entry.getKey(), new Interval(interval._min, interval._max + 1)),
+        intervalTree);
+
+    // Removing all the values should result in an empty tree
+    for (Map.Entry<String, Interval> e : nameToIntervalMap.entrySet()) {
+      intervalTree = intervalTree.remove(e.getKey(), e.getValue());
+    }
+    Assert.assertEquals(intervalTree.size(), 0);
+    Assert.assertEquals(intervalTree.searchAll(new Interval(0, Long.MAX_VALUE)), Collections.emptyList());
+  }
+
+  private static Set<String> getIntersectingValues(Map<String, Interval> nameToIntervalMap, Interval searchInterval) {
+    Set<String> values = new HashSet<>();
+    for (Map.Entry<String, Interval> entry : nameToIntervalMap.entrySet()) {
+      if (entry.getValue().intersects(searchInterval)) {
+        values.add(entry.getKey());
+      }
+    }
+    return values;
+  }
 }
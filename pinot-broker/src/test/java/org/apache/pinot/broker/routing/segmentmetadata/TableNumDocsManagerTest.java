@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.segmentmetadata;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+
+public class TableNumDocsManagerTest {
+
+  @Test
+  public void testConsumingSegmentsEstimatedWithAverage() {
+    IdealState idealState = mock(IdealState.class);
+    ExternalView externalView = mock(ExternalView.class);
+    TableNumDocsManager numDocsManager = new TableNumDocsManager();
+
+    // Only CONSUMING segments (without total docs), the number of documents cannot be estimated
+    numDocsManager.init(idealState, externalView, Arrays.asList("consuming0", "consuming1"),
+        Arrays.asList(getZNRecord("consuming0", -1), getZNRecord("consuming1", -1)));
+    assertNull(numDocsManager.getNumDocs());
+
+    // A completed segment is used to estimate the CONSUMING segments
+    numDocsManager.onAssignmentChange(idealState, externalView, Set.of("completed0", "consuming0", "consuming1"),
+        Collections.singletonList("completed0"), Collections.singletonList(getZNRecord("completed0", 1000)));
+    assertEquals(numDocsManager.getNumDocs(), Long.valueOf(3000));
+    assertEquals(numDocsManager.getNumDocs(Arrays.asList("completed0", "consuming1")), 2000);
+
+    // CONSUMING segment committed
+    numDocsManager.refreshSegment("consuming0", getZNRecord("consuming0", 2000));
+    assertEquals(numDocsManager.getNumDocs(), Long.valueOf(4500));
+
+    // All segments completed
+    numDocsManager.onAssignmentChange(idealState, externalView, Set.of("completed0", "consuming0"),
+        Collections.emptyList(), Collections.emptyList());
+    assertEquals(numDocsManager.getNumDocs(), Long.valueOf(3000));
+  }
+
+  private static ZNRecord getZNRecord(String segment, long totalDocs) {
+    ZNRecord znRecord = new ZNRecord(segment);
+    znRecord.setLongField(CommonConstants.Segment.TOTAL_DOCS, totalDocs);
+    return znRecord;
+  }
+}
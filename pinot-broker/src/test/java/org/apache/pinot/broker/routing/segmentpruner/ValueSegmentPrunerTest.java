@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.segmentpruner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+
+
+public class ValueSegmentPrunerTest {
+  private static final String OFFLINE_TABLE_NAME = "testTable_OFFLINE";
+
+  @Test
+  public void testValueSegmentPruner() {
+    ValueSegmentPruner segmentPruner =
+        new ValueSegmentPruner(OFFLINE_TABLE_NAME, Map.of("intCol", DataType.INT, "stringCol", DataType.STRING));
+
+    // segment0: intCol [0, 10], stringCol [a, c]
+    // segment1: intCol [10, 20], stringCol [d, f]
+    // segment2: intCol [20, 30], no min/max for stringCol
+    // segment3: no min/max values
+    List<String> onlineSegments = List.of("segment0", "segment1", "segment2", "segment3");
+    List<ZNRecord> znRecords = new ArrayList<>();
+    znRecords.add(getZNRecord("segment0", Map.of("intCol", "0", "stringCol", "a"),
+        Map.of("intCol", "10", "stringCol", "c")));
+    znRecords.add(getZNRecord("segment1", Map.of("intCol", "10", "stringCol", "d"),
+        Map.of("intCol", "20", "stringCol", "f")));
+    znRecords.add(getZNRecord("segment2", Map.of("intCol", "20"), Map.of("intCol", "30")));
+    znRecords.add(getZNRecord("segment3", null, null));
+    segmentPruner.init(mock(IdealState.class), mock(ExternalView.class), onlineSegments, znRecords);
+    Set<String> input = Set.copyOf(onlineSegments);
+
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable", input), input);
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol = 5", input),
+        Set.of("segment0", "segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol = 10", input),
+        Set.of("segment0", "segment1", "segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol IN (-1, 25)", input),
+        Set.of("segment2", "segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol > 20", input),
+        Set.of("segment2", "segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol >= 20", input),
+        Set.of("segment1", "segment2", "segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol < 10", input),
+        Set.of("segment0", "segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol BETWEEN 11 AND 19", input),
+        Set.of("segment1", "segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol > 100", input), Set.of("segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE stringCol = 'e'", input),
+        Set.of("segment1", "segment2", "segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE stringCol = 'e' AND intCol < 15", input),
+        Set.of("segment1", "segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol = 5 OR intCol = 25", input),
+        Set.of("segment0", "segment2", "segment3"));
+
+    // NOT and non-configured columns should not prune any segment
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE NOT intCol = 5", input), input);
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE otherCol = 5", input), input);
+
+    // Values that cannot be converted to the column data type should not prune any segment
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol = 'abc'", input), input);
+
+    // Refresh segment0 to intCol [100, 200]
+    segmentPruner.refreshSegment("segment0",
+        getZNRecord("segment0", Map.of("intCol", "100"), Map.of("intCol", "200")));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol = 5", input), Set.of("segment3"));
+    assertEquals(prune(segmentPruner, "SELECT * FROM testTable WHERE intCol > 100", input),
+        Set.of("segment0", "segment3"));
+  }
+
+  private static Set<String> prune(ValueSegmentPruner segmentPruner, String query, Set<String> segments) {
+    return segmentPruner.prune(CalciteSqlCompiler.compileToBrokerRequest(query), segments);
+  }
+
+  private static ZNRecord getZNRecord(String segment, Map<String, String> minValues, Map<String, String> maxValues) {
+    SegmentZKMetadata segmentZKMetadata = new SegmentZKMetadata(segment);
+    segmentZKMetadata.setColumnMinMaxValues(minValues, maxValues);
+    return segmentZKMetadata.toZNRecord();
+  }
+}
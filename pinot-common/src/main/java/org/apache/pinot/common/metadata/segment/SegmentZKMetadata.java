@@ -21,6 +21,7 @@ package org.apache.pinot.common.metadata.segment;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
 import org.apache.pinot.common.metadata.ZKMetadata;
@@ -275,6 +276,36 @@ public class SegmentZKMetadata implements ZKMetadata {
     }
   }
 
+  /**
+   * Returns the map from column to min value (as string) for the columns configured for value based segment pruning, or
+   * {@code null} if not available.
+   */
+  @Nullable
+  public Map<String, String> getColumnMinValues() {
+    return _znRecord.getMapField(Segment.COLUMN_MIN_VALUES);
+  }
+
+  /**
+   * Returns the map from column to max value (as string) for the columns configured for value based segment pruning, or
+   * {@code null} if not available.
+   */
+  @Nullable
+  public Map<String, String> getColumnMaxValues() {
+    return _znRecord.getMapField(Segment.COLUMN_MAX_VALUES);
+  }
+
+  public void setColumnMinMaxValues(@Nullable Map<String, String> columnMinValues,
+      @Nullable Map<String, String> columnMaxValues) {
+    Map<String, Map<String, String>> mapFields = _znRecord.getMapFields();
+    if (MapUtils.isNotEmpty(columnMinValues) && MapUtils.isNotEmpty(columnMaxValues)) {
+      mapFields.put(Segment.COLUMN_MIN_VALUES, columnMinValues);
+      mapFields.put(Segment.COLUMN_MAX_VALUES, columnMaxValues);
+    } else {
+      mapFields.remove(Segment.COLUMN_MIN_VALUES);
+      mapFields.remove(Segment.COLUMN_MAX_VALUES);
+    }
+  }
+
   /* FOR REALTIME SEGMENTS */
 
   public Status getStatus() {
@@ -367,6 +398,16 @@ public class SegmentZKMetadata implements ZKMetadata {
         LOGGER.error("Caught exception while writing custom map for segment: {}", getSegmentName(), e);
       }
     }
+    Map<String, String> columnMinValues = getColumnMinValues();
+    Map<String, String> columnMaxValues = getColumnMaxValues();
+    if (columnMinValues != null && columnMaxValues != null) {
+      try {
+        metadataMap.put(Segment.COLUMN_MIN_VALUES, JsonUtils.objectToString(columnMinValues));
+        metadataMap.put(Segment.COLUMN_MAX_VALUES, JsonUtils.objectToString(columnMaxValues));
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while writing column min/max values for segment: {}", getSegmentName(), e);
+      }
+    }
     return metadataMap;
   }
 
@@ -78,6 +78,9 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   REQUEST_TIMEOUT_BEFORE_SCATTERED_EXCEPTIONS("exceptions", false),
   REQUEST_CHANNEL_LOCK_TIMEOUT_EXCEPTIONS("exceptions", false),
   REQUEST_SEND_EXCEPTIONS("exceptions", false),
+  // Requests sent to another replica because the server did not respond in time, and the ones responded first.
+  HEDGED_REQUESTS_ISSUED("requests", false),
+  HEDGED_REQUESTS_WON("requests", false),
   // Gather phase.
   RESPONSE_FETCH_EXCEPTIONS("exceptions", false),
   // Response deserialize phase.
@@ -117,6 +120,7 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   TOTAL_SERVER_RESPONSE_SIZE("queries", false),
 
   QUERY_QUOTA_EXCEEDED("exceptions", false),
+  QUERY_DOCS_SCANNED_QUOTA_EXCEEDED("exceptions", false),
 
   // tracks a case a segment is not hosted by any server
   // this is different from NO_SERVER_FOUND_EXCEPTIONS which tracks unavailability across all segments
@@ -125,6 +129,10 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   // Track the case where selected server is missing in RoutingManager
   SERVER_MISSING_FOR_ROUTING("badResponses", false),
 
+  // Track the lookups of the broker result cache
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+
   // Netty connection metrics
   NETTY_CONNECTION_REQUESTS_SENT("nettyConnection", true),
   NETTY_CONNECTION_BYTES_SENT("nettyConnection", true),
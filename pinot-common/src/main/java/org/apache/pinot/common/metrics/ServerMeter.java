@@ -122,6 +122,8 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   NUM_SEGMENTS_PRUNED_INVALID("numSegmentsPrunedInvalid", false),
   NUM_SEGMENTS_PRUNED_BY_LIMIT("numSegmentsPrunedByLimit", false),
   NUM_SEGMENTS_PRUNED_BY_VALUE("numSegmentsPrunedByValue", false),
+  SEGMENT_RESULT_CACHE_HITS("segments", true),
+  SEGMENT_RESULT_CACHE_MISSES("segments", true),
   LARGE_QUERY_RESPONSES_SENT("largeResponses", false),
   TOTAL_THREAD_CPU_TIME_MILLIS("millis", false),
   LARGE_QUERY_RESPONSE_SIZE_EXCEPTIONS("exceptions", false),
@@ -157,6 +159,11 @@ public enum ServerMeter implements AbstractMetrics.Meter {
    * This is the sum of all bytes sent by all workers in the stage.
    */
   MULTI_STAGE_RAW_BYTES("bytes", true),
+  /**
+   * The number of bytes that have been sent to the next stage through the network, after compression.
+   * This is the sum of all bytes sent by all workers in the stage.
+   */
+  MULTI_STAGE_BYTES_ON_WIRE("bytes", true),
   /**
    * Number of times the max number of rows in window has been reached.
    * It is increased at most one by one each time per stage.
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.utils;
+
+import com.google.auto.service.AutoService;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.apache.pinot.spi.executor.ExecutorServicePlugin;
+import org.apache.pinot.spi.executor.ExecutorServiceProvider;
+
+
+/**
+ * This is the plugin for the virtual thread executor service.
+ *
+ * The provider included in this plugin creates an executor that starts a new virtual thread per task. Tasks that block
+ * waiting for data (like multi-stage OpChains waiting on their receiving mailboxes) release their carrier thread while
+ * blocked, so a large number of them can be in flight with a small number of platform threads (by default one per
+ * core, see {@code jdk.virtualThreadScheduler.parallelism}).
+ *
+ * Virtual threads require Java 21 or above. Given Pinot is compiled for older Java versions, the executor is created
+ * through reflection and the provider fails when the JVM does not support virtual threads.
+ *
+ * @see org.apache.pinot.spi.executor.ExecutorServiceUtils
+ */
+@AutoService(ExecutorServicePlugin.class)
+public class VirtualExecutorServicePlugin implements ExecutorServicePlugin {
+  @Override
+  public String id() {
+    return "virtual";
+  }
+
+  @Override
+  public ExecutorServiceProvider provider() {
+    return (conf, confPrefix, baseName) -> newVirtualThreadPerTaskExecutor(baseName);
+  }
+
+  public static boolean isSupported() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor(String baseName) {
+    if (!isSupported()) {
+      throw new IllegalStateException("Virtual threads are not supported in Java " + Runtime.version().feature()
+          + ", Java 21 or above is required by the 'virtual' executor service");
+    }
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, baseName + "-", 0L);
+      ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Failed to create virtual thread executor service: " + baseName, e);
+    }
+  }
+}
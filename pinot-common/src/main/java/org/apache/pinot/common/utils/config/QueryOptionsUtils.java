@@ -31,6 +31,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.GroupByOverFlowMode;
 import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.JoinOverFlowMode;
 import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.WindowOverFlowMode;
 
@@ -135,6 +136,14 @@ public class QueryOptionsUtils {
     return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.AND_SCAN_REORDERING));
   }
 
+  public static boolean isUseExpressionCodegen(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.USE_EXPRESSION_CODEGEN));
+  }
+
+  public static boolean isUsePartitionedGroupByCombine(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.USE_PARTITIONED_GROUP_BY_COMBINE));
+  }
+
   public static boolean isSkipUpsert(Map<String, String> queryOptions) {
     return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SKIP_UPSERT));
   }
@@ -232,6 +241,22 @@ public class QueryOptionsUtils {
     return minBrokerGroupTrimSizeString != null ? Integer.parseInt(minBrokerGroupTrimSizeString) : null;
   }
 
+  public static boolean isUseColumnarDataBlock(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.USE_COLUMNAR_DATA_BLOCK));
+  }
+
+  @Nullable
+  public static Boolean isEnableJoinReorder(Map<String, String> queryOptions) {
+    String enableJoinReorder = queryOptions.get(QueryOptionKey.ENABLE_JOIN_REORDER);
+    return enableJoinReorder != null ? Boolean.parseBoolean(enableJoinReorder) : null;
+  }
+
+  @Nullable
+  public static Long getAutoBroadcastJoinMaxRowCount(Map<String, String> queryOptions) {
+    String autoBroadcastJoinMaxRowCount = queryOptions.get(QueryOptionKey.AUTO_BROADCAST_JOIN_MAX_ROW_COUNT);
+    return autoBroadcastJoinMaxRowCount != null ? Long.parseLong(autoBroadcastJoinMaxRowCount) : null;
+  }
+
   public static boolean isNullHandlingEnabled(Map<String, String> queryOptions) {
     return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.ENABLE_NULL_HANDLING));
   }
@@ -255,6 +280,12 @@ public class QueryOptionsUtils {
     return maxLeafLimitStr != null ? Integer.parseInt(maxLeafLimitStr) : null;
   }
 
+  @Nullable
+  public static Integer getMinDocsPerSegmentSplit(Map<String, String> queryOptions) {
+    String minDocsPerSegmentSplitString = queryOptions.get(QueryOptionKey.MIN_DOCS_PER_SEGMENT_SPLIT);
+    return minDocsPerSegmentSplitString != null ? Integer.parseInt(minDocsPerSegmentSplitString) : null;
+  }
+
   @Nullable
   public static Integer getNumGroupsLimit(Map<String, String> queryOptions) {
     String maxNumGroupLimit = queryOptions.get(QueryOptionKey.NUM_GROUPS_LIMIT);
@@ -277,6 +308,10 @@ public class QueryOptionsUtils {
     return Boolean.parseBoolean(queryOptions.get(CommonConstants.Broker.Request.QueryOptionKey.DROP_RESULTS));
   }
 
+  public static boolean isSkipResultCache(Map<String, String> queryOptions) {
+    return "false".equalsIgnoreCase(queryOptions.get(QueryOptionKey.USE_RESULT_CACHE));
+  }
+
   @Nullable
   public static Integer getMaxStreamingPendingBlocks(Map<String, String> queryOptions) {
     String maxStreamingPendingBlocks = queryOptions.get(QueryOptionKey.MAX_STREAMING_PENDING_BLOCKS);
@@ -307,6 +342,18 @@ public class QueryOptionsUtils {
     return windowOverflowModeStr != null ? WindowOverFlowMode.valueOf(windowOverflowModeStr) : null;
   }
 
+  @Nullable
+  public static Integer getMaxRowsInSort(Map<String, String> queryOptions) {
+    String maxRowsInSort = queryOptions.get(QueryOptionKey.MAX_ROWS_IN_SORT);
+    return maxRowsInSort != null ? Integer.parseInt(maxRowsInSort) : null;
+  }
+
+  @Nullable
+  public static GroupByOverFlowMode getGroupByOverflowMode(Map<String, String> queryOptions) {
+    String groupByOverflowModeStr = queryOptions.get(QueryOptionKey.GROUP_BY_OVERFLOW_MODE);
+    return groupByOverflowModeStr != null ? GroupByOverFlowMode.valueOf(groupByOverflowModeStr) : null;
+  }
+
   public static boolean isSkipUnavailableServers(Map<String, String> queryOptions) {
     return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SKIP_UNAVAILABLE_SERVERS));
   }
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.executor.ExecutorServicePlugin;
+import org.apache.pinot.spi.executor.ExecutorServiceUtils;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+
+public class VirtualExecutorServicePluginTest {
+  private static final String CONF_PREFIX = "pinot.test.executor";
+  private static final PinotConfiguration CONF = new PinotConfiguration(Map.of(CONF_PREFIX + ".type", "virtual"));
+
+  @Test
+  public void testPluginRegistration() {
+    VirtualExecutorServicePlugin virtualPlugin = null;
+    for (ExecutorServicePlugin plugin : ServiceLoader.load(ExecutorServicePlugin.class)) {
+      if (plugin instanceof VirtualExecutorServicePlugin) {
+        virtualPlugin = (VirtualExecutorServicePlugin) plugin;
+      }
+    }
+    assertNotNull(virtualPlugin, "Virtual executor service plugin should be registered through the service loader");
+    assertEquals(virtualPlugin.id(), "virtual");
+  }
+
+  @Test
+  public void testUnsupportedJavaVersion() {
+    if (VirtualExecutorServicePlugin.isSupported()) {
+      throw new SkipException("Virtual threads are supported in Java " + Runtime.version().feature());
+    }
+    assertThrows(IllegalStateException.class, () -> ExecutorServiceUtils.create(CONF, CONF_PREFIX, "test", "cached"));
+  }
+
+  @Test
+  public void testExecuteOnVirtualThreads()
+      throws Exception {
+    ExecutorService executorService = createExecutorService("testExecute");
+    try {
+      // Blocking tasks should not need a platform thread each
+      int numTasks = 1000;
+      CountDownLatch latch = new CountDownLatch(1);
+      List<Future<Thread>> futures = new ArrayList<>(numTasks);
+      for (int i = 0; i < numTasks; i++) {
+        futures.add(executorService.submit(() -> {
+          latch.await();
+          return Thread.currentThread();
+        }));
+      }
+      latch.countDown();
+      for (Future<Thread> future : futures) {
+        Thread thread = future.get(10, TimeUnit.SECONDS);
+        assertTrue((boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+        assertTrue(thread.getName().startsWith("testExecute-"), thread.getName());
+      }
+    } finally {
+      ExecutorServiceUtils.close(executorService);
+    }
+  }
+
+  @Test
+  public void testShutdown()
+      throws Exception {
+    ExecutorService executorService = createExecutorService("testShutdown");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> future = executorService.submit(() -> {
+      started.countDown();
+      release.await();
+      return null;
+    });
+    started.await(10, TimeUnit.SECONDS);
+
+    executorService.shutdown();
+    assertTrue(executorService.isShutdown());
+    assertThrows(RejectedExecutionException.class, () -> executorService.submit(() -> null));
+    // Running tasks are not interrupted by a graceful shutdown
+    assertFalse(executorService.awaitTermination(100, TimeUnit.MILLISECONDS));
+    release.countDown();
+    assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+    assertTrue(future.isDone());
+  }
+
+  private static ExecutorService createExecutorService(String baseName) {
+    if (!VirtualExecutorServicePlugin.isSupported()) {
+      throw new SkipException("Virtual threads are not supported in Java " + Runtime.version().feature());
+    }
+    return ExecutorServiceUtils.create(CONF, CONF_PREFIX, baseName, "cached");
+  }
+}
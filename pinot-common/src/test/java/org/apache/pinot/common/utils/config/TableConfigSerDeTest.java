@@ -176,7 +176,8 @@ public class TableConfigSerDeTest {
     {
       // With routing config
       RoutingConfig routingConfig =
-          new RoutingConfig("builder", Arrays.asList("pruner0", "pruner1", "pruner2"), "selector", false);
+          new RoutingConfig("builder", Arrays.asList("pruner0", "pruner1", "pruner2"), "selector", false,
+              Arrays.asList("column0", "column1"));
       TableConfig tableConfig = tableConfigBuilder.setRoutingConfig(routingConfig).build();
 
       checkRoutingConfig(tableConfig);
@@ -445,6 +446,7 @@ public class TableConfigSerDeTest {
     assertEquals(routingConfig.getRoutingTableBuilderName(), "builder");
     assertEquals(routingConfig.getSegmentPrunerTypes(), Arrays.asList("pruner0", "pruner1", "pruner2"));
     assertEquals(routingConfig.getInstanceSelectorType(), "selector");
+    assertEquals(routingConfig.getValuePruningColumns(), Arrays.asList("column0", "column1"));
   }
 
   private void checkQueryConfig(TableConfig tableConfig) {
@@ -257,6 +257,8 @@ public class ZKOperator {
               segmentDownloadURIStr, crypterName, segmentSizeInBytes);
           segmentZKMetadata.setCustomMap(customMapModifier.modifyMap(segmentZKMetadata.getCustomMap()));
         }
+        ZKMetadataUtils.updateColumnMinMaxValues(segmentZKMetadata, segmentMetadata,
+            _pinotHelixResourceManager.getTableConfig(tableNameWithType));
         if (!_pinotHelixResourceManager.updateZkMetadata(tableNameWithType, segmentZKMetadata, expectedVersion)) {
           throw new RuntimeException(
               String.format("Failed to update ZK metadata for segment: %s, table: %s, expected version: %d",
@@ -311,6 +313,8 @@ public class ZKOperator {
           String.format("Got invalid segment metadata when adding segment: %s for table: %s, reason: %s", segmentName,
               tableNameWithType, e.getMessage()), Response.Status.BAD_REQUEST);
     }
+    ZKMetadataUtils.updateColumnMinMaxValues(newSegmentZKMetadata, segmentMetadata,
+        _pinotHelixResourceManager.getTableConfig(tableNameWithType));
 
     // Lock if enableParallelPushProtection is true.
     long segmentUploadStartTime = System.currentTimeMillis();
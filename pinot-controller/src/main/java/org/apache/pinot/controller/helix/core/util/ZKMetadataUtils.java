@@ -20,9 +20,11 @@ package org.apache.pinot.controller.helix.core.util;
 
 import com.google.common.base.Preconditions;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.common.metadata.segment.SegmentPartitionMetadata;
 import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
@@ -31,12 +33,17 @@ import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.SegmentMetadata;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
 import org.apache.pinot.segment.spi.partition.metadata.ColumnPartitionMetadata;
+import org.apache.pinot.spi.config.table.RoutingConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 
 
 public class ZKMetadataUtils {
+  // Keep the segment ZK metadata small by not publishing long min/max values (e.g. long strings)
+  private static final int MAX_PUBLISHED_VALUE_LENGTH = 128;
+
   private ZKMetadataUtils() {
   }
 
@@ -153,6 +160,37 @@ public class ZKMetadataUtils {
     }
   }
 
+  /**
+   * Publishes the min/max values of the columns configured for the value segment pruner on the broker (see
+   * {@link RoutingConfig#getValuePruningColumns()}) to the segment ZK metadata. Columns with invalid or too long
+   * min/max values are skipped, and the min/max values are removed when no column is configured.
+   */
+  public static void updateColumnMinMaxValues(SegmentZKMetadata segmentZKMetadata, SegmentMetadata segmentMetadata,
+      @Nullable TableConfig tableConfig) {
+    RoutingConfig routingConfig = tableConfig != null ? tableConfig.getRoutingConfig() : null;
+    List<String> valuePruningColumns = routingConfig != null ? routingConfig.getValuePruningColumns() : null;
+    if (CollectionUtils.isEmpty(valuePruningColumns)) {
+      segmentZKMetadata.setColumnMinMaxValues(null, null);
+      return;
+    }
+    Map<String, String> columnMinValues = new HashMap<>();
+    Map<String, String> columnMaxValues = new HashMap<>();
+    for (String column : valuePruningColumns) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      if (columnMetadata == null || columnMetadata.getMinValue() == null || columnMetadata.getMaxValue() == null
+          || columnMetadata.isMinMaxValueInvalid()) {
+        continue;
+      }
+      String minValue = columnMetadata.getMinValue().toString();
+      String maxValue = columnMetadata.getMaxValue().toString();
+      if (minValue.length() <= MAX_PUBLISHED_VALUE_LENGTH && maxValue.length() <= MAX_PUBLISHED_VALUE_LENGTH) {
+        columnMinValues.put(column, minValue);
+        columnMaxValues.put(column, maxValue);
+      }
+    }
+    segmentZKMetadata.setColumnMinMaxValues(columnMinValues, columnMaxValues);
+  }
+
   private static boolean isValidTimeMetadata(ColumnMetadata timeColumnMetadata) {
     return timeColumnMetadata != null && timeColumnMetadata.getMinValue() != null
         && timeColumnMetadata.getMaxValue() != null && !timeColumnMetadata.isMinMaxValueInvalid();
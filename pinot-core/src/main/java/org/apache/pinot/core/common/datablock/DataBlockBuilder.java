@@ -27,6 +27,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntFunction;
 import java.util.function.ToIntFunction;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.CustomObject;
@@ -167,7 +168,31 @@ public class DataBlockBuilder {
       PagedPinotOutputStream.PageAllocator allocator)
       throws IOException {
     int numRows = columns.isEmpty() ? 0 : columns.get(0).length;
+    return buildFromColumnReaders(numRows, dataSchema, colId -> {
+      Object[] column = columns.get(colId);
+      return rowId -> column[rowId];
+    }, allocator);
+  }
+
+  /**
+   * Builds a {@link ColumnarDataBlock} from row major values. The values are read column by column from the rows, so
+   * there is no need to transpose the rows into columns first.
+   */
+  public static ColumnarDataBlock buildColumnarFromRows(List<Object[]> rows, DataSchema dataSchema)
+      throws IOException {
+    return buildColumnarFromRows(rows, dataSchema, PagedPinotOutputStream.HeapPageAllocator.createSmall());
+  }
+
+  public static ColumnarDataBlock buildColumnarFromRows(List<Object[]> rows, DataSchema dataSchema,
+      PagedPinotOutputStream.PageAllocator allocator)
+      throws IOException {
+    Object[][] rowArray = rows.toArray(new Object[0][]);
+    return buildFromColumnReaders(rowArray.length, dataSchema, colId -> rowId -> rowArray[rowId][colId], allocator);
+  }
 
+  private static ColumnarDataBlock buildFromColumnReaders(int numRows, DataSchema dataSchema,
+      IntFunction<IntFunction<Object>> columnReaderFactory, PagedPinotOutputStream.PageAllocator allocator)
+      throws IOException {
     int fixedBytesPerRow = calculateBytesPerRow(dataSchema);
     int nullFixedBytes = dataSchema.size() * Integer.BYTES * 2;
     int fixedBytesRequired = fixedBytesPerRow * numRows + nullFixedBytes;
@@ -186,7 +211,8 @@ public class DataBlockBuilder {
       for (int colId = 0; colId < numColumns; colId++) {
         RoaringBitmap nullBitmap = new RoaringBitmap();
         nullBitmaps[colId] = nullBitmap;
-        serializeColumnData(columns, dataSchema, colId, fixedSize, varSize, nullBitmap, dictionary);
+        serializeColumnData(columnReaderFactory.apply(colId), numRows, dataSchema, colId, fixedSize, varSize,
+            nullBitmap, dictionary);
       }
       varBufferBuilder.addPagedOutputStream(varSize);
     }
@@ -195,14 +221,11 @@ public class DataBlockBuilder {
     return buildColumnarBlock(numRows, dataSchema, getReverseDictionary(dictionary), fixedSize, varBufferBuilder);
   }
 
-  private static void serializeColumnData(List<Object[]> columns, DataSchema dataSchema, int colId,
+  private static void serializeColumnData(IntFunction<Object> column, int numRows, DataSchema dataSchema, int colId,
       ByteBuffer fixedSize, PagedPinotOutputStream varSize, RoaringBitmap nullBitmap,
       Object2IntOpenHashMap<String> dictionary)
       throws IOException {
     ColumnDataType storedType = dataSchema.getColumnDataType(colId).getStoredType();
-    int numRows = columns.get(colId).length;
-
-    Object[] column = columns.get(colId);
 
     // NOTE:
     // We intentionally make the type casting very strict here (e.g. only accepting Integer for INT) to ensure the
@@ -212,7 +235,7 @@ public class DataBlockBuilder {
       case INT: {
         int nullPlaceholder = (int) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             fixedSize.putInt(nullPlaceholder);
@@ -225,7 +248,7 @@ public class DataBlockBuilder {
       case LONG: {
         long nullPlaceholder = (long) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             fixedSize.putLong(nullPlaceholder);
@@ -238,7 +261,7 @@ public class DataBlockBuilder {
       case FLOAT: {
         float nullPlaceholder = (float) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             fixedSize.putFloat(nullPlaceholder);
@@ -251,7 +274,7 @@ public class DataBlockBuilder {
       case DOUBLE: {
         double nullPlaceholder = (double) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             fixedSize.putDouble(nullPlaceholder);
@@ -264,7 +287,7 @@ public class DataBlockBuilder {
       case BIG_DECIMAL: {
         BigDecimal nullPlaceholder = (BigDecimal) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             setColumn(fixedSize, varSize, nullPlaceholder);
@@ -279,7 +302,7 @@ public class DataBlockBuilder {
         int nullPlaceHolder = dictionary.computeIfAbsent((String) storedType.getNullPlaceholder(), didSupplier);
 
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             fixedSize.putInt(nullPlaceHolder);
@@ -293,7 +316,7 @@ public class DataBlockBuilder {
       case BYTES: {
         ByteArray nullPlaceholder = (ByteArray) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             setColumn(fixedSize, varSize, nullPlaceholder);
@@ -308,7 +331,7 @@ public class DataBlockBuilder {
       case INT_ARRAY: {
         int[] nullPlaceholder = (int[]) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             setColumn(fixedSize, varSize, nullPlaceholder);
@@ -321,7 +344,7 @@ public class DataBlockBuilder {
       case LONG_ARRAY: {
         long[] nullPlaceholder = (long[]) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             setColumn(fixedSize, varSize, nullPlaceholder);
@@ -334,7 +357,7 @@ public class DataBlockBuilder {
       case FLOAT_ARRAY: {
         float[] nullPlaceholder = (float[]) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             setColumn(fixedSize, varSize, nullPlaceholder);
@@ -347,7 +370,7 @@ public class DataBlockBuilder {
       case DOUBLE_ARRAY: {
         double[] nullPlaceholder = (double[]) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             setColumn(fixedSize, varSize, nullPlaceholder);
@@ -360,7 +383,7 @@ public class DataBlockBuilder {
       case STRING_ARRAY: {
         String[] nullPlaceholder = (String[]) storedType.getNullPlaceholder();
         for (int rowId = 0; rowId < numRows; rowId++) {
-          Object value = column[rowId];
+          Object value = column.apply(rowId);
           if (value == null) {
             nullBitmap.add(rowId);
             setColumn(fixedSize, varSize, nullPlaceholder, dictionary);
@@ -374,13 +397,14 @@ public class DataBlockBuilder {
       // Special intermediate result for aggregation function
       case OBJECT: {
         for (int rowId = 0; rowId < numRows; rowId++) {
-          setColumn(fixedSize, varSize, column[rowId]);
+          setColumn(fixedSize, varSize, column.apply(rowId));
         }
         break;
       }
       // Null
       case UNKNOWN:
         for (int rowId = 0; rowId < numRows; rowId++) {
+          nullBitmap.add(rowId);
           setColumn(fixedSize, varSize, (Object) null);
         }
         break;
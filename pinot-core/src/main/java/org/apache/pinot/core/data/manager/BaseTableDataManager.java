@@ -58,6 +58,7 @@ import org.apache.pinot.common.utils.TarCompressionUtils;
 import org.apache.pinot.common.utils.config.TierConfigUtils;
 import org.apache.pinot.common.utils.fetcher.SegmentFetcherFactory;
 import org.apache.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.core.util.PeerServerSegmentFinder;
 import org.apache.pinot.segment.local.data.manager.SegmentDataManager;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
@@ -116,6 +117,9 @@ public abstract class BaseTableDataManager implements TableDataManager {
   protected LoadingCache<Pair<String, String>, SegmentErrorInfo> _errorCache;
   // Cache used for identifying segments which could not be acquired since they were recently deleted.
   protected Cache<String, String> _recentlyDeletedSegments;
+  // Segment result cache shared by all the tables on the server, whose entries are invalidated when segments change
+  @Nullable
+  protected SegmentResultCache _segmentResultCache;
 
   protected volatile boolean _shutDown;
 
@@ -552,6 +556,14 @@ public abstract class BaseTableDataManager implements TableDataManager {
     _logger.info("Closed segment: {}", segmentName);
   }
 
+  /**
+   * Sets the segment result cache owned by the server, or {@code null} if it is disabled. Should be called before the
+   * table data manager is initialized.
+   */
+  public void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache) {
+    _segmentResultCache = segmentResultCache;
+  }
+
   @Override
   public int getNumSegments() {
     return _segmentDataManagerMap.size();
@@ -712,6 +724,9 @@ public abstract class BaseTableDataManager implements TableDataManager {
       oldSegmentDataManager = _segmentDataManagerMap.put(segmentName, segmentDataManager);
     }
     _recentlyDeletedSegments.invalidate(segmentName);
+    if (_segmentResultCache != null) {
+      _segmentResultCache.invalidate(_tableNameWithType, segmentName);
+    }
     return oldSegmentDataManager;
   }
 
@@ -725,6 +740,9 @@ public abstract class BaseTableDataManager implements TableDataManager {
   @Nullable
   protected SegmentDataManager unregisterSegment(String segmentName) {
     _recentlyDeletedSegments.put(segmentName, segmentName);
+    if (_segmentResultCache != null) {
+      _segmentResultCache.invalidate(_tableNameWithType, segmentName);
+    }
     synchronized (_segmentDataManagerMap) {
       return _segmentDataManagerMap.remove(segmentName);
     }
@@ -30,6 +30,7 @@ import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.data.manager.realtime.SegmentUploader;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.core.util.SegmentRefreshSemaphore;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
 import org.apache.pinot.segment.spi.SegmentMetadata;
@@ -194,4 +195,17 @@ public interface InstanceDataManager {
    * @param isServerReadyToServeQueries supplier to retrieve state of server.
    */
   void setSupplierOfIsServerReadyToServeQueries(Supplier<Boolean> isServerReadyToServeQueries);
+
+  /**
+   * Sets the segment result cache owned by the server, or {@code null} if it is disabled. The table data managers
+   * invalidate the cached results of the segments when they are added, replaced, reloaded or removed. Should be called
+   * before any table data manager is created.
+   */
+  void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache);
+
+  /**
+   * Returns the segment result cache owned by the server, or {@code null} if it is disabled.
+   */
+  @Nullable
+  SegmentResultCache getSegmentResultCache();
 }
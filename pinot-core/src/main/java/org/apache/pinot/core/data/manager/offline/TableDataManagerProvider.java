@@ -28,7 +28,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.helix.HelixManager;
 import org.apache.pinot.common.restlet.resources.SegmentErrorInfo;
+import org.apache.pinot.core.data.manager.BaseTableDataManager;
 import org.apache.pinot.core.data.manager.realtime.RealtimeTableDataManager;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
 import org.apache.pinot.segment.local.utils.SegmentLocks;
 import org.apache.pinot.spi.config.instance.InstanceDataManagerConfig;
@@ -57,13 +59,13 @@ public class TableDataManagerProvider {
   }
 
   public TableDataManager getTableDataManager(TableConfig tableConfig) {
-    return getTableDataManager(tableConfig, null, null, () -> true);
+    return getTableDataManager(tableConfig, null, null, () -> true, null);
   }
 
   public TableDataManager getTableDataManager(TableConfig tableConfig, @Nullable ExecutorService segmentPreloadExecutor,
       @Nullable LoadingCache<Pair<String, String>, SegmentErrorInfo> errorCache,
-      Supplier<Boolean> isServerReadyToServeQueries) {
-    TableDataManager tableDataManager;
+      Supplier<Boolean> isServerReadyToServeQueries, @Nullable SegmentResultCache segmentResultCache) {
+    BaseTableDataManager tableDataManager;
     switch (tableConfig.getTableType()) {
       case OFFLINE:
         if (tableConfig.isDimTable()) {
@@ -85,6 +87,7 @@ public class TableDataManagerProvider {
       default:
         throw new IllegalStateException();
     }
+    tableDataManager.setSegmentResultCache(segmentResultCache);
     tableDataManager.init(_instanceDataManagerConfig, _helixManager, _segmentLocks, tableConfig, segmentPreloadExecutor,
         errorCache);
     return tableDataManager;
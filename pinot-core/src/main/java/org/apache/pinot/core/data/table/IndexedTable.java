@@ -118,6 +118,15 @@ public abstract class IndexedTable extends BaseTable {
     return upsert(new Key(keyValues), record);
   }
 
+  /**
+   * Adds or updates the record with the given group keys and values (group keys in the front). The table might keep the
+   * given arrays. Tables not keeping the records in the lookup map can merge the values without creating the {@link Key}
+   * and the {@link Record}.
+   */
+  public boolean upsert(Object[] keys, Object[] values) {
+    return upsert(new Key(keys), new Record(values));
+  }
+
   /**
    * Adds a record with new key or updates a record with existing key.
    */
@@ -150,6 +159,41 @@ public abstract class IndexedTable extends BaseTable {
     return existingRecord;
   }
 
+  /**
+   * Merges the records from the given indexed table into this table, and accumulates its resize stats. Only the top
+   * records are merged if the given table is already finished.
+   * <p>NOTE: The given table should not be accessed after the merge because its records might be reused by this table.
+   */
+  public void mergeIndexedTable(IndexedTable indexedTable) {
+    mergeRecords(indexedTable);
+    _numResizes += indexedTable._numResizes;
+    _resizeTimeNs += indexedTable._resizeTimeNs;
+  }
+
+  /**
+   * Merges the records from the given indexed table into this table. Only the top records are merged if the given table
+   * is already finished.
+   */
+  protected void mergeRecords(IndexedTable indexedTable) {
+    if (indexedTable._topRecords != null) {
+      for (Record record : indexedTable._topRecords) {
+        upsert(record);
+      }
+    } else {
+      for (Map.Entry<Key, Record> entry : indexedTable.getLookupMap().entrySet()) {
+        upsert(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Returns the map from keys to records before the table is finished. Tables not keeping the records in the lookup map
+   * should materialize them.
+   */
+  protected Map<Key, Record> getLookupMap() {
+    return _lookupMap;
+  }
+
   /**
    * Resizes the lookup map based on the trim size.
    */
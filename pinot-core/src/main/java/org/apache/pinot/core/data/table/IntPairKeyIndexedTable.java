@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import java.util.Arrays;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * {@link PrimitiveIndexedTable} for two group keys with INT stored type, which are packed into one long key.
+ */
+@NotThreadSafe
+public class IntPairKeyIndexedTable extends PrimitiveIndexedTable {
+  private final Long2IntOpenHashMap _groupIdMap = new Long2IntOpenHashMap();
+  private long[] _keys = new long[_capacity];
+
+  public IntPairKeyIndexedTable(DataSchema dataSchema, QueryContext queryContext, int resultSize, int trimSize,
+      int trimThreshold) {
+    super(dataSchema, queryContext, resultSize, trimSize, trimThreshold);
+    _groupIdMap.defaultReturnValue(-1);
+  }
+
+  @Override
+  protected int getGroupId(Object[] values, int newGroupId) {
+    long key = ((long) ((Number) values[0]).intValue() << 32) | (((Number) values[1]).intValue() & 0xFFFFFFFFL);
+    if (newGroupId < 0) {
+      return _groupIdMap.get(key);
+    }
+    int groupId = _groupIdMap.putIfAbsent(key, newGroupId);
+    if (groupId >= 0) {
+      return groupId;
+    }
+    _keys[newGroupId] = key;
+    return newGroupId;
+  }
+
+  @Override
+  protected void getKeyValues(int groupId, Object[] values) {
+    long key = _keys[groupId];
+    values[0] = (int) (key >>> 32);
+    values[1] = (int) key;
+  }
+
+  @Override
+  protected void expandKeys(int capacity) {
+    _keys = Arrays.copyOf(_keys, capacity);
+  }
+
+  @Override
+  protected void clearKeys() {
+    _groupIdMap.clear();
+  }
+}
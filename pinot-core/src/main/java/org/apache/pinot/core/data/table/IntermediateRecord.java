@@ -34,4 +34,11 @@ public class IntermediateRecord {
     _record = record;
     _values = values;
   }
+
+  /**
+   * Creates an intermediate record without the values to be ordered, which can only be merged into a table.
+   */
+  public static IntermediateRecord create(Key key, Record record) {
+    return new IntermediateRecord(key, record, null);
+  }
 }
@@ -0,0 +1,315 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.AggregationFunctionType;
+
+
+/**
+ * Non thread safe {@link IndexedTable} specialized for the common group-by shapes, which maps the group keys to group
+ * ids with a primitive hash map (see the subclasses for the supported group keys), and keeps the SUM/COUNT/MIN/MAX
+ * intermediate results in parallel primitive arrays indexed by the group id. This avoids the {@link Key} and
+ * {@link Record} for each group as well as boxing the intermediate results when merging the records.
+ *
+ * <p>The records are only materialized into the lookup map when the table is resized or finished, so that the
+ * {@link TableResizer} can be reused. The intermediate results are merged the same way as the aggregation functions in
+ * order to return identical results as the {@link SimpleIndexedTable}.
+ *
+ * <p>NOTE: Only supports intermediate (non-final) input with null handling disabled.
+ */
+@NotThreadSafe
+public abstract class PrimitiveIndexedTable extends IndexedTable {
+  private static final int INITIAL_CAPACITY = 128;
+
+  private final AggregationFunctionType[] _aggregationTypes;
+  // Intermediate results for COUNT
+  private final long[][] _longValues;
+  // Intermediate results for SUM/MIN/MAX
+  private final double[][] _doubleValues;
+
+  protected int _numGroups;
+  protected int _capacity = INITIAL_CAPACITY;
+
+  protected PrimitiveIndexedTable(DataSchema dataSchema, QueryContext queryContext, int resultSize, int trimSize,
+      int trimThreshold) {
+    super(dataSchema, false, queryContext, resultSize, trimSize, trimThreshold, new HashMap<>());
+    int numAggregationFunctions = _aggregationFunctions.length;
+    _aggregationTypes = new AggregationFunctionType[numAggregationFunctions];
+    _longValues = new long[numAggregationFunctions][];
+    _doubleValues = new double[numAggregationFunctions][];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      _aggregationTypes[i] = _aggregationFunctions[i].getType();
+      if (_aggregationTypes[i] == AggregationFunctionType.COUNT) {
+        _longValues[i] = new long[INITIAL_CAPACITY];
+      } else {
+        _doubleValues[i] = new double[INITIAL_CAPACITY];
+      }
+    }
+  }
+
+  /**
+   * Returns whether the aggregations of the given query can be stored in the primitive arrays, i.e. all of them are
+   * SUM/COUNT/MIN/MAX with the expected intermediate result type in the given data schema.
+   */
+  public static boolean isSupportedAggregations(DataSchema dataSchema, QueryContext queryContext) {
+    AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+    assert aggregationFunctions != null && queryContext.getGroupByExpressions() != null;
+    int numKeyColumns = queryContext.getGroupByExpressions().size();
+    ColumnDataType[] storedColumnDataTypes = dataSchema.getStoredColumnDataTypes();
+    if (storedColumnDataTypes.length != numKeyColumns + aggregationFunctions.length) {
+      return false;
+    }
+    for (int i = 0; i < aggregationFunctions.length; i++) {
+      ColumnDataType storedColumnDataType = storedColumnDataTypes[numKeyColumns + i];
+      switch (aggregationFunctions[i].getType()) {
+        case COUNT:
+          if (storedColumnDataType != ColumnDataType.LONG) {
+            return false;
+          }
+          break;
+        case SUM:
+        case MIN:
+        case MAX:
+          if (storedColumnDataType != ColumnDataType.DOUBLE) {
+            return false;
+          }
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the group id of the group keys in the front of the given values. If the group does not exist, adds it with
+   * the given new group id when it is non-negative, or returns -1 otherwise.
+   */
+  protected abstract int getGroupId(Object[] values, int newGroupId);
+
+  /**
+   * Puts the group keys of the given group id into the front of the given values.
+   */
+  protected abstract void getKeyValues(int groupId, Object[] values);
+
+  /**
+   * Expands the arrays storing the group keys to the given capacity.
+   */
+  protected abstract void expandKeys(int capacity);
+
+  /**
+   * Removes all the group keys.
+   */
+  protected abstract void clearKeys();
+
+  @Override
+  public boolean upsert(Key key, Record record) {
+    return upsert(record);
+  }
+
+  @Override
+  public boolean upsert(Record record) {
+    return upsert(null, record.getValues());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The group keys are read from the front of the values, and the values are not kept by the table.
+   */
+  @Override
+  public boolean upsert(Object[] keys, Object[] values) {
+    int groupId = getOrAddGroupId(values);
+    if (groupId == _numGroups) {
+      _numGroups++;
+      setIntermediateResults(groupId, values);
+      if (_numGroups >= _trimThreshold) {
+        resize();
+      }
+    } else if (groupId >= 0) {
+      mergeIntermediateResults(groupId, values);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the group id for the given values (group keys in the front). Returns {@link #_numGroups} for a new group,
+   * or -1 if the group does not exist and the table does not accept new groups.
+   */
+  private int getOrAddGroupId(Object[] values) {
+    // NOTE: Same as SimpleIndexedTable, stop accepting new groups once the table reaches the result size when there is
+    //       no ORDER BY.
+    if (_hasOrderBy || _numGroups < _resultSize) {
+      if (_numGroups == _capacity) {
+        expand();
+      }
+      return getGroupId(values, _numGroups);
+    } else {
+      return getGroupId(values, -1);
+    }
+  }
+
+  private void expand() {
+    int capacity = _capacity * 2;
+    for (int i = 0; i < _aggregationTypes.length; i++) {
+      if (_longValues[i] != null) {
+        _longValues[i] = Arrays.copyOf(_longValues[i], capacity);
+      } else {
+        _doubleValues[i] = Arrays.copyOf(_doubleValues[i], capacity);
+      }
+    }
+    expandKeys(capacity);
+    _capacity = capacity;
+  }
+
+  private void setIntermediateResults(int groupId, Object[] values) {
+    int index = _numKeyColumns;
+    for (int i = 0; i < _aggregationTypes.length; i++, index++) {
+      if (_longValues[i] != null) {
+        _longValues[i][groupId] = ((Number) values[index]).longValue();
+      } else {
+        _doubleValues[i][groupId] = ((Number) values[index]).doubleValue();
+      }
+    }
+  }
+
+  private void mergeIntermediateResults(int groupId, Object[] values) {
+    int index = _numKeyColumns;
+    for (int i = 0; i < _aggregationTypes.length; i++, index++) {
+      if (_longValues[i] != null) {
+        _longValues[i][groupId] += ((Number) values[index]).longValue();
+      } else {
+        _doubleValues[i][groupId] =
+            merge(_aggregationTypes[i], _doubleValues[i][groupId], ((Number) values[index]).doubleValue());
+      }
+    }
+  }
+
+  /**
+   * Same as the merge() of the SUM/MIN/MAX aggregation functions.
+   */
+  private static double merge(AggregationFunctionType aggregationType, double existingValue, double newValue) {
+    switch (aggregationType) {
+      case SUM:
+        return existingValue + newValue;
+      case MIN:
+        return existingValue < newValue ? existingValue : newValue;
+      case MAX:
+        return existingValue > newValue ? existingValue : newValue;
+      default:
+        throw new IllegalStateException("Unsupported aggregation type: " + aggregationType);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Merges the intermediate results directly when the given table is of the same type and not finished yet.
+   */
+  @Override
+  protected void mergeRecords(IndexedTable indexedTable) {
+    if (indexedTable.getClass() != getClass() || indexedTable._topRecords != null) {
+      super.mergeRecords(indexedTable);
+      return;
+    }
+    PrimitiveIndexedTable primitiveIndexedTable = (PrimitiveIndexedTable) indexedTable;
+    Object[] values = new Object[_numKeyColumns];
+    int numGroups = primitiveIndexedTable._numGroups;
+    for (int i = 0; i < numGroups; i++) {
+      primitiveIndexedTable.getKeyValues(i, values);
+      int groupId = getOrAddGroupId(values);
+      if (groupId == _numGroups) {
+        _numGroups++;
+        for (int j = 0; j < _aggregationTypes.length; j++) {
+          if (_longValues[j] != null) {
+            _longValues[j][groupId] = primitiveIndexedTable._longValues[j][i];
+          } else {
+            _doubleValues[j][groupId] = primitiveIndexedTable._doubleValues[j][i];
+          }
+        }
+        if (_numGroups >= _trimThreshold) {
+          resize();
+        }
+      } else if (groupId >= 0) {
+        for (int j = 0; j < _aggregationTypes.length; j++) {
+          if (_longValues[j] != null) {
+            _longValues[j][groupId] += primitiveIndexedTable._longValues[j][i];
+          } else {
+            _doubleValues[j][groupId] =
+                merge(_aggregationTypes[j], _doubleValues[j][groupId], primitiveIndexedTable._doubleValues[j][i]);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  protected Map<Key, Record> getLookupMap() {
+    materializeLookupMap();
+    return _lookupMap;
+  }
+
+  /**
+   * Materializes the records into the lookup map, and uses the {@link TableResizer} to trim it. Then reloads the
+   * retained records.
+   */
+  @Override
+  protected void resize() {
+    materializeLookupMap();
+    super.resize();
+    _numGroups = 0;
+    clearKeys();
+    for (Record record : _lookupMap.values()) {
+      upsert(record);
+    }
+    _lookupMap.clear();
+  }
+
+  @Override
+  public void finish(boolean sort, boolean storeFinalResult) {
+    materializeLookupMap();
+    super.finish(sort, storeFinalResult);
+  }
+
+  private void materializeLookupMap() {
+    _lookupMap.clear();
+    for (int groupId = 0; groupId < _numGroups; groupId++) {
+      Object[] values = new Object[_numColumns];
+      getKeyValues(groupId, values);
+      int index = _numKeyColumns;
+      for (int i = 0; i < _aggregationTypes.length; i++, index++) {
+        values[index] = _longValues[i] != null ? (Object) _longValues[i][groupId] : (Object) _doubleValues[i][groupId];
+      }
+      _lookupMap.put(new Key(Arrays.copyOf(values, _numKeyColumns)), new Record(values));
+    }
+  }
+
+  @Override
+  public int size() {
+    return _topRecords != null ? _topRecords.size() : _numGroups;
+  }
+}
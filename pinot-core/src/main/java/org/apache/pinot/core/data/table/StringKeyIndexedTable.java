@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.Arrays;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * {@link PrimitiveIndexedTable} for a single group key with STRING stored type.
+ */
+@NotThreadSafe
+public class StringKeyIndexedTable extends PrimitiveIndexedTable {
+  private final Object2IntOpenHashMap<String> _groupIdMap = new Object2IntOpenHashMap<>();
+  private String[] _keys = new String[_capacity];
+
+  public StringKeyIndexedTable(DataSchema dataSchema, QueryContext queryContext, int resultSize, int trimSize,
+      int trimThreshold) {
+    super(dataSchema, queryContext, resultSize, trimSize, trimThreshold);
+    _groupIdMap.defaultReturnValue(-1);
+  }
+
+  @Override
+  protected int getGroupId(Object[] values, int newGroupId) {
+    String key = (String) values[0];
+    if (newGroupId < 0) {
+      return _groupIdMap.getInt(key);
+    }
+    int groupId = _groupIdMap.putIfAbsent(key, newGroupId);
+    if (groupId >= 0) {
+      return groupId;
+    }
+    _keys[newGroupId] = key;
+    return newGroupId;
+  }
+
+  @Override
+  protected void getKeyValues(int groupId, Object[] values) {
+    values[0] = _keys[groupId];
+  }
+
+  @Override
+  protected void expandKeys(int capacity) {
+    _keys = Arrays.copyOf(_keys, capacity);
+  }
+
+  @Override
+  protected void clearKeys() {
+    _groupIdMap.clear();
+  }
+}
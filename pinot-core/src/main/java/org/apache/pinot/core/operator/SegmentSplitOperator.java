@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+
+
+/**
+ * A wrapper around the segment-level operator which only processes a split (doc id range) of the segment. A large
+ * segment can be split into multiple operators so that they can be processed in parallel by the combine operator.
+ * <p>The wrapper reports the docs within the split as the total docs, and allows the combine operator to count each
+ * segment only once in the execution statistics.
+ */
+@SuppressWarnings("unchecked")
+public class SegmentSplitOperator extends BaseOperator<BaseResultsBlock> {
+  private static final String EXPLAIN_NAME = "SEGMENT_SPLIT";
+
+  private final Operator<BaseResultsBlock> _childOperator;
+  private final SegmentContext _segmentContext;
+  private final SegmentContext _splitContext;
+
+  /**
+   * @param childOperator  Segment-level operator for the split
+   * @param segmentContext Context of the whole segment, shared by all the splits of the segment
+   * @param splitContext   Context of the split carrying the doc id range
+   */
+  public SegmentSplitOperator(Operator<? extends BaseResultsBlock> childOperator, SegmentContext segmentContext,
+      SegmentContext splitContext) {
+    assert splitContext.hasDocIdRange();
+    _childOperator = (Operator<BaseResultsBlock>) childOperator;
+    _segmentContext = segmentContext;
+    _splitContext = splitContext;
+  }
+
+  /**
+   * Returns the context of the whole segment, which can be used to identify the splits of the same segment.
+   */
+  public SegmentContext getSegmentContext() {
+    return _segmentContext;
+  }
+
+  /**
+   * Returns {@code true} if this is the first split of the segment, {@code false} otherwise.
+   */
+  public boolean isFirstSplit() {
+    return _splitContext.getStartDocId() == 0;
+  }
+
+  @Override
+  protected BaseResultsBlock getNextBlock() {
+    return _childOperator.nextBlock();
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME + "(startDocId:" + _splitContext.getStartDocId() + ",endDocId:" + _splitContext.getEndDocId()
+        + ')';
+  }
+
+  @Override
+  public List<Operator> getChildOperators() {
+    return Collections.singletonList(_childOperator);
+  }
+
+  @Override
+  public IndexSegment getIndexSegment() {
+    return _segmentContext.getIndexSegment();
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    ExecutionStatistics executionStatistics = _childOperator.getExecutionStatistics();
+    return new ExecutionStatistics(executionStatistics.getNumDocsScanned(),
+        executionStatistics.getNumEntriesScannedInFilter(), executionStatistics.getNumEntriesScannedPostFilter(),
+        _splitContext.getEndDocId() - _splitContext.getStartDocId());
+  }
+}
@@ -18,11 +18,15 @@
  */
 package org.apache.pinot.core.operator.combine;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.SegmentSplitOperator;
 import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
 import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
 
 
 @SuppressWarnings("rawtypes")
@@ -35,8 +39,10 @@ public class CombineOperatorUtils {
    */
   public static void setExecutionStatistics(BaseResultsBlock resultsBlock, List<Operator> operators,
       long threadCpuTimeNs, int numServerThreads) {
-    int numSegmentsProcessed = operators.size();
+    int numSegmentsProcessed = 0;
     int numSegmentsMatched = 0;
+    // Segments split into multiple operators should only be counted once
+    Set<SegmentContext> matchedSplitSegments = null;
     int numConsumingSegmentsProcessed = 0;
     int numConsumingSegmentsMatched = 0;
     long numDocsScanned = 0;
@@ -45,8 +51,23 @@ public class CombineOperatorUtils {
     long numTotalDocs = 0;
     for (Operator operator : operators) {
       ExecutionStatistics executionStatistics = operator.getExecutionStatistics();
-      if (executionStatistics.getNumDocsScanned() > 0) {
-        numSegmentsMatched++;
+      if (operator instanceof SegmentSplitOperator) {
+        if (((SegmentSplitOperator) operator).isFirstSplit()) {
+          numSegmentsProcessed++;
+        }
+        if (executionStatistics.getNumDocsScanned() > 0) {
+          if (matchedSplitSegments == null) {
+            matchedSplitSegments = new HashSet<>();
+          }
+          if (matchedSplitSegments.add(((SegmentSplitOperator) operator).getSegmentContext())) {
+            numSegmentsMatched++;
+          }
+        }
+      } else {
+        numSegmentsProcessed++;
+        if (executionStatistics.getNumDocsScanned() > 0) {
+          numSegmentsMatched++;
+        }
       }
 
       // TODO: Check all operators and properly implement the getIndexSegment.
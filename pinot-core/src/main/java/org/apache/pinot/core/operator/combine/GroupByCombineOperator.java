@@ -60,17 +60,18 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
   private static final Logger LOGGER = LoggerFactory.getLogger(GroupByCombineOperator.class);
   private static final String EXPLAIN_NAME = "COMBINE_GROUP_BY";
 
-  private final int _trimSize;
-  private final int _trimThreshold;
-  private final int _numAggregationFunctions;
-  private final int _numGroupByExpressions;
-  private final int _numColumns;
+  protected final int _trimSize;
+  protected final int _trimThreshold;
+  protected final int _numAggregationFunctions;
+  protected final int _numGroupByExpressions;
+  protected final int _numColumns;
   // We use a CountDownLatch to track if all Futures are finished by the query timeout, and cancel the unfinished
   // _futures (try to interrupt the execution if it already started).
-  private final CountDownLatch _operatorLatch;
+  protected final CountDownLatch _operatorLatch;
+
+  protected volatile boolean _numGroupsLimitReached;
 
   private volatile IndexedTable _indexedTable;
-  private volatile boolean _numGroupsLimitReached;
 
   public GroupByCombineOperator(List<Operator> operators, QueryContext queryContext, ExecutorService executorService) {
     super(null, operators, overrideMaxExecutionThreads(queryContext, operators.size()), executorService);
@@ -238,7 +239,7 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
       return new ExceptionResultsBlock(processingException);
     }
 
-    IndexedTable indexedTable = _indexedTable;
+    IndexedTable indexedTable = getIndexedTable();
     if (_queryContext.isServerReturnFinalResult()) {
       indexedTable.finish(true, true);
     } else if (_queryContext.isServerReturnFinalResultKeyUnpartitioned()) {
@@ -252,4 +253,12 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     mergedBlock.setResizeTimeMs(indexedTable.getResizeTimeMs());
     return mergedBlock;
   }
+
+  /**
+   * Returns the indexed table with all the records merged. Invoked after all the segments are processed.
+   */
+  protected IndexedTable getIndexedTable()
+      throws Exception {
+    return _indexedTable;
+  }
 }
@@ -0,0 +1,298 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.combine;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.data.table.IntermediateRecord;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.operator.AcquireReleaseColumnsSegmentOperator;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.util.GroupByUtils;
+import org.apache.pinot.core.util.QueryMultiThreadingUtils;
+import org.apache.pinot.core.util.trace.TraceRunnable;
+import org.apache.pinot.spi.accounting.ThreadExecutionContext;
+import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
+import org.apache.pinot.spi.exception.EarlyTerminationException;
+import org.apache.pinot.spi.trace.Tracing;
+
+
+/**
+ * Combine operator for group-by queries which avoids the contention on a shared concurrent indexed table.
+ * <ul>
+ *   <li>
+ *     Each worker thread aggregates the records into its own indexed tables, one per partition, where the records are
+ *     partitioned by the high bits of the group key hash (radix partitioning). Trimming is applied per partition.
+ *   </li>
+ *   <li>
+ *     After all the segments are processed, each partition is merged across the worker threads in parallel. The group
+ *     keys are disjoint across the partitions, so the top records of each partition contain the top records of the
+ *     whole result, and only the top records are combined into the final indexed table.
+ *   </li>
+ * </ul>
+ * <p>NOTE: Unlike {@link GroupByCombineOperator}, this operator does not create one task per operator when
+ *          maxExecutionThreads is not configured, because each task holds its own indexed tables.
+ */
+@SuppressWarnings("rawtypes")
+public class PartitionedGroupByCombineOperator extends GroupByCombineOperator {
+  // Upper bound of the number of partitions to bound the number of indexed tables per worker thread
+  public static final int MAX_NUM_PARTITIONS = 64;
+
+  private final int _numPartitions;
+  private final int _numPartitionBits;
+  // Indexed tables of each worker thread, indexed by task slot and then partition id
+  private final IndexedTable[][] _threadTables;
+  private final AtomicInteger _nextTaskSlot = new AtomicInteger();
+
+  public PartitionedGroupByCombineOperator(List<Operator> operators, QueryContext queryContext,
+      ExecutorService executorService) {
+    super(operators, setDefaultMaxExecutionThreads(queryContext), executorService);
+    _numPartitions = Math.min(Integer.highestOneBit(2 * _numTasks - 1), MAX_NUM_PARTITIONS);
+    _numPartitionBits = Integer.numberOfTrailingZeros(_numPartitions);
+    _threadTables = new IndexedTable[_numTasks][];
+  }
+
+  private static QueryContext setDefaultMaxExecutionThreads(QueryContext queryContext) {
+    if (queryContext.getMaxExecutionThreads() <= 0) {
+      queryContext.setMaxExecutionThreads(QueryMultiThreadingUtils.MAX_NUM_THREADS_PER_QUERY);
+    }
+    return queryContext;
+  }
+
+  /**
+   * Executes query on the segments in a worker thread and merges the results into the indexed tables of the thread.
+   */
+  @Override
+  protected void processSegments() {
+    IndexedTable[] partitionedTables = null;
+    int operatorId;
+    while (_processingException.get() == null && (operatorId = _nextOperatorId.getAndIncrement()) < _numOperators) {
+      Operator operator = _operators.get(operatorId);
+      try {
+        if (operator instanceof AcquireReleaseColumnsSegmentOperator) {
+          ((AcquireReleaseColumnsSegmentOperator) operator).acquire();
+        }
+        GroupByResultsBlock resultsBlock = (GroupByResultsBlock) operator.nextBlock();
+        if (partitionedTables == null) {
+          partitionedTables = createPartitionedTables(resultsBlock.getDataSchema());
+          // NOTE: Each task invokes processSegments() once, so there are at most _numTasks slots
+          _threadTables[_nextTaskSlot.getAndIncrement()] = partitionedTables;
+        }
+
+        // Set groups limit reached flag.
+        if (resultsBlock.isNumGroupsLimitReached()) {
+          _numGroupsLimitReached = true;
+        }
+
+        // Merge aggregation group-by result.
+        Collection<IntermediateRecord> intermediateRecords = resultsBlock.getIntermediateRecords();
+        // Count the number of merged keys
+        int mergedKeys = 0;
+        // For now, only GroupBy OrderBy query has pre-constructed intermediate records
+        if (intermediateRecords == null) {
+          AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
+          if (aggregationGroupByResult != null) {
+            Iterator<GroupKeyGenerator.GroupKey> dicGroupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+            while (dicGroupKeyIterator.hasNext()) {
+              GroupKeyGenerator.GroupKey groupKey = dicGroupKeyIterator.next();
+              Object[] keys = groupKey._keys;
+              Object[] values = Arrays.copyOf(keys, _numColumns);
+              int groupId = groupKey._groupId;
+              for (int i = 0; i < _numAggregationFunctions; i++) {
+                values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+              }
+              // NOTE: Key.hashCode() is the hash code of the key values
+              partitionedTables[getPartitionId(Arrays.hashCode(keys))].upsert(keys, values);
+              Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
+              mergedKeys++;
+            }
+          }
+        } else {
+          for (IntermediateRecord intermediateResult : intermediateRecords) {
+            Key key = intermediateResult._key;
+            partitionedTables[getPartitionId(key.hashCode())].upsert(key, intermediateResult._record);
+            Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
+            mergedKeys++;
+          }
+        }
+      } finally {
+        if (operator instanceof AcquireReleaseColumnsSegmentOperator) {
+          ((AcquireReleaseColumnsSegmentOperator) operator).release();
+        }
+      }
+    }
+  }
+
+  private IndexedTable[] createPartitionedTables(DataSchema dataSchema) {
+    IndexedTable[] partitionedTables = new IndexedTable[_numPartitions];
+    // NOTE: Use trimSize as resultSize on server side. Without ORDER BY, an indexed table stops accepting new groups
+    //       once it reaches the result size, so the tables of different threads would keep different groups, and the
+    //       merged groups would miss the results from the threads that dropped them. Keep all the groups in the thread
+    //       tables instead, and only apply the result size when merging them into the final indexed table.
+    int resultSize = _queryContext.getOrderByExpressions() != null ? _trimSize : Integer.MAX_VALUE;
+    for (int i = 0; i < _numPartitions; i++) {
+      partitionedTables[i] =
+          GroupByUtils.createIndexedTable(dataSchema, false, _queryContext, resultSize, _trimSize, _trimThreshold);
+    }
+    return partitionedTables;
+  }
+
+  private int getPartitionId(int keyHashCode) {
+    if (_numPartitions == 1) {
+      return 0;
+    }
+    // Use the high bits of the scrambled hash so that the keys within a partition are still spread across the buckets
+    // of the lookup map, which are picked by the low bits of the hash
+    return (keyHashCode * 0x9E3779B9) >>> (Integer.SIZE - _numPartitionBits);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Merges each partition across the worker threads in parallel, then combines the top records of the partitions.
+   */
+  @Override
+  protected IndexedTable getIndexedTable()
+      throws Exception {
+    int numThreadTables = _nextTaskSlot.get();
+    if (numThreadTables == 1 && _numPartitions == 1 && isWithinResultSize(_threadTables[0][0])) {
+      return _threadTables[0][0];
+    }
+    IndexedTable[] mergedTables = mergePartitions(numThreadTables);
+    if (_numPartitions == 1 && isWithinResultSize(mergedTables[0])) {
+      return mergedTables[0];
+    }
+    IndexedTable indexedTable =
+        GroupByUtils.createIndexedTable(mergedTables[0].getDataSchema(), false, _queryContext, _trimSize, _trimSize,
+            _trimThreshold);
+    for (IndexedTable mergedTable : mergedTables) {
+      indexedTable.mergeIndexedTable(mergedTable);
+    }
+    return indexedTable;
+  }
+
+  /**
+   * Returns whether the given merged table can be returned as is. Without ORDER BY, the thread tables keep all the
+   * groups, so only the tables with at most trimSize groups can be returned without merging them into the final table.
+   */
+  private boolean isWithinResultSize(IndexedTable indexedTable) {
+    return _queryContext.getOrderByExpressions() != null || indexedTable.size() <= _trimSize;
+  }
+
+  /**
+   * Merges the indexed tables of each partition across the worker threads. The partitions are picked up by both the
+   * main thread and the helper tasks, so that the merge can proceed even if the helper tasks are not scheduled.
+   */
+  private IndexedTable[] mergePartitions(int numThreadTables)
+      throws Exception {
+    IndexedTable[] mergedTables = new IndexedTable[_numPartitions];
+    AtomicInteger nextPartitionId = new AtomicInteger();
+    CountDownLatch partitionLatch = new CountDownLatch(_numPartitions);
+    AtomicReference<Throwable> mergeException = new AtomicReference<>();
+    Runnable mergeTask = () -> {
+      int partitionId;
+      while ((partitionId = nextPartitionId.getAndIncrement()) < _numPartitions) {
+        try {
+          mergedTables[partitionId] = mergePartition(partitionId, numThreadTables);
+        } catch (Throwable t) {
+          mergeException.compareAndSet(null, t);
+        } finally {
+          partitionLatch.countDown();
+        }
+      }
+    };
+
+    int numHelperTasks = Math.min(numThreadTables, _numPartitions) - 1;
+    Future[] futures = new Future[numHelperTasks];
+    ThreadExecutionContext parentContext = Tracing.getThreadAccountant().getThreadExecutionContext();
+    for (int i = 0; i < numHelperTasks; i++) {
+      int taskId = i;
+      futures[i] = _executorService.submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          Tracing.ThreadAccountantOps.setupWorker(taskId, new ThreadResourceUsageProvider(), parentContext);
+          // NOTE: Register the task to the phaser so that the main thread waits for it before returning
+          if (_phaser.register() < 0) {
+            Tracing.ThreadAccountantOps.clear();
+            return;
+          }
+          try {
+            mergeTask.run();
+          } finally {
+            _phaser.arriveAndDeregister();
+            Tracing.ThreadAccountantOps.clear();
+          }
+        }
+      });
+    }
+    try {
+      mergeTask.run();
+      long timeoutMs = _queryContext.getEndTimeMs() - System.currentTimeMillis();
+      if (!partitionLatch.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+        throw new TimeoutException(
+            String.format("Timed out while merging group-by partitions after %dms, queryContext = %s", timeoutMs,
+                _queryContext));
+      }
+    } finally {
+      for (Future future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+    }
+    Throwable t = mergeException.get();
+    if (t != null) {
+      if (t instanceof EarlyTerminationException) {
+        throw (EarlyTerminationException) t;
+      }
+      throw new RuntimeException("Caught exception while merging group-by partitions", t);
+    }
+    return mergedTables;
+  }
+
+  /**
+   * Merges the indexed tables of the given partition from all the worker threads into the first one, and finishes it
+   * to keep only the top records.
+   */
+  private IndexedTable mergePartition(int partitionId, int numThreadTables) {
+    IndexedTable mergedTable = _threadTables[0][partitionId];
+    for (int i = 1; i < numThreadTables; i++) {
+      mergedTable.mergeIndexedTable(_threadTables[i][partitionId]);
+    }
+    if (_numPartitions > 1) {
+      mergedTable.finish(false);
+    }
+    return mergedTable;
+  }
+}
@@ -18,9 +18,14 @@
  */
 package org.apache.pinot.core.operator.dociditerators;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import java.util.OptionalInt;
+import javax.annotation.Nullable;
 import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.SortedDictionaryBasedRangePredicateEvaluator;
+import org.apache.pinot.segment.local.io.reader.impl.FixedBitIntRangeMatcher;
+import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
 import org.apache.pinot.segment.spi.Constants;
 import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
@@ -80,10 +85,7 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       do {
         limit = Math.min(_numDocs - _nextDocId, _batch.length);
         if (limit > 0) {
-          for (int i = 0; i < limit; i++) {
-            _batch[i] = _nextDocId + i;
-          }
-          batchSize = _valueMatcher.matchValues(limit, _batch);
+          batchSize = _valueMatcher.matchRange(_nextDocId, _nextDocId + limit, _batch);
           _nextDocId += limit;
           _numEntriesScanned += limit;
         }
@@ -162,6 +164,13 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
 
   private ValueMatcher getValueMatcher() {
     if (_reader.isDictionaryEncoded()) {
+      if (_reader instanceof FixedBitSVForwardIndexReaderV2) {
+        FixedBitSVForwardIndexReaderV2 reader = (FixedBitSVForwardIndexReaderV2) _reader;
+        FixedBitIntRangeMatcher rangeMatcher = createDictIdRangeMatcher(reader);
+        if (rangeMatcher != null) {
+          return new PackedDictIdMatcher(rangeMatcher);
+        }
+      }
       return new DictIdMatcher();
     } else {
       switch (_reader.getStoredType()) {
@@ -185,6 +194,101 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     }
   }
 
+  /**
+   * Creates a matcher which evaluates the predicate directly on the bit-compressed dictionary ids, or returns
+   * {@code null} if the matching dictionary ids cannot be represented as a few ranges, or the forward index is not
+   * supported. This applies to EQ, IN and RANGE (with sorted dictionary) predicates, as well as NOT_EQ and NOT_IN, on
+   * low cardinality columns.
+   */
+  @Nullable
+  private FixedBitIntRangeMatcher createDictIdRangeMatcher(FixedBitSVForwardIndexReaderV2 reader) {
+    if (!_predicateEvaluator.isDictionaryBased()
+        || reader.getNumBitsPerValue() > FixedBitIntRangeMatcher.MAX_NUM_BITS_PER_VALUE) {
+      return null;
+    }
+    IntArrayList rangeStarts = new IntArrayList(FixedBitIntRangeMatcher.MAX_NUM_RANGES);
+    IntArrayList rangeEnds = new IntArrayList(FixedBitIntRangeMatcher.MAX_NUM_RANGES);
+    if (_predicateEvaluator instanceof SortedDictionaryBasedRangePredicateEvaluator) {
+      SortedDictionaryBasedRangePredicateEvaluator rangeEvaluator =
+          (SortedDictionaryBasedRangePredicateEvaluator) _predicateEvaluator;
+      if (rangeEvaluator.getStartDictId() >= rangeEvaluator.getEndDictId()) {
+        return null;
+      }
+      rangeStarts.add(rangeEvaluator.getStartDictId());
+      rangeEnds.add(rangeEvaluator.getEndDictId() - 1);
+    } else {
+      switch (_predicateEvaluator.getPredicateType()) {
+        case EQ:
+        case IN:
+          if (!addMatchingRanges(_predicateEvaluator.getMatchingDictIds(), rangeStarts, rangeEnds)) {
+            return null;
+          }
+          break;
+        case NOT_EQ:
+        case NOT_IN:
+          if (!addNonMatchingRanges(_predicateEvaluator.getNonMatchingDictIds(),
+              (1 << reader.getNumBitsPerValue()) - 1, rangeStarts, rangeEnds)) {
+            return null;
+          }
+          break;
+        default:
+          return null;
+      }
+    }
+    if (rangeStarts.isEmpty()) {
+      return null;
+    }
+    return reader.createDictIdRangeMatcher(rangeStarts.toIntArray(), rangeEnds.toIntArray());
+  }
+
+  /**
+   * Adds the ranges of the given sorted matching dictionary ids, returns {@code false} if there are too many ranges.
+   */
+  private static boolean addMatchingRanges(int[] matchingDictIds, IntArrayList rangeStarts, IntArrayList rangeEnds) {
+    int numDictIds = matchingDictIds.length;
+    int i = 0;
+    while (i < numDictIds) {
+      if (rangeStarts.size() == FixedBitIntRangeMatcher.MAX_NUM_RANGES) {
+        return false;
+      }
+      int rangeStart = matchingDictIds[i];
+      int rangeEnd = rangeStart;
+      while (++i < numDictIds && matchingDictIds[i] == rangeEnd + 1) {
+        rangeEnd++;
+      }
+      rangeStarts.add(rangeStart);
+      rangeEnds.add(rangeEnd);
+    }
+    return true;
+  }
+
+  /**
+   * Adds the ranges within [0, maxDictId] not covered by the given sorted non-matching dictionary ids, returns
+   * {@code false} if there are too many ranges.
+   */
+  private static boolean addNonMatchingRanges(int[] nonMatchingDictIds, int maxDictId, IntArrayList rangeStarts,
+      IntArrayList rangeEnds) {
+    int rangeStart = 0;
+    for (int nonMatchingDictId : nonMatchingDictIds) {
+      if (nonMatchingDictId > rangeStart) {
+        if (rangeStarts.size() == FixedBitIntRangeMatcher.MAX_NUM_RANGES) {
+          return false;
+        }
+        rangeStarts.add(rangeStart);
+        rangeEnds.add(nonMatchingDictId - 1);
+      }
+      rangeStart = nonMatchingDictId + 1;
+    }
+    if (rangeStart <= maxDictId) {
+      if (rangeStarts.size() == FixedBitIntRangeMatcher.MAX_NUM_RANGES) {
+        return false;
+      }
+      rangeStarts.add(rangeStart);
+      rangeEnds.add(maxDictId);
+    }
+    return true;
+  }
+
   private interface ValueMatcher {
 
     /**
@@ -208,6 +312,18 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       }
       return matchCount;
     }
+
+    /**
+     * Writes the matching docIds within [startDocId, endDocId) into the start of the array.
+     * @return the number of matching docIds
+     */
+    default int matchRange(int startDocId, int endDocId, int[] docIds) {
+      int limit = endDocId - startDocId;
+      for (int i = 0; i < limit; i++) {
+        docIds[i] = startDocId + i;
+      }
+      return matchValues(limit, docIds);
+    }
   }
 
   private class DictIdMatcher implements ValueMatcher {
@@ -226,6 +342,24 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     }
   }
 
+  /**
+   * Matcher for the contiguous docs which evaluates the predicate directly on the bit-compressed dictionary ids without
+   * unpacking them. Non-contiguous docs (e.g. from {@link #applyAnd}) are still matched with the unpacked dictionary
+   * ids.
+   */
+  private class PackedDictIdMatcher extends DictIdMatcher {
+    private final FixedBitIntRangeMatcher _rangeMatcher;
+
+    PackedDictIdMatcher(FixedBitIntRangeMatcher rangeMatcher) {
+      _rangeMatcher = rangeMatcher;
+    }
+
+    @Override
+    public int matchRange(int startDocId, int endDocId, int[] docIds) {
+      return _rangeMatcher.match(startDocId, endDocId, docIds);
+    }
+  }
+
   private class IntMatcher implements ValueMatcher {
 
     private final int[] _buffer = new int[_batch.length];
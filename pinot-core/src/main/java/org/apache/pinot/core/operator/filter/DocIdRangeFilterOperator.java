@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import com.google.common.base.Preconditions;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
+import org.apache.pinot.core.common.BlockDocIdSet;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.FilterBlock;
+import org.apache.pinot.core.operator.docidsets.SortedDocIdSet;
+import org.apache.pinot.spi.utils.Pairs.IntPair;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Filter operator which matches the docs within [startDocId, endDocId) of the segment. It is used to restrict the
+ * query to a split of the segment so that the splits can be processed in parallel.
+ */
+public class DocIdRangeFilterOperator extends BaseFilterOperator implements PrioritizedFilterOperator<FilterBlock> {
+  private static final String EXPLAIN_NAME = "FILTER_DOC_ID_RANGE";
+
+  private final int _startDocId;
+  private final int _endDocId;
+
+  public DocIdRangeFilterOperator(int startDocId, int endDocId, int numDocs) {
+    super(numDocs, false);
+    Preconditions.checkArgument(0 <= startDocId && startDocId < endDocId && endDocId <= numDocs,
+        "Invalid doc id range: [%s, %s) for segment with %s docs", startDocId, endDocId, numDocs);
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public OptionalInt getPriority() {
+    // The doc id range is the cheapest to evaluate, and reduces the docs to be processed by the other filters
+    return OptionalInt.of(HIGH_PRIORITY);
+  }
+
+  @Override
+  protected BlockDocIdSet getTrues() {
+    // NOTE: IntPair has inclusive start and end.
+    return new SortedDocIdSet(Collections.singletonList(new IntPair(_startDocId, _endDocId - 1)));
+  }
+
+  @Override
+  public boolean canOptimizeCount() {
+    return true;
+  }
+
+  @Override
+  public int getNumMatchingDocs() {
+    return _endDocId - _startDocId;
+  }
+
+  @Override
+  public boolean canProduceBitmaps() {
+    return true;
+  }
+
+  @Override
+  public BitmapCollection getBitmaps() {
+    MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
+    bitmap.add((long) _startDocId, _endDocId);
+    return new BitmapCollection(_numDocs, false, bitmap);
+  }
+
+  @Override
+  public List<Operator> getChildOperators() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME + "(startDocId:" + _startDocId + ",endDocId:" + _endDocId + ')';
+  }
+}
@@ -25,8 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.predicate.EqPredicate;
 import org.apache.pinot.common.request.context.predicate.Predicate;
 import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.ColumnContext;
@@ -35,11 +37,13 @@ import org.apache.pinot.core.operator.docidsets.ExpressionDocIdSet;
 import org.apache.pinot.core.operator.docidsets.NotDocIdSet;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.core.operator.transform.codegen.ExpressionCompiler;
 import org.apache.pinot.core.operator.transform.function.TransformFunction;
 import org.apache.pinot.core.operator.transform.function.TransformFunctionFactory;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 
 
 public class ExpressionFilterOperator extends BaseFilterOperator {
@@ -50,6 +54,10 @@ public class ExpressionFilterOperator extends BaseFilterOperator {
   private final TransformFunction _transformFunction;
   private final Predicate.Type _predicateType;
   private final PredicateEvaluator _predicateEvaluator;
+  // Transform function and predicate evaluator applied when scanning the docs, which evaluate the compiled predicate
+  // when it is available
+  private final TransformFunction _scanTransformFunction;
+  private final PredicateEvaluator _scanPredicateEvaluator;
 
   public ExpressionFilterOperator(IndexSegment segment, QueryContext queryContext, Predicate predicate, int numDocs) {
     super(numDocs, queryContext.isNullHandlingEnabled());
@@ -75,6 +83,21 @@ public class ExpressionFilterOperator extends BaseFilterOperator {
           PredicateEvaluatorProvider.getPredicateEvaluator(predicate, _transformFunction.getDictionary(),
               _transformFunction.getResultMetadata().getDataType());
     }
+    // Compile the predicate along with the expression tree if codegen is enabled and the predicate is supported, then
+    // only match the true results of the compiled code
+    TransformFunction compiledPredicate = null;
+    if (_predicateEvaluator != null && !queryContext.isNullHandlingEnabled()
+        && QueryOptionsUtils.isUseExpressionCodegen(queryContext.getQueryOptions())) {
+      compiledPredicate = ExpressionCompiler.compilePredicate(lhs, _predicateEvaluator, columnContextMap);
+    }
+    if (compiledPredicate != null) {
+      _scanTransformFunction = compiledPredicate;
+      _scanPredicateEvaluator =
+          PredicateEvaluatorProvider.getPredicateEvaluator(new EqPredicate(lhs, "true"), null, DataType.BOOLEAN);
+    } else {
+      _scanTransformFunction = _transformFunction;
+      _scanPredicateEvaluator = _predicateEvaluator;
+    }
   }
 
   @Override
@@ -84,7 +107,7 @@ public class ExpressionFilterOperator extends BaseFilterOperator {
     } else if (_predicateType == Predicate.Type.IS_NOT_NULL) {
       return new NotDocIdSet(getNulls(), _numDocs);
     } else {
-      return new ExpressionDocIdSet(_transformFunction, _predicateEvaluator, _dataSourceMap, _numDocs,
+      return new ExpressionDocIdSet(_scanTransformFunction, _scanPredicateEvaluator, _dataSourceMap, _numDocs,
           _queryContext.isNullHandlingEnabled(), ExpressionScanDocIdIterator.PredicateEvaluationResult.TRUE);
     }
   }
@@ -102,7 +125,7 @@ public class ExpressionFilterOperator extends BaseFilterOperator {
     } else if (_predicateType == Predicate.Type.IS_NOT_NULL) {
       return getNulls();
     } else {
-      return new ExpressionDocIdSet(_transformFunction, _predicateEvaluator, _dataSourceMap, _numDocs,
+      return new ExpressionDocIdSet(_scanTransformFunction, _scanPredicateEvaluator, _dataSourceMap, _numDocs,
           _queryContext.isNullHandlingEnabled(), ExpressionScanDocIdIterator.PredicateEvaluationResult.FALSE);
     }
   }
@@ -0,0 +1,35 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.transform.codegen;
+
+/**
+ * Base class of the compiled boolean expressions, which write the results (1 for true, 0 for false) into an
+ * {@code int[]}.
+ */
+public abstract class CompiledBooleanExpression extends CompiledExpression {
+
+  public abstract void evaluate(int length, Object[] inputs, int[] results);
+
+  /**
+   * Used by the compiled RANGE predicates, so that the value is only evaluated once.
+   */
+  protected static boolean inRange(double value, double inclusiveLowerBound, double inclusiveUpperBound) {
+    return value >= inclusiveLowerBound && value <= inclusiveUpperBound;
+  }
+}
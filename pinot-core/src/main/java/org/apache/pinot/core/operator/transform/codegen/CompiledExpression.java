@@ -0,0 +1,32 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.transform.codegen;
+
+/**
+ * Base class of the classes generated by the {@link ExpressionCompiler}, each of which evaluates a whole expression
+ * tree in a single loop over the input values.
+ *
+ * <p>The inputs are the single-value arrays of the columns referenced by the expression (in the order of
+ * {@link ExpressionCompiler.GeneratedExpression#getColumns()}), each of which is a primitive array of the stored type
+ * of the column. Numeric expressions extend {@link CompiledDoubleExpression} and write the results into a
+ * {@code double[]}, and boolean expressions extend {@link CompiledBooleanExpression} and write the results (1 for true,
+ * 0 for false) into an {@code int[]}.
+ */
+public abstract class CompiledExpression {
+}
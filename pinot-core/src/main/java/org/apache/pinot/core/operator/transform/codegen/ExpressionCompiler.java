@@ -0,0 +1,504 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.transform.codegen;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.LiteralContext;
+import org.apache.pinot.common.request.context.predicate.EqPredicate;
+import org.apache.pinot.common.request.context.predicate.NotEqPredicate;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.core.operator.ColumnContext;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.traits.DoubleRange;
+import org.apache.pinot.core.operator.transform.function.CompiledTransformFunction;
+import org.apache.pinot.core.operator.transform.function.TransformFunction;
+import org.apache.pinot.core.operator.transform.function.TransformFunctionFactory;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.codehaus.janino.SimpleCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code ExpressionCompiler} compiles an expression tree into a single {@link CompiledExpression} class with
+ * Janino, which evaluates the whole tree in one loop without the virtual calls and the intermediate arrays of the
+ * interpreted {@link TransformFunction} tree.
+ *
+ * <p>The supported expressions are the arithmetic functions (ADD, SUB, MULT, DIV, MOD), the comparison functions
+ * (EQUALS, NOT_EQUALS, GREATER_THAN, GREATER_THAN_OR_EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL) with a double value on the
+ * left side, and the logical functions (AND, OR, NOT) over numeric single-value columns and literals. The generated
+ * code follows the evaluation order of the corresponding transform functions, so that the results are identical.
+ *
+ * <p>The generated source only depends on the shape of the expression and the stored types of the referenced columns
+ * (column names and literal values are passed in as inputs and constants), so the compiled classes are cached by the
+ * source and shared across segments and queries with the same shape.
+ *
+ * <p>The predicate of an expression filter can also be compiled along with the expression, so that the scan only
+ * evaluates the boolean results of the generated code (see {@link #compilePredicate}).
+ */
+public class ExpressionCompiler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExpressionCompiler.class);
+  private static final int MAX_NUM_CACHED_CLASSES = 1000;
+  private static final String CLASS_NAME = "GeneratedExpression";
+
+  private static final Cache<String, Constructor<? extends CompiledExpression>> COMPILED_CLASS_CACHE =
+      CacheBuilder.newBuilder().maximumSize(MAX_NUM_CACHED_CLASSES).build();
+
+  private ExpressionCompiler() {
+  }
+
+  /**
+   * Returns a transform function which evaluates the given expression with the compiled code, or {@code null} if the
+   * expression is not supported.
+   */
+  @Nullable
+  public static TransformFunction compile(ExpressionContext expression, Map<String, ColumnContext> columnContextMap) {
+    GeneratedExpression generatedExpression = generate(expression, columnContextMap);
+    if (generatedExpression == null) {
+      return null;
+    }
+    return instantiate(generatedExpression, expression);
+  }
+
+  /**
+   * Returns a transform function which evaluates the given predicate on the given expression with the compiled code,
+   * with 1 for the matching values and 0 for the others, or {@code null} if the predicate or the expression is not
+   * supported. The predicate evaluator must be the one applied on the DOUBLE values of the expression, and the
+   * compiled code matches the same values.
+   */
+  @Nullable
+  public static TransformFunction compilePredicate(ExpressionContext lhs, PredicateEvaluator predicateEvaluator,
+      Map<String, ColumnContext> columnContextMap) {
+    GeneratedExpression generatedExpression = generatePredicate(lhs, predicateEvaluator, columnContextMap);
+    if (generatedExpression == null) {
+      return null;
+    }
+    return instantiate(generatedExpression, predicateEvaluator.getPredicate());
+  }
+
+  @Nullable
+  private static TransformFunction instantiate(GeneratedExpression generatedExpression, Object expression) {
+    String source = generatedExpression.getSource();
+    try {
+      Constructor<? extends CompiledExpression> constructor =
+          COMPILED_CLASS_CACHE.get(source, () -> compileClass(source));
+      CompiledExpression compiledExpression = constructor.newInstance((Object) generatedExpression.getConstants());
+      return new CompiledTransformFunction(compiledExpression, generatedExpression.getColumns(),
+          generatedExpression.getStoredTypes());
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while compiling expression: {}, falling back to the transform functions",
+          expression, e);
+      return null;
+    }
+  }
+
+  private static Constructor<? extends CompiledExpression> compileClass(String source)
+      throws Exception {
+    SimpleCompiler simpleCompiler = new SimpleCompiler();
+    simpleCompiler.setParentClassLoader(CompiledExpression.class.getClassLoader());
+    simpleCompiler.cook(source);
+    return simpleCompiler.getClassLoader()
+        .loadClass(CLASS_NAME)
+        .asSubclass(CompiledExpression.class)
+        .getConstructor(double[].class);
+  }
+
+  @VisibleForTesting
+  static long getNumCachedClasses() {
+    return COMPILED_CLASS_CACHE.size();
+  }
+
+  /**
+   * Generates the source of the class for the given expression, or returns {@code null} if the expression is not
+   * supported.
+   */
+  @VisibleForTesting
+  @Nullable
+  static GeneratedExpression generate(ExpressionContext expression, Map<String, ColumnContext> columnContextMap) {
+    if (expression.getType() != ExpressionContext.Type.FUNCTION) {
+      return null;
+    }
+    CodeGenerator codeGenerator = new CodeGenerator(columnContextMap);
+    Node root = codeGenerator.generate(expression);
+    if (root == null || codeGenerator._columnIndexMap.isEmpty()) {
+      return null;
+    }
+    return codeGenerator.generateClass(root);
+  }
+
+  /**
+   * Generates the source of the class for the given predicate on the given expression, or returns {@code null} if the
+   * predicate or the expression is not supported. Only EQ, NOT_EQ and RANGE predicates evaluated on DOUBLE values are
+   * supported, and the same values as the predicate evaluator are used.
+   */
+  @VisibleForTesting
+  @Nullable
+  static GeneratedExpression generatePredicate(ExpressionContext lhs, PredicateEvaluator predicateEvaluator,
+      Map<String, ColumnContext> columnContextMap) {
+    if (lhs.getType() != ExpressionContext.Type.FUNCTION || predicateEvaluator.isDictionaryBased()
+        || predicateEvaluator.getDataType() != DataType.DOUBLE) {
+      return null;
+    }
+    CodeGenerator codeGenerator = new CodeGenerator(columnContextMap);
+    Node value = codeGenerator.generate(lhs);
+    if (value == null || value._type != DataType.DOUBLE || codeGenerator._columnIndexMap.isEmpty()) {
+      return null;
+    }
+    Predicate predicate = predicateEvaluator.getPredicate();
+    String code;
+    switch (predicate.getType()) {
+      case EQ:
+        code = "(" + value._code + " == " + codeGenerator.addConstant(
+            Double.parseDouble(((EqPredicate) predicate).getValue())) + ")";
+        break;
+      case NOT_EQ:
+        code = "(" + value._code + " != " + codeGenerator.addConstant(
+            Double.parseDouble(((NotEqPredicate) predicate).getValue())) + ")";
+        break;
+      case RANGE:
+        if (!(predicateEvaluator instanceof DoubleRange)) {
+          return null;
+        }
+        DoubleRange range = (DoubleRange) predicateEvaluator;
+        code = "inRange(" + value._code + ", " + codeGenerator.addConstant(range.getInclusiveLowerBound()) + ", "
+            + codeGenerator.addConstant(range.getInclusiveUpperBound()) + ")";
+        break;
+      default:
+        return null;
+    }
+    return codeGenerator.generateClass(new Node(code, DataType.BOOLEAN));
+  }
+
+  /**
+   * The generated source of an expression, along with the inputs and constants to instantiate and evaluate it.
+   */
+  @VisibleForTesting
+  static class GeneratedExpression {
+    final String _source;
+    final List<String> _columns;
+    final List<DataType> _storedTypes;
+    final double[] _constants;
+
+    GeneratedExpression(String source, List<String> columns, List<DataType> storedTypes, double[] constants) {
+      _source = source;
+      _columns = columns;
+      _storedTypes = storedTypes;
+      _constants = constants;
+    }
+
+    String getSource() {
+      return _source;
+    }
+
+    List<String> getColumns() {
+      return _columns;
+    }
+
+    List<DataType> getStoredTypes() {
+      return _storedTypes;
+    }
+
+    double[] getConstants() {
+      return _constants;
+    }
+  }
+
+  /**
+   * Generated code of a node in the expression tree. The code of a numeric node is a {@code double} expression, and
+   * the code of a boolean node is a {@code boolean} expression.
+   */
+  private static class Node {
+    final String _code;
+    // Stored type of the result of the corresponding transform function, BOOLEAN for boolean nodes
+    final DataType _type;
+
+    Node(String code, DataType type) {
+      _code = code;
+      _type = type;
+    }
+
+    boolean isNumeric() {
+      return _type != DataType.BOOLEAN;
+    }
+  }
+
+  private static class CodeGenerator {
+    final Map<String, ColumnContext> _columnContextMap;
+    final Map<String, Integer> _columnIndexMap = new LinkedHashMap<>();
+    final List<DataType> _storedTypes = new ArrayList<>();
+    final List<Double> _constants = new ArrayList<>();
+
+    CodeGenerator(Map<String, ColumnContext> columnContextMap) {
+      _columnContextMap = columnContextMap;
+    }
+
+    GeneratedExpression generateClass(Node root) {
+      boolean isBoolean = !root.isNumeric();
+      Class<? extends CompiledExpression> parentClass =
+          isBoolean ? CompiledBooleanExpression.class : CompiledDoubleExpression.class;
+      StringBuilder source = new StringBuilder();
+      source.append("public final class ").append(CLASS_NAME).append(" extends ").append(parentClass.getName())
+          .append(" {\n");
+      int numConstants = _constants.size();
+      for (int i = 0; i < numConstants; i++) {
+        source.append("  private final double _c").append(i).append(";\n");
+      }
+      source.append("  public ").append(CLASS_NAME).append("(double[] constants) {\n");
+      for (int i = 0; i < numConstants; i++) {
+        source.append("    _c").append(i).append(" = constants[").append(i).append("];\n");
+      }
+      source.append("  }\n");
+      source.append("  public void evaluate(int length, Object[] inputs, ").append(isBoolean ? "int" : "double")
+          .append("[] results) {\n");
+      int numColumns = _storedTypes.size();
+      for (int i = 0; i < numColumns; i++) {
+        String arrayType = getJavaType(_storedTypes.get(i)) + "[]";
+        source.append("    final ").append(arrayType).append(" in").append(i).append(" = (").append(arrayType)
+            .append(") inputs[").append(i).append("];\n");
+      }
+      source.append("    for (int i = 0; i < length; i++) {\n");
+      if (isBoolean) {
+        source.append("      results[i] = ").append(root._code).append(" ? 1 : 0;\n");
+      } else {
+        source.append("      results[i] = ").append(root._code).append(";\n");
+      }
+      source.append("    }\n  }\n}\n");
+      double[] constants = new double[numConstants];
+      for (int i = 0; i < numConstants; i++) {
+        constants[i] = _constants.get(i);
+      }
+      return new GeneratedExpression(source.toString(), new ArrayList<>(_columnIndexMap.keySet()), _storedTypes,
+          constants);
+    }
+
+    @Nullable
+    Node generate(ExpressionContext expression) {
+      switch (expression.getType()) {
+        case LITERAL:
+          LiteralContext literal = expression.getLiteral();
+          if (!literal.isSingleValue() || !isSupportedNumericType(literal.getType())) {
+            return null;
+          }
+          return new Node(addConstant(literal.getDoubleValue()), literal.getType());
+        case IDENTIFIER:
+          String column = expression.getIdentifier();
+          ColumnContext columnContext = _columnContextMap.get(column);
+          if (columnContext == null || !columnContext.isSingleValue()) {
+            return null;
+          }
+          DataType storedType = columnContext.getDataType().getStoredType();
+          if (!isSupportedNumericType(storedType)) {
+            return null;
+          }
+          Integer index = _columnIndexMap.get(column);
+          if (index == null) {
+            index = _storedTypes.size();
+            _columnIndexMap.put(column, index);
+            _storedTypes.add(storedType);
+          }
+          String value = "in" + index + "[i]";
+          return new Node(storedType == DataType.DOUBLE ? value : "(double) " + value, storedType);
+        case FUNCTION:
+          return generateFunction(expression);
+        default:
+          return null;
+      }
+    }
+
+    @Nullable
+    private Node generateFunction(ExpressionContext expression) {
+      String functionName = TransformFunctionFactory.canonicalize(expression.getFunction().getFunctionName());
+      List<ExpressionContext> arguments = expression.getFunction().getArguments();
+      switch (functionName) {
+        case "add":
+        case "plus":
+          return generateFoldedArithmetic(arguments, "+", 0.0);
+        case "mult":
+        case "times":
+          return generateFoldedArithmetic(arguments, "*", 1.0);
+        case "sub":
+        case "minus":
+          return generateBinaryArithmetic(arguments, "-");
+        case "div":
+        case "divide":
+          return generateBinaryArithmetic(arguments, "/");
+        case "mod":
+          return generateBinaryArithmetic(arguments, "%");
+        case "equals":
+          return generateComparison(arguments, "==");
+        case "notequals":
+          return generateComparison(arguments, "!=");
+        case "greaterthan":
+          return generateComparison(arguments, ">");
+        case "greaterthanorequal":
+          return generateComparison(arguments, ">=");
+        case "lessthan":
+          return generateComparison(arguments, "<");
+        case "lessthanorequal":
+          return generateComparison(arguments, "<=");
+        case "and":
+          return generateLogical(arguments, "&&");
+        case "or":
+          return generateLogical(arguments, "||");
+        case "not":
+          if (arguments.size() != 1) {
+            return null;
+          }
+          Node argument = generate(arguments.get(0));
+          if (argument == null || argument.isNumeric()) {
+            return null;
+          }
+          return new Node("(!" + argument._code + ")", DataType.BOOLEAN);
+        default:
+          return null;
+      }
+    }
+
+    /**
+     * Same as {@code AdditionTransformFunction} and {@code MultiplicationTransformFunction}, folds all the literals
+     * into one constant, then applies the operator on the non-literal arguments in order.
+     */
+    @Nullable
+    private Node generateFoldedArithmetic(List<ExpressionContext> arguments, String operator, double identity) {
+      if (arguments.size() < 2) {
+        return null;
+      }
+      double foldedLiteral = identity;
+      List<Node> nonLiteralArguments = new ArrayList<>(arguments.size());
+      for (ExpressionContext argument : arguments) {
+        if (argument.getType() == ExpressionContext.Type.LITERAL) {
+          LiteralContext literal = argument.getLiteral();
+          if (!literal.isSingleValue() || !isSupportedNumericType(literal.getType())) {
+            return null;
+          }
+          foldedLiteral = operator.equals("+") ? foldedLiteral + literal.getDoubleValue()
+              : foldedLiteral * literal.getDoubleValue();
+        } else {
+          Node node = generate(argument);
+          if (node == null || !node.isNumeric()) {
+            return null;
+          }
+          nonLiteralArguments.add(node);
+        }
+      }
+      StringBuilder code = new StringBuilder();
+      for (int i = 0; i < nonLiteralArguments.size(); i++) {
+        code.append('(');
+      }
+      code.append(addConstant(foldedLiteral));
+      for (Node node : nonLiteralArguments) {
+        code.append(' ').append(operator).append(' ').append(node._code).append(')');
+      }
+      return new Node(code.toString(), DataType.DOUBLE);
+    }
+
+    @Nullable
+    private Node generateBinaryArithmetic(List<ExpressionContext> arguments, String operator) {
+      if (arguments.size() != 2) {
+        return null;
+      }
+      Node left = generate(arguments.get(0));
+      Node right = generate(arguments.get(1));
+      if (left == null || right == null || !left.isNumeric() || !right.isNumeric()) {
+        return null;
+      }
+      return new Node("(" + left._code + " " + operator + " " + right._code + ")", DataType.DOUBLE);
+    }
+
+    /**
+     * Only supports the comparisons where {@code BinaryOperatorTransformFunction} compares the values with
+     * {@link Double#compare(double, double)}, i.e. DOUBLE on the left side and INT/FLOAT/DOUBLE on the right side.
+     */
+    @Nullable
+    private Node generateComparison(List<ExpressionContext> arguments, String operator) {
+      if (arguments.size() != 2) {
+        return null;
+      }
+      Node left = generate(arguments.get(0));
+      Node right = generate(arguments.get(1));
+      if (left == null || right == null || left._type != DataType.DOUBLE || right._type == DataType.LONG
+          || !right.isNumeric()) {
+        return null;
+      }
+      return new Node("(Double.compare(" + left._code + ", " + right._code + ") " + operator + " 0)",
+          DataType.BOOLEAN);
+    }
+
+    @Nullable
+    private Node generateLogical(List<ExpressionContext> arguments, String operator) {
+      if (arguments.size() < 2) {
+        return null;
+      }
+      StringBuilder code = new StringBuilder("(");
+      for (int i = 0; i < arguments.size(); i++) {
+        Node node = generate(arguments.get(i));
+        if (node == null || node.isNumeric()) {
+          return null;
+        }
+        if (i > 0) {
+          code.append(' ').append(operator).append(' ');
+        }
+        code.append(node._code);
+      }
+      return new Node(code.append(')').toString(), DataType.BOOLEAN);
+    }
+
+    private String addConstant(double value) {
+      String code = "_c" + _constants.size();
+      _constants.add(value);
+      return code;
+    }
+  }
+
+  private static boolean isSupportedNumericType(DataType dataType) {
+    switch (dataType) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static String getJavaType(DataType storedType) {
+    switch (storedType) {
+      case INT:
+        return "int";
+      case LONG:
+        return "long";
+      case FLOAT:
+        return "float";
+      case DOUBLE:
+        return "double";
+      default:
+        throw new IllegalStateException("Unsupported stored type: " + storedType);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.transform.function;
+
+import com.google.common.base.Preconditions;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.operator.blocks.ValueBlock;
+import org.apache.pinot.core.operator.transform.TransformResultMetadata;
+import org.apache.pinot.core.operator.transform.codegen.CompiledBooleanExpression;
+import org.apache.pinot.core.operator.transform.codegen.CompiledDoubleExpression;
+import org.apache.pinot.core.operator.transform.codegen.CompiledExpression;
+import org.apache.pinot.core.operator.transform.codegen.ExpressionCompiler;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * The {@code CompiledTransformFunction} evaluates a whole expression tree with the {@link CompiledExpression} generated
+ * by the {@link ExpressionCompiler}. The result is DOUBLE for numeric expressions, and BOOLEAN for boolean expressions.
+ *
+ * <p>NOTE: Only used when null handling is disabled.
+ */
+public class CompiledTransformFunction extends BaseTransformFunction {
+  public static final String FUNCTION_NAME = "compiled";
+
+  // Exactly one of the boolean and double expressions is set
+  private final CompiledBooleanExpression _booleanExpression;
+  private final CompiledDoubleExpression _doubleExpression;
+  private final String[] _columns;
+  private final DataType[] _storedTypes;
+  private final boolean _isBoolean;
+  private final Object[] _inputs;
+
+  public CompiledTransformFunction(CompiledExpression compiledExpression, List<String> columns,
+      List<DataType> storedTypes) {
+    if (compiledExpression instanceof CompiledBooleanExpression) {
+      _booleanExpression = (CompiledBooleanExpression) compiledExpression;
+      _doubleExpression = null;
+      _isBoolean = true;
+    } else {
+      Preconditions.checkArgument(compiledExpression instanceof CompiledDoubleExpression,
+          "Unsupported compiled expression: %s", compiledExpression.getClass());
+      _booleanExpression = null;
+      _doubleExpression = (CompiledDoubleExpression) compiledExpression;
+      _isBoolean = false;
+    }
+    _columns = columns.toArray(new String[0]);
+    _storedTypes = storedTypes.toArray(new DataType[0]);
+    _inputs = new Object[_columns.length];
+  }
+
+  @Override
+  public String getName() {
+    return FUNCTION_NAME;
+  }
+
+  @Override
+  public TransformResultMetadata getResultMetadata() {
+    return _isBoolean ? BOOLEAN_SV_NO_DICTIONARY_METADATA : DOUBLE_SV_NO_DICTIONARY_METADATA;
+  }
+
+  @Override
+  public int[] transformToIntValuesSV(ValueBlock valueBlock) {
+    if (!_isBoolean) {
+      return super.transformToIntValuesSV(valueBlock);
+    }
+    int length = valueBlock.getNumDocs();
+    initIntValuesSV(length);
+    _booleanExpression.evaluate(length, getInputs(valueBlock), _intValuesSV);
+    return _intValuesSV;
+  }
+
+  @Override
+  public double[] transformToDoubleValuesSV(ValueBlock valueBlock) {
+    if (_isBoolean) {
+      return super.transformToDoubleValuesSV(valueBlock);
+    }
+    int length = valueBlock.getNumDocs();
+    initDoubleValuesSV(length);
+    _doubleExpression.evaluate(length, getInputs(valueBlock), _doubleValuesSV);
+    return _doubleValuesSV;
+  }
+
+  private Object[] getInputs(ValueBlock valueBlock) {
+    int numColumns = _columns.length;
+    for (int i = 0; i < numColumns; i++) {
+      BlockValSet blockValueSet = valueBlock.getBlockValueSet(_columns[i]);
+      switch (_storedTypes[i]) {
+        case INT:
+          _inputs[i] = blockValueSet.getIntValuesSV();
+          break;
+        case LONG:
+          _inputs[i] = blockValueSet.getLongValuesSV();
+          break;
+        case FLOAT:
+          _inputs[i] = blockValueSet.getFloatValuesSV();
+          break;
+        case DOUBLE:
+          _inputs[i] = blockValueSet.getDoubleValuesSV();
+          break;
+        default:
+          throw new IllegalStateException("Unsupported stored type: " + _storedTypes[i]);
+      }
+    }
+    return _inputs;
+  }
+
+  @Nullable
+  @Override
+  public RoaringBitmap getNullBitmap(ValueBlock valueBlock) {
+    return null;
+  }
+}
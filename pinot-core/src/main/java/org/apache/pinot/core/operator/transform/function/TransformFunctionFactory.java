@@ -33,6 +33,7 @@ import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.FunctionContext;
 import org.apache.pinot.common.request.context.LiteralContext;
 import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.geospatial.transform.function.GeoToH3Function;
 import org.apache.pinot.core.geospatial.transform.function.StAreaFunction;
 import org.apache.pinot.core.geospatial.transform.function.StAsBinaryFunction;
@@ -49,6 +50,7 @@ import org.apache.pinot.core.geospatial.transform.function.StPointFunction;
 import org.apache.pinot.core.geospatial.transform.function.StPolygonFunction;
 import org.apache.pinot.core.geospatial.transform.function.StWithinFunction;
 import org.apache.pinot.core.operator.ColumnContext;
+import org.apache.pinot.core.operator.transform.codegen.ExpressionCompiler;
 import org.apache.pinot.core.operator.transform.function.SingleParamMathTransformFunction.AbsTransformFunction;
 import org.apache.pinot.core.operator.transform.function.SingleParamMathTransformFunction.CeilTransformFunction;
 import org.apache.pinot.core.operator.transform.function.SingleParamMathTransformFunction.ExpTransformFunction;
@@ -304,6 +306,15 @@ public class TransformFunctionFactory {
               GenerateArrayTransformFunction::new);
         }
 
+        // Compile the whole expression tree if codegen is enabled and the expression is supported
+        if (!queryContext.isNullHandlingEnabled() && QueryOptionsUtils.isUseExpressionCodegen(
+            queryContext.getQueryOptions())) {
+          TransformFunction compiledTransformFunction = ExpressionCompiler.compile(expression, columnContextMap);
+          if (compiledTransformFunction != null) {
+            return compiledTransformFunction;
+          }
+        }
+
         TransformFunction transformFunction;
         Class<? extends TransformFunction> transformFunctionClass = TRANSFORM_FUNCTION_MAP.get(functionName);
         if (transformFunctionClass != null) {
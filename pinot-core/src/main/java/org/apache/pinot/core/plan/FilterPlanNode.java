@@ -20,7 +20,6 @@ package org.apache.pinot.core.plan;
 
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
@@ -36,6 +35,7 @@ import org.apache.pinot.common.request.context.predicate.VectorSimilarityPredica
 import org.apache.pinot.core.geospatial.transform.function.StDistanceFunction;
 import org.apache.pinot.core.operator.filter.BaseFilterOperator;
 import org.apache.pinot.core.operator.filter.BitmapBasedFilterOperator;
+import org.apache.pinot.core.operator.filter.DocIdRangeFilterOperator;
 import org.apache.pinot.core.operator.filter.EmptyFilterOperator;
 import org.apache.pinot.core.operator.filter.ExpressionFilterOperator;
 import org.apache.pinot.core.operator.filter.FilterOperatorUtils;
@@ -89,19 +89,25 @@ public class FilterPlanNode implements PlanNode {
     MutableRoaringBitmap queryableDocIdsSnapshot = _segmentContext.getQueryableDocIdsSnapshot();
     int numDocs = _indexSegment.getSegmentMetadata().getTotalDocs();
 
+    List<BaseFilterOperator> filterOperators = new ArrayList<>(3);
     if (_filter != null) {
-      BaseFilterOperator filterOperator = constructPhysicalOperator(_filter, numDocs);
-      if (queryableDocIdsSnapshot != null) {
-        BaseFilterOperator validDocFilter = new BitmapBasedFilterOperator(queryableDocIdsSnapshot, false, numDocs);
-        return FilterOperatorUtils.getAndFilterOperator(_queryContext, Arrays.asList(filterOperator, validDocFilter),
-            numDocs);
-      } else {
-        return filterOperator;
-      }
-    } else if (queryableDocIdsSnapshot != null) {
-      return new BitmapBasedFilterOperator(queryableDocIdsSnapshot, false, numDocs);
-    } else {
-      return new MatchAllFilterOperator(numDocs);
+      filterOperators.add(constructPhysicalOperator(_filter, numDocs));
+    }
+    if (queryableDocIdsSnapshot != null) {
+      filterOperators.add(new BitmapBasedFilterOperator(queryableDocIdsSnapshot, false, numDocs));
+    }
+    if (_segmentContext.hasDocIdRange()) {
+      // Only process a split of the segment
+      filterOperators.add(
+          new DocIdRangeFilterOperator(_segmentContext.getStartDocId(), _segmentContext.getEndDocId(), numDocs));
+    }
+    switch (filterOperators.size()) {
+      case 0:
+        return new MatchAllFilterOperator(numDocs);
+      case 1:
+        return filterOperators.get(0);
+      default:
+        return FilterOperatorUtils.getAndFilterOperator(_queryContext, filterOperators, numDocs);
     }
   }
 
@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.SegmentSplitOperator;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.segment.spi.SegmentContext;
+
+
+/**
+ * A wrapper for the segment-level plan node which only processes a split (doc id range) of the segment. The child plan
+ * node should be created with the split context carrying the doc id range.
+ */
+public class SegmentSplitPlanNode implements PlanNode {
+  private final PlanNode _childPlanNode;
+  private final SegmentContext _segmentContext;
+  private final SegmentContext _splitContext;
+
+  public SegmentSplitPlanNode(PlanNode childPlanNode, SegmentContext segmentContext, SegmentContext splitContext) {
+    _childPlanNode = childPlanNode;
+    _segmentContext = segmentContext;
+    _splitContext = splitContext;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public SegmentSplitOperator run() {
+    return new SegmentSplitOperator((Operator<? extends BaseResultsBlock>) _childPlanNode.run(), _segmentContext,
+        _splitContext);
+  }
+}
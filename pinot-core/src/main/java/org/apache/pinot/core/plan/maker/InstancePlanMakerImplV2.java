@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.pinot.common.metrics.ServerMetrics;
@@ -42,17 +43,23 @@ import org.apache.pinot.core.plan.GroupByPlanNode;
 import org.apache.pinot.core.plan.InstanceResponsePlanNode;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.SegmentResultCachePlanNode;
+import org.apache.pinot.core.plan.SegmentSplitPlanNode;
 import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.core.plan.StreamingInstanceResponsePlanNode;
 import org.apache.pinot.core.plan.StreamingSelectionPlanNode;
 import org.apache.pinot.core.plan.TimeSeriesPlanNode;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.executor.ResultsBlockStreamer;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.core.query.prefetch.FetchPlanner;
 import org.apache.pinot.core.query.prefetch.FetchPlannerRegistry;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
 import org.apache.pinot.core.util.GroupByUtils;
+import org.apache.pinot.core.util.QueryMultiThreadingUtils;
 import org.apache.pinot.segment.spi.FetchContext;
+import org.apache.pinot.segment.spi.ImmutableSegment;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.SegmentContext;
 import org.apache.pinot.spi.env.PinotConfiguration;
@@ -87,6 +94,12 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   // set as pinot.server.query.executor.groupby.trim.threshold
   public static final String GROUPBY_TRIM_THRESHOLD_KEY = "groupby.trim.threshold";
   public static final int DEFAULT_GROUPBY_TRIM_THRESHOLD = 1_000_000;
+  // Instance config key for the minimum number of docs in each split when splitting large segments into doc id ranges
+  // to be processed in parallel, which only applies when there are fewer segments than execution threads. Disabled by
+  // default.
+  // Set as pinot.server.query.executor.min.docs.per.segment.split
+  public static final String MIN_DOCS_PER_SEGMENT_SPLIT_KEY = "min.docs.per.segment.split";
+  public static final int DEFAULT_MIN_DOCS_PER_SEGMENT_SPLIT = -1;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(InstancePlanMakerImplV2.class);
 
@@ -99,6 +112,8 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   private int _minSegmentGroupTrimSize = DEFAULT_MIN_SEGMENT_GROUP_TRIM_SIZE;
   private int _minServerGroupTrimSize = DEFAULT_MIN_SERVER_GROUP_TRIM_SIZE;
   private int _groupByTrimThreshold = DEFAULT_GROUPBY_TRIM_THRESHOLD;
+  private int _minDocsPerSegmentSplit = DEFAULT_MIN_DOCS_PER_SEGMENT_SPLIT;
+  private SegmentResultCache _segmentResultCache;
 
   public InstancePlanMakerImplV2() {
   }
@@ -129,15 +144,24 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     _groupByTrimThreshold = queryExecutorConfig.getProperty(GROUPBY_TRIM_THRESHOLD_KEY, DEFAULT_GROUPBY_TRIM_THRESHOLD);
     Preconditions.checkState(_groupByTrimThreshold > 0,
         "Invalid configurable: groupByTrimThreshold: %d must be positive", _groupByTrimThreshold);
+    _minDocsPerSegmentSplit =
+        queryExecutorConfig.getProperty(MIN_DOCS_PER_SEGMENT_SPLIT_KEY, DEFAULT_MIN_DOCS_PER_SEGMENT_SPLIT);
     LOGGER.info("Initialized plan maker with maxExecutionThreads: {}, maxInitialResultHolderCapacity: {}, "
-            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}",
-        _maxExecutionThreads, _maxInitialResultHolderCapacity, _numGroupsLimit, _minSegmentGroupTrimSize,
-        _minServerGroupTrimSize, _groupByTrimThreshold);
+            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}, "
+            + "minDocsPerSegmentSplit: {}", _maxExecutionThreads, _maxInitialResultHolderCapacity, _numGroupsLimit,
+        _minSegmentGroupTrimSize, _minServerGroupTrimSize, _groupByTrimThreshold, _minDocsPerSegmentSplit);
+  }
+
+  @Override
+  public void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache) {
+    _segmentResultCache = segmentResultCache;
   }
 
   public Plan makeInstancePlan(List<SegmentContext> segmentContexts, QueryContext queryContext,
       ExecutorService executorService, ServerMetrics serverMetrics) {
     applyQueryOptions(queryContext);
+    SegmentResultCache.QueryKey queryKey =
+        _segmentResultCache != null ? SegmentResultCache.getQueryKey(queryContext) : null;
 
     int numSegments = segmentContexts.size();
     List<PlanNode> planNodes = new ArrayList<>(numSegments);
@@ -149,13 +173,19 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
             _fetchPlanner.planFetchForProcessing(segmentContext.getIndexSegment(), queryContext);
         fetchContexts.add(fetchContext);
         planNodes.add(
-            new AcquireReleaseColumnsSegmentPlanNode(makeSegmentPlanNode(segmentContext, queryContext), segmentContext,
-                fetchContext));
+            new AcquireReleaseColumnsSegmentPlanNode(makeSegmentPlanNode(segmentContext, queryContext, queryKey),
+                segmentContext, fetchContext));
       }
     } else {
       fetchContexts = Collections.emptyList();
-      for (SegmentContext segmentContext : segmentContexts) {
-        planNodes.add(makeSegmentPlanNode(segmentContext, queryContext));
+      int[] numSegmentSplits = getNumSegmentSplits(segmentContexts, queryContext);
+      for (int i = 0; i < numSegments; i++) {
+        SegmentContext segmentContext = segmentContexts.get(i);
+        if (numSegmentSplits != null && numSegmentSplits[i] > 1) {
+          addSegmentSplitPlanNodes(planNodes, segmentContext, queryContext, numSegmentSplits[i]);
+        } else {
+          planNodes.add(makeSegmentPlanNode(segmentContext, queryContext, queryKey));
+        }
       }
     }
 
@@ -231,6 +261,113 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
   }
 
+  /**
+   * Returns the number of splits (doc id ranges processed by separate tasks) for each segment, or {@code null} if no
+   * segment should be split.
+   * <p>Segments are split only for aggregation and group-by queries when there are fewer segments than execution
+   * threads, so that a few large segments can still use all the threads. Each split has at least
+   * minDocsPerSegmentSplit docs, and the extra threads are assigned to the segments with the most docs per split.
+   * <p>Segments that can be solved without scanning the docs (star-tree, dictionary or metadata based aggregation) are
+   * not split, and neither are the mutable segments because their docs can be added during the query.
+   */
+  @Nullable
+  private int[] getNumSegmentSplits(List<SegmentContext> segmentContexts, QueryContext queryContext) {
+    Integer minDocsPerSegmentSplitFromQuery =
+        QueryOptionsUtils.getMinDocsPerSegmentSplit(queryContext.getQueryOptions());
+    int minDocsPerSegmentSplit =
+        minDocsPerSegmentSplitFromQuery != null ? minDocsPerSegmentSplitFromQuery : _minDocsPerSegmentSplit;
+    if (minDocsPerSegmentSplit <= 0 || queryContext.isExplain() || !QueryContextUtils.isAggregationQuery(queryContext)
+        || QueryContextUtils.isTimeSeriesQuery(queryContext)) {
+      return null;
+    }
+    int maxExecutionThreads = queryContext.getMaxExecutionThreads();
+    int numThreads = maxExecutionThreads > 0 ? maxExecutionThreads : QueryMultiThreadingUtils.MAX_NUM_THREADS_PER_QUERY;
+    int numSegments = segmentContexts.size();
+    int numExtraTasks = numThreads - numSegments;
+    if (numExtraTasks <= 0) {
+      return null;
+    }
+
+    int[] numDocs = new int[numSegments];
+    int[] numSplits = new int[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      SegmentContext segmentContext = segmentContexts.get(i);
+      if (canSplitSegment(segmentContext, queryContext)) {
+        numDocs[i] = segmentContext.getIndexSegment().getSegmentMetadata().getTotalDocs();
+      }
+      numSplits[i] = 1;
+    }
+    boolean split = false;
+    while (numExtraTasks > 0) {
+      // Pick the segment with the most docs per split which can still be split further
+      int segmentToSplit = -1;
+      long maxDocsPerSplit = 0;
+      for (int i = 0; i < numSegments; i++) {
+        int docsPerSplit = numDocs[i] / numSplits[i];
+        if (docsPerSplit > maxDocsPerSplit && numDocs[i] / (numSplits[i] + 1) >= minDocsPerSegmentSplit) {
+          segmentToSplit = i;
+          maxDocsPerSplit = docsPerSplit;
+        }
+      }
+      if (segmentToSplit < 0) {
+        break;
+      }
+      numSplits[segmentToSplit]++;
+      numExtraTasks--;
+      split = true;
+    }
+    return split ? numSplits : null;
+  }
+
+  private static boolean canSplitSegment(SegmentContext segmentContext, QueryContext queryContext) {
+    IndexSegment indexSegment = segmentContext.getIndexSegment();
+    if (!(indexSegment instanceof ImmutableSegment)) {
+      return false;
+    }
+    if (!queryContext.isNullHandlingEnabled()) {
+      if (!queryContext.isSkipStarTree() && CollectionUtils.isNotEmpty(indexSegment.getStarTrees())) {
+        return false;
+      }
+      AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+      assert aggregationFunctions != null;
+      if (queryContext.getGroupByExpressions() == null && !queryContext.hasFilteredAggregations()
+          && queryContext.getFilter() == null && segmentContext.getQueryableDocIdsSnapshot() == null
+          && AggregationPlanNode.isFitForNonScanBasedPlan(aggregationFunctions, indexSegment)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Splits the segment into the given number of doc id ranges with (almost) equal number of docs, and adds a plan node
+   * for each of them. The segment result cache is not applied to the splits.
+   */
+  private void addSegmentSplitPlanNodes(List<PlanNode> planNodes, SegmentContext segmentContext,
+      QueryContext queryContext, int numSplits) {
+    int numDocs = segmentContext.getIndexSegment().getSegmentMetadata().getTotalDocs();
+    for (int i = 0; i < numSplits; i++) {
+      int startDocId = (int) ((long) numDocs * i / numSplits);
+      int endDocId = (int) ((long) numDocs * (i + 1) / numSplits);
+      SegmentContext splitContext = segmentContext.withDocIdRange(startDocId, endDocId);
+      planNodes.add(
+          new SegmentSplitPlanNode(makeSegmentPlanNode(splitContext, queryContext), segmentContext, splitContext));
+    }
+  }
+
+  /**
+   * Wraps the segment-level plan node with a {@link SegmentResultCachePlanNode} when the segment results can be cached.
+   */
+  private PlanNode makeSegmentPlanNode(SegmentContext segmentContext, QueryContext queryContext,
+      @Nullable SegmentResultCache.QueryKey queryKey) {
+    PlanNode planNode = makeSegmentPlanNode(segmentContext, queryContext);
+    if (queryKey != null && SegmentResultCache.isCacheable(segmentContext.getIndexSegment(), queryKey)) {
+      assert _segmentResultCache != null;
+      return new SegmentResultCachePlanNode(planNode, segmentContext, queryContext, _segmentResultCache, queryKey);
+    }
+    return planNode;
+  }
+
   @Override
   public PlanNode makeSegmentPlanNode(SegmentContext segmentContext, QueryContext queryContext) {
     rewriteQueryContextWithHints(queryContext, segmentContext.getIndexSegment());
@@ -256,9 +393,16 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   public Plan makeStreamingInstancePlan(List<SegmentContext> segmentContexts, QueryContext queryContext,
       ExecutorService executorService, ResultsBlockStreamer streamer, ServerMetrics serverMetrics) {
     applyQueryOptions(queryContext);
+    SegmentResultCache.QueryKey queryKey =
+        _segmentResultCache != null ? SegmentResultCache.getQueryKey(queryContext) : null;
     List<PlanNode> planNodes = new ArrayList<>(segmentContexts.size());
     for (SegmentContext segmentContext : segmentContexts) {
-      planNodes.add(makeStreamingSegmentPlanNode(segmentContext, queryContext));
+      if (queryKey != null) {
+        // Only aggregation and group-by queries can be cached, which are not streamed at segment level
+        planNodes.add(makeSegmentPlanNode(segmentContext, queryContext, queryKey));
+      } else {
+        planNodes.add(makeStreamingSegmentPlanNode(segmentContext, queryContext));
+      }
     }
     CombinePlanNode combinePlanNode = new CombinePlanNode(planNodes, queryContext, executorService, streamer);
     return new GlobalPlanImplV0(
@@ -20,10 +20,12 @@ package org.apache.pinot.core.plan.maker;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
 import org.apache.pinot.core.query.executor.ResultsBlockStreamer;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.spi.SegmentContext;
 import org.apache.pinot.spi.annotations.InterfaceAudience;
@@ -41,6 +43,13 @@ public interface PlanMaker {
    */
   void init(PinotConfiguration queryExecutorConfig);
 
+  /**
+   * Sets the {@link SegmentResultCache} owned by the server, or {@code null} if it is disabled. The plan makers not
+   * supporting the cache can ignore it.
+   */
+  default void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache) {
+  }
+
   /**
    * Returns an instance level {@link Plan} which contains the logical execution plan for multiple segments.
    */
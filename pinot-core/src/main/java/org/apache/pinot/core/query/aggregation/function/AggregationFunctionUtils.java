@@ -287,7 +287,9 @@ public class AggregationFunctionUtils {
     BaseProjectOperator<?> projectOperator = null;
 
     // TODO: Create a short-circuit ProjectOperator when filter result is empty
-    if (!filterOperator.isResultEmpty()) {
+    // NOTE: Star-tree pre-aggregates the whole segment, so it cannot be used when only a split of the segment is
+    //       processed.
+    if (!filterOperator.isResultEmpty() && !segmentContext.hasDocIdRange()) {
       projectOperator = StarTreeUtils.createStarTreeBasedProjectOperator(segmentContext.getIndexSegment(), queryContext,
           aggregationFunctions, filter, predicateEvaluators);
     }
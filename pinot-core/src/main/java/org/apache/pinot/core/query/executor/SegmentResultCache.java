@@ -0,0 +1,499 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.executor;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.commons.collections4.MapUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.FilterContext;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.common.request.context.predicate.RangePredicate;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.data.table.IntermediateRecord;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.DataSizeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code SegmentResultCache} caches the segment level results of the aggregation and group-by queries on the
+ * server, so that the queries repeated over a sliding time window (e.g. dashboard refreshes) only need to process the
+ * new segments, and merge the cached results for the others.
+ *
+ * <p>The results of an immutable segment are deterministic for a given query, so they are keyed by the segment name
+ * and CRC, and by the parts of the query that can change the segment level results (see {@link QueryKey}). The range
+ * predicates on columns at the top level of the filter (e.g. the time range of the sliding window) are keyed by their
+ * column only, and the results of a segment are only cached when all its values are within these ranges, in which case
+ * the range predicates match all the documents of the segment regardless of their bounds. The segments partially
+ * covered by the ranges are processed without the cache.
+ *
+ * <p>The entries of a segment are indexed by segment so that they can be invalidated when the segment is added,
+ * replaced, reloaded or removed (see {@link #invalidate(String, String)}), and evicted when the cache runs out of
+ * space. Consuming segments and upsert segments (whose valid documents keep changing) are never cached.
+ *
+ * <p>The results are stored serialized as data blocks, so that each query gets its own copy of the intermediate results
+ * (which can be modified when merging them), and the memory used by the cache is bounded by the total size of the
+ * serialized results.
+ *
+ * <p>The cache is owned by the server instance and shared by all its tables. It is disabled by default, and enabled by
+ * setting {@code pinot.server.query.executor.segment.result.cache.max.size} to a positive size.
+ *
+ * <p>This class is thread safe.
+ */
+public class SegmentResultCache {
+  // Query executor config key for the max size of the cache, disabled by default
+  // Set as pinot.server.query.executor.segment.result.cache.max.size
+  public static final String MAX_SIZE_KEY = "segment.result.cache.max.size";
+  public static final String DEFAULT_MAX_SIZE = "0";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCache.class);
+  // Rough estimate of the per-entry overhead other than the serialized results and the query key
+  private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+  private final Cache<CacheKey, CachedResult> _cache;
+  // Keys of the cached entries for each (table, segment), used to invalidate the entries of a segment. The key sets
+  // are only accessed within the map operations so that they are always consistent with the map.
+  private final ConcurrentHashMap<Pair<String, String>, Set<CacheKey>> _segmentKeys = new ConcurrentHashMap<>();
+
+  public SegmentResultCache(long maxSizeBytes) {
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeBytes).<CacheKey, CachedResult>weigher(
+            (key, value) -> ENTRY_OVERHEAD_BYTES + key._queryKey.length() + value._dataBlockBytes.length)
+        .removalListener((RemovalListener<CacheKey, CachedResult>) notification -> {
+          if (notification.getCause() != RemovalCause.REPLACED) {
+            CacheKey key = notification.getKey();
+            _segmentKeys.computeIfPresent(key.getSegmentId(), (segmentId, keys) -> {
+              keys.remove(key);
+              return keys.isEmpty() ? null : keys;
+            });
+          }
+        }).build();
+  }
+
+  /**
+   * Creates the cache from the query executor config, or returns {@code null} if it is disabled (max size not
+   * positive).
+   */
+  @Nullable
+  public static SegmentResultCache create(PinotConfiguration queryExecutorConfig) {
+    long maxSizeBytes = DataSizeUtils.toBytes(queryExecutorConfig.getProperty(MAX_SIZE_KEY, DEFAULT_MAX_SIZE));
+    if (maxSizeBytes <= 0) {
+      return null;
+    }
+    LOGGER.info("Initializing segment result cache with max size: {} bytes", maxSizeBytes);
+    return new SegmentResultCache(maxSizeBytes);
+  }
+
+  /**
+   * Returns the key of the given query, or {@code null} if the segment level results of the query cannot be cached.
+   */
+  @Nullable
+  public static QueryKey getQueryKey(QueryContext queryContext) {
+    if (!QueryContextUtils.isAggregationQuery(queryContext) || QueryContextUtils.isTimeSeriesQuery(queryContext)
+        || queryContext.isExplain() || MapUtils.isNotEmpty(queryContext.getExpressionOverrideHints())
+        || QueryOptionsUtils.isSkipResultCache(queryContext.getQueryOptions())) {
+      return null;
+    }
+    List<RangePredicate> rangePredicates = new ArrayList<>();
+    StringBuilder stringBuilder = new StringBuilder().append("select=").append(queryContext.getSelectExpressions())
+        .append("|filter=");
+    appendFilterKey(stringBuilder, queryContext.getFilter(), rangePredicates);
+    if (queryContext.getGroupByExpressions() != null) {
+      // Segment level group trimming depends on the order-by, the limit and the group trim size
+      stringBuilder.append("|groupBy=").append(queryContext.getGroupByExpressions()).append("|orderBy=")
+          .append(queryContext.getOrderByExpressions()).append("|limit=").append(queryContext.getLimit())
+          .append("|numGroupsLimit=").append(queryContext.getNumGroupsLimit()).append("|minSegmentGroupTrimSize=")
+          .append(queryContext.getMinSegmentGroupTrimSize());
+    }
+    stringBuilder.append("|nullHandling=").append(queryContext.isNullHandlingEnabled()).append("|skipStarTree=")
+        .append(queryContext.isSkipStarTree());
+    return new QueryKey(queryContext.getTableName(), stringBuilder.toString(), rangePredicates,
+        queryContext.isNullHandlingEnabled());
+  }
+
+  /**
+   * Appends the key of the filter, where the range predicates on columns at the top level of the filter are replaced
+   * with their column (their bounds are checked against each segment instead).
+   */
+  private static void appendFilterKey(StringBuilder stringBuilder, @Nullable FilterContext filter,
+      List<RangePredicate> rangePredicates) {
+    if (filter == null) {
+      stringBuilder.append("null");
+      return;
+    }
+    if (filter.getType() == FilterContext.Type.AND) {
+      stringBuilder.append('(');
+      List<FilterContext> children = filter.getChildren();
+      for (int i = 0; i < children.size(); i++) {
+        if (i > 0) {
+          stringBuilder.append(" AND ");
+        }
+        appendPredicateKey(stringBuilder, children.get(i), rangePredicates);
+      }
+      stringBuilder.append(')');
+    } else {
+      appendPredicateKey(stringBuilder, filter, rangePredicates);
+    }
+  }
+
+  private static void appendPredicateKey(StringBuilder stringBuilder, FilterContext filter,
+      List<RangePredicate> rangePredicates) {
+    if (filter.getType() == FilterContext.Type.PREDICATE && filter.getPredicate().getType() == Predicate.Type.RANGE
+        && filter.getPredicate().getLhs().getType() == ExpressionContext.Type.IDENTIFIER) {
+      RangePredicate rangePredicate = (RangePredicate) filter.getPredicate();
+      rangePredicates.add(rangePredicate);
+      stringBuilder.append("ALL_DOCS(").append(rangePredicate.getLhs().getIdentifier()).append(')');
+    } else {
+      stringBuilder.append(filter);
+    }
+  }
+
+  /**
+   * Returns whether the results of the given segment can be cached for the given query.
+   */
+  public static boolean isCacheable(IndexSegment indexSegment, QueryKey queryKey) {
+    if (!(indexSegment instanceof ImmutableSegment) || indexSegment.getValidDocIds() != null
+        || indexSegment.getQueryableDocIds() != null || indexSegment.getSegmentMetadata().getCrc() == null) {
+      return false;
+    }
+    for (RangePredicate rangePredicate : queryKey._rangePredicates) {
+      if (!matchesAllDocs(indexSegment, rangePredicate, queryKey._nullHandlingEnabled)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether the range predicate matches all the documents of the segment, i.e. the min/max values of the
+   * column are within the range.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static boolean matchesAllDocs(IndexSegment indexSegment, RangePredicate rangePredicate,
+      boolean nullHandlingEnabled) {
+    String column = rangePredicate.getLhs().getIdentifier();
+    if (!indexSegment.getColumnNames().contains(column)) {
+      return false;
+    }
+    DataSource dataSource = indexSegment.getDataSource(column);
+    if (nullHandlingEnabled && dataSource.getNullValueVector() != null) {
+      // Null values do not match the range
+      return false;
+    }
+    DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+    Comparable minValue = dataSourceMetadata.getMinValue();
+    Comparable maxValue = dataSourceMetadata.getMaxValue();
+    if (minValue == null || maxValue == null) {
+      return false;
+    }
+    DataType dataType = dataSourceMetadata.getDataType();
+    try {
+      String lowerBound = rangePredicate.getLowerBound();
+      if (!lowerBound.equals(RangePredicate.UNBOUNDED)) {
+        int result = dataType.convertInternal(lowerBound).compareTo(minValue);
+        if (result > 0 || (result == 0 && !rangePredicate.isLowerInclusive())) {
+          return false;
+        }
+      }
+      String upperBound = rangePredicate.getUpperBound();
+      if (!upperBound.equals(RangePredicate.UNBOUNDED)) {
+        int result = dataType.convertInternal(upperBound).compareTo(maxValue);
+        if (result < 0 || (result == 0 && !rangePredicate.isUpperInclusive())) {
+          return false;
+        }
+      }
+    } catch (Exception e) {
+      // The bounds cannot be converted to the column data type, let the query fail without the cache
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the cached results of the given segment and query, or {@code null} if they are not cached.
+   */
+  @Nullable
+  public CachedResult get(IndexSegment indexSegment, QueryKey queryKey) {
+    CachedResult cachedResult = _cache.getIfPresent(getCacheKey(indexSegment, queryKey));
+    if (cachedResult != null) {
+      ServerMetrics.get().addMeteredGlobalValue(ServerMeter.SEGMENT_RESULT_CACHE_HITS, 1);
+    } else {
+      ServerMetrics.get().addMeteredGlobalValue(ServerMeter.SEGMENT_RESULT_CACHE_MISSES, 1);
+    }
+    return cachedResult;
+  }
+
+  /**
+   * Caches the results of the given segment and query. The results block should be the one returned by the segment
+   * level operator, and is not modified.
+   */
+  public void put(IndexSegment indexSegment, QueryKey queryKey, BaseResultsBlock resultsBlock) {
+    DataBlock dataBlock;
+    boolean numGroupsLimitReached = false;
+    try {
+      if (resultsBlock instanceof AggregationResultsBlock) {
+        dataBlock = toDataBlock((AggregationResultsBlock) resultsBlock);
+      } else if (resultsBlock instanceof GroupByResultsBlock) {
+        GroupByResultsBlock groupByResultsBlock = (GroupByResultsBlock) resultsBlock;
+        dataBlock = toDataBlock(groupByResultsBlock);
+        numGroupsLimitReached = groupByResultsBlock.isNumGroupsLimitReached();
+      } else {
+        return;
+      }
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while caching results of segment: {} for query: {}",
+          indexSegment.getSegmentName(), queryKey._key, e);
+      return;
+    }
+    CacheKey cacheKey = getCacheKey(indexSegment, queryKey);
+    _segmentKeys.compute(cacheKey.getSegmentId(), (segmentId, keys) -> {
+      if (keys == null) {
+        keys = new HashSet<>();
+      }
+      keys.add(cacheKey);
+      return keys;
+    });
+    _cache.put(cacheKey, new CachedResult(toBytes(dataBlock), numGroupsLimitReached));
+  }
+
+  /**
+   * Invalidates the cached results of the given segment. Should be called whenever a segment is added, replaced,
+   * reloaded or removed.
+   */
+  public void invalidate(String tableNameWithType, String segmentName) {
+    Set<CacheKey> keys = _segmentKeys.remove(Pair.of(tableNameWithType, segmentName));
+    if (keys != null) {
+      _cache.invalidateAll(keys);
+    }
+  }
+
+  @VisibleForTesting
+  public long size() {
+    return _cache.size();
+  }
+
+  private static CacheKey getCacheKey(IndexSegment indexSegment, QueryKey queryKey) {
+    return new CacheKey(queryKey._tableName, indexSegment.getSegmentName(),
+        indexSegment.getSegmentMetadata().getCrc(), queryKey._key);
+  }
+
+  private static DataBlock toDataBlock(AggregationResultsBlock resultsBlock)
+      throws IOException {
+    AggregationFunction[] aggregationFunctions = resultsBlock.getAggregationFunctions();
+    int numColumns = aggregationFunctions.length;
+    String[] columnNames = new String[numColumns];
+    ColumnDataType[] columnDataTypes = new ColumnDataType[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      columnNames[i] = aggregationFunctions[i].getResultColumnName();
+      columnDataTypes[i] = aggregationFunctions[i].getIntermediateResultColumnType();
+    }
+    return DataBlockBuilder.buildFromRows(Collections.singletonList(resultsBlock.getResults().toArray()),
+        new DataSchema(columnNames, columnDataTypes));
+  }
+
+  private static DataBlock toDataBlock(GroupByResultsBlock resultsBlock)
+      throws IOException {
+    DataSchema dataSchema = resultsBlock.getDataSchema();
+    List<Object[]> rows;
+    Collection<IntermediateRecord> intermediateRecords = resultsBlock.getIntermediateRecords();
+    if (intermediateRecords != null) {
+      rows = new ArrayList<>(intermediateRecords.size());
+      for (IntermediateRecord intermediateRecord : intermediateRecords) {
+        rows.add(intermediateRecord._record.getValues());
+      }
+    } else {
+      rows = new ArrayList<>();
+      AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
+      if (aggregationGroupByResult != null) {
+        int numColumns = dataSchema.size();
+        int numKeys = resultsBlock.getQueryContext().getGroupByExpressions().size();
+        Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+        while (groupKeyIterator.hasNext()) {
+          GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+          Object[] row = Arrays.copyOf(groupKey._keys, numColumns);
+          for (int i = numKeys; i < numColumns; i++) {
+            row[i] = aggregationGroupByResult.getResultForGroupId(i - numKeys, groupKey._groupId);
+          }
+          rows.add(row);
+        }
+      }
+    }
+    return DataBlockBuilder.buildFromRows(rows, dataSchema);
+  }
+
+  private static byte[] toBytes(DataBlock dataBlock) {
+    List<ByteBuffer> byteBuffers;
+    try {
+      byteBuffers = DataBlockUtils.serialize(dataBlock);
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while serializing data block", e);
+    }
+    int size = 0;
+    for (ByteBuffer byteBuffer : byteBuffers) {
+      size += byteBuffer.remaining();
+    }
+    byte[] bytes = new byte[size];
+    ByteBuffer wrapper = ByteBuffer.wrap(bytes);
+    for (ByteBuffer byteBuffer : byteBuffers) {
+      wrapper.put(byteBuffer.duplicate());
+    }
+    return bytes;
+  }
+
+  private static final class CacheKey {
+    final String _tableName;
+    final String _segmentName;
+    final String _crc;
+    final String _queryKey;
+
+    CacheKey(String tableName, String segmentName, String crc, String queryKey) {
+      _tableName = tableName;
+      _segmentName = segmentName;
+      _crc = crc;
+      _queryKey = queryKey;
+    }
+
+    Pair<String, String> getSegmentId() {
+      return Pair.of(_tableName, _segmentName);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return _tableName.equals(that._tableName) && _segmentName.equals(that._segmentName) && _crc.equals(that._crc)
+          && _queryKey.equals(that._queryKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_tableName, _segmentName, _crc, _queryKey);
+    }
+  }
+
+  /**
+   * The key of a query, which contains all the parts of the query that can change the segment level results, except
+   * for the bounds of the top level range predicates which are checked against each segment by
+   * {@link #isCacheable(IndexSegment, QueryKey)}.
+   */
+  public static final class QueryKey {
+    private final String _tableName;
+    private final String _key;
+    private final List<RangePredicate> _rangePredicates;
+    private final boolean _nullHandlingEnabled;
+
+    private QueryKey(String tableName, String key, List<RangePredicate> rangePredicates,
+        boolean nullHandlingEnabled) {
+      _tableName = tableName;
+      _key = key;
+      _rangePredicates = rangePredicates;
+      _nullHandlingEnabled = nullHandlingEnabled;
+    }
+
+    @Override
+    public String toString() {
+      return _tableName + '|' + _key;
+    }
+  }
+
+  /**
+   * The cached results of a segment.
+   */
+  public static final class CachedResult {
+    private final byte[] _dataBlockBytes;
+    private final boolean _numGroupsLimitReached;
+
+    private CachedResult(byte[] dataBlockBytes, boolean numGroupsLimitReached) {
+      _dataBlockBytes = dataBlockBytes;
+      _numGroupsLimitReached = numGroupsLimitReached;
+    }
+
+    /**
+     * Returns a new results block with a fresh copy of the cached results for the given query.
+     */
+    public BaseResultsBlock toResultsBlock(QueryContext queryContext) {
+      DataBlock dataBlock;
+      try {
+        dataBlock = DataBlockUtils.deserialize(new ByteBuffer[]{ByteBuffer.wrap(_dataBlockBytes)});
+      } catch (IOException e) {
+        throw new RuntimeException("Caught exception while deserializing cached segment results", e);
+      }
+      List<Object[]> rows = DataBlockExtractUtils.extractRows(dataBlock);
+      if (queryContext.getGroupByExpressions() == null) {
+        return new AggregationResultsBlock(queryContext.getAggregationFunctions(),
+            new ArrayList<>(Arrays.asList(rows.get(0))), queryContext);
+      }
+      int numKeys = queryContext.getGroupByExpressions().size();
+      List<IntermediateRecord> intermediateRecords = new ArrayList<>(rows.size());
+      for (Object[] row : rows) {
+        intermediateRecords.add(IntermediateRecord.create(new Key(Arrays.copyOf(row, numKeys)), new Record(row)));
+      }
+      GroupByResultsBlock resultsBlock =
+          new GroupByResultsBlock(dataBlock.getDataSchema(), intermediateRecords, queryContext);
+      resultsBlock.setNumGroupsLimitReached(_numGroupsLimitReached);
+      return resultsBlock;
+    }
+  }
+}
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.exception.QueryException;
@@ -35,6 +36,7 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
 import org.apache.pinot.core.transport.ServerRoutingInstance;
 import org.apache.pinot.core.util.GapfillUtils;
 import org.apache.pinot.spi.env.PinotConfiguration;
@@ -58,8 +60,46 @@ public class BrokerReduceService extends BaseReduceService {
     super(config);
   }
 
+  /**
+   * Returns a {@link GroupByRecordPartitioner} which can extract the group-by records from the server responses as
+   * they arrive (see {@link GroupByRecordPartitioner#submit(ServerRoutingInstance, DataTable)}), or {@code null} if
+   * streaming group-by reduce is not enabled or does not apply to the query. The returned partitioner should be passed
+   * to {@link #reduceOnDataTable(BrokerRequest, BrokerRequest, Map, long, BrokerMetrics, GroupByRecordPartitioner)}.
+   */
+  @Nullable
+  public GroupByRecordPartitioner getRecordPartitioner(BrokerRequest serverBrokerRequest, int numServersQueried) {
+    if (!_enableStreamingGroupByReduce || numServersQueried < 2) {
+      return null;
+    }
+    QueryContext serverQueryContext = QueryContextConverterUtils.getQueryContext(serverBrokerRequest.getPinotQuery());
+    if (serverQueryContext.isExplain() || !QueryContextUtils.isAggregationQuery(serverQueryContext)
+        || serverQueryContext.getGroupByExpressions() == null) {
+      return null;
+    }
+    return new GroupByRecordPartitioner(serverQueryContext, _maxReduceThreadsPerQuery, _reduceExecutorService);
+  }
+
   public BrokerResponseNative reduceOnDataTable(BrokerRequest brokerRequest, BrokerRequest serverBrokerRequest,
       Map<ServerRoutingInstance, DataTable> dataTableMap, long reduceTimeOutMs, BrokerMetrics brokerMetrics) {
+    return reduceOnDataTable(brokerRequest, serverBrokerRequest, dataTableMap, reduceTimeOutMs, brokerMetrics, null);
+  }
+
+  public BrokerResponseNative reduceOnDataTable(BrokerRequest brokerRequest, BrokerRequest serverBrokerRequest,
+      Map<ServerRoutingInstance, DataTable> dataTableMap, long reduceTimeOutMs, BrokerMetrics brokerMetrics,
+      @Nullable GroupByRecordPartitioner recordPartitioner) {
+    try {
+      return reduceOnDataTableInternal(brokerRequest, serverBrokerRequest, dataTableMap, reduceTimeOutMs,
+          brokerMetrics, recordPartitioner);
+    } finally {
+      if (recordPartitioner != null) {
+        recordPartitioner.cancel();
+      }
+    }
+  }
+
+  private BrokerResponseNative reduceOnDataTableInternal(BrokerRequest brokerRequest,
+      BrokerRequest serverBrokerRequest, Map<ServerRoutingInstance, DataTable> dataTableMap, long reduceTimeOutMs,
+      BrokerMetrics brokerMetrics, @Nullable GroupByRecordPartitioner recordPartitioner) {
     if (dataTableMap.isEmpty()) {
       // Empty response.
       return BrokerResponseNative.empty();
@@ -154,7 +194,7 @@ public class BrokerReduceService extends BaseReduceService {
     try {
       dataTableReducer.reduceAndSetResults(rawTableName, cachedDataSchema, dataTableMap, brokerResponseNative,
           new DataTableReducerContext(_reduceExecutorService, _maxReduceThreadsPerQuery, reduceTimeOutMs,
-              groupTrimThreshold, minGroupTrimSize), brokerMetrics);
+              groupTrimThreshold, minGroupTrimSize, recordPartitioner), brokerMetrics);
     } catch (EarlyTerminationException e) {
       brokerResponseNative.addException(
           new QueryProcessingException(QueryException.QUERY_CANCELLATION_ERROR_CODE, e.toString()));
@@ -19,6 +19,7 @@
 package org.apache.pinot.core.query.reduce;
 
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 
 
 /**
@@ -32,6 +33,8 @@ public class DataTableReducerContext {
   // used for SQL GROUP BY
   private final int _groupByTrimThreshold;
   private final int _minGroupTrimSize;
+  // used for SQL GROUP BY when the records are extracted as the server responses arrive
+  private final GroupByRecordPartitioner _recordPartitioner;
 
   /**
    * Constructor for the class.
@@ -43,11 +46,17 @@ public class DataTableReducerContext {
    */
   public DataTableReducerContext(ExecutorService executorService, int maxReduceThreadsPerQuery, long reduceTimeOutMs,
       int groupByTrimThreshold, int minGroupTrimSize) {
+    this(executorService, maxReduceThreadsPerQuery, reduceTimeOutMs, groupByTrimThreshold, minGroupTrimSize, null);
+  }
+
+  public DataTableReducerContext(ExecutorService executorService, int maxReduceThreadsPerQuery, long reduceTimeOutMs,
+      int groupByTrimThreshold, int minGroupTrimSize, @Nullable GroupByRecordPartitioner recordPartitioner) {
     _executorService = executorService;
     _maxReduceThreadsPerQuery = maxReduceThreadsPerQuery;
     _reduceTimeOutMs = reduceTimeOutMs;
     _groupByTrimThreshold = groupByTrimThreshold;
     _minGroupTrimSize = minGroupTrimSize;
+    _recordPartitioner = recordPartitioner;
   }
 
   public ExecutorService getExecutorService() {
@@ -69,4 +78,9 @@ public class DataTableReducerContext {
   public int getMinGroupTrimSize() {
     return _minGroupTrimSize;
   }
+
+  @Nullable
+  public GroupByRecordPartitioner getRecordPartitioner() {
+    return _recordPartitioner;
+  }
 }
@@ -18,11 +18,6 @@
  */
 package org.apache.pinot.core.query.reduce;
 
-import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
-import it.unimi.dsi.fastutil.floats.FloatArrayList;
-import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.fastutil.longs.LongArrayList;
-import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,12 +26,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.pinot.common.CustomObject;
 import org.apache.pinot.common.Utils;
 import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.exception.QueryException;
@@ -50,13 +45,8 @@ import org.apache.pinot.common.response.broker.QueryProcessingException;
 import org.apache.pinot.common.response.broker.ResultTable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
-import org.apache.pinot.core.common.ObjectSerDeUtils;
-import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.Record;
-import org.apache.pinot.core.data.table.SimpleIndexedTable;
-import org.apache.pinot.core.data.table.UnboundedConcurrentIndexedTable;
-import org.apache.pinot.core.operator.combine.GroupByCombineOperator;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import org.apache.pinot.core.query.request.context.QueryContext;
@@ -69,7 +59,6 @@ import org.apache.pinot.spi.accounting.ThreadExecutionContext;
 import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
 import org.apache.pinot.spi.exception.EarlyTerminationException;
 import org.apache.pinot.spi.trace.Tracing;
-import org.roaringbitmap.RoaringBitmap;
 
 
 /**
@@ -121,7 +110,7 @@ public class GroupByDataTableReducer implements DataTableReducer {
       processSingleFinalResult(dataSchema, dataTables.iterator().next(), brokerResponse);
     } else {
       try {
-        reduceResult(brokerResponse, dataSchema, dataTables, reducerContext, tableName, brokerMetrics);
+        reduceResult(brokerResponse, dataSchema, dataTableMap, reducerContext, tableName, brokerMetrics);
       } catch (TimeoutException e) {
         brokerResponse.getExceptions()
             .add(new QueryProcessingException(QueryException.BROKER_TIMEOUT_ERROR_CODE, e.getMessage()));
@@ -138,18 +127,18 @@ public class GroupByDataTableReducer implements DataTableReducer {
    * Extract group by order by results and set into {@link ResultTable}
    * @param brokerResponseNative broker response
    * @param dataSchema data schema
-   * @param dataTables Collection of data tables
+   * @param dataTableMap Map from server to data table
    * @param reducerContext DataTableReducer context
    * @param rawTableName table name
    * @param brokerMetrics broker metrics (meters)
    * @throws TimeoutException If unable complete within timeout.
    */
   private void reduceResult(BrokerResponseNative brokerResponseNative, DataSchema dataSchema,
-      Collection<DataTable> dataTables, DataTableReducerContext reducerContext, String rawTableName,
+      Map<ServerRoutingInstance, DataTable> dataTableMap, DataTableReducerContext reducerContext, String rawTableName,
       BrokerMetrics brokerMetrics)
       throws TimeoutException {
     // NOTE: This step will modify the data schema and also return final aggregate results.
-    IndexedTable indexedTable = getIndexedTable(dataSchema, dataTables, reducerContext);
+    IndexedTable indexedTable = getIndexedTable(dataSchema, dataTableMap, reducerContext);
     if (brokerMetrics != null) {
       brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.NUM_RESIZES, indexedTable.getNumResizes());
       brokerMetrics.addValueToTableGauge(rawTableName, BrokerGauge.RESIZE_TIME_MS, indexedTable.getResizeTimeMs());
@@ -228,15 +217,22 @@ public class GroupByDataTableReducer implements DataTableReducer {
     return new DataSchema(columnNames, columnDataTypes);
   }
 
-  private IndexedTable getIndexedTable(DataSchema dataSchema, Collection<DataTable> dataTablesToReduce,
+  private IndexedTable getIndexedTable(DataSchema dataSchema, Map<ServerRoutingInstance, DataTable> dataTableMap,
       DataTableReducerContext reducerContext)
       throws TimeoutException {
     long start = System.currentTimeMillis();
-    int numDataTables = dataTablesToReduce.size();
-
-    // Get the number of threads to use for reducing.
-    // In case of single reduce thread, fall back to SimpleIndexedTable to avoid redundant locking/unlocking calls.
-    int numReduceThreadsToUse = getNumReduceThreadsToUse(numDataTables, reducerContext.getMaxReduceThreadsPerQuery());
+    int numDataTables = dataTableMap.size();
+
+    // Records are partitioned by group key, and each reduce thread merges one partition into its own indexed table, so
+    // that there is no contention across the reduce threads.
+    // The records might already be extracted (or being extracted) by the partitioner as the server responses arrive.
+    GroupByRecordPartitioner recordPartitioner = reducerContext.getRecordPartitioner();
+    if (recordPartitioner == null) {
+      int numReduceThreadsToUse =
+          getNumReduceThreadsToUse(numDataTables, reducerContext.getMaxReduceThreadsPerQuery());
+      recordPartitioner = new GroupByRecordPartitioner(_queryContext, numReduceThreadsToUse, null);
+    }
+    int numPartitions = recordPartitioner.getNumPartitions();
     boolean hasFinalInput =
         _queryContext.isServerReturnFinalResult() || _queryContext.isServerReturnFinalResultKeyUnpartitioned();
     int limit = _queryContext.getLimit();
@@ -245,41 +241,52 @@ public class GroupByDataTableReducer implements DataTableReducer {
     // TODO: Resolve the HAVING clause within the IndexedTable before returning the result
     int resultSize = _queryContext.getHavingFilter() != null ? trimSize : limit;
     int trimThreshold = reducerContext.getGroupByTrimThreshold();
+    IndexedTable[] partitionedTables = new IndexedTable[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      partitionedTables[i] = GroupByUtils.createIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize,
+          trimSize, trimThreshold);
+    }
+
+    List<Map.Entry<ServerRoutingInstance, DataTable>> dataTables = new ArrayList<>(dataTableMap.entrySet());
     IndexedTable indexedTable;
-    if (numReduceThreadsToUse == 1) {
-      indexedTable =
-          new SimpleIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize, trimThreshold);
+    if (numPartitions == 1) {
+      // Merge in the current thread
+      try {
+        mergePartition(recordPartitioner, dataTables, 0, partitionedTables[0]);
+      } catch (InterruptedException e) {
+        throw new EarlyTerminationException("Interrupted in broker reduce phase", e);
+      } catch (ExecutionException e) {
+        Utils.rethrowException(e.getCause());
+      }
+      indexedTable = partitionedTables[0];
     } else {
-      if (trimThreshold >= GroupByCombineOperator.MAX_TRIM_THRESHOLD) {
-        // special case of trim threshold where it is set to max value.
-        // there won't be any trimming during upsert in this case.
-        // thus we can avoid the overhead of read-lock and write-lock
-        // in the upsert method.
-        indexedTable = new UnboundedConcurrentIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize);
-      } else {
-        indexedTable =
-            new ConcurrentIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize, trimThreshold);
+      mergePartitions(recordPartitioner, dataTables, partitionedTables, reducerContext, start);
+      // The group keys are disjoint across the partitions, so the top records of each partition contain the top records
+      // of the whole result.
+      indexedTable = GroupByUtils.createIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize,
+          trimThreshold);
+      for (IndexedTable partitionedTable : partitionedTables) {
+        // NOTE: Do not store the final result for the partitioned tables because it modifies the shared data schema
+        partitionedTable.finish(false, hasFinalInput);
+        Iterator<Record> iterator = partitionedTable.iterator();
+        while (iterator.hasNext()) {
+          indexedTable.upsert(iterator.next());
+        }
       }
     }
+    indexedTable.finish(true, true);
+    return indexedTable;
+  }
 
-    // Create groups of data tables that each thread can process concurrently.
-    // Given that numReduceThreads is <= numDataTables, each group will have at least one data table.
-    ArrayList<DataTable> dataTables = new ArrayList<>(dataTablesToReduce);
-    List<List<DataTable>> reduceGroups = new ArrayList<>(numReduceThreadsToUse);
-
-    for (int i = 0; i < numReduceThreadsToUse; i++) {
-      reduceGroups.add(new ArrayList<>());
-    }
-    for (int i = 0; i < numDataTables; i++) {
-      reduceGroups.get(i % numReduceThreadsToUse).add(dataTables.get(i));
-    }
-
-    Future[] futures = new Future[numReduceThreadsToUse];
-    CountDownLatch countDownLatch = new CountDownLatch(numReduceThreadsToUse);
+  private void mergePartitions(GroupByRecordPartitioner recordPartitioner,
+      List<Map.Entry<ServerRoutingInstance, DataTable>> dataTables,
+      IndexedTable[] partitionedTables, DataTableReducerContext reducerContext, long start)
+      throws TimeoutException {
+    int numPartitions = partitionedTables.length;
+    Future[] futures = new Future[numPartitions];
+    CountDownLatch countDownLatch = new CountDownLatch(numPartitions);
     AtomicReference<Throwable> exception = new AtomicReference<>();
-    ColumnDataType[] storedColumnDataTypes = dataSchema.getStoredColumnDataTypes();
-    for (int i = 0; i < numReduceThreadsToUse; i++) {
-      List<DataTable> reduceGroup = reduceGroups.get(i);
+    for (int i = 0; i < numPartitions; i++) {
       int taskId = i;
       ThreadExecutionContext parentContext = Tracing.getThreadAccountant().getThreadExecutionContext();
       futures[i] = reducerContext.getExecutorService().submit(new TraceRunnable() {
@@ -287,84 +294,7 @@ public class GroupByDataTableReducer implements DataTableReducer {
         public void runJob() {
           Tracing.ThreadAccountantOps.setupWorker(taskId, new ThreadResourceUsageProvider(), parentContext);
           try {
-            for (DataTable dataTable : reduceGroup) {
-              boolean nullHandlingEnabled = _queryContext.isNullHandlingEnabled();
-              RoaringBitmap[] nullBitmaps = null;
-              if (nullHandlingEnabled) {
-                nullBitmaps = new RoaringBitmap[_numColumns];
-                for (int i = 0; i < _numColumns; i++) {
-                  nullBitmaps[i] = dataTable.getNullRowIds(i);
-                }
-              }
-
-              int numRows = dataTable.getNumberOfRows();
-              for (int rowId = 0; rowId < numRows; rowId++) {
-                // Terminate when thread is interrupted.
-                // This is expected when the query already fails in the main thread.
-                // The first check will always be performed when rowId = 0
-                Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
-                Object[] values = new Object[_numColumns];
-                for (int colId = 0; colId < _numColumns; colId++) {
-                  // NOTE: We need to handle data types for group key, intermediate and final aggregate result.
-                  switch (storedColumnDataTypes[colId]) {
-                    case INT:
-                      values[colId] = dataTable.getInt(rowId, colId);
-                      break;
-                    case LONG:
-                      values[colId] = dataTable.getLong(rowId, colId);
-                      break;
-                    case FLOAT:
-                      values[colId] = dataTable.getFloat(rowId, colId);
-                      break;
-                    case DOUBLE:
-                      values[colId] = dataTable.getDouble(rowId, colId);
-                      break;
-                    case BIG_DECIMAL:
-                      values[colId] = dataTable.getBigDecimal(rowId, colId);
-                      break;
-                    case STRING:
-                      values[colId] = dataTable.getString(rowId, colId);
-                      break;
-                    case BYTES:
-                      values[colId] = dataTable.getBytes(rowId, colId);
-                      break;
-                    case INT_ARRAY:
-                      values[colId] = IntArrayList.wrap(dataTable.getIntArray(rowId, colId));
-                      break;
-                    case LONG_ARRAY:
-                      values[colId] = LongArrayList.wrap(dataTable.getLongArray(rowId, colId));
-                      break;
-                    case FLOAT_ARRAY:
-                      values[colId] = FloatArrayList.wrap(dataTable.getFloatArray(rowId, colId));
-                      break;
-                    case DOUBLE_ARRAY:
-                      values[colId] = DoubleArrayList.wrap(dataTable.getDoubleArray(rowId, colId));
-                      break;
-                    case STRING_ARRAY:
-                      values[colId] = ObjectArrayList.wrap(dataTable.getStringArray(rowId, colId));
-                      break;
-                    case OBJECT:
-                      // TODO: Move ser/de into AggregationFunction interface
-                      CustomObject customObject = dataTable.getCustomObject(rowId, colId);
-                      if (customObject != null) {
-                        values[colId] = ObjectSerDeUtils.deserialize(customObject);
-                      }
-                      break;
-                    // Add other aggregation intermediate result / group-by column type supports here
-                    default:
-                      throw new IllegalStateException();
-                  }
-                }
-                if (nullHandlingEnabled) {
-                  for (int colId = 0; colId < _numColumns; colId++) {
-                    if (nullBitmaps[colId] != null && nullBitmaps[colId].contains(rowId)) {
-                      values[colId] = null;
-                    }
-                  }
-                }
-                indexedTable.upsert(new Record(values));
-              }
-            }
+            mergePartition(recordPartitioner, dataTables, taskId, partitionedTables[taskId]);
           } catch (Throwable t) {
             exception.compareAndSet(null, t);
           } finally {
@@ -396,9 +326,28 @@ public class GroupByDataTableReducer implements DataTableReducer {
         }
       }
     }
+  }
 
-    indexedTable.finish(true, true);
-    return indexedTable;
+  /**
+   * Merges the records of the given partition from all the data tables into the indexed table.
+   */
+  private static void mergePartition(GroupByRecordPartitioner recordPartitioner,
+      List<Map.Entry<ServerRoutingInstance, DataTable>> dataTables, int partitionId, IndexedTable indexedTable)
+      throws InterruptedException, ExecutionException {
+    // Start from a different data table for each partition so that the data tables not extracted yet are extracted
+    // in parallel by different threads
+    int numDataTables = dataTables.size();
+    for (int i = 0; i < numDataTables; i++) {
+      Map.Entry<ServerRoutingInstance, DataTable> entry = dataTables.get((partitionId + i) % numDataTables);
+      List<Record> records = recordPartitioner.getPartition(entry.getKey(), entry.getValue(), partitionId);
+      int numRecords = records.size();
+      for (int j = 0; j < numRecords; j++) {
+        // Terminate when thread is interrupted.
+        // This is expected when the query already fails in the main thread.
+        Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(j);
+        indexedTable.upsert(records.get(j));
+      }
+    }
   }
 
   /**
@@ -0,0 +1,247 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.CustomObject;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.trace.Tracing;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * The {@code GroupByRecordPartitioner} extracts the group-by records from the server data tables, and partitions them
+ * by group key so that each partition can be merged by a separate reduce thread without contention.
+ *
+ * <p>Record extraction (including the deserialization of the intermediate results) can be started in the background as
+ * soon as each server response arrives by calling {@link #submit(ServerRoutingInstance, DataTable)}, so that it
+ * overlaps with waiting for the slower servers. The data tables not submitted in advance are extracted by the first
+ * reduce thread asking for them.
+ */
+@ThreadSafe
+@SuppressWarnings("rawtypes")
+public class GroupByRecordPartitioner {
+  private final QueryContext _queryContext;
+  private final int _numPartitions;
+  private final int _numKeyColumns;
+  private final int _numColumns;
+  private final ExecutorService _executorService;
+  private final Map<ServerRoutingInstance, ExtractionTask> _extractionTasks = new HashMap<>();
+
+  private boolean _cancelled;
+
+  public GroupByRecordPartitioner(QueryContext queryContext, int numPartitions,
+      @Nullable ExecutorService executorService) {
+    assert queryContext.getGroupByExpressions() != null && queryContext.getAggregationFunctions() != null;
+    _queryContext = queryContext;
+    _numPartitions = numPartitions;
+    _numKeyColumns = queryContext.getGroupByExpressions().size();
+    _numColumns = _numKeyColumns + queryContext.getAggregationFunctions().length;
+    _executorService = executorService;
+  }
+
+  public int getNumPartitions() {
+    return _numPartitions;
+  }
+
+  /**
+   * Starts extracting the records from the given data table in the background. This method does not block, and can be
+   * invoked from the network threads receiving the server responses.
+   */
+  public void submit(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+    if (_executorService == null || dataTable.getDataSchema() == null || dataTable.getNumberOfRows() == 0) {
+      return;
+    }
+    ExtractionTask extractionTask;
+    synchronized (_extractionTasks) {
+      if (_cancelled || _extractionTasks.containsKey(serverRoutingInstance)) {
+        return;
+      }
+      extractionTask = new ExtractionTask(dataTable);
+      _extractionTasks.put(serverRoutingInstance, extractionTask);
+    }
+    _executorService.execute(extractionTask);
+  }
+
+  /**
+   * Returns the records of the given partition from the given data table. The records are extracted in the caller
+   * thread if the extraction has not been started yet, or waits for the ongoing extraction to finish.
+   *
+   * <p>Each partition of a data table can be taken only once: the partitioner drops its reference to the returned
+   * records so that they can be garbage collected as soon as the caller finishes merging them, and releases the
+   * extraction task once all the partitions of the data table are taken.
+   */
+  public List<Record> getPartition(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int partitionId)
+      throws InterruptedException, ExecutionException {
+    ExtractionTask extractionTask;
+    synchronized (_extractionTasks) {
+      extractionTask = _extractionTasks.get(serverRoutingInstance);
+      if (extractionTask == null || extractionTask._dataTable != dataTable) {
+        extractionTask = new ExtractionTask(dataTable);
+        _extractionTasks.put(serverRoutingInstance, extractionTask);
+      }
+    }
+    // NOTE: FutureTask.run() is no-op when the task is already running or finished
+    extractionTask.run();
+    List<Record>[] partitions = extractionTask.get();
+    List<Record> records;
+    synchronized (extractionTask) {
+      records = partitions[partitionId];
+      Preconditions.checkState(records != null, "Partition: %s of server: %s has already been taken", partitionId,
+          serverRoutingInstance);
+      partitions[partitionId] = null;
+    }
+    if (extractionTask._numPartitionsTaken.incrementAndGet() == _numPartitions) {
+      synchronized (_extractionTasks) {
+        _extractionTasks.remove(serverRoutingInstance, extractionTask);
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Cancels the ongoing extractions and releases the extracted records. Should be invoked once the reduce is done.
+   */
+  public void cancel() {
+    synchronized (_extractionTasks) {
+      _cancelled = true;
+      for (ExtractionTask extractionTask : _extractionTasks.values()) {
+        extractionTask.cancel(true);
+      }
+      _extractionTasks.clear();
+    }
+  }
+
+  private class ExtractionTask extends FutureTask<List<Record>[]> {
+    final DataTable _dataTable;
+    final AtomicInteger _numPartitionsTaken = new AtomicInteger();
+
+    ExtractionTask(DataTable dataTable) {
+      super(() -> extractRecords(dataTable));
+      _dataTable = dataTable;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Record>[] extractRecords(DataTable dataTable) {
+    int numRows = dataTable.getNumberOfRows();
+    List<Record>[] partitions = new List[_numPartitions];
+    for (int i = 0; i < _numPartitions; i++) {
+      partitions[i] = new ArrayList<>(numRows / _numPartitions + 1);
+    }
+    DataSchema dataSchema = dataTable.getDataSchema();
+    ColumnDataType[] storedColumnDataTypes = dataSchema.getStoredColumnDataTypes();
+    RoaringBitmap[] nullBitmaps = null;
+    if (_queryContext.isNullHandlingEnabled()) {
+      nullBitmaps = new RoaringBitmap[_numColumns];
+      for (int colId = 0; colId < _numColumns; colId++) {
+        nullBitmaps[colId] = dataTable.getNullRowIds(colId);
+      }
+    }
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      // Terminate when thread is interrupted. This is expected when the query already fails or finishes.
+      Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
+      Object[] values = new Object[_numColumns];
+      for (int colId = 0; colId < _numColumns; colId++) {
+        values[colId] = getValue(dataTable, storedColumnDataTypes[colId], rowId, colId);
+      }
+      if (nullBitmaps != null) {
+        for (int colId = 0; colId < _numColumns; colId++) {
+          if (nullBitmaps[colId] != null && nullBitmaps[colId].contains(rowId)) {
+            values[colId] = null;
+          }
+        }
+      }
+      partitions[getPartitionId(values)].add(new Record(values));
+    }
+    return partitions;
+  }
+
+  private int getPartitionId(Object[] values) {
+    if (_numPartitions == 1) {
+      return 0;
+    }
+    // Same as Arrays.hashCode() on the key values (see Key.hashCode()), with the high bits spread to the low bits
+    int hash = 1;
+    for (int i = 0; i < _numKeyColumns; i++) {
+      Object value = values[i];
+      hash = 31 * hash + (value != null ? value.hashCode() : 0);
+    }
+    hash ^= hash >>> 16;
+    return (hash & Integer.MAX_VALUE) % _numPartitions;
+  }
+
+  private static Object getValue(DataTable dataTable, ColumnDataType storedColumnDataType, int rowId, int colId) {
+    // NOTE: We need to handle data types for group key, intermediate and final aggregate result.
+    switch (storedColumnDataType) {
+      case INT:
+        return dataTable.getInt(rowId, colId);
+      case LONG:
+        return dataTable.getLong(rowId, colId);
+      case FLOAT:
+        return dataTable.getFloat(rowId, colId);
+      case DOUBLE:
+        return dataTable.getDouble(rowId, colId);
+      case BIG_DECIMAL:
+        return dataTable.getBigDecimal(rowId, colId);
+      case STRING:
+        return dataTable.getString(rowId, colId);
+      case BYTES:
+        return dataTable.getBytes(rowId, colId);
+      case INT_ARRAY:
+        return IntArrayList.wrap(dataTable.getIntArray(rowId, colId));
+      case LONG_ARRAY:
+        return LongArrayList.wrap(dataTable.getLongArray(rowId, colId));
+      case FLOAT_ARRAY:
+        return FloatArrayList.wrap(dataTable.getFloatArray(rowId, colId));
+      case DOUBLE_ARRAY:
+        return DoubleArrayList.wrap(dataTable.getDoubleArray(rowId, colId));
+      case STRING_ARRAY:
+        return ObjectArrayList.wrap(dataTable.getStringArray(rowId, colId));
+      case OBJECT:
+        // TODO: Move ser/de into AggregationFunction interface
+        CustomObject customObject = dataTable.getCustomObject(rowId, colId);
+        return customObject != null ? ObjectSerDeUtils.deserialize(customObject) : null;
+      // Add other aggregation intermediate result / group-by column type supports here
+      default:
+        throw new IllegalStateException();
+    }
+  }
+}
@@ -83,4 +83,13 @@ public interface RoutingManager {
    */
   @Nullable
   Set<String> getServingInstances(String tableNameWithType);
+
+  /**
+   * Returns the estimated total number of documents in the online segments of the given table, based on the segment ZK
+   * metadata, or {@code null} if it is not available (e.g. the routing does not exist for the table). The consuming
+   * segments are not tracked in the segment ZK metadata, and are estimated with the average number of documents per
+   * completed segment. The number is not available when the table only has consuming segments.
+   */
+  @Nullable
+  Long getNumDocs(String tableNameWithType);
 }
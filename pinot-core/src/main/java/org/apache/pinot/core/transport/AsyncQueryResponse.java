@@ -18,13 +18,18 @@
  */
 package org.apache.pinot.core.transport;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.datatable.DataTable;
@@ -46,12 +51,29 @@ public class AsyncQueryResponse implements QueryResponse {
   private final long _maxEndTimeMs;
   private final long _timeoutMs;
   private final ServerRoutingStatsManager _serverRoutingStatsManager;
+  private final BiConsumer<ServerRoutingInstance, DataTable> _dataTableListener;
 
   private volatile ServerRoutingInstance _failedServer;
   private volatile Exception _exception;
 
+  // Hedged requests are tracked to be cleaned up when the query is done
+  private final Map<ServerRoutingInstance, HedgedResponse> _hedgedResponseMap = new ConcurrentHashMap<>();
+  private volatile Future<?> _hedgeFuture;
+  private List<Long> _hedgedRequestIds;
+  private boolean _done;
+
   public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<ServerRoutingInstance> serversQueried,
       long startTimeMs, long timeoutMs, ServerRoutingStatsManager serverRoutingStatsManager) {
+    this(queryRouter, requestId, serversQueried, startTimeMs, timeoutMs, serverRoutingStatsManager, null);
+  }
+
+  /**
+   * The optional data table listener is invoked in the network thread for each received data table, which can be used
+   * to start processing the server responses before all the servers respond. The listener should not block.
+   */
+  public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<ServerRoutingInstance> serversQueried,
+      long startTimeMs, long timeoutMs, ServerRoutingStatsManager serverRoutingStatsManager,
+      @Nullable BiConsumer<ServerRoutingInstance, DataTable> dataTableListener) {
     _queryRouter = queryRouter;
     _requestId = requestId;
     int numServersQueried = serversQueried.size();
@@ -67,6 +89,7 @@ public class AsyncQueryResponse implements QueryResponse {
     _countDownLatch = new CountDownLatch(numServersQueried);
     _timeoutMs = timeoutMs;
     _maxEndTimeMs = startTimeMs + timeoutMs;
+    _dataTableListener = dataTableListener;
   }
 
   @Override
@@ -95,16 +118,25 @@ public class AsyncQueryResponse implements QueryResponse {
       // Update ServerRoutingStats for query completion. This is done here to ensure that the stats are updated for
       // servers even if the query times out or if servers have not responded.
       for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : _responseMap.entrySet()) {
+        ServerRoutingInstance serverRoutingInstance = entry.getKey();
         ServerResponse response = entry.getValue();
 
         // ServerResponse returns -1 if responseDelayMs is not set. This indicates that a response was not received
         // from the server. Hence we set the latency to the timeout value.
-        long latency =
-            (response != null && response.getResponseDelayMs() >= 0) ? response.getResponseDelayMs() : _timeoutMs;
-        _serverRoutingStatsManager.recordStatsUponResponseArrival(_requestId, entry.getKey().getInstanceId(), latency);
+        // When the response is received from the hedged request, the server did not respond in time either, and the
+        // latency of the response is recorded for the replica instead.
+        long latency = (response != null && response.getResponseDelayMs() >= 0 && !response.isFromHedgedRequest())
+            ? response.getResponseDelayMs() : _timeoutMs;
+        _serverRoutingStatsManager.recordStatsUponResponseArrival(_requestId, serverRoutingInstance.getInstanceId(),
+            latency);
+      }
+      // Hedged requests not responded yet are also timed out
+      for (HedgedResponse hedgedResponse : _hedgedResponseMap.values()) {
+        hedgedResponse.recordStats(_timeoutMs);
       }
 
       _queryRouter.markQueryDone(_requestId);
+      markHedgedRequestsDone();
     }
   }
 
@@ -148,17 +180,108 @@ public class AsyncQueryResponse implements QueryResponse {
     _responseMap.get(serverRoutingInstance).markRequestSubmitted();
   }
 
+  /**
+   * NOTE: The server might not be queried by the query when the request sent is a hedged request.
+   */
   void markRequestSent(ServerRoutingInstance serverRoutingInstance, int requestSentLatencyMs) {
-    _responseMap.get(serverRoutingInstance).markRequestSent(requestSentLatencyMs);
+    ServerResponse serverResponse = _responseMap.get(serverRoutingInstance);
+    if (serverResponse != null) {
+      serverResponse.markRequestSent(requestSentLatencyMs);
+    }
   }
 
-  void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
+  /**
+   * Returns {@code false} if the response from the server has already been received from the hedged request (or vice
+   * versa), in which case the data table is ignored.
+   */
+  boolean receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
       int deserializationTimeMs) {
+    return receiveDataTable(serverRoutingInstance, dataTable, responseSize, deserializationTimeMs, false);
+  }
+
+  private boolean receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
+      int deserializationTimeMs, boolean fromHedgedRequest) {
     ServerResponse response = _responseMap.get(serverRoutingInstance);
-    response.receiveDataTable(dataTable, responseSize, deserializationTimeMs);
+    if (!response.receiveDataTable(dataTable, responseSize, deserializationTimeMs, fromHedgedRequest)) {
+      return false;
+    }
+    if (_dataTableListener != null) {
+      _dataTableListener.accept(serverRoutingInstance, dataTable);
+    }
 
     _numServersResponded.getAndIncrement();
     _countDownLatch.countDown();
+    return true;
+  }
+
+  /**
+   * Tracks the hedged request sent to the given replica on behalf of the given server. Should be invoked before sending
+   * the hedged request so that the routing stats of the replica are updated in order.
+   */
+  void markHedgedRequestSubmitted(ServerRoutingInstance serverRoutingInstance, ServerRoutingInstance replica) {
+    _serverRoutingStatsManager.recordStatsForQuerySubmission(_requestId, replica.getInstanceId());
+    _hedgedResponseMap.put(serverRoutingInstance, new HedgedResponse(replica.getInstanceId()));
+  }
+
+  /**
+   * Stops tracking the hedged request sent on behalf of the given server when it failed to be sent.
+   */
+  void markHedgedRequestFailed(ServerRoutingInstance serverRoutingInstance) {
+    HedgedResponse hedgedResponse = _hedgedResponseMap.remove(serverRoutingInstance);
+    if (hedgedResponse != null) {
+      // Negative latency only updates the number of in-flight requests
+      hedgedResponse.recordStats(-1);
+    }
+  }
+
+  /**
+   * Receives the data table of the hedged request sent on behalf of the given server. Returns {@code true} if the
+   * hedged request wins. Data table with exceptions is ignored so that the query can still wait for the original
+   * server. The latency of the hedged request is recorded for the replica which responded.
+   */
+  boolean receiveHedgedDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
+      int deserializationTimeMs) {
+    HedgedResponse hedgedResponse = _hedgedResponseMap.get(serverRoutingInstance);
+    if (hedgedResponse != null) {
+      hedgedResponse.recordStats(System.currentTimeMillis() - hedgedResponse._submitTimeMs);
+    }
+    return dataTable.getExceptions().isEmpty() && receiveDataTable(serverRoutingInstance, dataTable, responseSize,
+        deserializationTimeMs, true);
+  }
+
+  boolean hasResponded(ServerRoutingInstance serverRoutingInstance) {
+    return _responseMap.get(serverRoutingInstance).getDataTable() != null;
+  }
+
+  void setHedgeFuture(Future<?> hedgeFuture) {
+    _hedgeFuture = hedgeFuture;
+  }
+
+  /**
+   * Tracks the hedged request id, returns {@code false} if the query is already done.
+   */
+  synchronized boolean addHedgedRequestId(long hedgedRequestId) {
+    if (_done) {
+      return false;
+    }
+    if (_hedgedRequestIds == null) {
+      _hedgedRequestIds = new ArrayList<>();
+    }
+    _hedgedRequestIds.add(hedgedRequestId);
+    return true;
+  }
+
+  private synchronized void markHedgedRequestsDone() {
+    _done = true;
+    Future<?> hedgeFuture = _hedgeFuture;
+    if (hedgeFuture != null) {
+      hedgeFuture.cancel(false);
+    }
+    if (_hedgedRequestIds != null) {
+      for (long hedgedRequestId : _hedgedRequestIds) {
+        _queryRouter.markHedgedRequestDone(hedgedRequestId);
+      }
+    }
   }
 
   void markQueryFailed(ServerRoutingInstance serverRoutingInstance, Exception exception) {
@@ -189,4 +312,23 @@ public class AsyncQueryResponse implements QueryResponse {
   void skipServerResponse() {
     _countDownLatch.countDown();
   }
+
+  /**
+   * Tracks the hedged request sent to a replica, so that the routing stats are recorded for the replica exactly once.
+   */
+  private class HedgedResponse {
+    final String _instanceId;
+    final long _submitTimeMs = System.currentTimeMillis();
+    final AtomicBoolean _statsRecorded = new AtomicBoolean();
+
+    HedgedResponse(String instanceId) {
+      _instanceId = instanceId;
+    }
+
+    void recordStats(long latencyMs) {
+      if (_statsRecorded.compareAndSet(false, true)) {
+        _serverRoutingStatsManager.recordStatsUponResponseArrival(_requestId, _instanceId, latencyMs);
+      }
+    }
+  }
 }
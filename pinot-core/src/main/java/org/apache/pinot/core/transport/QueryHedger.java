@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants.Broker;
+
+
+/**
+ * The {@code QueryHedger} decides when and where to send hedged requests for the single-stage queries.
+ *
+ * <p>If a server hasn't responded after the hedge delay, the same segments are sent to another replica hosting all of
+ * them, and the first response is used (see {@link QueryRouter}). The hedge delay is the configured percentile of the
+ * recent server response latencies (with a configured minimum), so that only the tail requests are hedged. The number
+ * of hedged requests is capped by a budget which is earned as a fraction of the server requests sent, so that hedging
+ * cannot amplify the load when all the servers are slow.
+ */
+@ThreadSafe
+public class QueryHedger {
+  // Number of the most recent server response latencies used to compute the hedge delay
+  static final int NUM_LATENCY_SAMPLES = 1024;
+  // Do not hedge until enough latencies are recorded, and re-compute the hedge delay every so many latencies
+  static final int MIN_LATENCY_SAMPLES = 64;
+  // Max number of hedged requests that can be issued in a burst
+  static final double MAX_BUDGET = 10;
+
+  /**
+   * Selects the replica server to send the hedged request to.
+   */
+  public interface ReplicaSelector {
+
+    /**
+     * Returns an enabled server instance other than the given instance which hosts all the given segments of the given
+     * table, or {@code null} if there is no such instance.
+     */
+    @Nullable
+    ServerInstance getReplica(String tableNameWithType, String instanceId, List<String> segments);
+  }
+
+  private final ReplicaSelector _replicaSelector;
+  private final double _delayPercentile;
+  private final long _minDelayMs;
+  private final double _budgetRatio;
+  // The scheduler is only used to time the hedge tasks, which are run by the sender executor because sending the
+  // hedged requests can block (e.g. acquiring the channel lock, or connecting to the replica)
+  private final ScheduledExecutorService _scheduler;
+  private final ExecutorService _senderExecutorService;
+
+  // Ring buffer of the recent server response latencies, guarded by _latencies
+  private final int[] _latencies = new int[NUM_LATENCY_SAMPLES];
+  private long _numLatencies;
+  private volatile long _delayMs = Long.MAX_VALUE;
+
+  // Guarded by this
+  private double _budget;
+
+  public QueryHedger(PinotConfiguration config, ReplicaSelector replicaSelector) {
+    this(replicaSelector, config.getProperty(Broker.CONFIG_OF_HEDGED_REQUEST_DELAY_PERCENTILE,
+            Broker.DEFAULT_HEDGED_REQUEST_DELAY_PERCENTILE),
+        config.getProperty(Broker.CONFIG_OF_HEDGED_REQUEST_MIN_DELAY_MS, Broker.DEFAULT_HEDGED_REQUEST_MIN_DELAY_MS),
+        config.getProperty(Broker.CONFIG_OF_HEDGED_REQUEST_BUDGET_RATIO, Broker.DEFAULT_HEDGED_REQUEST_BUDGET_RATIO));
+  }
+
+  public QueryHedger(ReplicaSelector replicaSelector, double delayPercentile, long minDelayMs, double budgetRatio) {
+    Preconditions.checkArgument(delayPercentile > 0 && delayPercentile <= 100,
+        "Hedged request delay percentile must be in (0, 100], got: %s", delayPercentile);
+    Preconditions.checkArgument(minDelayMs >= 0, "Hedged request min delay must be non-negative, got: %s", minDelayMs);
+    Preconditions.checkArgument(budgetRatio >= 0, "Hedged request budget ratio must be non-negative, got: %s",
+        budgetRatio);
+    _replicaSelector = replicaSelector;
+    _delayPercentile = delayPercentile;
+    _minDelayMs = minDelayMs;
+    _budgetRatio = budgetRatio;
+    _scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "query-hedger");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // NOTE: The number of concurrent hedge tasks is bounded by the hedge budget
+    _senderExecutorService = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("query-hedger-sender-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Returns the delay after which the requests not responded should be hedged, or {@link Long#MAX_VALUE} if there are
+   * not enough latencies recorded yet.
+   */
+  public long getDelayMs() {
+    return _delayMs;
+  }
+
+  /**
+   * Records the response latency of a server request.
+   */
+  public void recordLatency(long latencyMs) {
+    synchronized (_latencies) {
+      _latencies[(int) (_numLatencies % NUM_LATENCY_SAMPLES)] = (int) Math.min(latencyMs, Integer.MAX_VALUE);
+      _numLatencies++;
+      if (_numLatencies % MIN_LATENCY_SAMPLES == 0) {
+        int numSamples = (int) Math.min(_numLatencies, NUM_LATENCY_SAMPLES);
+        int[] sortedLatencies = Arrays.copyOf(_latencies, numSamples);
+        Arrays.sort(sortedLatencies);
+        int index = (int) Math.ceil(numSamples * _delayPercentile / 100) - 1;
+        _delayMs = Math.max(sortedLatencies[Math.max(index, 0)], _minDelayMs);
+      }
+    }
+  }
+
+  /**
+   * Earns the budget for the given number of server requests sent.
+   */
+  public synchronized void recordRequests(int numRequests) {
+    _budget = Math.min(_budget + numRequests * _budgetRatio, MAX_BUDGET);
+  }
+
+  /**
+   * Consumes the budget for one hedged request, returns {@code false} if the budget is exhausted.
+   */
+  public synchronized boolean tryAcquire() {
+    if (_budget >= 1) {
+      _budget--;
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  @Nullable
+  public ServerInstance getReplica(String tableNameWithType, String instanceId, List<String> segments) {
+    return _replicaSelector.getReplica(tableNameWithType, instanceId, segments);
+  }
+
+  /**
+   * Schedules the hedge task to run after the given delay. The hedge tasks are timed by a single scheduler thread, and
+   * run on the sender threads so that a blocking send does not delay the hedge tasks of the other queries.
+   */
+  public ScheduledFuture<?> schedule(Runnable hedgeTask, long delayMs) {
+    return _scheduler.schedule(() -> _senderExecutorService.execute(hedgeTask), delayMs, TimeUnit.MILLISECONDS);
+  }
+
+  public void shutDown() {
+    _scheduler.shutdownNow();
+    _senderExecutorService.shutdownNow();
+  }
+}
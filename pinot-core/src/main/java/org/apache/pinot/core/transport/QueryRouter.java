@@ -23,6 +23,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.collections4.CollectionUtils;
@@ -39,6 +41,7 @@ import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.transport.server.routing.stats.ServerRoutingStatsManager;
 import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +61,11 @@ public class QueryRouter {
   private final ServerChannels _serverChannelsTls;
   private final ConcurrentHashMap<Long, AsyncQueryResponse> _asyncQueryResponseMap = new ConcurrentHashMap<>();
   private final ServerRoutingStatsManager _serverRoutingStatsManager;
+  private final QueryHedger _queryHedger;
+  // Hedged requests use negative request ids so that they never collide with the broker request ids, and the responses
+  // can be mapped back to the original server requests
+  private final AtomicLong _hedgedRequestIdGenerator = new AtomicLong();
+  private final ConcurrentHashMap<Long, HedgedRequest> _hedgedRequestMap = new ConcurrentHashMap<>();
 
   /**
    * Creates an unsecured query router.
@@ -80,11 +88,28 @@ public class QueryRouter {
    */
   public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, @Nullable NettyConfig nettyConfig,
       @Nullable TlsConfig tlsConfig, ServerRoutingStatsManager serverRoutingStatsManager) {
+    this(brokerId, brokerMetrics, nettyConfig, tlsConfig, serverRoutingStatsManager, null);
+  }
+
+  /**
+   * Creates a query router with TLS config, and sends hedged requests for the slow servers if the query hedger is
+   * provided.
+   *
+   * @param brokerId broker id
+   * @param brokerMetrics broker metrics
+   * @param nettyConfig configurations for netty library
+   * @param tlsConfig TLS config
+   * @param queryHedger query hedger, or {@code null} to disable hedged requests
+   */
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, @Nullable NettyConfig nettyConfig,
+      @Nullable TlsConfig tlsConfig, ServerRoutingStatsManager serverRoutingStatsManager,
+      @Nullable QueryHedger queryHedger) {
     _brokerId = brokerId;
     _brokerMetrics = brokerMetrics;
     _serverChannels = new ServerChannels(this, brokerMetrics, nettyConfig, null);
     _serverChannelsTls = tlsConfig != null ? new ServerChannels(this, brokerMetrics, nettyConfig, tlsConfig) : null;
     _serverRoutingStatsManager = serverRoutingStatsManager;
+    _queryHedger = queryHedger;
   }
 
   public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
@@ -92,6 +117,20 @@ public class QueryRouter {
       @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest,
       @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable, long timeoutMs) {
+    return submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
+        realtimeRoutingTable, timeoutMs, null);
+  }
+
+  /**
+   * Submits the query to the servers. The optional data table listener is invoked for each received server response
+   * (see {@link AsyncQueryResponse}).
+   */
+  public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
+      @Nullable BrokerRequest offlineBrokerRequest,
+      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> offlineRoutingTable,
+      @Nullable BrokerRequest realtimeBrokerRequest,
+      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable, long timeoutMs,
+      @Nullable BiConsumer<ServerRoutingInstance, DataTable> dataTableListener) {
     assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
 
     // can prefer but not require TLS until all servers guaranteed to be on TLS
@@ -124,7 +163,7 @@ public class QueryRouter {
     // Create the asynchronous query response with the request map
     AsyncQueryResponse asyncQueryResponse =
         new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs,
-            _serverRoutingStatsManager);
+            _serverRoutingStatsManager, dataTableListener);
     _asyncQueryResponseMap.put(requestId, asyncQueryResponse);
     for (Map.Entry<ServerRoutingInstance, InstanceRequest> entry : requestMap.entrySet()) {
       ServerRoutingInstance serverRoutingInstance = entry.getKey();
@@ -150,9 +189,77 @@ public class QueryRouter {
       }
     }
 
+    if (_queryHedger != null && asyncQueryResponse.getStatus() == QueryResponse.Status.IN_PROGRESS) {
+      _queryHedger.recordRequests(requestMap.size());
+      long hedgeDelayMs = _queryHedger.getDelayMs();
+      if (hedgeDelayMs < timeoutMs) {
+        asyncQueryResponse.setHedgeFuture(_queryHedger.schedule(
+            () -> sendHedgedRequests(rawTableName, asyncQueryResponse, requestMap, timeoutMs - hedgeDelayMs),
+            hedgeDelayMs));
+      }
+    }
+
     return asyncQueryResponse;
   }
 
+  /**
+   * Sends the same segments to another replica for each server not responded yet, as long as the hedge budget allows.
+   * The response from the hedged request is used for the original server, and only the first response is used. The
+   * routing stats of the hedged request are recorded for the replica.
+   * <p>NOTE: Only servers whose segments are all hosted by another single replica can be hedged.
+   */
+  private void sendHedgedRequests(String rawTableName, AsyncQueryResponse asyncQueryResponse,
+      Map<ServerRoutingInstance, InstanceRequest> requestMap, long remainingTimeMs) {
+    for (Map.Entry<ServerRoutingInstance, InstanceRequest> entry : requestMap.entrySet()) {
+      if (asyncQueryResponse.getStatus() != QueryResponse.Status.IN_PROGRESS) {
+        return;
+      }
+      ServerRoutingInstance serverRoutingInstance = entry.getKey();
+      if (asyncQueryResponse.hasResponded(serverRoutingInstance)) {
+        continue;
+      }
+      InstanceRequest instanceRequest = entry.getValue();
+      TableType tableType = serverRoutingInstance.getTableType();
+      ServerInstance replica;
+      try {
+        replica = _queryHedger.getReplica(TableNameBuilder.forType(tableType).tableNameWithType(rawTableName),
+            serverRoutingInstance.getInstanceId(), instanceRequest.getSearchSegments());
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while looking up replica for server: {}, request: {}", serverRoutingInstance,
+            asyncQueryResponse.getRequestId(), e);
+        continue;
+      }
+      if (replica == null) {
+        continue;
+      }
+      if (!_queryHedger.tryAcquire()) {
+        return;
+      }
+      long hedgedRequestId = -_hedgedRequestIdGenerator.incrementAndGet();
+      _hedgedRequestMap.put(hedgedRequestId,
+          new HedgedRequest(rawTableName, asyncQueryResponse, serverRoutingInstance));
+      if (!asyncQueryResponse.addHedgedRequestId(hedgedRequestId)) {
+        _hedgedRequestMap.remove(hedgedRequestId);
+        return;
+      }
+      ServerRoutingInstance replicaRoutingInstance =
+          replica.toServerRoutingInstance(tableType, serverRoutingInstance.isTlsEnabled());
+      ServerChannels serverChannels = replicaRoutingInstance.isTlsEnabled() ? _serverChannelsTls : _serverChannels;
+      asyncQueryResponse.markHedgedRequestSubmitted(serverRoutingInstance, replicaRoutingInstance);
+      try {
+        serverChannels.sendRequest(rawTableName, asyncQueryResponse, replicaRoutingInstance,
+            getHedgedInstanceRequest(hedgedRequestId, instanceRequest), remainingTimeMs);
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUESTS_ISSUED, 1);
+      } catch (Exception e) {
+        // Failing to send the hedged request should not fail the query
+        LOGGER.warn("Caught exception while sending hedged request {} for request {} to server: {}", hedgedRequestId,
+            asyncQueryResponse.getRequestId(), replicaRoutingInstance, e);
+        _hedgedRequestMap.remove(hedgedRequestId);
+        asyncQueryResponse.markHedgedRequestFailed(serverRoutingInstance);
+      }
+    }
+  }
+
   private boolean isSkipUnavailableServers(@Nullable BrokerRequest offlineBrokerRequest,
       @Nullable BrokerRequest realtimeBrokerRequest) {
     if (offlineBrokerRequest != null && QueryOptionsUtils.isSkipUnavailableServers(
@@ -188,17 +295,38 @@ public class QueryRouter {
   }
 
   public void shutDown() {
+    if (_queryHedger != null) {
+      _queryHedger.shutDown();
+    }
     _serverChannels.shutDown();
   }
 
   void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
       int deserializationTimeMs) {
     long requestId = Long.parseLong(dataTable.getMetadata().get(MetadataKey.REQUEST_ID.getName()));
+    if (requestId < 0) {
+      receiveHedgedDataTable(requestId, dataTable, responseSize, deserializationTimeMs);
+      return;
+    }
     AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.get(requestId);
 
     // Query future might be null if the query is already done (maybe due to failure)
     if (asyncQueryResponse != null) {
-      asyncQueryResponse.receiveDataTable(serverRoutingInstance, dataTable, responseSize, deserializationTimeMs);
+      if (asyncQueryResponse.receiveDataTable(serverRoutingInstance, dataTable, responseSize, deserializationTimeMs)
+          && _queryHedger != null) {
+        _queryHedger.recordLatency(asyncQueryResponse.getServerResponseDelayMs(serverRoutingInstance));
+      }
+    }
+  }
+
+  private void receiveHedgedDataTable(long hedgedRequestId, DataTable dataTable, int responseSize,
+      int deserializationTimeMs) {
+    HedgedRequest hedgedRequest = _hedgedRequestMap.get(hedgedRequestId);
+
+    // Hedged request might be null if the query is already done
+    if (hedgedRequest != null && hedgedRequest._asyncQueryResponse.receiveHedgedDataTable(
+        hedgedRequest._serverRoutingInstance, dataTable, responseSize, deserializationTimeMs)) {
+      _brokerMetrics.addMeteredTableValue(hedgedRequest._rawTableName, BrokerMeter.HEDGED_REQUESTS_WON, 1);
     }
   }
 
@@ -212,6 +340,10 @@ public class QueryRouter {
     _asyncQueryResponseMap.remove(requestId);
   }
 
+  void markHedgedRequestDone(long hedgedRequestId) {
+    _hedgedRequestMap.remove(hedgedRequestId);
+  }
+
   private InstanceRequest getInstanceRequest(long requestId, BrokerRequest brokerRequest,
       Pair<List<String>, List<String>> segments) {
     InstanceRequest instanceRequest = new InstanceRequest();
@@ -231,4 +363,30 @@ public class QueryRouter {
     }
     return instanceRequest;
   }
+
+  private InstanceRequest getHedgedInstanceRequest(long hedgedRequestId, InstanceRequest instanceRequest) {
+    InstanceRequest hedgedInstanceRequest = new InstanceRequest();
+    hedgedInstanceRequest.setRequestId(hedgedRequestId);
+    hedgedInstanceRequest.setQuery(instanceRequest.getQuery());
+    hedgedInstanceRequest.setEnableTrace(instanceRequest.isEnableTrace());
+    hedgedInstanceRequest.setSearchSegments(instanceRequest.getSearchSegments());
+    hedgedInstanceRequest.setBrokerId(instanceRequest.getBrokerId());
+    if (instanceRequest.isSetOptionalSegments()) {
+      hedgedInstanceRequest.setOptionalSegments(instanceRequest.getOptionalSegments());
+    }
+    return hedgedInstanceRequest;
+  }
+
+  private static class HedgedRequest {
+    final String _rawTableName;
+    final AsyncQueryResponse _asyncQueryResponse;
+    final ServerRoutingInstance _serverRoutingInstance;
+
+    HedgedRequest(String rawTableName, AsyncQueryResponse asyncQueryResponse,
+        ServerRoutingInstance serverRoutingInstance) {
+      _rawTableName = rawTableName;
+      _asyncQueryResponse = asyncQueryResponse;
+      _serverRoutingInstance = serverRoutingInstance;
+    }
+  }
 }
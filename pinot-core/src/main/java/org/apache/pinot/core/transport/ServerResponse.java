@@ -35,6 +35,7 @@ public class ServerResponse {
   private volatile DataTable _dataTable;
   private volatile int _responseSize;
   private volatile int _deserializationTimeMs;
+  private volatile boolean _fromHedgedRequest;
 
   public ServerResponse(long startTimeMs) {
     _startTimeMs = startTimeMs;
@@ -93,10 +94,26 @@ public class ServerResponse {
     _requestSentLatencyMs = requestSentLatencyMs;
   }
 
-  void receiveDataTable(DataTable dataTable, int responseSize, int deserializationTimeMs) {
+  /**
+   * Returns whether the data table is received from the hedged request sent to another replica.
+   */
+  boolean isFromHedgedRequest() {
+    return _fromHedgedRequest;
+  }
+
+  /**
+   * Returns {@code false} if a data table has already been received, which can happen when the request is hedged.
+   */
+  synchronized boolean receiveDataTable(DataTable dataTable, int responseSize, int deserializationTimeMs,
+      boolean fromHedgedRequest) {
+    if (_dataTable != null) {
+      return false;
+    }
     _receiveDataTableTimeMs = System.currentTimeMillis();
     _dataTable = dataTable;
     _responseSize = responseSize;
     _deserializationTimeMs = deserializationTimeMs;
+    _fromHedgedRequest = fromHedgedRequest;
+    return true;
   }
 }
@@ -18,6 +18,17 @@
  */
 package org.apache.pinot.core.util;
 
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.data.table.IntKeyIndexedTable;
+import org.apache.pinot.core.data.table.IntPairKeyIndexedTable;
+import org.apache.pinot.core.data.table.LongKeyIndexedTable;
+import org.apache.pinot.core.data.table.PrimitiveIndexedTable;
+import org.apache.pinot.core.data.table.SimpleIndexedTable;
+import org.apache.pinot.core.data.table.StringKeyIndexedTable;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
 public final class GroupByUtils {
   private GroupByUtils() {
   }
@@ -40,4 +51,39 @@ public final class GroupByUtils {
   public static int getTableCapacity(int limit, int minNumGroups) {
     return Math.max(limit * 5, minNumGroups);
   }
+
+  /**
+   * Creates a non thread safe {@link IndexedTable} for the given data schema. Returns a {@link PrimitiveIndexedTable}
+   * when the group keys and the aggregations fit in the primitive arrays, or a {@link SimpleIndexedTable} otherwise.
+   * <p>The {@link PrimitiveIndexedTable} supports:
+   * <ul>
+   *   <li>Group keys: single INT/LONG/STRING key, or two INT keys</li>
+   *   <li>Aggregations: SUM/COUNT/MIN/MAX with intermediate input and null handling disabled</li>
+   * </ul>
+   */
+  public static IndexedTable createIndexedTable(DataSchema dataSchema, boolean hasFinalInput,
+      QueryContext queryContext, int resultSize, int trimSize, int trimThreshold) {
+    if (!hasFinalInput && !queryContext.isNullHandlingEnabled() && PrimitiveIndexedTable.isSupportedAggregations(
+        dataSchema, queryContext)) {
+      ColumnDataType[] storedColumnDataTypes = dataSchema.getStoredColumnDataTypes();
+      assert queryContext.getGroupByExpressions() != null;
+      int numKeyColumns = queryContext.getGroupByExpressions().size();
+      if (numKeyColumns == 1) {
+        switch (storedColumnDataTypes[0]) {
+          case INT:
+            return new IntKeyIndexedTable(dataSchema, queryContext, resultSize, trimSize, trimThreshold);
+          case LONG:
+            return new LongKeyIndexedTable(dataSchema, queryContext, resultSize, trimSize, trimThreshold);
+          case STRING:
+            return new StringKeyIndexedTable(dataSchema, queryContext, resultSize, trimSize, trimThreshold);
+          default:
+            break;
+        }
+      } else if (numKeyColumns == 2 && storedColumnDataTypes[0] == ColumnDataType.INT
+          && storedColumnDataTypes[1] == ColumnDataType.INT) {
+        return new IntPairKeyIndexedTable(dataSchema, queryContext, resultSize, trimSize, trimThreshold);
+      }
+    }
+    return new SimpleIndexedTable(dataSchema, hasFinalInput, queryContext, resultSize, trimSize, trimThreshold);
+  }
 }
@@ -24,14 +24,22 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import org.apache.pinot.common.datablock.ColumnarDataBlock;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datablock.DataBlockEquals;
 import org.apache.pinot.common.datablock.DataBlockSerde;
 import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.datablock.RowDataBlock;
 import org.apache.pinot.common.datablock.ZeroCopyDataBlockSerde;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.roaringbitmap.RoaringBitmap;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
 
 public class DataBlockSerdeTest {
 
@@ -84,4 +92,68 @@ public class DataBlockSerdeTest {
     DataBlockEquals.checkSameContent(deserializedDataBlock, dataBlock,
         "Unexpected value after serialization and deserialization");
   }
+
+  @Test(dataProvider = "nullPercentiles")
+  public void testSerdeColumnarFromRowsZero(int nullPercentile)
+      throws IOException {
+    DataBlockUtils.setSerde(DataBlockSerde.Version.V1_V2, new ZeroCopyDataBlockSerde());
+    DataSchema dataSchema = getAllDataTypesSchema();
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, 1000, nullPercentile);
+
+    ColumnarDataBlock dataBlock = DataBlockBuilder.buildColumnarFromRows(rows, dataSchema);
+    List<ByteBuffer> serialize = DataBlockUtils.serialize(DataBlockSerde.Version.V1_V2, dataBlock);
+    DataBlock deserializedDataBlock = DataBlockUtils.deserialize(serialize);
+    assertTrue(deserializedDataBlock instanceof ColumnarDataBlock);
+    assertEquals(deserializedDataBlock.getNumberOfRows(), rows.size());
+    assertEquals(deserializedDataBlock.getDataSchema(), dataSchema);
+
+    // Compare with the blocks built from the transposed columns and from the rows
+    DataBlock columnsDataBlock =
+        DataBlockBuilder.buildFromColumns(DataBlockTestUtils.convertColumnar(dataSchema, rows), dataSchema);
+    RowDataBlock rowDataBlock = DataBlockBuilder.buildFromRows(rows, dataSchema);
+    int numRows = rows.size();
+    for (int colId = 0; colId < dataSchema.size(); colId++) {
+      ColumnDataType columnDataType = dataSchema.getColumnDataType(colId);
+      RoaringBitmap nullBitmap = deserializedDataBlock.getNullRowIds(colId);
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        assertEquals(nullBitmap != null && nullBitmap.contains(rowId), rows.get(rowId)[colId] == null);
+        Object value = DataBlockTestUtils.getElement(deserializedDataBlock, rowId, colId, columnDataType);
+        assertEquals(value, DataBlockTestUtils.getElement(columnsDataBlock, rowId, colId, columnDataType));
+        assertEquals(value, DataBlockTestUtils.getElement(rowDataBlock, rowId, colId, columnDataType));
+      }
+    }
+  }
+
+  @Test
+  public void testSerdeEmptyColumnarFromRowsZero()
+      throws IOException {
+    DataBlockUtils.setSerde(DataBlockSerde.Version.V1_V2, new ZeroCopyDataBlockSerde());
+    DataSchema dataSchema = getAllDataTypesSchema();
+
+    ColumnarDataBlock dataBlock = DataBlockBuilder.buildColumnarFromRows(Collections.emptyList(), dataSchema);
+    DataBlock deserializedDataBlock =
+        DataBlockUtils.deserialize(DataBlockUtils.serialize(DataBlockSerde.Version.V1_V2, dataBlock));
+    assertTrue(deserializedDataBlock instanceof ColumnarDataBlock);
+    assertEquals(deserializedDataBlock.getNumberOfRows(), 0);
+    assertEquals(deserializedDataBlock.getDataSchema(), dataSchema);
+  }
+
+  @DataProvider(name = "nullPercentiles")
+  public Object[][] nullPercentiles() {
+    return new Object[][]{new Object[]{0}, new Object[]{10}, new Object[]{100}};
+  }
+
+  private static DataSchema getAllDataTypesSchema() {
+    List<String> columnNames = new ArrayList<>();
+    List<ColumnDataType> columnDataTypes = new ArrayList<>();
+    for (ColumnDataType columnDataType : ColumnDataType.values()) {
+      // Same types as DataBlockTest, the random rows cannot be compared for these
+      if (columnDataType != ColumnDataType.OBJECT && columnDataType != ColumnDataType.JSON
+          && columnDataType != ColumnDataType.BYTES && columnDataType != ColumnDataType.BYTES_ARRAY) {
+        columnNames.add(columnDataType.name());
+        columnDataTypes.add(columnDataType);
+      }
+    }
+    return new DataSchema(columnNames.toArray(new String[0]), columnDataTypes.toArray(new ColumnDataType[0]));
+  }
 }
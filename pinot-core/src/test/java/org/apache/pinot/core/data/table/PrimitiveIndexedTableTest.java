@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.util.GroupByUtils;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests the {@link PrimitiveIndexedTable} against the {@link SimpleIndexedTable}.
+ */
+public class PrimitiveIndexedTableTest {
+  private static final int NUM_RECORDS = 5000;
+  private static final int CARDINALITY = 300;
+  private static final int RESULT_SIZE = 50;
+  private static final int TRIM_SIZE = 100;
+  private static final int TRIM_THRESHOLD = 200;
+  private static final String AGGREGATIONS = "SUM(m1), COUNT(*), MIN(m2), MAX(m2)";
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+
+  @DataProvider
+  public Object[][] keyShapes() {
+    return new Object[][]{
+        new Object[]{"d1", new ColumnDataType[]{ColumnDataType.INT}, IntKeyIndexedTable.class,
+            (Function<Random, Object[]>) random -> new Object[]{random.nextInt(CARDINALITY) - CARDINALITY / 2}},
+        new Object[]{"d1", new ColumnDataType[]{ColumnDataType.LONG}, LongKeyIndexedTable.class,
+            (Function<Random, Object[]>) random -> new Object[]{(long) random.nextInt(CARDINALITY) << 33}},
+        new Object[]{"d1", new ColumnDataType[]{ColumnDataType.STRING}, StringKeyIndexedTable.class,
+            (Function<Random, Object[]>) random -> new Object[]{"k" + random.nextInt(CARDINALITY)}},
+        new Object[]{"d1, d2", new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.INT},
+            IntPairKeyIndexedTable.class, (Function<Random, Object[]>) random -> new Object[]{
+            random.nextInt(CARDINALITY / 10) - 5, -random.nextInt(10)}
+        }
+    };
+  }
+
+  @Test(dataProvider = "keyShapes")
+  public void testUpsert(String groupBy, ColumnDataType[] keyTypes, Class<?> tableClass,
+      Function<Random, Object[]> keyGenerator) {
+    for (QueryContext queryContext : getQueryContexts(groupBy)) {
+      DataSchema dataSchema = getDataSchema(keyTypes);
+      IndexedTable indexedTable =
+          GroupByUtils.createIndexedTable(dataSchema, false, queryContext, TRIM_SIZE, TRIM_SIZE, TRIM_THRESHOLD);
+      assertEquals(indexedTable.getClass(), tableClass);
+      IndexedTable expectedTable =
+          new SimpleIndexedTable(dataSchema, queryContext, TRIM_SIZE, TRIM_SIZE, TRIM_THRESHOLD);
+      upsertRecords(new Random(RANDOM_SEED), keyGenerator, indexedTable, expectedTable);
+      assertEquals(indexedTable.size(), expectedTable.size());
+      assertEquals(indexedTable.getNumResizes(), expectedTable.getNumResizes());
+
+      indexedTable.finish(true);
+      expectedTable.finish(true);
+      assertEquals(getValues(indexedTable), getValues(expectedTable),
+          "Random seed: " + RANDOM_SEED + ", query: " + queryContext);
+    }
+  }
+
+  @Test(dataProvider = "keyShapes")
+  public void testMerge(String groupBy, ColumnDataType[] keyTypes, Class<?> tableClass,
+      Function<Random, Object[]> keyGenerator) {
+    // NOTE: Do not trim the table while merging because the records to trim depend on the merge order
+    int trimThreshold = NUM_RECORDS * 3;
+    for (QueryContext queryContext : getQueryContexts(groupBy)) {
+      DataSchema dataSchema = getDataSchema(keyTypes);
+      Random random = new Random(RANDOM_SEED);
+      IndexedTable[] indexedTables = new IndexedTable[3];
+      IndexedTable[] expectedTables = new IndexedTable[3];
+      for (int i = 0; i < 3; i++) {
+        indexedTables[i] =
+            GroupByUtils.createIndexedTable(dataSchema, false, queryContext, TRIM_SIZE, TRIM_SIZE, trimThreshold);
+        assertEquals(indexedTables[i].getClass(), tableClass);
+        expectedTables[i] = new SimpleIndexedTable(dataSchema, queryContext, TRIM_SIZE, TRIM_SIZE, trimThreshold);
+        upsertRecords(random, keyGenerator, indexedTables[i], expectedTables[i]);
+      }
+
+      // Merge unfinished table
+      indexedTables[0].mergeIndexedTable(indexedTables[1]);
+      expectedTables[0].mergeIndexedTable(expectedTables[1]);
+      assertEquals(indexedTables[0].size(), expectedTables[0].size());
+
+      // Merge finished table
+      indexedTables[2].finish(false);
+      expectedTables[2].finish(false);
+      indexedTables[0].mergeIndexedTable(indexedTables[2]);
+      expectedTables[0].mergeIndexedTable(expectedTables[2]);
+
+      indexedTables[0].finish(true);
+      expectedTables[0].finish(true);
+      assertEquals(getValues(indexedTables[0]), getValues(expectedTables[0]),
+          "Random seed: " + RANDOM_SEED + ", query: " + queryContext);
+    }
+  }
+
+  @Test
+  public void testUnsupportedShapes() {
+    // Unsupported key type
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT d1, SUM(m1) FROM testTable GROUP BY d1");
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "sum(m1)"},
+        new ColumnDataType[]{ColumnDataType.DOUBLE, ColumnDataType.DOUBLE});
+    assertTrue(GroupByUtils.createIndexedTable(dataSchema, false, queryContext, 10, 10, 20)
+        instanceof SimpleIndexedTable);
+
+    // Unsupported aggregation
+    queryContext = QueryContextConverterUtils.getQueryContext("SELECT d1, AVG(m1) FROM testTable GROUP BY d1");
+    dataSchema = new DataSchema(new String[]{"d1", "avg(m1)"},
+        new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.OBJECT});
+    assertTrue(GroupByUtils.createIndexedTable(dataSchema, false, queryContext, 10, 10, 20)
+        instanceof SimpleIndexedTable);
+
+    // Final input
+    queryContext = QueryContextConverterUtils.getQueryContext("SELECT d1, SUM(m1) FROM testTable GROUP BY d1");
+    dataSchema = new DataSchema(new String[]{"d1", "sum(m1)"},
+        new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.DOUBLE});
+    assertTrue(GroupByUtils.createIndexedTable(dataSchema, true, queryContext, 10, 10, 20)
+        instanceof SimpleIndexedTable);
+
+    // Null handling enabled
+    queryContext = QueryContextConverterUtils.getQueryContext(
+        "SET enableNullHandling = true; SELECT d1, SUM(m1) FROM testTable GROUP BY d1");
+    assertTrue(GroupByUtils.createIndexedTable(dataSchema, false, queryContext, 10, 10, 20)
+        instanceof SimpleIndexedTable);
+
+    // Three group keys
+    queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT SUM(m1) FROM testTable GROUP BY d1, d2, d3");
+    dataSchema = new DataSchema(new String[]{"d1", "d2", "d3", "sum(m1)"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.INT, ColumnDataType.INT, ColumnDataType.DOUBLE
+    });
+    assertTrue(GroupByUtils.createIndexedTable(dataSchema, false, queryContext, 10, 10, 20)
+        instanceof SimpleIndexedTable);
+  }
+
+  private static List<QueryContext> getQueryContexts(String groupBy) {
+    List<QueryContext> queryContexts = new ArrayList<>();
+    for (String orderBy : new String[]{"", " ORDER BY SUM(m1) DESC", " ORDER BY d1 DESC, SUM(m1)"}) {
+      queryContexts.add(QueryContextConverterUtils.getQueryContext(
+          "SELECT " + groupBy + ", " + AGGREGATIONS + " FROM testTable GROUP BY " + groupBy + orderBy + " LIMIT "
+              + RESULT_SIZE));
+    }
+    return queryContexts;
+  }
+
+  private static void upsertRecords(Random random, Function<Random, Object[]> keyGenerator,
+      IndexedTable indexedTable, IndexedTable expectedTable) {
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      Record record = getRecord(random, keyGenerator);
+      // Alternate between the record and the raw values
+      if (i % 2 == 0) {
+        indexedTable.upsert(record);
+      } else {
+        Object[] values = record.getValues();
+        indexedTable.upsert(Arrays.copyOf(values, indexedTable._numKeyColumns), values);
+      }
+      expectedTable.upsert(new Record(record.getValues().clone()));
+    }
+  }
+
+  private static DataSchema getDataSchema(ColumnDataType[] keyTypes) {
+    int numKeys = keyTypes.length;
+    String[] columnNames = new String[numKeys + 4];
+    ColumnDataType[] columnDataTypes = new ColumnDataType[numKeys + 4];
+    for (int i = 0; i < numKeys; i++) {
+      columnNames[i] = "d" + (i + 1);
+      columnDataTypes[i] = keyTypes[i];
+    }
+    System.arraycopy(new String[]{"sum(m1)", "count(*)", "min(m2)", "max(m2)"}, 0, columnNames, numKeys, 4);
+    System.arraycopy(new ColumnDataType[]{
+        ColumnDataType.DOUBLE, ColumnDataType.LONG, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE
+    }, 0, columnDataTypes, numKeys, 4);
+    return new DataSchema(columnNames, columnDataTypes);
+  }
+
+  private static Record getRecord(Random random, Function<Random, Object[]> keyGenerator) {
+    Object[] keys = keyGenerator.apply(random);
+    Object[] values = Arrays.copyOf(keys, keys.length + 4);
+    values[keys.length] = random.nextDouble() * 1000 - 500;
+    values[keys.length + 1] = (long) random.nextInt(10);
+    values[keys.length + 2] = (double) random.nextInt(1000);
+    values[keys.length + 3] = (double) random.nextInt(1000);
+    return new Record(values);
+  }
+
+  private static Object getValues(IndexedTable indexedTable) {
+    List<List<Object>> values = new ArrayList<>(indexedTable.size());
+    Iterator<Record> iterator = indexedTable.iterator();
+    while (iterator.hasNext()) {
+      values.add(Arrays.asList(iterator.next().getValues()));
+    }
+    if (indexedTable._hasOrderBy) {
+      return values;
+    }
+    // Records are not ordered without ORDER BY
+    Set<List<Object>> valueSet = new HashSet<>(values);
+    assertEquals(valueSet.size(), values.size());
+    return valueSet;
+  }
+}
@@ -107,6 +107,17 @@ public class CombineSlowOperatorsTest {
     testCombineOperator(operators, combineOperator);
   }
 
+  @Test
+  public void testPartitionedGroupByCombineOperator() {
+    List<Operator> operators = getOperators();
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT COUNT(*) FROM testTable GROUP BY column");
+    queryContext.setEndTimeMs(System.currentTimeMillis() + TIMEOUT_MS);
+    PartitionedGroupByCombineOperator combineOperator =
+        new PartitionedGroupByCombineOperator(operators, queryContext, _executorService);
+    testCombineOperator(operators, combineOperator);
+  }
+
   @Test
   public void testCancelSelectionOnlyCombineOperator() {
     // Just need to wait for one operator to start running.
@@ -172,6 +183,18 @@ public class CombineSlowOperatorsTest {
     testCancelCombineOperator(combineOperator, ready);
   }
 
+  @Test
+  public void testCancelPartitionedGroupByCombineOperator() {
+    CountDownLatch ready = new CountDownLatch(1);
+    List<Operator> operators = getOperators(ready, null);
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT COUNT(*) FROM testTable GROUP BY column");
+    queryContext.setEndTimeMs(System.currentTimeMillis() + 10000);
+    PartitionedGroupByCombineOperator combineOperator =
+        new PartitionedGroupByCombineOperator(operators, queryContext, _executorService);
+    testCancelCombineOperator(combineOperator, ready);
+  }
+
   private void testCancelCombineOperator(BaseCombineOperator combineOperator, CountDownLatch ready) {
     AtomicReference<Exception> exp = new AtomicReference<>();
     // Avoid early finalization by not using Executors.newSingleThreadExecutor (java <= 20, JDK-8145304)
@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.combine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.data.table.IntermediateRecord;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.data.table.Table;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+@SuppressWarnings("rawtypes")
+public class PartitionedGroupByCombineOperatorTest {
+  private static final int NUM_OPERATORS = 8;
+  private static final int NUM_THREADS = 4;
+  private static final int NUM_GROUPS = 1000;
+  private static final DataSchema DATA_SCHEMA =
+      new DataSchema(new String[]{"column", "count(*)"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.LONG});
+
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    _executorService = Executors.newFixedThreadPool(NUM_THREADS);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  @Test
+  public void testGroupByWithoutOrderByLimitBelowNumGroups() {
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT column, COUNT(*) FROM testTable GROUP BY column LIMIT 10");
+    Table table = combine(queryContext);
+
+    // Each group must be aggregated across all the operators even though the worker threads see the groups in
+    // different orders
+    assertTrue(table.size() > 0 && table.size() <= 10);
+    Iterator<Record> iterator = table.iterator();
+    while (iterator.hasNext()) {
+      assertEquals(iterator.next().getValues()[1], (long) NUM_OPERATORS);
+    }
+  }
+
+  @Test
+  public void testGroupByOrderByLimitBelowNumGroups() {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT column, COUNT(*) FROM testTable GROUP BY column ORDER BY column DESC LIMIT 10");
+    Table table = combine(queryContext);
+
+    List<Integer> keys = new ArrayList<>();
+    Iterator<Record> iterator = table.iterator();
+    while (iterator.hasNext()) {
+      Object[] values = iterator.next().getValues();
+      assertEquals(values[1], (long) NUM_OPERATORS);
+      keys.add((Integer) values[0]);
+    }
+    Collections.sort(keys);
+    assertTrue(keys.size() >= 10);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(keys.get(keys.size() - 1 - i), NUM_GROUPS - 1 - i);
+    }
+  }
+
+  private Table combine(QueryContext queryContext) {
+    queryContext.setEndTimeMs(System.currentTimeMillis() + 10_000L);
+    queryContext.setMaxExecutionThreads(NUM_THREADS);
+    // The first operators wait for each other so that every worker thread aggregates at least one operator
+    CountDownLatch allThreadsStarted = new CountDownLatch(NUM_THREADS);
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      operators.add(new GroupByOperator(queryContext, allThreadsStarted, i));
+    }
+    PartitionedGroupByCombineOperator combineOperator =
+        new PartitionedGroupByCombineOperator(operators, queryContext, _executorService);
+    GroupByResultsBlock resultsBlock = (GroupByResultsBlock) combineOperator.nextBlock();
+    assertNull(resultsBlock.getProcessingExceptions());
+    return resultsBlock.getTable();
+  }
+
+  /**
+   * Returns all the groups with count 1, in a different order for each operator.
+   */
+  private static class GroupByOperator extends BaseOperator<GroupByResultsBlock> {
+    private static final String EXPLAIN_NAME = "GROUP_BY";
+
+    private final QueryContext _queryContext;
+    private final CountDownLatch _allThreadsStarted;
+    private final int _seed;
+
+    GroupByOperator(QueryContext queryContext, CountDownLatch allThreadsStarted, int seed) {
+      _queryContext = queryContext;
+      _allThreadsStarted = allThreadsStarted;
+      _seed = seed;
+    }
+
+    @Override
+    protected GroupByResultsBlock getNextBlock() {
+      _allThreadsStarted.countDown();
+      try {
+        _allThreadsStarted.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      List<IntermediateRecord> intermediateRecords = new ArrayList<>(NUM_GROUPS);
+      for (int i = 0; i < NUM_GROUPS; i++) {
+        intermediateRecords.add(IntermediateRecord.create(new Key(new Object[]{i}), new Record(new Object[]{i, 1L})));
+      }
+      Collections.shuffle(intermediateRecords, new Random(_seed));
+      return new GroupByResultsBlock(DATA_SCHEMA, intermediateRecords, _queryContext);
+    }
+
+    @Override
+    public String toExplainString() {
+      return EXPLAIN_NAME;
+    }
+
+    @Override
+    public List<Operator> getChildOperators() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(0, 0, 0, 0);
+    }
+  }
+}
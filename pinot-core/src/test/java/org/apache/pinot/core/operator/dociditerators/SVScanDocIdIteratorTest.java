@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.request.context.RequestContextUtils;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.segment.local.io.writer.impl.FixedBitSVForwardIndexWriter;
+import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
+import org.apache.pinot.segment.spi.Constants;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+public class SVScanDocIdIteratorTest {
+  private static final File INDEX_FILE = new File(FileUtils.getTempDirectory(), "SVScanDocIdIteratorTest");
+  private static final int NUM_DOCS = 10007;
+  private static final int CARDINALITY = 10;
+  private static final int NUM_BITS_PER_VALUE = 4;
+  private static final Random RANDOM = new Random();
+
+  private final int[] _dictIds = new int[NUM_DOCS];
+  private Dictionary _dictionary;
+  private PinotDataBuffer _dataBuffer;
+  private FixedBitSVForwardIndexReaderV2 _reader;
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.deleteQuietly(INDEX_FILE);
+    try (FixedBitSVForwardIndexWriter indexWriter = new FixedBitSVForwardIndexWriter(INDEX_FILE, NUM_DOCS,
+        NUM_BITS_PER_VALUE)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        int dictId = RANDOM.nextInt(CARDINALITY);
+        _dictIds[i] = dictId;
+        indexWriter.putDictId(dictId);
+      }
+    }
+    _dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(INDEX_FILE);
+    _reader = new FixedBitSVForwardIndexReaderV2(_dataBuffer, NUM_DOCS, NUM_BITS_PER_VALUE);
+
+    // Sorted dictionary where value i has dictionary id i
+    _dictionary = mock(Dictionary.class);
+    when(_dictionary.length()).thenReturn(CARDINALITY);
+    when(_dictionary.isSorted()).thenReturn(true);
+    when(_dictionary.indexOf(anyString())).thenAnswer(invocation -> {
+      int value = Integer.parseInt(invocation.getArgument(0));
+      return value < CARDINALITY ? value : -1;
+    });
+    when(_dictionary.indexOf(anyInt())).thenAnswer(invocation -> {
+      int value = invocation.getArgument(0);
+      return value < CARDINALITY ? value : -1;
+    });
+    when(_dictionary.insertionIndexOf(anyString())).thenAnswer(invocation -> {
+      int value = Integer.parseInt(invocation.getArgument(0));
+      return value < CARDINALITY ? value : -(CARDINALITY + 1);
+    });
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    _dataBuffer.close();
+    FileUtils.deleteQuietly(INDEX_FILE);
+  }
+
+  @DataProvider
+  public static Object[][] filters() {
+    return new Object[][]{
+        new Object[]{"col = 3"}, new Object[]{"col IN (1, 2, 5)"}, new Object[]{"col IN (0, 2, 4, 6, 8)"},
+        new Object[]{"col BETWEEN 2 AND 5"}, new Object[]{"col > 7"}, new Object[]{"col <> 4"},
+        new Object[]{"col NOT IN (0, 9)"}, new Object[]{"col NOT IN (1, 3, 5, 7)"}
+    };
+  }
+
+  @Test(dataProvider = "filters")
+  public void testScan(String filter) {
+    Predicate predicate =
+        RequestContextUtils.getFilter(CalciteSqlParser.compileToExpression(filter)).getPredicate();
+    PredicateEvaluator predicateEvaluator =
+        PredicateEvaluatorProvider.getPredicateEvaluator(predicate, _dictionary, DataType.INT);
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (predicateEvaluator.applySV(_dictIds[i])) {
+        expectedDocIds.add(i);
+      }
+    }
+
+    // Scan all the docs
+    SVScanDocIdIterator docIdIterator = new SVScanDocIdIterator(predicateEvaluator, _reader, NUM_DOCS);
+    List<Integer> docIds = new ArrayList<>();
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      docIds.add(docId);
+    }
+    assertEquals(docIds, expectedDocIds);
+    assertEquals(docIdIterator.getNumEntriesScanned(), NUM_DOCS);
+
+    // Advance to a doc, then scan the remaining docs
+    int targetDocId = NUM_DOCS / 3;
+    docIdIterator = new SVScanDocIdIterator(predicateEvaluator, _reader, NUM_DOCS);
+    docIds.clear();
+    docId = docIdIterator.advance(targetDocId);
+    while (docId != Constants.EOF) {
+      docIds.add(docId);
+      docId = docIdIterator.next();
+    }
+    assertEquals(docIds, expectedDocIds.subList(getFirstIndexNotLessThan(expectedDocIds, targetDocId),
+        expectedDocIds.size()));
+  }
+
+  private static int getFirstIndexNotLessThan(List<Integer> docIds, int targetDocId) {
+    int index = 0;
+    while (index < docIds.size() && docIds.get(index) < targetDocId) {
+      index++;
+    }
+    return index;
+  }
+}
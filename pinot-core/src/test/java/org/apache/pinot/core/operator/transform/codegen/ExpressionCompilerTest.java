@@ -0,0 +1,228 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.transform.codegen;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.RequestContextUtils;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.core.operator.ColumnContext;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.core.operator.transform.function.BaseTransformFunctionTest;
+import org.apache.pinot.core.operator.transform.function.CompiledTransformFunction;
+import org.apache.pinot.core.operator.transform.function.TransformFunction;
+import org.apache.pinot.core.operator.transform.function.TransformFunctionFactory;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class ExpressionCompilerTest extends BaseTransformFunctionTest {
+  private final Map<String, ColumnContext> _columnContextMap = new HashMap<>();
+
+  @BeforeClass
+  @Override
+  public void setUp()
+      throws Exception {
+    super.setUp();
+    _dataSourceMap.forEach((column, dataSource) -> _columnContextMap.put(column,
+        ColumnContext.fromDataSource(dataSource)));
+  }
+
+  @DataProvider
+  public Object[][] numericExpressions() {
+    return new Object[][]{
+        new Object[]{String.format("add(%s,%s,%s,%s)", INT_SV_COLUMN, LONG_SV_COLUMN, FLOAT_SV_COLUMN,
+            DOUBLE_SV_COLUMN)},
+        new Object[]{String.format("add(add(12,%s),%s,add(add(%s,%s),0.34,%s),%s)", INT_SV_COLUMN, DOUBLE_SV_COLUMN,
+            FLOAT_SV_COLUMN, LONG_SV_COLUMN, INT_SV_COLUMN, DOUBLE_SV_COLUMN)},
+        new Object[]{String.format("sub(mult(%s,2.5),div(%s,3))", INT_SV_COLUMN, LONG_SV_COLUMN)},
+        new Object[]{String.format("mod(%s,%s)", LONG_SV_COLUMN, INT_SV_COLUMN)},
+        new Object[]{String.format("mult(sub(%s,%s),7,div(%s,0.5),-1)", DOUBLE_SV_COLUMN, FLOAT_SV_COLUMN,
+            INT_SV_COLUMN)},
+        new Object[]{String.format("%s + %s * 3 - %s / 2", INT_SV_COLUMN, FLOAT_SV_COLUMN, DOUBLE_SV_COLUMN)}
+    };
+  }
+
+  @Test(dataProvider = "numericExpressions")
+  public void testNumericExpression(String expressionString) {
+    ExpressionContext expression = RequestContextUtils.getExpression(expressionString);
+    TransformFunction compiledTransformFunction = ExpressionCompiler.compile(expression, _columnContextMap);
+    assertTrue(compiledTransformFunction instanceof CompiledTransformFunction);
+    assertEquals(compiledTransformFunction.getResultMetadata().getDataType(), DataType.DOUBLE);
+    TransformFunction transformFunction = TransformFunctionFactory.get(expression, _dataSourceMap);
+    double[] expectedValues = transformFunction.transformToDoubleValuesSV(_projectionBlock);
+    testTransformFunction(compiledTransformFunction, expectedValues);
+    // Results should be bit-identical to the transform functions
+    assertTrue(Arrays.equals(compiledTransformFunction.transformToDoubleValuesSV(_projectionBlock),
+        Arrays.copyOf(expectedValues, NUM_ROWS)));
+  }
+
+  @DataProvider
+  public Object[][] booleanExpressions() {
+    return new Object[][]{
+        new Object[]{String.format("greater_than(add(%s,1),100)", INT_SV_COLUMN)},
+        new Object[]{String.format("%s * 2 <= %s", LONG_SV_COLUMN, FLOAT_SV_COLUMN)},
+        new Object[]{String.format("and(less_than(%s,0),greater_than_or_equal(mult(%s,2),%s))", DOUBLE_SV_COLUMN,
+            INT_SV_COLUMN, FLOAT_SV_COLUMN)},
+        new Object[]{String.format("or(equals(mod(%s,2),0),not(not_equals(%s,%s)))", INT_SV_COLUMN,
+            DOUBLE_SV_COLUMN, DOUBLE_SV_COLUMN)}
+    };
+  }
+
+  @Test(dataProvider = "booleanExpressions")
+  public void testBooleanExpression(String expressionString) {
+    ExpressionContext expression = RequestContextUtils.getExpression(expressionString);
+    TransformFunction compiledTransformFunction = ExpressionCompiler.compile(expression, _columnContextMap);
+    assertTrue(compiledTransformFunction instanceof CompiledTransformFunction);
+    assertEquals(compiledTransformFunction.getResultMetadata().getDataType(), DataType.BOOLEAN);
+    TransformFunction transformFunction = TransformFunctionFactory.get(expression, _dataSourceMap);
+    int[] expectedValues = Arrays.copyOf(transformFunction.transformToIntValuesSV(_projectionBlock), NUM_ROWS);
+    testTransformFunction(compiledTransformFunction, expectedValues);
+  }
+
+  @DataProvider
+  public Object[][] predicates() {
+    return new Object[][]{
+        new Object[]{String.format("add(%s,1) > 100", INT_SV_COLUMN)},
+        new Object[]{String.format("%s * 2 BETWEEN -1000 AND 1000.5", LONG_SV_COLUMN)},
+        new Object[]{String.format("sub(%s,%s) <= 0", DOUBLE_SV_COLUMN, FLOAT_SV_COLUMN)},
+        new Object[]{String.format("mod(%s,3) = 1", INT_SV_COLUMN)},
+        new Object[]{String.format("mod(%s,2) <> 0", LONG_SV_COLUMN)}
+    };
+  }
+
+  @Test(dataProvider = "predicates")
+  public void testPredicate(String filterString) {
+    Predicate predicate = getPredicate(filterString);
+    TransformFunction transformFunction = TransformFunctionFactory.get(predicate.getLhs(), _dataSourceMap);
+    PredicateEvaluator predicateEvaluator =
+        PredicateEvaluatorProvider.getPredicateEvaluator(predicate, null, DataType.DOUBLE);
+    TransformFunction compiledPredicate =
+        ExpressionCompiler.compilePredicate(predicate.getLhs(), predicateEvaluator, _columnContextMap);
+    assertTrue(compiledPredicate instanceof CompiledTransformFunction);
+    assertEquals(compiledPredicate.getResultMetadata().getDataType(), DataType.BOOLEAN);
+    double[] values = transformFunction.transformToDoubleValuesSV(_projectionBlock);
+    int[] expectedValues = new int[NUM_ROWS];
+    for (int i = 0; i < NUM_ROWS; i++) {
+      expectedValues[i] = predicateEvaluator.applySV(values[i]) ? 1 : 0;
+    }
+    testTransformFunction(compiledPredicate, expectedValues);
+  }
+
+  @Test
+  public void testUnsupportedPredicate() {
+    // IN predicate
+    Predicate predicate = getPredicate(String.format("add(%s,1) IN (1, 2)", INT_SV_COLUMN));
+    assertNull(ExpressionCompiler.compilePredicate(predicate.getLhs(),
+        PredicateEvaluatorProvider.getPredicateEvaluator(predicate, null, DataType.DOUBLE), _columnContextMap));
+    // Predicate not evaluated on DOUBLE values
+    predicate = getPredicate(String.format("add(%s,1) > 100", INT_SV_COLUMN));
+    assertNull(ExpressionCompiler.compilePredicate(predicate.getLhs(),
+        PredicateEvaluatorProvider.getPredicateEvaluator(predicate, null, DataType.LONG), _columnContextMap));
+    // Unsupported expression
+    predicate = getPredicate(String.format("abs(%s) > 100", DOUBLE_SV_COLUMN));
+    assertNull(ExpressionCompiler.compilePredicate(predicate.getLhs(),
+        PredicateEvaluatorProvider.getPredicateEvaluator(predicate, null, DataType.DOUBLE), _columnContextMap));
+  }
+
+  @Test
+  public void testUnsupportedExpression() {
+    // Non-numeric column
+    assertNull(compile(String.format("add(%s,%s)", STRING_SV_COLUMN, INT_SV_COLUMN)));
+    // Multi-value column
+    assertNull(compile(String.format("add(%s,1)", INT_MV_COLUMN)));
+    // Non-double value on the left side of the comparison
+    assertNull(compile(String.format("greater_than(%s,1)", INT_SV_COLUMN)));
+    // Unsupported function
+    assertNull(compile(String.format("abs(%s)", DOUBLE_SV_COLUMN)));
+    // Identifier and literal
+    assertNull(compile(INT_SV_COLUMN));
+    assertNull(compile("add(1,2)"));
+  }
+
+  @Test
+  public void testSourceSharedAcrossLiterals() {
+    ExpressionCompiler.GeneratedExpression generatedExpression1 = generate(String.format("%s + 1", INT_SV_COLUMN));
+    ExpressionCompiler.GeneratedExpression generatedExpression2 = generate(String.format("%s + 2", INT_SV_COLUMN));
+    assertNotNull(generatedExpression1);
+    assertNotNull(generatedExpression2);
+    assertEquals(generatedExpression1.getSource(), generatedExpression2.getSource());
+    assertEquals(generatedExpression1.getConstants(), new double[]{1.0});
+    assertEquals(generatedExpression2.getConstants(), new double[]{2.0});
+
+    // Same shape with the same stored types should share the source
+    ExpressionCompiler.GeneratedExpression generatedExpression3 =
+        generate(String.format("%s + 3", TIME_COLUMN));
+    ExpressionCompiler.GeneratedExpression generatedExpression4 =
+        generate(String.format("%s + 3", LONG_SV_COLUMN));
+    assertNotNull(generatedExpression3);
+    assertNotNull(generatedExpression4);
+    assertEquals(generatedExpression3.getSource(), generatedExpression4.getSource());
+    assertNotEquals(generatedExpression1.getSource(), generatedExpression4.getSource());
+
+    // Compiled class should be cached
+    compile(String.format("%s + 1", INT_SV_COLUMN));
+    long numCachedClasses = ExpressionCompiler.getNumCachedClasses();
+    compile(String.format("%s + 2", INT_SV_COLUMN));
+    assertEquals(ExpressionCompiler.getNumCachedClasses(), numCachedClasses);
+  }
+
+  @Test
+  public void testQueryOption() {
+    ExpressionContext expression = RequestContextUtils.getExpression(String.format("%s + 1", INT_SV_COLUMN));
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SET useExpressionCodegen = true; SELECT * FROM testTable");
+    assertTrue(TransformFunctionFactory.get(expression, _columnContextMap,
+        queryContext) instanceof CompiledTransformFunction);
+    queryContext = QueryContextConverterUtils.getQueryContext("SELECT * FROM testTable");
+    assertTrue(!(TransformFunctionFactory.get(expression, _columnContextMap,
+        queryContext) instanceof CompiledTransformFunction));
+    // Not applied when null handling is enabled
+    queryContext = QueryContextConverterUtils.getQueryContext(
+        "SET useExpressionCodegen = true; SET enableNullHandling = true; SELECT * FROM testTable");
+    assertTrue(!(TransformFunctionFactory.get(expression, _columnContextMap,
+        queryContext) instanceof CompiledTransformFunction));
+  }
+
+  private static Predicate getPredicate(String filterString) {
+    return QueryContextConverterUtils.getQueryContext("SELECT * FROM testTable WHERE " + filterString).getFilter()
+        .getPredicate();
+  }
+
+  private TransformFunction compile(String expression) {
+    return ExpressionCompiler.compile(RequestContextUtils.getExpression(expression), _columnContextMap);
+  }
+
+  private ExpressionCompiler.GeneratedExpression generate(String expression) {
+    return ExpressionCompiler.generate(RequestContextUtils.getExpression(expression), _columnContextMap);
+  }
+}
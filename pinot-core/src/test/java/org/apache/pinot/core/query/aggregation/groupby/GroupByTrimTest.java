@@ -34,6 +34,7 @@ import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.data.table.Table;
 import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
 import org.apache.pinot.core.operator.combine.GroupByCombineOperator;
+import org.apache.pinot.core.operator.combine.PartitionedGroupByCombineOperator;
 import org.apache.pinot.core.plan.GroupByPlanNode;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
@@ -76,6 +77,7 @@ public class GroupByTrimTest {
   private static final String METRIC_PREFIX = "metric_";
   private static final int NUM_COLUMNS = 2;
   private static final int NUM_ROWS = 10000;
+  private static final int NUM_OPERATORS = 4;
 
   private final ExecutorService _executorService = Executors.newCachedThreadPool();
   private IndexSegment _indexSegment;
@@ -134,6 +136,36 @@ public class GroupByTrimTest {
     Assert.assertEquals(extractedResult, expectedResult);
   }
 
+  /**
+   * Same as {@link #testGroupByTrim}, but merges the results from multiple operators (on the same segment) with the
+   * {@link PartitionedGroupByCombineOperator}.
+   */
+  @Test(dataProvider = "groupByTrimTestDataProvider")
+  void testPartitionedGroupByTrim(QueryContext queryContext, int minSegmentGroupTrimSize, int minServerGroupTrimSize,
+      List<Pair<Double, Double>> expectedResult)
+      throws Exception {
+    queryContext.setEndTimeMs(System.currentTimeMillis() + CommonConstants.Server.DEFAULT_QUERY_EXECUTOR_TIMEOUT_MS);
+    queryContext.setMinSegmentGroupTrimSize(minSegmentGroupTrimSize);
+    queryContext.setMinServerGroupTrimSize(minServerGroupTrimSize);
+    queryContext.setMaxExecutionThreads(NUM_OPERATORS);
+
+    // Create query operators
+    List<Operator> groupByOperators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      groupByOperators.add(new GroupByPlanNode(new SegmentContext(_indexSegment), queryContext).run());
+    }
+    PartitionedGroupByCombineOperator combineOperator =
+        new PartitionedGroupByCombineOperator(groupByOperators, queryContext, _executorService);
+
+    // Execute the query
+    GroupByResultsBlock resultsBlock = (GroupByResultsBlock) combineOperator.nextBlock();
+
+    // Extract the execution result
+    List<Pair<Double, Double>> extractedResult = extractTestResult(resultsBlock.getTable());
+
+    Assert.assertEquals(extractedResult, expectedResult);
+  }
+
   /**
    * Helper method to setup the index segment on which to perform aggregation tests.
    * - Generates a segment with {@link #NUM_COLUMNS} and {@link #NUM_ROWS}
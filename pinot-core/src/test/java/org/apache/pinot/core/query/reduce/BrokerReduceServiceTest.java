@@ -41,6 +41,9 @@ import org.testng.annotations.Test;
 
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 
 public class BrokerReduceServiceTest {
@@ -79,4 +82,58 @@ public class BrokerReduceServiceTest {
     assertEquals(exceptions.size(), 1);
     assertEquals(exceptions.get(0).getErrorCode(), QueryException.BROKER_TIMEOUT_ERROR_CODE);
   }
+
+  @Test
+  public void testPartitionedGroupByReduce()
+      throws IOException {
+    BrokerReduceService brokerReduceService = new BrokerReduceService(new PinotConfiguration(
+        Map.of(Broker.CONFIG_OF_MAX_REDUCE_THREADS_PER_QUERY, 4, Broker.CONFIG_OF_ENABLE_STREAMING_GROUP_BY_REDUCE,
+            true)));
+    BrokerRequest brokerRequest = CalciteSqlCompiler.compileToBrokerRequest(
+        "SELECT col1, COUNT(*) FROM testTable GROUP BY col1 ORDER BY COUNT(*) DESC, col1 LIMIT 5");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"col1", "count(*)"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.LONG});
+    int numGroups = 1000;
+    int numInstances = 10;
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < numInstances; i++) {
+      DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+      for (int j = 0; j < numGroups; j++) {
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, j);
+        dataTableBuilder.setColumn(1, (long) j);
+        dataTableBuilder.finishRow();
+      }
+      dataTableMap.put(new ServerRoutingInstance("localhost", i, TableType.OFFLINE), dataTableBuilder.build());
+    }
+
+    // Without streaming, with records of half of the servers extracted in advance, and with all the servers extracted
+    // in advance
+    for (int numSubmitted : new int[]{0, numInstances / 2, numInstances}) {
+      GroupByRecordPartitioner recordPartitioner =
+          brokerReduceService.getRecordPartitioner(brokerRequest, numInstances);
+      assertNotNull(recordPartitioner);
+      int count = 0;
+      for (Map.Entry<ServerRoutingInstance, DataTable> entry : dataTableMap.entrySet()) {
+        if (count++ < numSubmitted) {
+          recordPartitioner.submit(entry.getKey(), entry.getValue());
+        }
+      }
+      BrokerResponseNative brokerResponse =
+          brokerReduceService.reduceOnDataTable(brokerRequest, brokerRequest, new HashMap<>(dataTableMap), 10_000L,
+              mock(BrokerMetrics.class), recordPartitioner);
+      assertTrue(brokerResponse.getExceptions().isEmpty());
+      List<Object[]> rows = brokerResponse.getResultTable().getRows();
+      assertEquals(rows.size(), 5);
+      for (int i = 0; i < 5; i++) {
+        int group = numGroups - 1 - i;
+        assertEquals(rows.get(i), new Object[]{group, (long) group * numInstances});
+      }
+    }
+
+    // Streaming does not apply to non group-by queries
+    assertNull(brokerReduceService.getRecordPartitioner(
+        CalciteSqlCompiler.compileToBrokerRequest("SELECT COUNT(*) FROM testTable"), numInstances));
+    brokerReduceService.shutDown();
+  }
 }
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class QueryHedgerTest {
+
+  @Test
+  public void testHedgeDelay() {
+    QueryHedger queryHedger = new QueryHedger((tableNameWithType, instanceId, segments) -> null, 90, 5, 0.1);
+    try {
+      // No hedging before enough latencies are recorded
+      for (int i = 0; i < QueryHedger.MIN_LATENCY_SAMPLES - 1; i++) {
+        queryHedger.recordLatency(i);
+      }
+      assertEquals(queryHedger.getDelayMs(), Long.MAX_VALUE);
+
+      // 90th percentile of [0, 63]
+      queryHedger.recordLatency(QueryHedger.MIN_LATENCY_SAMPLES - 1);
+      assertEquals(queryHedger.getDelayMs(), 57);
+
+      // Only the most recent latencies are used
+      for (int i = 0; i < QueryHedger.NUM_LATENCY_SAMPLES; i++) {
+        queryHedger.recordLatency(1);
+      }
+      // Min delay
+      assertEquals(queryHedger.getDelayMs(), 5);
+    } finally {
+      queryHedger.shutDown();
+    }
+  }
+
+  @Test
+  public void testBudget() {
+    QueryHedger queryHedger = new QueryHedger((tableNameWithType, instanceId, segments) -> null, 95, 10, 0.1);
+    try {
+      assertFalse(queryHedger.tryAcquire());
+
+      // 1 hedged request per 10 server requests
+      queryHedger.recordRequests(9);
+      assertFalse(queryHedger.tryAcquire());
+      queryHedger.recordRequests(1);
+      assertTrue(queryHedger.tryAcquire());
+      assertFalse(queryHedger.tryAcquire());
+
+      // Budget is capped
+      queryHedger.recordRequests(1000);
+      for (int i = 0; i < QueryHedger.MAX_BUDGET; i++) {
+        assertTrue(queryHedger.tryAcquire());
+      }
+      assertFalse(queryHedger.tryAcquire());
+    } finally {
+      queryHedger.shutDown();
+    }
+  }
+
+  @Test
+  public void testBlockingHedgeTask()
+      throws Exception {
+    QueryHedger queryHedger = new QueryHedger((tableNameWithType, instanceId, segments) -> null, 95, 10, 0.1);
+    try {
+      // A hedge task blocked on sending should not delay the hedge tasks of the other queries
+      CountDownLatch blockingLatch = new CountDownLatch(1);
+      CountDownLatch hedgeLatch = new CountDownLatch(1);
+      queryHedger.schedule(() -> {
+        try {
+          blockingLatch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }, 0);
+      queryHedger.schedule(hedgeLatch::countDown, 10);
+      assertTrue(hedgeLatch.await(5, TimeUnit.SECONDS));
+      blockingLatch.countDown();
+    } finally {
+      queryHedger.shutDown();
+    }
+  }
+}
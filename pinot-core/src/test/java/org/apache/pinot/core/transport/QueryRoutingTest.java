@@ -33,6 +33,7 @@ import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.datatable.DataTableBuilder;
 import org.apache.pinot.core.common.datatable.DataTableBuilderFactory;
+import org.apache.pinot.core.query.request.ServerQueryRequest;
 import org.apache.pinot.core.query.scheduler.QueryScheduler;
 import org.apache.pinot.core.transport.server.routing.stats.ServerRoutingStatsManager;
 import org.apache.pinot.server.access.AccessControl;
@@ -376,6 +377,85 @@ public class QueryRoutingTest {
     queryServer.shutDown();
   }
 
+  @Test
+  public void testHedgedRequest()
+      throws Exception {
+    int port = 12348;
+    ServerInstance slowServerInstance = new ServerInstance("localhost", port);
+    ServerInstance fastServerInstance = new ServerInstance("localhost", port + 1);
+    ServerRoutingInstance slowServerRoutingInstance =
+        slowServerInstance.toServerRoutingInstance(TableType.OFFLINE, ServerInstance.RoutingType.NETTY);
+    Map<ServerInstance, Pair<List<String>, List<String>>> routingTable =
+        Map.of(slowServerInstance, Pair.of(List.of("segment0"), Collections.emptyList()));
+
+    // Hedge after 100ms (min delay) with enough budget
+    QueryHedger queryHedger = new QueryHedger((tableNameWithType, instanceId, segments) -> {
+      assertEquals(tableNameWithType, "testTable_OFFLINE");
+      assertEquals(instanceId, slowServerInstance.getInstanceId());
+      assertEquals(segments, List.of("segment0"));
+      return fastServerInstance;
+    }, 95, 100, 1);
+    for (int i = 0; i < QueryHedger.MIN_LATENCY_SAMPLES; i++) {
+      queryHedger.recordLatency(0);
+    }
+    assertEquals(queryHedger.getDelayMs(), 100);
+    QueryRouter queryRouter =
+        new QueryRouter("testBroker", mock(BrokerMetrics.class), null, null, _serverRoutingStatsManager, queryHedger);
+
+    // The slow server never responds within the query timeout, and the replica responds immediately
+    long requestId = 123;
+    QueryServer slowQueryServer = getEchoQueryServer(5_000, port);
+    slowQueryServer.start();
+    QueryServer fastQueryServer = getEchoQueryServer(0, port + 1);
+    fastQueryServer.start();
+
+    long startTimeMs = System.currentTimeMillis();
+    AsyncQueryResponse asyncQueryResponse =
+        queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, routingTable, null, null, 3_000L);
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getFinalResponses();
+    assertEquals(asyncQueryResponse.getStatus(), QueryResponse.Status.COMPLETED);
+    assertTrue(System.currentTimeMillis() - startTimeMs < 3_000L);
+    assertEquals(response.size(), 1);
+    DataTable dataTable = response.get(slowServerRoutingInstance).getDataTable();
+    assertNotNull(dataTable);
+    // Response should come from the hedged request
+    assertTrue(Long.parseLong(dataTable.getMetadata().get(MetadataKey.REQUEST_ID.getName())) < 0);
+    // Submission and response stats for both the slow server and the replica
+    _requestCount += 4;
+    waitForStatsUpdate(_requestCount);
+    assertEquals(_serverRoutingStatsManager.fetchNumInFlightRequestsForServer(slowServerInstance.getInstanceId())
+        .intValue(), 0);
+    assertEquals(_serverRoutingStatsManager.fetchNumInFlightRequestsForServer(fastServerInstance.getInstanceId())
+        .intValue(), 0);
+    // The slow server is recorded as timed out, and the latency of the hedged request is recorded for the replica
+    assertTrue(_serverRoutingStatsManager.fetchEMALatencyForServer(slowServerInstance.getInstanceId())
+        > _serverRoutingStatsManager.fetchEMALatencyForServer(fastServerInstance.getInstanceId()));
+
+    queryRouter.shutDown();
+    slowQueryServer.shutDown();
+    fastQueryServer.shutDown();
+  }
+
+  /**
+   * Returns a query server which responds an empty data table with the request id of the query.
+   */
+  private QueryServer getEchoQueryServer(int responseDelayMs, int port) {
+    ServerMetrics serverMetrics = mock(ServerMetrics.class);
+    QueryScheduler queryScheduler = mock(QueryScheduler.class);
+    when(queryScheduler.submit(any())).thenAnswer(invocation -> {
+      Thread.sleep(responseDelayMs);
+      ServerQueryRequest queryRequest = invocation.getArgument(0);
+      DataTable dataTable = DataTableBuilderFactory.getEmptyDataTable();
+      dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), Long.toString(queryRequest.getRequestId()));
+      return Futures.immediateFuture(dataTable.toBytes());
+    });
+    InstanceRequestHandler handler =
+        new InstanceRequestHandler("server01", new PinotConfiguration(), queryScheduler, serverMetrics,
+            mock(AccessControl.class));
+    ServerMetrics.register(serverMetrics);
+    return new QueryServer(port, null, handler);
+  }
+
   private void waitForStatsUpdate(long taskCount) {
     TestUtils.waitForCondition(aVoid -> {
       return (_serverRoutingStatsManager.getCompletedTaskCount() == taskCount);
@@ -0,0 +1,235 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that the segment level results served from the {@link SegmentResultCache} are the same as the computed ones.
+ */
+public class SegmentResultCacheQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SegmentResultCacheQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME_PREFIX = "testSegment_";
+  private static final int NUM_SEGMENTS = 2;
+  private static final int NUM_RECORDS = 1000;
+  private static final int NUM_GROUPS = 20;
+  private static final String DIM_COLUMN = "dimColumn";
+  private static final String METRIC_COLUMN = "metricColumn";
+
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(DIM_COLUMN, DataType.STRING).addMetric(METRIC_COLUMN, DataType.INT).build();
+  private static final TableConfig TABLE_CONFIG =
+      new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+
+  private List<IndexSegment> _indexSegments;
+  private SegmentResultCache _segmentResultCache;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegments.get(0);
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+    _indexSegments = new ArrayList<>(NUM_SEGMENTS);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+      for (int j = 0; j < NUM_RECORDS; j++) {
+        GenericRow record = new GenericRow();
+        record.putValue(DIM_COLUMN, "dim_" + (j % NUM_GROUPS));
+        record.putValue(METRIC_COLUMN, i * NUM_RECORDS + j);
+        records.add(record);
+      }
+      String segmentName = SEGMENT_NAME_PREFIX + i;
+      SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+      segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+      segmentGeneratorConfig.setSegmentName(segmentName);
+      segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+      SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+      driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+      driver.build();
+      ImmutableSegment immutableSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, segmentName), ReadMode.mmap);
+      _indexSegments.add(immutableSegment);
+    }
+  }
+
+  @BeforeMethod
+  public void initCache() {
+    _segmentResultCache = new SegmentResultCache(1024 * 1024);
+    PLAN_MAKER.setSegmentResultCache(_segmentResultCache);
+  }
+
+  @Test
+  public void testAggregation() {
+    testQuery("SELECT COUNT(*), SUM(metricColumn), MAX(metricColumn), AVG(metricColumn), "
+        + "DISTINCTCOUNT(dimColumn), PERCENTILETDIGEST(metricColumn, 90) FROM testTable WHERE dimColumn <> 'dim_0'");
+  }
+
+  @Test
+  public void testFilteredAggregation() {
+    testQuery("SELECT COUNT(*) FILTER(WHERE dimColumn = 'dim_1'), SUM(metricColumn) FROM testTable");
+  }
+
+  @Test
+  public void testGroupBy() {
+    testQuery("SELECT dimColumn, COUNT(*), SUM(metricColumn), DISTINCTCOUNT(metricColumn) FROM testTable "
+        + "GROUP BY dimColumn ORDER BY SUM(metricColumn) DESC LIMIT 5");
+    testQuery("SELECT dimColumn, MIN(metricColumn) FROM testTable GROUP BY dimColumn ORDER BY dimColumn LIMIT 100");
+  }
+
+  @Test
+  public void testSlidingRange() {
+    // Segment 0 (values 0-999) is within the range and cached, segment 1 (values 1000-1999) is only partially covered
+    String query = "SELECT COUNT(*), SUM(metricColumn) FROM testTable WHERE metricColumn >= %d AND metricColumn < %d";
+    for (int upperBound = 1500; upperBound <= 1700; upperBound += 100) {
+      String slidingQuery = String.format(query, upperBound - 1700, upperBound);
+      BrokerResponseNative expected =
+          getBrokerResponse(slidingQuery, Collections.singletonMap(QueryOptionKey.USE_RESULT_CACHE, "false"));
+      BrokerResponseNative actual = getBrokerResponse(slidingQuery);
+      assertTrue(actual.getExceptions().isEmpty(), actual.getExceptions().toString());
+      assertEquals(toStrings(actual.getResultTable().getRows()), toStrings(expected.getResultTable().getRows()));
+      if (upperBound == 1500) {
+        // The first query computes both segments
+        assertEquals(actual.getNumDocsScanned(), expected.getNumDocsScanned());
+      } else {
+        // Segment 0 is still within the shifted range and served from the cache, segment 1 is computed (the segments
+        // are queried twice to simulate 2 servers)
+        assertEquals(actual.getNumDocsScanned(), 2 * (upperBound - NUM_RECORDS));
+      }
+      assertEquals(_segmentResultCache.size(), 1);
+    }
+
+    // Segment 0 is no longer within the range
+    getBrokerResponse(String.format(query, 100, 1500));
+    assertEquals(_segmentResultCache.size(), 1);
+  }
+
+  @Test
+  public void testUncacheableQueries() {
+    getBrokerResponse("SELECT dimColumn, metricColumn FROM testTable LIMIT 10");
+    getBrokerResponse("SELECT DISTINCT dimColumn FROM testTable LIMIT 10");
+    getBrokerResponse("SELECT COUNT(*) FROM testTable",
+        Collections.singletonMap(QueryOptionKey.USE_RESULT_CACHE, "false"));
+    assertEquals(_segmentResultCache.size(), 0);
+  }
+
+  @Test
+  public void testInvalidation() {
+    getBrokerResponse("SELECT COUNT(*) FROM testTable");
+    getBrokerResponse("SELECT SUM(metricColumn) FROM testTable");
+    assertEquals(_segmentResultCache.size(), 2 * NUM_SEGMENTS);
+
+    // Other tables are not affected
+    _segmentResultCache.invalidate("otherTable", SEGMENT_NAME_PREFIX + 0);
+    assertEquals(_segmentResultCache.size(), 2 * NUM_SEGMENTS);
+
+    _segmentResultCache.invalidate(RAW_TABLE_NAME, SEGMENT_NAME_PREFIX + 0);
+    assertEquals(_segmentResultCache.size(), 2 * (NUM_SEGMENTS - 1));
+
+    // Invalidating again is a no-op, and the segment can be cached again
+    _segmentResultCache.invalidate(RAW_TABLE_NAME, SEGMENT_NAME_PREFIX + 0);
+    assertEquals(_segmentResultCache.size(), 2 * (NUM_SEGMENTS - 1));
+    getBrokerResponse("SELECT COUNT(*) FROM testTable");
+    assertEquals(_segmentResultCache.size(), 2 * NUM_SEGMENTS - 1);
+  }
+
+  private void testQuery(String query) {
+    BrokerResponseNative expected =
+        getBrokerResponse(query, Collections.singletonMap(QueryOptionKey.USE_RESULT_CACHE, "false"));
+    long numEntries = _segmentResultCache.size();
+    // First run populates the cache, second run is served from the cache
+    for (int i = 0; i < 2; i++) {
+      BrokerResponseNative actual = getBrokerResponse(query);
+      assertTrue(actual.getExceptions().isEmpty(), actual.getExceptions().toString());
+      assertEquals(_segmentResultCache.size(), numEntries + NUM_SEGMENTS);
+      assertEquals(actual.getResultTable().getDataSchema(), expected.getResultTable().getDataSchema());
+      assertEquals(toStrings(actual.getResultTable().getRows()), toStrings(expected.getResultTable().getRows()));
+      if (i == 0) {
+        assertEquals(actual.getNumDocsScanned(), expected.getNumDocsScanned());
+        assertEquals(actual.getNumEntriesScannedInFilter(), expected.getNumEntriesScannedInFilter());
+        assertEquals(actual.getNumEntriesScannedPostFilter(), expected.getNumEntriesScannedPostFilter());
+      } else {
+        // Nothing is scanned when the results are served from the cache
+        assertEquals(actual.getNumDocsScanned(), 0);
+        assertEquals(actual.getNumEntriesScannedInFilter(), 0);
+        assertEquals(actual.getNumEntriesScannedPostFilter(), 0);
+      }
+      assertEquals(actual.getTotalDocs(), expected.getTotalDocs());
+    }
+  }
+
+  private static List<String> toStrings(List<Object[]> rows) {
+    List<String> strings = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      strings.add(Arrays.toString(row));
+    }
+    return strings;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    PLAN_MAKER.setSegmentResultCache(null);
+    for (IndexSegment indexSegment : _indexSegments) {
+      indexSegment.destroy();
+    }
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
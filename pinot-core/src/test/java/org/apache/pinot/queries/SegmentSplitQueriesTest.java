@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.SegmentSplitOperator;
+import org.apache.pinot.core.plan.Plan;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Queries test for splitting the segments into doc id ranges processed in parallel (query option
+ * {@code minDocsPerSegmentSplit}), which should return the same results and statistics as processing whole segments.
+ */
+public class SegmentSplitQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SegmentSplitQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final Random RANDOM = new Random();
+
+  private static final int NUM_RECORDS = 10_000;
+  private static final String SPLIT_QUERY_OPTIONS = "SET minDocsPerSegmentSplit = 1000; SET maxExecutionThreads = 8; ";
+
+  private static final String SORTED_COLUMN = "sortedColumn";
+  private static final String INT_COLUMN = "intColumn";
+  private static final String LONG_COLUMN = "longColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().addSingleValueDimension(SORTED_COLUMN, DataType.INT)
+      .addSingleValueDimension(INT_COLUMN, DataType.INT).addMetric(LONG_COLUMN, DataType.LONG)
+      .addSingleValueDimension(STRING_COLUMN, DataType.STRING).build();
+  private static final TableConfig TABLE_CONFIG = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+      .setInvertedIndexColumns(Collections.singletonList(INT_COLUMN))
+      .setNoDictionaryColumns(Collections.singletonList(LONG_COLUMN)).build();
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(SORTED_COLUMN, i / 100);
+      record.putValue(INT_COLUMN, RANDOM.nextInt(100));
+      record.putValue(LONG_COLUMN, (long) RANDOM.nextInt(1_000_000));
+      record.putValue(STRING_COLUMN, "s" + RANDOM.nextInt(20));
+      records.add(record);
+    }
+
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    ImmutableSegment immutableSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.mmap);
+    _indexSegment = immutableSegment;
+    _indexSegments = Arrays.asList(immutableSegment, immutableSegment);
+  }
+
+  @DataProvider
+  public Object[][] queries() {
+    return new Object[][]{
+        new Object[]{"SELECT COUNT(*), SUM(intColumn), MIN(longColumn), MAX(longColumn) FROM testTable"},
+        new Object[]{"SELECT SUM(longColumn), AVG(intColumn) FROM testTable WHERE longColumn > 500000"},
+        new Object[]{"SELECT COUNT(*) FROM testTable WHERE sortedColumn BETWEEN 10 AND 60"},
+        new Object[]{"SELECT COUNT(*), SUM(longColumn) FROM testTable WHERE intColumn IN (1, 3, 5, 7) "
+            + "AND longColumn < 800000"},
+        new Object[]{"SELECT SUM(longColumn) FILTER(WHERE intColumn < 50), COUNT(*) FROM testTable "
+            + "WHERE sortedColumn < 80"},
+        new Object[]{"SELECT stringColumn, COUNT(*), SUM(longColumn), MAX(intColumn) FROM testTable "
+            + "GROUP BY stringColumn ORDER BY stringColumn LIMIT 100"},
+        new Object[]{"SELECT intColumn, stringColumn, SUM(longColumn) FROM testTable WHERE sortedColumn >= 25 "
+            + "GROUP BY intColumn, stringColumn ORDER BY SUM(longColumn) DESC, intColumn, stringColumn LIMIT 20"},
+        new Object[]{"SELECT DISTINCTCOUNT(stringColumn), PERCENTILE(longColumn, 50) FROM testTable "
+            + "WHERE intColumn <> 10"}
+    };
+  }
+
+  @Test(dataProvider = "queries")
+  public void testSameResults(String query) {
+    BrokerResponseNative expected = getBrokerResponse(query);
+    BrokerResponseNative actual = getBrokerResponse(SPLIT_QUERY_OPTIONS + query);
+    assertTrue(expected.getExceptions().isEmpty());
+    assertTrue(actual.getExceptions().isEmpty());
+    assertEquals(actual.getResultTable().getRows().size(), expected.getResultTable().getRows().size());
+    for (int i = 0; i < expected.getResultTable().getRows().size(); i++) {
+      assertEquals(actual.getResultTable().getRows().get(i), expected.getResultTable().getRows().get(i));
+    }
+    assertEquals(actual.getNumSegmentsProcessed(), expected.getNumSegmentsProcessed());
+    assertEquals(actual.getNumSegmentsMatched(), expected.getNumSegmentsMatched());
+    assertEquals(actual.getNumDocsScanned(), expected.getNumDocsScanned());
+    assertEquals(actual.getNumEntriesScannedPostFilter(), expected.getNumEntriesScannedPostFilter());
+    assertEquals(actual.getTotalDocs(), expected.getTotalDocs());
+  }
+
+  @Test
+  public void testSplitPlan() {
+    // Scan based aggregation should be split
+    List<Operator> operators = getCombineChildOperators(SPLIT_QUERY_OPTIONS + "SELECT SUM(longColumn) FROM testTable");
+    // 8 threads for 2 segments, 10,000 docs each
+    assertEquals(operators.size(), 8);
+    int docsPerSplit = NUM_RECORDS / 4;
+    for (int i = 0; i < 8; i++) {
+      Operator operator = operators.get(i);
+      assertTrue(operator instanceof SegmentSplitOperator);
+      assertEquals(((SegmentSplitOperator) operator).isFirstSplit(), i % 4 == 0);
+      assertEquals(operator.toExplainString(),
+          "SEGMENT_SPLIT(startDocId:" + (i % 4) * docsPerSplit + ",endDocId:" + (i % 4 + 1) * docsPerSplit + ")");
+    }
+
+    // Each split should have at least minDocsPerSegmentSplit docs
+    operators = getCombineChildOperators(
+        "SET minDocsPerSegmentSplit = 4000; SET maxExecutionThreads = 8; SELECT SUM(longColumn) FROM testTable");
+    assertEquals(operators.size(), 4);
+
+    // Do not split when there are enough segments for the threads
+    operators = getCombineChildOperators(
+        "SET minDocsPerSegmentSplit = 1000; SET maxExecutionThreads = 2; SELECT SUM(longColumn) FROM testTable");
+    assertEquals(operators.size(), 2);
+    assertTrue(operators.stream().noneMatch(operator -> operator instanceof SegmentSplitOperator));
+
+    // Do not split when the aggregations can be solved with the dictionary or metadata
+    operators = getCombineChildOperators(SPLIT_QUERY_OPTIONS + "SELECT COUNT(*), MAX(intColumn) FROM testTable");
+    assertEquals(operators.size(), 2);
+
+    // Do not split selection queries
+    operators = getCombineChildOperators(SPLIT_QUERY_OPTIONS + "SELECT * FROM testTable WHERE intColumn = 5");
+    assertEquals(operators.size(), 2);
+
+    // Do not split without the query option
+    operators = getCombineChildOperators("SET maxExecutionThreads = 8; SELECT SUM(longColumn) FROM testTable");
+    assertEquals(operators.size(), 2);
+  }
+
+  private List<Operator> getCombineChildOperators(String query) {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(query);
+    List<SegmentContext> segmentContexts = new ArrayList<>(_indexSegments.size());
+    for (IndexSegment indexSegment : _indexSegments) {
+      segmentContexts.add(new SegmentContext(indexSegment));
+    }
+    Plan plan = PLAN_MAKER.makeInstancePlan(segmentContexts, queryContext, EXECUTOR_SERVICE, null);
+    Operator combineOperator = (Operator) plan.getPlanNode().run().getChildOperators().get(0);
+    return combineOperator.getChildOperators();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -65,6 +65,9 @@ public class BenchmarkCombineGroupBy {
 
   private QueryContext _queryContext;
   private DataSchema _dataSchema;
+  // Group by 2 INT keys, which fits in the primitive indexed table
+  private QueryContext _intKeysQueryContext;
+  private DataSchema _intKeysDataSchema;
 
   private List<String> _d1;
   private List<Integer> _d2;
@@ -94,6 +97,14 @@ public class BenchmarkCombineGroupBy {
         DataSchema.ColumnDataType.DOUBLE
     });
 
+    _intKeysQueryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT sum(m1), max(m2) FROM testTable GROUP BY d2, d3 ORDER BY sum(m1) LIMIT 500");
+    _intKeysDataSchema = new DataSchema(new String[]{"d2", "d3", "sum(m1)", "max(m2)"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.DOUBLE,
+            DataSchema.ColumnDataType.DOUBLE
+        });
+
     _executorService = Executors.newFixedThreadPool(10);
   }
 
@@ -110,6 +121,14 @@ public class BenchmarkCombineGroupBy {
     return new Record(columns);
   }
 
+  private Record getIntKeysRecord() {
+    Object[] columns = new Object[]{
+        _d2.get(RANDOM.nextInt(_d2.size())), _d2.get(RANDOM.nextInt(_d2.size())), (double) RANDOM.nextInt(
+        1000), (double) RANDOM.nextInt(1000)
+    };
+    return new Record(columns);
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -145,6 +164,71 @@ public class BenchmarkCombineGroupBy {
     concurrentIndexedTable.finish(false);
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void concurrentIndexedTableIntKeysForCombineGroupBy()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    int trimSize = GroupByUtils.getTableCapacity(_intKeysQueryContext.getLimit());
+    IndexedTable concurrentIndexedTable =
+        new ConcurrentIndexedTable(_intKeysDataSchema, _intKeysQueryContext, trimSize, trimSize,
+            InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD);
+
+    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(NUM_SEGMENTS);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      innerSegmentCallables.add(() -> {
+        for (int r = 0; r < NUM_RECORDS_PER_SEGMENT; r++) {
+          concurrentIndexedTable.upsert(getIntKeysRecord());
+        }
+        return null;
+      });
+    }
+
+    List<Future<Void>> futures = _executorService.invokeAll(innerSegmentCallables);
+    for (Future<Void> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+
+    concurrentIndexedTable.finish(false);
+  }
+
+  /**
+   * Each thread upserts into its own primitive-specialized indexed table, then the tables are merged.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void primitiveIndexedTableIntKeysForCombineGroupBy()
+      throws InterruptedException, ExecutionException, TimeoutException {
+    int trimSize = GroupByUtils.getTableCapacity(_intKeysQueryContext.getLimit());
+
+    List<IndexedTable> indexedTables = new ArrayList<>(NUM_SEGMENTS);
+    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(NUM_SEGMENTS);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      IndexedTable indexedTable =
+          GroupByUtils.createIndexedTable(_intKeysDataSchema, false, _intKeysQueryContext, trimSize, trimSize,
+              InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD);
+      indexedTables.add(indexedTable);
+      innerSegmentCallables.add(() -> {
+        for (int r = 0; r < NUM_RECORDS_PER_SEGMENT; r++) {
+          indexedTable.upsert(getIntKeysRecord());
+        }
+        return null;
+      });
+    }
+
+    List<Future<Void>> futures = _executorService.invokeAll(innerSegmentCallables);
+    for (Future<Void> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+
+    IndexedTable mergedTable = indexedTables.get(0);
+    for (int i = 1; i < NUM_SEGMENTS; i++) {
+      mergedTable.mergeIndexedTable(indexedTables.get(i));
+    }
+    mergedTable.finish(false);
+  }
+
   public static void main(String[] args)
       throws Exception {
     ChainedOptionsBuilder opt =
@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.queries.BaseQueriesTest;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares the interpreted transform functions against the compiled expressions (query option
+ * {@code useExpressionCodegen}) for the filter and projection expressions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class BenchmarkExpressionCodegen extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkExpressionCodegen");
+  private static final String TABLE_NAME = "MyTable";
+  private static final String SEGMENT_NAME_PREFIX = "testSegment_";
+  private static final int NUM_SEGMENTS = 2;
+  private static final String INT_COL = "INT_COL";
+  private static final String LONG_COL = "LONG_COL";
+  private static final String FLOAT_COL = "FLOAT_COL";
+  private static final String DOUBLE_COL = "DOUBLE_COL";
+
+  @Param("1500000")
+  private int _numRows;
+
+  @Param({"false", "true"})
+  private boolean _useExpressionCodegen;
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkExpressionCodegen.class.getSimpleName()).build()).run();
+  }
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME)
+        .setNoDictionaryColumns(Arrays.asList(LONG_COL, FLOAT_COL, DOUBLE_COL))
+        .build();
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(TABLE_NAME)
+        .addSingleValueDimension(INT_COL, DataType.INT)
+        .addMetric(LONG_COL, DataType.LONG)
+        .addMetric(FLOAT_COL, DataType.FLOAT)
+        .addMetric(DOUBLE_COL, DataType.DOUBLE)
+        .build();
+    _indexSegments = new ArrayList<>(NUM_SEGMENTS);
+    Random random = new Random(42);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      String segmentName = SEGMENT_NAME_PREFIX + i;
+      List<GenericRow> rows = new ArrayList<>(_numRows);
+      for (int j = 0; j < _numRows; j++) {
+        GenericRow row = new GenericRow();
+        row.putValue(INT_COL, random.nextInt(1000));
+        row.putValue(LONG_COL, random.nextLong() % 100000);
+        row.putValue(FLOAT_COL, random.nextFloat() * 100);
+        row.putValue(DOUBLE_COL, random.nextDouble() * 100);
+        rows.add(row);
+      }
+      SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, schema);
+      config.setOutDir(INDEX_DIR.getPath());
+      config.setTableName(TABLE_NAME);
+      config.setSegmentName(segmentName);
+      SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+      try (RecordReader recordReader = new GenericRowRecordReader(rows)) {
+        driver.init(config, recordReader);
+        driver.build();
+      }
+      _indexSegments.add(
+          ImmutableSegmentLoader.load(new File(INDEX_DIR, segmentName), new IndexLoadingConfig(tableConfig, schema)));
+    }
+    _indexSegment = _indexSegments.get(0);
+  }
+
+  @TearDown
+  public void tearDown() {
+    for (IndexSegment indexSegment : _indexSegments) {
+      indexSegment.destroy();
+    }
+    FileUtils.deleteQuietly(INDEX_DIR);
+    EXECUTOR_SERVICE.shutdownNow();
+  }
+
+  @Benchmark
+  public BrokerResponseNative arithmeticProjection() {
+    return getBrokerResponse(getQuery(
+        "SELECT SUM((INT_COL + LONG_COL) * FLOAT_COL - DOUBLE_COL / 3) FROM MyTable"));
+  }
+
+  @Benchmark
+  public BrokerResponseNative expressionFilter() {
+    return getBrokerResponse(getQuery(
+        "SELECT COUNT(*) FROM MyTable WHERE INT_COL * 2 + DOUBLE_COL - FLOAT_COL > 1000"));
+  }
+
+  @Benchmark
+  public BrokerResponseNative expressionFilterAndProjection() {
+    return getBrokerResponse(getQuery(
+        "SELECT SUM(LONG_COL * 0.5 + DOUBLE_COL) FROM MyTable WHERE INT_COL * 2 + DOUBLE_COL - FLOAT_COL > 1000"));
+  }
+
+  private String getQuery(String query) {
+    return "SET useExpressionCodegen = " + _useExpressionCodegen + "; " + query;
+  }
+
+  @Override
+  protected String getFilter() {
+    return null;
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+}
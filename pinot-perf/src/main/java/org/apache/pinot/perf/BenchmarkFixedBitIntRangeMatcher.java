@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.reader.impl.FixedBitIntRangeMatcher;
+import org.apache.pinot.segment.local.io.writer.impl.FixedBitSVForwardIndexWriter;
+import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares scanning a bit-compressed dictionary-encoded column for the docs matching a RANGE (or EQ/IN with 1 value)
+ * predicate by evaluating the predicate directly on the packed dictionary ids ({@link FixedBitIntRangeMatcher}) against
+ * unpacking the dictionary ids in batches and evaluating the predicate on each of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class BenchmarkFixedBitIntRangeMatcher {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkFixedBitIntRangeMatcher");
+  private static final int BATCH_SIZE = 256;
+
+  @Param("10000000")
+  private int _numDocs;
+
+  @Param({"2", "4", "8", "12"})
+  private int _numBitsPerValue;
+
+  // Percentage of the dictionary ids matching the predicate
+  @Param({"1", "10", "50"})
+  private int _selectivity;
+
+  private PinotDataBuffer _dataBuffer;
+  private FixedBitSVForwardIndexReaderV2 _reader;
+  private FixedBitIntRangeMatcher _rangeMatcher;
+  private int _rangeStart;
+  private int _rangeEnd;
+  private final int[] _docIds = new int[BATCH_SIZE];
+  private final int[] _dictIds = new int[BATCH_SIZE];
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkFixedBitIntRangeMatcher.class.getSimpleName()).build()).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+    FileUtils.forceMkdir(INDEX_DIR);
+    File indexFile = new File(INDEX_DIR, "index-file");
+    int cardinality = 1 << _numBitsPerValue;
+    Random random = new Random(42);
+    try (FixedBitSVForwardIndexWriter indexWriter = new FixedBitSVForwardIndexWriter(indexFile, _numDocs,
+        _numBitsPerValue)) {
+      for (int i = 0; i < _numDocs; i++) {
+        indexWriter.putDictId(random.nextInt(cardinality));
+      }
+    }
+    _dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+    _reader = new FixedBitSVForwardIndexReaderV2(_dataBuffer, _numDocs, _numBitsPerValue);
+    _rangeStart = cardinality / 4;
+    _rangeEnd = _rangeStart + Math.max(cardinality * _selectivity / 100, 1) - 1;
+    _rangeMatcher = _reader.createDictIdRangeMatcher(new int[]{_rangeStart}, new int[]{_rangeEnd});
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+      throws Exception {
+    _dataBuffer.close();
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+
+  @Benchmark
+  public int scanPacked() {
+    int numMatches = 0;
+    for (int startDocId = 0; startDocId < _numDocs; startDocId += BATCH_SIZE) {
+      numMatches += _rangeMatcher.match(startDocId, Math.min(startDocId + BATCH_SIZE, _numDocs), _docIds);
+    }
+    return numMatches;
+  }
+
+  @Benchmark
+  public int scanUnpacked() {
+    int numMatches = 0;
+    for (int startDocId = 0; startDocId < _numDocs; startDocId += BATCH_SIZE) {
+      int limit = Math.min(BATCH_SIZE, _numDocs - startDocId);
+      for (int i = 0; i < limit; i++) {
+        _docIds[i] = startDocId + i;
+      }
+      _reader.readDictIds(_docIds, limit, _dictIds, null);
+      int matches = 0;
+      for (int i = 0; i < limit; i++) {
+        int dictId = _dictIds[i];
+        if (dictId >= _rangeStart && dictId <= _rangeEnd) {
+          _docIds[matches++] = _docIds[i];
+        }
+      }
+      numMatches += matches;
+    }
+    return numMatches;
+  }
+}
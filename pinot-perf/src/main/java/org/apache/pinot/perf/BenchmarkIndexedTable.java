@@ -31,6 +31,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
@@ -39,6 +40,7 @@ import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.data.table.SimpleIndexedTable;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.util.GroupByUtils;
 import org.apache.pinot.core.util.trace.TraceRunnable;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -63,6 +65,9 @@ public class BenchmarkIndexedTable {
 
   private QueryContext _queryContext;
   private DataSchema _dataSchema;
+  // Group by 2 INT keys, which fits in the primitive indexed table
+  private QueryContext _intKeysQueryContext;
+  private DataSchema _intKeysDataSchema;
 
   private List<String> _d1;
   private List<Integer> _d2;
@@ -93,6 +98,14 @@ public class BenchmarkIndexedTable {
         DataSchema.ColumnDataType.DOUBLE
     });
 
+    _intKeysQueryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT sum(m1), max(m2) FROM testTable GROUP BY d2, d3 ORDER BY sum(m1) LIMIT 500");
+    _intKeysDataSchema = new DataSchema(new String[]{"d2", "d3", "sum(m1)", "max(m2)"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.DOUBLE,
+            DataSchema.ColumnDataType.DOUBLE
+        });
+
     _executorService = Executors.newFixedThreadPool(10);
   }
 
@@ -109,6 +122,14 @@ public class BenchmarkIndexedTable {
     return new Record(columns);
   }
 
+  private Record getNewIntKeysRecord() {
+    Object[] columns = new Object[]{
+        _d2.get(RANDOM.nextInt(_d2.size())), _d2.get(RANDOM.nextInt(_d2.size())), (double) RANDOM.nextInt(1000),
+        (double) RANDOM.nextInt(1000)
+    };
+    return new Record(columns);
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -198,6 +219,55 @@ public class BenchmarkIndexedTable {
     mergedTable.finish(false);
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void simpleIndexedTableIntKeys()
+      throws InterruptedException, TimeoutException, ExecutionException {
+    upsertAndMergeIntKeys(
+        () -> new SimpleIndexedTable(_intKeysDataSchema, _intKeysQueryContext, TRIM_SIZE, TRIM_SIZE, TRIM_THRESHOLD));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void primitiveIndexedTableIntKeys()
+      throws InterruptedException, TimeoutException, ExecutionException {
+    upsertAndMergeIntKeys(
+        () -> GroupByUtils.createIndexedTable(_intKeysDataSchema, false, _intKeysQueryContext, TRIM_SIZE, TRIM_SIZE,
+            TRIM_THRESHOLD));
+  }
+
+  private void upsertAndMergeIntKeys(Supplier<IndexedTable> indexedTableSupplier)
+      throws InterruptedException, TimeoutException, ExecutionException {
+    int numSegments = 10;
+
+    List<IndexedTable> indexedTables = new ArrayList<>(numSegments);
+    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(numSegments);
+    for (int i = 0; i < numSegments; i++) {
+      IndexedTable indexedTable = indexedTableSupplier.get();
+      indexedTables.add(indexedTable);
+      innerSegmentCallables.add(() -> {
+        for (int r = 0; r < NUM_RECORDS; r++) {
+          indexedTable.upsert(getNewIntKeysRecord());
+        }
+        return null;
+      });
+    }
+
+    List<Future<Void>> futures = _executorService.invokeAll(innerSegmentCallables);
+    for (Future<Void> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+
+    // merge all indexed tables into 1
+    IndexedTable mergedTable = indexedTables.get(0);
+    for (int i = 1; i < numSegments; i++) {
+      mergedTable.mergeIndexedTable(indexedTables.get(i));
+    }
+    mergedTable.finish(false);
+  }
+
   public static void main(String[] args)
       throws Exception {
     ChainedOptionsBuilder opt =
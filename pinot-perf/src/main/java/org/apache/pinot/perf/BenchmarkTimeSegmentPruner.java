@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.broker.routing.segmentpruner.TimeSegmentPruner;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.DateTimeFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmarks the broker side {@link TimeSegmentPruner} on tables with large number of segments, for both the per-query
+ * pruning and the segment assignment change (one segment added and the oldest one removed, as in a rolling time
+ * window).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class BenchmarkTimeSegmentPruner {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String TIME_COLUMN = "timeCol";
+  // Each segment covers 1 hour of data
+  private static final long SEGMENT_TIME_RANGE_MS = TimeUnit.HOURS.toMillis(1);
+
+  @Param({"100000", "1000000"})
+  private int _numSegments;
+
+  private TimeSegmentPruner _segmentPruner;
+  private Set<String> _onlineSegments;
+  private BrokerRequest _narrowRangeQuery;
+  private BrokerRequest _wideRangeQuery;
+  private int _nextSegmentId;
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkTimeSegmentPruner.class.getSimpleName()).build()).run();
+  }
+
+  @Setup
+  public void setUp() {
+    TableConfig tableConfig =
+        new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).setTimeColumnName(TIME_COLUMN).build();
+    DateTimeFieldSpec timeFieldSpec =
+        new DateTimeFieldSpec(TIME_COLUMN, DataType.LONG, "EPOCH|MILLISECONDS", "1:MILLISECONDS");
+    _segmentPruner = new TimeSegmentPruner(tableConfig, timeFieldSpec);
+
+    List<String> onlineSegments = new ArrayList<>(_numSegments);
+    List<ZNRecord> znRecords = new ArrayList<>(_numSegments);
+    for (int i = 0; i < _numSegments; i++) {
+      String segment = getSegmentName(i);
+      onlineSegments.add(segment);
+      znRecords.add(getZNRecord(segment, i));
+    }
+    _segmentPruner.init(null, null, onlineSegments, znRecords);
+    _onlineSegments = new HashSet<>(onlineSegments);
+    _nextSegmentId = _numSegments;
+
+    // Query the last 24 hours and the last 1/10 of the segments
+    long endTimeMs = _numSegments * SEGMENT_TIME_RANGE_MS;
+    _narrowRangeQuery = CalciteSqlCompiler.compileToBrokerRequest(
+        String.format("SELECT COUNT(*) FROM %s WHERE %s >= %d", RAW_TABLE_NAME, TIME_COLUMN,
+            endTimeMs - 24 * SEGMENT_TIME_RANGE_MS));
+    _wideRangeQuery = CalciteSqlCompiler.compileToBrokerRequest(
+        String.format("SELECT COUNT(*) FROM %s WHERE %s BETWEEN %d AND %d", RAW_TABLE_NAME, TIME_COLUMN,
+            endTimeMs - _numSegments / 10 * SEGMENT_TIME_RANGE_MS, endTimeMs));
+  }
+
+  private static String getSegmentName(int segmentId) {
+    return RAW_TABLE_NAME + "_" + segmentId;
+  }
+
+  private static ZNRecord getZNRecord(String segment, int segmentId) {
+    ZNRecord znRecord = new ZNRecord(segment);
+    znRecord.setLongField(CommonConstants.Segment.START_TIME, segmentId * SEGMENT_TIME_RANGE_MS);
+    znRecord.setLongField(CommonConstants.Segment.END_TIME, (segmentId + 1) * SEGMENT_TIME_RANGE_MS - 1);
+    znRecord.setSimpleField(CommonConstants.Segment.TIME_UNIT, TimeUnit.MILLISECONDS.name());
+    return znRecord;
+  }
+
+  @Benchmark
+  public Set<String> pruneNarrowRange() {
+    return _segmentPruner.prune(_narrowRangeQuery, _onlineSegments);
+  }
+
+  @Benchmark
+  public Set<String> pruneWideRange() {
+    return _segmentPruner.prune(_wideRangeQuery, _onlineSegments);
+  }
+
+  @Benchmark
+  public void onAssignmentChange() {
+    // Add a new segment and remove the oldest one
+    int segmentId = _nextSegmentId++;
+    String newSegment = getSegmentName(segmentId);
+    _onlineSegments.add(newSegment);
+    _onlineSegments.remove(getSegmentName(segmentId - _numSegments));
+    _segmentPruner.onAssignmentChange(null, null, _onlineSegments, List.of(newSegment),
+        List.of(getZNRecord(newSegment, segmentId)));
+  }
+}
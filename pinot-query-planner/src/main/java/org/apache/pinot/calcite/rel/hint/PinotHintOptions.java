@@ -37,6 +37,10 @@ public class PinotHintOptions {
   public static final String JOIN_HINT_OPTIONS = "joinOptions";
   public static final String TABLE_HINT_OPTIONS = "tableOptions";
   public static final String WINDOW_HINT_OPTIONS = "windowOptions";
+  /**
+   * Internal hint attached to the mailbox send nodes by the planner, not meant to be specified in the query.
+   */
+  public static final String EXCHANGE_HINT_OPTIONS = "exchangeOptions";
 
   public static class AggregateOptions {
     public static final String IS_PARTITIONED_BY_GROUP_BY_KEYS = "is_partitioned_by_group_by_keys";
@@ -44,6 +48,12 @@ public class PinotHintOptions {
 
     public static final String NUM_GROUPS_LIMIT = "num_groups_limit";
     public static final String MAX_INITIAL_RESULT_HOLDER_CAPACITY = "max_initial_result_holder_capacity";
+    /**
+     * Mode when the number of groups reaches the num groups limit, supported values: BREAK or SPILL.
+     *   BREAK(default): Stop adding new groups, results might be partial.
+     *   SPILL: Partition the partial aggregates to local disk and merge one partition at a time, results are complete.
+     */
+    public static final String GROUP_BY_OVERFLOW_MODE = "group_by_overflow_mode";
   }
 
   public static class WindowHintOptions {
@@ -52,9 +62,10 @@ public class PinotHintOptions {
      */
     public static final String MAX_ROWS_IN_WINDOW = "max_rows_in_window";
     /**
-     * Mode when window overflow happens, supported values: THROW or BREAK.
+     * Mode when window overflow happens, supported values: THROW, BREAK or SPILL.
      *   THROW(default): Break window cache build process, and throw exception, no further WINDOW operation performed.
      *   BREAK: Break window cache build process, continue to perform WINDOW operation, results might be partial.
+     *   SPILL: Partition the rows to local disk and perform WINDOW operation one partition at a time.
      */
     public static final String WINDOW_OVERFLOW_MODE = "window_overflow_mode";
   }
@@ -63,6 +74,11 @@ public class PinotHintOptions {
     public static final String JOIN_STRATEGY = "join_strategy";
     public static final String DYNAMIC_BROADCAST_JOIN_STRATEGY = "dynamic_broadcast";
     public static final String HASH_TABLE_JOIN_STRATEGY = "hash_table";
+    /**
+     * Sort both inputs on the join keys when they are received, so that the join is performed with a streaming sort
+     * merge join instead of building a hash table with the right table.
+     */
+    public static final String SORT_MERGE_JOIN_STRATEGY = "sort_merge";
     /**
      * Max rows allowed to build the right table hash collection.
      */
@@ -77,6 +93,39 @@ public class PinotHintOptions {
      * Indicat that the join operator(s) within a certain selection scope are colocated
      */
     public static final String IS_COLOCATED_BY_JOIN_KEYS = "is_colocated_by_join_keys";
+    /**
+     * Perform an INNER join in the leaf stage of the left table, with the right table broadcast to it, and filter the
+     * left table with the join keys of the right table so that the left rows without a match are pruned by the
+     * segment indexes.
+     */
+    public static final String APPLY_DYNAMIC_FILTER = "apply_dynamic_filter";
+    /**
+     * Max number of distinct values of a join key in the IN filter applied with {@link #APPLY_DYNAMIC_FILTER}. The
+     * filter of a join key is not applied when the right table has more distinct values for it.
+     */
+    public static final String DYNAMIC_FILTER_MAX_VALUES = "dynamic_filter_max_values";
+    /**
+     * Comma separated values of the join key that are known to be skewed (hot keys). The left rows with these keys are
+     * spread across all the join workers instead of being hashed to a single one, and the right rows with these keys
+     * are sent to all the join workers. Only applies to INNER, LEFT, SEMI and ANTI joins on a single key with hash
+     * distributed inputs. Values are matched against the string representation of the key.
+     */
+    public static final String SKEWED_KEYS = "skewed_keys";
+  }
+
+  public static class ExchangeHintOptions {
+    /**
+     * Comma separated values of the distribution key handled with the {@link #SKEWED_KEYS_STRATEGY}.
+     */
+    public static final String SKEWED_KEYS = "skewed_keys";
+    /**
+     * How the rows with skewed keys are distributed, supported values: split or broadcast.
+     *   split: Spread the rows across all the receiving workers.
+     *   broadcast: Send the rows to all the receiving workers.
+     */
+    public static final String SKEWED_KEYS_STRATEGY = "skewed_keys_strategy";
+    public static final String SPLIT_SKEWED_KEYS_STRATEGY = "split";
+    public static final String BROADCAST_SKEWED_KEYS_STRATEGY = "broadcast";
   }
 
   public static class TableHintOptions {
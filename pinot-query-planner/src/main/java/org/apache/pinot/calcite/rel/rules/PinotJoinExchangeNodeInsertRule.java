@@ -19,19 +19,39 @@
 package org.apache.pinot.calcite.rel.rules;
 
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelDistributions;
+import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.logical.LogicalJoin;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.tools.RelBuilderFactory;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.calcite.rel.hint.PinotHintStrategyTable;
 import org.apache.pinot.calcite.rel.logical.PinotLogicalExchange;
+import org.apache.pinot.calcite.rel.logical.PinotLogicalSortExchange;
+import org.apache.pinot.query.context.PlannerContext;
+import org.apache.zookeeper.common.StringUtils;
 
 
 /**
  * Special rule for Pinot, this rule is fixed to always insert exchange after JOIN node.
+ *
+ * <p>When the {@code sort_merge} join strategy is requested through the join hint, the exchanges also sort both inputs
+ * on the join keys so that the join can be performed by merging them.
+ *
+ * <p>When auto broadcast join is enabled (see {@link PlannerContext#getAutoBroadcastJoinMaxRowCount()}), the size of
+ * the tables is known and no join hint is provided, an INNER or LEFT join whose right input is estimated to have at
+ * most the configured number of rows (and fewer rows than the left input) broadcasts the right input instead of
+ * shuffling both inputs.
  */
 public class PinotJoinExchangeNodeInsertRule extends RelOptRule {
   public static final PinotJoinExchangeNodeInsertRule INSTANCE =
@@ -63,10 +83,16 @@ public class PinotJoinExchangeNodeInsertRule extends RelOptRule {
     RelNode rightExchange;
     JoinInfo joinInfo = join.analyzeCondition();
 
-    if (joinInfo.leftKeys.isEmpty()) {
-      // when there's no JOIN key, use broadcast.
+    if (joinInfo.leftKeys.isEmpty() || isBroadcastJoin(join, call)) {
+      // when there's no JOIN key or the right input is small, use broadcast.
       leftExchange = PinotLogicalExchange.create(leftInput, RelDistributions.RANDOM_DISTRIBUTED);
       rightExchange = PinotLogicalExchange.create(rightInput, RelDistributions.BROADCAST_DISTRIBUTED);
+    } else if (isSortMergeJoin(join)) {
+      // when sort merge join is requested, use hash distribution and sort both sides on the join keys.
+      leftExchange = PinotLogicalSortExchange.create(leftInput, RelDistributions.hash(joinInfo.leftKeys),
+          getCollation(joinInfo.leftKeys), false, true);
+      rightExchange = PinotLogicalSortExchange.create(rightInput, RelDistributions.hash(joinInfo.rightKeys),
+          getCollation(joinInfo.rightKeys), false, true);
     } else {
       // when join key exists, use hash distribution.
       leftExchange = PinotLogicalExchange.create(leftInput, RelDistributions.hash(joinInfo.leftKeys));
@@ -79,4 +105,33 @@ public class PinotJoinExchangeNodeInsertRule extends RelOptRule {
             ImmutableList.copyOf(join.getSystemFieldList()));
     call.transformTo(newJoinNode);
   }
+
+  private static boolean isBroadcastJoin(Join join, RelOptRuleCall call) {
+    PlannerContext plannerContext = call.getPlanner().getContext().unwrap(PlannerContext.class);
+    long maxRowCount = plannerContext != null ? plannerContext.getAutoBroadcastJoinMaxRowCount() : 0;
+    if (maxRowCount <= 0 || !join.getHints().isEmpty() || (join.getJoinType() != JoinRelType.INNER
+        && join.getJoinType() != JoinRelType.LEFT) || !PinotRuleUtils.hasTableStatistics(join)) {
+      return false;
+    }
+    RelMetadataQuery mq = call.getMetadataQuery();
+    Double leftRowCount = mq.getRowCount(join.getLeft());
+    Double rightRowCount = mq.getRowCount(join.getRight());
+    return leftRowCount != null && rightRowCount != null && rightRowCount <= maxRowCount
+        && rightRowCount < leftRowCount;
+  }
+
+  private static boolean isSortMergeJoin(Join join) {
+    String joinStrategyString = PinotHintStrategyTable.getHintOption(join.getHints(),
+        PinotHintOptions.JOIN_HINT_OPTIONS, PinotHintOptions.JoinHintOptions.JOIN_STRATEGY);
+    return joinStrategyString != null && StringUtils.split(joinStrategyString, ",")
+        .contains(PinotHintOptions.JoinHintOptions.SORT_MERGE_JOIN_STRATEGY);
+  }
+
+  private static RelCollation getCollation(List<Integer> keys) {
+    List<RelFieldCollation> fieldCollations = new ArrayList<>(keys.size());
+    for (int key : keys) {
+      fieldCollations.add(new RelFieldCollation(key));
+    }
+    return RelCollations.of(fieldCollations);
+  }
 }
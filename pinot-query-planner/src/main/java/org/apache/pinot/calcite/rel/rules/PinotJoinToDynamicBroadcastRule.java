@@ -160,24 +160,26 @@ public class PinotJoinToDynamicBroadcastRule extends RelOptRule {
     PinotLogicalExchange right = (PinotLogicalExchange) (join.getRight() instanceof HepRelVertex
         ? ((HepRelVertex) join.getRight()).getCurrentRel() : join.getRight());
 
-    // when colocated join hint is given, dynamic broadcast exchange can be hash-distributed b/c
-    //    1. currently, dynamic broadcast only works against main table off leaf-stage; (e.g. receive node on leaf)
-    //    2. when hash key are the same but hash functions are different, it can be done via normal hash shuffle.
-    boolean isColocatedJoin = PinotHintStrategyTable.isHintOptionTrue(join.getHints(),
-        PinotHintOptions.JOIN_HINT_OPTIONS, PinotHintOptions.JoinHintOptions.IS_COLOCATED_BY_JOIN_KEYS);
-    PinotLogicalExchange dynamicBroadcastExchange;
-    RelNode rightInput = right.getInput();
-    if (isColocatedJoin) {
-      RelDistribution dist = RelDistributions.hash(join.analyzeCondition().rightKeys);
-      dynamicBroadcastExchange = PinotLogicalExchange.create(rightInput, dist, PinotRelExchangeType.PIPELINE_BREAKER);
-    } else {
-      RelDistribution dist = RelDistributions.BROADCAST_DISTRIBUTED;
-      dynamicBroadcastExchange = PinotLogicalExchange.create(rightInput, dist, PinotRelExchangeType.PIPELINE_BREAKER);
-    }
+    PinotLogicalExchange dynamicBroadcastExchange = createPipelineBreakerExchange(join, right.getInput());
     Join dynamicFilterJoin =
         new LogicalJoin(join.getCluster(), join.getTraitSet(), left.getInput(), dynamicBroadcastExchange,
             join.getCondition(), join.getVariablesSet(), join.getJoinType(), join.isSemiJoinDone(),
             ImmutableList.copyOf(join.getSystemFieldList()));
     call.transformTo(dynamicFilterJoin);
   }
+
+  /**
+   * Creates the pipeline breaker exchange shipping the given right input of the join to the leaf stage of its left
+   * input.
+   */
+  static PinotLogicalExchange createPipelineBreakerExchange(Join join, RelNode rightInput) {
+    // when colocated join hint is given, dynamic broadcast exchange can be hash-distributed b/c
+    //    1. currently, dynamic broadcast only works against main table off leaf-stage; (e.g. receive node on leaf)
+    //    2. when hash key are the same but hash functions are different, it can be done via normal hash shuffle.
+    boolean isColocatedJoin = PinotHintStrategyTable.isHintOptionTrue(join.getHints(),
+        PinotHintOptions.JOIN_HINT_OPTIONS, PinotHintOptions.JoinHintOptions.IS_COLOCATED_BY_JOIN_KEYS);
+    RelDistribution dist = isColocatedJoin ? RelDistributions.hash(join.analyzeCondition().rightKeys)
+        : RelDistributions.BROADCAST_DISTRIBUTED;
+    return PinotLogicalExchange.create(rightInput, dist, PinotRelExchangeType.PIPELINE_BREAKER);
+  }
 }
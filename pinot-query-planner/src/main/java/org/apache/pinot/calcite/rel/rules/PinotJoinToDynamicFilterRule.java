@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.calcite.rel.rules;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Exchange;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.logical.LogicalJoin;
+import org.apache.calcite.tools.RelBuilderFactory;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.calcite.rel.hint.PinotHintStrategyTable;
+
+
+/**
+ * Special rule for Pinot, this rule adds a dynamic filter on the left (probe) side of an INNER JOIN, built from the
+ * join keys of the right (build) side.
+ *
+ * <p>The join is moved into the leaf stage of its left input, and the right input is shipped to it as a pipeline
+ * breaker:
+ *
+ *                  ...                                        ...
+ *                   |                                          |
+ *             [ Inner Join ]                             [ Inner Join ]
+ *             /            \                             /            \
+ *        [xChange]      [xChange]               [Proj/Filter]   [Pipeline Breaker xChange]
+ *           /                \                         |                    \
+ *     [Proj/Filter]       [ Right ]              [Table Scan ]            [ Right ]
+ *          |
+ *     [Table Scan ]
+ *
+ * <p>The right input is received before the leaf stage runs. In the runtime, its join keys are attached to the leaf
+ * query as one IN filter per join key pair, so that the segment indexes can prune the left rows without a match before
+ * they are joined. The same received rows are then used as the build side of the join, so the right input is computed
+ * only once. The IN filter of a key is skipped when the right input has too many distinct values for it, see
+ * {@link PinotHintOptions.JoinHintOptions#DYNAMIC_FILTER_MAX_VALUES}.
+ *
+ * <p>The rule only applies when requested with the {@code apply_dynamic_filter} join hint, and when the left input is
+ * a leaf stage (Project/Filter on top of a TableScan) so that the filter can be attached to the leaf query. RIGHT
+ * joins are not rewritten, since the right rows without a match would be emitted by every leaf worker the right input
+ * is broadcast to.
+ */
+public class PinotJoinToDynamicFilterRule extends RelOptRule {
+  public static final PinotJoinToDynamicFilterRule INSTANCE =
+      new PinotJoinToDynamicFilterRule(PinotRuleUtils.PINOT_REL_FACTORY);
+
+  public PinotJoinToDynamicFilterRule(RelBuilderFactory factory) {
+    super(operand(LogicalJoin.class, any()), factory, null);
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call) {
+    if (call.rels.length < 1 || !(call.rel(0) instanceof Join)) {
+      return false;
+    }
+    Join join = call.rel(0);
+    RelNode left = PinotRuleUtils.unboxRel(join.getLeft());
+    RelNode right = PinotRuleUtils.unboxRel(join.getRight());
+    return PinotHintStrategyTable.isHintOptionTrue(join.getHints(), PinotHintOptions.JOIN_HINT_OPTIONS,
+        PinotHintOptions.JoinHintOptions.APPLY_DYNAMIC_FILTER)
+        // left rows without a match are dropped
+        && join.getJoinType() == JoinRelType.INNER
+        && !join.analyzeCondition().leftKeys.isEmpty()
+        && left instanceof Exchange && right instanceof Exchange
+        && isLeafTableScan(left.getInput(0));
+  }
+
+  @Override
+  public void onMatch(RelOptRuleCall call) {
+    Join join = call.rel(0);
+    RelNode left = PinotRuleUtils.unboxRel(join.getLeft());
+    RelNode right = PinotRuleUtils.unboxRel(join.getRight());
+    // NOTE: Keep the hints, which are needed by the join operator
+    call.transformTo(join.copy(join.getTraitSet(), join.getCondition(), left.getInput(0),
+        PinotJoinToDynamicBroadcastRule.createPipelineBreakerExchange(join, right.getInput(0)), join.getJoinType(),
+        join.isSemiJoinDone()));
+  }
+
+  /**
+   * Returns whether the given node only contains single-in, single-out nodes (Project/Filter) on top of a TableScan.
+   */
+  private static boolean isLeafTableScan(RelNode relNode) {
+    relNode = PinotRuleUtils.unboxRel(relNode);
+    if (relNode instanceof TableScan) {
+      return true;
+    } else if (relNode instanceof Project || relNode instanceof Filter) {
+      return isLeafTableScan(relNode.getInput(0));
+    } else {
+      return false;
+    }
+  }
+}
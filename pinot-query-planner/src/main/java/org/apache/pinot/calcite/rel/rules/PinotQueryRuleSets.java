@@ -117,6 +117,13 @@ public class PinotQueryRuleSets {
       PruneEmptyRules.UNION_INSTANCE
   );
 
+  // Join reorder rules run bottom-up to first flatten the joins into MultiJoins, then pick the join order and the build
+  // side of each join based on the estimated row counts. They only run when the size of all the tables is known.
+  public static final List<RelOptRule> JOIN_ORDER_RULES = List.of(
+      CoreRules.JOIN_TO_MULTI_JOIN,
+      CoreRules.MULTI_JOIN_OPTIMIZE
+  );
+
   // Pinot specific rules that should be run AFTER all other rules
   public static final List<RelOptRule> PINOT_POST_RULES = List.of(
       // Evaluate the Literal filter nodes
@@ -135,6 +142,7 @@ public class PinotQueryRuleSets {
 
       // apply dynamic broadcast rule after exchange is inserted/
       PinotJoinToDynamicBroadcastRule.INSTANCE,
+      PinotJoinToDynamicFilterRule.INSTANCE,
 
       // remove exchanges when there's duplicates
       PinotExchangeEliminationRule.INSTANCE,
@@ -34,6 +34,7 @@ import org.apache.calcite.sql2rel.SqlToRelConverter;
 import org.apache.calcite.tools.RelBuilder;
 import org.apache.calcite.tools.RelBuilderFactory;
 import org.apache.pinot.calcite.rel.hint.PinotHintStrategyTable;
+import org.apache.pinot.query.catalog.PinotTable;
 
 
 public class PinotRuleUtils {
@@ -113,6 +114,24 @@ public class PinotRuleUtils {
     }
   }
 
+  /**
+   * Returns whether the number of rows is known for all the tables scanned under the given node, in which case the row
+   * count estimated by the metadata query is derived from the actual table sizes instead of the default guesses.
+   */
+  public static boolean hasTableStatistics(RelNode relNode) {
+    relNode = unboxRel(relNode);
+    if (relNode instanceof TableScan) {
+      PinotTable table = relNode.getTable().unwrap(PinotTable.class);
+      return table != null && table.hasStatistics();
+    }
+    for (RelNode input : relNode.getInputs()) {
+      if (!hasTableStatistics(input)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public static String extractFunctionName(RexCall function) {
     SqlKind funcSqlKind = function.getOperator().getKind();
     return funcSqlKind == SqlKind.OTHER_FUNCTION ? function.getOperator().getName() : funcSqlKind.name();
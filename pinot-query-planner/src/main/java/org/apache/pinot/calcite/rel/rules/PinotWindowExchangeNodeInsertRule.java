@@ -30,7 +30,10 @@ import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptRuleCall;
 import org.apache.calcite.plan.hep.HepRelVertex;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelDistributions;
+import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.Project;
 import org.apache.calcite.rel.core.Window;
@@ -140,13 +143,14 @@ public class PinotWindowExchangeNodeInsertRule extends RelOptRule {
             List.of(windowGroup)));
       } else {
         // PARTITION BY and ORDER BY on different key(s)
-        // Add a LogicalSortExchange hashed on the partition by keys and collation based on order by keys
+        // Add a LogicalSortExchange hashed on the partition by keys and collation based on the partition by keys
+        // followed by the order by keys, so that the WINDOW operator can process one partition at a time
         // TODO: ORDER BY only type queries need to be sorted only on the receiver side unless a hint is set indicating
         //       that the data is already partitioned and sorting can be done on the sender side instead. This way
         //       sorting on the receiver side can be a no-op. Add support for this hint and pass it on. Until sender
         //       side sorting is implemented, setting this hint will throw an error on execution.
         PinotLogicalSortExchange sortExchange = PinotLogicalSortExchange.create(windowInput,
-            RelDistributions.hash(windowGroup.keys.toList()), windowGroup.orderKeys, false, true);
+            RelDistributions.hash(windowGroup.keys.toList()), getPartitionAndOrderCollation(windowGroup), false, true);
         call.transformTo(LogicalWindow.create(window.getTraitSet(), sortExchange, window.constants, window.getRowType(),
             List.of(windowGroup)));
       }
@@ -247,6 +251,22 @@ public class PinotWindowExchangeNodeInsertRule extends RelOptRule {
     return aggCalls.stream().anyMatch(aggCall -> aggCall.getKind().equals(SqlKind.ROW_NUMBER));
   }
 
+  /**
+   * Returns the collation on the partition by keys followed by the order by keys that are not partition by keys.
+   */
+  private static RelCollation getPartitionAndOrderCollation(Window.Group windowGroup) {
+    List<RelFieldCollation> fieldCollations = new ArrayList<>();
+    for (int key : windowGroup.keys) {
+      fieldCollations.add(new RelFieldCollation(key));
+    }
+    for (RelFieldCollation fieldCollation : windowGroup.orderKeys.getFieldCollations()) {
+      if (!windowGroup.keys.get(fieldCollation.getFieldIndex())) {
+        fieldCollations.add(fieldCollation);
+      }
+    }
+    return RelCollations.of(fieldCollations);
+  }
+
   private boolean isPartitionByOnlyQuery(Window.Group windowGroup) {
     boolean isPartitionByOnly = false;
     if (windowGroup.orderKeys.getKeys().isEmpty()) {
@@ -0,0 +1,265 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query;
+
+import com.google.common.base.Preconditions;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.calcite.rel.RelHomogeneousShuttle;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelRoot;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexDynamicParam;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexShuttle;
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlCharStringLiteral;
+import org.apache.calcite.sql.SqlDynamicParam;
+import org.apache.calcite.sql.SqlHint;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlLiteral;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlNumericLiteral;
+import org.apache.calcite.sql.type.SqlTypeUtil;
+import org.apache.calcite.sql.util.SqlShuttle;
+import org.apache.calcite.util.NlsString;
+
+
+/**
+ * A multi-stage query with the literals compared to the columns replaced by dynamic parameters, so that the queries
+ * only differing in these literals share the same plan in the {@link QueryPlanCache}.
+ *
+ * <p>Only the numeric and string literals compared (=, <>, <, <=, >, >=, BETWEEN) to an identifier are parameterized,
+ * for which the type of the parameter is inferred from the identifier. The other literals (e.g. function arguments,
+ * LIMIT) can change the plan and are kept in the query. The plan compiled from the parameterized query is bound to the
+ * literals of each query with {@link #bind(RelRoot, RexBuilder)}, which creates the same literals as compiling the
+ * query.
+ */
+public class ParameterizedQuery {
+  private static final Set<SqlKind> PARAMETERIZED_KINDS =
+      EnumSet.of(SqlKind.EQUALS, SqlKind.NOT_EQUALS, SqlKind.LESS_THAN, SqlKind.LESS_THAN_OR_EQUAL,
+          SqlKind.GREATER_THAN, SqlKind.GREATER_THAN_OR_EQUAL, SqlKind.BETWEEN);
+
+  private final SqlNode _sqlNode;
+  private final List<SqlLiteral> _literals;
+  private final String _key;
+
+  private ParameterizedQuery(SqlNode sqlNode, List<SqlLiteral> literals) {
+    _sqlNode = sqlNode;
+    _literals = literals;
+    // NOTE: The parameters are typed from the identifiers, but a string compared to a numeric column (or the opposite)
+    //       is validated differently, so the type family of the literals is part of the key.
+    String literalTypes =
+        literals.stream().map(literal -> literal.getTypeName().getFamily().toString()).collect(Collectors.joining(","));
+    _key = literalTypes + '.' + sqlNode;
+  }
+
+  /**
+   * Parameterizes the given query. The returned query is a copy of the given one when any literal is parameterized, so
+   * that the given query can still be compiled when the parameterized one cannot.
+   */
+  public static ParameterizedQuery parameterize(SqlNode sqlNode) {
+    List<SqlLiteral> literals = new ArrayList<>();
+    SqlNode parameterized;
+    try {
+      parameterized = sqlNode.accept(new Parameterizer(literals));
+    } catch (Exception e) {
+      // Keep the query as is when it cannot be copied
+      return new ParameterizedQuery(sqlNode, List.of());
+    }
+    return literals.isEmpty() ? new ParameterizedQuery(sqlNode, List.of())
+        : new ParameterizedQuery(parameterized, literals);
+  }
+
+  public SqlNode getSqlNode() {
+    return _sqlNode;
+  }
+
+  public boolean hasParameters() {
+    return !_literals.isEmpty();
+  }
+
+  /**
+   * Returns the parameterized query with the types of the parameterized literals, shared by the queries only differing
+   * in these literals.
+   */
+  public String getKey() {
+    return _key;
+  }
+
+  /**
+   * Returns whether the given plan compiled from this query can be bound to the literals of any query with the same
+   * key, i.e. all the parameters are in the plan expressions, not cast, and typed in the same family as the literals
+   * (parameters typed otherwise would have different implicit casts than the literals).
+   */
+  public boolean canBind(RelRoot relRoot) {
+    Map<Integer, RelDataType> parameterTypes = new HashMap<>();
+    boolean[] castParameter = new boolean[1];
+    replaceParameters(relRoot.rel, new RexShuttle() {
+      @Override
+      public RexNode visitCall(RexCall call) {
+        if (call.getKind() == SqlKind.CAST && call.getOperands().get(0) instanceof RexDynamicParam) {
+          castParameter[0] = true;
+        }
+        return super.visitCall(call);
+      }
+
+      @Override
+      public RexNode visitDynamicParam(RexDynamicParam dynamicParam) {
+        parameterTypes.put(dynamicParam.getIndex(), dynamicParam.getType());
+        return dynamicParam;
+      }
+    });
+    // NOTE: A cast of a parameter (e.g. to the common type of the operands) can be narrowing for the bound literals
+    if (castParameter[0] || parameterTypes.size() != _literals.size()) {
+      return false;
+    }
+    for (Map.Entry<Integer, RelDataType> entry : parameterTypes.entrySet()) {
+      SqlLiteral literal = _literals.get(entry.getKey());
+      RelDataType type = entry.getValue();
+      if (literal instanceof SqlCharStringLiteral ? !SqlTypeUtil.inCharFamily(type) : !SqlTypeUtil.isNumeric(type)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Binds the given plan compiled from a query with the same key to the literals of this query. The nodes with
+   * parameters are copied, and the other ones are shared with the given plan.
+   */
+  public RelRoot bind(RelRoot relRoot, RexBuilder rexBuilder) {
+    if (_literals.isEmpty()) {
+      return relRoot;
+    }
+    return relRoot.withRel(replaceParameters(relRoot.rel, new RexShuttle() {
+      @Override
+      public RexNode visitDynamicParam(RexDynamicParam dynamicParam) {
+        return toRexLiteral(_literals.get(dynamicParam.getIndex()), rexBuilder);
+      }
+    }));
+  }
+
+  private static RelNode replaceParameters(RelNode relNode, RexShuttle rexShuttle) {
+    return relNode.accept(new RelHomogeneousShuttle() {
+      @Override
+      public RelNode visit(RelNode other) {
+        return super.visit(other).accept(rexShuttle);
+      }
+    });
+  }
+
+  /**
+   * Converts the literal the same way as {@code SqlNodeToRexConverterImpl}, so that the bound plan has the same
+   * literals as the plan compiled from the query.
+   */
+  private static RexNode toRexLiteral(SqlLiteral literal, RexBuilder rexBuilder) {
+    if (literal instanceof SqlCharStringLiteral) {
+      return rexBuilder.makeCharLiteral(literal.getValueAs(NlsString.class));
+    }
+    BigDecimal value = literal.getValueAs(BigDecimal.class);
+    if (((SqlNumericLiteral) literal).isExact()) {
+      return rexBuilder.makeExactLiteral(value, literal.createSqlType(rexBuilder.getTypeFactory()));
+    } else {
+      return rexBuilder.makeApproxLiteral(value);
+    }
+  }
+
+  /**
+   * Copies the query (the validation rewrites the nodes in place) and replaces the parameterized literals with dynamic
+   * parameters indexed in the order of the collected literals.
+   */
+  private static class Parameterizer extends SqlShuttle {
+    final List<SqlLiteral> _literals;
+
+    Parameterizer(List<SqlLiteral> literals) {
+      _literals = literals;
+    }
+
+    @Override
+    public SqlNode visit(SqlIdentifier id) {
+      return id.clone(id.getParserPosition());
+    }
+
+    @Override
+    public SqlNode visit(SqlNodeList nodeList) {
+      List<SqlNode> nodes = new ArrayList<>(nodeList.size());
+      for (SqlNode node : nodeList) {
+        nodes.add(node != null ? node.accept(this) : null);
+      }
+      return SqlNodeList.of(nodeList.getParserPosition(), nodes);
+    }
+
+    @Override
+    public SqlNode visit(SqlCall call) {
+      if (call instanceof SqlHint) {
+        // Hints are not expressions, and cannot be re-created from their operands
+        return call;
+      }
+      if (canParameterize(call)) {
+        List<SqlNode> operands = call.getOperandList();
+        SqlNode[] parameterizedOperands = new SqlNode[operands.size()];
+        for (int i = 0; i < parameterizedOperands.length; i++) {
+          SqlNode operand = operands.get(i);
+          if (operand instanceof SqlLiteral) {
+            parameterizedOperands[i] = new SqlDynamicParam(_literals.size(), operand.getParserPosition());
+            _literals.add((SqlLiteral) operand);
+          } else {
+            parameterizedOperands[i] = operand.accept(this);
+          }
+        }
+        return call.getOperator().createCall(call.getFunctionQuantifier(), call.getParserPosition(),
+            parameterizedOperands);
+      }
+      CallCopyingArgHandler argHandler = new CallCopyingArgHandler(call, true);
+      call.getOperator().acceptCall(this, call, false, argHandler);
+      SqlNode copy = argHandler.result();
+      Preconditions.checkState(copy != null && copy.getClass() == call.getClass(), "Failed to copy: %s", call);
+      return copy;
+    }
+
+    private static boolean canParameterize(SqlCall call) {
+      if (!PARAMETERIZED_KINDS.contains(call.getKind())) {
+        return false;
+      }
+      boolean hasIdentifier = false;
+      boolean hasLiteral = false;
+      for (SqlNode operand : call.getOperandList()) {
+        if (operand instanceof SqlIdentifier) {
+          hasIdentifier = true;
+        } else if (operand instanceof SqlNumericLiteral || operand instanceof SqlCharStringLiteral) {
+          hasLiteral = true;
+        } else {
+          return false;
+        }
+      }
+      return hasIdentifier && hasLiteral;
+    }
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.calcite.plan.hep.HepProgramBuilder;
 import org.apache.calcite.prepare.CalciteCatalogReader;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelRoot;
+import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rex.RexBuilder;
 import org.apache.calcite.runtime.CalciteContextException;
 import org.apache.calcite.sql.SqlExplain;
@@ -50,6 +51,7 @@ import org.apache.calcite.sql2rel.SqlToRelConverter;
 import org.apache.calcite.tools.FrameworkConfig;
 import org.apache.calcite.tools.Frameworks;
 import org.apache.calcite.tools.RelBuilder;
+import org.apache.pinot.calcite.rel.metadata.PinotRelMdRowCount;
 import org.apache.pinot.calcite.rel.rules.PinotQueryRuleSets;
 import org.apache.pinot.calcite.rel.rules.PinotRelDistributionTraitRule;
 import org.apache.pinot.calcite.rel.rules.PinotRuleUtils;
@@ -94,26 +96,50 @@ public class QueryEnvironment {
   private final FrameworkConfig _config;
   private final CalciteCatalogReader _catalogReader;
   private final HepProgram _optProgram;
+  private final HepProgram _joinOrderProgram;
   private final HepProgram _traitProgram;
 
   // Pinot extensions
+  private final String _database;
   private final TableCache _tableCache;
   private final WorkerManager _workerManager;
+  private final QueryPlanCache _planCache;
+  private final boolean _defaultEnableJoinReorder;
+  private final long _defaultAutoBroadcastJoinMaxRowCount;
 
   public QueryEnvironment(String database, TableCache tableCache, @Nullable WorkerManager workerManager) {
-    PinotCatalog catalog = new PinotCatalog(database, tableCache);
+    this(database, tableCache, workerManager, null, false, 0);
+  }
+
+  /**
+   * @param defaultEnableJoinReorder whether to reorder the joins based on the table statistics when not specified in
+   *                                 the query options
+   * @param defaultAutoBroadcastJoinMaxRowCount maximum estimated number of rows of the right input of a join to be
+   *                                            broadcast without join hint when not specified in the query options,
+   *                                            0 to disable
+   */
+  public QueryEnvironment(String database, TableCache tableCache, @Nullable WorkerManager workerManager,
+      @Nullable QueryPlanCache planCache, boolean defaultEnableJoinReorder, long defaultAutoBroadcastJoinMaxRowCount) {
+    PinotCatalog catalog =
+        new PinotCatalog(database, tableCache, workerManager != null ? workerManager.getRoutingManager() : null);
     CalciteSchema rootSchema = CalciteSchema.createRootSchema(false, false, database, catalog);
     _config = Frameworks.newConfigBuilder().traitDefs().operatorTable(PinotOperatorTable.instance())
         .defaultSchema(rootSchema.plus()).sqlToRelConverterConfig(PinotRuleUtils.PINOT_SQL_TO_REL_CONFIG).build();
     _catalogReader = new CalciteCatalogReader(rootSchema, List.of(database), _typeFactory, CONNECTION_CONFIG);
     _optProgram = getOptProgram();
+    _joinOrderProgram = getJoinOrderProgram();
     _traitProgram = getTraitProgram();
+    _database = database;
     _tableCache = tableCache;
     _workerManager = workerManager;
+    _planCache = planCache;
+    _defaultEnableJoinReorder = defaultEnableJoinReorder;
+    _defaultAutoBroadcastJoinMaxRowCount = defaultAutoBroadcastJoinMaxRowCount;
   }
 
   private PlannerContext getPlannerContext() {
-    return new PlannerContext(_config, _catalogReader, _typeFactory, _optProgram, _traitProgram);
+    return new PlannerContext(_config, _catalogReader, _typeFactory, _optProgram, _joinOrderProgram, _traitProgram,
+        _defaultEnableJoinReorder, _defaultAutoBroadcastJoinMaxRowCount);
   }
 
   /**
@@ -124,6 +150,10 @@ public class QueryEnvironment {
    * TODO: follow benchmark and profile to measure whether it make sense for the latency-concurrency trade-off
    * between reusing plannerImpl vs. create a new planner for each query.
    *
+   * When a {@link QueryPlanCache} is configured, the compiled logical plan is reused across queries with the same
+   * normalized SQL (up to the literals compared to the columns, see {@link ParameterizedQuery}), and only the
+   * distributed {@link DispatchableSubPlan} is generated for each query.
+   *
    * @param sqlQuery SQL query string.
    * @param sqlNodeAndOptions parsed SQL query.
    * @return QueryPlannerResult containing the dispatchable query plan and the relRoot.
@@ -131,7 +161,7 @@ public class QueryEnvironment {
   public QueryPlannerResult planQuery(String sqlQuery, SqlNodeAndOptions sqlNodeAndOptions, long requestId) {
     try (PlannerContext plannerContext = getPlannerContext()) {
       plannerContext.setOptions(sqlNodeAndOptions.getOptions());
-      RelRoot relRoot = compileQuery(sqlNodeAndOptions.getSqlNode(), plannerContext);
+      RelRoot relRoot = getOrCompileQuery(sqlNodeAndOptions.getSqlNode(), plannerContext);
       // TODO: current code only assume one SubPlan per query, but we should support multiple SubPlans per query.
       // Each SubPlan should be able to run independently from Broker then set the results into the dependent
       // SubPlan for further processing.
@@ -253,6 +283,48 @@ public class QueryEnvironment {
   // steps
   // --------------------------------------------------------------------------
 
+  private RelRoot getOrCompileQuery(SqlNode sqlNode, PlannerContext plannerContext) {
+    if (_planCache == null) {
+      return compileQuery(sqlNode, plannerContext);
+    }
+    // NOTE: Parameterize the query before compiling it because the validation rewrites the SqlNode
+    ParameterizedQuery parameterizedQuery = ParameterizedQuery.parameterize(sqlNode);
+    String key = QueryPlanCache.getKey(_database, parameterizedQuery, plannerContext.isJoinReorderEnabled(),
+        plannerContext.getAutoBroadcastJoinMaxRowCount());
+    long version = _planCache.getVersion();
+    QueryPlanCache.CachedPlan cachedPlan = _planCache.get(key);
+    RelRoot relRoot;
+    if (cachedPlan != null) {
+      relRoot = cachedPlan.getRelRoot();
+    } else {
+      relRoot = compileParameterizedQuery(parameterizedQuery, plannerContext);
+      _planCache.put(key, version, relRoot);
+    }
+    return relRoot != null ? parameterizedQuery.bind(relRoot, new RexBuilder(_typeFactory))
+        : compileQuery(sqlNode, plannerContext);
+  }
+
+  /**
+   * Compiles the parameterized query into a plan which can be bound to the literals of any query with the same key, or
+   * returns {@code null} if the parameters cannot be planned (e.g. their type cannot be inferred or does not match the
+   * literals).
+   */
+  @Nullable
+  private RelRoot compileParameterizedQuery(ParameterizedQuery parameterizedQuery, PlannerContext plannerContext) {
+    if (!parameterizedQuery.hasParameters()) {
+      return compileQuery(parameterizedQuery.getSqlNode(), plannerContext);
+    }
+    // NOTE: Use a separate planner context so that the query can still be compiled with its literals on failure
+    try (PlannerContext parameterizedPlannerContext = getPlannerContext()) {
+      parameterizedPlannerContext.setOptions(plannerContext.getOptions());
+      RelRoot relRoot = compileQuery(parameterizedQuery.getSqlNode(), parameterizedPlannerContext);
+      return parameterizedQuery.canBind(relRoot) ? relRoot : null;
+    } catch (Exception e) {
+      LOGGER.debug("Failed to compile the parameterized query: {}", parameterizedQuery.getSqlNode(), e);
+      return null;
+    }
+  }
+
   private RelRoot compileQuery(SqlNode sqlNode, PlannerContext plannerContext) {
     SqlNode validated = validate(sqlNode, plannerContext);
     RelRoot relation = toRelation(validated, plannerContext);
@@ -272,6 +344,7 @@ public class QueryEnvironment {
   private RelRoot toRelation(SqlNode sqlNode, PlannerContext plannerContext) {
     RexBuilder rexBuilder = new RexBuilder(_typeFactory);
     RelOptCluster cluster = RelOptCluster.create(plannerContext.getRelOptPlanner(), rexBuilder);
+    cluster.setMetadataProvider(PinotRelMdRowCount.PROVIDER);
     SqlToRelConverter converter =
         new SqlToRelConverter(plannerContext.getPlanner(), plannerContext.getValidator(), _catalogReader, cluster,
             PinotConvertletTable.INSTANCE, _config.getSqlToRelConverterConfig());
@@ -304,6 +377,11 @@ public class QueryEnvironment {
       RelOptPlanner optPlanner = plannerContext.getRelOptPlanner();
       optPlanner.setRoot(relRoot.rel);
       RelNode optimized = optPlanner.findBestExp();
+      if (plannerContext.isJoinReorderEnabled() && canReorderJoins(optimized)) {
+        RelOptPlanner joinOrderPlanner = plannerContext.getRelJoinOrderPlanner();
+        joinOrderPlanner.setRoot(optimized);
+        optimized = joinOrderPlanner.findBestExp();
+      }
       RelOptPlanner traitPlanner = plannerContext.getRelTraitPlanner();
       traitPlanner.setRoot(optimized);
       return traitPlanner.findBestExp();
@@ -348,6 +426,47 @@ public class QueryEnvironment {
     return hepProgramBuilder.build();
   }
 
+  private static HepProgram getJoinOrderProgram() {
+    HepProgramBuilder hepProgramBuilder = new HepProgramBuilder();
+    hepProgramBuilder.addMatchOrder(HepMatchOrder.BOTTOM_UP);
+    for (RelOptRule relOptRule : PinotQueryRuleSets.JOIN_ORDER_RULES) {
+      hepProgramBuilder.addRuleInstance(relOptRule);
+    }
+    return hepProgramBuilder.build();
+  }
+
+  /**
+   * Returns whether the joins of the given plan can be reordered based on the estimated row counts, which requires the
+   * size of all the scanned tables to be known. Joins with hints are planned as written.
+   */
+  private static boolean canReorderJoins(RelNode relNode) {
+    return hasJoin(relNode) && !hasJoinHints(relNode) && PinotRuleUtils.hasTableStatistics(relNode);
+  }
+
+  private static boolean hasJoin(RelNode relNode) {
+    if (relNode instanceof Join) {
+      return true;
+    }
+    for (RelNode input : relNode.getInputs()) {
+      if (hasJoin(input)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasJoinHints(RelNode relNode) {
+    if (relNode instanceof Join && !((Join) relNode).getHints().isEmpty()) {
+      return true;
+    }
+    for (RelNode input : relNode.getInputs()) {
+      if (hasJoinHints(input)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private static HepProgram getTraitProgram() {
     HepProgramBuilder hepProgramBuilder = new HepProgramBuilder();
 
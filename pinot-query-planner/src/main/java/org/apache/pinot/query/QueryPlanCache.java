@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.apache.calcite.rel.RelRoot;
+import org.apache.calcite.sql.SqlNode;
+
+
+/**
+ * Cache of the compiled (validated and optimized) logical plans of the multi-stage queries, shared across the
+ * {@link QueryEnvironment}s created for each query.
+ *
+ * <p>Plans are keyed by the database, the planner settings and the {@link ParameterizedQuery} (the unparsed
+ * {@link SqlNode} with the literals compared to the columns replaced by parameters, which ignores formatting and query
+ * options), so that the queries only differing in these literals share the same plan, which is bound to the literals
+ * of each query. The plans are not tied to the planner context they were compiled in (which is closed after the query
+ * is planned), and are not modified when bound and converted into the stage plans, so they can be shared across
+ * threads. Queries for which the parameters cannot be planned are cached without plan, and compiled with their
+ * literals for each query. Only the logical plan is cached; the worker assignment still runs for every query so that it
+ * reflects the current routing. Plans ordered with the table statistics are refreshed when they expire.
+ *
+ * <p>Cached plans must be invalidated with {@link #invalidateAll()} when a schema or a table config changes. Each
+ * cached plan is tagged with the cache version at the time the query was compiled, so that a plan compiled
+ * concurrently with an invalidation is never served.
+ *
+ * <p>This class is thread safe.
+ */
+public class QueryPlanCache {
+  private final Cache<String, CachedPlan> _cache;
+  private final AtomicLong _version = new AtomicLong();
+
+  public QueryPlanCache(int maxSize, long expireAfterWriteMs) {
+    _cache = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  /**
+   * Returns the key of the cached plan for the given query, which includes the planner settings resolved from the query
+   * options which change the plan.
+   */
+  public static String getKey(String database, ParameterizedQuery query, boolean joinReorderEnabled,
+      long autoBroadcastJoinMaxRowCount) {
+    return database + '.' + joinReorderEnabled + '.' + autoBroadcastJoinMaxRowCount + '.' + query.getKey();
+  }
+
+  /**
+   * Returns the current version of the cache, which should be read before compiling a query and passed to
+   * {@link #put(String, long, RelRoot)}.
+   */
+  public long getVersion() {
+    return _version.get();
+  }
+
+  @Nullable
+  public CachedPlan get(String key) {
+    CachedPlan cachedPlan = _cache.getIfPresent(key);
+    if (cachedPlan == null) {
+      return null;
+    }
+    if (cachedPlan._version != _version.get()) {
+      _cache.invalidate(key);
+      return null;
+    }
+    return cachedPlan;
+  }
+
+  /**
+   * Caches the plan compiled at the given version, or {@code null} if the query cannot be compiled with parameters.
+   * The plan is ignored if the cache has been invalidated since then.
+   */
+  public void put(String key, long version, @Nullable RelRoot relRoot) {
+    if (version == _version.get()) {
+      _cache.put(key, new CachedPlan(version, relRoot));
+    }
+  }
+
+  public void invalidateAll() {
+    _version.incrementAndGet();
+    _cache.invalidateAll();
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  public static class CachedPlan {
+    private final long _version;
+    private final RelRoot _relRoot;
+
+    private CachedPlan(long version, @Nullable RelRoot relRoot) {
+      _version = version;
+      _relRoot = relRoot;
+    }
+
+    /**
+     * Returns the plan compiled from the parameterized query, or {@code null} if the query must be compiled with its
+     * literals.
+     */
+    @Nullable
+    public RelRoot getRelRoot() {
+      return _relRoot;
+    }
+  }
+}
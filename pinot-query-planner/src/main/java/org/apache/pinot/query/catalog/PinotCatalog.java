@@ -33,6 +33,7 @@ import org.apache.calcite.schema.Schemas;
 import org.apache.calcite.schema.Table;
 import org.apache.pinot.common.config.provider.TableCache;
 import org.apache.pinot.common.utils.DatabaseUtils;
+import org.apache.pinot.core.routing.RoutingManager;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 
 import static java.util.Objects.requireNonNull;
@@ -43,24 +44,32 @@ import static java.util.Objects.requireNonNull;
  *
  * <p>Catalog is needed for utilizing Apache Calcite's validator, which requires a root schema to store the
  * entire catalog. In Pinot, since we don't have nested sub-catalog concept, we just return a flat list of schemas.
+ *
+ * <p>When a {@link RoutingManager} is provided, the number of documents of the tables is attached to the tables as
+ * statistics for the cost-based optimizations.
  */
 public class PinotCatalog implements Schema {
 
   private final TableCache _tableCache;
   private final String _databaseName;
+  private final RoutingManager _routingManager;
 
   /**
    * PinotCatalog needs have access to the actual {@link TableCache} object because TableCache hosts the actual
    * table available for query and processes table/segment metadata updates when cluster status changes.
    */
   public PinotCatalog(TableCache tableCache) {
-    _tableCache = tableCache;
-    _databaseName = null;
+    this(null, tableCache, null);
   }
 
   public PinotCatalog(String databaseName, TableCache tableCache) {
+    this(databaseName, tableCache, null);
+  }
+
+  public PinotCatalog(String databaseName, TableCache tableCache, @Nullable RoutingManager routingManager) {
     _tableCache = tableCache;
     _databaseName = databaseName;
+    _routingManager = routingManager;
   }
 
   /**
@@ -76,7 +85,36 @@ public class PinotCatalog implements Schema {
     Preconditions.checkArgument(tableName != null, String.format("Table does not exist: '%s'", physicalTableName));
     org.apache.pinot.spi.data.Schema schema = _tableCache.getSchema(tableName);
     Preconditions.checkArgument(schema != null, String.format("Could not find schema for table: '%s'", tableName));
-    return new PinotTable(schema);
+    return new PinotTable(schema, getRowCount(tableName));
+  }
+
+  /**
+   * Returns the number of documents of the given table (sum of the offline and realtime tables for a hybrid table), or
+   * {@code null} if it is not available for any of the tables.
+   */
+  @Nullable
+  private Double getRowCount(String tableName) {
+    if (_routingManager == null) {
+      return null;
+    }
+    if (TableNameBuilder.getTableTypeFromTableName(tableName) != null) {
+      Long numDocs = _routingManager.getNumDocs(tableName);
+      return numDocs != null ? numDocs.doubleValue() : null;
+    }
+    // NOTE: The number of documents is not available when the real-time table only has consuming segments
+    String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(tableName);
+    String realtimeTableName = TableNameBuilder.REALTIME.tableNameWithType(tableName);
+    boolean offlineRoutingExists = _routingManager.routingExists(offlineTableName);
+    boolean realtimeRoutingExists = _routingManager.routingExists(realtimeTableName);
+    if (!offlineRoutingExists && !realtimeRoutingExists) {
+      return null;
+    }
+    Long offlineNumDocs = offlineRoutingExists ? _routingManager.getNumDocs(offlineTableName) : Long.valueOf(0);
+    Long realtimeNumDocs = realtimeRoutingExists ? _routingManager.getNumDocs(realtimeTableName) : Long.valueOf(0);
+    if (offlineNumDocs == null || realtimeNumDocs == null) {
+      return null;
+    }
+    return (double) (offlineNumDocs + realtimeNumDocs);
   }
 
   /**
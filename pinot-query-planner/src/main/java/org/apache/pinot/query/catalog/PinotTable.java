@@ -19,11 +19,15 @@
 package org.apache.pinot.query.catalog;
 
 import com.google.common.base.Preconditions;
+import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.calcite.DataContext;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.schema.ScannableTable;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
 import org.apache.calcite.schema.impl.AbstractTable;
 import org.apache.pinot.query.type.TypeFactory;
 import org.apache.pinot.spi.data.Schema;
@@ -34,12 +38,28 @@ import org.apache.pinot.spi.data.Schema;
  *
  * <p>This construct is used to connect a Pinot table to Apache Calcite's relational planner by providing a
  * {@link RelDataType} of the table to the planner.
+ *
+ * <p>When the number of rows of the table is known, it is exposed as the table {@link Statistic} so that the planner
+ * can estimate the cost of the plan (e.g. to order the joins).
  */
 public class PinotTable extends AbstractTable implements ScannableTable {
   private Schema _schema;
+  private final Double _rowCount;
 
   public PinotTable(Schema schema) {
+    this(schema, null);
+  }
+
+  public PinotTable(Schema schema, @Nullable Double rowCount) {
     _schema = schema;
+    _rowCount = rowCount;
+  }
+
+  /**
+   * Returns whether the number of rows of the table is known.
+   */
+  public boolean hasStatistics() {
+    return _rowCount != null;
   }
 
   @Override
@@ -49,6 +69,11 @@ public class PinotTable extends AbstractTable implements ScannableTable {
     return typeFactory.createRelDataTypeFromSchema(_schema);
   }
 
+  @Override
+  public Statistic getStatistic() {
+    return _rowCount != null ? Statistics.of(_rowCount, List.of()) : Statistics.UNKNOWN;
+  }
+
   @Override
   public boolean isRolledUp(String s) {
     return false;
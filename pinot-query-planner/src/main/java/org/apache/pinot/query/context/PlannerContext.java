@@ -29,6 +29,7 @@ import org.apache.calcite.rel.RelDistributionTraitDef;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.sql.validate.SqlValidator;
 import org.apache.calcite.tools.FrameworkConfig;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.query.planner.logical.LogicalPlanner;
 import org.apache.pinot.query.validate.Validator;
 
@@ -45,17 +46,26 @@ public class PlannerContext implements AutoCloseable {
   private final SqlValidator _validator;
 
   private final RelOptPlanner _relOptPlanner;
+  private final RelOptPlanner _relJoinOrderPlanner;
   private final LogicalPlanner _relTraitPlanner;
 
+  private final boolean _defaultEnableJoinReorder;
+  private final long _defaultAutoBroadcastJoinMaxRowCount;
+
   private Map<String, String> _options;
 
   public PlannerContext(FrameworkConfig config, Prepare.CatalogReader catalogReader, RelDataTypeFactory typeFactory,
-      HepProgram optProgram, HepProgram traitProgram) {
+      HepProgram optProgram, HepProgram joinOrderProgram, HepProgram traitProgram, boolean defaultEnableJoinReorder,
+      long defaultAutoBroadcastJoinMaxRowCount) {
     _planner = new PlannerImpl(config);
     _validator = new Validator(config.getOperatorTable(), catalogReader, typeFactory);
     _relOptPlanner = new LogicalPlanner(optProgram, Contexts.EMPTY_CONTEXT, config.getTraitDefs());
-    _relTraitPlanner = new LogicalPlanner(traitProgram, Contexts.EMPTY_CONTEXT,
+    _relJoinOrderPlanner = new LogicalPlanner(joinOrderProgram, Contexts.EMPTY_CONTEXT, config.getTraitDefs());
+    // NOTE: The trait planner exposes this context to the rules (e.g. to pick the join exchanges)
+    _relTraitPlanner = new LogicalPlanner(traitProgram, Contexts.of(this),
         Collections.singletonList(RelDistributionTraitDef.INSTANCE));
+    _defaultEnableJoinReorder = defaultEnableJoinReorder;
+    _defaultAutoBroadcastJoinMaxRowCount = defaultAutoBroadcastJoinMaxRowCount;
   }
 
   public PlannerImpl getPlanner() {
@@ -70,6 +80,10 @@ public class PlannerContext implements AutoCloseable {
     return _relOptPlanner;
   }
 
+  public RelOptPlanner getRelJoinOrderPlanner() {
+    return _relJoinOrderPlanner;
+  }
+
   public LogicalPlanner getRelTraitPlanner() {
     return _relTraitPlanner;
   }
@@ -82,6 +96,24 @@ public class PlannerContext implements AutoCloseable {
     return _options;
   }
 
+  /**
+   * Returns whether the joins can be reordered based on the table statistics, from the query option if set, or the
+   * broker config otherwise.
+   */
+  public boolean isJoinReorderEnabled() {
+    Boolean enableJoinReorder = _options != null ? QueryOptionsUtils.isEnableJoinReorder(_options) : null;
+    return enableJoinReorder != null ? enableJoinReorder : _defaultEnableJoinReorder;
+  }
+
+  /**
+   * Returns the maximum estimated number of rows of the right input of a join to be broadcast without join hint, from
+   * the query option if set, or the broker config otherwise. 0 means the joins are never broadcast automatically.
+   */
+  public long getAutoBroadcastJoinMaxRowCount() {
+    Long maxRowCount = _options != null ? QueryOptionsUtils.getAutoBroadcastJoinMaxRowCount(_options) : null;
+    return maxRowCount != null ? maxRowCount : _defaultAutoBroadcastJoinMaxRowCount;
+  }
+
   @Override
   public void close()
       throws Exception {
@@ -22,8 +22,12 @@ import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.calcite.rel.RelDistribution;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
 import org.apache.pinot.query.planner.PlanFragment;
 import org.apache.pinot.query.planner.SubPlan;
@@ -53,10 +57,15 @@ import org.apache.pinot.query.planner.plannode.WindowNode;
  * {@link MailboxSendNode} pair;
  * 3. Assign current PlanFragment ID to {@link MailboxReceiveNode};
  * 4. Increment current PlanFragment ID by one and assign it to the {@link MailboxSendNode}.
+ *
+ * When a JOIN is hinted with {@link PinotHintOptions.JoinHintOptions#SKEWED_KEYS}, the {@link MailboxSendNode}s of its
+ * inputs are hinted with {@link PinotHintOptions#EXCHANGE_HINT_OPTIONS} so that the left rows with skewed keys are
+ * split across the join workers, and the right rows with skewed keys are broadcast to all of them.
  */
 public class PlanFragmenter implements PlanNodeVisitor<PlanNode, PlanFragmenter.Context> {
   private final Int2ObjectOpenHashMap<PlanFragment> _planFragmentMap = new Int2ObjectOpenHashMap<>();
   private final Int2ObjectOpenHashMap<IntList> _childPlanFragmentIdsMap = new Int2ObjectOpenHashMap<>();
+  private final Map<ExchangeNode, PlanNode.NodeHint> _exchangeNodeHintMap = new IdentityHashMap<>();
 
   // ROOT PlanFragment ID is 0, current PlanFragment ID starts with 1, next PlanFragment ID starts with 2.
   private int _nextPlanFragmentId = 2;
@@ -92,6 +101,16 @@ public class PlanFragmenter implements PlanNodeVisitor<PlanNode, PlanFragmenter.
 
   @Override
   public PlanNode visitJoin(JoinNode node, Context context) {
+    Map<String, String> joinHintOptions =
+        node.getNodeHint().getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
+    String skewedKeys =
+        joinHintOptions != null ? joinHintOptions.get(PinotHintOptions.JoinHintOptions.SKEWED_KEYS) : null;
+    if (skewedKeys != null && canHandleSkewedKeys(node)) {
+      _exchangeNodeHintMap.put((ExchangeNode) node.getInputs().get(0),
+          getExchangeNodeHint(skewedKeys, PinotHintOptions.ExchangeHintOptions.SPLIT_SKEWED_KEYS_STRATEGY));
+      _exchangeNodeHintMap.put((ExchangeNode) node.getInputs().get(1),
+          getExchangeNodeHint(skewedKeys, PinotHintOptions.ExchangeHintOptions.BROADCAST_SKEWED_KEYS_STRATEGY));
+    }
     return process(node, context);
   }
 
@@ -153,9 +172,9 @@ public class PlanFragmenter implements PlanNodeVisitor<PlanNode, PlanFragmenter.
     RelDistribution.Type distributionType = node.getDistributionType();
     List<Integer> keys = node.getKeys();
     MailboxSendNode mailboxSendNode =
-        new MailboxSendNode(senderPlanFragmentId, nextPlanFragmentRoot.getDataSchema(), List.of(nextPlanFragmentRoot),
-            receiverPlanFragmentId, exchangeType, distributionType, keys, node.isPrePartitioned(), node.getCollations(),
-            node.isSortOnSender());
+        new MailboxSendNode(senderPlanFragmentId, nextPlanFragmentRoot.getDataSchema(), _exchangeNodeHintMap.get(node),
+            List.of(nextPlanFragmentRoot), receiverPlanFragmentId, exchangeType, distributionType, keys,
+            node.isPrePartitioned(), node.getCollations(), node.isSortOnSender());
     _planFragmentMap.put(senderPlanFragmentId,
         new PlanFragment(senderPlanFragmentId, mailboxSendNode, new ArrayList<>()));
 
@@ -165,6 +184,37 @@ public class PlanFragmenter implements PlanNodeVisitor<PlanNode, PlanFragmenter.
         node.isSortOnSender(), mailboxSendNode);
   }
 
+  /**
+   * Splitting the left rows of a key across the join workers is only correct when each left row is joined exactly once
+   * with all the right rows of the same key, which rules out RIGHT and FULL joins where the unmatched right rows would
+   * be emitted by every worker. Multi-key joins are not supported because the hash keys of both inputs are not
+   * guaranteed to be in the same order.
+   */
+  private static boolean canHandleSkewedKeys(JoinNode node) {
+    JoinRelType joinType = node.getJoinType();
+    if (joinType == JoinRelType.RIGHT || joinType == JoinRelType.FULL || node.getLeftKeys().size() != 1) {
+      return false;
+    }
+    for (PlanNode input : node.getInputs()) {
+      if (!(input instanceof ExchangeNode)) {
+        return false;
+      }
+      ExchangeNode exchangeNode = (ExchangeNode) input;
+      if (exchangeNode.getExchangeType() != PinotRelExchangeType.STREAMING
+          || exchangeNode.getDistributionType() != RelDistribution.Type.HASH_DISTRIBUTED
+          || exchangeNode.isPrePartitioned()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static PlanNode.NodeHint getExchangeNodeHint(String skewedKeys, String strategy) {
+    return new PlanNode.NodeHint(Map.of(PinotHintOptions.EXCHANGE_HINT_OPTIONS,
+        Map.of(PinotHintOptions.ExchangeHintOptions.SKEWED_KEYS, skewedKeys,
+            PinotHintOptions.ExchangeHintOptions.SKEWED_KEYS_STRATEGY, strategy)));
+  }
+
   private boolean isPlanFragmentSplitter(PlanNode node) {
     return ((ExchangeNode) node).getExchangeType() != PinotRelExchangeType.SUB_PLAN;
   }
@@ -40,7 +40,15 @@ public class MailboxSendNode extends BasePlanNode {
   public MailboxSendNode(int stageId, DataSchema dataSchema, List<PlanNode> inputs, int receiverStageId,
       PinotRelExchangeType exchangeType, RelDistribution.Type distributionType, @Nullable List<Integer> keys,
       boolean prePartitioned, @Nullable List<RelFieldCollation> collations, boolean sort) {
-    super(stageId, dataSchema, null, inputs);
+    this(stageId, dataSchema, null, inputs, receiverStageId, exchangeType, distributionType, keys, prePartitioned,
+        collations, sort);
+  }
+
+  public MailboxSendNode(int stageId, DataSchema dataSchema, @Nullable NodeHint nodeHint, List<PlanNode> inputs,
+      int receiverStageId, PinotRelExchangeType exchangeType, RelDistribution.Type distributionType,
+      @Nullable List<Integer> keys, boolean prePartitioned, @Nullable List<RelFieldCollation> collations,
+      boolean sort) {
+    super(stageId, dataSchema, nodeHint, inputs);
     _receiverStageId = receiverStageId;
     _exchangeType = exchangeType;
     _distributionType = distributionType;
@@ -28,6 +28,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import org.apache.calcite.rel.RelDistribution;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.query.planner.PlannerUtils;
 import org.apache.pinot.query.planner.physical.DispatchablePlanFragment;
 import org.apache.pinot.query.planner.physical.DispatchableSubPlan;
@@ -36,6 +37,7 @@ import org.apache.pinot.query.planner.plannode.BasePlanNode;
 import org.apache.pinot.query.planner.plannode.FilterNode;
 import org.apache.pinot.query.planner.plannode.JoinNode;
 import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
+import org.apache.pinot.query.planner.plannode.MailboxSendNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.planner.plannode.ProjectNode;
 import org.apache.pinot.query.routing.QueryServerInstance;
@@ -281,6 +283,89 @@ public class QueryCompilationTest extends QueryEnvironmentTestBase {
     }
   }
 
+  @Test
+  public void testJoinWithSkewedKeysHint() {
+    String query = "SELECT /*+ joinOptions(skewed_keys='foo,bar') */ a.col1, b.col2 FROM a JOIN b ON a.col1 = b.col1";
+    DispatchableSubPlan dispatchableSubPlan = _queryEnvironment.planQuery(query);
+    Map<String, Integer> numSendNodesPerStrategy = new HashMap<>();
+    for (DispatchablePlanFragment stagePlan : dispatchableSubPlan.getQueryStageList()) {
+      PlanNode root = stagePlan.getPlanFragment().getFragmentRoot();
+      Map<String, String> exchangeOptions =
+          root.getNodeHint().getHintOptions().get(PinotHintOptions.EXCHANGE_HINT_OPTIONS);
+      if (exchangeOptions != null) {
+        assertTrue(root instanceof MailboxSendNode);
+        assertEquals(exchangeOptions.get(PinotHintOptions.ExchangeHintOptions.SKEWED_KEYS), "foo,bar");
+        numSendNodesPerStrategy.merge(exchangeOptions.get(PinotHintOptions.ExchangeHintOptions.SKEWED_KEYS_STRATEGY),
+            1, Integer::sum);
+      }
+    }
+    assertEquals(numSendNodesPerStrategy, Map.of(PinotHintOptions.ExchangeHintOptions.SPLIT_SKEWED_KEYS_STRATEGY, 1,
+        PinotHintOptions.ExchangeHintOptions.BROADCAST_SKEWED_KEYS_STRATEGY, 1));
+
+    // Skewed keys are not handled for RIGHT joins
+    query = "SELECT /*+ joinOptions(skewed_keys='foo') */ a.col1, b.col2 FROM a RIGHT JOIN b ON a.col1 = b.col1";
+    dispatchableSubPlan = _queryEnvironment.planQuery(query);
+    for (DispatchablePlanFragment stagePlan : dispatchableSubPlan.getQueryStageList()) {
+      PlanNode root = stagePlan.getPlanFragment().getFragmentRoot();
+      assertNull(root.getNodeHint().getHintOptions().get(PinotHintOptions.EXCHANGE_HINT_OPTIONS));
+    }
+  }
+
+  @Test
+  public void testJoinOrderFromTableStatistics() {
+    QueryEnvironment queryEnvironment =
+        getQueryEnvironment(3, 1, 2, TABLE_SCHEMAS, SERVER1_SEGMENTS, SERVER2_SEGMENTS, null,
+            Map.of("a_REALTIME", 1_000_000L, "b_REALTIME", 100L, "c_OFFLINE", 10_000_000L));
+    String joinOptions = "SET enableJoinReorder = true; SET autoBroadcastJoinMaxRowCount = 10000; ";
+    // The largest table is the probe side of the outer join, and the small table is broadcast to the larger one
+    String query = "EXPLAIN PLAN FOR SELECT a.col1, b.col2, c.col3 FROM b JOIN a ON a.col1 = b.col1 "
+        + "JOIN c ON a.col2 = c.col2";
+    String explain = queryEnvironment.explainQuery(joinOptions + query, 0);
+    assertTrue(explain.indexOf("table=[[default, c]]") < explain.indexOf("table=[[default, a]]"), explain);
+    assertTrue(explain.indexOf("table=[[default, a]]") < explain.indexOf("table=[[default, b]]"), explain);
+    assertTrue(explain.contains("distribution=[broadcast]"), explain);
+
+    query = "EXPLAIN PLAN FOR SELECT a.col1, b.col2 FROM b JOIN a ON a.col1 = b.col1";
+    explain = queryEnvironment.explainQuery(joinOptions + query, 0);
+    assertTrue(explain.indexOf("table=[[default, a]]") < explain.indexOf("table=[[default, b]]"), explain);
+    assertTrue(explain.contains("distribution=[random]"), explain);
+    assertTrue(explain.contains("distribution=[broadcast]"), explain);
+
+    // Join reordering and auto broadcast join are disabled by default
+    explain = queryEnvironment.explainQuery(query, 0);
+    assertTrue(explain.indexOf("table=[[default, b]]") < explain.indexOf("table=[[default, a]]"), explain);
+    assertFalse(explain.contains("distribution=[broadcast]"), explain);
+
+    // Auto broadcast join can be enabled without join reordering
+    explain = queryEnvironment.explainQuery("SET autoBroadcastJoinMaxRowCount = 10000; EXPLAIN PLAN FOR "
+        + "SELECT a.col1, b.col2 FROM a JOIN b ON a.col1 = b.col1", 0);
+    assertTrue(explain.indexOf("table=[[default, a]]") < explain.indexOf("table=[[default, b]]"), explain);
+    assertTrue(explain.contains("distribution=[broadcast]"), explain);
+
+    // Right input larger than the configured row count is not broadcast
+    explain = queryEnvironment.explainQuery("SET autoBroadcastJoinMaxRowCount = 10; EXPLAIN PLAN FOR "
+        + "SELECT a.col1, b.col2 FROM a JOIN b ON a.col1 = b.col1", 0);
+    assertFalse(explain.contains("distribution=[broadcast]"), explain);
+
+    // Large right input is not broadcast
+    query = "EXPLAIN PLAN FOR SELECT a.col1, c.col2 FROM a LEFT JOIN c ON a.col1 = c.col1";
+    explain = queryEnvironment.explainQuery(joinOptions + query, 0);
+    assertFalse(explain.contains("distribution=[broadcast]"), explain);
+
+    // Join hints disable the join reordering
+    query = "EXPLAIN PLAN FOR SELECT /*+ joinOptions(join_strategy='hash_table') */ a.col1, b.col2 FROM b JOIN a "
+        + "ON a.col1 = b.col1";
+    explain = queryEnvironment.explainQuery(joinOptions + query, 0);
+    assertTrue(explain.indexOf("table=[[default, b]]") < explain.indexOf("table=[[default, a]]"), explain);
+    assertFalse(explain.contains("distribution=[broadcast]"), explain);
+
+    // Without table statistics, the join order from the query is kept
+    query = "EXPLAIN PLAN FOR SELECT a.col1, b.col2 FROM b JOIN a ON a.col1 = b.col1";
+    explain = _queryEnvironment.explainQuery(joinOptions + query, 0);
+    assertTrue(explain.indexOf("table=[[default, b]]") < explain.indexOf("table=[[default, a]]"), explain);
+    assertFalse(explain.contains("distribution=[broadcast]"), explain);
+  }
+
   @Test
   public void testGetTableNamesForQuery() {
     // A simple filter query with one table
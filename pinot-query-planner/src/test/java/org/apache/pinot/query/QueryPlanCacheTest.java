@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.calcite.rel.RelRoot;
+import org.apache.pinot.query.planner.physical.DispatchablePlanFragment;
+import org.apache.pinot.query.planner.physical.DispatchableSubPlan;
+import org.apache.pinot.query.planner.plannode.PlanNode;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+
+public class QueryPlanCacheTest extends QueryEnvironmentTestBase {
+  private QueryPlanCache _planCache;
+  private QueryEnvironment _cachedQueryEnvironment;
+
+  @BeforeMethod
+  public void setUpPlanCache() {
+    _planCache = new QueryPlanCache(100, 60_000L);
+    _cachedQueryEnvironment = getCachedQueryEnvironment();
+  }
+
+  private QueryEnvironment getCachedQueryEnvironment() {
+    return getQueryEnvironment(3, 1, 2, TABLE_SCHEMAS, SERVER1_SEGMENTS, SERVER2_SEGMENTS, PARTITIONED_SEGMENTS_MAP,
+        null, _planCache);
+  }
+
+  @Test
+  public void testPlanCache() {
+    String query = "SELECT a.col1, b.col2 FROM a JOIN b ON a.col1 = b.col1 WHERE a.col3 > 10";
+    DispatchableSubPlan expected = _queryEnvironment.planQuery(query);
+    DispatchableSubPlan first = _cachedQueryEnvironment.planQuery(query);
+    assertEquals(_planCache.size(), 1);
+    DispatchableSubPlan second = _cachedQueryEnvironment.planQuery(query);
+    assertEquals(_planCache.size(), 1);
+    assertNotSame(first, second);
+    assertEquals(getFragmentRoots(first), getFragmentRoots(expected));
+    assertEquals(getFragmentRoots(second), getFragmentRoots(expected));
+    assertEquals(second.getTableNames(), expected.getTableNames());
+
+    // Formatting and query options do not change the cache key
+    _cachedQueryEnvironment.planQuery(
+        "SET timeoutMs = 1000; select a.col1,  b.col2\nFROM a JOIN b ON a.col1 = b.col1 WHERE a.col3 > 10");
+    assertEquals(_planCache.size(), 1);
+
+    // Different literals share the cached plan, bound to the literals of each query
+    String otherQuery = "SELECT a.col1, b.col2 FROM a JOIN b ON a.col1 = b.col1 WHERE a.col3 > 20";
+    assertEquals(getFragmentRoots(_cachedQueryEnvironment.planQuery(otherQuery)),
+        getFragmentRoots(_queryEnvironment.planQuery(otherQuery)));
+    assertEquals(_planCache.size(), 1);
+
+    // A string literal compared to a numeric column is validated differently
+    _cachedQueryEnvironment.planQuery("SELECT a.col1, b.col2 FROM a JOIN b ON a.col1 = b.col1 WHERE a.col3 > '20'");
+    assertEquals(_planCache.size(), 2);
+
+    _planCache.invalidateAll();
+    assertEquals(_planCache.size(), 0);
+    _cachedQueryEnvironment.planQuery(query);
+    assertEquals(_planCache.size(), 1);
+  }
+
+  @Test(dataProvider = "testQueryDataProvider")
+  public void testCachedPlanMatchesCompiledPlan(String query) {
+    List<PlanNode> expected = getFragmentRoots(_queryEnvironment.planQuery(query));
+    // Compiled and cached, then bound from the cache
+    assertEquals(getFragmentRoots(_cachedQueryEnvironment.planQuery(query)), expected);
+    assertEquals(getFragmentRoots(_cachedQueryEnvironment.planQuery(query)), expected);
+  }
+
+  @Test
+  public void testLiteralsBoundPerQuery() {
+    String[] queries = {
+        "SELECT col1, COUNT(*) FROM a WHERE col3 BETWEEN %d AND %d AND col2 = '%s' GROUP BY col1",
+        "SELECT col1, ts FROM a WHERE ts >= %d AND ts < %d AND col1 <> '%s' ORDER BY ts LIMIT 10",
+        "SELECT a.col1, SUM(b.col3) FROM a JOIN b ON a.col1 = b.col2 WHERE a.col3 >= %d AND b.col3 < %d "
+            + "AND b.col1 = '%s' GROUP BY a.col1"
+    };
+    for (String query : queries) {
+      _planCache.invalidateAll();
+      for (int i = 0; i < 3; i++) {
+        String boundQuery = String.format(query, i, 10 * i + 100, "foo" + i);
+        assertEquals(getFragmentRoots(_cachedQueryEnvironment.planQuery(boundQuery)),
+            getFragmentRoots(_queryEnvironment.planQuery(boundQuery)), boundQuery);
+        assertEquals(_planCache.size(), 1);
+      }
+    }
+  }
+
+  @Test
+  public void testPlanFromCacheAfterContextClosed()
+      throws Exception {
+    String query = "SELECT col1, SUM(col3) FROM a WHERE col3 > %d AND col2 = 'foo%d' GROUP BY col1";
+    // The planner context (and the query environment) of the cached plan are closed after planning the first query
+    _cachedQueryEnvironment.planQuery(String.format(query, 0, 0));
+    _cachedQueryEnvironment = null;
+    assertEquals(_planCache.size(), 1);
+
+    // Plan concurrently from new query environments sharing the cache
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 1; i <= 20; i++) {
+        String boundQuery = String.format(query, i, i);
+        futures.add(executorService.submit(
+            () -> getFragmentRoots(getCachedQueryEnvironment().planQuery(boundQuery)).equals(
+                getFragmentRoots(_queryEnvironment.planQuery(boundQuery)))));
+      }
+      for (Future<Boolean> future : futures) {
+        assertTrue(future.get());
+      }
+    } finally {
+      executorService.shutdown();
+    }
+    assertEquals(_planCache.size(), 1);
+  }
+
+  @Test
+  public void testNotParameterizablePlan() {
+    // The parameter compared to the numeric column is typed as the column, which does not match the string literal
+    String query = "SELECT col1 FROM a WHERE col3 = '10'";
+    String key = getKey(query);
+    assertEquals(getFragmentRoots(_cachedQueryEnvironment.planQuery(query)),
+        getFragmentRoots(_queryEnvironment.planQuery(query)));
+    QueryPlanCache.CachedPlan cachedPlan = _planCache.get(key);
+    assertNotNull(cachedPlan);
+    assertNull(cachedPlan.getRelRoot());
+
+    // The query is compiled with its literals
+    String otherQuery = "SELECT col1 FROM a WHERE col3 = '20'";
+    assertEquals(getKey(otherQuery), key);
+    assertEquals(getFragmentRoots(_cachedQueryEnvironment.planQuery(otherQuery)),
+        getFragmentRoots(_queryEnvironment.planQuery(otherQuery)));
+    assertEquals(_planCache.size(), 1);
+  }
+
+  @Test
+  public void testStalePlanNotCached() {
+    String query = "SELECT col1, COUNT(*) FROM a GROUP BY col1";
+    String key = getKey(query);
+    long version = _planCache.getVersion();
+    _cachedQueryEnvironment.planQuery(query);
+    QueryPlanCache.CachedPlan cachedPlan = _planCache.get(key);
+    assertNotNull(cachedPlan);
+    RelRoot relRoot = cachedPlan.getRelRoot();
+    assertNotNull(relRoot);
+
+    // Plans compiled before an invalidation are neither served nor cached
+    _planCache.invalidateAll();
+    _planCache.put(key, version, relRoot);
+    assertNull(_planCache.get(key));
+    _planCache.put(key, _planCache.getVersion(), relRoot);
+    cachedPlan = _planCache.get(key);
+    assertNotNull(cachedPlan);
+    assertSame(cachedPlan.getRelRoot(), relRoot);
+  }
+
+  private static String getKey(String query) {
+    ParameterizedQuery parameterizedQuery =
+        ParameterizedQuery.parameterize(CalciteSqlParser.compileToSqlNodeAndOptions(query).getSqlNode());
+    return QueryPlanCache.getKey(CommonConstants.DEFAULT_DATABASE, parameterizedQuery, false, 0);
+  }
+
+  private static List<PlanNode> getFragmentRoots(DispatchableSubPlan dispatchableSubPlan) {
+    List<PlanNode> fragmentRoots = new ArrayList<>();
+    for (DispatchablePlanFragment fragment : dispatchableSubPlan.getQueryStageList()) {
+      fragmentRoots.add(fragment.getPlanFragment().getFragmentRoot());
+    }
+    return fragmentRoots;
+  }
+}
@@ -58,6 +58,7 @@ public class MockRoutingManagerFactory {
   private final Set<String> _hybridTables;
   private final Map<String, ServerInstance> _serverInstances;
   private final Map<String, Map<ServerInstance, Pair<List<String>, List<String>>>> _tableServerSegmentsMap;
+  private final Map<String, Long> _numDocsMap;
 
   public MockRoutingManagerFactory(int... ports) {
     _tableNameMap = new HashMap<>();
@@ -65,6 +66,7 @@ public class MockRoutingManagerFactory {
     _hybridTables = new HashSet<>();
     _serverInstances = new HashMap<>();
     _tableServerSegmentsMap = new HashMap<>();
+    _numDocsMap = new HashMap<>();
     for (int port : ports) {
       _serverInstances.put(toHostname(port), getServerInstance(HOST_NAME, port, port, port, port));
     }
@@ -93,13 +95,17 @@ public class MockRoutingManagerFactory {
         .computeIfAbsent(serverInstance, k -> Pair.of(new ArrayList<>(), null)).getLeft().add(segmentName);
   }
 
+  public void registerNumDocs(String tableNameWithType, long numDocs) {
+    _numDocsMap.put(tableNameWithType, numDocs);
+  }
+
   public RoutingManager buildRoutingManager(@Nullable Map<String, TablePartitionInfo> partitionInfoMap) {
     Map<String, RoutingTable> routingTableMap = new HashMap<>();
     _tableServerSegmentsMap.forEach((tableNameWithType, serverSegmentsMap) -> {
       RoutingTable fakeRoutingTable = new RoutingTable(serverSegmentsMap, Collections.emptyList(), 0);
       routingTableMap.put(tableNameWithType, fakeRoutingTable);
     });
-    return new FakeRoutingManager(routingTableMap, _hybridTables, partitionInfoMap, _serverInstances);
+    return new FakeRoutingManager(routingTableMap, _hybridTables, partitionInfoMap, _serverInstances, _numDocsMap);
   }
 
   public TableCache buildTableCache() {
@@ -139,13 +145,16 @@ public class MockRoutingManagerFactory {
     private final Set<String> _hybridTables;
     private final Map<String, TablePartitionInfo> _partitionInfoMap;
     private final Map<String, ServerInstance> _serverInstances;
+    private final Map<String, Long> _numDocsMap;
 
     public FakeRoutingManager(Map<String, RoutingTable> routingTableMap, Set<String> hybridTables,
-        @Nullable Map<String, TablePartitionInfo> partitionInfoMap, Map<String, ServerInstance> serverInstances) {
+        @Nullable Map<String, TablePartitionInfo> partitionInfoMap, Map<String, ServerInstance> serverInstances,
+        Map<String, Long> numDocsMap) {
       _routingTableMap = routingTableMap;
       _hybridTables = hybridTables;
       _partitionInfoMap = partitionInfoMap;
       _serverInstances = serverInstances;
+      _numDocsMap = numDocsMap;
     }
 
     @Override
@@ -182,5 +191,11 @@ public class MockRoutingManagerFactory {
     public Set<String> getServingInstances(String tableNameWithType) {
       return _serverInstances.keySet();
     }
+
+    @Nullable
+    @Override
+    public Long getNumDocs(String tableNameWithType) {
+      return _numDocsMap.get(tableNameWithType);
+    }
   }
 }
@@ -22,24 +22,39 @@ import com.google.protobuf.ByteString;
 import com.google.protobuf.UnsafeByteOperations;
 import io.grpc.stub.StreamObserver;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.proto.Mailbox.MailboxContent;
 import org.apache.pinot.common.proto.PinotMailboxGrpc;
 import org.apache.pinot.query.mailbox.channel.ChannelManager;
+import org.apache.pinot.query.mailbox.channel.ChannelUtils;
+import org.apache.pinot.query.mailbox.channel.MailboxCompressionUtils;
 import org.apache.pinot.query.mailbox.channel.MailboxStatusObserver;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.MailboxCompressionCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 /**
  * gRPC implementation of the {@link SendingMailbox}. The gRPC stream is created on the first call to {@link #send}.
+ *
+ * <p>When batching is enabled, data blocks smaller than the batch size are kept in memory and coalesced into a single
+ * block, which is sent once the estimated size of the pending blocks reaches the batch size, once the first pending
+ * block has waited longer than the max batch delay, or before sending any other block. The max batch delay is enforced
+ * by a flush task scheduled on the given executor, so that the pending blocks are not held while the sender is idle
+ * waiting for its own input. The methods are synchronized because the flush task runs on the executor thread.
+ * Payloads are compressed with the codec picked by the {@link ChannelManager}.
  */
 public class GrpcSendingMailbox implements SendingMailbox {
   private static final Logger LOGGER = LoggerFactory.getLogger(GrpcSendingMailbox.class);
@@ -51,25 +66,148 @@ public class GrpcSendingMailbox implements SendingMailbox {
   private final long _deadlineMs;
   private final StatMap<MailboxSendOperator.StatKey> _statMap;
   private final MailboxStatusObserver _statusObserver = new MailboxStatusObserver();
+  private final int _batchSizeBytes;
+  private final long _batchMaxDelayMs;
+  private final ScheduledExecutorService _batchFlushExecutor;
+  private final List<TransferableBlock> _pendingBlocks = new ArrayList<>();
 
   private StreamObserver<MailboxContent> _contentObserver;
+  private long _pendingSizeInBytes;
+  private long _pendingSinceMs;
+  private ScheduledFuture<?> _flushFuture;
+  // Exception thrown when flushing the pending blocks from the flush task, rethrown on the next call to send()
+  private IOException _flushException;
 
   public GrpcSendingMailbox(String id, ChannelManager channelManager, String hostname, int port, long deadlineMs,
       StatMap<MailboxSendOperator.StatKey> statMap) {
+    this(id, channelManager, hostname, port, deadlineMs, statMap, 0, 0, null);
+  }
+
+  public GrpcSendingMailbox(String id, ChannelManager channelManager, String hostname, int port, long deadlineMs,
+      StatMap<MailboxSendOperator.StatKey> statMap, int batchSizeBytes, long batchMaxDelayMs,
+      @Nullable ScheduledExecutorService batchFlushExecutor) {
     _id = id;
     _channelManager = channelManager;
     _hostname = hostname;
     _port = port;
     _deadlineMs = deadlineMs;
     _statMap = statMap;
+    _batchSizeBytes = batchSizeBytes;
+    _batchMaxDelayMs = batchMaxDelayMs;
+    _batchFlushExecutor = batchFlushExecutor;
   }
 
   @Override
-  public void send(TransferableBlock block)
+  public synchronized void send(TransferableBlock block)
       throws IOException {
+    if (_flushException != null) {
+      throw _flushException;
+    }
     if (isTerminated() || (isEarlyTerminated() && !block.isEndOfStreamBlock())) {
+      clearPendingBlocks();
+      return;
+    }
+    if (isBatchable(block)) {
+      long sizeInBytes = TransferableBlockUtils.getEstimatedSizeInBytes(block);
+      if (sizeInBytes < _batchSizeBytes) {
+        long now = System.currentTimeMillis();
+        if (_pendingBlocks.isEmpty()) {
+          _pendingSinceMs = now;
+          if (_batchFlushExecutor != null) {
+            _flushFuture = _batchFlushExecutor.schedule(this::flushPendingBlocks, _batchMaxDelayMs,
+                TimeUnit.MILLISECONDS);
+          }
+        }
+        _pendingBlocks.add(block);
+        _pendingSizeInBytes += sizeInBytes;
+        if (_pendingSizeInBytes >= _batchSizeBytes || now - _pendingSinceMs >= _batchMaxDelayMs) {
+          sendPendingBlocks();
+        }
+        return;
+      }
+    }
+    if (block.isErrorBlock()) {
+      // No need to send the pending blocks as the receiver will fail anyway
+      clearPendingBlocks();
+    } else {
+      sendPendingBlocks();
+    }
+    sendContent(block);
+  }
+
+  @Override
+  public synchronized void flush()
+      throws IOException {
+    if (_flushException != null) {
+      throw _flushException;
+    }
+    if (!isTerminated()) {
+      sendPendingBlocks();
+    }
+  }
+
+  /**
+   * Returns whether the block can be coalesced with other blocks, i.e. it is a data block whose rows are already
+   * materialized.
+   */
+  private boolean isBatchable(TransferableBlock block) {
+    return _batchSizeBytes > 0 && block.isDataBlock() && block.isContainerConstructed();
+  }
+
+  /**
+   * Sends the pending blocks from the flush task once the first pending block has waited for the max batch delay.
+   */
+  private synchronized void flushPendingBlocks() {
+    if (_pendingBlocks.isEmpty() || isTerminated()) {
+      return;
+    }
+    try {
+      sendPendingBlocks();
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while flushing pending blocks for mailbox: {}", _id, e);
+      _flushException = e;
+    } catch (RuntimeException e) {
+      LOGGER.warn("Caught exception while flushing pending blocks for mailbox: {}", _id, e);
+      _flushException = new IOException(e);
+    }
+  }
+
+  private void clearPendingBlocks() {
+    _pendingBlocks.clear();
+    _pendingSizeInBytes = 0;
+    if (_flushFuture != null) {
+      _flushFuture.cancel(false);
+      _flushFuture = null;
+    }
+  }
+
+  private void sendPendingBlocks()
+      throws IOException {
+    int numPendingBlocks = _pendingBlocks.size();
+    if (numPendingBlocks == 0) {
       return;
     }
+    TransferableBlock block;
+    if (numPendingBlocks == 1) {
+      block = _pendingBlocks.get(0);
+    } else {
+      TransferableBlock firstBlock = _pendingBlocks.get(0);
+      int numRows = 0;
+      for (TransferableBlock pendingBlock : _pendingBlocks) {
+        numRows += pendingBlock.getNumRows();
+      }
+      List<Object[]> rows = new ArrayList<>(numRows);
+      for (TransferableBlock pendingBlock : _pendingBlocks) {
+        rows.addAll(pendingBlock.getContainer());
+      }
+      block = new TransferableBlock(rows, firstBlock.getDataSchema(), firstBlock.getType());
+    }
+    clearPendingBlocks();
+    sendContent(block);
+  }
+
+  private void sendContent(TransferableBlock block)
+      throws IOException {
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("==[GRPC SEND]== sending message " + block + " to: " + _id);
     }
@@ -83,22 +221,28 @@ public class GrpcSendingMailbox implements SendingMailbox {
   }
 
   @Override
-  public void complete() {
+  public synchronized void complete() {
     if (isTerminated()) {
       LOGGER.debug("Already terminated mailbox: {}", _id);
       return;
     }
     LOGGER.debug("Completing mailbox: {}", _id);
+    try {
+      sendPendingBlocks();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
     _contentObserver.onCompleted();
   }
 
   @Override
-  public void cancel(Throwable t) {
+  public synchronized void cancel(Throwable t) {
     if (isTerminated()) {
       LOGGER.debug("Already terminated mailbox: {}", _id);
       return;
     }
     LOGGER.debug("Cancelling mailbox: {}", _id);
+    clearPendingBlocks();
     if (_contentObserver == null) {
       _contentObserver = getContentObserver();
     }
@@ -131,7 +275,7 @@ public class GrpcSendingMailbox implements SendingMailbox {
 
   private MailboxContent toMailboxContent(TransferableBlock block)
       throws IOException {
-    _statMap.merge(MailboxSendOperator.StatKey.RAW_MESSAGES, 1);
+    mergeStat(MailboxSendOperator.StatKey.RAW_MESSAGES, 1);
     long start = System.currentTimeMillis();
     try {
       DataBlock dataBlock = block.getDataBlock();
@@ -150,13 +294,42 @@ public class GrpcSendingMailbox implements SendingMailbox {
       if (LOGGER.isDebugEnabled()) {
         LOGGER.debug("Serialized block: {} to {} bytes", block, sizeInBytes);
       }
-      _statMap.merge(MailboxSendOperator.StatKey.SERIALIZED_BYTES, sizeInBytes);
-      return MailboxContent.newBuilder().setMailboxId(_id).setPayload(byteString).build();
+      mergeStat(MailboxSendOperator.StatKey.SERIALIZED_BYTES, sizeInBytes);
+      MailboxContent.Builder builder = MailboxContent.newBuilder().setMailboxId(_id);
+      MailboxCompressionCodec codec = _channelManager.getCompressionCodec(sizeInBytes);
+      ByteString compressed =
+          codec != MailboxCompressionCodec.NONE ? MailboxCompressionUtils.compress(codec, bytes, sizeInBytes) : null;
+      if (compressed != null) {
+        builder.setPayload(compressed)
+            .putMetadata(ChannelUtils.MAILBOX_METADATA_COMPRESSION_CODEC, codec.name())
+            .putMetadata(ChannelUtils.MAILBOX_METADATA_UNCOMPRESSED_SIZE, Integer.toString(sizeInBytes));
+        mergeStat(MailboxSendOperator.StatKey.BYTES_ON_WIRE, compressed.size());
+      } else {
+        builder.setPayload(byteString);
+        mergeStat(MailboxSendOperator.StatKey.BYTES_ON_WIRE, sizeInBytes);
+      }
+      return builder.build();
     } catch (Throwable t) {
       LOGGER.warn("Caught exception while serializing block: {}", block, t);
       throw t;
     } finally {
-      _statMap.merge(MailboxSendOperator.StatKey.SERIALIZATION_TIME_MS, System.currentTimeMillis() - start);
+      mergeStat(MailboxSendOperator.StatKey.SERIALIZATION_TIME_MS, System.currentTimeMillis() - start);
+    }
+  }
+
+  /**
+   * Merges the stat into the stat map shared by all the mailboxes of the send operator. The merge is synchronized
+   * because the pending blocks of the other mailboxes might be flushed concurrently from the flush task.
+   */
+  private void mergeStat(MailboxSendOperator.StatKey key, long value) {
+    synchronized (_statMap) {
+      _statMap.merge(key, value);
+    }
+  }
+
+  private void mergeStat(MailboxSendOperator.StatKey key, int value) {
+    synchronized (_statMap) {
+      _statMap.merge(key, value);
     }
   }
 }
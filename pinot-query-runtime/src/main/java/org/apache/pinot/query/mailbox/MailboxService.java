@@ -22,12 +22,16 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.query.mailbox.channel.ChannelManager;
 import org.apache.pinot.query.mailbox.channel.GrpcMailboxServer;
 import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
 import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,7 +64,12 @@ public class MailboxService {
   private final String _hostname;
   private final int _port;
   private final PinotConfiguration _config;
-  private final ChannelManager _channelManager = new ChannelManager();
+  private final ChannelManager _channelManager;
+  private final int _batchSizeBytes;
+  private final long _batchMaxDelayMs;
+  // Flushes the blocks batched in the sending mailboxes after the max batch delay, null when batching is disabled
+  @Nullable
+  private final ScheduledExecutorService _batchFlushExecutor;
 
   private GrpcMailboxServer _grpcMailboxServer;
 
@@ -68,6 +77,20 @@ public class MailboxService {
     _hostname = hostname;
     _port = port;
     _config = config;
+    _channelManager = new ChannelManager(config);
+    _batchSizeBytes = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_BATCH_SIZE_BYTES,
+        CommonConstants.MultiStageQueryRunner.DEFAULT_MAILBOX_BATCH_SIZE_BYTES);
+    _batchMaxDelayMs = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_BATCH_MAX_DELAY_MS,
+        CommonConstants.MultiStageQueryRunner.DEFAULT_MAILBOX_BATCH_MAX_DELAY_MS);
+    if (_batchSizeBytes > 0) {
+      _batchFlushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "mailbox-batch-flush");
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      _batchFlushExecutor = null;
+    }
     LOGGER.info("Initialized MailboxService with hostname: {}, port: {}", hostname, port);
   }
 
@@ -86,6 +109,9 @@ public class MailboxService {
   public void shutdown() {
     LOGGER.info("Shutting down GrpcMailboxServer");
     _grpcMailboxServer.shutdown();
+    if (_batchFlushExecutor != null) {
+      _batchFlushExecutor.shutdownNow();
+    }
   }
 
   public String getHostname() {
@@ -106,7 +132,8 @@ public class MailboxService {
     if (_hostname.equals(hostname) && _port == port) {
       return new InMemorySendingMailbox(mailboxId, this, deadlineMs, statMap);
     } else {
-      return new GrpcSendingMailbox(mailboxId, _channelManager, hostname, port, deadlineMs, statMap);
+      return new GrpcSendingMailbox(mailboxId, _channelManager, hostname, port, deadlineMs, statMap, _batchSizeBytes,
+          _batchMaxDelayMs, _batchFlushExecutor);
     }
   }
 
@@ -120,6 +120,9 @@ public class ReceivingMailbox {
     _stats.merge(StatKey.WAIT_CPU_TIME_MS, now - _lastArriveTime);
     _lastArriveTime = now;
     _stats.merge(StatKey.IN_MEMORY_MESSAGES, 1);
+    if (block.isDataBlock()) {
+      _stats.merge(StatKey.IN_MEMORY_ESTIMATED_BYTES, TransferableBlockUtils.getEstimatedSizeInBytes(block));
+    }
     return offerPrivate(block, timeoutMs);
   }
 
@@ -247,7 +250,8 @@ public class ReceivingMailbox {
     },
     IN_MEMORY_MESSAGES(StatMap.Type.INT),
     OFFER_CPU_TIME_MS(StatMap.Type.LONG),
-    WAIT_CPU_TIME_MS(StatMap.Type.LONG);
+    WAIT_CPU_TIME_MS(StatMap.Type.LONG),
+    IN_MEMORY_ESTIMATED_BYTES(StatMap.Type.LONG);
 
     private final StatMap.Type _type;
 
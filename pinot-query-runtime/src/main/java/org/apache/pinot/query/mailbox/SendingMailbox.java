@@ -37,6 +37,14 @@ public interface SendingMailbox {
   void send(TransferableBlock block)
       throws IOException, TimeoutException;
 
+  /**
+   * Sends the blocks buffered by the mailbox, if any. This is called before sending the EOS blocks so that the stats of
+   * all the buffered blocks are collected before the stats are sent.
+   */
+  default void flush()
+      throws IOException {
+  }
+
   /**
    * Called when there is no more data to be sent by the {@link BlockExchange}. This is also a signal for the
    * SendingMailbox that the sender is done sending data from its end. Note that this doesn't mean that the receiver
@@ -22,7 +22,9 @@ import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.MailboxCompressionCodec;
 
 
 /**
@@ -30,9 +32,27 @@ import org.apache.pinot.spi.utils.CommonConstants;
  *
  * <p>Grpc channels are managed centralized per Pinot component. Channels should be reused across different
  * query/job/stages.
+ *
+ * <p>The channel manager also decides the codec used to compress the payloads sent through the channels. The codec is
+ * sent along with each compressed payload, so the receiving end does not need to be configured with the same codec.
  */
 public class ChannelManager {
   private final ConcurrentHashMap<Pair<String, Integer>, ManagedChannel> _channelMap = new ConcurrentHashMap<>();
+  private final MailboxCompressionCodec _compressionCodec;
+  private final int _compressionMinSizeBytes;
+
+  public ChannelManager() {
+    this(new PinotConfiguration());
+  }
+
+  public ChannelManager(PinotConfiguration config) {
+    _compressionCodec = MailboxCompressionCodec.valueOf(
+        config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_COMPRESSION_CODEC,
+            CommonConstants.MultiStageQueryRunner.DEFAULT_MAILBOX_COMPRESSION_CODEC).toUpperCase());
+    _compressionMinSizeBytes =
+        config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_COMPRESSION_MIN_SIZE_BYTES,
+            CommonConstants.MultiStageQueryRunner.DEFAULT_MAILBOX_COMPRESSION_MIN_SIZE_BYTES);
+  }
 
   public ManagedChannel getChannel(String hostname, int port) {
     // TODO: Revisit parameters
@@ -42,4 +62,13 @@ public class ChannelManager {
                 CommonConstants.MultiStageQueryRunner.DEFAULT_MAX_INBOUND_QUERY_DATA_BLOCK_SIZE_BYTES)
             .usePlaintext().build());
   }
+
+  /**
+   * Returns the codec used to compress a payload of the given size, or {@link MailboxCompressionCodec#NONE} if the
+   * payload should not be compressed. The codec is configured per server rather than negotiated per channel, which is
+   * fine because the receiving end reads the codec from the message metadata.
+   */
+  public MailboxCompressionCodec getCompressionCodec(int payloadSizeInBytes) {
+    return payloadSizeInBytes >= _compressionMinSizeBytes ? _compressionCodec : MailboxCompressionCodec.NONE;
+  }
 }
@@ -24,4 +24,6 @@ public class ChannelUtils {
 
   public static final String MAILBOX_METADATA_BUFFER_SIZE_KEY = "buffer.size";
   public static final String MAILBOX_METADATA_REQUEST_EARLY_TERMINATE = "request.early.terminate";
+  public static final String MAILBOX_METADATA_COMPRESSION_CODEC = "compression.codec";
+  public static final String MAILBOX_METADATA_UNCOMPRESSED_SIZE = "uncompressed.size";
 }
@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.mailbox.channel;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import javax.annotation.Nullable;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.MailboxCompressionCodec;
+
+
+/**
+ * Utils to compress the payloads sent through the gRPC mailboxes.
+ *
+ * <p>The codec and the uncompressed size of a compressed payload are sent in the message metadata (see
+ * {@link ChannelUtils#MAILBOX_METADATA_COMPRESSION_CODEC} and {@link ChannelUtils#MAILBOX_METADATA_UNCOMPRESSED_SIZE})
+ * so that the receiver can decompress it into a buffer of the right size.
+ */
+public class MailboxCompressionUtils {
+  private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+  private MailboxCompressionUtils() {
+  }
+
+  /**
+   * Compresses the given payload buffers with the given codec, or returns {@code null} if the compressed payload is not
+   * smaller than the original one. The buffers are compressed in place when the payload is made of a single buffer,
+   * and are gathered into a single buffer otherwise because the codecs compress contiguous blocks.
+   */
+  @Nullable
+  public static ByteString compress(MailboxCompressionCodec codec, List<ByteBuffer> payload, int uncompressedSize) {
+    ByteBuffer uncompressed = toContiguousBuffer(payload, uncompressedSize);
+    int offset = uncompressed.position();
+    switch (codec) {
+      case LZ4: {
+        LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+        int maxCompressedSize = compressor.maxCompressedLength(uncompressedSize);
+        ByteBuffer compressed = ByteBuffer.allocate(maxCompressedSize);
+        int compressedSize =
+            compressor.compress(uncompressed, offset, uncompressedSize, compressed, 0, maxCompressedSize);
+        return compressedSize < uncompressedSize ? UnsafeByteOperations.unsafeWrap(compressed.array(), 0,
+            compressedSize) : null;
+      }
+      case ZSTD: {
+        int maxCompressedSize = (int) Zstd.compressBound(uncompressedSize);
+        if (uncompressed.isDirect()) {
+          ByteBuffer compressed = ByteBuffer.allocateDirect(maxCompressedSize);
+          int compressedSize = checkZstdResult(
+              Zstd.compressDirectByteBuffer(compressed, 0, maxCompressedSize, uncompressed, offset, uncompressedSize,
+                  Zstd.defaultCompressionLevel()));
+          compressed.limit(compressedSize);
+          return compressedSize < uncompressedSize ? UnsafeByteOperations.unsafeWrap(compressed) : null;
+        } else {
+          byte[] compressed = new byte[maxCompressedSize];
+          int compressedSize = checkZstdResult(
+              Zstd.compressByteArray(compressed, 0, maxCompressedSize, uncompressed.array(),
+                  uncompressed.arrayOffset() + offset, uncompressedSize, Zstd.defaultCompressionLevel()));
+          return compressedSize < uncompressedSize ? UnsafeByteOperations.unsafeWrap(compressed, 0, compressedSize)
+              : null;
+        }
+      }
+      default:
+        throw new IllegalArgumentException("Unsupported mailbox compression codec: " + codec);
+    }
+  }
+
+  private static int checkZstdResult(long result) {
+    if (Zstd.isError(result)) {
+      throw new IllegalStateException("Failed to compress payload: " + Zstd.getErrorName(result));
+    }
+    return (int) result;
+  }
+
+  /**
+   * Returns the payload as a single buffer that is either direct or backed by an accessible array.
+   */
+  private static ByteBuffer toContiguousBuffer(List<ByteBuffer> payload, int sizeInBytes) {
+    if (payload.size() == 1) {
+      ByteBuffer buffer = payload.get(0);
+      if (buffer.isDirect() || buffer.hasArray()) {
+        return buffer;
+      }
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(sizeInBytes);
+    for (ByteBuffer byteBuffer : payload) {
+      buffer.put(byteBuffer.duplicate());
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Decompresses the given payload compressed with {@link #compress(MailboxCompressionCodec, List, int)}. The payload
+   * is read from its buffer (or its input stream for Zstandard on heap memory) without being copied first.
+   */
+  public static ByteBuffer decompress(MailboxCompressionCodec codec, ByteString payload, int uncompressedSize)
+      throws IOException {
+    ByteBuffer compressed = payload.asReadOnlyByteBuffer();
+    switch (codec) {
+      case LZ4: {
+        ByteBuffer uncompressed = ByteBuffer.allocate(uncompressedSize);
+        LZ4_FACTORY.fastDecompressor().decompress(compressed, compressed.position(), uncompressed, 0, uncompressedSize);
+        return uncompressed;
+      }
+      case ZSTD: {
+        if (compressed.isDirect()) {
+          ByteBuffer uncompressed = ByteBuffer.allocateDirect(uncompressedSize);
+          long result = Zstd.decompressDirectByteBuffer(uncompressed, 0, uncompressedSize, compressed,
+              compressed.position(), compressed.remaining());
+          if (Zstd.isError(result)) {
+            throw new IOException("Failed to decompress payload: " + Zstd.getErrorName(result));
+          }
+          return uncompressed;
+        }
+        byte[] uncompressed = new byte[uncompressedSize];
+        try (InputStream inputStream = new ZstdInputStreamNoFinalizer(payload.newInput())) {
+          int numBytesRead = inputStream.readNBytes(uncompressed, 0, uncompressedSize);
+          if (numBytesRead != uncompressedSize) {
+            throw new IOException(
+                "Expected " + uncompressedSize + " bytes after decompression, got: " + numBytesRead);
+          }
+        }
+        return ByteBuffer.wrap(uncompressed);
+      }
+      default:
+        throw new IllegalArgumentException("Unsupported mailbox compression codec: " + codec);
+    }
+  }
+}
@@ -27,6 +27,7 @@ import org.apache.pinot.common.proto.Mailbox.MailboxStatus;
 import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.mailbox.ReceivingMailbox;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.MailboxCompressionCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,7 +60,16 @@ public class MailboxContentObserver implements StreamObserver<MailboxContent> {
     }
     try {
       long timeoutMs = Context.current().getDeadline().timeRemaining(TimeUnit.MILLISECONDS);
-      ByteBuffer buffer = mailboxContent.getPayload().asReadOnlyByteBuffer();
+      ByteBuffer buffer;
+      String compressionCodec =
+          mailboxContent.getMetadataOrDefault(ChannelUtils.MAILBOX_METADATA_COMPRESSION_CODEC, null);
+      if (compressionCodec != null) {
+        buffer = MailboxCompressionUtils.decompress(MailboxCompressionCodec.valueOf(compressionCodec),
+            mailboxContent.getPayload(),
+            Integer.parseInt(mailboxContent.getMetadataOrThrow(ChannelUtils.MAILBOX_METADATA_UNCOMPRESSED_SIZE)));
+      } else {
+        buffer = mailboxContent.getPayload().asReadOnlyByteBuffer();
+      }
       ReceivingMailbox.ReceivingMailboxStatus status = _mailbox.offerRaw(buffer, timeoutMs);
       switch (status) {
         case SUCCESS:
@@ -137,6 +137,10 @@ public class InStageStatsTreeBuilder implements PlanNodeVisitor<ObjectNode, Void
 
   @Override
   public ObjectNode visitJoin(JoinNode node, Void context) {
+    // The join strategy is decided by the server, so both join operators are expected
+    if (_stageStats.getOperatorType(_index) == MultiStageOperator.Type.SORT_MERGE_JOIN) {
+      return recursiveCase(node, MultiStageOperator.Type.SORT_MERGE_JOIN);
+    }
     return recursiveCase(node, MultiStageOperator.Type.HASH_JOIN);
   }
 
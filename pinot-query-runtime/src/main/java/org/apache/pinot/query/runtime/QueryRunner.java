@@ -19,6 +19,7 @@
 package org.apache.pinot.query.runtime;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.File;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +45,7 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.executor.OpChainSchedulerService;
 import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
 import org.apache.pinot.query.runtime.operator.OpChain;
+import org.apache.pinot.query.runtime.operator.utils.RowSpillFile;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.query.runtime.plan.PhysicalPlanVisitor;
 import org.apache.pinot.query.runtime.plan.pipeline.PipelineBreakerExecutor;
@@ -54,6 +56,7 @@ import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.executor.ExecutorServiceUtils;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.GroupByOverFlowMode;
 import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.JoinOverFlowMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,6 +83,8 @@ public class QueryRunner {
   private Integer _numGroupsLimit;
   @Nullable
   private Integer _maxInitialResultHolderCapacity;
+  @Nullable
+  private GroupByOverFlowMode _groupByOverflowMode;
 
   // Join overflow settings
   @Nullable
@@ -87,6 +92,10 @@ public class QueryRunner {
   @Nullable
   private JoinOverFlowMode _joinOverflowMode;
 
+  // Sort overflow settings
+  @Nullable
+  private Integer _maxRowsInSort;
+
   /**
    * Initializes the query executor.
    * <p>Should be called only once and before calling any other method.
@@ -111,10 +120,19 @@ public class QueryRunner {
         config.getProperty(CommonConstants.Server.CONFIG_OF_QUERY_EXECUTOR_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
     _maxInitialResultHolderCapacity =
         maxInitialGroupHolderCapacity != null ? Integer.parseInt(maxInitialGroupHolderCapacity) : null;
+    String groupByOverflowModeStr =
+        config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_GROUP_BY_OVERFLOW_MODE);
+    _groupByOverflowMode = groupByOverflowModeStr != null ? GroupByOverFlowMode.valueOf(groupByOverflowModeStr) : null;
     String maxRowsInJoinStr = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_MAX_ROWS_IN_JOIN);
     _maxRowsInJoin = maxRowsInJoinStr != null ? Integer.parseInt(maxRowsInJoinStr) : null;
     String joinOverflowModeStr = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_JOIN_OVERFLOW_MODE);
     _joinOverflowMode = joinOverflowModeStr != null ? JoinOverFlowMode.valueOf(joinOverflowModeStr) : null;
+    String maxRowsInSortStr = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_MAX_ROWS_IN_SORT);
+    _maxRowsInSort = maxRowsInSortStr != null ? Integer.parseInt(maxRowsInSortStr) : null;
+    String spillDir = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_SPILL_DIR);
+    if (spillDir != null) {
+      RowSpillFile.setSpillDir(new File(spillDir));
+    }
 
     _executorService = ExecutorServiceUtils.create(
         config, CommonConstants.Server.CONFIG_OF_QUERY_EXECUTOR_OPCHAIN_EXECUTOR, "query-runner-on-" + port,
@@ -235,6 +253,14 @@ public class QueryRunner {
           Integer.toString(maxInitialResultHolderCapacity));
     }
 
+    GroupByOverFlowMode groupByOverflowMode = QueryOptionsUtils.getGroupByOverflowMode(opChainMetadata);
+    if (groupByOverflowMode == null) {
+      groupByOverflowMode = _groupByOverflowMode;
+    }
+    if (groupByOverflowMode != null) {
+      opChainMetadata.put(QueryOptionKey.GROUP_BY_OVERFLOW_MODE, groupByOverflowMode.name());
+    }
+
     Integer maxRowsInJoin = QueryOptionsUtils.getMaxRowsInJoin(opChainMetadata);
     if (maxRowsInJoin == null) {
       maxRowsInJoin = _maxRowsInJoin;
@@ -250,6 +276,14 @@ public class QueryRunner {
     if (joinOverflowMode != null) {
       opChainMetadata.put(QueryOptionKey.JOIN_OVERFLOW_MODE, joinOverflowMode.name());
     }
+
+    Integer maxRowsInSort = QueryOptionsUtils.getMaxRowsInSort(opChainMetadata);
+    if (maxRowsInSort == null) {
+      maxRowsInSort = _maxRowsInSort;
+    }
+    if (maxRowsInSort != null) {
+      opChainMetadata.put(QueryOptionKey.MAX_ROWS_IN_SORT, Integer.toString(maxRowsInSort));
+    }
     return opChainMetadata;
   }
 
@@ -56,6 +56,11 @@ public class TransferableBlock implements Block {
   @Nullable
   private final MultiStageQueryStats _queryStats;
 
+  /**
+   * Creates a data block from rows. The container is always row major, the type only decides the binary format of the
+   * {@link DataBlock} built when the block needs to be serialized: {@link DataBlock.Type#ROW} lays out the values row
+   * by row, while {@link DataBlock.Type#COLUMNAR} lays them out column by column, read directly from the rows.
+   */
   public TransferableBlock(List<Object[]> container, DataSchema dataSchema, DataBlock.Type type) {
     _container = container;
     _dataSchema = dataSchema;
@@ -149,9 +154,9 @@ public class TransferableBlock implements Block {
     if (_container == null) {
       switch (_type) {
         case ROW:
+        case COLUMNAR:
           _container = DataBlockExtractUtils.extractRows(_dataBlock);
           break;
-        case COLUMNAR:
         case METADATA:
         default:
           throw new UnsupportedOperationException("Unable to extract from container with type: " + _type);
@@ -175,7 +180,7 @@ public class TransferableBlock implements Block {
             _dataBlock = DataBlockBuilder.buildFromRows(_container, _dataSchema);
             break;
           case COLUMNAR:
-            _dataBlock = DataBlockBuilder.buildFromColumns(_container, _dataSchema);
+            _dataBlock = DataBlockBuilder.buildColumnarFromRows(_container, _dataSchema);
             break;
           case METADATA:
             _dataBlock = new MetadataBlock(getSerializedStatsByStage());
@@ -28,6 +28,7 @@ import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datablock.DataBlockUtils;
 import org.apache.pinot.common.datablock.MetadataBlock;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
+import org.apache.pinot.segment.spi.memory.DataBuffer;
 
 
 public final class TransferableBlockUtils {
@@ -66,8 +67,9 @@ public final class TransferableBlockUtils {
    *
    *  Split a block into multiple block so that each block size is within maxBlockSize. Currently,
    *  <ul>
-   *    <li>For row data block, we split for row type dataBlock.</li>
-   *    <li>For columnar data block, exceptions are thrown.</li>
+   *    <li>For row and columnar data block, we split by rows and keep the type of the original block. A block that
+   *    is only backed by a {@link DataBlock} (e.g. received from another stage) and already fits is forwarded as is,
+   *    without materializing the rows.</li>
    *    <li>For metadata block, split is not supported.</li>
    *  </ul>
    *
@@ -78,13 +80,20 @@ public final class TransferableBlockUtils {
    */
   public static Iterator<TransferableBlock> splitBlock(TransferableBlock block, DataBlock.Type type, int maxBlockSize) {
     List<TransferableBlock> blockChunks = new ArrayList<>();
-    if (type == DataBlock.Type.ROW) {
+    if (type == DataBlock.Type.ROW || type == DataBlock.Type.COLUMNAR) {
+      if (!block.isContainerConstructed() && getSizeInBytes(block.getDataBlock()) <= maxBlockSize) {
+        return Iterators.singletonIterator(block);
+      }
       // Use estimated row size, this estimate is not accurate and is used to estimate numRowsPerChunk only.
       int estimatedRowSizeInBytes = block.getDataSchema().getColumnNames().length * MEDIAN_COLUMN_SIZE_BYTES;
       int numRowsPerChunk = maxBlockSize / estimatedRowSizeInBytes;
       Preconditions.checkState(numRowsPerChunk > 0, "row size too large for query engine to handle, abort!");
 
       int totalNumRows = block.getNumRows();
+      if (totalNumRows <= numRowsPerChunk && block.isContainerConstructed()) {
+        // Keep the original block so that the data block is only built once when it is sent to multiple mailboxes
+        return Iterators.singletonIterator(block);
+      }
       List<Object[]> allRows = block.getContainer();
       int currentRow = 0;
       while (currentRow < totalNumRows) {
@@ -99,4 +108,17 @@ public final class TransferableBlockUtils {
       throw new IllegalArgumentException("Unsupported data block type: " + type);
     }
   }
+
+  /**
+   * Returns the estimated size of the data block once serialized, based on the number of rows and columns.
+   */
+  public static long getEstimatedSizeInBytes(TransferableBlock block) {
+    return (long) block.getNumRows() * block.getDataSchema().size() * MEDIAN_COLUMN_SIZE_BYTES;
+  }
+
+  private static long getSizeInBytes(DataBlock dataBlock) {
+    DataBuffer fixedData = dataBlock.getFixedData();
+    DataBuffer varSizeData = dataBlock.getVarSizeData();
+    return (fixedData != null ? fixedData.size() : 0) + (varSizeData != null ? varSizeData.size() : 0);
+  }
 }
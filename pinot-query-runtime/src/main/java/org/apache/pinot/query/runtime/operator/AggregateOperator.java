@@ -19,6 +19,7 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.base.Preconditions;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -53,6 +54,8 @@ import org.slf4j.LoggerFactory;
  * AggregateOperator is used to aggregate values over a set of group by keys.
  * Output data will be in the format of [group by key, aggregate result1, ... aggregate resultN]
  * When the list of aggregation calls is empty, this class is used to calculate distinct result based on group by keys.
+ * When the group by overflow mode is SPILL and the groups do not fit in the num groups limit, the output is emitted
+ * as one block per spilled partition.
  */
 public class AggregateOperator extends MultiStageOperator {
   private static final Logger LOGGER = LoggerFactory.getLogger(AggregateOperator.class);
@@ -130,9 +133,29 @@ public class AggregateOperator extends MultiStageOperator {
   }
 
   @Override
-  protected TransferableBlock getNextBlock() {
+  public void close() {
+    super.close();
+    if (_groupByExecutor != null) {
+      _groupByExecutor.close();
+    }
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    super.cancel(e);
+    if (_groupByExecutor != null) {
+      _groupByExecutor.close();
+    }
+  }
+
+  @Override
+  protected TransferableBlock getNextBlock()
+      throws IOException {
     if (_hasConstructedAggregateBlock) {
       assert _eosBlock != null;
+      if (_groupByExecutor != null && _groupByExecutor.hasSpilledGroups()) {
+        return produceSpilledGroupByBlock();
+      }
       return _eosBlock;
     }
     TransferableBlock finalBlock = _aggregationExecutor != null ? consumeAggregation() : consumeGroupBy();
@@ -145,10 +168,13 @@ public class AggregateOperator extends MultiStageOperator {
     return produceAggregatedBlock();
   }
 
-  private TransferableBlock produceAggregatedBlock() {
+  private TransferableBlock produceAggregatedBlock()
+      throws IOException {
     _hasConstructedAggregateBlock = true;
     if (_aggregationExecutor != null) {
       return new TransferableBlock(_aggregationExecutor.getResult(), _resultSchema, DataBlock.Type.ROW);
+    } else if (_groupByExecutor.hasSpilledGroups()) {
+      return produceSpilledGroupByBlock();
     } else {
       List<Object[]> rows = _groupByExecutor.getResult();
       if (rows.isEmpty()) {
@@ -164,12 +190,28 @@ public class AggregateOperator extends MultiStageOperator {
     }
   }
 
+  /**
+   * Returns the groups of the next spilled partition, or the end of the stream block once all of them are returned.
+   */
+  private TransferableBlock produceSpilledGroupByBlock()
+      throws IOException {
+    List<Object[]> rows = _groupByExecutor.getNextSpilledResult();
+    if (rows != null) {
+      sampleAndCheckInterruption();
+      return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+    }
+    _statMap.merge(StatKey.SPILLED_ROWS, _groupByExecutor.getNumSpilledRows());
+    _statMap.merge(StatKey.SPILLED_BYTES, _groupByExecutor.getNumSpilledBytes());
+    return _eosBlock;
+  }
+
   /**
    * Consumes the input blocks as a group by
    *
    * @return the last block, which must always be either an error or the end of the stream
    */
-  private TransferableBlock consumeGroupBy() {
+  private TransferableBlock consumeGroupBy()
+      throws IOException {
     TransferableBlock block = _input.nextBlock();
     while (block.isDataBlock()) {
       _groupByExecutor.processBlock(block);
@@ -368,7 +410,15 @@ public class AggregateOperator extends MultiStageOperator {
         return true;
       }
     },
-    NUM_GROUPS_LIMIT_REACHED(StatMap.Type.BOOLEAN);
+    NUM_GROUPS_LIMIT_REACHED(StatMap.Type.BOOLEAN),
+    /**
+     * Number of partial aggregates written to disk when the groups are spilled.
+     */
+    SPILLED_ROWS(StatMap.Type.LONG),
+    /**
+     * Number of bytes written to disk when the groups are spilled.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
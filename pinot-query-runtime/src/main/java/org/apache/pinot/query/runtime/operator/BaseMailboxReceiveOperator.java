@@ -116,9 +116,15 @@ public abstract class BaseMailboxReceiveOperator extends MultiStageOperator {
 
   @Override
   protected TransferableBlock updateEosBlock(TransferableBlock upstreamEos, StatMap<?> statMap) {
+    long numReceivedBytes = 0;
     for (StatMap<ReceivingMailbox.StatKey> receivingStats : _receivingStats) {
       addReceivingStats(receivingStats);
+      numReceivedBytes += receivingStats.getLong(ReceivingMailbox.StatKey.DESERIALIZED_BYTES)
+          + receivingStats.getLong(ReceivingMailbox.StatKey.IN_MEMORY_ESTIMATED_BYTES);
     }
+    // Only this worker is accounted here, the max across workers is kept when the stats of the workers are merged
+    _statMap.merge(StatKey.MAX_ROWS_PER_WORKER, _statMap.getLong(StatKey.EMITTED_ROWS));
+    _statMap.merge(StatKey.MAX_BYTES_PER_WORKER, numReceivedBytes);
     return super.updateEosBlock(upstreamEos, statMap);
   }
 
@@ -231,7 +237,37 @@ public abstract class BaseMailboxReceiveOperator extends MultiStageOperator {
     /**
      * How long (in CPU time) it took to wait for the messages to be offered to downstream operator.
      */
-    UPSTREAM_WAIT_MS(StatMap.Type.LONG);
+    UPSTREAM_WAIT_MS(StatMap.Type.LONG),
+    /**
+     * The max number of rows received by a single worker of the stage.
+     * <p>
+     * A number much higher than EMITTED_ROWS divided by the parallelism of the stage indicates that the rows are not
+     * evenly distributed across the workers, usually because of skewed keys on a hash exchange.
+     */
+    MAX_ROWS_PER_WORKER(StatMap.Type.LONG) {
+      @Override
+      public long merge(long value1, long value2) {
+        return Math.max(value1, value2);
+      }
+    },
+    /**
+     * The max number of bytes received by a single worker of the stage. The size of the blocks received in heap format
+     * is estimated from their number of rows and columns.
+     */
+    MAX_BYTES_PER_WORKER(StatMap.Type.LONG) {
+      @Override
+      public long merge(long value1, long value2) {
+        return Math.max(value1, value2);
+      }
+    },
+    /**
+     * Number of sorted runs spilled to disk by a sorted receive when the received rows do not fit in memory.
+     */
+    SPILLED_RUNS(StatMap.Type.INT),
+    /**
+     * Number of bytes written to disk by a sorted receive when the received rows do not fit in memory.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
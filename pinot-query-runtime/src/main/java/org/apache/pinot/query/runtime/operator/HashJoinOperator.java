@@ -19,11 +19,16 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.core.JoinRelType;
@@ -33,6 +38,7 @@ import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
@@ -41,8 +47,12 @@ import org.apache.pinot.query.planner.plannode.JoinNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.join.LookupTable;
+import org.apache.pinot.query.runtime.operator.join.LookupTableFactory;
+import org.apache.pinot.query.runtime.operator.join.ObjectLookupTable;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
+import org.apache.pinot.query.runtime.operator.utils.RowSpillFile;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.BooleanUtils;
@@ -63,31 +73,44 @@ import org.slf4j.LoggerFactory;
  * <p>For each of the data block received from the left table, it will generate a joint data block.
  * We currently support left join, inner join, right join and full join.
  * The output is in the format of [left_row, right_row]
+ *
+ * <p>When the join overflow mode is {@link JoinOverFlowMode#SPILL} and the right table exceeds the rows limit, the
+ * operator switches to a grace hash join: both inputs are hash partitioned on the join keys into {@link RowSpillFile}s
+ * on local disk, and then each partition is joined independently by building the hash table with the right rows of
+ * that partition only. Partitions that still exceed the rows limit are recursively re-partitioned with a different hash
+ * up to {@link #MAX_SPILL_LEVEL} times.
  */
 // TODO: Move inequi out of hashjoin. (https://github.com/apache/pinot/issues/9728)
 // TODO: Support memory size based resource limit.
 public class HashJoinOperator extends MultiStageOperator {
   private static final Logger LOGGER = LoggerFactory.getLogger(HashJoinOperator.class);
   private static final String EXPLAIN_NAME = "HASH_JOIN";
-  private static final int INITIAL_HEURISTIC_SIZE = 16;
   private static final int DEFAULT_MAX_ROWS_IN_JOIN = 1024 * 1024; // 2^20, around 1MM rows
   private static final JoinOverFlowMode DEFAULT_JOIN_OVERFLOW_MODE = JoinOverFlowMode.THROW;
+  private static final int NUM_SPILL_PARTITIONS = 16;
+  private static final int MAX_SPILL_LEVEL = 3;
 
   private static final Set<JoinRelType> SUPPORTED_JOIN_TYPES =
       Set.of(JoinRelType.INNER, JoinRelType.LEFT, JoinRelType.RIGHT, JoinRelType.FULL, JoinRelType.SEMI,
           JoinRelType.ANTI);
 
-  private final Map<Object, ArrayList<Object[]>> _broadcastRightTable;
+  // Created from the schema of the first right block, or from the right input schema if there is no right block
+  private LookupTable _broadcastRightTable;
 
   // Used to track matched right rows.
   // Only used for right join and full join to output non-matched right rows.
-  private final Map<Object, BitSet> _matchedRightRows;
+  // Indexed by the row id in the lookup table.
+  private final BitSet _matchedRightRows;
 
   private final MultiStageOperator _leftInput;
   private final MultiStageOperator _rightInput;
   private final JoinRelType _joinType;
   private final KeySelector<?> _leftKeySelector;
   private final KeySelector<?> _rightKeySelector;
+  private final int[] _rightKeyIds;
+  private final ColumnDataType[] _leftKeyStoredTypes;
+  @Nullable
+  private final DataSchema _rightSchema;
   private final DataSchema _resultSchema;
   private final int _leftColumnSize;
   private final int _resultColumnSize;
@@ -103,9 +126,10 @@ public class HashJoinOperator extends MultiStageOperator {
    */
   private final int _maxRowsInJoin;
   /**
-   * Mode when join overflow happens, supported values: THROW or BREAK.
+   * Mode when join overflow happens, supported values: THROW, BREAK or SPILL.
    *   THROW(default): Break right table build process, and throw exception, no JOIN with left table performed.
    *   BREAK: Break right table build process, continue to perform JOIN operation, results might be partial.
+   *   SPILL: Partition both tables to local disk and perform the JOIN one partition at a time, results are complete.
    */
   private final JoinOverFlowMode _joinOverflowMode;
 
@@ -117,6 +141,16 @@ public class HashJoinOperator extends MultiStageOperator {
   // Needed to indicate we have finished processing all results after returning last block.
   private boolean _isTerminated;
 
+  // Below are used only in SPILL overflow mode, once the right table cannot fit in memory.
+  // Partitions being written while consuming the inputs. Null if the join is not spilled.
+  private SpillPartition[] _spillPartitions;
+  // Partitions written to disk and waiting to be joined.
+  private final Deque<SpillPartition> _pendingSpillPartitions = new ArrayDeque<>();
+  // Partition whose right rows are currently loaded into the hash table.
+  private SpillPartition _activeSpillPartition;
+  private Iterator<List<Object[]>> _activeSpillLeftBatches;
+  private boolean _isLeftInputSpilled;
+
   public HashJoinOperator(OpChainExecutionContext context, MultiStageOperator leftInput, DataSchema leftSchema,
       MultiStageOperator rightInput, JoinNode node) {
     super(context);
@@ -138,9 +172,13 @@ public class HashJoinOperator extends MultiStageOperator {
     for (RexExpression nonEquiCondition : nonEquiConditions) {
       _nonEquiEvaluators.add(TransformOperandFactory.getTransformOperand(nonEquiCondition, _resultSchema));
     }
-    _broadcastRightTable = new HashMap<>();
+    _rightKeyIds = node.getRightKeys().stream().mapToInt(Integer::intValue).toArray();
+    _leftKeyStoredTypes =
+        getKeyStoredTypes(leftSchema, node.getLeftKeys().stream().mapToInt(Integer::intValue).toArray());
+    List<PlanNode> inputs = node.getInputs();
+    _rightSchema = inputs.size() == 2 ? inputs.get(1).getDataSchema() : null;
     if (needUnmatchedRightRows()) {
-      _matchedRightRows = new HashMap<>();
+      _matchedRightRows = new BitSet();
     } else {
       _matchedRightRows = null;
     }
@@ -150,6 +188,44 @@ public class HashJoinOperator extends MultiStageOperator {
     _joinOverflowMode = getJoinOverflowMode(metadata, nodeHint);
   }
 
+  /**
+   * Creates the lookup table for the right rows with the given schema. Primitive lookup tables are used only when the
+   * key types of both sides match, otherwise keys are compared as objects.
+   */
+  private LookupTable createLookupTable(DataSchema rightSchema) {
+    if (!Arrays.equals(_leftKeyStoredTypes, getKeyStoredTypes(rightSchema, _rightKeyIds))) {
+      return new ObjectLookupTable(rightSchema, _rightKeyIds);
+    }
+    return LookupTableFactory.getLookupTable(rightSchema, _rightKeyIds);
+  }
+
+  /**
+   * Returns the schema used for the lookup table when the right input does not return any block. The table stays
+   * empty, so only the key columns need to exist.
+   */
+  private DataSchema getEmptyRightSchema() {
+    if (_rightSchema != null) {
+      return _rightSchema;
+    }
+    int numColumns = Arrays.stream(_rightKeyIds).max().orElse(-1) + 1;
+    String[] columnNames = new String[numColumns];
+    ColumnDataType[] columnDataTypes = new ColumnDataType[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      columnNames[i] = "col" + i;
+      columnDataTypes[i] = ColumnDataType.OBJECT;
+    }
+    return new DataSchema(columnNames, columnDataTypes);
+  }
+
+  private static ColumnDataType[] getKeyStoredTypes(DataSchema dataSchema, int[] keyIds) {
+    int numKeys = keyIds.length;
+    ColumnDataType[] keyTypes = new ColumnDataType[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      keyTypes[i] = dataSchema.getColumnDataType(keyIds[i]).getStoredType();
+    }
+    return keyTypes;
+  }
+
   @Override
   public void registerExecution(long time, int numRows) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
@@ -166,7 +242,7 @@ public class HashJoinOperator extends MultiStageOperator {
     return LOGGER;
   }
 
-  private int getMaxRowsInJoin(Map<String, String> opChainMetadata, @Nullable PlanNode.NodeHint nodeHint) {
+  static int getMaxRowsInJoin(Map<String, String> opChainMetadata, @Nullable PlanNode.NodeHint nodeHint) {
     if (nodeHint != null) {
       Map<String, String> joinOptions = nodeHint.getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
       if (joinOptions != null) {
@@ -180,7 +256,7 @@ public class HashJoinOperator extends MultiStageOperator {
     return maxRowsInJoin != null ? maxRowsInJoin : DEFAULT_MAX_ROWS_IN_JOIN;
   }
 
-  private JoinOverFlowMode getJoinOverflowMode(Map<String, String> contextMetadata,
+  static JoinOverFlowMode getJoinOverflowMode(Map<String, String> contextMetadata,
       @Nullable PlanNode.NodeHint nodeHint) {
     if (nodeHint != null) {
       Map<String, String> joinOptions = nodeHint.getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
@@ -207,7 +283,7 @@ public class HashJoinOperator extends MultiStageOperator {
 
   @Override
   protected TransferableBlock getNextBlock()
-      throws ProcessingException {
+      throws ProcessingException, IOException {
     if (!_isHashTableBuilt) {
       // Build JOIN hash table
       buildBroadcastHashTable();
@@ -219,43 +295,47 @@ public class HashJoinOperator extends MultiStageOperator {
   }
 
   private void buildBroadcastHashTable()
-      throws ProcessingException {
+      throws ProcessingException, IOException {
     long startTime = System.currentTimeMillis();
     int numRowsInHashTable = 0;
     TransferableBlock rightBlock = _rightInput.nextBlock();
     while (!TransferableBlockUtils.isEndOfStream(rightBlock)) {
-      List<Object[]> container = rightBlock.getContainer();
+      if (_broadcastRightTable == null) {
+        _broadcastRightTable = createLookupTable(rightBlock.getDataSchema());
+      }
+      int numRows = rightBlock.getNumRows();
       // Row based overflow check.
-      if (container.size() + numRowsInHashTable > _maxRowsInJoin) {
+      if (_spillPartitions == null && numRows + numRowsInHashTable > _maxRowsInJoin) {
         if (_joinOverflowMode == JoinOverFlowMode.THROW) {
           throwProcessingExceptionForJoinRowLimitExceeded(
               "Cannot build in memory hash table for join operator, reached number of rows limit: " + _maxRowsInJoin);
-        } else {
-          // Just fill up the buffer.
-          int remainingRows = _maxRowsInJoin - numRowsInHashTable;
-          container = container.subList(0, remainingRows);
-          _statMap.merge(StatKey.MAX_ROWS_IN_JOIN_REACHED, true);
-          // setting only the rightTableOperator to be early terminated and awaits EOS block next.
-          _rightInput.earlyTerminate();
+        } else if (_joinOverflowMode == JoinOverFlowMode.SPILL) {
+          startSpilling(rightBlock.getDataSchema());
         }
       }
-      // put all the rows into corresponding hash collections keyed by the key selector function.
-      for (Object[] row : container) {
-        ArrayList<Object[]> hashCollection = _broadcastRightTable.computeIfAbsent(_rightKeySelector.getKey(row),
-            k -> new ArrayList<>(INITIAL_HEURISTIC_SIZE));
-        int size = hashCollection.size();
-        if ((size & size - 1) == 0 && size < _maxRowsInJoin && size < Integer.MAX_VALUE / 2) { // is power of 2
-          hashCollection.ensureCapacity(Math.min(size << 1, _maxRowsInJoin));
-        }
-        hashCollection.add(row);
+      if (_spillPartitions != null) {
+        spillRows(rightBlock.getContainer(), rightBlock.getDataSchema(), _rightKeySelector, true);
+      } else if (numRows + numRowsInHashTable <= _maxRowsInJoin) {
+        addToHashTable(rightBlock);
+        numRowsInHashTable += numRows;
+      } else {
+        // Just fill up the buffer.
+        int remainingRows = _maxRowsInJoin - numRowsInHashTable;
+        addToHashTable(rightBlock.getContainer().subList(0, remainingRows));
+        numRowsInHashTable = _maxRowsInJoin;
+        _statMap.merge(StatKey.MAX_ROWS_IN_JOIN_REACHED, true);
+        // setting only the rightTableOperator to be early terminated and awaits EOS block next.
+        _rightInput.earlyTerminate();
       }
-      numRowsInHashTable += container.size();
       sampleAndCheckInterruption();
       rightBlock = _rightInput.nextBlock();
     }
     if (rightBlock.isErrorBlock()) {
       _upstreamErrorBlock = rightBlock;
     } else {
+      if (_broadcastRightTable == null) {
+        _broadcastRightTable = createLookupTable(getEmptyRightSchema());
+      }
       _isHashTableBuilt = true;
       _rightSideStats = rightBlock.getQueryStats();
       assert _rightSideStats != null;
@@ -263,8 +343,104 @@ public class HashJoinOperator extends MultiStageOperator {
     _statMap.merge(StatKey.TIME_BUILDING_HASH_TABLE_MS, System.currentTimeMillis() - startTime);
   }
 
+  /**
+   * Puts all the rows of the given block into the lookup table. When the block is not materialized into rows yet, the
+   * values are read directly from the data block so that the primitive values are never boxed.
+   */
+  private void addToHashTable(TransferableBlock block) {
+    if (block.isContainerConstructed()) {
+      addToHashTable(block.getContainer());
+    } else {
+      _broadcastRightTable.addRows(block.getDataBlock());
+    }
+  }
+
+  /**
+   * Puts all the rows into the lookup table keyed by the right join keys.
+   */
+  private void addToHashTable(List<Object[]> rows) {
+    for (Object[] row : rows) {
+      _broadcastRightTable.addRow(row);
+    }
+  }
+
+  /**
+   * Switches the join into spilling mode by creating the spill partitions and moving the rows already in the hash
+   * table into them.
+   */
+  private void startSpilling(DataSchema rightSchema)
+      throws IOException {
+    logger().info("Spilling join operator to disk as the maximum number of rows limit was reached: {}",
+        _maxRowsInJoin);
+    _spillPartitions = createSpillPartitions(0);
+    if (_broadcastRightTable.getNumRows() > 0) {
+      spillRows(_broadcastRightTable.getRows(), rightSchema, _rightKeySelector, true);
+    }
+    _broadcastRightTable.clear();
+  }
+
+  private SpillPartition[] createSpillPartitions(int level)
+      throws IOException {
+    SpillPartition[] partitions = new SpillPartition[NUM_SPILL_PARTITIONS];
+    try {
+      for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+        partitions[i] = new SpillPartition(level);
+      }
+    } catch (IOException e) {
+      for (SpillPartition partition : partitions) {
+        if (partition != null) {
+          partition.close();
+        }
+      }
+      throw e;
+    }
+    return partitions;
+  }
+
+  /**
+   * Hash partitions the given rows on the join keys and appends them to the current spill partitions.
+   */
+  @SuppressWarnings("unchecked")
+  private void spillRows(List<Object[]> rows, DataSchema dataSchema, KeySelector<?> keySelector, boolean isRight)
+      throws IOException {
+    int level = _spillPartitions[0]._level;
+    List<Object[]>[] partitionedRows = new List[NUM_SPILL_PARTITIONS];
+    for (Object[] row : rows) {
+      int partitionId = getSpillPartitionId(keySelector.getKey(row), level);
+      List<Object[]> partitionRows = partitionedRows[partitionId];
+      if (partitionRows == null) {
+        partitionRows = new ArrayList<>();
+        partitionedRows[partitionId] = partitionRows;
+      }
+      partitionRows.add(row);
+    }
+    for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+      if (partitionedRows[i] != null) {
+        SpillPartition partition = _spillPartitions[i];
+        long numBytes = isRight ? partition._rightFile.write(partitionedRows[i], dataSchema)
+            : partition._leftFile.write(partitionedRows[i], dataSchema);
+        _statMap.merge(StatKey.SPILLED_ROWS, partitionedRows[i].size());
+        _statMap.merge(StatKey.SPILLED_BYTES, numBytes);
+      }
+    }
+  }
+
+  /**
+   * Returns the spill partition of the given key. The hash is re-mixed with the level so that rows already partitioned
+   * by the same key (e.g. by the hash exchange, or by a previous spill level) are spread across all the partitions.
+   */
+  private static int getSpillPartitionId(@Nullable Object key, int level) {
+    int hash = Objects.hashCode(key) ^ (level + 1) * 0x9E3779B9;
+    hash ^= hash >>> 16;
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    hash *= 0xC2B2AE35;
+    hash ^= hash >>> 16;
+    return (hash & Integer.MAX_VALUE) % NUM_SPILL_PARTITIONS;
+  }
+
   private TransferableBlock buildJoinedDataBlock()
-      throws ProcessingException {
+      throws ProcessingException, IOException {
     // Keep reading the input blocks until we find a match row or all blocks are processed.
     // TODO: Consider batching the rows to improve performance.
     while (true) {
@@ -275,6 +451,9 @@ public class HashJoinOperator extends MultiStageOperator {
         assert _leftSideStats != null;
         return TransferableBlockUtils.getEndOfStreamTransferableBlock(_leftSideStats);
       }
+      if (_spillPartitions != null) {
+        return buildJoinedDataBlockFromSpill();
+      }
 
       TransferableBlock leftBlock = _leftInput.nextBlock();
       if (leftBlock.isErrorBlock()) {
@@ -295,7 +474,7 @@ public class HashJoinOperator extends MultiStageOperator {
         return TransferableBlockUtils.getEndOfStreamTransferableBlock(_leftSideStats);
       }
       assert leftBlock.isDataBlock();
-      List<Object[]> rows = buildJoinedRows(leftBlock);
+      List<Object[]> rows = buildJoinedRows(leftBlock.getContainer());
       sampleAndCheckInterruption();
       if (!rows.isEmpty()) {
         return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
@@ -303,45 +482,149 @@ public class HashJoinOperator extends MultiStageOperator {
     }
   }
 
-  private List<Object[]> buildJoinedRows(TransferableBlock leftBlock)
+  /**
+   * Joins the spilled partitions one at a time. The whole left input is partitioned to disk first, then for each
+   * partition the right rows are loaded into the hash table and the left rows are probed against it.
+   */
+  private TransferableBlock buildJoinedDataBlockFromSpill()
+      throws ProcessingException, IOException {
+    if (!_isLeftInputSpilled) {
+      TransferableBlock leftBlock = _leftInput.nextBlock();
+      while (!leftBlock.isSuccessfulEndOfStreamBlock()) {
+        if (leftBlock.isErrorBlock()) {
+          return leftBlock;
+        }
+        spillRows(leftBlock.getContainer(), leftBlock.getDataSchema(), _leftKeySelector, false);
+        sampleAndCheckInterruption();
+        leftBlock = _leftInput.nextBlock();
+      }
+      _leftSideStats = leftBlock.getQueryStats();
+      assert _leftSideStats != null;
+      for (SpillPartition partition : _spillPartitions) {
+        partition.finishWriting();
+        _pendingSpillPartitions.addLast(partition);
+      }
+      _isLeftInputSpilled = true;
+    }
+    while (true) {
+      if (_activeSpillPartition == null) {
+        SpillPartition partition = _pendingSpillPartitions.pollFirst();
+        if (partition == null) {
+          _spillPartitions = null;
+          assert _rightSideStats != null;
+          _leftSideStats.mergeInOrder(_rightSideStats, getOperatorType(), _statMap);
+          return TransferableBlockUtils.getEndOfStreamTransferableBlock(_leftSideStats);
+        }
+        if (!loadSpillPartition(partition)) {
+          continue;
+        }
+      }
+      if (_activeSpillLeftBatches.hasNext()) {
+        List<Object[]> rows = buildJoinedRows(_activeSpillLeftBatches.next());
+        sampleAndCheckInterruption();
+        if (!rows.isEmpty()) {
+          return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+        }
+      } else {
+        List<Object[]> rows = needUnmatchedRightRows() ? buildNonMatchRightRows() : List.of();
+        _activeSpillPartition.close();
+        _activeSpillPartition = null;
+        _activeSpillLeftBatches = null;
+        if (!rows.isEmpty()) {
+          return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+        }
+      }
+    }
+  }
+
+  /**
+   * Loads the right rows of the given partition into the hash table, or re-partitions it if it is still too large.
+   *
+   * @return {@code true} if the partition is loaded and ready to be probed, {@code false} if it was skipped or
+   *         re-partitioned.
+   */
+  private boolean loadSpillPartition(SpillPartition partition)
+      throws IOException {
+    long numRightRows = partition._rightFile.getNumRows();
+    long numLeftRows = partition._leftFile.getNumRows();
+    boolean needLeftRowsWithoutMatch = needUnmatchedLeftRows() || _joinType == JoinRelType.ANTI;
+    if ((numLeftRows == 0 && !needUnmatchedRightRows()) || (numRightRows == 0 && !needLeftRowsWithoutMatch)) {
+      // Nothing can be emitted from this partition
+      partition.close();
+      return false;
+    }
+    if (numRightRows > _maxRowsInJoin && partition._level < MAX_SPILL_LEVEL) {
+      repartition(partition);
+      return false;
+    }
+    _broadcastRightTable.clear();
+    if (_matchedRightRows != null) {
+      _matchedRightRows.clear();
+    }
+    for (List<Object[]> rows : partition._rightFile) {
+      addToHashTable(rows);
+      sampleAndCheckInterruption();
+    }
+    _activeSpillPartition = partition;
+    _activeSpillLeftBatches = partition._leftFile.iterator();
+    return true;
+  }
+
+  private void repartition(SpillPartition partition)
+      throws IOException {
+    _spillPartitions = createSpillPartitions(partition._level + 1);
+    try {
+      for (List<Object[]> rows : partition._rightFile) {
+        spillRows(rows, partition._rightFile.getDataSchema(), _rightKeySelector, true);
+      }
+      for (List<Object[]> rows : partition._leftFile) {
+        spillRows(rows, partition._leftFile.getDataSchema(), _leftKeySelector, false);
+      }
+    } finally {
+      partition.close();
+    }
+    // Process the sub-partitions before the remaining ones to keep the disk usage bounded
+    for (int i = NUM_SPILL_PARTITIONS - 1; i >= 0; i--) {
+      SpillPartition subPartition = _spillPartitions[i];
+      subPartition.finishWriting();
+      _pendingSpillPartitions.addFirst(subPartition);
+    }
+  }
+
+  private List<Object[]> buildJoinedRows(List<Object[]> leftRows)
       throws ProcessingException {
     switch (_joinType) {
       case SEMI:
-        return buildJoinedDataBlockSemi(leftBlock);
+        return buildJoinedDataBlockSemi(leftRows);
       case ANTI:
-        return buildJoinedDataBlockAnti(leftBlock);
+        return buildJoinedDataBlockAnti(leftRows);
       default: { // INNER, LEFT, RIGHT, FULL
-        return buildJoinedDataBlockDefault(leftBlock);
+        return buildJoinedDataBlockDefault(leftRows);
       }
     }
   }
 
-  private List<Object[]> buildJoinedDataBlockDefault(TransferableBlock leftBlock)
+  private List<Object[]> buildJoinedDataBlockDefault(List<Object[]> container)
       throws ProcessingException {
-    List<Object[]> container = leftBlock.getContainer();
     ArrayList<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
       Object key = _leftKeySelector.getKey(leftRow);
       // NOTE: Empty key selector will always give same hash code.
-      List<Object[]> rightRows = _broadcastRightTable.get(key);
-      if (rightRows == null) {
+      int rightRowId = _broadcastRightTable.getFirstRowId(key);
+      if (rightRowId == LookupTable.INVALID_ID) {
         if (needUnmatchedLeftRows()) {
           if (isMaxRowsLimitReached(rows.size())) {
             break;
           }
-          rows.add(joinRow(leftRow, null));
+          rows.add(joinRow(leftRow, LookupTable.INVALID_ID));
         }
         continue;
       }
       boolean hasMatchForLeftRow = false;
-      int numRightRows = rightRows.size();
-      rows.ensureCapacity(rows.size() + numRightRows);
       boolean maxRowsLimitReached = false;
-      for (int i = 0; i < numRightRows; i++) {
-        Object[] rightRow = rightRows.get(i);
-        // TODO: Optimize this to avoid unnecessary object copy.
-        Object[] resultRow = joinRow(leftRow, rightRow);
+      for (; rightRowId != LookupTable.INVALID_ID; rightRowId = _broadcastRightTable.getNextRowId(rightRowId)) {
+        Object[] resultRow = joinRow(leftRow, rightRowId);
         if (_nonEquiEvaluators.isEmpty() || _nonEquiEvaluators.stream()
             .allMatch(evaluator -> BooleanUtils.isTrueInternalValue(evaluator.apply(resultRow)))) {
           if (isMaxRowsLimitReached(rows.size())) {
@@ -351,7 +634,7 @@ public class HashJoinOperator extends MultiStageOperator {
           rows.add(resultRow);
           hasMatchForLeftRow = true;
           if (_matchedRightRows != null) {
-            _matchedRightRows.computeIfAbsent(key, k -> new BitSet(numRightRows)).set(i);
+            _matchedRightRows.set(rightRowId);
           }
         }
       }
@@ -362,37 +645,35 @@ public class HashJoinOperator extends MultiStageOperator {
         if (isMaxRowsLimitReached(rows.size())) {
           break;
         }
-        rows.add(joinRow(leftRow, null));
+        rows.add(joinRow(leftRow, LookupTable.INVALID_ID));
       }
     }
 
     return rows;
   }
 
-  private List<Object[]> buildJoinedDataBlockSemi(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> buildJoinedDataBlockSemi(List<Object[]> container) {
     List<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
       Object key = _leftKeySelector.getKey(leftRow);
       // SEMI-JOIN only checks existence of the key
       if (_broadcastRightTable.containsKey(key)) {
-        rows.add(joinRow(leftRow, null));
+        rows.add(joinRow(leftRow, LookupTable.INVALID_ID));
       }
     }
 
     return rows;
   }
 
-  private List<Object[]> buildJoinedDataBlockAnti(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> buildJoinedDataBlockAnti(List<Object[]> container) {
     List<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
       Object key = _leftKeySelector.getKey(leftRow);
       // ANTI-JOIN only checks non-existence of the key
       if (!_broadcastRightTable.containsKey(key)) {
-        rows.add(joinRow(leftRow, null));
+        rows.add(joinRow(leftRow, LookupTable.INVALID_ID));
       }
     }
 
@@ -401,38 +682,25 @@ public class HashJoinOperator extends MultiStageOperator {
 
   private List<Object[]> buildNonMatchRightRows() {
     List<Object[]> rows = new ArrayList<>();
-    for (Map.Entry<Object, ArrayList<Object[]>> entry : _broadcastRightTable.entrySet()) {
-      List<Object[]> rightRows = entry.getValue();
-      BitSet matchedIndices = _matchedRightRows.get(entry.getKey());
-      if (matchedIndices == null) {
-        for (Object[] rightRow : rightRows) {
-          rows.add(joinRow(null, rightRow));
-        }
-      } else {
-        int numRightRows = rightRows.size();
-        int unmatchedIndex = 0;
-        while ((unmatchedIndex = matchedIndices.nextClearBit(unmatchedIndex)) < numRightRows) {
-          rows.add(joinRow(null, rightRows.get(unmatchedIndex++)));
-        }
-      }
+    int numRightRows = _broadcastRightTable.getNumRows();
+    int unmatchedRowId = 0;
+    while ((unmatchedRowId = _matchedRightRows.nextClearBit(unmatchedRowId)) < numRightRows) {
+      rows.add(joinRow(null, unmatchedRowId++));
     }
     return rows;
   }
 
-  private Object[] joinRow(@Nullable Object[] leftRow, @Nullable Object[] rightRow) {
+  /**
+   * Joins the given left row with the right row with the given row id in the lookup table. Either side can be missing
+   * ({@code null} left row or {@link LookupTable#INVALID_ID} right row id), in which case its columns are left null.
+   */
+  private Object[] joinRow(@Nullable Object[] leftRow, int rightRowId) {
     Object[] resultRow = new Object[_resultColumnSize];
-    int idx = 0;
     if (leftRow != null) {
-      for (Object obj : leftRow) {
-        resultRow[idx++] = obj;
-      }
+      System.arraycopy(leftRow, 0, resultRow, 0, leftRow.length);
     }
-    // This is needed since left row can be null and we need to advance the idx to the beginning of right row.
-    idx = _leftColumnSize;
-    if (rightRow != null) {
-      for (Object obj : rightRow) {
-        resultRow[idx++] = obj;
-      }
+    if (rightRowId != LookupTable.INVALID_ID) {
+      _broadcastRightTable.copyRow(rightRowId, resultRow, _leftColumnSize);
     }
     return resultRow;
   }
@@ -473,7 +741,8 @@ public class HashJoinOperator extends MultiStageOperator {
    */
   private boolean isMaxRowsLimitReached(int numJoinedRows)
       throws ProcessingException {
-    if (numJoinedRows == _maxRowsInJoin) {
+    // In SPILL mode the limit only bounds the rows kept in the hash table
+    if (numJoinedRows == _maxRowsInJoin && _joinOverflowMode != JoinOverFlowMode.SPILL) {
       if (_joinOverflowMode == JoinOverFlowMode.THROW) {
         throwProcessingExceptionForJoinRowLimitExceeded(
             "Cannot process join, reached number of rows limit: " + _maxRowsInJoin);
@@ -490,6 +759,35 @@ public class HashJoinOperator extends MultiStageOperator {
     return false;
   }
 
+  @Override
+  public void close() {
+    super.close();
+    releaseSpillPartitions();
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    super.cancel(e);
+    releaseSpillPartitions();
+  }
+
+  private void releaseSpillPartitions() {
+    if (_spillPartitions != null) {
+      for (SpillPartition partition : _spillPartitions) {
+        partition.close();
+      }
+      _spillPartitions = null;
+    }
+    for (SpillPartition partition : _pendingSpillPartitions) {
+      partition.close();
+    }
+    _pendingSpillPartitions.clear();
+    if (_activeSpillPartition != null) {
+      _activeSpillPartition.close();
+      _activeSpillPartition = null;
+    }
+  }
+
   private void throwProcessingExceptionForJoinRowLimitExceeded(String reason)
       throws ProcessingException {
     ProcessingException resourceLimitExceededException =
@@ -498,14 +796,47 @@ public class HashJoinOperator extends MultiStageOperator {
         + ". Consider increasing the limit for the maximum number of rows in a join either via the query option '"
         + CommonConstants.Broker.Request.QueryOptionKey.MAX_ROWS_IN_JOIN + "' or the '"
         + PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN + "' hint in the '" + PinotHintOptions.JOIN_HINT_OPTIONS
-        + "'. Alternatively, if partial results are acceptable, the join overflow mode can be set to '"
-        + JoinOverFlowMode.BREAK.name() + "' either via the query option '"
+        + "'. Alternatively, the join overflow mode can be set to '" + JoinOverFlowMode.SPILL.name()
+        + "' to spill the join to disk or, if partial results are acceptable, to '" + JoinOverFlowMode.BREAK.name()
+        + "' either via the query option '"
         + CommonConstants.Broker.Request.QueryOptionKey.JOIN_OVERFLOW_MODE + "' or the '"
         + PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE + "' hint in the '" + PinotHintOptions.JOIN_HINT_OPTIONS
         + "'.");
     throw resourceLimitExceededException;
   }
 
+  /**
+   * A pair of spill files holding the right and left rows whose join keys hash to the same partition.
+   */
+  private static class SpillPartition {
+    final int _level;
+    final RowSpillFile _rightFile;
+    final RowSpillFile _leftFile;
+
+    SpillPartition(int level)
+        throws IOException {
+      _level = level;
+      _rightFile = RowSpillFile.create();
+      try {
+        _leftFile = RowSpillFile.create();
+      } catch (IOException e) {
+        _rightFile.close();
+        throw e;
+      }
+    }
+
+    void finishWriting()
+        throws IOException {
+      _rightFile.finishWriting();
+      _leftFile.finishWriting();
+    }
+
+    void close() {
+      _rightFile.close();
+      _leftFile.close();
+    }
+  }
+
   public enum StatKey implements StatMap.Key {
     //@formatter:off
     EXECUTION_TIME_MS(StatMap.Type.LONG) {
@@ -524,7 +855,15 @@ public class HashJoinOperator extends MultiStageOperator {
     /**
      * How long (CPU time) has been spent on building the hash table.
      */
-    TIME_BUILDING_HASH_TABLE_MS(StatMap.Type.LONG);
+    TIME_BUILDING_HASH_TABLE_MS(StatMap.Type.LONG),
+    /**
+     * Number of rows (from both inputs) written to disk when the join is spilled.
+     */
+    SPILLED_ROWS(StatMap.Type.LONG),
+    /**
+     * Number of bytes written to disk when the join is spilled.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
@@ -23,12 +23,17 @@ import com.google.common.base.Preconditions;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelDistribution;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.physical.MailboxIdUtils;
@@ -60,13 +65,14 @@ public class MailboxSendOperator extends MultiStageOperator {
 
   private final MultiStageOperator _input;
   private final BlockExchange _exchange;
+  private final boolean _useColumnarDataBlock;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
 
   // TODO: Support sort on sender
   public MailboxSendOperator(OpChainExecutionContext context, MultiStageOperator input, MailboxSendNode node) {
     this(context, input,
         statMap -> getBlockExchange(context, node.getReceiverStageId(), node.getDistributionType(), node.getKeys(),
-            statMap));
+            node.getNodeHint().getHintOptions().get(PinotHintOptions.EXCHANGE_HINT_OPTIONS), statMap));
     _statMap.merge(StatKey.STAGE, context.getStageId());
     _statMap.merge(StatKey.PARALLELISM, 1);
   }
@@ -77,10 +83,12 @@ public class MailboxSendOperator extends MultiStageOperator {
     super(context);
     _input = input;
     _exchange = exchangeFactory.apply(_statMap);
+    _useColumnarDataBlock = QueryOptionsUtils.isUseColumnarDataBlock(context.getOpChainMetadata());
   }
 
   private static BlockExchange getBlockExchange(OpChainExecutionContext context, int receiverStageId,
-      RelDistribution.Type distributionType, List<Integer> keys, StatMap<StatKey> statMap) {
+      RelDistribution.Type distributionType, List<Integer> keys, @Nullable Map<String, String> exchangeHintOptions,
+      StatMap<StatKey> statMap) {
     Preconditions.checkState(SUPPORTED_EXCHANGE_TYPES.contains(distributionType), "Unsupported distribution type: %s",
         distributionType);
     MailboxService mailboxService = context.getMailboxService();
@@ -96,7 +104,8 @@ public class MailboxSendOperator extends MultiStageOperator {
         .map(v -> mailboxService.getSendingMailbox(v.getHostname(), v.getPort(), v.getMailboxId(), deadlineMs, statMap))
         .collect(Collectors.toList());
     statMap.merge(StatKey.FAN_OUT, sendingMailboxes.size());
-    return BlockExchange.getExchange(sendingMailboxes, distributionType, keys, TransferableBlockUtils::splitBlock);
+    return BlockExchange.getExchange(sendingMailboxes, distributionType, keys, exchangeHintOptions, statMap,
+        TransferableBlockUtils::splitBlock);
   }
 
   @Override
@@ -170,6 +179,10 @@ public class MailboxSendOperator extends MultiStageOperator {
 
   private boolean sendTransferableBlock(TransferableBlock block)
       throws Exception {
+    if (_useColumnarDataBlock && block.getType() == DataBlock.Type.ROW && block.isContainerConstructed()) {
+      // Re-wrap the rows so that they are laid out column by column when the data block is built
+      block = new TransferableBlock(block.getContainer(), block.getDataSchema(), DataBlock.Type.COLUMNAR);
+    }
     boolean isEarlyTerminated = _exchange.send(block);
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("==[SEND]== Block " + block + " sent from: " + _context.getId());
@@ -277,7 +290,29 @@ public class MailboxSendOperator extends MultiStageOperator {
       public boolean includeDefaultInJson() {
         return true;
       }
-    };
+    },
+    /**
+     * How many bytes have been sent through the network by this mailbox, after compression.
+     * <p>
+     * The lower the relation between BYTES_ON_WIRE and SERIALIZED_BYTES, the more efficient the compression is.
+     */
+    BYTES_ON_WIRE(StatMap.Type.LONG) {
+      @Override
+      public boolean includeDefaultInJson() {
+        return true;
+      }
+    },
+    /**
+     * A heavy hitter key detected by sampling the rows of a hash exchange, where a single key accounts for more rows
+     * than the fair share of a receiving worker.
+     * <p>
+     * Such key can be hinted as skewed on the join consuming the exchange to spread its rows across the workers.
+     */
+    HEAVY_HITTER_KEY(StatMap.Type.STRING),
+    /**
+     * How many rows with skewed keys have been split or broadcast instead of being hashed by this mailbox.
+     */
+    SKEWED_KEY_ROWS(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
@@ -305,6 +305,8 @@ public abstract class MultiStageOperator
         StatMap<MailboxSendOperator.StatKey> stats = (StatMap<MailboxSendOperator.StatKey>) map;
         serverMetrics.addTimedValue(ServerTimer.MULTI_STAGE_SERIALIZATION_CPU_TIME_MS,
             stats.getLong(MailboxSendOperator.StatKey.SERIALIZATION_TIME_MS), TimeUnit.MILLISECONDS);
+        serverMetrics.addMeteredGlobalValue(ServerMeter.MULTI_STAGE_BYTES_ON_WIRE,
+            stats.getLong(MailboxSendOperator.StatKey.BYTES_ON_WIRE));
       }
     },
     MINUS(SetOperator.StatKey.class) {
@@ -365,6 +367,15 @@ public abstract class MultiStageOperator
           serverMetrics.addMeteredGlobalValue(ServerMeter.WINDOW_TIMES_MAX_ROWS_REACHED, 1);
         }
       }
+    },
+    SORT_MERGE_JOIN(SortMergeJoinOperator.StatKey.class) {
+      @Override
+      public void mergeInto(BrokerResponseNativeV2 response, StatMap<?> map) {
+        @SuppressWarnings("unchecked")
+        StatMap<SortMergeJoinOperator.StatKey> stats = (StatMap<SortMergeJoinOperator.StatKey>) map;
+        response.mergeMaxRowsInOperator(stats.getLong(SortMergeJoinOperator.StatKey.EMITTED_ROWS));
+        response.mergeMaxRowsInJoinReached(stats.getBoolean(SortMergeJoinOperator.StatKey.MAX_ROWS_IN_JOIN_REACHED));
+      }
     },;
 
     private final Class _statKeyClass;
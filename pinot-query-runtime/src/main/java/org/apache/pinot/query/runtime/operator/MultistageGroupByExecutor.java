@@ -18,11 +18,16 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import javax.annotation.Nullable;
 import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.common.datablock.DataBlock;
@@ -41,16 +46,31 @@ import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.groupby.GroupIdGenerator;
 import org.apache.pinot.query.runtime.operator.groupby.GroupIdGeneratorFactory;
+import org.apache.pinot.query.runtime.operator.utils.RowSpillFile;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.GroupByOverFlowMode;
 import org.roaringbitmap.PeekableIntIterator;
 import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
  * Class that executes the group by aggregations for the multistage AggregateOperator.
+ *
+ * <p>When the group by overflow mode is {@link GroupByOverFlowMode#SPILL}, the number of groups kept in memory never
+ * exceeds the num groups limit. Before processing rows that might exceed it, the groups in memory are converted to
+ * their intermediate results, hash partitioned on the group keys into {@link RowSpillFile}s and cleared. Once the
+ * input is consumed, the partitions are merged one at a time (see {@link #getNextSpilledResult()}), and partitions that
+ * are still too large are re-partitioned up to {@link #MAX_SPILL_LEVEL} times.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class MultistageGroupByExecutor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MultistageGroupByExecutor.class);
+  private static final GroupByOverFlowMode DEFAULT_GROUP_BY_OVERFLOW_MODE = GroupByOverFlowMode.BREAK;
+  private static final int NUM_SPILL_PARTITIONS = 16;
+  private static final int MAX_SPILL_LEVEL = 3;
+
   private final int[] _groupKeyIds;
   private final AggregationFunction[] _aggFunctions;
   private final int[] _filterArgIds;
@@ -58,14 +78,27 @@ public class MultistageGroupByExecutor {
   private final AggType _aggType;
   private final DataSchema _resultSchema;
   private final int _numGroupsLimit;
+  private final int _maxInitialResultHolderCapacity;
+  private final GroupByOverFlowMode _groupByOverflowMode;
 
   // Group By Result holders for each mode
-  private final GroupByResultHolder[] _aggregateResultHolders;
-  private final List<Object[]> _mergeResultHolder;
+  private GroupByResultHolder[] _aggregateResultHolders;
+  private List<Object[]> _mergeResultHolder;
 
   // Mapping from the row-key to a zero based integer index. This is used when we invoke the v1 aggregation functions
   // because they use the zero based integer indexes to store results.
-  private final GroupIdGenerator _groupIdGenerator;
+  private GroupIdGenerator _groupIdGenerator;
+
+  // Below are used only in SPILL overflow mode, once the number of groups reaches the limit.
+  // Schema of the spilled rows: the group keys followed by the intermediate result of each aggregation function.
+  private DataSchema _spillSchema;
+  // Partitions being written while consuming the input. Null if the groups are not spilled or the input is consumed.
+  private SpillPartition[] _spillPartitions;
+  // Partitions written to disk and waiting to be merged.
+  private final Deque<SpillPartition> _pendingSpillPartitions = new ArrayDeque<>();
+  private boolean _hasSpilledGroups;
+  private long _numSpilledRows;
+  private long _numSpilledBytes;
 
   public MultistageGroupByExecutor(int[] groupKeyIds, AggregationFunction[] aggFunctions, int[] filterArgIds,
       int maxFilterArgId, AggType aggType, DataSchema resultSchema, Map<String, String> opChainMetadata,
@@ -76,24 +109,34 @@ public class MultistageGroupByExecutor {
     _maxFilterArgId = maxFilterArgId;
     _aggType = aggType;
     _resultSchema = resultSchema;
-    int maxInitialResultHolderCapacity = getMaxInitialResultHolderCapacity(opChainMetadata, nodeHint);
+    _maxInitialResultHolderCapacity = getMaxInitialResultHolderCapacity(opChainMetadata, nodeHint);
     _numGroupsLimit = getNumGroupsLimit(opChainMetadata, nodeHint);
+    _groupByOverflowMode = getGroupByOverflowMode(opChainMetadata, nodeHint);
+    Preconditions.checkState(_groupByOverflowMode != GroupByOverFlowMode.SPILL || _numGroupsLimit > 0,
+        "Num groups limit must be positive to spill the groups, got: %s", _numGroupsLimit);
+    initGroups();
+  }
 
-    int numFunctions = aggFunctions.length;
-    if (!aggType.isInputIntermediateFormat()) {
+  /**
+   * Creates empty result holders and group id generator. Called at construction time, and each time the groups are
+   * spilled to disk.
+   */
+  private void initGroups() {
+    int numFunctions = _aggFunctions.length;
+    if (!_aggType.isInputIntermediateFormat()) {
       _aggregateResultHolders = new GroupByResultHolder[numFunctions];
       for (int i = 0; i < numFunctions; i++) {
         _aggregateResultHolders[i] =
-            _aggFunctions[i].createGroupByResultHolder(maxInitialResultHolderCapacity, _numGroupsLimit);
+            _aggFunctions[i].createGroupByResultHolder(_maxInitialResultHolderCapacity, _numGroupsLimit);
       }
       _mergeResultHolder = null;
     } else {
-      _mergeResultHolder = new ArrayList<>(maxInitialResultHolderCapacity);
+      _mergeResultHolder = new ArrayList<>(_maxInitialResultHolderCapacity);
       _aggregateResultHolders = null;
     }
 
     _groupIdGenerator =
-        GroupIdGeneratorFactory.getGroupIdGenerator(_resultSchema.getStoredColumnDataTypes(), groupKeyIds.length,
+        GroupIdGeneratorFactory.getGroupIdGenerator(_resultSchema.getStoredColumnDataTypes(), _groupKeyIds.length,
             _numGroupsLimit);
   }
 
@@ -128,6 +171,21 @@ public class MultistageGroupByExecutor {
         : InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
   }
 
+  private GroupByOverFlowMode getGroupByOverflowMode(Map<String, String> opChainMetadata,
+      @Nullable PlanNode.NodeHint nodeHint) {
+    if (nodeHint != null) {
+      Map<String, String> aggregateOptions = nodeHint.getHintOptions().get(PinotHintOptions.AGGREGATE_HINT_OPTIONS);
+      if (aggregateOptions != null) {
+        String groupByOverflowModeStr = aggregateOptions.get(PinotHintOptions.AggregateOptions.GROUP_BY_OVERFLOW_MODE);
+        if (groupByOverflowModeStr != null) {
+          return GroupByOverFlowMode.valueOf(groupByOverflowModeStr);
+        }
+      }
+    }
+    GroupByOverFlowMode groupByOverflowMode = QueryOptionsUtils.getGroupByOverflowMode(opChainMetadata);
+    return groupByOverflowMode != null ? groupByOverflowMode : DEFAULT_GROUP_BY_OVERFLOW_MODE;
+  }
+
   public int getNumGroupsLimit() {
     return _numGroupsLimit;
   }
@@ -135,7 +193,16 @@ public class MultistageGroupByExecutor {
   /**
    * Performs group-by aggregation for the data in the block.
    */
-  public void processBlock(TransferableBlock block) {
+  public void processBlock(TransferableBlock block)
+      throws IOException {
+    if (_groupByOverflowMode == GroupByOverFlowMode.SPILL) {
+      processBlockWithSpill(block);
+    } else {
+      processBlockInMemory(block);
+    }
+  }
+
+  private void processBlockInMemory(TransferableBlock block) {
     if (!_aggType.isInputIntermediateFormat()) {
       processAggregate(block);
     } else {
@@ -143,6 +210,28 @@ public class MultistageGroupByExecutor {
     }
   }
 
+  /**
+   * Processes the block without dropping any group: when the rows of the block might make the number of groups exceed
+   * the limit, the groups in memory are spilled first. Blocks with more rows than the limit are processed in chunks.
+   */
+  private void processBlockWithSpill(TransferableBlock block)
+      throws IOException {
+    int numRows = block.getNumRows();
+    if (numRows <= _numGroupsLimit) {
+      if (_groupIdGenerator.getNumGroups() + numRows > _numGroupsLimit) {
+        spillGroups();
+      }
+      processBlockInMemory(block);
+      return;
+    }
+    List<Object[]> rows = block.getContainer();
+    DataSchema dataSchema = block.getDataSchema();
+    for (int from = 0; from < numRows; from += _numGroupsLimit) {
+      int to = Math.min(from + _numGroupsLimit, numRows);
+      processBlockWithSpill(new TransferableBlock(rows.subList(from, to), dataSchema, DataBlock.Type.ROW));
+    }
+  }
+
   /**
    * Fetches the result.
    */
@@ -190,7 +279,289 @@ public class MultistageGroupByExecutor {
   }
 
   public boolean isNumGroupsLimitReached() {
-    return _groupIdGenerator.getNumGroups() == _numGroupsLimit;
+    // Groups are never dropped when they can be spilled
+    return _groupByOverflowMode != GroupByOverFlowMode.SPILL && _groupIdGenerator.getNumGroups() == _numGroupsLimit;
+  }
+
+  /**
+   * Returns whether some groups were spilled to disk. When it is {@code true}, the results must be fetched with
+   * {@link #getNextSpilledResult()} instead of {@link #getResult()}.
+   */
+  public boolean hasSpilledGroups() {
+    return _hasSpilledGroups;
+  }
+
+  public long getNumSpilledRows() {
+    return _numSpilledRows;
+  }
+
+  public long getNumSpilledBytes() {
+    return _numSpilledBytes;
+  }
+
+  /**
+   * Fetches the result of the next spilled partition, or returns {@code null} once all the partitions are merged. The
+   * groups still in memory are spilled on the first call, so that each group is returned exactly once.
+   */
+  @Nullable
+  public List<Object[]> getNextSpilledResult()
+      throws IOException {
+    Preconditions.checkState(_hasSpilledGroups, "Groups are not spilled");
+    if (_spillPartitions != null) {
+      spillGroups();
+      for (SpillPartition partition : _spillPartitions) {
+        partition._file.finishWriting();
+        _pendingSpillPartitions.addLast(partition);
+      }
+      _spillPartitions = null;
+    }
+    while (true) {
+      SpillPartition partition = _pendingSpillPartitions.pollFirst();
+      if (partition == null) {
+        _hasSpilledGroups = false;
+        return null;
+      }
+      try {
+        if (partition._file.getNumRows() > _numGroupsLimit && partition._level < MAX_SPILL_LEVEL) {
+          repartition(partition);
+          continue;
+        }
+        List<Object[]> rows = mergeSpillPartition(partition);
+        if (!rows.isEmpty()) {
+          return rows;
+        }
+      } finally {
+        partition.close();
+      }
+    }
+  }
+
+  /**
+   * Releases the spilled partitions. It is a no-op if the groups were never spilled.
+   */
+  public void close() {
+    if (_spillPartitions != null) {
+      for (SpillPartition partition : _spillPartitions) {
+        partition.close();
+      }
+      _spillPartitions = null;
+    }
+    for (SpillPartition partition : _pendingSpillPartitions) {
+      partition.close();
+    }
+    _pendingSpillPartitions.clear();
+  }
+
+  /**
+   * Writes the intermediate results of the groups in memory into the spill partitions and clears the groups.
+   */
+  private void spillGroups()
+      throws IOException {
+    int numGroups = _groupIdGenerator.getNumGroups();
+    if (numGroups == 0) {
+      return;
+    }
+    if (_spillPartitions == null) {
+      LOGGER.info("Spilling group by to disk as the num groups limit was reached: {}", _numGroupsLimit);
+      _spillSchema = getSpillSchema();
+      _spillPartitions = createSpillPartitions(0);
+      _hasSpilledGroups = true;
+    }
+    List<Object[]> rows = new ArrayList<>(numGroups);
+    int numKeys = _groupKeyIds.length;
+    int numFunctions = _aggFunctions.length;
+    Iterator<GroupIdGenerator.GroupKey> groupKeyIterator =
+        _groupIdGenerator.getGroupKeyIterator(numKeys + numFunctions);
+    while (groupKeyIterator.hasNext()) {
+      GroupIdGenerator.GroupKey groupKey = groupKeyIterator.next();
+      int groupId = groupKey._groupId;
+      Object[] row = groupKey._row;
+      int columnId = numKeys;
+      for (int i = 0; i < numFunctions; i++) {
+        row[columnId++] = getIntermediateResultValue(i, groupId);
+      }
+      rows.add(row);
+    }
+    spillRows(rows, _spillPartitions);
+    initGroups();
+  }
+
+  private Object getIntermediateResultValue(int functionId, int groupId) {
+    if (!_aggType.isInputIntermediateFormat()) {
+      return _aggFunctions[functionId].extractGroupByResult(_aggregateResultHolders[functionId], groupId);
+    } else {
+      return _mergeResultHolder.get(groupId)[functionId];
+    }
+  }
+
+  private DataSchema getSpillSchema() {
+    int numKeys = _groupKeyIds.length;
+    int numFunctions = _aggFunctions.length;
+    String[] columnNames = new String[numKeys + numFunctions];
+    ColumnDataType[] columnDataTypes = new ColumnDataType[numKeys + numFunctions];
+    ColumnDataType[] resultStoredTypes = _resultSchema.getStoredColumnDataTypes();
+    for (int i = 0; i < numKeys; i++) {
+      columnNames[i] = _resultSchema.getColumnName(i);
+      columnDataTypes[i] = resultStoredTypes[i];
+    }
+    for (int i = 0; i < numFunctions; i++) {
+      columnNames[numKeys + i] = _resultSchema.getColumnName(numKeys + i);
+      columnDataTypes[numKeys + i] = _aggFunctions[i].getIntermediateResultColumnType();
+    }
+    return new DataSchema(columnNames, columnDataTypes);
+  }
+
+  private SpillPartition[] createSpillPartitions(int level)
+      throws IOException {
+    SpillPartition[] partitions = new SpillPartition[NUM_SPILL_PARTITIONS];
+    try {
+      for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+        partitions[i] = new SpillPartition(level, RowSpillFile.create());
+      }
+    } catch (IOException e) {
+      for (SpillPartition partition : partitions) {
+        if (partition != null) {
+          partition.close();
+        }
+      }
+      throw e;
+    }
+    return partitions;
+  }
+
+  /**
+   * Hash partitions the given spilled rows on the group keys and appends them to the given partitions.
+   */
+  private void spillRows(List<Object[]> rows, SpillPartition[] partitions)
+      throws IOException {
+    int level = partitions[0]._level;
+    List<Object[]>[] partitionedRows = new List[NUM_SPILL_PARTITIONS];
+    for (Object[] row : rows) {
+      int partitionId = getSpillPartitionId(row, level);
+      List<Object[]> partitionRows = partitionedRows[partitionId];
+      if (partitionRows == null) {
+        partitionRows = new ArrayList<>();
+        partitionedRows[partitionId] = partitionRows;
+      }
+      partitionRows.add(row);
+    }
+    for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+      if (partitionedRows[i] != null) {
+        _numSpilledBytes += partitions[i]._file.write(partitionedRows[i], _spillSchema);
+        _numSpilledRows += partitionedRows[i].size();
+      }
+    }
+  }
+
+  /**
+   * Returns the spill partition of the group keys at the beginning of the given row. The hash is re-mixed with the
+   * level so that rows already partitioned by the same keys (e.g. by the hash exchange, or by a previous spill level)
+   * are spread across all the partitions.
+   */
+  private int getSpillPartitionId(Object[] row, int level) {
+    int hash = 1;
+    for (int i = 0; i < _groupKeyIds.length; i++) {
+      hash = 31 * hash + Objects.hashCode(row[i]);
+    }
+    hash ^= (level + 1) * 0x9E3779B9;
+    hash ^= hash >>> 16;
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    hash *= 0xC2B2AE35;
+    hash ^= hash >>> 16;
+    return (hash & Integer.MAX_VALUE) % NUM_SPILL_PARTITIONS;
+  }
+
+  /**
+   * Splits a partition that is too large to be merged in memory into sub-partitions, which are merged before the
+   * remaining partitions to keep the disk usage bounded.
+   */
+  private void repartition(SpillPartition partition)
+      throws IOException {
+    LOGGER.debug("Re-partitioning spilled group by partition with {} rows at level: {}",
+        partition._file.getNumRows(), partition._level);
+    SpillPartition[] subPartitions = createSpillPartitions(partition._level + 1);
+    try {
+      for (List<Object[]> rows : partition._file) {
+        spillRows(rows, subPartitions);
+      }
+    } catch (IOException | RuntimeException e) {
+      for (SpillPartition subPartition : subPartitions) {
+        subPartition.close();
+      }
+      throw e;
+    }
+    for (int i = NUM_SPILL_PARTITIONS - 1; i >= 0; i--) {
+      SpillPartition subPartition = subPartitions[i];
+      subPartition._file.finishWriting();
+      _pendingSpillPartitions.addFirst(subPartition);
+    }
+  }
+
+  /**
+   * Merges the intermediate results of the rows in the given partition by group keys, and returns the result rows.
+   * Partitions that could not be split further are merged without the num groups limit.
+   */
+  private List<Object[]> mergeSpillPartition(SpillPartition partition) {
+    int numKeys = _groupKeyIds.length;
+    int numFunctions = _aggFunctions.length;
+    int numGroupsLimit = partition._level < MAX_SPILL_LEVEL ? _numGroupsLimit : Integer.MAX_VALUE;
+    GroupIdGenerator groupIdGenerator =
+        GroupIdGeneratorFactory.getGroupIdGenerator(_resultSchema.getStoredColumnDataTypes(), numKeys,
+            numGroupsLimit);
+    List<Object[]> mergedResultHolder = new ArrayList<>();
+    Object[] key = numKeys > 1 ? new Object[numKeys] : null;
+    for (List<Object[]> rows : partition._file) {
+      for (Object[] row : rows) {
+        int groupId;
+        if (numKeys == 1) {
+          groupId = groupIdGenerator.getGroupId(row[0]);
+        } else {
+          System.arraycopy(row, 0, key, 0, numKeys);
+          groupId = groupIdGenerator.getGroupId(key);
+        }
+        assert groupId != GroupIdGenerator.INVALID_ID;
+        Object[] mergedResults;
+        if (mergedResultHolder.size() == groupId) {
+          mergedResults = new Object[numFunctions];
+          mergedResultHolder.add(mergedResults);
+        } else {
+          mergedResults = mergedResultHolder.get(groupId);
+        }
+        for (int i = 0; i < numFunctions; i++) {
+          Object intermediateResult = row[numKeys + i];
+          if (intermediateResult == null) {
+            continue;
+          }
+          if (mergedResults[i] == null) {
+            mergedResults[i] = intermediateResult;
+          } else {
+            mergedResults[i] = _aggFunctions[i].merge(mergedResults[i], intermediateResult);
+          }
+        }
+      }
+    }
+    int numGroups = groupIdGenerator.getNumGroups();
+    if (numGroups == 0) {
+      return Collections.emptyList();
+    }
+    List<Object[]> rows = new ArrayList<>(numGroups);
+    ColumnDataType[] resultStoredTypes = _resultSchema.getStoredColumnDataTypes();
+    Iterator<GroupIdGenerator.GroupKey> groupKeyIterator = groupIdGenerator.getGroupKeyIterator(numKeys + numFunctions);
+    while (groupKeyIterator.hasNext()) {
+      GroupIdGenerator.GroupKey groupKey = groupKeyIterator.next();
+      Object[] mergedResults = mergedResultHolder.get(groupKey._groupId);
+      Object[] row = groupKey._row;
+      for (int i = 0; i < numFunctions; i++) {
+        Object intermediateResult = mergedResults[i];
+        row[numKeys + i] = _aggType.isOutputIntermediateFormat() ? intermediateResult
+            : _aggFunctions[i].extractFinalResult(intermediateResult);
+      }
+      // Convert the results from AggregationFunction to the desired type
+      TypeUtils.convertRow(row, resultStoredTypes);
+      rows.add(row);
+    }
+    return rows;
   }
 
   private void processAggregate(TransferableBlock block) {
@@ -372,4 +743,18 @@ public class MultistageGroupByExecutor {
     }
     return intKeys;
   }
+
+  private static class SpillPartition {
+    final int _level;
+    final RowSpillFile _file;
+
+    SpillPartition(int level, RowSpillFile file) {
+      _level = level;
+      _file = file;
+    }
+
+    void close() {
+      _file.close();
+    }
+  }
 }
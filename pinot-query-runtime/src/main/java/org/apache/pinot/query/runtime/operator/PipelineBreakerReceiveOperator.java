@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datatable.StatMap;
+import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.query.runtime.plan.pipeline.PipelineBreakerResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Operator that returns the blocks of a pipeline breaker {@link MailboxReceiveNode}, which have already been received
+ * before the OpChain started (see {@link PipelineBreakerResult}). It is used when the pipeline breaker result is not
+ * only attached to the leaf stage query as a dynamic filter, but also consumed by the operators of the stage, e.g. as
+ * the build side of a join.
+ */
+public class PipelineBreakerReceiveOperator extends MultiStageOperator {
+  private static final String EXPLAIN_NAME = "PIPELINE_BREAKER_RECEIVE";
+  private static final Logger LOGGER = LoggerFactory.getLogger(PipelineBreakerReceiveOperator.class);
+
+  private final Iterator<TransferableBlock> _blockIterator;
+  @Nullable
+  private final MultiStageQueryStats _upstreamStats;
+  private final StatMap<BaseMailboxReceiveOperator.StatKey> _statMap =
+      new StatMap<>(BaseMailboxReceiveOperator.StatKey.class);
+
+  public PipelineBreakerReceiveOperator(OpChainExecutionContext context, MailboxReceiveNode node,
+      PipelineBreakerResult pipelineBreakerResult) {
+    super(context);
+    Integer resultMapId = pipelineBreakerResult.getNodeIdMap().get(node);
+    List<TransferableBlock> blocks = resultMapId != null ? pipelineBreakerResult.getResultMap()
+        .getOrDefault(resultMapId, Collections.emptyList()) : Collections.emptyList();
+    _blockIterator = blocks.iterator();
+    _upstreamStats = pipelineBreakerResult.getStageQueryStats();
+  }
+
+  @Override
+  public void registerExecution(long time, int numRows) {
+    _statMap.merge(BaseMailboxReceiveOperator.StatKey.EXECUTION_TIME_MS, time);
+    _statMap.merge(BaseMailboxReceiveOperator.StatKey.EMITTED_ROWS, numRows);
+  }
+
+  @Override
+  protected Logger logger() {
+    return LOGGER;
+  }
+
+  @Override
+  public List<MultiStageOperator> getChildOperators() {
+    return List.of();
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME;
+  }
+
+  @Override
+  public Type getOperatorType() {
+    return Type.MAILBOX_RECEIVE;
+  }
+
+  @Override
+  protected TransferableBlock getNextBlock() {
+    while (!_isEarlyTerminated && _blockIterator.hasNext()) {
+      TransferableBlock block = _blockIterator.next();
+      if (block.isDataBlock()) {
+        return block;
+      }
+    }
+    // The stats of the upstream stages are carried by the pipeline breaker result
+    MultiStageQueryStats queryStats = MultiStageQueryStats.createReceive(_context.getStageId(), _statMap);
+    if (_upstreamStats != null) {
+      queryStats.mergeUpstream(_upstreamStats);
+    }
+    return TransferableBlockUtils.getEndOfStreamTransferableBlock(queryStats);
+  }
+}
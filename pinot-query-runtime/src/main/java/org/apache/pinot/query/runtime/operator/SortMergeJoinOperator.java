@@ -0,0 +1,524 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+import org.apache.calcite.rel.RelFieldCollation.NullDirection;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.response.ProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.planner.plannode.JoinNode;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
+import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
+import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.BooleanUtils;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.JoinOverFlowMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This {@code SortMergeJoinOperator} joins two inputs that are both sorted on the join keys (e.g. received through
+ * {@link SortedMailboxReceiveOperator}s) by merging them in a single pass.
+ *
+ * <p>Unlike {@link HashJoinOperator}, it does not materialize the right table. Only the right rows sharing the join key
+ * of the current left row (a key group) are kept in memory by the join. The sorted receives feeding the join spill
+ * sorted runs to disk once they exceed the max rows in sort, and merge them back block by block, so the memory
+ * footprint is bounded by the largest key group plus the sort buffers, instead of the size of the right table. Both
+ * inputs are consumed in a streaming fashion, and the output is emitted in blocks of at most
+ * {@link #MAX_ROWS_PER_BLOCK} rows (plus the rows joined with the last left row).
+ *
+ * <p>This operator is only used when the {@code sort_merge} join strategy is requested through the join hint.
+ *
+ * <p>The key semantics are the same as {@link HashJoinOperator}: keys are matched with {@link Object#equals}, including
+ * {@code null} keys. Both inputs must be sorted with the same collation on the join keys (in the join key order), which
+ * is verified while merging.
+ *
+ * <p>The max rows in join limit is applied to the number of right rows in a single key group.
+ */
+public class SortMergeJoinOperator extends MultiStageOperator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SortMergeJoinOperator.class);
+  private static final String EXPLAIN_NAME = "SORT_MERGE_JOIN";
+  private static final int MAX_ROWS_PER_BLOCK = 10_000;
+
+  private static final Set<JoinRelType> SUPPORTED_JOIN_TYPES =
+      Set.of(JoinRelType.INNER, JoinRelType.LEFT, JoinRelType.RIGHT, JoinRelType.FULL, JoinRelType.SEMI,
+          JoinRelType.ANTI);
+
+  private final SortedInput _leftInput;
+  private final SortedInput _rightInput;
+  private final JoinRelType _joinType;
+  private final int[] _leftKeyIds;
+  private final int[] _rightKeyIds;
+  private final int[] _multipliers;
+  private final int[] _nullsMultipliers;
+  private final boolean[] _useDoubleComparison;
+  private final DataSchema _resultSchema;
+  private final int _leftColumnSize;
+  private final int _resultColumnSize;
+  private final List<TransformOperand> _nonEquiEvaluators;
+  private final int _maxRowsInJoin;
+  private final JoinOverFlowMode _joinOverflowMode;
+  private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
+
+  // Right rows sharing the same join key, and the matched ones among them (only for right and full join).
+  private final List<Object[]> _rightGroup = new ArrayList<>();
+  private final BitSet _matchedRightGroupRows;
+  private boolean _isRightGroupLoaded;
+  private Object[] _lastLeftRow;
+  private Object[] _lastRightGroupRow;
+
+  private TransferableBlock _upstreamErrorBlock;
+  private TransferableBlock _eosBlock;
+
+  /**
+   * @param collations collations of both inputs, where the first collations must be on the join keys
+   */
+  public SortMergeJoinOperator(OpChainExecutionContext context, MultiStageOperator leftInput, DataSchema leftSchema,
+      MultiStageOperator rightInput, JoinNode node, List<RelFieldCollation> collations) {
+    super(context);
+    Preconditions.checkState(SUPPORTED_JOIN_TYPES.contains(node.getJoinType()),
+        "Join type: " + node.getJoinType() + " is not supported!");
+    List<Integer> leftKeys = node.getLeftKeys();
+    List<Integer> rightKeys = node.getRightKeys();
+    int numKeys = leftKeys.size();
+    Preconditions.checkState(numKeys > 0 && rightKeys.size() == numKeys && collations.size() >= numKeys,
+        "Sort merge join requires join keys and collations on all of them");
+    _joinType = node.getJoinType();
+    _leftKeyIds = new int[numKeys];
+    _rightKeyIds = new int[numKeys];
+    _multipliers = new int[numKeys];
+    _nullsMultipliers = new int[numKeys];
+    _useDoubleComparison = new boolean[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      _leftKeyIds[i] = leftKeys.get(i);
+      _rightKeyIds[i] = rightKeys.get(i);
+      // Same semantics as SortUtils.SortComparator, which is used to sort the inputs
+      RelFieldCollation collation = collations.get(i);
+      _multipliers[i] = collation.direction == Direction.ASCENDING ? 1 : -1;
+      boolean nullsLast =
+          collation.nullDirection == NullDirection.LAST || (collation.nullDirection == NullDirection.UNSPECIFIED
+              && collation.direction == Direction.ASCENDING);
+      _nullsMultipliers[i] = nullsLast ? 1 : -1;
+      _useDoubleComparison[i] = leftSchema.getColumnDataType(_leftKeyIds[i]).isNumber();
+    }
+    _leftColumnSize = leftSchema.size();
+    _resultSchema = node.getDataSchema();
+    _resultColumnSize = _resultSchema.size();
+    Preconditions.checkState(_resultColumnSize >= _leftColumnSize,
+        "Result column size: %s has to be greater than or equal to left column size: %s", _resultColumnSize,
+        _leftColumnSize);
+    _leftInput = new SortedInput(leftInput);
+    _rightInput = new SortedInput(rightInput);
+    List<RexExpression> nonEquiConditions = node.getNonEquiConditions();
+    _nonEquiEvaluators = new ArrayList<>(nonEquiConditions.size());
+    for (RexExpression nonEquiCondition : nonEquiConditions) {
+      _nonEquiEvaluators.add(TransformOperandFactory.getTransformOperand(nonEquiCondition, _resultSchema));
+    }
+    _matchedRightGroupRows = needUnmatchedRightRows() ? new BitSet() : null;
+    Map<String, String> metadata = context.getOpChainMetadata();
+    _maxRowsInJoin = HashJoinOperator.getMaxRowsInJoin(metadata, node.getNodeHint());
+    _joinOverflowMode = HashJoinOperator.getJoinOverflowMode(metadata, node.getNodeHint());
+  }
+
+  @Override
+  public void registerExecution(long time, int numRows) {
+    _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
+    _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+  }
+
+  @Override
+  public Type getOperatorType() {
+    return Type.SORT_MERGE_JOIN;
+  }
+
+  @Override
+  protected Logger logger() {
+    return LOGGER;
+  }
+
+  @Override
+  public List<MultiStageOperator> getChildOperators() {
+    return List.of(_leftInput._operator, _rightInput._operator);
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME;
+  }
+
+  @Override
+  protected TransferableBlock getNextBlock()
+      throws ProcessingException {
+    if (_upstreamErrorBlock != null) {
+      return _upstreamErrorBlock;
+    }
+    if (_eosBlock != null) {
+      return _eosBlock;
+    }
+    List<Object[]> rows = new ArrayList<>();
+    while (rows.size() < MAX_ROWS_PER_BLOCK) {
+      if (!_isRightGroupLoaded) {
+        loadNextRightGroup(rows);
+        if (_upstreamErrorBlock != null) {
+          return _upstreamErrorBlock;
+        }
+      }
+      Object[] leftRow = _rightGroup.isEmpty() && !needLeftRowsWithoutMatch() ? null : _leftInput.peek();
+      if (_upstreamErrorBlock != null) {
+        return _upstreamErrorBlock;
+      }
+      if (leftRow == null) {
+        // No more left rows to join, emit the remaining unmatched right rows if needed
+        if (!_rightGroup.isEmpty() && needUnmatchedRightRows()) {
+          _isRightGroupLoaded = false;
+          continue;
+        }
+        finish();
+        if (_upstreamErrorBlock != null) {
+          return _upstreamErrorBlock;
+        }
+        if (rows.isEmpty()) {
+          return _eosBlock;
+        }
+        break;
+      }
+      if (_lastLeftRow != null) {
+        Preconditions.checkState(compareKeys(_lastLeftRow, _leftKeyIds, leftRow, _leftKeyIds) <= 0,
+            "Left input of sort merge join is not sorted on the join keys");
+      }
+      _lastLeftRow = leftRow;
+      int result = _rightGroup.isEmpty() ? -1 : compareKeys(leftRow, _leftKeyIds, _rightGroup.get(0), _rightKeyIds);
+      if (result > 0) {
+        // Left row is after the current key group, move to the next one
+        _isRightGroupLoaded = false;
+        continue;
+      }
+      if (result == 0) {
+        joinWithRightGroup(leftRow, rows);
+      } else if (needLeftRowsWithoutMatch()) {
+        rows.add(joinRow(leftRow, null));
+      }
+      _leftInput.advance();
+    }
+    sampleAndCheckInterruption();
+    return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+  }
+
+  /**
+   * Emits the unmatched rows of the current key group if needed, then loads the right rows sharing the next join key.
+   * The key group is left empty when the right input is exhausted.
+   */
+  private void loadNextRightGroup(List<Object[]> rows)
+      throws ProcessingException {
+    if (_matchedRightGroupRows != null) {
+      int numRows = _rightGroup.size();
+      int unmatchedRowId = 0;
+      while ((unmatchedRowId = _matchedRightGroupRows.nextClearBit(unmatchedRowId)) < numRows) {
+        rows.add(joinRow(null, _rightGroup.get(unmatchedRowId++)));
+      }
+      _matchedRightGroupRows.clear();
+    }
+    _rightGroup.clear();
+    _isRightGroupLoaded = true;
+    Object[] firstRow = _rightInput.peek();
+    if (firstRow == null) {
+      return;
+    }
+    if (_lastRightGroupRow != null) {
+      Preconditions.checkState(compareKeys(_lastRightGroupRow, _rightKeyIds, firstRow, _rightKeyIds) < 0,
+          "Right input of sort merge join is not sorted on the join keys");
+    }
+    _lastRightGroupRow = firstRow;
+    _rightGroup.add(firstRow);
+    _rightInput.advance();
+    Object[] row;
+    while ((row = _rightInput.peek()) != null && compareKeys(firstRow, _rightKeyIds, row, _rightKeyIds) == 0) {
+      if (_rightGroup.size() == _maxRowsInJoin) {
+        if (_joinOverflowMode != JoinOverFlowMode.BREAK) {
+          throwProcessingExceptionForJoinRowLimitExceeded(
+              "Cannot build key group for sort merge join operator, reached number of rows limit: " + _maxRowsInJoin);
+        }
+        // Skip the remaining rows of the key group, results might be partial
+        _statMap.merge(StatKey.MAX_ROWS_IN_JOIN_REACHED, true);
+      } else {
+        _rightGroup.add(row);
+      }
+      _rightInput.advance();
+    }
+    _statMap.merge(StatKey.MAX_ROWS_IN_KEY_GROUP, _rightGroup.size());
+  }
+
+  private void joinWithRightGroup(Object[] leftRow, List<Object[]> rows) {
+    boolean hasMatch = false;
+    int numRightRows = _rightGroup.size();
+    for (int i = 0; i < numRightRows; i++) {
+      Object[] rightRow = _rightGroup.get(i);
+      // Keys compared as equal can still differ (e.g. large longs compared as doubles)
+      if (!keysEqual(leftRow, rightRow)) {
+        continue;
+      }
+      switch (_joinType) {
+        case SEMI:
+          rows.add(joinRow(leftRow, null));
+          return;
+        case ANTI:
+          return;
+        default:
+          Object[] resultRow = joinRow(leftRow, rightRow);
+          if (_nonEquiEvaluators.isEmpty() || _nonEquiEvaluators.stream()
+              .allMatch(evaluator -> BooleanUtils.isTrueInternalValue(evaluator.apply(resultRow)))) {
+            rows.add(resultRow);
+            hasMatch = true;
+            if (_matchedRightGroupRows != null) {
+              _matchedRightGroupRows.set(i);
+            }
+          }
+          break;
+      }
+    }
+    if (!hasMatch && needLeftRowsWithoutMatch()) {
+      rows.add(joinRow(leftRow, null));
+    }
+  }
+
+  /**
+   * Consumes both inputs till the end of stream and prepares the final EOS block with the stats of both sides.
+   */
+  private void finish() {
+    TransferableBlock leftEos = _leftInput.drain();
+    if (leftEos.isErrorBlock()) {
+      _upstreamErrorBlock = leftEos;
+      return;
+    }
+    TransferableBlock rightEos = _rightInput.drain();
+    if (rightEos.isErrorBlock()) {
+      _upstreamErrorBlock = rightEos;
+      return;
+    }
+    MultiStageQueryStats leftStats = leftEos.getQueryStats();
+    MultiStageQueryStats rightStats = rightEos.getQueryStats();
+    assert leftStats != null && rightStats != null;
+    leftStats.mergeInOrder(rightStats, getOperatorType(), _statMap);
+    _eosBlock = TransferableBlockUtils.getEndOfStreamTransferableBlock(leftStats);
+    _rightGroup.clear();
+  }
+
+  private int compareKeys(Object[] row1, int[] keyIds1, Object[] row2, int[] keyIds2) {
+    int numKeys = keyIds1.length;
+    for (int i = 0; i < numKeys; i++) {
+      Object v1 = row1[keyIds1[i]];
+      Object v2 = row2[keyIds2[i]];
+      if (v1 == null) {
+        if (v2 == null) {
+          continue;
+        }
+        return _nullsMultipliers[i];
+      }
+      if (v2 == null) {
+        return -_nullsMultipliers[i];
+      }
+      int result;
+      if (_useDoubleComparison[i]) {
+        result = Double.compare(((Number) v1).doubleValue(), ((Number) v2).doubleValue());
+      } else {
+        //noinspection rawtypes,unchecked
+        result = ((Comparable) v1).compareTo(v2);
+      }
+      if (result != 0) {
+        return result * _multipliers[i];
+      }
+    }
+    return 0;
+  }
+
+  private boolean keysEqual(Object[] leftRow, Object[] rightRow) {
+    int numKeys = _leftKeyIds.length;
+    for (int i = 0; i < numKeys; i++) {
+      if (!Objects.equals(leftRow[_leftKeyIds[i]], rightRow[_rightKeyIds[i]])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Object[] joinRow(@Nullable Object[] leftRow, @Nullable Object[] rightRow) {
+    Object[] resultRow = new Object[_resultColumnSize];
+    if (leftRow != null) {
+      System.arraycopy(leftRow, 0, resultRow, 0, leftRow.length);
+    }
+    if (rightRow != null) {
+      System.arraycopy(rightRow, 0, resultRow, _leftColumnSize, rightRow.length);
+    }
+    return resultRow;
+  }
+
+  private boolean needUnmatchedRightRows() {
+    return _joinType == JoinRelType.RIGHT || _joinType == JoinRelType.FULL;
+  }
+
+  /**
+   * Returns whether left rows without a matching right row are emitted, which is the case for left, full and anti join.
+   */
+  private boolean needLeftRowsWithoutMatch() {
+    return _joinType == JoinRelType.LEFT || _joinType == JoinRelType.FULL || _joinType == JoinRelType.ANTI;
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    _rightGroup.clear();
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    super.cancel(e);
+    _rightGroup.clear();
+  }
+
+  private void throwProcessingExceptionForJoinRowLimitExceeded(String reason)
+      throws ProcessingException {
+    ProcessingException resourceLimitExceededException =
+        new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
+    resourceLimitExceededException.setMessage(reason
+        + ". Consider increasing the limit for the maximum number of rows in a join either via the query option '"
+        + CommonConstants.Broker.Request.QueryOptionKey.MAX_ROWS_IN_JOIN + "' or the '"
+        + PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN + "' hint in the '" + PinotHintOptions.JOIN_HINT_OPTIONS
+        + "'. Alternatively, if partial results are acceptable, the join overflow mode can be set to '"
+        + JoinOverFlowMode.BREAK.name() + "' either via the query option '"
+        + CommonConstants.Broker.Request.QueryOptionKey.JOIN_OVERFLOW_MODE + "' or the '"
+        + PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE + "' hint in the '" + PinotHintOptions.JOIN_HINT_OPTIONS
+        + "'.");
+    throw resourceLimitExceededException;
+  }
+
+  /**
+   * A cursor over the rows of a sorted input, which reads the next block only when the current one is consumed.
+   */
+  private class SortedInput {
+    final MultiStageOperator _operator;
+    List<Object[]> _rows = List.of();
+    int _index;
+    TransferableBlock _eosBlock;
+
+    SortedInput(MultiStageOperator operator) {
+      _operator = operator;
+    }
+
+    /**
+     * Returns the current row, or {@code null} if the input is exhausted or an error block is received (in which case
+     * the error block is set as the upstream error block).
+     */
+    @Nullable
+    Object[] peek() {
+      while (_index == _rows.size()) {
+        if (_eosBlock != null) {
+          return null;
+        }
+        TransferableBlock block = _operator.nextBlock();
+        if (block.isDataBlock()) {
+          _rows = block.getContainer();
+          _index = 0;
+        } else {
+          _rows = List.of();
+          _index = 0;
+          _eosBlock = block;
+          if (block.isErrorBlock()) {
+            _upstreamErrorBlock = block;
+          }
+          return null;
+        }
+      }
+      return _rows.get(_index);
+    }
+
+    void advance() {
+      _index++;
+    }
+
+    /**
+     * Discards the remaining rows and returns the EOS (or error) block.
+     */
+    TransferableBlock drain() {
+      if (_eosBlock == null) {
+        _operator.earlyTerminate();
+        while (peek() != null) {
+          _index = _rows.size();
+        }
+      }
+      return _eosBlock;
+    }
+  }
+
+  public enum StatKey implements StatMap.Key {
+    //@formatter:off
+    EXECUTION_TIME_MS(StatMap.Type.LONG) {
+      @Override
+      public boolean includeDefaultInJson() {
+        return true;
+      }
+    },
+    EMITTED_ROWS(StatMap.Type.LONG) {
+      @Override
+      public boolean includeDefaultInJson() {
+        return true;
+      }
+    },
+    MAX_ROWS_IN_JOIN_REACHED(StatMap.Type.BOOLEAN),
+    /**
+     * Max number of right rows kept in memory for a single key group.
+     */
+    MAX_ROWS_IN_KEY_GROUP(StatMap.Type.INT) {
+      @Override
+      public int merge(int value1, int value2) {
+        return Math.max(value1, value2);
+      }
+    };
+    //@formatter:on
+
+    private final StatMap.Type _type;
+
+    StatKey(StatMap.Type type) {
+      _type = type;
+    }
+
+    @Override
+    public StatMap.Type getType() {
+      return _type;
+    }
+  }
+}
@@ -20,17 +20,21 @@ package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
 import org.apache.pinot.query.planner.plannode.SortNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.utils.ExternalRowSorter;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.CommonConstants;
@@ -38,9 +42,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * Sorts the input rows on the collations and applies the offset and limit.
+ *
+ * <p>When the number of rows to keep (offset + limit, or all the rows when there is no limit) exceeds the max rows in
+ * sort, the operator performs an external merge sort through {@link ExternalRowSorter}: rows are buffered up to the max
+ * rows in sort, then sorted and spilled to local disk as a sorted run. Once the input is consumed, the sorted runs are
+ * merged and the output is streamed in blocks of at most {@link #MAX_ROWS_PER_BLOCK} rows.
+ */
 public class SortOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "SORT";
   private static final Logger LOGGER = LoggerFactory.getLogger(SortOperator.class);
+  private static final int DEFAULT_MAX_ROWS_IN_SORT = 1024 * 1024; // 2^20, around 1MM rows
+  private static final int MAX_ROWS_PER_BLOCK = 10_000;
 
   private final MultiStageOperator _input;
   private final DataSchema _dataSchema;
@@ -50,6 +64,10 @@ public class SortOperator extends MultiStageOperator {
   private final ArrayList<Object[]> _rows;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
 
+  // Only used for external sort
+  private final ExternalRowSorter _externalSorter;
+  private boolean _isMerging;
+
   private boolean _hasConstructedSortedBlock;
   private TransferableBlock _eosBlock;
 
@@ -73,18 +91,35 @@ public class SortOperator extends MultiStageOperator {
     // - There is no collation
     // - Input is already sorted
     List<RelFieldCollation> collations = node.getCollations();
+    int maxRowsInSort = getMaxRowsInSort(context.getOpChainMetadata());
     if (collations.isEmpty() || input instanceof SortedMailboxReceiveOperator) {
       _priorityQueue = null;
       _rows = new ArrayList<>(Math.min(defaultHolderCapacity, _numRowsToKeep));
+      _externalSorter = null;
+    } else if (_numRowsToKeep > maxRowsInSort) {
+      // Too many rows to keep in memory, sort externally
+      _priorityQueue = null;
+      _rows = null;
+      _externalSorter = new ExternalRowSorter(_dataSchema, new SortUtils.SortComparator(_dataSchema, collations, false),
+          maxRowsInSort, MAX_ROWS_PER_BLOCK, _offset, _numRowsToKeep);
     } else {
       // Use the opposite direction as specified by the collation directions since we need the PriorityQueue to decide
       // which elements to keep and which to remove based on the limits.
       _priorityQueue = new PriorityQueue<>(Math.min(defaultHolderCapacity, _numRowsToKeep),
           new SortUtils.SortComparator(_dataSchema, collations, true));
       _rows = null;
+      _externalSorter = null;
     }
   }
 
+  /**
+   * Returns the max number of rows kept in memory by a sort before spilling sorted runs to disk.
+   */
+  static int getMaxRowsInSort(Map<String, String> opChainMetadata) {
+    Integer maxRowsInSort = QueryOptionsUtils.getMaxRowsInSort(opChainMetadata);
+    return maxRowsInSort != null ? maxRowsInSort : DEFAULT_MAX_ROWS_IN_SORT;
+  }
+
   @Override
   public void registerExecution(long time, int numRows) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
@@ -106,8 +141,22 @@ public class SortOperator extends MultiStageOperator {
     return List.of(_input);
   }
 
+  @Override
+  public void close() {
+    super.close();
+    releaseSortedRuns();
+  }
+
   @Override
   public void cancel(Throwable e) {
+    releaseSortedRuns();
+  }
+
+  private void releaseSortedRuns() {
+    if (_externalSorter != null) {
+      _externalSorter.close();
+    }
+    _isMerging = false;
   }
 
   @Override
@@ -116,7 +165,11 @@ public class SortOperator extends MultiStageOperator {
   }
 
   @Override
-  protected TransferableBlock getNextBlock() {
+  protected TransferableBlock getNextBlock()
+      throws IOException {
+    if (_isMerging) {
+      return produceMergedBlock();
+    }
     if (_hasConstructedSortedBlock) {
       assert _eosBlock != null;
       return _eosBlock;
@@ -126,9 +179,20 @@ public class SortOperator extends MultiStageOperator {
     if (finalBlock.isErrorBlock()) {
       return finalBlock;
     }
-    _statMap.merge(StatKey.REQUIRE_SORT, _priorityQueue != null);
-    _eosBlock = updateEosBlock(finalBlock, _statMap);
-    return produceSortedBlock();
+    _statMap.merge(StatKey.REQUIRE_SORT, _priorityQueue != null || _externalSorter != null);
+    if (_externalSorter == null) {
+      _eosBlock = updateEosBlock(finalBlock, _statMap);
+      return produceSortedBlock();
+    }
+    _externalSorter.finish();
+    if (_externalSorter.getNumSpilledRuns() > 0) {
+      _statMap.merge(StatKey.SPILLED_RUNS, _externalSorter.getNumSpilledRuns());
+      _statMap.merge(StatKey.SPILLED_BYTES, _externalSorter.getNumSpilledBytes());
+    }
+    _hasConstructedSortedBlock = true;
+    _isMerging = true;
+    _eosBlock = finalBlock;
+    return produceMergedBlock();
   }
 
   private TransferableBlock produceSortedBlock() {
@@ -154,11 +218,29 @@ public class SortOperator extends MultiStageOperator {
     }
   }
 
-  private TransferableBlock consumeInputBlocks() {
+  /**
+   * Merges the sorted runs and returns the next block of rows, or the EOS block once all the rows to keep are returned.
+   */
+  private TransferableBlock produceMergedBlock() {
+    List<Object[]> rows = _externalSorter.nextBatch(MAX_ROWS_PER_BLOCK);
+    if (!rows.isEmpty()) {
+      sampleAndCheckInterruption();
+      return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
+    }
+    releaseSortedRuns();
+    _eosBlock = updateEosBlock(_eosBlock, _statMap);
+    return _eosBlock;
+  }
+
+  private TransferableBlock consumeInputBlocks()
+      throws IOException {
     TransferableBlock block = _input.nextBlock();
     while (block.isDataBlock()) {
       List<Object[]> container = block.getContainer();
-      if (_priorityQueue == null) {
+      if (_externalSorter != null) {
+        _externalSorter.addAll(container);
+        sampleAndCheckInterruption();
+      } else if (_priorityQueue == null) {
         // TODO: when push-down properly, we shouldn't get more than _numRowsToKeep
         int numRows = _rows.size();
         if (numRows < _numRowsToKeep) {
@@ -201,7 +283,15 @@ public class SortOperator extends MultiStageOperator {
       public boolean includeDefaultInJson() {
         return true;
       }
-    };
+    },
+    /**
+     * Number of sorted runs spilled to disk when the rows to sort do not fit in memory.
+     */
+    SPILLED_RUNS(StatMap.Type.INT),
+    /**
+     * Number of bytes written to disk when the rows to sort do not fit in memory.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
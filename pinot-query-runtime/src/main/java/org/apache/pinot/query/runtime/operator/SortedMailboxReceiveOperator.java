@@ -19,15 +19,15 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.base.Preconditions;
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
-import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.mailbox.ReceivingMailbox;
 import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.utils.ExternalRowSorter;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.slf4j.Logger;
@@ -38,26 +38,33 @@ import org.slf4j.LoggerFactory;
  * This {@code SortedMailboxReceiveOperator} receives data from a {@link ReceivingMailbox} and serve it out from the
  * {@link #nextBlock()} API in a sorted manner.
  *
- *  TODO: Once sorting on the {@code MailboxSendOperator} is available, modify this to use a k-way merge instead of
- *        resorting via the PriorityQueue.
+ * <p>The received rows are sorted through an {@link ExternalRowSorter}, so that at most max rows in sort (see
+ * {@link SortOperator}) are kept on heap: once the limit is reached, the buffered rows are sorted and spilled to local
+ * disk as a sorted run. At the end of stream, the sorted runs are merged and the rows are streamed in blocks of at most
+ * {@link #MAX_ROWS_PER_BLOCK} rows. This bounds the memory used by the sort merge join, whose inputs are received
+ * through this operator.
+ *
+ *  TODO: Once sorting on the {@code MailboxSendOperator} is available, modify this to use a k-way merge of the
+ *        mailboxes instead of resorting the received rows.
  */
 public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
   private static final Logger LOGGER = LoggerFactory.getLogger(SortedMailboxReceiveOperator.class);
 
   private static final String EXPLAIN_NAME = "SORTED_MAILBOX_RECEIVE";
+  private static final int MAX_ROWS_PER_BLOCK = 10_000;
 
   private final DataSchema _dataSchema;
-  private final List<RelFieldCollation> _collations;
-  private final List<Object[]> _rows = new ArrayList<>();
+  private final ExternalRowSorter _sorter;
 
+  private boolean _isMerging;
   private TransferableBlock _eosBlock;
 
-  // TODO: Support merge sort when sender side sort is supported.
   public SortedMailboxReceiveOperator(OpChainExecutionContext context, MailboxReceiveNode node) {
     super(context, node);
     Preconditions.checkState(!CollectionUtils.isEmpty(node.getCollations()), "Field collations must be set");
     _dataSchema = node.getDataSchema();
-    _collations = node.getCollations();
+    _sorter = new ExternalRowSorter(_dataSchema, new SortUtils.SortComparator(_dataSchema, node.getCollations(), false),
+        SortOperator.getMaxRowsInSort(context.getOpChainMetadata()), MAX_ROWS_PER_BLOCK, 0, Integer.MAX_VALUE);
   }
 
   @Override
@@ -71,7 +78,11 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
   }
 
   @Override
-  protected TransferableBlock getNextBlock() {
+  protected TransferableBlock getNextBlock()
+      throws IOException {
+    if (_isMerging) {
+      return produceMergedBlock();
+    }
     if (_eosBlock != null) {
       return _eosBlock;
     }
@@ -79,35 +90,49 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
     while (true) {
       TransferableBlock block = _multiConsumer.readBlockBlocking();
       if (block.isDataBlock()) {
-        _rows.addAll(block.getContainer());
+        _sorter.addAll(block.getContainer());
+        sampleAndCheckInterruption();
       } else if (block.isErrorBlock()) {
         return block;
       } else {
         assert block.isSuccessfulEndOfStreamBlock();
-        // the multiConsumer has already merged stages from upstream, but doesn't know about this operator
-        // specific stats.
-        _eosBlock = updateEosBlock(block, _statMap);
-        if (!_rows.isEmpty()) {
-          // TODO: This might not be efficient because we are sorting all the received rows. We should use a k-way merge
-          //       when sender side is sorted.
-          _rows.sort(new SortUtils.SortComparator(_dataSchema, _collations, false));
-          return new TransferableBlock(_rows, _dataSchema, DataBlock.Type.ROW);
-        } else {
-          return block;
+        _sorter.finish();
+        if (_sorter.getNumSpilledRuns() > 0) {
+          _statMap.merge(StatKey.SPILLED_RUNS, _sorter.getNumSpilledRuns());
+          _statMap.merge(StatKey.SPILLED_BYTES, _sorter.getNumSpilledBytes());
         }
+        _eosBlock = block;
+        _isMerging = true;
+        return produceMergedBlock();
       }
     }
   }
 
+  /**
+   * Returns the next block of sorted rows, or the EOS block once all the rows are returned.
+   */
+  private TransferableBlock produceMergedBlock() {
+    List<Object[]> rows = _sorter.nextBatch(MAX_ROWS_PER_BLOCK);
+    if (!rows.isEmpty()) {
+      return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
+    }
+    _isMerging = false;
+    _sorter.close();
+    // the multiConsumer has already merged stages from upstream, but doesn't know about this operator
+    // specific stats.
+    _eosBlock = updateEosBlock(_eosBlock, _statMap);
+    return _eosBlock;
+  }
+
   @Override
   public void close() {
     super.close();
-    _rows.clear();
+    _sorter.close();
   }
 
   @Override
   public void cancel(Throwable t) {
     super.cancel(t);
-    _rows.clear();
+    _sorter.close();
   }
 }
@@ -21,10 +21,14 @@ package org.apache.pinot.query.runtime.operator;
 import com.google.common.base.Preconditions;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
@@ -37,10 +41,12 @@ import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.data.table.Key;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.planner.plannode.WindowNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.utils.AggregationUtils;
+import org.apache.pinot.query.runtime.operator.utils.RowSpillFile;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.apache.pinot.query.runtime.operator.window.WindowFunction;
 import org.apache.pinot.query.runtime.operator.window.WindowFunctionFactory;
@@ -69,6 +75,15 @@ import org.slf4j.LoggerFactory;
  * should handle adding a 'SortExchange' to do the ordering prior to pipelining the data to the upstream operators
  * wherever ordering is required.
  *
+ * The planner sorts the input on the 'PARTITION BY' keys followed by the 'ORDER BY' keys. When the input is sorted
+ * this way, the rows of a window partition are contiguous, so only the current partition is buffered and the output
+ * is streamed in blocks of about {@link #MAX_ROWS_PER_BLOCK} rows as the partitions complete. When the window overflow
+ * mode is SPILL, the rows of the current partition are spilled into a {@link RowSpillFile} once they exceed the max
+ * rows in window, and read back when the partition is complete. Otherwise all the rows are buffered by partition, and
+ * when the window overflow mode is SPILL and the rows do not fit in the max rows in window, they are hash partitioned
+ * on the 'PARTITION BY' keys into {@link RowSpillFile}s and the window functions are computed one spill partition at a
+ * time.
+ *
  * Note: This class performs aggregation over the double value of input.
  * If the input is single value, the output type will be input type. Otherwise, the output type will be double.
  *
@@ -84,6 +99,10 @@ public class WindowAggregateOperator extends MultiStageOperator {
   private static final Logger LOGGER = LoggerFactory.getLogger(WindowAggregateOperator.class);
   private static final int DEFAULT_MAX_ROWS_IN_WINDOW = 1024 * 1024; // 2^20, around 1MM rows
   private static final WindowOverFlowMode DEFAULT_WINDOW_OVERFLOW_MODE = WindowOverFlowMode.THROW;
+  private static final int MAX_ROWS_PER_BLOCK = 10_000;
+  private static final int NUM_SPILL_PARTITIONS = 16;
+  // Max number of times a spill partition that does not fit in the max rows in window is split further
+  private static final int MAX_SPILL_LEVEL = 3;
 
   // List of window functions which can only be applied as ROWS window frame type
   public static final Set<String> ROWS_ONLY_FUNCTION_NAMES = Set.of("ROW_NUMBER");
@@ -91,8 +110,13 @@ public class WindowAggregateOperator extends MultiStageOperator {
   public static final Set<String> RANKING_FUNCTION_NAMES = Set.of("RANK", "DENSE_RANK");
 
   private final MultiStageOperator _input;
+  private final DataSchema _inputSchema;
   private final DataSchema _resultSchema;
+  private final ColumnDataType[] _resultStoredTypes;
   private final int[] _keys;
+  // Whether the rows of a window partition are contiguous in the input, in which case they are processed one partition
+  // at a time
+  private final boolean _isInputSortedOnKeys;
   private final WindowFrame _windowFrame;
   private final WindowFunction[] _windowFunctions;
   private final Map<Key, List<Object[]>> _partitionRows = new HashMap<>();
@@ -105,9 +129,12 @@ public class WindowAggregateOperator extends MultiStageOperator {
    */
   private final int _maxRowsInWindowCache;
   /**
-   * Mode when window overflow happens, supported values: THROW or BREAK.
+   * Mode when window overflow happens, supported values: THROW, BREAK or SPILL.
    * THROW(default): Break window cache build process, and throw exception, no WINDOW operation performed.
    * BREAK: Break window cache build process, continue to perform WINDOW operation, results might be partial or wrong.
+   * SPILL: Spill the rows to disk and perform WINDOW operation one spill partition at a time. When the input is sorted
+   * on the partition keys, the rows of the current partition are spilled to disk once they exceed the limit instead.
+   * The max rows in window applies to all the rows consumed by THROW and BREAK, whether the input is sorted or not.
    */
   private final WindowOverFlowMode _windowOverflowMode;
 
@@ -115,18 +142,39 @@ public class WindowAggregateOperator extends MultiStageOperator {
   private boolean _hasReturnedWindowAggregateBlock;
   private TransferableBlock _eosBlock;
 
+  // Below are the states used when the input is sorted on the partition keys.
+  private List<Object[]> _inputRows = List.of();
+  private int _inputRowId;
+  private Key _currentKey;
+  private List<Object[]> _currentPartitionRows = new ArrayList<>();
+  // Rows of the current partition spilled to disk when the window overflow mode is SPILL, null if not spilled
+  private RowSpillFile _currentPartitionFile;
+  private boolean _isMaxRowsInWindowReached;
+
+  // Below are the states used when the rows are spilled to disk.
+  // Partitions being written while consuming the input. Null if the rows are not spilled or the input is consumed.
+  private SpillPartition[] _spillPartitions;
+  // Partitions ready to be processed, sub-partitions of a re-partitioned partition are processed first
+  private final Deque<SpillPartition> _pendingSpillPartitions = new ArrayDeque<>();
+  private boolean _hasSpilledRows;
+  private long _numSpilledRows;
+  private long _numSpilledBytes;
+
   public WindowAggregateOperator(OpChainExecutionContext context, MultiStageOperator input, DataSchema inputSchema,
       WindowNode node) {
     super(context);
 
     _input = input;
+    _inputSchema = inputSchema;
     _resultSchema = node.getDataSchema();
+    _resultStoredTypes = _resultSchema.getStoredColumnDataTypes();
     List<Integer> keys = node.getKeys();
     int numKeys = keys.size();
     _keys = new int[numKeys];
     for (int i = 0; i < numKeys; i++) {
       _keys[i] = keys.get(i);
     }
+    _isInputSortedOnKeys = isInputSortedOnKeys(_keys, node);
     _windowFrame = new WindowFrame(node.getWindowFrameType(), node.getLowerBound(), node.getUpperBound());
     Preconditions.checkState(_windowFrame.isUnboundedPreceding(),
         "Only default frame is supported, lowerBound must be UNBOUNDED PRECEDING");
@@ -200,11 +248,28 @@ public class WindowAggregateOperator extends MultiStageOperator {
     return EXPLAIN_NAME;
   }
 
+  @Override
+  public void close() {
+    super.close();
+    releaseSpillPartitions();
+    releaseCurrentPartitionFile();
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    super.cancel(e);
+    releaseSpillPartitions();
+    releaseCurrentPartitionFile();
+  }
+
   @Override
   protected TransferableBlock getNextBlock()
-      throws ProcessingException {
+      throws ProcessingException, IOException {
+    if (_isInputSortedOnKeys) {
+      return _eosBlock != null ? _eosBlock : computeSortedInputBlock();
+    }
     if (_hasReturnedWindowAggregateBlock) {
-      return _eosBlock;
+      return _hasSpilledRows ? produceSpilledBlock() : _eosBlock;
     }
     return computeBlocks();
   }
@@ -237,23 +302,162 @@ public class WindowAggregateOperator extends MultiStageOperator {
     return keyIndices.equals(orderFieldIndices);
   }
 
+  /**
+   * Returns whether the rows of a window partition are contiguous in the input, which is the case when there is no
+   * partition key, or when the input is a sorted mailbox receive whose leading collations are the partition keys.
+   */
+  private static boolean isInputSortedOnKeys(int[] keys, WindowNode node) {
+    int numKeys = keys.length;
+    if (numKeys == 0) {
+      return true;
+    }
+    List<PlanNode> inputs = node.getInputs();
+    if (inputs.size() != 1 || !(inputs.get(0) instanceof MailboxReceiveNode)) {
+      return false;
+    }
+    MailboxReceiveNode receiveNode = (MailboxReceiveNode) inputs.get(0);
+    List<RelFieldCollation> collations = receiveNode.getCollations();
+    if (!receiveNode.isSort() || collations.size() < numKeys) {
+      return false;
+    }
+    IntSet keyIndices = new IntOpenHashSet(numKeys);
+    IntSet collationFieldIndices = new IntOpenHashSet(numKeys);
+    for (int i = 0; i < numKeys; i++) {
+      keyIndices.add(keys[i]);
+      collationFieldIndices.add(collations.get(i).getFieldIndex());
+    }
+    return keyIndices.equals(collationFieldIndices);
+  }
+
+  private ProcessingException getMaxRowsInWindowReachedException() {
+    ProcessingException resourceLimitExceededException =
+        new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
+    resourceLimitExceededException.setMessage(
+        "Cannot build in memory window cache for WINDOW operator, reach number of rows limit: "
+            + _maxRowsInWindowCache);
+    return resourceLimitExceededException;
+  }
+
+  /**
+   * Consumes the input sorted on the partition keys, and computes the window functions each time a partition is
+   * complete. For THROW and BREAK, the max rows in window applies to all the rows consumed, the same as for the
+   * unsorted input. For SPILL, the rows of the current partition are spilled to disk each time they reach the max rows
+   * in window.
+   *
+   * @return a block with the rows of the next completed partitions, or the final block, which must be either an end
+   * of stream or an error.
+   */
+  private TransferableBlock computeSortedInputBlock()
+      throws ProcessingException, IOException {
+    List<Object[]> rows = new ArrayList<>();
+    while (rows.size() < MAX_ROWS_PER_BLOCK) {
+      if (_inputRowId == _inputRows.size()) {
+        TransferableBlock block = _input.nextBlock();
+        if (block.isErrorBlock()) {
+          return block;
+        }
+        if (block.isSuccessfulEndOfStreamBlock()) {
+          processCurrentPartition(rows);
+          if (_numSpilledRows > 0) {
+            _statMap.merge(StatKey.SPILLED_ROWS, _numSpilledRows);
+            _statMap.merge(StatKey.SPILLED_BYTES, _numSpilledBytes);
+          }
+          _eosBlock = updateEosBlock(block, _statMap);
+          return rows.isEmpty() ? _eosBlock : new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+        }
+        // Discard the remaining rows once the input is early terminated
+        _inputRows = _isMaxRowsInWindowReached ? List.of() : block.getContainer();
+        _inputRowId = 0;
+        sampleAndCheckInterruption();
+        continue;
+      }
+      Object[] row = _inputRows.get(_inputRowId++);
+      // TODO: Revisit null direction handling for all query types
+      Key key = AggregationUtils.extractRowKey(row, _keys);
+      if (_currentKey == null || !key.equals(_currentKey)) {
+        processCurrentPartition(rows);
+        _currentKey = key;
+      }
+      if (_windowOverflowMode == WindowOverFlowMode.SPILL) {
+        if (_currentPartitionRows.size() == _maxRowsInWindowCache) {
+          spillCurrentPartitionRows();
+        }
+      } else if (_numRows == _maxRowsInWindowCache) {
+        if (_windowOverflowMode == WindowOverFlowMode.THROW) {
+          throw getMaxRowsInWindowReachedException();
+        }
+        _statMap.merge(StatKey.MAX_ROWS_IN_WINDOW_REACHED, true);
+        _isMaxRowsInWindowReached = true;
+        _inputRows = List.of();
+        _inputRowId = 0;
+        // setting the inputOperator to be early terminated and awaits EOS block next.
+        _input.earlyTerminate();
+        continue;
+      }
+      _currentPartitionRows.add(row);
+      _numRows++;
+    }
+    return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+  }
+
+  /**
+   * Computes the window functions over the rows of the current partition, including the spilled ones, and appends the
+   * result rows to the given list.
+   */
+  private void processCurrentPartition(List<Object[]> rows)
+      throws IOException {
+    if (_currentPartitionFile != null) {
+      // The window functions are computed over all the rows of the partition at once
+      _currentPartitionFile.finishWriting();
+      List<Object[]> partitionRows =
+          new ArrayList<>((int) _currentPartitionFile.getNumRows() + _currentPartitionRows.size());
+      for (List<Object[]> spilledRows : _currentPartitionFile) {
+        partitionRows.addAll(spilledRows);
+      }
+      releaseCurrentPartitionFile();
+      partitionRows.addAll(_currentPartitionRows);
+      _currentPartitionRows = partitionRows;
+    }
+    processPartition(_currentPartitionRows, rows);
+    _currentPartitionRows = new ArrayList<>();
+  }
+
+  /**
+   * Appends the rows of the current partition in memory to the spill file of the partition and clears them.
+   */
+  private void spillCurrentPartitionRows()
+      throws IOException {
+    if (_currentPartitionFile == null) {
+      LOGGER.debug("Spilling the rows of the current window partition as the max rows in window was reached: {}",
+          _maxRowsInWindowCache);
+      _currentPartitionFile = RowSpillFile.create();
+    }
+    _numSpilledBytes += _currentPartitionFile.write(_currentPartitionRows, _inputSchema);
+    _numSpilledRows += _currentPartitionRows.size();
+    _currentPartitionRows = new ArrayList<>();
+  }
+
+  private void releaseCurrentPartitionFile() {
+    if (_currentPartitionFile != null) {
+      _currentPartitionFile.close();
+      _currentPartitionFile = null;
+    }
+  }
+
   /**
    * @return the final block, which must be either an end of stream or an error.
    */
   private TransferableBlock computeBlocks()
-      throws ProcessingException {
+      throws ProcessingException, IOException {
     TransferableBlock block = _input.nextBlock();
     while (block.isDataBlock()) {
       List<Object[]> container = block.getContainer();
       int containerSize = container.size();
       if (_numRows + containerSize > _maxRowsInWindowCache) {
         if (_windowOverflowMode == WindowOverFlowMode.THROW) {
-          ProcessingException resourceLimitExceededException =
-              new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
-          resourceLimitExceededException.setMessage(
-              "Cannot build in memory window cache for WINDOW operator, reach number of rows limit: "
-                  + _maxRowsInWindowCache);
-          throw resourceLimitExceededException;
+          throw getMaxRowsInWindowReachedException();
+        } else if (_windowOverflowMode == WindowOverFlowMode.SPILL) {
+          spillPartitionRows();
         } else {
           // Just fill up the buffer.
           int remainingRows = _maxRowsInWindowCache - _numRows;
@@ -278,34 +482,22 @@ public class WindowAggregateOperator extends MultiStageOperator {
     }
     assert block.isSuccessfulEndOfStreamBlock();
     _eosBlock = updateEosBlock(block, _statMap);
+    _hasReturnedWindowAggregateBlock = true;
 
-    ColumnDataType[] resultStoredTypes = _resultSchema.getStoredColumnDataTypes();
-    List<Object[]> rows = new ArrayList<>(_numRows);
-    for (Map.Entry<Key, List<Object[]>> e : _partitionRows.entrySet()) {
-      List<Object[]> rowList = e.getValue();
-
-      // Each window function will return a list of results for each row in the input set
-      List<List<Object>> windowFunctionResults = new ArrayList<>();
-      for (WindowFunction windowFunction : _windowFunctions) {
-        List<Object> processRows = windowFunction.processRows(rowList);
-        assert processRows.size() == rowList.size();
-        windowFunctionResults.add(processRows);
-      }
-
-      for (int rowId = 0; rowId < rowList.size(); rowId++) {
-        Object[] existingRow = rowList.get(rowId);
-        Object[] row = new Object[existingRow.length + _windowFunctions.length];
-        System.arraycopy(existingRow, 0, row, 0, existingRow.length);
-        for (int i = 0; i < _windowFunctions.length; i++) {
-          row[i + existingRow.length] = windowFunctionResults.get(i).get(rowId);
-        }
-        // Convert the results from WindowFunction to the desired type
-        TypeUtils.convertRow(row, resultStoredTypes);
-        rows.add(row);
+    if (_hasSpilledRows) {
+      spillPartitionRows();
+      for (SpillPartition partition : _spillPartitions) {
+        partition._file.finishWriting();
+        _pendingSpillPartitions.addLast(partition);
       }
+      _spillPartitions = null;
+      return produceSpilledBlock();
     }
 
-    _hasReturnedWindowAggregateBlock = true;
+    List<Object[]> rows = new ArrayList<>(_numRows);
+    for (List<Object[]> rowList : _partitionRows.values()) {
+      processPartition(rowList, rows);
+    }
     if (rows.isEmpty()) {
       return _eosBlock;
     } else {
@@ -313,6 +505,199 @@ public class WindowAggregateOperator extends MultiStageOperator {
     }
   }
 
+  /**
+   * Computes the window functions over the rows of a single partition, and appends the result rows to the given list.
+   */
+  private void processPartition(List<Object[]> rowList, List<Object[]> rows) {
+    if (rowList.isEmpty()) {
+      return;
+    }
+
+    // Each window function will return a list of results for each row in the input set
+    List<List<Object>> windowFunctionResults = new ArrayList<>();
+    for (WindowFunction windowFunction : _windowFunctions) {
+      List<Object> processRows = windowFunction.processRows(rowList);
+      assert processRows.size() == rowList.size();
+      windowFunctionResults.add(processRows);
+    }
+
+    for (int rowId = 0; rowId < rowList.size(); rowId++) {
+      Object[] existingRow = rowList.get(rowId);
+      Object[] row = new Object[existingRow.length + _windowFunctions.length];
+      System.arraycopy(existingRow, 0, row, 0, existingRow.length);
+      for (int i = 0; i < _windowFunctions.length; i++) {
+        row[i + existingRow.length] = windowFunctionResults.get(i).get(rowId);
+      }
+      // Convert the results from WindowFunction to the desired type
+      TypeUtils.convertRow(row, _resultStoredTypes);
+      rows.add(row);
+    }
+  }
+
+  /**
+   * Writes the rows in memory into the spill partitions and clears them.
+   */
+  private void spillPartitionRows()
+      throws IOException {
+    if (_spillPartitions == null) {
+      LOGGER.info("Spilling window rows to disk as the max rows in window was reached: {}", _maxRowsInWindowCache);
+      _spillPartitions = createSpillPartitions(0);
+      _hasSpilledRows = true;
+    }
+    if (_partitionRows.isEmpty()) {
+      return;
+    }
+    List<Object[]> rows = new ArrayList<>(_numRows);
+    for (List<Object[]> rowList : _partitionRows.values()) {
+      rows.addAll(rowList);
+    }
+    spillRows(rows, _spillPartitions);
+    _partitionRows.clear();
+    _numRows = 0;
+  }
+
+  /**
+   * Returns the result rows of the next spilled partition, or the end of the stream block once all of them are
+   * returned.
+   */
+  private TransferableBlock produceSpilledBlock()
+      throws IOException {
+    while (true) {
+      SpillPartition partition = _pendingSpillPartitions.pollFirst();
+      if (partition == null) {
+        _hasSpilledRows = false;
+        _statMap.merge(StatKey.SPILLED_ROWS, _numSpilledRows);
+        _statMap.merge(StatKey.SPILLED_BYTES, _numSpilledBytes);
+        return _eosBlock;
+      }
+      try {
+        if (partition._file.getNumRows() > _maxRowsInWindowCache && partition._level < MAX_SPILL_LEVEL) {
+          repartition(partition);
+          continue;
+        }
+        // Partitions that could not be split further are processed without the max rows in window
+        Map<Key, List<Object[]>> partitionRows = new HashMap<>();
+        for (List<Object[]> spilledRows : partition._file) {
+          for (Object[] row : spilledRows) {
+            Key key = AggregationUtils.extractRowKey(row, _keys);
+            partitionRows.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+          }
+        }
+        List<Object[]> rows = new ArrayList<>((int) partition._file.getNumRows());
+        for (List<Object[]> rowList : partitionRows.values()) {
+          processPartition(rowList, rows);
+        }
+        if (!rows.isEmpty()) {
+          sampleAndCheckInterruption();
+          return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+        }
+      } finally {
+        partition.close();
+      }
+    }
+  }
+
+  private SpillPartition[] createSpillPartitions(int level)
+      throws IOException {
+    SpillPartition[] partitions = new SpillPartition[NUM_SPILL_PARTITIONS];
+    try {
+      for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+        partitions[i] = new SpillPartition(level, RowSpillFile.create());
+      }
+    } catch (IOException e) {
+      for (SpillPartition partition : partitions) {
+        if (partition != null) {
+          partition.close();
+        }
+      }
+      throw e;
+    }
+    return partitions;
+  }
+
+  /**
+   * Hash partitions the given rows on the partition keys and appends them to the given partitions. The order of the
+   * rows within a window partition is preserved.
+   */
+  private void spillRows(List<Object[]> rows, SpillPartition[] partitions)
+      throws IOException {
+    int level = partitions[0]._level;
+    List<Object[]>[] partitionedRows = new List[NUM_SPILL_PARTITIONS];
+    for (Object[] row : rows) {
+      int partitionId = getSpillPartitionId(row, level);
+      List<Object[]> spillPartitionRows = partitionedRows[partitionId];
+      if (spillPartitionRows == null) {
+        spillPartitionRows = new ArrayList<>();
+        partitionedRows[partitionId] = spillPartitionRows;
+      }
+      spillPartitionRows.add(row);
+    }
+    for (int i = 0; i < NUM_SPILL_PARTITIONS; i++) {
+      if (partitionedRows[i] != null) {
+        _numSpilledBytes += partitions[i]._file.write(partitionedRows[i], _inputSchema);
+        _numSpilledRows += partitionedRows[i].size();
+      }
+    }
+  }
+
+  /**
+   * Returns the spill partition of the partition keys of the given row. The hash is re-mixed with the level so that
+   * rows already partitioned by the same keys (e.g. by the hash exchange, or by a previous spill level) are spread
+   * across all the partitions.
+   */
+  private int getSpillPartitionId(Object[] row, int level) {
+    int hash = 1;
+    for (int key : _keys) {
+      hash = 31 * hash + Objects.hashCode(row[key]);
+    }
+    hash ^= (level + 1) * 0x9E3779B9;
+    hash ^= hash >>> 16;
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    hash *= 0xC2B2AE35;
+    hash ^= hash >>> 16;
+    return (hash & Integer.MAX_VALUE) % NUM_SPILL_PARTITIONS;
+  }
+
+  /**
+   * Splits a partition that does not fit in the max rows in window into sub-partitions, which are processed before
+   * the remaining partitions to keep the disk usage bounded.
+   */
+  private void repartition(SpillPartition partition)
+      throws IOException {
+    LOGGER.debug("Re-partitioning spilled window partition with {} rows at level: {}", partition._file.getNumRows(),
+        partition._level);
+    SpillPartition[] subPartitions = createSpillPartitions(partition._level + 1);
+    try {
+      for (List<Object[]> rows : partition._file) {
+        spillRows(rows, subPartitions);
+      }
+    } catch (IOException | RuntimeException e) {
+      for (SpillPartition subPartition : subPartitions) {
+        subPartition.close();
+      }
+      throw e;
+    }
+    for (int i = NUM_SPILL_PARTITIONS - 1; i >= 0; i--) {
+      SpillPartition subPartition = subPartitions[i];
+      subPartition._file.finishWriting();
+      _pendingSpillPartitions.addFirst(subPartition);
+    }
+  }
+
+  private void releaseSpillPartitions() {
+    if (_spillPartitions != null) {
+      for (SpillPartition partition : _spillPartitions) {
+        partition.close();
+      }
+      _spillPartitions = null;
+    }
+    for (SpillPartition partition : _pendingSpillPartitions) {
+      partition.close();
+    }
+    _pendingSpillPartitions.clear();
+  }
+
   /**
    * Defines the Frame to be used for the window query. The 'lowerBound' and 'upperBound' indicate the frame
    * boundaries to be used. Whereas, 'isRows' is used to differentiate between RANGE and ROWS type frames.
@@ -344,6 +729,20 @@ public class WindowAggregateOperator extends MultiStageOperator {
     }
   }
 
+  private static class SpillPartition {
+    final int _level;
+    final RowSpillFile _file;
+
+    SpillPartition(int level, RowSpillFile file) {
+      _level = level;
+      _file = file;
+    }
+
+    void close() {
+      _file.close();
+    }
+  }
+
   public enum StatKey implements StatMap.Key {
     //@formatter:off
     EXECUTION_TIME_MS(StatMap.Type.LONG) {
@@ -358,7 +757,15 @@ public class WindowAggregateOperator extends MultiStageOperator {
         return true;
       }
     },
-    MAX_ROWS_IN_WINDOW_REACHED(StatMap.Type.BOOLEAN);
+    MAX_ROWS_IN_WINDOW_REACHED(StatMap.Type.BOOLEAN),
+    /**
+     * Number of rows written to disk when the window rows are spilled.
+     */
+    SPILLED_ROWS(StatMap.Type.LONG),
+    /**
+     * Number of bytes written to disk when the window rows are spilled.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
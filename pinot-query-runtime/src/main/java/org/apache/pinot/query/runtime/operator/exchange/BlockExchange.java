@@ -20,14 +20,18 @@ package org.apache.pinot.query.runtime.operator.exchange;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelDistribution;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.KeySelectorFactory;
 import org.apache.pinot.query.runtime.blocks.BlockSplitter;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
 
 
 /**
@@ -42,12 +46,14 @@ public abstract class BlockExchange {
   private final BlockSplitter _splitter;
 
   public static BlockExchange getExchange(List<SendingMailbox> sendingMailboxes, RelDistribution.Type distributionType,
-      List<Integer> keys, BlockSplitter splitter) {
+      List<Integer> keys, @Nullable Map<String, String> exchangeHintOptions,
+      StatMap<MailboxSendOperator.StatKey> statMap, BlockSplitter splitter) {
     switch (distributionType) {
       case SINGLETON:
         return new SingletonExchange(sendingMailboxes, splitter);
       case HASH_DISTRIBUTED:
-        return new HashExchange(sendingMailboxes, KeySelectorFactory.getKeySelector(keys), splitter);
+        return new HashExchange(sendingMailboxes, KeySelectorFactory.getKeySelector(keys), exchangeHintOptions,
+            statMap, splitter);
       case RANDOM_DISTRIBUTED:
         return new RandomExchange(sendingMailboxes, splitter);
       case BROADCAST_DISTRIBUTED:
@@ -82,6 +88,10 @@ public abstract class BlockExchange {
     }
 
     if (block.isSuccessfulEndOfStreamBlock()) {
+      // Flush the buffered blocks of all the mailboxes first so that their stats are included in the metadata
+      for (SendingMailbox sendingMailbox : _sendingMailboxes) {
+        sendingMailbox.flush();
+      }
       // Send metadata to only one randomly picked mailbox, and empty EOS block to other mailboxes
       int numMailboxes = _sendingMailboxes.size();
       int mailboxIdToSendMetadata = ThreadLocalRandom.current().nextInt(numMailboxes);
@@ -117,13 +127,20 @@ public abstract class BlockExchange {
       return;
     }
 
-    DataBlock.Type type = block.getType();
-    Iterator<TransferableBlock> splits = _splitter.split(block, type, MAX_MAILBOX_CONTENT_SIZE_BYTES);
+    Iterator<TransferableBlock> splits = split(block);
     while (splits.hasNext()) {
       sendingMailbox.send(splits.next());
     }
   }
 
+  /**
+   * Splits the data block into chunks that can be sent through the mailboxes.
+   */
+  protected Iterator<TransferableBlock> split(TransferableBlock block) {
+    DataBlock.Type type = block.getType();
+    return _splitter.split(block, type, MAX_MAILBOX_CONTENT_SIZE_BYTES);
+  }
+
   protected abstract void route(List<SendingMailbox> destinations, TransferableBlock block)
       throws Exception;
 
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.query.runtime.operator.exchange;
 
+import com.google.common.collect.ImmutableList;
 import java.util.List;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.runtime.blocks.BlockSplitter;
@@ -36,8 +37,13 @@ class BroadcastExchange extends BlockExchange {
   @Override
   protected void route(List<SendingMailbox> destinations, TransferableBlock block)
       throws Exception {
+    // Split the block only once and share the chunks across all the mailboxes, so that each chunk is built and
+    // serialized only once no matter how many servers it is sent to
+    List<TransferableBlock> chunks = ImmutableList.copyOf(split(block));
     for (SendingMailbox mailbox : destinations) {
-      sendBlock(mailbox, block);
+      for (TransferableBlock chunk : chunks) {
+        mailbox.send(chunk);
+      }
     }
   }
 }
@@ -18,26 +18,80 @@
  */
 package org.apache.pinot.query.runtime.operator.exchange;
 
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.EmptyKeySelector;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
 import org.apache.pinot.query.runtime.blocks.BlockSplitter;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
 
 
 /**
  * Distributes blocks based on the hash of a key, selected by the specified
  * {@code keySelector}. This will redistribute rows from input blocks (breaking
  * them up if necessary).
+ *
+ * <p>When skewed keys are provided through the {@link PinotHintOptions#EXCHANGE_HINT_OPTIONS}, the rows with these keys
+ * are either spread across the mailboxes in a round-robin fashion, or sent to all the mailboxes, instead of being sent
+ * to the single mailbox owning their hash. The planner only does so for the inputs of a join, splitting the rows of one
+ * side and broadcasting the rows of the other side so that the join result is unchanged.
+ *
+ * <p>The keys of the first rows are also sampled to detect heavy hitters, which are reported in the stats so that they
+ * can be hinted as skewed.
  */
 class HashExchange extends BlockExchange {
+  // Number of rows sampled to detect heavy hitters
+  static final int NUM_ROWS_TO_SAMPLE = 10_000;
+  // Min number of rows sampled before reporting heavy hitters, to avoid reporting keys for small inputs
+  static final int MIN_NUM_ROWS_TO_DETECT_HEAVY_HITTER = 1_000;
+
   private final KeySelector<?> _keySelector;
+  @Nullable
+  private final Set<String> _skewedKeys;
+  private final boolean _broadcastSkewedKeys;
+  @Nullable
+  private final StatMap<MailboxSendOperator.StatKey> _statMap;
+
+  private Object2IntOpenHashMap<Object> _sampledKeyCounts;
+  private int _numSampledRows;
+  private int _nextSkewedKeyMailboxId;
 
   HashExchange(List<SendingMailbox> sendingMailboxes, KeySelector<?> keySelector, BlockSplitter splitter) {
+    this(sendingMailboxes, keySelector, null, null, splitter);
+  }
+
+  HashExchange(List<SendingMailbox> sendingMailboxes, KeySelector<?> keySelector,
+      @Nullable Map<String, String> exchangeHintOptions, @Nullable StatMap<MailboxSendOperator.StatKey> statMap,
+      BlockSplitter splitter) {
     super(sendingMailboxes, splitter);
     _keySelector = keySelector;
+    String skewedKeys =
+        exchangeHintOptions != null ? exchangeHintOptions.get(PinotHintOptions.ExchangeHintOptions.SKEWED_KEYS) : null;
+    if (skewedKeys != null && keySelector != EmptyKeySelector.INSTANCE) {
+      _skewedKeys = new HashSet<>();
+      for (String skewedKey : StringUtils.split(skewedKeys, ',')) {
+        _skewedKeys.add(skewedKey.trim());
+      }
+      _broadcastSkewedKeys = PinotHintOptions.ExchangeHintOptions.BROADCAST_SKEWED_KEYS_STRATEGY.equalsIgnoreCase(
+          exchangeHintOptions.get(PinotHintOptions.ExchangeHintOptions.SKEWED_KEYS_STRATEGY));
+    } else {
+      _skewedKeys = null;
+      _broadcastSkewedKeys = false;
+    }
+    _statMap = statMap;
+    if (statMap != null && keySelector != EmptyKeySelector.INSTANCE && sendingMailboxes.size() > 1) {
+      _sampledKeyCounts = new Object2IntOpenHashMap<>();
+    }
   }
 
   @Override
@@ -55,9 +109,16 @@ class HashExchange extends BlockExchange {
       mailboxIdToRowsMap[i] = new ArrayList<>();
     }
     List<Object[]> rows = block.getContainer();
-    for (Object[] row : rows) {
-      int mailboxId = _keySelector.computeHash(row) % numMailboxes;
-      mailboxIdToRowsMap[mailboxId].add(row);
+    if (_skewedKeys == null) {
+      for (Object[] row : rows) {
+        int mailboxId = _keySelector.computeHash(row) % numMailboxes;
+        mailboxIdToRowsMap[mailboxId].add(row);
+      }
+    } else {
+      routeWithSkewedKeys(rows, mailboxIdToRowsMap);
+    }
+    if (_sampledKeyCounts != null) {
+      sampleKeys(rows, numMailboxes);
     }
     for (int i = 0; i < numMailboxes; i++) {
       if (!mailboxIdToRowsMap[i].isEmpty()) {
@@ -66,4 +127,59 @@ class HashExchange extends BlockExchange {
       }
     }
   }
+
+  private void routeWithSkewedKeys(List<Object[]> rows, List<Object[]>[] mailboxIdToRowsMap) {
+    assert _skewedKeys != null;
+    int numMailboxes = mailboxIdToRowsMap.length;
+    long numSkewedKeyRows = 0;
+    for (Object[] row : rows) {
+      if (_skewedKeys.contains(String.valueOf(_keySelector.getKey(row)))) {
+        numSkewedKeyRows++;
+        if (_broadcastSkewedKeys) {
+          for (List<Object[]> mailboxRows : mailboxIdToRowsMap) {
+            mailboxRows.add(row);
+          }
+        } else {
+          mailboxIdToRowsMap[_nextSkewedKeyMailboxId].add(row);
+          _nextSkewedKeyMailboxId = (_nextSkewedKeyMailboxId + 1) % numMailboxes;
+        }
+      } else {
+        int mailboxId = _keySelector.computeHash(row) % numMailboxes;
+        mailboxIdToRowsMap[mailboxId].add(row);
+      }
+    }
+    if (_statMap != null && numSkewedKeyRows > 0) {
+      _statMap.merge(MailboxSendOperator.StatKey.SKEWED_KEY_ROWS, numSkewedKeyRows);
+    }
+  }
+
+  /**
+   * Counts the keys of the rows until {@link #NUM_ROWS_TO_SAMPLE} rows are sampled, and reports the most frequent key
+   * when it accounts for more rows than the fair share of a mailbox.
+   */
+  private void sampleKeys(List<Object[]> rows, int numMailboxes) {
+    assert _statMap != null;
+    int numRowsToSample = Math.min(rows.size(), NUM_ROWS_TO_SAMPLE - _numSampledRows);
+    for (int i = 0; i < numRowsToSample; i++) {
+      _sampledKeyCounts.addTo(_keySelector.getKey(rows.get(i)), 1);
+    }
+    _numSampledRows += numRowsToSample;
+    if (_numSampledRows >= MIN_NUM_ROWS_TO_DETECT_HEAVY_HITTER) {
+      Object heavyHitterKey = null;
+      int heavyHitterCount = 0;
+      for (Object2IntOpenHashMap.Entry<Object> entry : _sampledKeyCounts.object2IntEntrySet()) {
+        if (entry.getIntValue() > heavyHitterCount) {
+          heavyHitterKey = entry.getKey();
+          heavyHitterCount = entry.getIntValue();
+        }
+      }
+      if ((long) heavyHitterCount * numMailboxes > _numSampledRows) {
+        _statMap.merge(MailboxSendOperator.StatKey.HEAVY_HITTER_KEY, String.valueOf(heavyHitterKey));
+      }
+    }
+    if (_numSampledRows >= NUM_ROWS_TO_SAMPLE) {
+      // Release the memory once the sampling is done
+      _sampledKeyCounts = null;
+    }
+  }
 }
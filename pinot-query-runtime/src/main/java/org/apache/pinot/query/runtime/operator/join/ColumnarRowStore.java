@@ -0,0 +1,296 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * Append-only columnar store for the rows of the build side of a join.
+ * <p>
+ * Columns with INT, LONG, FLOAT and DOUBLE stored type are kept in primitive arrays (with a separate null bitmap), so
+ * that the values are not boxed and no {@code Object[]} is kept per row. Other columns are kept as object arrays. Rows
+ * can be added from a {@link DataBlock} without materializing them, and are only boxed again when they are copied into
+ * a joined row.
+ */
+public class ColumnarRowStore {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final DataSchema _dataSchema;
+  private final ColumnDataType[] _storedTypes;
+  private final int _numColumns;
+  // Indexed by column id, only the array matching the stored type of the column is non-null
+  private final int[][] _intColumns;
+  private final long[][] _longColumns;
+  private final float[][] _floatColumns;
+  private final double[][] _doubleColumns;
+  private final Object[][] _objectColumns;
+  // Null bitmaps for the primitive columns, created when the first null value is added
+  private final BitSet[] _nullBitmaps;
+
+  private int _capacity = INITIAL_CAPACITY;
+  private int _numRows;
+
+  public ColumnarRowStore(DataSchema dataSchema) {
+    _dataSchema = dataSchema;
+    _storedTypes = dataSchema.getStoredColumnDataTypes();
+    _numColumns = _storedTypes.length;
+    _intColumns = new int[_numColumns][];
+    _longColumns = new long[_numColumns][];
+    _floatColumns = new float[_numColumns][];
+    _doubleColumns = new double[_numColumns][];
+    _objectColumns = new Object[_numColumns][];
+    _nullBitmaps = new BitSet[_numColumns];
+    for (int colId = 0; colId < _numColumns; colId++) {
+      switch (_storedTypes[colId]) {
+        case INT:
+          _intColumns[colId] = new int[INITIAL_CAPACITY];
+          break;
+        case LONG:
+          _longColumns[colId] = new long[INITIAL_CAPACITY];
+          break;
+        case FLOAT:
+          _floatColumns[colId] = new float[INITIAL_CAPACITY];
+          break;
+        case DOUBLE:
+          _doubleColumns[colId] = new double[INITIAL_CAPACITY];
+          break;
+        default:
+          _objectColumns[colId] = new Object[INITIAL_CAPACITY];
+          break;
+      }
+    }
+  }
+
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  /**
+   * Adds the given row, and returns its row id.
+   */
+  public int addRow(Object[] row) {
+    ensureCapacity(_numRows + 1);
+    int rowId = _numRows;
+    for (int colId = 0; colId < _numColumns; colId++) {
+      Object value = row[colId];
+      if (_objectColumns[colId] != null) {
+        _objectColumns[colId][rowId] = value;
+        continue;
+      }
+      if (value == null) {
+        setNull(rowId, colId);
+        continue;
+      }
+      switch (_storedTypes[colId]) {
+        case INT:
+          _intColumns[colId][rowId] = ((Number) value).intValue();
+          break;
+        case LONG:
+          _longColumns[colId][rowId] = ((Number) value).longValue();
+          break;
+        case FLOAT:
+          _floatColumns[colId][rowId] = ((Number) value).floatValue();
+          break;
+        case DOUBLE:
+          _doubleColumns[colId][rowId] = ((Number) value).doubleValue();
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+    _numRows++;
+    return rowId;
+  }
+
+  /**
+   * Adds all the rows of the given data block, which must have the same schema as this store. The primitive values are
+   * read directly from the data block without being boxed.
+   */
+  public void addRows(DataBlock dataBlock) {
+    int numRows = dataBlock.getNumberOfRows();
+    ensureCapacity(_numRows + numRows);
+    int startRowId = _numRows;
+    for (int colId = 0; colId < _numColumns; colId++) {
+      RoaringBitmap nullBitmap = dataBlock.getNullRowIds(colId);
+      switch (_storedTypes[colId]) {
+        case INT: {
+          int[] values = _intColumns[colId];
+          for (int i = 0; i < numRows; i++) {
+            values[startRowId + i] = dataBlock.getInt(i, colId);
+          }
+          break;
+        }
+        case LONG: {
+          long[] values = _longColumns[colId];
+          for (int i = 0; i < numRows; i++) {
+            values[startRowId + i] = dataBlock.getLong(i, colId);
+          }
+          break;
+        }
+        case FLOAT: {
+          float[] values = _floatColumns[colId];
+          for (int i = 0; i < numRows; i++) {
+            values[startRowId + i] = dataBlock.getFloat(i, colId);
+          }
+          break;
+        }
+        case DOUBLE: {
+          double[] values = _doubleColumns[colId];
+          for (int i = 0; i < numRows; i++) {
+            values[startRowId + i] = dataBlock.getDouble(i, colId);
+          }
+          break;
+        }
+        default:
+          // Null values are already handled when extracting the column
+          System.arraycopy(DataBlockExtractUtils.extractColumn(dataBlock, colId), 0, _objectColumns[colId],
+              startRowId, numRows);
+          nullBitmap = null;
+          break;
+      }
+      if (nullBitmap != null) {
+        PeekableIntIterator iterator = nullBitmap.getIntIterator();
+        while (iterator.hasNext()) {
+          setNull(startRowId + iterator.next(), colId);
+        }
+      }
+    }
+    _numRows += numRows;
+  }
+
+  public boolean isNull(int rowId, int colId) {
+    if (_objectColumns[colId] != null) {
+      return _objectColumns[colId][rowId] == null;
+    }
+    BitSet nullBitmap = _nullBitmaps[colId];
+    return nullBitmap != null && nullBitmap.get(rowId);
+  }
+
+  /**
+   * Returns the value of a non-null INT column.
+   */
+  public int getInt(int rowId, int colId) {
+    return _intColumns[colId][rowId];
+  }
+
+  /**
+   * Returns the value of a non-null LONG column.
+   */
+  public long getLong(int rowId, int colId) {
+    return _longColumns[colId][rowId];
+  }
+
+  /**
+   * Returns the (boxed) value of the given column, or {@code null} if the value is null.
+   */
+  public Object getValue(int rowId, int colId) {
+    Object[] objectColumn = _objectColumns[colId];
+    if (objectColumn != null) {
+      return objectColumn[rowId];
+    }
+    BitSet nullBitmap = _nullBitmaps[colId];
+    if (nullBitmap != null && nullBitmap.get(rowId)) {
+      return null;
+    }
+    switch (_storedTypes[colId]) {
+      case INT:
+        return _intColumns[colId][rowId];
+      case LONG:
+        return _longColumns[colId][rowId];
+      case FLOAT:
+        return _floatColumns[colId][rowId];
+      case DOUBLE:
+        return _doubleColumns[colId][rowId];
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * Copies the values of the given row into the destination array starting at the given offset.
+   */
+  public void copyRow(int rowId, Object[] dest, int offset) {
+    for (int colId = 0; colId < _numColumns; colId++) {
+      dest[offset + colId] = getValue(rowId, colId);
+    }
+  }
+
+  public Object[] getRow(int rowId) {
+    Object[] row = new Object[_numColumns];
+    copyRow(rowId, row, 0);
+    return row;
+  }
+
+  /**
+   * Removes all the rows, but keeps the allocated capacity so that the store can be reused.
+   */
+  public void clear() {
+    for (int colId = 0; colId < _numColumns; colId++) {
+      if (_objectColumns[colId] != null) {
+        Arrays.fill(_objectColumns[colId], 0, _numRows, null);
+      }
+      if (_nullBitmaps[colId] != null) {
+        _nullBitmaps[colId].clear();
+      }
+    }
+    _numRows = 0;
+  }
+
+  private void setNull(int rowId, int colId) {
+    BitSet nullBitmap = _nullBitmaps[colId];
+    if (nullBitmap == null) {
+      nullBitmap = new BitSet();
+      _nullBitmaps[colId] = nullBitmap;
+    }
+    nullBitmap.set(rowId);
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity <= _capacity) {
+      return;
+    }
+    int newCapacity = Math.max(_capacity << 1, minCapacity);
+    for (int colId = 0; colId < _numColumns; colId++) {
+      if (_intColumns[colId] != null) {
+        _intColumns[colId] = Arrays.copyOf(_intColumns[colId], newCapacity);
+      } else if (_longColumns[colId] != null) {
+        _longColumns[colId] = Arrays.copyOf(_longColumns[colId], newCapacity);
+      } else if (_floatColumns[colId] != null) {
+        _floatColumns[colId] = Arrays.copyOf(_floatColumns[colId], newCapacity);
+      } else if (_doubleColumns[colId] != null) {
+        _doubleColumns[colId] = Arrays.copyOf(_doubleColumns[colId], newCapacity);
+      } else {
+        _objectColumns[colId] = Arrays.copyOf(_objectColumns[colId], newCapacity);
+      }
+    }
+    _capacity = newCapacity;
+  }
+}
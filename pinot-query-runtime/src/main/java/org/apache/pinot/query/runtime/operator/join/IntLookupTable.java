@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import org.apache.pinot.common.utils.DataSchema;
+
+
+/**
+ * {@link LookupTable} for a single INT join key, which avoids boxing the keys in the key map. The
+ * keys are read directly from the primitive key column of the row store, so they are never boxed on the build side.
+ */
+public class IntLookupTable extends LookupTable {
+  private final Int2IntOpenHashMap _keyIdMap;
+  private final int _keyId;
+
+  public IntLookupTable(DataSchema dataSchema, int keyId) {
+    super(dataSchema, new int[]{keyId});
+    _keyId = keyId;
+    _keyIdMap = new Int2IntOpenHashMap();
+    _keyIdMap.defaultReturnValue(INVALID_ID);
+  }
+
+  @Override
+  protected int getOrCreateKeyId(int rowId, int newKeyId) {
+    int keyId = _keyIdMap.putIfAbsent(_rowStore.getInt(rowId, _keyId), newKeyId);
+    return keyId != INVALID_ID ? keyId : newKeyId;
+  }
+
+  @Override
+  protected int getKeyId(Object key) {
+    return _keyIdMap.get((int) key);
+  }
+
+  @Override
+  protected void clearKeys() {
+    _keyIdMap.clear();
+  }
+}
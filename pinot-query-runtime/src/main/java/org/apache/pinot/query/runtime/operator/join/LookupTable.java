@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+
+
+/**
+ * The lookup table built from the right input of a hash join, which maps each join key to the right rows with that key.
+ * <p>
+ * Rows are stored in a {@link ColumnarRowStore} in insertion order and identified by their row id. Rows with the same
+ * key are linked through a chain of row ids (also in insertion order), so that no collection is allocated per key.
+ * Implementations only need to map each key to a dense key id, which allows using open-addressing primitive maps for
+ * single column keys, where the keys are read from the primitive columns of the row store without boxing.
+ * <p>
+ * Keys are compared with {@code equals()} semantics of the key type (the same as the key returned by the
+ * {@code KeySelector} of the join keys), and {@code null} keys are grouped together.
+ */
+public abstract class LookupTable {
+  public static final int INVALID_ID = -1;
+  private static final int INITIAL_CAPACITY = 16;
+
+  protected final ColumnarRowStore _rowStore;
+  protected final int[] _keyIds;
+
+  // Indexed by row id
+  private int[] _nextRowIds = new int[INITIAL_CAPACITY];
+
+  // Indexed by key id
+  private int[] _firstRowIds = new int[INITIAL_CAPACITY];
+  private int[] _lastRowIds = new int[INITIAL_CAPACITY];
+  private int _numKeys;
+  private int _nullKeyId = INVALID_ID;
+
+  protected LookupTable(DataSchema dataSchema, int[] keyIds) {
+    _rowStore = new ColumnarRowStore(dataSchema);
+    _keyIds = keyIds;
+  }
+
+  /**
+   * Returns the id of the non-null key of the given row, or associates the key with the given new key id if it does
+   * not exist yet.
+   */
+  protected abstract int getOrCreateKeyId(int rowId, int newKeyId);
+
+  /**
+   * Returns the id of the given non-null key, or {@link #INVALID_ID} if it does not exist.
+   */
+  protected abstract int getKeyId(Object key);
+
+  /**
+   * Removes all the keys from the key map.
+   */
+  protected abstract void clearKeys();
+
+  public DataSchema getDataSchema() {
+    return _rowStore.getDataSchema();
+  }
+
+  public void addRow(Object[] row) {
+    addKey(_rowStore.addRow(row));
+  }
+
+  /**
+   * Adds all the rows of the given data block without materializing them.
+   */
+  public void addRows(DataBlock dataBlock) {
+    int startRowId = _rowStore.getNumRows();
+    _rowStore.addRows(dataBlock);
+    int endRowId = _rowStore.getNumRows();
+    for (int rowId = startRowId; rowId < endRowId; rowId++) {
+      addKey(rowId);
+    }
+  }
+
+  private void addKey(int rowId) {
+    if (rowId == _nextRowIds.length) {
+      _nextRowIds = Arrays.copyOf(_nextRowIds, rowId << 1);
+    }
+    _nextRowIds[rowId] = INVALID_ID;
+
+    int keyId;
+    if (isNullKey(rowId)) {
+      if (_nullKeyId == INVALID_ID) {
+        _nullKeyId = _numKeys;
+      }
+      keyId = _nullKeyId;
+    } else {
+      keyId = getOrCreateKeyId(rowId, _numKeys);
+    }
+    if (keyId == _numKeys) {
+      if (keyId == _firstRowIds.length) {
+        int newCapacity = keyId << 1;
+        _firstRowIds = Arrays.copyOf(_firstRowIds, newCapacity);
+        _lastRowIds = Arrays.copyOf(_lastRowIds, newCapacity);
+      }
+      _firstRowIds[keyId] = rowId;
+      _numKeys++;
+    } else {
+      _nextRowIds[_lastRowIds[keyId]] = rowId;
+    }
+    _lastRowIds[keyId] = rowId;
+  }
+
+  /**
+   * Returns whether the key of the given row is {@code null}, which is the case when there is no join key, or when the
+   * single join key is null. Multi-column keys are never {@code null}.
+   */
+  private boolean isNullKey(int rowId) {
+    switch (_keyIds.length) {
+      case 0:
+        return true;
+      case 1:
+        return _rowStore.isNull(rowId, _keyIds[0]);
+      default:
+        return false;
+    }
+  }
+
+  public boolean containsKey(@Nullable Object key) {
+    return getFirstRowId(key) != INVALID_ID;
+  }
+
+  /**
+   * Returns the id of the first row with the given key, or {@link #INVALID_ID} if there is no row with the key. The
+   * following rows can be accessed with {@link #getNextRowId(int)}.
+   */
+  public int getFirstRowId(@Nullable Object key) {
+    int keyId = key != null ? getKeyId(key) : _nullKeyId;
+    return keyId != INVALID_ID ? _firstRowIds[keyId] : INVALID_ID;
+  }
+
+  /**
+   * Returns the id of the next row with the same key as the given row, or {@link #INVALID_ID} if it is the last one.
+   */
+  public int getNextRowId(int rowId) {
+    return _nextRowIds[rowId];
+  }
+
+  /**
+   * Copies the values of the given row into the destination array starting at the given offset.
+   */
+  public void copyRow(int rowId, Object[] dest, int offset) {
+    _rowStore.copyRow(rowId, dest, offset);
+  }
+
+  public Object[] getRow(int rowId) {
+    return _rowStore.getRow(rowId);
+  }
+
+  public int getNumRows() {
+    return _rowStore.getNumRows();
+  }
+
+  public int getNumKeys() {
+    return _numKeys;
+  }
+
+  /**
+   * Returns all the rows in insertion order, where the index of the row is its row id. The rows are materialized, so
+   * this should only be used when the rows need to be moved out of the table (e.g. when spilling).
+   */
+  public List<Object[]> getRows() {
+    int numRows = _rowStore.getNumRows();
+    List<Object[]> rows = new ArrayList<>(numRows);
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      rows.add(_rowStore.getRow(rowId));
+    }
+    return rows;
+  }
+
+  /**
+   * Removes all the rows and keys, but keeps the allocated capacity so that the table can be reused.
+   */
+  public void clear() {
+    _rowStore.clear();
+    _numKeys = 0;
+    _nullKeyId = INVALID_ID;
+    clearKeys();
+  }
+}
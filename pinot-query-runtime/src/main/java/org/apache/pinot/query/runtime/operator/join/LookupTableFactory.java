@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import org.apache.pinot.common.utils.DataSchema;
+
+
+public class LookupTableFactory {
+  private LookupTableFactory() {
+  }
+
+  /**
+   * Returns the lookup table for the rows with the given schema and join key ids, which uses a primitive key map when
+   * there is a single INT or LONG join key.
+   */
+  public static LookupTable getLookupTable(DataSchema dataSchema, int[] keyIds) {
+    if (keyIds.length == 1) {
+      int keyId = keyIds[0];
+      switch (dataSchema.getColumnDataType(keyId).getStoredType()) {
+        case INT:
+          return new IntLookupTable(dataSchema, keyId);
+        case LONG:
+          return new LongLookupTable(dataSchema, keyId);
+        default:
+          return new ObjectLookupTable(dataSchema, keyIds);
+      }
+    }
+    return new ObjectLookupTable(dataSchema, keyIds);
+  }
+}
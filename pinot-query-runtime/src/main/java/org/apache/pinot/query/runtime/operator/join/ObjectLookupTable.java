@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.data.table.Key;
+
+
+/**
+ * {@link LookupTable} for all the other join keys, including STRING keys and multi-column keys.
+ */
+public class ObjectLookupTable extends LookupTable {
+  private final Object2IntOpenHashMap<Object> _keyIdMap;
+
+  public ObjectLookupTable(DataSchema dataSchema, int[] keyIds) {
+    super(dataSchema, keyIds);
+    _keyIdMap = new Object2IntOpenHashMap<>();
+    _keyIdMap.defaultReturnValue(INVALID_ID);
+  }
+
+  @Override
+  protected int getOrCreateKeyId(int rowId, int newKeyId) {
+    int keyId = _keyIdMap.putIfAbsent(getKey(rowId), newKeyId);
+    return keyId != INVALID_ID ? keyId : newKeyId;
+  }
+
+  /**
+   * Returns the key of the given row, which matches the key returned by the {@code KeySelector} of the join keys.
+   */
+  private Object getKey(int rowId) {
+    int numKeys = _keyIds.length;
+    if (numKeys == 1) {
+      return _rowStore.getValue(rowId, _keyIds[0]);
+    }
+    Object[] values = new Object[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      values[i] = _rowStore.getValue(rowId, _keyIds[i]);
+    }
+    return new Key(values);
+  }
+
+  @Override
+  protected int getKeyId(Object key) {
+    return _keyIdMap.getInt(key);
+  }
+
+  @Override
+  protected void clearKeys() {
+    _keyIdMap.clear();
+  }
+}
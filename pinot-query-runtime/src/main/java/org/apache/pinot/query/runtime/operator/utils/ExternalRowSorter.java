@@ -0,0 +1,205 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.apache.pinot.common.utils.DataSchema;
+
+
+/**
+ * Sorts rows with bounded memory through an external merge sort.
+ * <p>
+ * Rows are buffered up to the max rows in memory, then sorted and spilled to local disk as a sorted run through
+ * {@link RowSpillFile}. Once all the rows are added, {@link #finish()} sorts the rows still in memory, and the sorted
+ * runs are merged and returned batch by batch through {@link #nextBatch(int)}, so that at most one batch per run is
+ * kept on heap while merging.
+ * <p>
+ * Only the first {@code numRowsToKeep} rows are returned (after skipping the first {@code offset} rows), and rows that
+ * cannot be part of the result are not spilled.
+ * <p>
+ * This class is not thread safe. {@link #close()} must always be called to delete the spilled runs.
+ */
+public class ExternalRowSorter implements Closeable {
+  private final DataSchema _dataSchema;
+  private final Comparator<Object[]> _comparator;
+  private final int _maxRowsInMemory;
+  private final int _maxRowsPerRunBatch;
+  private final int _offset;
+  private final int _numRowsToKeep;
+  private final ArrayList<Object[]> _rows = new ArrayList<>();
+  private final List<RowSpillFile> _sortedRuns = new ArrayList<>();
+
+  private long _numSpilledBytes;
+  private PriorityQueue<SortedRunCursor> _mergingRuns;
+  private int _numMergedRows;
+
+  /**
+   * @param maxRowsInMemory max number of rows buffered on heap before a sorted run is spilled
+   * @param maxRowsPerRunBatch max number of rows per batch when writing a sorted run, which is also the max number of
+   *                           rows read back at once from each run while merging
+   * @param offset number of leading rows to skip in the result
+   * @param numRowsToKeep number of leading rows (including the skipped ones) to return
+   */
+  public ExternalRowSorter(DataSchema dataSchema, Comparator<Object[]> comparator, int maxRowsInMemory,
+      int maxRowsPerRunBatch, int offset, int numRowsToKeep) {
+    Preconditions.checkArgument(maxRowsInMemory > 0, "Max rows in memory must be positive, got: %s", maxRowsInMemory);
+    _dataSchema = dataSchema;
+    _comparator = comparator;
+    _maxRowsInMemory = maxRowsInMemory;
+    _maxRowsPerRunBatch = maxRowsPerRunBatch;
+    _offset = offset;
+    _numRowsToKeep = numRowsToKeep;
+  }
+
+  public void addAll(List<Object[]> rows)
+      throws IOException {
+    Preconditions.checkState(_mergingRuns == null, "Cannot add rows after finish() is called");
+    for (Object[] row : rows) {
+      _rows.add(row);
+      if (_rows.size() == _maxRowsInMemory) {
+        spillSortedRun();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of sorted runs spilled to disk.
+   */
+  public int getNumSpilledRuns() {
+    return _sortedRuns.size();
+  }
+
+  /**
+   * Returns the number of bytes spilled to disk.
+   */
+  public long getNumSpilledBytes() {
+    return _numSpilledBytes;
+  }
+
+  /**
+   * Sorts the rows still in memory and starts merging them with the spilled runs. No row can be added afterward.
+   */
+  public void finish() {
+    Preconditions.checkState(_mergingRuns == null, "finish() is already called");
+    _rows.sort(_comparator);
+    _mergingRuns = new PriorityQueue<>(_sortedRuns.size() + 1,
+        (cursor1, cursor2) -> _comparator.compare(cursor1.current(), cursor2.current()));
+    // Keep the last run in memory and merge it with the spilled ones
+    addToMergingRuns(new SortedRunCursor(List.of(trimToRowsToKeep(_rows)).iterator()));
+    for (RowSpillFile sortedRun : _sortedRuns) {
+      addToMergingRuns(new SortedRunCursor(sortedRun.iterator()));
+    }
+  }
+
+  /**
+   * Returns the next batch of at most the given number of sorted rows, or an empty list once all the rows are returned.
+   */
+  public List<Object[]> nextBatch(int maxNumRows) {
+    Preconditions.checkState(_mergingRuns != null, "finish() must be called before reading the sorted rows");
+    List<Object[]> rows = new ArrayList<>(Math.min(maxNumRows, _numRowsToKeep - _numMergedRows));
+    while (rows.size() < maxNumRows && _numMergedRows < _numRowsToKeep && !_mergingRuns.isEmpty()) {
+      SortedRunCursor cursor = _mergingRuns.poll();
+      if (_numMergedRows++ >= _offset) {
+        rows.add(cursor.current());
+      }
+      if (cursor.advance()) {
+        _mergingRuns.add(cursor);
+      }
+    }
+    return rows;
+  }
+
+  @Override
+  public void close() {
+    for (RowSpillFile sortedRun : _sortedRuns) {
+      sortedRun.close();
+    }
+    _sortedRuns.clear();
+    _rows.clear();
+    _mergingRuns = null;
+  }
+
+  private void addToMergingRuns(SortedRunCursor cursor) {
+    if (cursor.advance()) {
+      _mergingRuns.add(cursor);
+    }
+  }
+
+  /**
+   * Sorts the buffered rows and spills them to disk as a sorted run. Only the first rows to keep are spilled because
+   * the other ones cannot be part of the result.
+   */
+  private void spillSortedRun()
+      throws IOException {
+    _rows.sort(_comparator);
+    List<Object[]> rows = trimToRowsToKeep(_rows);
+    RowSpillFile sortedRun = RowSpillFile.create();
+    _sortedRuns.add(sortedRun);
+    int numRows = rows.size();
+    for (int startId = 0; startId < numRows; startId += _maxRowsPerRunBatch) {
+      _numSpilledBytes +=
+          sortedRun.write(rows.subList(startId, Math.min(startId + _maxRowsPerRunBatch, numRows)), _dataSchema);
+    }
+    sortedRun.finishWriting();
+    _rows.clear();
+  }
+
+  private List<Object[]> trimToRowsToKeep(List<Object[]> rows) {
+    return rows.size() > _numRowsToKeep ? rows.subList(0, _numRowsToKeep) : rows;
+  }
+
+  /**
+   * A cursor over the rows of a sorted run, read batch by batch.
+   */
+  private static class SortedRunCursor {
+    final Iterator<List<Object[]>> _batches;
+    List<Object[]> _rows = List.of();
+    int _index = -1;
+
+    SortedRunCursor(Iterator<List<Object[]>> batches) {
+      _batches = batches;
+    }
+
+    Object[] current() {
+      return _rows.get(_index);
+    }
+
+    /**
+     * Moves to the next row, and returns {@code false} if there is no more row in the run.
+     */
+    boolean advance() {
+      _index++;
+      while (_index == _rows.size()) {
+        if (!_batches.hasNext()) {
+          return false;
+        }
+        _rows = _batches.next();
+        _index = 0;
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * An append-only file on local disk used by the multi-stage operators to spill rows that do not fit in memory.
+ * <p>
+ * Rows are appended in batches. Each batch is serialized as a {@link org.apache.pinot.common.datablock.RowDataBlock}
+ * (the same format used to ship rows through the mailboxes) prefixed by its size in bytes. Once
+ * {@link #finishWriting()} is called, the file is memory mapped through {@link PinotDataBuffer} and can be iterated
+ * batch by batch, so only one batch is materialized on heap at a time.
+ * <p>
+ * This class is not thread safe. {@link #close()} must always be called to release the buffer and delete the file.
+ */
+public class RowSpillFile implements Closeable, Iterable<List<Object[]>> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RowSpillFile.class);
+  private static final String FILE_PREFIX = "pinot-mse-spill-";
+  private static final String FILE_SUFFIX = ".blocks";
+
+  private static volatile File _spillDir = FileUtils.getTempDirectory();
+
+  private final File _file;
+  private FileChannel _fileChannel;
+  private PinotDataBuffer _dataBuffer;
+  private DataSchema _dataSchema;
+  private long _numBytes;
+  private long _numRows;
+  private int _numBatches;
+
+  private RowSpillFile(File file, FileChannel fileChannel) {
+    _file = file;
+    _fileChannel = fileChannel;
+  }
+
+  /**
+   * Sets the directory where the spill files are created. Defaults to the JVM temporary directory.
+   */
+  public static void setSpillDir(File spillDir) {
+    _spillDir = spillDir;
+  }
+
+  public static File getSpillDir() {
+    return _spillDir;
+  }
+
+  /**
+   * Creates a new empty spill file under the spill directory.
+   */
+  public static RowSpillFile create()
+      throws IOException {
+    File spillDir = _spillDir;
+    FileUtils.forceMkdir(spillDir);
+    File file = File.createTempFile(FILE_PREFIX, FILE_SUFFIX, spillDir);
+    try {
+      return new RowSpillFile(file,
+          FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    } catch (IOException e) {
+      FileUtils.deleteQuietly(file);
+      throw e;
+    }
+  }
+
+  /**
+   * Appends the given rows as a single batch. Empty lists are ignored.
+   *
+   * @return the number of bytes written to disk
+   */
+  public long write(List<Object[]> rows, DataSchema dataSchema)
+      throws IOException {
+    Preconditions.checkState(_fileChannel != null, "Cannot write to spill file: %s after finishing writing", _file);
+    if (rows.isEmpty()) {
+      return 0;
+    }
+    if (_dataSchema == null) {
+      _dataSchema = dataSchema;
+    }
+    List<ByteBuffer> serialized = DataBlockUtils.serialize(DataBlockBuilder.buildFromRows(rows, dataSchema));
+    int size = 0;
+    for (ByteBuffer byteBuffer : serialized) {
+      size += byteBuffer.remaining();
+    }
+    ByteBuffer[] buffers = new ByteBuffer[serialized.size() + 1];
+    buffers[0] = ByteBuffer.allocate(Integer.BYTES).putInt(0, size);
+    for (int i = 0; i < serialized.size(); i++) {
+      buffers[i + 1] = serialized.get(i);
+    }
+    long numBytesToWrite = Integer.BYTES + (long) size;
+    long numBytesWritten = 0;
+    while (numBytesWritten < numBytesToWrite) {
+      numBytesWritten += _fileChannel.write(buffers);
+    }
+    _numBytes += numBytesToWrite;
+    _numRows += rows.size();
+    _numBatches++;
+    return numBytesToWrite;
+  }
+
+  /**
+   * Closes the file for writing and maps it for reading. It is a no-op if it was already called.
+   */
+  public void finishWriting()
+      throws IOException {
+    if (_fileChannel == null) {
+      return;
+    }
+    _fileChannel.close();
+    _fileChannel = null;
+    if (_numBytes > 0) {
+      _dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(_file);
+    }
+  }
+
+  /**
+   * Returns the schema of the first batch written to the file, or {@code null} if nothing has been written.
+   */
+  @Nullable
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  public long getNumBytes() {
+    return _numBytes;
+  }
+
+  public long getNumRows() {
+    return _numRows;
+  }
+
+  public int getNumBatches() {
+    return _numBatches;
+  }
+
+  /**
+   * Returns an iterator over the batches stored in the file, in the same order they were written. Each batch is
+   * deserialized lazily when {@link Iterator#next()} is called.
+   */
+  @Override
+  public Iterator<List<Object[]>> iterator() {
+    Preconditions.checkState(_fileChannel == null, "Cannot read spill file: %s before finishing writing", _file);
+    PinotDataBuffer dataBuffer = _dataBuffer;
+    return new Iterator<>() {
+      private long _offset = 0;
+
+      @Override
+      public boolean hasNext() {
+        return _offset < _numBytes;
+      }
+
+      @Override
+      public List<Object[]> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        int size = dataBuffer.getInt(_offset);
+        long start = _offset + Integer.BYTES;
+        _offset = start + size;
+        DataBlock dataBlock;
+        try {
+          dataBlock = DataBlockUtils.deserialize(dataBuffer.view(start, _offset));
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to read spilled rows from: " + _file, e);
+        }
+        return DataBlockExtractUtils.extractRows(dataBlock);
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (_fileChannel != null) {
+        _fileChannel.close();
+        _fileChannel = null;
+      }
+      if (_dataBuffer != null) {
+        _dataBuffer.close();
+        _dataBuffer = null;
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while closing spill file: {}", _file, e);
+    } finally {
+      FileUtils.deleteQuietly(_file);
+    }
+  }
+}
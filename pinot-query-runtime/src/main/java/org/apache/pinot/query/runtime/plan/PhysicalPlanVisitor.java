@@ -20,6 +20,13 @@ package org.apache.pinot.query.runtime.plan;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
 import org.apache.pinot.query.planner.plannode.AggregateNode;
 import org.apache.pinot.query.planner.plannode.ExchangeNode;
 import org.apache.pinot.query.planner.plannode.FilterNode;
@@ -47,11 +54,14 @@ import org.apache.pinot.query.runtime.operator.MinusAllOperator;
 import org.apache.pinot.query.runtime.operator.MinusOperator;
 import org.apache.pinot.query.runtime.operator.MultiStageOperator;
 import org.apache.pinot.query.runtime.operator.OpChain;
+import org.apache.pinot.query.runtime.operator.PipelineBreakerReceiveOperator;
+import org.apache.pinot.query.runtime.operator.SortMergeJoinOperator;
 import org.apache.pinot.query.runtime.operator.SortOperator;
 import org.apache.pinot.query.runtime.operator.SortedMailboxReceiveOperator;
 import org.apache.pinot.query.runtime.operator.TransformOperator;
 import org.apache.pinot.query.runtime.operator.UnionOperator;
 import org.apache.pinot.query.runtime.operator.WindowAggregateOperator;
+import org.apache.pinot.query.runtime.plan.pipeline.PipelineBreakerResult;
 import org.apache.pinot.query.runtime.plan.server.ServerPlanRequestContext;
 
 
@@ -84,6 +94,11 @@ public class PhysicalPlanVisitor implements PlanNodeVisitor<MultiStageOperator,
 
   @Override
   public MultiStageOperator visitMailboxReceive(MailboxReceiveNode node, OpChainExecutionContext context) {
+    PipelineBreakerResult pipelineBreakerResult = context.getPipelineBreakerResult();
+    if (pipelineBreakerResult != null && node.getExchangeType() == PinotRelExchangeType.PIPELINE_BREAKER) {
+      // the blocks have already been received by the pipeline breaker
+      return new PipelineBreakerReceiveOperator(context, node, pipelineBreakerResult);
+    }
     if (node.isSort()) {
       return new SortedMailboxReceiveOperator(context, node);
     } else {
@@ -144,9 +159,66 @@ public class PhysicalPlanVisitor implements PlanNodeVisitor<MultiStageOperator,
     List<PlanNode> inputs = node.getInputs();
     PlanNode left = inputs.get(0);
     PlanNode right = inputs.get(1);
+    List<RelFieldCollation> collations = isSortMergeJoin(node) ? getJoinKeyCollations(node, left, right) : null;
+    if (collations != null) {
+      return new SortMergeJoinOperator(context, visit(left, context), left.getDataSchema(), visit(right, context),
+          node, collations);
+    }
     return new HashJoinOperator(context, visit(left, context), left.getDataSchema(), visit(right, context), node);
   }
 
+  /**
+   * Returns whether the {@code sort_merge} join strategy is requested through the join hint.
+   */
+  private static boolean isSortMergeJoin(JoinNode node) {
+    PlanNode.NodeHint nodeHint = node.getNodeHint();
+    if (nodeHint == null) {
+      return false;
+    }
+    Map<String, String> joinOptions = nodeHint.getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
+    if (joinOptions == null) {
+      return false;
+    }
+    String joinStrategy = joinOptions.get(PinotHintOptions.JoinHintOptions.JOIN_STRATEGY);
+    return joinStrategy != null && ArrayUtils.contains(StringUtils.split(joinStrategy, ','),
+        PinotHintOptions.JoinHintOptions.SORT_MERGE_JOIN_STRATEGY);
+  }
+
+  /**
+   * Returns the collations of the join inputs when both of them are received sorted on the join keys with the same
+   * direction, which is the case when the sort merge join is requested through the join hint (see
+   * {@code PinotJoinExchangeNodeInsertRule}). Returns {@code null} otherwise, in which case the hash join is used.
+   */
+  @Nullable
+  private static List<RelFieldCollation> getJoinKeyCollations(JoinNode node, PlanNode left, PlanNode right) {
+    List<Integer> leftKeys = node.getLeftKeys();
+    List<Integer> rightKeys = node.getRightKeys();
+    if (leftKeys.isEmpty() || !(left instanceof MailboxReceiveNode) || !(right instanceof MailboxReceiveNode)) {
+      return null;
+    }
+    MailboxReceiveNode leftReceive = (MailboxReceiveNode) left;
+    MailboxReceiveNode rightReceive = (MailboxReceiveNode) right;
+    if (!leftReceive.isSort() || !rightReceive.isSort()) {
+      return null;
+    }
+    List<RelFieldCollation> leftCollations = leftReceive.getCollations();
+    List<RelFieldCollation> rightCollations = rightReceive.getCollations();
+    int numKeys = leftKeys.size();
+    if (leftCollations.size() < numKeys || rightCollations.size() < numKeys) {
+      return null;
+    }
+    for (int i = 0; i < numKeys; i++) {
+      RelFieldCollation leftCollation = leftCollations.get(i);
+      RelFieldCollation rightCollation = rightCollations.get(i);
+      if (leftCollation.getFieldIndex() != leftKeys.get(i) || rightCollation.getFieldIndex() != rightKeys.get(i)
+          || leftCollation.direction != rightCollation.direction
+          || leftCollation.nullDirection != rightCollation.nullDirection) {
+        return null;
+      }
+    }
+    return leftCollations;
+  }
+
   @Override
   public MultiStageOperator visitProject(ProjectNode node, OpChainExecutionContext context) {
     PlanNode input = node.getInputs().get(0);
@@ -241,24 +241,28 @@ public class ServerPlanRequestUtils {
   }
 
   /**
-   * attach the dynamic filter to the given PinotQuery.
+   * attach the dynamic filter to the given PinotQuery, with one IN filter per join key pair. The IN filter of a key is
+   * skipped when the right rows have more than {@code maxValues} distinct non-null values for it.
    */
   static void attachDynamicFilter(PinotQuery pinotQuery, List<Integer> leftKeys, List<Integer> rightKeys,
-      List<Object[]> dataContainer, DataSchema dataSchema) {
+      List<Object[]> dataContainer, DataSchema dataSchema, int maxValues) {
     List<Expression> expressions = new ArrayList<>();
     for (int i = 0; i < leftKeys.size(); i++) {
       Expression leftExpr = pinotQuery.getSelectList().get(leftKeys.get(i));
-      if (dataContainer.isEmpty()) {
+      List<Expression> inOperands = computeInOperands(dataContainer, dataSchema, rightKeys.get(i));
+      if (inOperands.isEmpty()) {
         // put a constant false expression
         expressions.add(RequestUtils.getLiteralExpression(false));
-      } else {
-        int rightIdx = rightKeys.get(i);
-        List<Expression> operands = new ArrayList<>(dataContainer.size() + 1);
+      } else if (inOperands.size() <= maxValues) {
+        List<Expression> operands = new ArrayList<>(inOperands.size() + 1);
         operands.add(leftExpr);
-        operands.addAll(computeInOperands(dataContainer, dataSchema, rightIdx));
+        operands.addAll(inOperands);
         expressions.add(RequestUtils.getFunctionExpression(FilterKind.IN.name(), operands));
       }
     }
+    if (expressions.isEmpty()) {
+      return;
+    }
     Expression filterExpression = pinotQuery.getFilterExpression();
     if (filterExpression != null) {
       expressions.add(filterExpression);
@@ -273,57 +277,77 @@ public class ServerPlanRequestUtils {
   private static List<Expression> computeInOperands(List<Object[]> dataContainer, DataSchema dataSchema, int colIdx) {
     final DataSchema.ColumnDataType columnDataType = dataSchema.getColumnDataType(colIdx);
     final FieldSpec.DataType storedType = columnDataType.getStoredType().toDataType();
-    final int numRows = dataContainer.size();
+    // Null keys never match the left rows, so they are not part of the filter. Duplicate keys are removed.
+    List<Object> values = new ArrayList<>(dataContainer.size());
+    for (Object[] row : dataContainer) {
+      if (row[colIdx] != null) {
+        values.add(row[colIdx]);
+      }
+    }
+    final int numRows = values.size();
     List<Expression> expressions = new ArrayList<>();
+    if (numRows == 0) {
+      return expressions;
+    }
     switch (storedType) {
       case INT:
         int[] arrInt = new int[numRows];
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrInt[rowIdx] = (int) dataContainer.get(rowIdx)[colIdx];
+          arrInt[rowIdx] = (int) values.get(rowIdx);
         }
         Arrays.sort(arrInt);
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrInt[rowIdx]));
+          if (rowIdx == 0 || arrInt[rowIdx] != arrInt[rowIdx - 1]) {
+            expressions.add(RequestUtils.getLiteralExpression(arrInt[rowIdx]));
+          }
         }
         break;
       case LONG:
         long[] arrLong = new long[numRows];
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrLong[rowIdx] = (long) dataContainer.get(rowIdx)[colIdx];
+          arrLong[rowIdx] = (long) values.get(rowIdx);
         }
         Arrays.sort(arrLong);
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrLong[rowIdx]));
+          if (rowIdx == 0 || arrLong[rowIdx] != arrLong[rowIdx - 1]) {
+            expressions.add(RequestUtils.getLiteralExpression(arrLong[rowIdx]));
+          }
         }
         break;
       case FLOAT:
         float[] arrFloat = new float[numRows];
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrFloat[rowIdx] = (float) dataContainer.get(rowIdx)[colIdx];
+          arrFloat[rowIdx] = (float) values.get(rowIdx);
         }
         Arrays.sort(arrFloat);
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrFloat[rowIdx]));
+          if (rowIdx == 0 || Float.compare(arrFloat[rowIdx], arrFloat[rowIdx - 1]) != 0) {
+            expressions.add(RequestUtils.getLiteralExpression(arrFloat[rowIdx]));
+          }
         }
         break;
       case DOUBLE:
         double[] arrDouble = new double[numRows];
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrDouble[rowIdx] = (double) dataContainer.get(rowIdx)[colIdx];
+          arrDouble[rowIdx] = (double) values.get(rowIdx);
         }
         Arrays.sort(arrDouble);
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrDouble[rowIdx]));
+          if (rowIdx == 0 || Double.compare(arrDouble[rowIdx], arrDouble[rowIdx - 1]) != 0) {
+            expressions.add(RequestUtils.getLiteralExpression(arrDouble[rowIdx]));
+          }
         }
         break;
       case STRING:
         String[] arrString = new String[numRows];
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          arrString[rowIdx] = (String) dataContainer.get(rowIdx)[colIdx];
+          arrString[rowIdx] = (String) values.get(rowIdx);
         }
         Arrays.sort(arrString);
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
-          expressions.add(RequestUtils.getLiteralExpression(arrString[rowIdx]));
+          if (rowIdx == 0 || !arrString[rowIdx].equals(arrString[rowIdx - 1])) {
+            expressions.add(RequestUtils.getLiteralExpression(arrString[rowIdx]));
+          }
         }
         break;
       default:
@@ -21,7 +21,9 @@ package org.apache.pinot.query.runtime.plan.server;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import org.apache.pinot.common.datablock.DataBlock;
+import java.util.Map;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.common.request.DataSource;
 import org.apache.pinot.common.request.Expression;
 import org.apache.pinot.common.request.PinotQuery;
@@ -59,6 +61,8 @@ import org.apache.pinot.spi.utils.builder.TableNameBuilder;
  */
 public class ServerPlanRequestVisitor implements PlanNodeVisitor<Void, ServerPlanRequestContext> {
   private static final ServerPlanRequestVisitor INSTANCE = new ServerPlanRequestVisitor();
+  // Large IN filters are expensive to evaluate, and are less selective
+  private static final int DEFAULT_DYNAMIC_FILTER_MAX_VALUES = 10_000;
 
   static void walkPlanNode(PlanNode node, ServerPlanRequestContext context) {
     node.visit(INSTANCE, context);
@@ -139,16 +143,39 @@ public class ServerPlanRequestVisitor implements PlanNodeVisitor<Void, ServerPla
       List<Object[]> resultDataContainer = new ArrayList<>();
       DataSchema dataSchema = dynamicSide.getDataSchema();
       for (TransferableBlock block : transferableBlocks) {
-        if (block.getType() == DataBlock.Type.ROW) {
+        if (block.isDataBlock()) {
           resultDataContainer.addAll(block.getContainer());
         }
       }
-      ServerPlanRequestUtils.attachDynamicFilter(context.getPinotQuery(), node.getLeftKeys(), node.getRightKeys(),
-          resultDataContainer, dataSchema);
+      if (node.getJoinType() == JoinRelType.SEMI) {
+        // the semi join is fully performed by the filter
+        ServerPlanRequestUtils.attachDynamicFilter(context.getPinotQuery(), node.getLeftKeys(), node.getRightKeys(),
+            resultDataContainer, dataSchema, Integer.MAX_VALUE);
+      } else {
+        // the filter only prunes the rows without a match, the join is performed on top of the leaf stage with the
+        // pipeline breaker rows as the build side
+        ServerPlanRequestUtils.attachDynamicFilter(context.getPinotQuery(), node.getLeftKeys(), node.getRightKeys(),
+            resultDataContainer, dataSchema, getDynamicFilterMaxValues(node));
+        context.setLeafStageBoundaryNode(staticSide);
+      }
     }
     return null;
   }
 
+  private static int getDynamicFilterMaxValues(JoinNode node) {
+    PlanNode.NodeHint nodeHint = node.getNodeHint();
+    if (nodeHint != null) {
+      Map<String, String> joinOptions = nodeHint.getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
+      if (joinOptions != null) {
+        String maxValuesStr = joinOptions.get(PinotHintOptions.JoinHintOptions.DYNAMIC_FILTER_MAX_VALUES);
+        if (maxValuesStr != null) {
+          return Integer.parseInt(maxValuesStr);
+        }
+      }
+    }
+    return DEFAULT_DYNAMIC_FILTER_MAX_VALUES;
+  }
+
   @Override
   public Void visitMailboxReceive(MailboxReceiveNode node, ServerPlanRequestContext context) {
     throw new UnsupportedOperationException("Leaf stage should not visit MailboxReceiveNode!");
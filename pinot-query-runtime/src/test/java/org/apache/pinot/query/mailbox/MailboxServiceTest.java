@@ -18,10 +18,13 @@
  */
 package org.apache.pinot.query.mailbox;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
@@ -33,6 +36,7 @@ import org.apache.pinot.query.runtime.operator.OperatorTestUtil;
 import org.apache.pinot.query.testutils.QueryTestUtils;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.MailboxCompressionCodec;
 import org.apache.pinot.util.TestUtils;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -624,4 +628,142 @@ public class MailboxServiceTest {
     // sending side should early terminate
     TestUtils.waitForCondition(aVoid -> sendingMailbox.isEarlyTerminated(), 1000L, "Failed to early-terminate sender");
   }
+
+  @Test
+  public void testRemoteBatched()
+      throws Exception {
+    PinotConfiguration config = new PinotConfiguration(
+        Map.of(CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_BATCH_SIZE_BYTES, 1024 * 1024,
+            CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_BATCH_MAX_DELAY_MS, Long.MAX_VALUE));
+    MailboxService mailboxService = new MailboxService("localhost", QueryTestUtils.getAvailablePort(), config);
+    mailboxService.start();
+    try {
+      String mailboxId = MailboxIdUtils.toMailboxId(_requestId++, SENDER_STAGE_ID, 0, RECEIVER_STAGE_ID, 0);
+      StatMap<MailboxSendOperator.StatKey> stats = new StatMap<>(MailboxSendOperator.StatKey.class);
+      SendingMailbox sendingMailbox =
+          mailboxService.getSendingMailbox("localhost", _mailboxService1.getPort(), mailboxId, Long.MAX_VALUE, stats);
+      int numBlocks = ReceivingMailbox.DEFAULT_MAX_PENDING_BLOCKS * 2;
+      for (int i = 0; i < numBlocks; i++) {
+        sendingMailbox.send(OperatorTestUtil.block(DATA_SCHEMA, new Object[]{i}));
+      }
+      sendingMailbox.send(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(SENDER_STAGE_ID));
+      sendingMailbox.complete();
+
+      // The data blocks should be coalesced into a single block
+      ReceivingMailbox receivingMailbox = _mailboxService1.getReceivingMailbox(mailboxId);
+      receivingMailbox.registeredReader(() -> {
+      });
+      TestUtils.waitForCondition(aVoid -> receivingMailbox.getNumPendingBlocks() == 2, 1000L,
+          "Failed to deliver mails");
+      TransferableBlock block = receivingMailbox.poll();
+      assertNotNull(block);
+      List<Object[]> rows = block.getContainer();
+      assertEquals(rows.size(), numBlocks);
+      for (int i = 0; i < numBlocks; i++) {
+        assertEquals(rows.get(i), new Object[]{i});
+      }
+      block = receivingMailbox.poll();
+      assertNotNull(block);
+      assertTrue(block.isSuccessfulEndOfStreamBlock());
+      assertEquals(stats.getInt(MailboxSendOperator.StatKey.RAW_MESSAGES), 2);
+    } finally {
+      mailboxService.shutdown();
+    }
+  }
+
+  @Test
+  public void testRemoteBatchedFlushedAfterMaxDelay()
+      throws Exception {
+    PinotConfiguration config = new PinotConfiguration(
+        Map.of(CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_BATCH_SIZE_BYTES, 1024 * 1024,
+            CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_BATCH_MAX_DELAY_MS, 100L));
+    MailboxService mailboxService = new MailboxService("localhost", QueryTestUtils.getAvailablePort(), config);
+    mailboxService.start();
+    try {
+      String mailboxId = MailboxIdUtils.toMailboxId(_requestId++, SENDER_STAGE_ID, 0, RECEIVER_STAGE_ID, 0);
+      StatMap<MailboxSendOperator.StatKey> stats = new StatMap<>(MailboxSendOperator.StatKey.class);
+      SendingMailbox sendingMailbox =
+          mailboxService.getSendingMailbox("localhost", _mailboxService1.getPort(), mailboxId, Long.MAX_VALUE, stats);
+      int numBlocks = 3;
+      for (int i = 0; i < numBlocks; i++) {
+        sendingMailbox.send(OperatorTestUtil.block(DATA_SCHEMA, new Object[]{i}));
+      }
+
+      // The pending blocks should be sent after the max delay without sending any other block
+      ReceivingMailbox receivingMailbox = _mailboxService1.getReceivingMailbox(mailboxId);
+      receivingMailbox.registeredReader(() -> {
+      });
+      TestUtils.waitForCondition(aVoid -> receivingMailbox.getNumPendingBlocks() == 1, 10_000L,
+          "Failed to flush pending blocks");
+      TransferableBlock block = receivingMailbox.poll();
+      assertNotNull(block);
+      List<Object[]> rows = block.getContainer();
+      assertEquals(rows.size(), numBlocks);
+      for (int i = 0; i < numBlocks; i++) {
+        assertEquals(rows.get(i), new Object[]{i});
+      }
+
+      sendingMailbox.send(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(SENDER_STAGE_ID));
+      sendingMailbox.complete();
+      TestUtils.waitForCondition(aVoid -> receivingMailbox.getNumPendingBlocks() == 1, 1000L,
+          "Failed to deliver mails");
+      block = receivingMailbox.poll();
+      assertNotNull(block);
+      assertTrue(block.isSuccessfulEndOfStreamBlock());
+      assertEquals(stats.getInt(MailboxSendOperator.StatKey.RAW_MESSAGES), 2);
+    } finally {
+      mailboxService.shutdown();
+    }
+  }
+
+  @Test
+  public void testRemoteCompressed()
+      throws Exception {
+    for (MailboxCompressionCodec codec : new MailboxCompressionCodec[]{
+        MailboxCompressionCodec.LZ4, MailboxCompressionCodec.ZSTD
+    }) {
+      PinotConfiguration config = new PinotConfiguration(
+          Map.of(CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_COMPRESSION_CODEC, codec.name(),
+              CommonConstants.MultiStageQueryRunner.KEY_OF_MAILBOX_COMPRESSION_MIN_SIZE_BYTES, 1024));
+      MailboxService mailboxService = new MailboxService("localhost", QueryTestUtils.getAvailablePort(), config);
+      mailboxService.start();
+      try {
+        String mailboxId = MailboxIdUtils.toMailboxId(_requestId++, SENDER_STAGE_ID, 0, RECEIVER_STAGE_ID, 0);
+        StatMap<MailboxSendOperator.StatKey> stats = new StatMap<>(MailboxSendOperator.StatKey.class);
+        SendingMailbox sendingMailbox =
+            mailboxService.getSendingMailbox("localhost", _mailboxService1.getPort(), mailboxId, Long.MAX_VALUE,
+                stats);
+        int numRows = 10_000;
+        List<Object[]> sentRows = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+          sentRows.add(new Object[]{i % 10});
+        }
+        sendingMailbox.send(new TransferableBlock(sentRows, DATA_SCHEMA, DataBlock.Type.ROW));
+        sendingMailbox.send(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(SENDER_STAGE_ID));
+        sendingMailbox.complete();
+
+        ReceivingMailbox receivingMailbox = _mailboxService1.getReceivingMailbox(mailboxId);
+        receivingMailbox.registeredReader(() -> {
+        });
+        TestUtils.waitForCondition(aVoid -> receivingMailbox.getNumPendingBlocks() == 2, 1000L,
+            "Failed to deliver mails");
+        TransferableBlock block = receivingMailbox.poll();
+        assertNotNull(block);
+        List<Object[]> rows = block.getContainer();
+        assertEquals(rows.size(), numRows);
+        for (int i = 0; i < numRows; i++) {
+          assertEquals(rows.get(i), sentRows.get(i));
+        }
+        block = receivingMailbox.poll();
+        assertNotNull(block);
+        assertTrue(block.isSuccessfulEndOfStreamBlock());
+
+        // The data block is compressed while the small EOS block is sent as is
+        assertTrue(stats.getLong(MailboxSendOperator.StatKey.BYTES_ON_WIRE) < stats.getLong(
+            MailboxSendOperator.StatKey.SERIALIZED_BYTES) / 2, codec.name());
+      } finally {
+        mailboxService.shutdown();
+      }
+    }
+  }
 }
@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.mailbox.channel;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.MailboxCompressionCodec;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class MailboxCompressionUtilsTest {
+  private static final int NUM_BUFFERS = 4;
+  private static final int BUFFER_SIZE = 4096;
+
+  @Test
+  public void testCompressAndDecompress()
+      throws Exception {
+    for (MailboxCompressionCodec codec : new MailboxCompressionCodec[]{
+        MailboxCompressionCodec.LZ4, MailboxCompressionCodec.ZSTD
+    }) {
+      for (boolean direct : new boolean[]{false, true}) {
+        // Single buffer compressed in place
+        List<ByteBuffer> payload = List.of(createBuffer(0, NUM_BUFFERS * BUFFER_SIZE, direct));
+        checkCompressAndDecompress(codec, payload, direct);
+
+        // Multiple buffers gathered before being compressed
+        payload = new ArrayList<>(NUM_BUFFERS);
+        for (int i = 0; i < NUM_BUFFERS; i++) {
+          payload.add(createBuffer(i * BUFFER_SIZE, BUFFER_SIZE, direct));
+        }
+        checkCompressAndDecompress(codec, payload, direct);
+      }
+    }
+  }
+
+  @Test
+  public void testCompressIncompressiblePayload() {
+    byte[] bytes = new byte[]{1, 2, 3, 4};
+    for (MailboxCompressionCodec codec : new MailboxCompressionCodec[]{
+        MailboxCompressionCodec.LZ4, MailboxCompressionCodec.ZSTD
+    }) {
+      assertNull(MailboxCompressionUtils.compress(codec, List.of(ByteBuffer.wrap(bytes)), bytes.length));
+    }
+  }
+
+  private static void checkCompressAndDecompress(MailboxCompressionCodec codec, List<ByteBuffer> payload,
+      boolean directCompressed)
+      throws Exception {
+    int uncompressedSize = NUM_BUFFERS * BUFFER_SIZE;
+    ByteString compressed = MailboxCompressionUtils.compress(codec, payload, uncompressedSize);
+    assertNotNull(compressed);
+    // The payload buffers should not be consumed
+    int numBytes = 0;
+    for (ByteBuffer buffer : payload) {
+      numBytes += buffer.remaining();
+    }
+    assertEquals(numBytes, uncompressedSize);
+
+    if (directCompressed) {
+      // Decompress from a direct buffer as received through the network
+      ByteBuffer directBuffer = ByteBuffer.allocateDirect(compressed.size());
+      compressed.copyTo(directBuffer);
+      directBuffer.flip();
+      compressed = UnsafeByteOperations.unsafeWrap(directBuffer);
+    }
+    ByteBuffer uncompressed = MailboxCompressionUtils.decompress(codec, compressed, uncompressedSize);
+    assertEquals(uncompressed.remaining(), uncompressedSize);
+    for (int i = 0; i < uncompressedSize; i++) {
+      assertEquals(uncompressed.get(i), getByte(i), codec + " at: " + i);
+    }
+  }
+
+  private static ByteBuffer createBuffer(int offset, int size, boolean direct) {
+    ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    for (int i = 0; i < size; i++) {
+      buffer.put(getByte(offset + i));
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  private static byte getByte(int index) {
+    return (byte) (index / 16 % 10);
+  }
+}
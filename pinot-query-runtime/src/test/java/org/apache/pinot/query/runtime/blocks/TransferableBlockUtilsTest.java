@@ -19,7 +19,9 @@
 package org.apache.pinot.query.runtime.blocks;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import org.apache.pinot.common.datablock.BaseDataBlock;
@@ -78,6 +80,43 @@ public class TransferableBlockUtilsTest {
         DataBlock.Type.ROW, estRowSizeInBytes * splitRowCount + 1), rows, dataSchema);
   }
 
+  @Test(dataProvider = "splitRowCountProvider")
+  public void testSplitColumnarBlock(int splitRowCount)
+      throws Exception {
+    DataSchema dataSchema = getDataSchema();
+    int estRowSizeInBytes = dataSchema.size() * TEST_EST_BYTES_PER_COLUMN;
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, TOTAL_ROW_COUNT, 1);
+    Iterator<TransferableBlock> blocks =
+        TransferableBlockUtils.splitBlock(new TransferableBlock(rows, dataSchema, DataBlock.Type.COLUMNAR),
+            DataBlock.Type.COLUMNAR, estRowSizeInBytes * splitRowCount + 1);
+    List<TransferableBlock> serializedBlocks = new ArrayList<>();
+    while (blocks.hasNext()) {
+      TransferableBlock block = blocks.next();
+      Assert.assertEquals(block.getType(), DataBlock.Type.COLUMNAR);
+      Assert.assertTrue(block.getDataBlock() instanceof ColumnarDataBlock);
+      serializedBlocks.add(new TransferableBlock(block.getDataBlock()));
+    }
+    validateBlocks(serializedBlocks.iterator(), rows, dataSchema);
+  }
+
+  @Test
+  public void testForwardDataBlockWithoutMaterializingRows()
+      throws Exception {
+    DataSchema dataSchema = getDataSchema();
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, TOTAL_ROW_COUNT, 1);
+    List<Object[]> columnars = DataBlockTestUtils.convertColumnar(dataSchema, rows);
+    for (DataBlock dataBlock : Arrays.asList(DataBlockBuilder.buildFromRows(rows, dataSchema),
+        DataBlockBuilder.buildFromColumns(columnars, dataSchema))) {
+      TransferableBlock block = new TransferableBlock(dataBlock);
+      Iterator<TransferableBlock> blocks =
+          TransferableBlockUtils.splitBlock(block, block.getType(), 4 * 1024 * 1024);
+      Assert.assertSame(blocks.next(), block);
+      Assert.assertFalse(blocks.hasNext());
+      Assert.assertFalse(block.isContainerConstructed());
+      validateBlocks(Iterators.singletonIterator(block), rows, dataSchema);
+    }
+  }
+
   @Test
   public void testNonSplittableBlock()
       throws Exception {
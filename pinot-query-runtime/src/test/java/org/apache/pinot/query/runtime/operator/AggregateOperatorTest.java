@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.calcite.sql.SqlKind;
@@ -42,11 +43,14 @@ import static org.apache.pinot.common.utils.DataSchema.ColumnDataType.BOOLEAN;
 import static org.apache.pinot.common.utils.DataSchema.ColumnDataType.DOUBLE;
 import static org.apache.pinot.common.utils.DataSchema.ColumnDataType.INT;
 import static org.apache.pinot.common.utils.DataSchema.ColumnDataType.STRING;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 
@@ -265,6 +269,85 @@ public class AggregateOperatorTest {
         "num groups limit should be reached");
   }
 
+  @Test
+  public void shouldSpillGroupsWhenGroupLimitExceed() {
+    // Given:
+    List<RexExpression.FunctionCall> aggCalls = List.of(getSum(new RexExpression.InputRef(1)));
+    List<Integer> filterArgs = List.of(-1);
+    List<Integer> groupKeys = List.of(0);
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.AGGREGATE_HINT_OPTIONS,
+        Map.of(PinotHintOptions.AggregateOptions.NUM_GROUPS_LIMIT, "2",
+            PinotHintOptions.AggregateOptions.GROUP_BY_OVERFLOW_MODE, "SPILL")));
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, DOUBLE});
+    when(_input.nextBlock()).thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, 1.0}, new Object[]{2, 2.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{3, 3.0}, new Object[]{1, 4.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{4, 5.0}, new Object[]{2, 6.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{null, 7.0}, new Object[]{1, 8.0}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema = new DataSchema(new String[]{"group", "sum"}, new ColumnDataType[]{INT, DOUBLE});
+    AggregateOperator operator = getOperator(resultSchema, aggCalls, filterArgs, groupKeys, nodeHint);
+
+    // When:
+    Map<Object, Object> results = new HashMap<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      for (Object[] row : block.getContainer()) {
+        assertNull(results.put(row[0], row[1]), "each group should be returned once");
+      }
+      block = operator.nextBlock();
+    }
+
+    // Then:
+    verify(_input, never()).earlyTerminate();
+    assertTrue(block.isSuccessfulEndOfStreamBlock(), "last block should be EOS");
+    Map<Object, Object> expectedResults = new HashMap<>(Map.of(1, 13.0, 2, 8.0, 3, 3.0, 4, 5.0));
+    expectedResults.put(null, 7.0);
+    assertEquals(results, expectedResults);
+    StatMap<AggregateOperator.StatKey> statMap = OperatorTestUtil.getStatMap(AggregateOperator.StatKey.class, block);
+    assertFalse(statMap.getBoolean(AggregateOperator.StatKey.NUM_GROUPS_LIMIT_REACHED),
+        "num groups limit should not be reached when spilling");
+    assertTrue(statMap.getLong(AggregateOperator.StatKey.SPILLED_ROWS) > 0, "groups should be spilled");
+    assertTrue(statMap.getLong(AggregateOperator.StatKey.SPILLED_BYTES) > 0, "groups should be spilled");
+  }
+
+  @Test
+  public void shouldSpillIntermediateGroupsInChunks() {
+    // Given:
+    List<RexExpression.FunctionCall> aggCalls = List.of(getSum(new RexExpression.InputRef(2)));
+    List<Integer> filterArgs = List.of(-1);
+    List<Integer> groupKeys = List.of(0, 1);
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.AGGREGATE_HINT_OPTIONS,
+        Map.of(PinotHintOptions.AggregateOptions.NUM_GROUPS_LIMIT, "1",
+            PinotHintOptions.AggregateOptions.GROUP_BY_OVERFLOW_MODE, "SPILL")));
+    DataSchema inSchema =
+        new DataSchema(new String[]{"group1", "group2", "sum"}, new ColumnDataType[]{INT, STRING, DOUBLE});
+    // The first block has more rows than the limit and is processed in chunks
+    when(_input.nextBlock()).thenReturn(
+            OperatorTestUtil.block(inSchema, new Object[]{1, "a", 1.0}, new Object[]{1, "b", 2.0},
+                new Object[]{2, "a", 3.0}, new Object[]{1, "a", 4.0}))
+        .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{1, "a", 5.0}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"group1", "group2", "sum"}, new ColumnDataType[]{INT, STRING, DOUBLE});
+    AggregateOperator operator = new AggregateOperator(OperatorTestUtil.getTracingContext(), _input,
+        new AggregateNode(-1, resultSchema, nodeHint, List.of(), aggCalls, filterArgs, groupKeys,
+            AggType.INTERMEDIATE));
+
+    // When:
+    Map<List<Object>, Object> results = new HashMap<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      for (Object[] row : block.getContainer()) {
+        assertNull(results.put(List.of(row[0], row[1]), row[2]), "each group should be returned once");
+      }
+      block = operator.nextBlock();
+    }
+
+    // Then:
+    assertTrue(block.isSuccessfulEndOfStreamBlock(), "last block should be EOS");
+    assertEquals(results, Map.of(List.of(1, "a"), 10.0, List.of(1, "b"), 2.0, List.of(2, "a"), 3.0));
+  }
+
   private static RexExpression.FunctionCall getSum(RexExpression arg) {
     return new RexExpression.FunctionCall(ColumnDataType.INT, SqlKind.SUM.name(), List.of(arg));
   }
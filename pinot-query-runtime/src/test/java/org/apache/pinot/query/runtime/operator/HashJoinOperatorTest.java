@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import org.apache.calcite.rel.core.JoinRelType;
@@ -27,6 +30,7 @@ import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.JoinNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
@@ -43,6 +47,7 @@ import org.testng.annotations.Test;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 
@@ -121,6 +126,39 @@ public class HashJoinOperatorTest {
     assertEquals(resultRows.get(1), new Object[]{2, "BB", 2, "BB"});
   }
 
+  @Test
+  public void shouldHandleRightDataBlockWithoutMaterializingRows()
+      throws Exception {
+    DataSchema leftSchema = new DataSchema(new String[]{"long_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.LONG, ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"long_col", "double_col"}, new ColumnDataType[]{
+        ColumnDataType.LONG, ColumnDataType.DOUBLE
+    });
+    when(_leftInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(leftSchema, new Object[]{1L, "Aa"}, new Object[]{2L, "BB"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    TransferableBlock rightBlock = new TransferableBlock(DataBlockBuilder.buildFromRows(
+        List.of(new Object[]{2L, 1.5}, new Object[]{2L, null}, new Object[]{null, 3.5}), rightSchema));
+    when(_rightInput.nextBlock()).thenReturn(rightBlock)
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"long_col1", "string_col1", "long_col2", "double_col2"}, new ColumnDataType[]{
+            ColumnDataType.LONG, ColumnDataType.STRING, ColumnDataType.LONG, ColumnDataType.DOUBLE
+        });
+    HashJoinOperator operator =
+        getOperator(leftSchema, resultSchema, JoinRelType.FULL, List.of(0), List.of(0), List.of());
+    List<Object[]> resultRows = operator.nextBlock().getContainer();
+    assertFalse(rightBlock.isContainerConstructed());
+    assertEquals(resultRows.size(), 3);
+    assertEquals(resultRows.get(0), new Object[]{1L, "Aa", null, null});
+    assertEquals(resultRows.get(1), new Object[]{2L, "BB", 2L, 1.5});
+    assertEquals(resultRows.get(2), new Object[]{2L, "BB", 2L, null});
+    resultRows = operator.nextBlock().getContainer();
+    assertEquals(resultRows.size(), 1);
+    assertEquals(resultRows.get(0), new Object[]{null, null, null, 3.5});
+  }
+
   @Test
   public void shouldHandleJoinOnEmptySelector() {
     DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
@@ -596,6 +634,99 @@ public class HashJoinOperatorTest {
         "Max rows in join should be reached");
   }
 
+  @Test
+  public void shouldHandleFullJoinWithSpillWhenHitDataRowsLimitOnRightInput() {
+    DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    when(_leftInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(leftSchema, new Object[]{1, "Aa"}, new Object[]{2, "BB"}))
+        .thenReturn(OperatorTestUtil.block(leftSchema, new Object[]{4, "CC"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(rightSchema, new Object[]{2, "Aa"}, new Object[]{2, "BB"}))
+        .thenReturn(OperatorTestUtil.block(rightSchema, new Object[]{3, "BB"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema = new DataSchema(new String[]{"foo", "bar", "foo", "bar"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+    });
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.JOIN_HINT_OPTIONS,
+        Map.of(PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE, "SPILL",
+            PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "1")));
+    HashJoinOperator operator =
+        getOperator(leftSchema, resultSchema, JoinRelType.FULL, List.of(0), List.of(0), List.of(), nodeHint);
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+    assertTrue(block.isSuccessfulEndOfStreamBlock());
+    // Spilled partitions are joined one at a time, so the order of the rows is not deterministic
+    resultRows.sort(Comparator.comparing(row -> Arrays.toString(row)));
+    assertEquals(resultRows.size(), 5);
+    assertEquals(resultRows.get(0), new Object[]{1, "Aa", null, null});
+    assertEquals(resultRows.get(1), new Object[]{2, "BB", 2, "Aa"});
+    assertEquals(resultRows.get(2), new Object[]{2, "BB", 2, "BB"});
+    assertEquals(resultRows.get(3), new Object[]{4, "CC", null, null});
+    assertEquals(resultRows.get(4), new Object[]{null, null, 3, "BB"});
+    StatMap<HashJoinOperator.StatKey> statMap = OperatorTestUtil.getStatMap(HashJoinOperator.StatKey.class, block);
+    assertFalse(statMap.getBoolean(HashJoinOperator.StatKey.MAX_ROWS_IN_JOIN_REACHED),
+        "Max rows in join should not be reached when spilling");
+    // All the rows from both inputs are spilled at least once
+    assertTrue(statMap.getLong(HashJoinOperator.StatKey.SPILLED_ROWS) >= 6);
+    assertTrue(statMap.getLong(HashJoinOperator.StatKey.SPILLED_BYTES) > 0);
+    operator.close();
+  }
+
+  @Test
+  public void shouldRepartitionSpilledJoinWhenPartitionExceedsDataRowsLimit() {
+    DataSchema schema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    int numRows = 1000;
+    Object[][] leftRows = new Object[numRows][];
+    Object[][] rightRows = new Object[numRows][];
+    for (int i = 0; i < numRows; i++) {
+      leftRows[i] = new Object[]{i, "left" + i};
+      rightRows[i] = new Object[]{i, "right" + i};
+    }
+    when(_leftInput.nextBlock()).thenReturn(OperatorTestUtil.block(schema, leftRows))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(OperatorTestUtil.block(schema, rightRows))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema = new DataSchema(new String[]{"foo", "bar", "foo", "bar"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+    });
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.JOIN_HINT_OPTIONS,
+        Map.of(PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE, "SPILL",
+            PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "10")));
+    HashJoinOperator operator =
+        getOperator(schema, resultSchema, JoinRelType.INNER, List.of(0), List.of(0), List.of(), nodeHint);
+    boolean[] matched = new boolean[numRows];
+    int numResultRows = 0;
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      for (Object[] row : block.getContainer()) {
+        int key = (int) row[0];
+        assertEquals(row, new Object[]{key, "left" + key, key, "right" + key});
+        assertFalse(matched[key]);
+        matched[key] = true;
+        numResultRows++;
+      }
+      block = operator.nextBlock();
+    }
+    assertTrue(block.isSuccessfulEndOfStreamBlock());
+    assertEquals(numResultRows, numRows);
+    StatMap<HashJoinOperator.StatKey> statMap = OperatorTestUtil.getStatMap(HashJoinOperator.StatKey.class, block);
+    // Rows are spilled once more when the first level partitions are re-partitioned
+    assertTrue(statMap.getLong(HashJoinOperator.StatKey.SPILLED_ROWS) > 2 * numRows);
+    operator.close();
+  }
+
   private HashJoinOperator getOperator(DataSchema leftSchema, DataSchema resultSchema, JoinRelType joinType,
       List<Integer> leftKeys, List<Integer> rightKeys, List<RexExpression> nonEquiConditions,
       PlanNode.NodeHint nodeHint) {
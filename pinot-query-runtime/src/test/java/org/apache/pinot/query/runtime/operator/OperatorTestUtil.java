@@ -94,7 +94,7 @@ public class OperatorTestUtil {
     return getTracingContext(ImmutableMap.of());
   }
 
-  private static OpChainExecutionContext getTracingContext(Map<String, String> opChainMetadata) {
+  public static OpChainExecutionContext getTracingContext(Map<String, String> opChainMetadata) {
     MailboxService mailboxService = mock(MailboxService.class);
     when(mailboxService.getHostname()).thenReturn("localhost");
     when(mailboxService.getPort()).thenReturn(1234);
@@ -0,0 +1,304 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.calcite.rel.RelDistribution;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.query.mailbox.MailboxService;
+import org.apache.pinot.query.mailbox.ReceivingMailbox;
+import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.planner.physical.MailboxIdUtils;
+import org.apache.pinot.query.planner.plannode.JoinNode;
+import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
+import org.apache.pinot.query.planner.plannode.PlanNode;
+import org.apache.pinot.query.routing.MailboxInfo;
+import org.apache.pinot.query.routing.MailboxInfos;
+import org.apache.pinot.query.routing.SharedMailboxInfos;
+import org.apache.pinot.query.routing.StageMetadata;
+import org.apache.pinot.query.routing.WorkerMetadata;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.blocks.TransferableBlockTestUtils;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.mockito.Mock;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class SortMergeJoinOperatorTest {
+  private static final DataSchema SCHEMA = new DataSchema(new String[]{"int_col", "string_col"},
+      new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+  private static final DataSchema RESULT_SCHEMA = new DataSchema(new String[]{"foo", "bar", "foo", "bar"},
+      new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING});
+
+  private AutoCloseable _mocks;
+  @Mock
+  private MultiStageOperator _leftInput;
+  @Mock
+  private MultiStageOperator _rightInput;
+
+  @BeforeMethod
+  public void setUp() {
+    _mocks = openMocks(this);
+  }
+
+  @AfterMethod
+  public void tearDown()
+      throws Exception {
+    _mocks.close();
+  }
+
+  private void mockInputs() {
+    // Key groups span across blocks on both sides
+    when(_leftInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(SCHEMA, new Object[]{1, "l1"}, new Object[]{2, "l2a"}))
+        .thenReturn(OperatorTestUtil.block(SCHEMA, new Object[]{2, "l2b"}, new Object[]{4, "l4"}))
+        .thenReturn(OperatorTestUtil.block(SCHEMA, new Object[]{5, "l5"}, new Object[]{null, "lnull"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(SCHEMA, new Object[]{2, "r2a"}))
+        .thenReturn(OperatorTestUtil.block(SCHEMA, new Object[]{2, "r2b"}, new Object[]{3, "r3"}))
+        .thenReturn(OperatorTestUtil.block(SCHEMA, new Object[]{5, "r5"}, new Object[]{6, "r6"},
+            new Object[]{null, "rnull"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+  }
+
+  @Test
+  public void shouldHandleInnerJoin() {
+    mockInputs();
+    List<Object[]> resultRows = getResultRows(getOperator(JoinRelType.INNER, List.of(), PlanNode.NodeHint.EMPTY));
+    assertEquals(resultRows.size(), 6);
+    assertEquals(resultRows.get(0), new Object[]{2, "l2a", 2, "r2a"});
+    assertEquals(resultRows.get(1), new Object[]{2, "l2a", 2, "r2b"});
+    assertEquals(resultRows.get(2), new Object[]{2, "l2b", 2, "r2a"});
+    assertEquals(resultRows.get(3), new Object[]{2, "l2b", 2, "r2b"});
+    assertEquals(resultRows.get(4), new Object[]{5, "l5", 5, "r5"});
+    // Same as hash join, null keys are matched
+    assertEquals(resultRows.get(5), new Object[]{null, "lnull", null, "rnull"});
+  }
+
+  @Test
+  public void shouldHandleLeftJoin() {
+    mockInputs();
+    List<Object[]> resultRows = getResultRows(getOperator(JoinRelType.LEFT, List.of(), PlanNode.NodeHint.EMPTY));
+    assertEquals(resultRows.size(), 8);
+    assertEquals(resultRows.get(0), new Object[]{1, "l1", null, null});
+    assertEquals(resultRows.get(1), new Object[]{2, "l2a", 2, "r2a"});
+    assertEquals(resultRows.get(5), new Object[]{4, "l4", null, null});
+    assertEquals(resultRows.get(6), new Object[]{5, "l5", 5, "r5"});
+    assertEquals(resultRows.get(7), new Object[]{null, "lnull", null, "rnull"});
+  }
+
+  @Test
+  public void shouldHandleFullJoin() {
+    mockInputs();
+    List<Object[]> resultRows = getResultRows(getOperator(JoinRelType.FULL, List.of(), PlanNode.NodeHint.EMPTY));
+    assertEquals(resultRows.size(), 10);
+    assertEquals(resultRows.get(0), new Object[]{1, "l1", null, null});
+    assertEquals(resultRows.get(5), new Object[]{null, null, 3, "r3"});
+    assertEquals(resultRows.get(6), new Object[]{4, "l4", null, null});
+    assertEquals(resultRows.get(7), new Object[]{5, "l5", 5, "r5"});
+    assertEquals(resultRows.get(8), new Object[]{null, null, 6, "r6"});
+    assertEquals(resultRows.get(9), new Object[]{null, "lnull", null, "rnull"});
+  }
+
+  @Test
+  public void shouldHandleRightJoinWithNonEquiCondition() {
+    mockInputs();
+    // Only keep the rows where the left string is 'l2b'
+    RexExpression nonEquiCondition = new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.EQUALS.name(),
+        List.of(new RexExpression.InputRef(1), new RexExpression.Literal(ColumnDataType.STRING, "l2b")));
+    List<Object[]> resultRows =
+        getResultRows(getOperator(JoinRelType.RIGHT, List.of(nonEquiCondition), PlanNode.NodeHint.EMPTY));
+    assertEquals(resultRows.size(), 6);
+    assertEquals(resultRows.get(0), new Object[]{2, "l2b", 2, "r2a"});
+    assertEquals(resultRows.get(1), new Object[]{2, "l2b", 2, "r2b"});
+    assertEquals(resultRows.get(2), new Object[]{null, null, 3, "r3"});
+    assertEquals(resultRows.get(3), new Object[]{null, null, 5, "r5"});
+    assertEquals(resultRows.get(4), new Object[]{null, null, 6, "r6"});
+    assertEquals(resultRows.get(5), new Object[]{null, null, null, "rnull"});
+  }
+
+  @Test
+  public void shouldHandleSemiAndAntiJoin() {
+    mockInputs();
+    List<Object[]> resultRows = getResultRows(getOperator(JoinRelType.SEMI, List.of(), PlanNode.NodeHint.EMPTY));
+    assertEquals(resultRows.size(), 4);
+    assertEquals(resultRows.get(0), new Object[]{2, "l2a", null, null});
+    assertEquals(resultRows.get(1), new Object[]{2, "l2b", null, null});
+    assertEquals(resultRows.get(2), new Object[]{5, "l5", null, null});
+    assertEquals(resultRows.get(3), new Object[]{null, "lnull", null, null});
+
+    mockInputs();
+    resultRows = getResultRows(getOperator(JoinRelType.ANTI, List.of(), PlanNode.NodeHint.EMPTY));
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{1, "l1", null, null});
+    assertEquals(resultRows.get(1), new Object[]{4, "l4", null, null});
+  }
+
+  @Test
+  public void shouldFailWhenInputIsNotSorted() {
+    when(_leftInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(SCHEMA, new Object[]{2, "l2"}, new Object[]{1, "l1"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(SCHEMA, new Object[]{1, "r1"}, new Object[]{2, "r2"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    SortMergeJoinOperator operator = getOperator(JoinRelType.INNER, List.of(), PlanNode.NodeHint.EMPTY);
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      block = operator.nextBlock();
+    }
+    assertTrue(block.isErrorBlock());
+    assertTrue(block.getExceptions().get(QueryException.UNKNOWN_ERROR_CODE).contains("not sorted"));
+  }
+
+  @Test
+  public void shouldThrowOnKeyGroupExceedingMaxRowsInJoin() {
+    mockInputs();
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.JOIN_HINT_OPTIONS,
+        Map.of(PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "1")));
+    TransferableBlock block = getOperator(JoinRelType.INNER, List.of(), nodeHint).nextBlock();
+    assertTrue(block.isErrorBlock());
+    assertTrue(block.getExceptions().get(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE)
+        .contains("reached number of rows limit"));
+  }
+
+  @Test
+  public void shouldTruncateKeyGroupInBreakMode() {
+    mockInputs();
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.JOIN_HINT_OPTIONS,
+        Map.of(PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "1",
+            PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE, "BREAK")));
+    SortMergeJoinOperator operator = getOperator(JoinRelType.INNER, List.of(), nodeHint);
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+    assertTrue(block.isSuccessfulEndOfStreamBlock());
+    assertEquals(resultRows.size(), 4);
+    assertEquals(resultRows.get(0), new Object[]{2, "l2a", 2, "r2a"});
+    assertEquals(resultRows.get(1), new Object[]{2, "l2b", 2, "r2a"});
+    StatMap<SortMergeJoinOperator.StatKey> statMap =
+        OperatorTestUtil.getStatMap(SortMergeJoinOperator.StatKey.class, block);
+    assertTrue(statMap.getBoolean(SortMergeJoinOperator.StatKey.MAX_ROWS_IN_JOIN_REACHED));
+    assertEquals(statMap.getInt(SortMergeJoinOperator.StatKey.MAX_ROWS_IN_KEY_GROUP), 1);
+  }
+
+  @Test
+  public void shouldJoinInputsSortedWithSpilledRuns() {
+    // Both inputs are received through sorted receives which spill sorted runs every 100 rows
+    MailboxService mailboxService = mock(MailboxService.class);
+    when(mailboxService.getHostname()).thenReturn("localhost");
+    when(mailboxService.getPort()).thenReturn(1234);
+    Random random = new Random(42);
+    List<Object[]> leftRows = new ArrayList<>();
+    for (int key = 0; key < 500; key++) {
+      leftRows.add(new Object[]{key, "l" + key + "a"});
+      leftRows.add(new Object[]{key, "l" + key + "b"});
+    }
+    Collections.shuffle(leftRows, random);
+    List<Object[]> rightRows = new ArrayList<>();
+    for (int key = 250; key < 750; key++) {
+      rightRows.add(new Object[]{key, "r" + key});
+    }
+    Collections.shuffle(rightRows, random);
+    mockReceivingMailbox(mailboxService, 1, leftRows);
+    mockReceivingMailbox(mailboxService, 2, rightRows);
+    MailboxInfos mailboxInfos = new SharedMailboxInfos(new MailboxInfo("localhost", 1234, List.of(0)));
+    WorkerMetadata workerMetadata = new WorkerMetadata(0, Map.of(1, mailboxInfos, 2, mailboxInfos), Map.of());
+    StageMetadata stageMetadata = new StageMetadata(0, List.of(workerMetadata), Map.of());
+    OpChainExecutionContext context = new OpChainExecutionContext(mailboxService, 0, Long.MAX_VALUE,
+        Map.of(CommonConstants.Broker.Request.QueryOptionKey.MAX_ROWS_IN_SORT, "100"), stageMetadata, workerMetadata,
+        null, null);
+    List<RelFieldCollation> collations = List.of(new RelFieldCollation(0), new RelFieldCollation(1));
+    SortedMailboxReceiveOperator leftInput = new SortedMailboxReceiveOperator(context,
+        new MailboxReceiveNode(0, SCHEMA, List.of(), 1, PinotRelExchangeType.STREAMING,
+            RelDistribution.Type.HASH_DISTRIBUTED, List.of(0), collations, true, false, null));
+    SortedMailboxReceiveOperator rightInput = new SortedMailboxReceiveOperator(context,
+        new MailboxReceiveNode(0, SCHEMA, List.of(), 2, PinotRelExchangeType.STREAMING,
+            RelDistribution.Type.HASH_DISTRIBUTED, List.of(0), collations, true, false, null));
+    SortMergeJoinOperator operator = new SortMergeJoinOperator(context, leftInput, SCHEMA, rightInput,
+        new JoinNode(-1, RESULT_SCHEMA, PlanNode.NodeHint.EMPTY, List.of(), JoinRelType.INNER, List.of(0), List.of(0),
+            List.of()), collations);
+
+    List<Object[]> resultRows = getResultRows(operator);
+    assertEquals(resultRows.size(), 500);
+    for (int i = 0; i < 500; i++) {
+      int key = 250 + i / 2;
+      assertEquals(resultRows.get(i), new Object[]{key, "l" + key + (i % 2 == 0 ? "a" : "b"), key, "r" + key});
+    }
+    assertTrue(leftInput._statMap.getInt(BaseMailboxReceiveOperator.StatKey.SPILLED_RUNS) > 0);
+    assertTrue(rightInput._statMap.getInt(BaseMailboxReceiveOperator.StatKey.SPILLED_RUNS) > 0);
+  }
+
+  private static void mockReceivingMailbox(MailboxService mailboxService, int senderStageId, List<Object[]> rows) {
+    ReceivingMailbox mailbox = mock(ReceivingMailbox.class);
+    when(mailbox.getStatMap()).thenReturn(new StatMap<>(ReceivingMailbox.StatKey.class));
+    List<TransferableBlock> blocks = new ArrayList<>();
+    for (int i = 0; i < rows.size(); i += 64) {
+      blocks.add(new TransferableBlock(rows.subList(i, Math.min(i + 64, rows.size())), SCHEMA, DataBlock.Type.ROW));
+    }
+    blocks.add(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(senderStageId));
+    when(mailbox.poll()).thenReturn(blocks.get(0), blocks.subList(1, blocks.size()).toArray(new TransferableBlock[0]));
+    when(mailboxService.getReceivingMailbox(MailboxIdUtils.toMailboxId(0, senderStageId, 0, 0, 0))).thenReturn(
+        mailbox);
+  }
+
+  private static List<Object[]> getResultRows(SortMergeJoinOperator operator) {
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+    assertTrue(block.isSuccessfulEndOfStreamBlock());
+    return resultRows;
+  }
+
+  private SortMergeJoinOperator getOperator(JoinRelType joinType, List<RexExpression> nonEquiConditions,
+      PlanNode.NodeHint nodeHint) {
+    return new SortMergeJoinOperator(OperatorTestUtil.getTracingContext(), _leftInput, SCHEMA, _rightInput,
+        new JoinNode(-1, RESULT_SCHEMA, nodeHint, List.of(), joinType, List.of(0), List.of(0), nonEquiConditions),
+        List.of(new RelFieldCollation(0)));
+  }
+}
@@ -18,11 +18,15 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.calcite.rel.RelFieldCollation.NullDirection;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.planner.plannode.SortNode;
@@ -30,6 +34,7 @@ import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockTestUtils;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.mockito.Mock;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -472,6 +477,73 @@ public class SortOperatorTest {
     assertTrue(operator.nextBlock().isSuccessfulEndOfStreamBlock(), "expected EOS block to propagate");
   }
 
+  @Test
+  public void shouldSpillSortedRunsWhenExceedingMaxRowsInSort() {
+    // Given:
+    DataSchema schema = new DataSchema(new String[]{"sort", "str"}, new DataSchema.ColumnDataType[]{INT, STRING});
+    int numRows = 25;
+    Object[][] rows = new Object[numRows][];
+    for (int i = 0; i < numRows; i++) {
+      // Shuffle the values (7 and 25 are coprime)
+      int value = (i * 7) % numRows;
+      rows[i] = new Object[]{value, "str" + value};
+    }
+    when(_input.nextBlock()).thenReturn(block(schema, Arrays.copyOfRange(rows, 0, 10)))
+        .thenReturn(block(schema, Arrays.copyOfRange(rows, 10, numRows)))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    List<RelFieldCollation> collations = List.of(new RelFieldCollation(0, Direction.DESCENDING, NullDirection.LAST));
+    SortOperator operator = new SortOperator(
+        OperatorTestUtil.getTracingContext(Map.of(CommonConstants.Broker.Request.QueryOptionKey.MAX_ROWS_IN_SORT, "4")),
+        _input, new SortNode(-1, schema, PlanNode.NodeHint.EMPTY, List.of(), collations, 0, 3));
+
+    // When:
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+
+    // Then:
+    assertTrue(block.isSuccessfulEndOfStreamBlock(), "expected EOS block to propagate");
+    assertEquals(resultRows.size(), numRows - 3);
+    for (int i = 0; i < resultRows.size(); i++) {
+      int value = numRows - 4 - i;
+      assertEquals(resultRows.get(i), new Object[]{value, "str" + value});
+    }
+    StatMap<SortOperator.StatKey> statMap = OperatorTestUtil.getStatMap(SortOperator.StatKey.class, block);
+    assertEquals(statMap.getInt(SortOperator.StatKey.SPILLED_RUNS), numRows / 4);
+    assertTrue(statMap.getLong(SortOperator.StatKey.SPILLED_BYTES) > 0);
+    operator.close();
+  }
+
+  @Test
+  public void shouldMergeSpilledRunsWithFetchAndOffset() {
+    // Given:
+    DataSchema schema = new DataSchema(new String[]{"sort"}, new DataSchema.ColumnDataType[]{INT});
+    when(_input.nextBlock()).thenReturn(block(schema, new Object[]{5}, new Object[]{3}, new Object[]{9}))
+        .thenReturn(block(schema, new Object[]{1}, new Object[]{8}, new Object[]{2}))
+        .thenReturn(block(schema, new Object[]{7}, new Object[]{4}, new Object[]{6}, new Object[]{0}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    List<RelFieldCollation> collations = List.of(new RelFieldCollation(0, Direction.ASCENDING, NullDirection.LAST));
+    SortOperator operator = new SortOperator(
+        OperatorTestUtil.getTracingContext(Map.of(CommonConstants.Broker.Request.QueryOptionKey.MAX_ROWS_IN_SORT, "3")),
+        _input, new SortNode(-1, schema, PlanNode.NodeHint.EMPTY, List.of(), collations, 5, 2));
+
+    // When:
+    List<Object[]> resultRows = operator.nextBlock().getContainer();
+
+    // Then:
+    assertEquals(resultRows.size(), 5);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(resultRows.get(i), new Object[]{i + 2});
+    }
+    TransferableBlock block = operator.nextBlock();
+    assertTrue(block.isSuccessfulEndOfStreamBlock(), "expected EOS block to propagate");
+    StatMap<SortOperator.StatKey> statMap = OperatorTestUtil.getStatMap(SortOperator.StatKey.class, block);
+    assertEquals(statMap.getInt(SortOperator.StatKey.SPILLED_RUNS), 3);
+  }
+
   private SortOperator getOperator(DataSchema schema, List<RelFieldCollation> collations, int fetch, int offset) {
     return new SortOperator(OperatorTestUtil.getTracingContext(), _input,
         new SortNode(-1, schema, PlanNode.NodeHint.EMPTY, List.of(), collations, fetch, offset));
@@ -18,14 +18,17 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.calcite.rel.RelDistribution;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.calcite.rel.RelFieldCollation.NullDirection;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
@@ -42,6 +45,7 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockTestUtils;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.annotations.AfterMethod;
@@ -242,9 +246,74 @@ public class SortedMailboxReceiveOperatorTest {
     }
   }
 
+  @Test
+  public void shouldSpillAndMergeSortedRuns() {
+    int numRowsPerBlock = 5000;
+    int numBlocksPerMailbox = 3;
+    List<Object[]> expectedRows = new ArrayList<>();
+    List<TransferableBlock> blocks1 = new ArrayList<>();
+    List<TransferableBlock> blocks2 = new ArrayList<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 2 * numBlocksPerMailbox; i++) {
+      List<Object[]> rows = new ArrayList<>(numRowsPerBlock);
+      for (int j = 0; j < numRowsPerBlock; j++) {
+        Object[] row = new Object[]{random.nextInt(1000), i * numRowsPerBlock + j};
+        rows.add(row);
+        expectedRows.add(row);
+      }
+      (i % 2 == 0 ? blocks1 : blocks2).add(new TransferableBlock(rows, DATA_SCHEMA, DataBlock.Type.ROW));
+    }
+    blocks1.add(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    blocks2.add(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_1))).thenReturn(_mailbox1);
+    when(_mailbox1.poll()).thenReturn(blocks1.get(0),
+        blocks1.subList(1, blocks1.size()).toArray(new TransferableBlock[0]));
+    when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_2))).thenReturn(_mailbox2);
+    when(_mailbox2.poll()).thenReturn(blocks2.get(0),
+        blocks2.subList(1, blocks2.size()).toArray(new TransferableBlock[0]));
+    // Sort on both columns so that the expected order is deterministic
+    List<RelFieldCollation> collations = List.of(new RelFieldCollation(0, Direction.ASCENDING, NullDirection.LAST),
+        new RelFieldCollation(1, Direction.DESCENDING, NullDirection.LAST));
+    expectedRows.sort((row1, row2) -> {
+      int result = Integer.compare((int) row1[0], (int) row2[0]);
+      return result != 0 ? result : Integer.compare((int) row2[1], (int) row1[1]);
+    });
+
+    int maxRowsInSort = 4000;
+    try (SortedMailboxReceiveOperator operator = getOperator(_stageMetadataBoth, RelDistribution.Type.HASH_DISTRIBUTED,
+        DATA_SCHEMA, collations, Long.MAX_VALUE,
+        Map.of(CommonConstants.Broker.Request.QueryOptionKey.MAX_ROWS_IN_SORT, Integer.toString(maxRowsInSort)))) {
+      List<Object[]> resultRows = new ArrayList<>();
+      TransferableBlock block = operator.nextBlock();
+      while (block.isDataBlock()) {
+        // Rows are streamed in bounded blocks instead of a single block with all the rows
+        assertTrue(block.getNumRows() <= 10_000);
+        resultRows.addAll(block.getContainer());
+        block = operator.nextBlock();
+      }
+      assertEquals(resultRows.size(), expectedRows.size());
+      for (int i = 0; i < resultRows.size(); i++) {
+        assertEquals(resultRows.get(i), expectedRows.get(i));
+      }
+      StatMap<BaseMailboxReceiveOperator.StatKey> statMap =
+          OperatorTestUtil.getStatMap(BaseMailboxReceiveOperator.StatKey.class, block);
+      assertEquals(statMap.getInt(BaseMailboxReceiveOperator.StatKey.SPILLED_RUNS),
+          expectedRows.size() / maxRowsInSort);
+      assertTrue(statMap.getLong(BaseMailboxReceiveOperator.StatKey.SPILLED_BYTES) > 0);
+    }
+  }
+
   private SortedMailboxReceiveOperator getOperator(StageMetadata stageMetadata, RelDistribution.Type distributionType,
       DataSchema resultSchema, List<RelFieldCollation> collations, long deadlineMs) {
-    OpChainExecutionContext context = OperatorTestUtil.getOpChainContext(_mailboxService, deadlineMs, stageMetadata);
+    return getOperator(stageMetadata, distributionType, resultSchema, collations, deadlineMs, Map.of());
+  }
+
+  private SortedMailboxReceiveOperator getOperator(StageMetadata stageMetadata, RelDistribution.Type distributionType,
+      DataSchema resultSchema, List<RelFieldCollation> collations, long deadlineMs,
+      Map<String, String> opChainMetadata) {
+    OpChainExecutionContext context =
+        new OpChainExecutionContext(_mailboxService, 0, deadlineMs, opChainMetadata, stageMetadata,
+            stageMetadata.getWorkerMetadataList().get(0), null, null);
     MailboxReceiveNode node = mock(MailboxReceiveNode.class);
     when(node.getDistributionType()).thenReturn(distributionType);
     when(node.getSenderStageId()).thenReturn(1);
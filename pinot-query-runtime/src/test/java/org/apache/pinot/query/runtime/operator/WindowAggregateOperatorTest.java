@@ -22,15 +22,18 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.apache.calcite.rel.RelDistribution;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.core.data.table.Key;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.planner.plannode.WindowNode;
 import org.apache.pinot.query.routing.VirtualServerAddress;
@@ -51,6 +54,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
@@ -557,6 +561,121 @@ public class WindowAggregateOperatorTest {
         "Max rows in window should be reached");
   }
 
+  @Test
+  public void testShouldSpillWhenHitDataRowsLimit() {
+    // Given:
+    DataSchema inputSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    when(_input.nextBlock()).thenReturn(OperatorTestUtil.block(inputSchema, new Object[]{1, 1}, new Object[]{2, 4}))
+        .thenReturn(OperatorTestUtil.block(inputSchema, new Object[]{1, 2}, new Object[]{3, 6}))
+        .thenReturn(OperatorTestUtil.block(inputSchema, new Object[]{2, 5}, new Object[]{1, 3}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"group", "arg", "sum"}, new ColumnDataType[]{INT, INT, DOUBLE});
+    List<Integer> keys = List.of(0);
+    List<RexExpression.FunctionCall> aggCalls = List.of(getSum(new RexExpression.InputRef(1)));
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.WINDOW_HINT_OPTIONS,
+        Map.of(PinotHintOptions.WindowHintOptions.WINDOW_OVERFLOW_MODE, "SPILL",
+            PinotHintOptions.WindowHintOptions.MAX_ROWS_IN_WINDOW, "2")));
+    WindowAggregateOperator operator =
+        getOperator(inputSchema, resultSchema, keys, List.of(), aggCalls, WindowNode.WindowFrameType.RANGE,
+            Integer.MIN_VALUE, Integer.MAX_VALUE, nodeHint);
+
+    // When:
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+
+    // Then:
+    assertTrue(block.isSuccessfulEndOfStreamBlock());
+    verifyResultRows(resultRows, keys, Map.of(
+        1, List.of(new Object[]{1, 1, 6.0}, new Object[]{1, 2, 6.0}, new Object[]{1, 3, 6.0}),
+        2, List.of(new Object[]{2, 4, 9.0}, new Object[]{2, 5, 9.0}),
+        3, List.<Object[]>of(new Object[]{3, 6, 6.0})));
+    StatMap<WindowAggregateOperator.StatKey> windowStats =
+        OperatorTestUtil.getStatMap(WindowAggregateOperator.StatKey.class, block);
+    assertTrue(windowStats.getLong(WindowAggregateOperator.StatKey.SPILLED_ROWS) >= 6);
+    assertTrue(windowStats.getLong(WindowAggregateOperator.StatKey.SPILLED_BYTES) > 0);
+  }
+
+  @Test
+  public void testShouldApplyDataRowsLimitToAllRowsWhenInputSortedOnPartitionKeys() {
+    // Given:
+    DataSchema inputSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    when(_input.nextBlock()).thenReturn(
+            OperatorTestUtil.block(inputSchema, new Object[]{1, 1}, new Object[]{1, 2}, new Object[]{2, 3}))
+        .thenReturn(OperatorTestUtil.block(inputSchema, new Object[]{2, 4}, new Object[]{3, 5}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    // Each partition fits in the max rows in window, but not all the rows
+    WindowAggregateOperator operator = getSortedInputOperator(inputSchema, "THROW", 2);
+
+    // When:
+    TransferableBlock block = operator.nextBlock();
+
+    // Then:
+    assertTrue(block.isErrorBlock(), "expected ERROR block from window overflow");
+    assertTrue(block.getExceptions().get(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE)
+        .contains("reach number of rows limit"));
+  }
+
+  @Test
+  public void testShouldHandleWindowWithPartialResultsWhenHitDataRowsLimitWithInputSortedOnPartitionKeys() {
+    // Given:
+    DataSchema inputSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    when(_input.nextBlock()).thenReturn(
+            OperatorTestUtil.block(inputSchema, new Object[]{1, 1}, new Object[]{1, 2}, new Object[]{2, 3}))
+        .thenReturn(OperatorTestUtil.block(inputSchema, new Object[]{2, 4}, new Object[]{3, 5}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    WindowAggregateOperator operator = getSortedInputOperator(inputSchema, "BREAK", 3);
+
+    // When:
+    List<Object[]> resultRows = operator.nextBlock().getContainer();
+
+    // Then:
+    verify(_input).earlyTerminate();
+    verifyResultRows(resultRows, List.of(new Object[]{1, 1, 1.0}, new Object[]{1, 2, 3.0}, new Object[]{2, 3, 3.0}));
+    TransferableBlock block2 = operator.nextBlock();
+    assertTrue(block2.isSuccessfulEndOfStreamBlock());
+    StatMap<WindowAggregateOperator.StatKey> windowStats =
+        OperatorTestUtil.getStatMap(WindowAggregateOperator.StatKey.class, block2);
+    assertTrue(windowStats.getBoolean(WindowAggregateOperator.StatKey.MAX_ROWS_IN_WINDOW_REACHED),
+        "Max rows in window should be reached");
+  }
+
+  @Test
+  public void testShouldSpillPartitionWhenHitDataRowsLimitWithInputSortedOnPartitionKeys() {
+    // Given:
+    DataSchema inputSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    when(_input.nextBlock()).thenReturn(
+            OperatorTestUtil.block(inputSchema, new Object[]{1, 1}, new Object[]{1, 2}, new Object[]{1, 3}))
+        .thenReturn(OperatorTestUtil.block(inputSchema, new Object[]{1, 4}, new Object[]{1, 5}, new Object[]{2, 6}))
+        .thenReturn(OperatorTestUtil.block(inputSchema, new Object[]{3, 7}, new Object[]{3, 8}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    WindowAggregateOperator operator = getSortedInputOperator(inputSchema, "SPILL", 2);
+
+    // When:
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+
+    // Then:
+    assertTrue(block.isSuccessfulEndOfStreamBlock());
+    verifyResultRows(resultRows, List.of(
+        new Object[]{1, 1, 1.0}, new Object[]{1, 2, 3.0}, new Object[]{1, 3, 6.0}, new Object[]{1, 4, 10.0},
+        new Object[]{1, 5, 15.0}, new Object[]{2, 6, 6.0}, new Object[]{3, 7, 7.0}, new Object[]{3, 8, 15.0}));
+    StatMap<WindowAggregateOperator.StatKey> windowStats =
+        OperatorTestUtil.getStatMap(WindowAggregateOperator.StatKey.class, block);
+    // Only the rows of the first partition beyond the max rows in window are spilled, 2 rows at a time
+    assertEquals(windowStats.getLong(WindowAggregateOperator.StatKey.SPILLED_ROWS), 4L);
+    assertTrue(windowStats.getLong(WindowAggregateOperator.StatKey.SPILLED_BYTES) > 0);
+    assertFalse(windowStats.getBoolean(WindowAggregateOperator.StatKey.MAX_ROWS_IN_WINDOW_REACHED));
+  }
+
   @Test
   public void testLeadLagWindowFunction() {
     // Given:
@@ -647,6 +766,29 @@ public class WindowAggregateOperatorTest {
     assertTrue(operator.nextBlock().isSuccessfulEndOfStreamBlock(), "Second block is EOS (done processing)");
   }
 
+  /**
+   * Returns an operator computing the running SUM of 'arg' partitioned by 'group', with the input sorted on 'group'
+   * and 'arg'.
+   */
+  private WindowAggregateOperator getSortedInputOperator(DataSchema inputSchema, String windowOverflowMode,
+      int maxRowsInWindow) {
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"group", "arg", "sum"}, new ColumnDataType[]{INT, INT, DOUBLE});
+    List<Integer> keys = List.of(0);
+    List<RelFieldCollation> collations = List.of(new RelFieldCollation(1));
+    List<RexExpression.FunctionCall> aggCalls = List.of(getSum(new RexExpression.InputRef(1)));
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.WINDOW_HINT_OPTIONS,
+        Map.of(PinotHintOptions.WindowHintOptions.WINDOW_OVERFLOW_MODE, windowOverflowMode,
+            PinotHintOptions.WindowHintOptions.MAX_ROWS_IN_WINDOW, Integer.toString(maxRowsInWindow))));
+    MailboxReceiveNode receiveNode =
+        new MailboxReceiveNode(-1, inputSchema, List.of(), -1, PinotRelExchangeType.STREAMING,
+            RelDistribution.Type.HASH_DISTRIBUTED, keys, List.of(new RelFieldCollation(0), new RelFieldCollation(1)),
+            true, false, null);
+    return new WindowAggregateOperator(OperatorTestUtil.getTracingContext(), _input, inputSchema,
+        new WindowNode(-1, resultSchema, nodeHint, List.of(receiveNode), keys, collations, aggCalls,
+            WindowNode.WindowFrameType.RANGE, Integer.MIN_VALUE, 0, List.of()));
+  }
+
   private WindowAggregateOperator getOperator(DataSchema inputSchema, DataSchema resultSchema, List<Integer> keys,
       List<RelFieldCollation> collations, List<RexExpression.FunctionCall> aggCalls,
       WindowNode.WindowFrameType windowFrameType, int lowerBound, int upperBound, PlanNode.NodeHint nodeHint) {
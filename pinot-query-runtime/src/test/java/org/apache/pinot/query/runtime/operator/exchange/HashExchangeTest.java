@@ -20,13 +20,20 @@ package org.apache.pinot.query.runtime.operator.exchange;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
+import org.apache.pinot.query.planner.partitioning.SingleColumnKeySelector;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -83,6 +90,105 @@ public class HashExchangeTest {
     Assert.assertEquals(captor.getValue().getContainer().get(0), new Object[]{2});
   }
 
+  @Test
+  public void shouldSplitSkewedKeysAcrossMailboxes()
+      throws Exception {
+    // Given:
+    Mockito.when(_block.getContainer()).thenReturn(
+        ImmutableList.of(new Object[]{1}, new Object[]{1}, new Object[]{1}, new Object[]{1}, new Object[]{2}));
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2);
+    StatMap<MailboxSendOperator.StatKey> statMap = new StatMap<>(MailboxSendOperator.StatKey.class);
+    Map<String, String> hintOptions = Map.of(PinotHintOptions.ExchangeHintOptions.SKEWED_KEYS, "1",
+        PinotHintOptions.ExchangeHintOptions.SKEWED_KEYS_STRATEGY,
+        PinotHintOptions.ExchangeHintOptions.SPLIT_SKEWED_KEYS_STRATEGY);
+
+    // When:
+    new HashExchange(destinations, new SingleColumnKeySelector(0), hintOptions, statMap,
+        TransferableBlockUtils::splitBlock).route(destinations, _block);
+
+    // Then:
+    ArgumentCaptor<TransferableBlock> captor1 = ArgumentCaptor.forClass(TransferableBlock.class);
+    Mockito.verify(_mailbox1, Mockito.times(1)).send(captor1.capture());
+    ArgumentCaptor<TransferableBlock> captor2 = ArgumentCaptor.forClass(TransferableBlock.class);
+    Mockito.verify(_mailbox2, Mockito.times(1)).send(captor2.capture());
+    // Key 2 is hashed to the first mailbox, key 1 is spread across both mailboxes
+    Assert.assertEquals(captor1.getValue().getContainer().size(), 3);
+    Assert.assertEquals(captor2.getValue().getContainer().size(), 2);
+    for (Object[] row : captor2.getValue().getContainer()) {
+      Assert.assertEquals(row, new Object[]{1});
+    }
+    Assert.assertEquals(statMap.getLong(MailboxSendOperator.StatKey.SKEWED_KEY_ROWS), 4);
+  }
+
+  @Test
+  public void shouldBroadcastSkewedKeysToAllMailboxes()
+      throws Exception {
+    // Given:
+    Mockito.when(_block.getContainer()).thenReturn(ImmutableList.of(new Object[]{1}, new Object[]{2}));
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2);
+    StatMap<MailboxSendOperator.StatKey> statMap = new StatMap<>(MailboxSendOperator.StatKey.class);
+    Map<String, String> hintOptions = Map.of(PinotHintOptions.ExchangeHintOptions.SKEWED_KEYS, "1, 3",
+        PinotHintOptions.ExchangeHintOptions.SKEWED_KEYS_STRATEGY,
+        PinotHintOptions.ExchangeHintOptions.BROADCAST_SKEWED_KEYS_STRATEGY);
+
+    // When:
+    new HashExchange(destinations, new SingleColumnKeySelector(0), hintOptions, statMap,
+        TransferableBlockUtils::splitBlock).route(destinations, _block);
+
+    // Then:
+    ArgumentCaptor<TransferableBlock> captor1 = ArgumentCaptor.forClass(TransferableBlock.class);
+    Mockito.verify(_mailbox1, Mockito.times(1)).send(captor1.capture());
+    ArgumentCaptor<TransferableBlock> captor2 = ArgumentCaptor.forClass(TransferableBlock.class);
+    Mockito.verify(_mailbox2, Mockito.times(1)).send(captor2.capture());
+    // Key 2 is hashed to the first mailbox, key 1 is sent to both mailboxes
+    Assert.assertEquals(captor1.getValue().getContainer().size(), 2);
+    Assert.assertEquals(captor2.getValue().getContainer().size(), 1);
+    Assert.assertEquals(captor2.getValue().getContainer().get(0), new Object[]{1});
+    Assert.assertEquals(statMap.getLong(MailboxSendOperator.StatKey.SKEWED_KEY_ROWS), 1);
+  }
+
+  @Test
+  public void shouldReportHeavyHitterKey()
+      throws Exception {
+    // Given:
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < HashExchange.MIN_NUM_ROWS_TO_DETECT_HEAVY_HITTER; i++) {
+      rows.add(new Object[]{i % 3 == 0 ? i : 42});
+    }
+    Mockito.when(_block.getContainer()).thenReturn(rows);
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2);
+    StatMap<MailboxSendOperator.StatKey> statMap = new StatMap<>(MailboxSendOperator.StatKey.class);
+    HashExchange exchange = new HashExchange(destinations, new SingleColumnKeySelector(0), null, statMap,
+        TransferableBlockUtils::splitBlock);
+
+    // When:
+    exchange.route(destinations, _block);
+
+    // Then:
+    Assert.assertEquals(statMap.getString(MailboxSendOperator.StatKey.HEAVY_HITTER_KEY), "42");
+  }
+
+  @Test
+  public void shouldNotReportHeavyHitterKeyForUniformKeys()
+      throws Exception {
+    // Given:
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < HashExchange.MIN_NUM_ROWS_TO_DETECT_HEAVY_HITTER; i++) {
+      rows.add(new Object[]{i % 10});
+    }
+    Mockito.when(_block.getContainer()).thenReturn(rows);
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2);
+    StatMap<MailboxSendOperator.StatKey> statMap = new StatMap<>(MailboxSendOperator.StatKey.class);
+    HashExchange exchange = new HashExchange(destinations, new SingleColumnKeySelector(0), null, statMap,
+        TransferableBlockUtils::splitBlock);
+
+    // When:
+    exchange.route(destinations, _block);
+
+    // Then:
+    Assert.assertNull(statMap.getString(MailboxSendOperator.StatKey.HEAVY_HITTER_KEY));
+  }
+
   private static class TestSelector implements KeySelector<Object> {
     private final Iterator<Integer> _hashes;
 
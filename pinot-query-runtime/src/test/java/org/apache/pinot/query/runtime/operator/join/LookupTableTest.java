@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.join;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.data.table.Key;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class LookupTableTest {
+
+  private static DataSchema getDataSchema(ColumnDataType... columnDataTypes) {
+    String[] columnNames = new String[columnDataTypes.length];
+    for (int i = 0; i < columnNames.length; i++) {
+      columnNames[i] = "col" + i;
+    }
+    return new DataSchema(columnNames, columnDataTypes);
+  }
+
+  @Test
+  public void shouldSelectLookupTableByKeyType() {
+    int[] keyIds = new int[]{0};
+    assertTrue(LookupTableFactory.getLookupTable(getDataSchema(ColumnDataType.INT),
+        keyIds) instanceof IntLookupTable);
+    assertTrue(LookupTableFactory.getLookupTable(getDataSchema(ColumnDataType.BOOLEAN),
+        keyIds) instanceof IntLookupTable);
+    assertTrue(LookupTableFactory.getLookupTable(getDataSchema(ColumnDataType.LONG),
+        keyIds) instanceof LongLookupTable);
+    assertTrue(LookupTableFactory.getLookupTable(getDataSchema(ColumnDataType.TIMESTAMP),
+        keyIds) instanceof LongLookupTable);
+    assertTrue(LookupTableFactory.getLookupTable(getDataSchema(ColumnDataType.STRING),
+        keyIds) instanceof ObjectLookupTable);
+    assertTrue(LookupTableFactory.getLookupTable(getDataSchema(ColumnDataType.INT, ColumnDataType.INT),
+        new int[]{0, 1}) instanceof ObjectLookupTable);
+  }
+
+  @Test
+  public void shouldChainRowsWithSameIntKey() {
+    DataSchema dataSchema = getDataSchema(ColumnDataType.INT, ColumnDataType.INT);
+    testChainRows(new IntLookupTable(dataSchema, 0), new Object[]{1, 2, 1, null, 3, 1, null});
+  }
+
+  @Test
+  public void shouldChainRowsWithSameLongKey() {
+    DataSchema dataSchema = getDataSchema(ColumnDataType.LONG, ColumnDataType.INT);
+    testChainRows(new LongLookupTable(dataSchema, 0), new Object[]{1L, 2L, 1L, null, 3L, 1L, null});
+  }
+
+  @Test
+  public void shouldChainRowsWithSameDoubleKey() {
+    DataSchema dataSchema = getDataSchema(ColumnDataType.DOUBLE, ColumnDataType.INT);
+    testChainRows(new ObjectLookupTable(dataSchema, new int[]{0}), new Object[]{1.5, 2.5, 1.5, null, 3.5, 1.5, null});
+  }
+
+  @Test
+  public void shouldChainRowsWithSameStringKey() {
+    DataSchema dataSchema = getDataSchema(ColumnDataType.STRING, ColumnDataType.INT);
+    testChainRows(new ObjectLookupTable(dataSchema, new int[]{0}), new Object[]{"a", "b", "a", null, "c", "a", null});
+  }
+
+  @Test
+  public void shouldChainRowsWithSameMultiColumnKey() {
+    DataSchema dataSchema = getDataSchema(ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT);
+    LookupTable lookupTable = new ObjectLookupTable(dataSchema, new int[]{0, 1});
+    Object[][] keys = new Object[][]{{1, "a"}, {1, "b"}, {1, "a"}, {null, "a"}, {2, "a"}, {1, "a"}, {null, "a"}};
+    int numRounds = 10;
+    for (int round = 0; round < numRounds; round++) {
+      for (int i = 0; i < keys.length; i++) {
+        lookupTable.addRow(new Object[]{keys[i][0], keys[i][1], round * keys.length + i});
+      }
+    }
+    assertEquals(lookupTable.getNumRows(), numRounds * keys.length);
+    assertEquals(lookupTable.getNumKeys(), 4);
+    List<Integer> actualValues = new ArrayList<>();
+    for (int rowId = lookupTable.getFirstRowId(new Key(new Object[]{null, "a"})); rowId != LookupTable.INVALID_ID;
+        rowId = lookupTable.getNextRowId(rowId)) {
+      actualValues.add((Integer) lookupTable.getRow(rowId)[2]);
+    }
+    List<Integer> expectedValues = new ArrayList<>();
+    for (int round = 0; round < numRounds; round++) {
+      expectedValues.add(round * keys.length + 3);
+      expectedValues.add(round * keys.length + 6);
+    }
+    assertEquals(actualValues, expectedValues);
+    assertFalse(lookupTable.containsKey(null));
+  }
+
+  @Test
+  public void shouldGroupAllRowsWithoutKey() {
+    LookupTable lookupTable = new ObjectLookupTable(getDataSchema(ColumnDataType.INT), new int[0]);
+    for (int i = 0; i < 20; i++) {
+      lookupTable.addRow(new Object[]{i});
+    }
+    assertEquals(lookupTable.getNumKeys(), 1);
+    int numRows = 0;
+    for (int rowId = lookupTable.getFirstRowId(null); rowId != LookupTable.INVALID_ID;
+        rowId = lookupTable.getNextRowId(rowId)) {
+      assertEquals(lookupTable.getRow(rowId)[0], numRows++);
+    }
+    assertEquals(numRows, 20);
+  }
+
+  @Test
+  public void shouldAddRowsFromDataBlock()
+      throws Exception {
+    DataSchema dataSchema = getDataSchema(ColumnDataType.INT, ColumnDataType.LONG, ColumnDataType.FLOAT,
+        ColumnDataType.DOUBLE, ColumnDataType.STRING, ColumnDataType.BOOLEAN, ColumnDataType.INT_ARRAY);
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      if (i % 10 == 0) {
+        rows.add(new Object[]{null, null, null, null, null, null, null});
+      } else {
+        rows.add(new Object[]{i % 7, (long) i, (float) i, (double) i, "s" + i, i % 2, new int[]{i}});
+      }
+    }
+    DataBlock dataBlock = DataBlockBuilder.buildFromRows(rows, dataSchema);
+
+    LookupTable fromDataBlock = LookupTableFactory.getLookupTable(dataSchema, new int[]{0});
+    fromDataBlock.addRows(dataBlock);
+    LookupTable fromRows = LookupTableFactory.getLookupTable(dataSchema, new int[]{0});
+    for (Object[] row : rows) {
+      fromRows.addRow(row);
+    }
+    assertEquals(fromDataBlock.getNumRows(), 100);
+    assertEquals(fromDataBlock.getNumKeys(), 8);
+    assertEquals(fromRows.getNumKeys(), 8);
+    for (int rowId = 0; rowId < 100; rowId++) {
+      assertEquals(fromDataBlock.getRow(rowId), rows.get(rowId));
+      assertEquals(fromRows.getRow(rowId), rows.get(rowId));
+      Object[] joinedRow = new Object[9];
+      fromDataBlock.copyRow(rowId, joinedRow, 2);
+      for (int colId = 0; colId < 7; colId++) {
+        assertEquals(joinedRow[colId + 2], rows.get(rowId)[colId]);
+      }
+    }
+    for (Object key : new Object[]{null, 0, 3, 6}) {
+      List<Integer> expectedRowIds = new ArrayList<>();
+      for (int rowId = 0; rowId < 100; rowId++) {
+        Object value = rows.get(rowId)[0];
+        if (key == null ? value == null : key.equals(value)) {
+          expectedRowIds.add(rowId);
+        }
+      }
+      List<Integer> actualRowIds = new ArrayList<>();
+      for (int rowId = fromDataBlock.getFirstRowId(key); rowId != LookupTable.INVALID_ID;
+          rowId = fromDataBlock.getNextRowId(rowId)) {
+        actualRowIds.add(rowId);
+      }
+      assertEquals(actualRowIds, expectedRowIds);
+    }
+  }
+
+  private void testChainRows(LookupTable lookupTable, Object[] keys) {
+    // Add enough rows to trigger the resize of the row and key arrays
+    int numRounds = 10;
+    for (int round = 0; round < numRounds; round++) {
+      for (int i = 0; i < keys.length; i++) {
+        lookupTable.addRow(new Object[]{keys[i], round * keys.length + i});
+      }
+    }
+    assertEquals(lookupTable.getNumRows(), numRounds * keys.length);
+    assertEquals(lookupTable.getNumKeys(), 4);
+    for (Object key : keys) {
+      assertTrue(lookupTable.containsKey(key));
+      // Rows with the same key should be chained in insertion order
+      List<Integer> expectedValues = new ArrayList<>();
+      for (int round = 0; round < numRounds; round++) {
+        for (int i = 0; i < keys.length; i++) {
+          if (key == null ? keys[i] == null : keys[i] != null && key.equals(keys[i])) {
+            expectedValues.add(round * keys.length + i);
+          }
+        }
+      }
+      List<Integer> actualValues = new ArrayList<>();
+      for (int rowId = lookupTable.getFirstRowId(key); rowId != LookupTable.INVALID_ID;
+          rowId = lookupTable.getNextRowId(rowId)) {
+        Object[] row = lookupTable.getRow(rowId);
+        assertEquals(row[0], key);
+        actualValues.add((Integer) row[1]);
+      }
+      assertEquals(actualValues, expectedValues);
+    }
+    List<Object[]> rows = lookupTable.getRows();
+    for (int rowId = 0; rowId < rows.size(); rowId++) {
+      assertEquals(rows.get(rowId)[1], rowId);
+    }
+
+    lookupTable.clear();
+    assertEquals(lookupTable.getNumRows(), 0);
+    assertEquals(lookupTable.getNumKeys(), 0);
+    for (Object key : keys) {
+      assertFalse(lookupTable.containsKey(key));
+      assertEquals(lookupTable.getFirstRowId(key), LookupTable.INVALID_ID);
+    }
+    lookupTable.addRow(new Object[]{keys[0], 0});
+    assertEquals(lookupTable.getRow(lookupTable.getFirstRowId(keys[0])), new Object[]{keys[0], 0});
+    // Null values should be cleared when reusing the table
+    lookupTable.addRow(new Object[]{keys[0], 1});
+    assertEquals(lookupTable.getRow(1), new Object[]{keys[0], 1});
+  }
+}
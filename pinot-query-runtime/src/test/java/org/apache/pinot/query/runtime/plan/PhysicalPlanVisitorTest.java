@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.plan;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.calcite.rel.RelDistribution;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.query.planner.plannode.JoinNode;
+import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
+import org.apache.pinot.query.planner.plannode.PlanNode;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.HashJoinOperator;
+import org.apache.pinot.query.runtime.operator.OperatorTestUtil;
+import org.apache.pinot.query.runtime.operator.SortMergeJoinOperator;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertTrue;
+
+
+public class PhysicalPlanVisitorTest {
+  private static final DataSchema INPUT_SCHEMA =
+      new DataSchema(new String[]{"key", "value"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+  private static final DataSchema JOIN_SCHEMA =
+      new DataSchema(new String[]{"key1", "value1", "key2", "value2"}, new ColumnDataType[]{
+          ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+      });
+  private static final PlanNode.NodeHint SORT_MERGE_HINT = new PlanNode.NodeHint(Map.of(
+      PinotHintOptions.JOIN_HINT_OPTIONS, Map.of(PinotHintOptions.JoinHintOptions.JOIN_STRATEGY,
+          PinotHintOptions.JoinHintOptions.SORT_MERGE_JOIN_STRATEGY)));
+
+  @Test
+  public void testSortMergeJoinWithHint() {
+    assertTrue(getJoinOperator(SORT_MERGE_HINT, true) instanceof SortMergeJoinOperator);
+  }
+
+  @Test
+  public void testHashJoinWithoutHint() {
+    // Inputs received sorted on the join keys must not switch the join strategy without the hint
+    assertTrue(getJoinOperator(PlanNode.NodeHint.EMPTY, true) instanceof HashJoinOperator);
+    PlanNode.NodeHint otherStrategyHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.JOIN_HINT_OPTIONS,
+        Map.of(PinotHintOptions.JoinHintOptions.JOIN_STRATEGY,
+            PinotHintOptions.JoinHintOptions.DYNAMIC_BROADCAST_JOIN_STRATEGY)));
+    assertTrue(getJoinOperator(otherStrategyHint, true) instanceof HashJoinOperator);
+  }
+
+  @Test
+  public void testHashJoinWithHintOnUnsortedInputs() {
+    assertTrue(getJoinOperator(SORT_MERGE_HINT, false) instanceof HashJoinOperator);
+  }
+
+  private static Operator<TransferableBlock> getJoinOperator(PlanNode.NodeHint nodeHint, boolean sortedInputs) {
+    JoinNode joinNode = new JoinNode(0, JOIN_SCHEMA, nodeHint,
+        List.of(getReceiveNode(1, sortedInputs), getReceiveNode(2, sortedInputs)), JoinRelType.INNER, List.of(0),
+        List.of(0), List.of());
+    return PhysicalPlanVisitor.walkPlanNode(joinNode, OperatorTestUtil.getNoTracingContext()).getRoot();
+  }
+
+  private static MailboxReceiveNode getReceiveNode(int senderStageId, boolean sorted) {
+    return new MailboxReceiveNode(0, INPUT_SCHEMA, List.of(), senderStageId, PinotRelExchangeType.STREAMING,
+        RelDistribution.Type.HASH_DISTRIBUTED, List.of(0), sorted ? List.of(new RelFieldCollation(0)) : null, sorted,
+        false, null);
+  }
+}
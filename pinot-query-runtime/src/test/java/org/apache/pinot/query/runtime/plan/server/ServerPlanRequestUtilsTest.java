@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.plan.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.request.RequestUtils;
+import org.apache.pinot.sql.FilterKind;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+
+public class ServerPlanRequestUtilsTest {
+  private static final DataSchema RIGHT_SCHEMA =
+      new DataSchema(new String[]{"key1", "key2"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+
+  @Test
+  public void testDynamicFilterPerKey() {
+    PinotQuery pinotQuery = getPinotQuery();
+    List<Object[]> rows = List.of(new Object[]{3, "b"}, new Object[]{1, "a"}, new Object[]{3, null});
+    ServerPlanRequestUtils.attachDynamicFilter(pinotQuery, List.of(0, 1), List.of(0, 1), rows, RIGHT_SCHEMA,
+        Integer.MAX_VALUE);
+    // The values are sorted, without duplicates and nulls
+    assertEquals(pinotQuery.getFilterExpression(),
+        RequestUtils.getFunctionExpression(FilterKind.AND.name(), List.of(getInFilter("col1", 1, 3),
+            getInFilter("col2", "a", "b"))));
+  }
+
+  @Test
+  public void testDynamicFilterMaxValues() {
+    PinotQuery pinotQuery = getPinotQuery();
+    Expression existingFilter = getInFilter("col3", 10);
+    pinotQuery.setFilterExpression(existingFilter);
+    List<Object[]> rows = List.of(new Object[]{1, "a"}, new Object[]{2, "a"}, new Object[]{3, "a"});
+    ServerPlanRequestUtils.attachDynamicFilter(pinotQuery, List.of(0, 1), List.of(0, 1), rows, RIGHT_SCHEMA, 2);
+    assertEquals(pinotQuery.getFilterExpression(),
+        RequestUtils.getFunctionExpression(FilterKind.AND.name(), List.of(getInFilter("col2", "a"), existingFilter)));
+
+    // No filter is attached when all the keys have too many values
+    pinotQuery = getPinotQuery();
+    ServerPlanRequestUtils.attachDynamicFilter(pinotQuery, List.of(0), List.of(0), rows, RIGHT_SCHEMA, 2);
+    assertNull(pinotQuery.getFilterExpression());
+  }
+
+  @Test
+  public void testDynamicFilterWithoutValues() {
+    PinotQuery pinotQuery = getPinotQuery();
+    List<Object[]> rows = List.<Object[]>of(new Object[]{null, "a"});
+    ServerPlanRequestUtils.attachDynamicFilter(pinotQuery, List.of(0), List.of(0), rows, RIGHT_SCHEMA, 0);
+    assertEquals(pinotQuery.getFilterExpression(), RequestUtils.getLiteralExpression(false));
+  }
+
+  private static PinotQuery getPinotQuery() {
+    PinotQuery pinotQuery = new PinotQuery();
+    pinotQuery.setSelectList(new ArrayList<>(List.of(RequestUtils.getIdentifierExpression("col1"),
+        RequestUtils.getIdentifierExpression("col2"), RequestUtils.getIdentifierExpression("col3"))));
+    return pinotQuery;
+  }
+
+  private static Expression getInFilter(String column, Object... values) {
+    List<Expression> operands = new ArrayList<>();
+    operands.add(RequestUtils.getIdentifierExpression(column));
+    Arrays.stream(values).map(RequestUtils::getLiteralExpression).forEach(operands::add);
+    return RequestUtils.getFunctionExpression(FilterKind.IN.name(), operands);
+  }
+}
@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.reader.impl;
+
+import com.google.common.base.Preconditions;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+
+
+/**
+ * Matcher for bit-compressed data (same format as {@link FixedBitIntReader}), which finds the indexes of the values
+ * within a set of ranges without unpacking the values.
+ *
+ * <p>The values are processed as lanes of a 64-bit word (SIMD within a register): each step loads a 64-bit word
+ * starting from the byte containing the first value, which holds at least {@code 57 / numBitsPerValue} complete values.
+ * The range checks are performed on all the lanes at once with carry-isolated arithmetic, and only the indexes of the
+ * matching lanes are extracted, so the cost of scanning is mostly independent of the number of values in a word.
+ */
+public final class FixedBitIntRangeMatcher {
+  // Max number of bits per value to use the matcher, so that there are at least 3 values in a word
+  public static final int MAX_NUM_BITS_PER_VALUE = 16;
+  // Max number of ranges to use the matcher
+  public static final int MAX_NUM_RANGES = 4;
+
+  private final PinotDataBuffer _dataBuffer;
+  private final FixedBitIntReader _reader;
+  private final int _numBitsPerValue;
+  private final int _numValuesPerWord;
+  // Indexes of the values that can be loaded with a 64-bit word without exceeding the data buffer are below this value
+  private final int _wordEndIndex;
+  // Mask of the bits for the complete values in a word
+  private final long _valueMask;
+  // Mask of the highest bit of each value
+  private final long _highBitMask;
+  // Mask of the lower bits of each value
+  private final long _lowBitsMask;
+  private final int[] _rangeStarts;
+  private final int[] _rangeEnds;
+  // Range start/end broadcast to all the values of a word
+  private final long[] _wordRangeStarts;
+  private final long[] _wordRangeEnds;
+  private final int _numRanges;
+
+  /**
+   * Creates a matcher for the values within any of the given inclusive ranges. The ranges should not overlap.
+   */
+  public FixedBitIntRangeMatcher(PinotDataBuffer dataBuffer, int numValues, int numBitsPerValue, int[] rangeStarts,
+      int[] rangeEnds) {
+    Preconditions.checkArgument(numBitsPerValue > 0 && numBitsPerValue <= MAX_NUM_BITS_PER_VALUE,
+        "Unsupported number of bits per value: %s", numBitsPerValue);
+    Preconditions.checkArgument(rangeStarts.length == rangeEnds.length && rangeStarts.length <= MAX_NUM_RANGES,
+        "Unsupported number of ranges: %s", rangeStarts.length);
+    _dataBuffer = dataBuffer;
+    _reader = FixedBitIntReader.getReader(dataBuffer, numBitsPerValue);
+    _numBitsPerValue = numBitsPerValue;
+    _numValuesPerWord = (Long.SIZE - Byte.SIZE + 1) / numBitsPerValue;
+    long numWordBytes = dataBuffer.size() - Long.BYTES;
+    _wordEndIndex = numWordBytes >= 0 ? (int) Math.min(numValues - _numValuesPerWord + 1,
+        (numWordBytes * Byte.SIZE) / numBitsPerValue + 1) : 0;
+    _valueMask = -1L << (Long.SIZE - _numValuesPerWord * numBitsPerValue);
+    long highBitMask = 0;
+    long lowestValueMask = (1L << numBitsPerValue) - 1;
+    long broadcastOnes = 0;
+    for (int i = 0; i < _numValuesPerWord; i++) {
+      int shift = Long.SIZE - (i + 1) * numBitsPerValue;
+      highBitMask |= 1L << (shift + numBitsPerValue - 1);
+      broadcastOnes |= 1L << shift;
+    }
+    _highBitMask = highBitMask;
+    _lowBitsMask = _valueMask & ~highBitMask;
+    _numRanges = rangeStarts.length;
+    _rangeStarts = rangeStarts;
+    _rangeEnds = rangeEnds;
+    _wordRangeStarts = new long[_numRanges];
+    _wordRangeEnds = new long[_numRanges];
+    for (int i = 0; i < _numRanges; i++) {
+      Preconditions.checkArgument(rangeStarts[i] >= 0 && rangeStarts[i] <= rangeEnds[i]
+          && rangeEnds[i] <= lowestValueMask, "Invalid range: [%s, %s]", rangeStarts[i], rangeEnds[i]);
+      _wordRangeStarts[i] = rangeStarts[i] * broadcastOnes;
+      _wordRangeEnds[i] = rangeEnds[i] * broadcastOnes;
+    }
+  }
+
+  /**
+   * Writes the indexes (in ascending order) of the matching values within [startIndex, endIndex) into the given buffer,
+   * and returns the number of matching values. The buffer should have enough space to hold all the indexes in the
+   * given range.
+   */
+  public int match(int startIndex, int endIndex, int[] buffer) {
+    int numMatches = 0;
+    int index = startIndex;
+    int wordEndIndex = Math.min(endIndex - _numValuesPerWord + 1, _wordEndIndex);
+    while (index < wordEndIndex) {
+      long bitOffset = (long) index * _numBitsPerValue;
+      long word = (_dataBuffer.getLong(bitOffset >>> 3) << (bitOffset & 0x7)) & _valueMask;
+      long matches = matchWord(word);
+      while (matches != 0) {
+        int numLeadingZeros = Long.numberOfLeadingZeros(matches);
+        buffer[numMatches++] = index + numLeadingZeros / _numBitsPerValue;
+        matches ^= Long.MIN_VALUE >>> numLeadingZeros;
+      }
+      index += _numValuesPerWord;
+    }
+    for (; index < endIndex; index++) {
+      int value = _reader.read(index);
+      for (int i = 0; i < _numRanges; i++) {
+        if (value >= _rangeStarts[i] && value <= _rangeEnds[i]) {
+          buffer[numMatches++] = index;
+          break;
+        }
+      }
+    }
+    return numMatches;
+  }
+
+  /**
+   * Returns a word with the highest bit of each matching value set.
+   */
+  private long matchWord(long word) {
+    long matches = 0;
+    for (int i = 0; i < _numRanges; i++) {
+      long rangeStart = _wordRangeStarts[i];
+      long rangeEnd = _wordRangeEnds[i];
+      if (rangeStart == rangeEnd) {
+        matches |= equal(word, rangeStart);
+      } else {
+        matches |= greaterThanOrEqual(word, rangeStart) & greaterThanOrEqual(rangeEnd, word);
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Returns the highest bit of each value set if the value in {@code word1} is equal to the value in {@code word2}.
+   */
+  private long equal(long word1, long word2) {
+    long diff = word1 ^ word2;
+    // Adding the lower bits mask carries into the highest bit iff any lower bit is set, and never carries into the next
+    // value
+    long nonZero = (((diff & _lowBitsMask) + _lowBitsMask) | diff) & _highBitMask;
+    return nonZero ^ _highBitMask;
+  }
+
+  /**
+   * Returns the highest bit of each value set if the value in {@code word1} is greater than or equal to the value in
+   * {@code word2}.
+   */
+  private long greaterThanOrEqual(long word1, long word2) {
+    // Compare the lower bits by subtracting with the highest bit of word1 set and the highest bit of word2 cleared, so
+    // that the subtraction never borrows from the next value. The highest bit of the difference is set iff the lower
+    // bits of word1 are greater than or equal to the lower bits of word2.
+    long diff = (word1 | _highBitMask) - (word2 & _lowBitsMask);
+    // Combine with the highest bits: the result is the majority of (high1, ~high2, diff)
+    long notWord2 = ~word2;
+    return ((word1 & notWord2) | (word1 & diff) | (notWord2 & diff)) & _highBitMask;
+  }
+}
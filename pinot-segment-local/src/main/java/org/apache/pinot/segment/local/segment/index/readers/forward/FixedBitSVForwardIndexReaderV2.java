@@ -19,6 +19,8 @@
 package org.apache.pinot.segment.local.segment.index.readers.forward;
 
 import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.io.reader.impl.FixedBitIntRangeMatcher;
 import org.apache.pinot.segment.local.io.reader.impl.FixedBitIntReader;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
@@ -31,11 +33,13 @@ import org.apache.pinot.spi.data.FieldSpec.DataType;
  * ids.
  */
 public final class FixedBitSVForwardIndexReaderV2 implements ForwardIndexReader<ForwardIndexReaderContext> {
+  private final PinotDataBuffer _dataBuffer;
   private final FixedBitIntReader _reader;
   private final int _numDocs;
   private final int _numBitsPerValue;
 
   public FixedBitSVForwardIndexReaderV2(PinotDataBuffer dataBuffer, int numDocs, int numBitsPerValue) {
+    _dataBuffer = dataBuffer;
     _reader = FixedBitIntReader.getReader(dataBuffer, numBitsPerValue);
     _numDocs = numDocs;
     _numBitsPerValue = numBitsPerValue;
@@ -98,6 +102,23 @@ public final class FixedBitSVForwardIndexReaderV2 implements ForwardIndexReader<
     }
   }
 
+  /**
+   * Returns a matcher which finds the docs with dictionary id within any of the given inclusive ranges directly on the
+   * bit-compressed data, or {@code null} if the number of bits per value or the number of ranges is not supported.
+   */
+  @Nullable
+  public FixedBitIntRangeMatcher createDictIdRangeMatcher(int[] rangeStarts, int[] rangeEnds) {
+    if (_numBitsPerValue > FixedBitIntRangeMatcher.MAX_NUM_BITS_PER_VALUE
+        || rangeStarts.length > FixedBitIntRangeMatcher.MAX_NUM_RANGES) {
+      return null;
+    }
+    return new FixedBitIntRangeMatcher(_dataBuffer, _numDocs, _numBitsPerValue, rangeStarts, rangeEnds);
+  }
+
+  public int getNumBitsPerValue() {
+    return _numBitsPerValue;
+  }
+
   @Override
   public void close() {
   }
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.reader.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.writer.impl.FixedBitSVForwardIndexWriter;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class FixedBitIntRangeMatcherTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "FixedBitIntRangeMatcherTest");
+  private static final int NUM_VALUES = 1001;
+  private static final int NUM_ITERATIONS = 20;
+  private static final Random RANDOM = new Random();
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(INDEX_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+
+  @Test
+  public void testFixedBitIntRangeMatcher()
+      throws Exception {
+    int[] values = new int[NUM_VALUES];
+    for (int numBits = 1; numBits <= FixedBitIntRangeMatcher.MAX_NUM_BITS_PER_VALUE; numBits++) {
+      File indexFile = new File(INDEX_DIR, "bit-" + numBits);
+      int maxValue = (1 << numBits) - 1;
+      try (
+          FixedBitSVForwardIndexWriter indexWriter = new FixedBitSVForwardIndexWriter(indexFile, NUM_VALUES, numBits)) {
+        for (int i = 0; i < NUM_VALUES; i++) {
+          // Use a small set of values for larger number of bits so that there are matches
+          int value = RANDOM.nextBoolean() ? RANDOM.nextInt(maxValue + 1) : RANDOM.nextInt(Math.min(maxValue, 7) + 1);
+          values[i] = value;
+          indexWriter.putDictId(value);
+        }
+      }
+      try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile)) {
+        // Boundary values
+        testMatch(dataBuffer, values, numBits, new int[]{0}, new int[]{0});
+        testMatch(dataBuffer, values, numBits, new int[]{maxValue}, new int[]{maxValue});
+        testMatch(dataBuffer, values, numBits, new int[]{0}, new int[]{maxValue});
+        testMatch(dataBuffer, values, numBits, new int[]{0, maxValue}, new int[]{0, maxValue});
+
+        for (int i = 0; i < NUM_ITERATIONS; i++) {
+          int numRanges = 1 + RANDOM.nextInt(FixedBitIntRangeMatcher.MAX_NUM_RANGES);
+          int[] bounds = new int[2 * numRanges];
+          for (int j = 0; j < bounds.length; j++) {
+            bounds[j] = RANDOM.nextInt(Math.min(maxValue, 15) + 1);
+          }
+          Arrays.sort(bounds);
+          int[] rangeStarts = new int[numRanges];
+          int[] rangeEnds = new int[numRanges];
+          for (int j = 0; j < numRanges; j++) {
+            rangeStarts[j] = bounds[2 * j];
+            // Make some of the ranges single value
+            rangeEnds[j] = RANDOM.nextBoolean() ? bounds[2 * j] : bounds[2 * j + 1];
+          }
+          testMatch(dataBuffer, values, numBits, rangeStarts, rangeEnds);
+        }
+      }
+    }
+  }
+
+  private static void testMatch(PinotDataBuffer dataBuffer, int[] values, int numBits, int[] rangeStarts,
+      int[] rangeEnds) {
+    FixedBitIntRangeMatcher matcher =
+        new FixedBitIntRangeMatcher(dataBuffer, NUM_VALUES, numBits, rangeStarts, rangeEnds);
+    int[] buffer = new int[NUM_VALUES];
+    int[] expected = new int[NUM_VALUES];
+    // Match the whole data, and random sub-ranges to cover the unaligned start and end
+    int[][] indexRanges = new int[NUM_ITERATIONS + 1][];
+    indexRanges[0] = new int[]{0, NUM_VALUES};
+    for (int i = 1; i <= NUM_ITERATIONS; i++) {
+      int startIndex = RANDOM.nextInt(NUM_VALUES);
+      indexRanges[i] = new int[]{startIndex, startIndex + RANDOM.nextInt(NUM_VALUES - startIndex + 1)};
+    }
+    for (int[] indexRange : indexRanges) {
+      int startIndex = indexRange[0];
+      int endIndex = indexRange[1];
+      int numExpectedMatches = 0;
+      for (int i = startIndex; i < endIndex; i++) {
+        for (int j = 0; j < rangeStarts.length; j++) {
+          if (values[i] >= rangeStarts[j] && values[i] <= rangeEnds[j]) {
+            expected[numExpectedMatches++] = i;
+            break;
+          }
+        }
+      }
+      int numMatches = matcher.match(startIndex, endIndex, buffer);
+      assertEquals(Arrays.copyOf(buffer, numMatches), Arrays.copyOf(expected, numExpectedMatches),
+          String.format("numBits: %d, ranges: %s - %s, indexes: [%d, %d)", numBits, Arrays.toString(rangeStarts),
+              Arrays.toString(rangeEnds), startIndex, endIndex));
+    }
+  }
+}
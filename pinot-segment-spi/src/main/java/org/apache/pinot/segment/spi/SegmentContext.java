@@ -26,6 +26,9 @@ public class SegmentContext {
   private final IndexSegment _indexSegment;
   @Nullable
   private MutableRoaringBitmap _queryableDocIdsSnapshot = null;
+  // Range of the doc ids to be processed [startDocId, endDocId), where -1 end doc id means the whole segment
+  private int _startDocId = 0;
+  private int _endDocId = -1;
 
   public SegmentContext(IndexSegment indexSegment) {
     _indexSegment = indexSegment;
@@ -43,4 +46,33 @@ public class SegmentContext {
   public void setQueryableDocIdsSnapshot(@Nullable MutableRoaringBitmap queryableDocIdsSnapshot) {
     _queryableDocIdsSnapshot = queryableDocIdsSnapshot;
   }
+
+  /**
+   * Returns a copy of this context which only processes the docs within [startDocId, endDocId) of the segment.
+   */
+  public SegmentContext withDocIdRange(int startDocId, int endDocId) {
+    SegmentContext segmentContext = new SegmentContext(_indexSegment);
+    segmentContext._queryableDocIdsSnapshot = _queryableDocIdsSnapshot;
+    segmentContext._startDocId = startDocId;
+    segmentContext._endDocId = endDocId;
+    return segmentContext;
+  }
+
+  /**
+   * Returns {@code true} if only a range of the docs should be processed, {@code false} for the whole segment.
+   */
+  public boolean hasDocIdRange() {
+    return _endDocId >= 0;
+  }
+
+  public int getStartDocId() {
+    return _startDocId;
+  }
+
+  /**
+   * Returns the end doc id (exclusive) of the docs to be processed, or -1 for the whole segment.
+   */
+  public int getEndDocId() {
+    return _endDocId;
+  }
 }
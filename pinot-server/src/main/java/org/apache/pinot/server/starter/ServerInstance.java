@@ -36,6 +36,7 @@ import org.apache.pinot.core.data.manager.InstanceDataManager;
 import org.apache.pinot.core.operator.transform.function.TransformFunction;
 import org.apache.pinot.core.operator.transform.function.TransformFunctionFactory;
 import org.apache.pinot.core.query.executor.QueryExecutor;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.core.query.logger.ServerQueryLogger;
 import org.apache.pinot.core.query.scheduler.QueryScheduler;
 import org.apache.pinot.core.query.scheduler.QuerySchedulerFactory;
@@ -66,6 +67,8 @@ public class ServerInstance {
 
   private final ServerMetrics _serverMetrics;
   private final InstanceDataManager _instanceDataManager;
+  // Segment level results cache shared by all the tables, null when disabled
+  private final SegmentResultCache _segmentResultCache;
   private final QueryExecutor _queryExecutor;
   private final LongAccumulator _latestQueryTime;
   private final QueryScheduler _queryScheduler;
@@ -99,6 +102,9 @@ public class ServerInstance {
     LOGGER.info("Initializing instance data manager of class: {}", instanceDataManagerClassName);
     _instanceDataManager = PluginManager.get().createInstance(instanceDataManagerClassName);
     _instanceDataManager.init(serverConf.getInstanceDataManagerConfig(), helixManager, _serverMetrics);
+    PinotConfiguration queryExecutorConfig = serverConf.getQueryExecutorConfig();
+    _segmentResultCache = SegmentResultCache.create(queryExecutorConfig);
+    _instanceDataManager.setSegmentResultCache(_segmentResultCache);
 
     // Initialize ServerQueryLogger and FunctionRegistry before starting the query executor
     ServerQueryLogger.init(serverConf.getQueryLogMaxRate(), serverConf.getQueryLogDroppedReportMaxRate(),
@@ -107,7 +113,6 @@ public class ServerInstance {
     String queryExecutorClassName = serverConf.getQueryExecutorClassName();
     LOGGER.info("Initializing query executor of class: {}", queryExecutorClassName);
     _queryExecutor = PluginManager.get().createInstance(queryExecutorClassName);
-    PinotConfiguration queryExecutorConfig = serverConf.getQueryExecutorConfig();
     _queryExecutor.init(queryExecutorConfig, _instanceDataManager, _serverMetrics);
 
     LOGGER.info("Initializing query scheduler");
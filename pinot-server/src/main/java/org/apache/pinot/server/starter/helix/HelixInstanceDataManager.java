@@ -58,6 +58,7 @@ import org.apache.pinot.core.data.manager.realtime.PinotFSSegmentUploader;
 import org.apache.pinot.core.data.manager.realtime.RealtimeSegmentDataManager;
 import org.apache.pinot.core.data.manager.realtime.SegmentBuildTimeLeaseExtender;
 import org.apache.pinot.core.data.manager.realtime.SegmentUploader;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.core.util.SegmentRefreshSemaphore;
 import org.apache.pinot.segment.local.data.manager.SegmentDataManager;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
@@ -94,6 +95,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private SegmentUploader _segmentUploader;
   private Supplier<Boolean> _isServerReadyToServeQueries = () -> false;
+  private SegmentResultCache _segmentResultCache;
   private long _externalViewDroppedMaxWaitMs;
   private long _externalViewDroppedCheckInternalMs;
 
@@ -108,6 +110,17 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     _isServerReadyToServeQueries = isServingQueries;
   }
 
+  @Override
+  public void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache) {
+    _segmentResultCache = segmentResultCache;
+  }
+
+  @Nullable
+  @Override
+  public SegmentResultCache getSegmentResultCache() {
+    return _segmentResultCache;
+  }
+
   @Override
   public synchronized void init(PinotConfiguration config, HelixManager helixManager, ServerMetrics serverMetrics)
       throws ConfigurationException {
@@ -288,7 +301,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     Preconditions.checkState(tableConfig != null, "Failed to find table config for table: %s", tableNameWithType);
     TableDataManager tableDataManager =
         _tableDataManagerProvider.getTableDataManager(tableConfig, _segmentPreloadExecutor, _errorCache,
-            _isServerReadyToServeQueries);
+            _isServerReadyToServeQueries, _segmentResultCache);
     tableDataManager.start();
     LOGGER.info("Created table data manager for table: {}", tableNameWithType);
     return tableDataManager;
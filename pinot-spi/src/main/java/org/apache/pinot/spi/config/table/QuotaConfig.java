@@ -34,19 +34,30 @@ import org.apache.pinot.spi.utils.DataSizeUtils;
 public class QuotaConfig extends BaseJsonConfig {
   private static final long INVALID_STORAGE_IN_BYTES = -1L;
   private static final double INVALID_MAX_QPS = -1.0;
+  private static final double INVALID_MAX_DOCS_SCANNED_RATE = -1.0;
 
   @JsonPropertyDescription("Storage allocated for this table, e.g. \"10G\"")
   private final String _storage;
 
   private final String _maxQueriesPerSecond;
 
-  // NOTE: These two fields are not to be serialized
+  @JsonPropertyDescription("Max number of documents (estimated before the query is executed) the queries can scan per "
+      + "second, e.g. \"1e9\"")
+  private final String _maxDocsScannedPerSecond;
+
+  // NOTE: These fields are not to be serialized
   private transient final long _storageInBytes;
   private transient final double _maxQPS;
+  private transient final double _maxDocsScannedRate;
+
+  public QuotaConfig(@Nullable String storage, @Nullable String maxQueriesPerSecond) {
+    this(storage, maxQueriesPerSecond, null);
+  }
 
   @JsonCreator
   public QuotaConfig(@JsonProperty("storage") @Nullable String storage,
-      @JsonProperty("maxQueriesPerSecond") @Nullable String maxQueriesPerSecond) {
+      @JsonProperty("maxQueriesPerSecond") @Nullable String maxQueriesPerSecond,
+      @JsonProperty("maxDocsScannedPerSecond") @Nullable String maxDocsScannedPerSecond) {
     // Validate and standardize the value
     if (storage != null) {
       try {
@@ -71,6 +82,18 @@ public class QuotaConfig extends BaseJsonConfig {
       _maxQPS = INVALID_MAX_QPS;
       _maxQueriesPerSecond = null;
     }
+    if (maxDocsScannedPerSecond != null) {
+      try {
+        _maxDocsScannedRate = Double.parseDouble(maxDocsScannedPerSecond);
+        Preconditions.checkArgument(_maxDocsScannedRate > 0);
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Invalid 'maxDocsScannedPerSecond': " + maxDocsScannedPerSecond);
+      }
+      _maxDocsScannedPerSecond = Double.toString(_maxDocsScannedRate);
+    } else {
+      _maxDocsScannedRate = INVALID_MAX_DOCS_SCANNED_RATE;
+      _maxDocsScannedPerSecond = null;
+    }
   }
 
   @Nullable
@@ -83,6 +106,11 @@ public class QuotaConfig extends BaseJsonConfig {
     return _maxQueriesPerSecond;
   }
 
+  @Nullable
+  public String getMaxDocsScannedPerSecond() {
+    return _maxDocsScannedPerSecond;
+  }
+
   @JsonIgnore
   public long getStorageInBytes() {
     return _storageInBytes;
@@ -92,4 +120,9 @@ public class QuotaConfig extends BaseJsonConfig {
   public double getMaxQPS() {
     return _maxQPS;
   }
+
+  @JsonIgnore
+  public double getMaxDocsScannedRate() {
+    return _maxDocsScannedRate;
+  }
 }
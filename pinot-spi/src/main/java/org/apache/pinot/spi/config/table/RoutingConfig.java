@@ -29,6 +29,7 @@ public class RoutingConfig extends BaseJsonConfig {
   public static final String PARTITION_SEGMENT_PRUNER_TYPE = "partition";
   public static final String TIME_SEGMENT_PRUNER_TYPE = "time";
   public static final String EMPTY_SEGMENT_PRUNER_TYPE = "empty";
+  public static final String VALUE_SEGMENT_PRUNER_TYPE = "value";
   public static final String DEFAULT_INSTANCE_SELECTOR_TYPE = "balanced";
   public static final String REPLICA_GROUP_INSTANCE_SELECTOR_TYPE = "replicaGroup";
   public static final String STRICT_REPLICA_GROUP_INSTANCE_SELECTOR_TYPE = "strictReplicaGroup";
@@ -41,16 +42,25 @@ public class RoutingConfig extends BaseJsonConfig {
   private final List<String> _segmentPrunerTypes;
   private final String _instanceSelectorType;
   private final Boolean _useFixedReplica;
+  // Columns whose min/max values are published to the segment ZK metadata for the value segment pruner
+  private final List<String> _valuePruningColumns;
+
+  public RoutingConfig(@Nullable String routingTableBuilderName, @Nullable List<String> segmentPrunerTypes,
+      @Nullable String instanceSelectorType, @Nullable Boolean useFixedReplica) {
+    this(routingTableBuilderName, segmentPrunerTypes, instanceSelectorType, useFixedReplica, null);
+  }
 
   @JsonCreator
   public RoutingConfig(@JsonProperty("routingTableBuilderName") @Nullable String routingTableBuilderName,
       @JsonProperty("segmentPrunerTypes") @Nullable List<String> segmentPrunerTypes,
       @JsonProperty("instanceSelectorType") @Nullable String instanceSelectorType,
-      @JsonProperty("useFixedReplica") @Nullable Boolean useFixedReplica) {
+      @JsonProperty("useFixedReplica") @Nullable Boolean useFixedReplica,
+      @JsonProperty("valuePruningColumns") @Nullable List<String> valuePruningColumns) {
     _routingTableBuilderName = routingTableBuilderName;
     _segmentPrunerTypes = segmentPrunerTypes;
     _instanceSelectorType = instanceSelectorType;
     _useFixedReplica = useFixedReplica;
+    _valuePruningColumns = valuePruningColumns;
   }
 
   @Nullable
@@ -72,4 +82,9 @@ public class RoutingConfig extends BaseJsonConfig {
   public Boolean getUseFixedReplica() {
     return _useFixedReplica;
   }
+
+  @Nullable
+  public List<String> getValuePruningColumns() {
+    return _valuePruningColumns;
+  }
 }
@@ -35,10 +35,11 @@ import org.slf4j.LoggerFactory;
  * In order to create a new executor, the {@code create} methods should be called.
  * These methods take an executor type as an argument.
  *
- * Pinot includes two executor service plugins:
+ * Pinot includes three executor service plugins:
  * <ul>
  *   <li>{@code cached}: creates a new cached thread pool</li>
  *   <li>{@code fixed}: creates a new fixed thread pool.</li>
+ *   <li>{@code virtual}: creates a new virtual thread per task (requires Java 21 or above).</li>
  * </ul>
  *
  * @see ServiceLoader
@@ -274,6 +274,24 @@ public class CommonConstants {
     public static final int DEFAULT_MAX_REDUCE_THREADS_PER_QUERY =
         Math.max(1, Math.min(10, Runtime.getRuntime().availableProcessors() / 2));
     // Same logic as CombineOperatorUtils
+    // Config for extracting the group-by records from the server responses as they arrive, instead of waiting for all
+    // the servers to respond before starting the broker reduce.
+    public static final String CONFIG_OF_ENABLE_STREAMING_GROUP_BY_REDUCE =
+        "pinot.broker.enable.streaming.group.by.reduce";
+    public static final boolean DEFAULT_ENABLE_STREAMING_GROUP_BY_REDUCE = false;
+
+    // Configs for hedged requests. When enabled, if a server hasn't responded within the configured percentile of the
+    // recent server response latencies, the same segments are sent to another replica and the first response is used.
+    // The budget ratio caps the number of hedged requests as a fraction of the server requests.
+    public static final String CONFIG_OF_ENABLE_HEDGED_REQUESTS = "pinot.broker.enable.hedged.requests";
+    public static final boolean DEFAULT_ENABLE_HEDGED_REQUESTS = false;
+    public static final String CONFIG_OF_HEDGED_REQUEST_DELAY_PERCENTILE =
+        "pinot.broker.hedged.request.delay.percentile";
+    public static final double DEFAULT_HEDGED_REQUEST_DELAY_PERCENTILE = 95;
+    public static final String CONFIG_OF_HEDGED_REQUEST_MIN_DELAY_MS = "pinot.broker.hedged.request.min.delay.ms";
+    public static final long DEFAULT_HEDGED_REQUEST_MIN_DELAY_MS = 10;
+    public static final String CONFIG_OF_HEDGED_REQUEST_BUDGET_RATIO = "pinot.broker.hedged.request.budget.ratio";
+    public static final double DEFAULT_HEDGED_REQUEST_BUDGET_RATIO = 0.05;
 
     // Config for Jersey ThreadPoolExecutorProvider.
     // By default, Jersey uses the default unbounded thread pool to process queries.
@@ -368,6 +386,48 @@ public class CommonConstants {
         = "pinot.broker.enable.multistage.migration.metric";
     public static final boolean DEFAULT_ENABLE_MULTISTAGE_MIGRATION_METRIC = false;
 
+    // Maximum number of compiled multi-stage query plans cached by the broker, and how long they are kept. The cached
+    // plans are keyed by the normalized SQL query with the literals compared to the columns parameterized, so that the
+    // queries only differing in these literals share the same plan, and invalidated on schema and table config changes.
+    // Set the size to 0 to disable the cache.
+    public static final String CONFIG_OF_MULTI_STAGE_PLAN_CACHE_MAX_SIZE =
+        "pinot.broker.multistage.plan.cache.max.size";
+    public static final int DEFAULT_MULTI_STAGE_PLAN_CACHE_MAX_SIZE = 1000;
+    public static final String CONFIG_OF_MULTI_STAGE_PLAN_CACHE_EXPIRE_MS =
+        "pinot.broker.multistage.plan.cache.expire.ms";
+    public static final long DEFAULT_MULTI_STAGE_PLAN_CACHE_EXPIRE_MS = TimeUnit.MINUTES.toMillis(10);
+
+    // Cost-based join planning of the multi-stage engine from the number of documents of the tables, which is disabled
+    // by default and can be overridden per query with the query options. Join reordering reorders the joins when the
+    // size of all the tables is known. Auto broadcast join broadcasts the right input of an INNER/LEFT join when it is
+    // estimated to have at most this many rows (and fewer rows than the left input). Set the row count to 0 to disable.
+    public static final String CONFIG_OF_MULTI_STAGE_ENABLE_JOIN_REORDER =
+        "pinot.broker.multistage.enable.join.reorder";
+    public static final boolean DEFAULT_MULTI_STAGE_ENABLE_JOIN_REORDER = false;
+    public static final String CONFIG_OF_MULTI_STAGE_AUTO_BROADCAST_JOIN_MAX_ROW_COUNT =
+        "pinot.broker.multistage.auto.broadcast.join.max.row.count";
+    public static final long DEFAULT_MULTI_STAGE_AUTO_BROADCAST_JOIN_MAX_ROW_COUNT = 0;
+
+    // Maximum size of the query results cached by the broker for the single-stage queries, 0 to disable the cache.
+    // The value can be in human readable format (e.g. '200K', '200KB', '0.2MB') or in raw bytes (e.g. '200000').
+    // Results are keyed by the server queries and the routing version of the queried tables, so they are invalidated on
+    // any segment change. Results involving a real-time table also expire after the configured time because the
+    // consuming segments keep changing without any routing change.
+    public static final String CONFIG_OF_RESULT_CACHE_MAX_SIZE = "pinot.broker.result.cache.max.size";
+    public static final String DEFAULT_RESULT_CACHE_MAX_SIZE = "0";
+    public static final String CONFIG_OF_RESULT_CACHE_REALTIME_EXPIRE_MS =
+        "pinot.broker.result.cache.realtime.expire.ms";
+    public static final long DEFAULT_RESULT_CACHE_REALTIME_EXPIRE_MS = 10_000L;
+
+    // Max time to wait for the docs scanned quota (see 'maxDocsScannedPerSecond' in the table/database quota config)
+    // when it is exhausted by the previous queries, 0 to reject the query immediately.
+    public static final String CONFIG_OF_DOCS_SCANNED_QUOTA_MAX_WAIT_MS = "pinot.broker.docs.scanned.quota.max.wait.ms";
+    public static final long DEFAULT_DOCS_SCANNED_QUOTA_MAX_WAIT_MS = 0L;
+    // Max number of query shapes to keep the execution stats for, which are used to estimate the number of documents
+    // scanned by the queries for the docs scanned quota.
+    public static final String CONFIG_OF_QUERY_COST_STATS_MAX_SIZE = "pinot.broker.query.cost.stats.max.size";
+    public static final int DEFAULT_QUERY_COST_STATS_MAX_SIZE = 10_000;
+
     public static class Request {
       public static final String SQL = "sql";
       public static final String TRACE = "trace";
@@ -406,6 +466,18 @@ public class CommonConstants {
         public static final String AND_SCAN_REORDERING = "AndScanReordering";
         public static final String SKIP_INDEXES = "skipIndexes";
 
+        // Compile the supported filter and transform expressions into bytecode instead of interpreting them through the
+        // transform function tree. Not applied when null handling is enabled.
+        public static final String USE_EXPRESSION_CODEGEN = "useExpressionCodegen";
+
+        // Aggregate the group-by results into thread-local radix-partitioned tables on the server, and merge the
+        // partitions in parallel, instead of upserting into a shared concurrent table.
+        public static final String USE_PARTITIONED_GROUP_BY_COMBINE = "usePartitionedGroupByCombine";
+
+        // Split the aggregation and group-by queries on large segments into doc id ranges of at least this many docs,
+        // which are processed by separate tasks, when there are fewer segments than execution threads on the server.
+        public static final String MIN_DOCS_PER_SEGMENT_SPLIT = "minDocsPerSegmentSplit";
+
         public static final String ORDER_BY_ALGORITHM = "orderByAlgorithm";
 
         public static final String MULTI_STAGE_LEAF_LIMIT = "multiStageLeafLimit";
@@ -419,6 +491,9 @@ public class CommonConstants {
 
         public static final String DROP_RESULTS = "dropResults";
 
+        // Can be set to false to bypass the broker result cache
+        public static final String USE_RESULT_CACHE = "useResultCache";
+
         // Maximum number of pending results blocks allowed in the streaming operator
         public static final String MAX_STREAMING_PENDING_BLOCKS = "maxStreamingPendingBlocks";
 
@@ -430,6 +505,21 @@ public class CommonConstants {
         public static final String MAX_ROWS_IN_WINDOW = "maxRowsInWindow";
         public static final String WINDOW_OVERFLOW_MODE = "windowOverflowMode";
 
+        // Handle SORT Overflow, sorted runs are spilled to disk once the rows kept in memory reach the limit
+        public static final String MAX_ROWS_IN_SORT = "maxRowsInSort";
+
+        // Handle GROUP BY Overflow in the multi-stage engine, once the number of groups reaches numGroupsLimit
+        public static final String GROUP_BY_OVERFLOW_MODE = "groupByOverflowMode";
+
+        // Send the intermediate results of the multi-stage engine as columnar data blocks instead of row data blocks
+        public static final String USE_COLUMNAR_DATA_BLOCK = "useColumnarDataBlock";
+
+        // Override the broker configs for the cost-based join planning of the multi-stage engine (see
+        // Broker.CONFIG_OF_MULTI_STAGE_ENABLE_JOIN_REORDER and
+        // Broker.CONFIG_OF_MULTI_STAGE_AUTO_BROADCAST_JOIN_MAX_ROW_COUNT)
+        public static final String ENABLE_JOIN_REORDER = "enableJoinReorder";
+        public static final String AUTO_BROADCAST_JOIN_MAX_ROW_COUNT = "autoBroadcastJoinMaxRowCount";
+
         // Indicates the maximum length of the serialized response per server for a query.
         public static final String MAX_SERVER_RESPONSE_SIZE_BYTES = "maxServerResponseSizeBytes";
 
@@ -1054,6 +1144,9 @@ public class CommonConstants {
     public static final String CRYPTER_NAME = "segment.crypter";
     public static final String PARTITION_METADATA = "segment.partition.metadata";
     public static final String CUSTOM_MAP = "custom.map";
+    // Min/max values of the columns configured for value based segment pruning on the broker
+    public static final String COLUMN_MIN_VALUES = "segment.column.min.values";
+    public static final String COLUMN_MAX_VALUES = "segment.column.max.values";
     public static final String SIZE_IN_BYTES = "segment.size.in.bytes";
 
     /**
@@ -1163,6 +1256,33 @@ public class CommonConstants {
     public static final String KEY_OF_MAX_INBOUND_QUERY_DATA_BLOCK_SIZE_BYTES = "pinot.query.runner.max.msg.size.bytes";
     public static final int DEFAULT_MAX_INBOUND_QUERY_DATA_BLOCK_SIZE_BYTES = 16 * 1024 * 1024;
 
+    /**
+     * Configuration for the compression of the data blocks sent through the gRPC mailboxes. The codec is picked per
+     * channel by the sender and attached to each compressed message, so receivers can always decode it. Payloads
+     * smaller than the min size, or that do not shrink once compressed, are sent uncompressed.
+     * <p>
+     * NOTE: All the servers must support compressed payloads before enabling the compression.
+     */
+    public static final String KEY_OF_MAILBOX_COMPRESSION_CODEC = "pinot.query.runner.mailbox.compression.codec";
+    public static final String DEFAULT_MAILBOX_COMPRESSION_CODEC = MailboxCompressionCodec.NONE.name();
+    public static final String KEY_OF_MAILBOX_COMPRESSION_MIN_SIZE_BYTES =
+        "pinot.query.runner.mailbox.compression.min.size.bytes";
+    public static final int DEFAULT_MAILBOX_COMPRESSION_MIN_SIZE_BYTES = 4 * 1024;
+
+    public enum MailboxCompressionCodec {
+      NONE, LZ4, ZSTD
+    }
+
+    /**
+     * Configuration for the batching of the data blocks sent through the gRPC mailboxes. Small data blocks are
+     * coalesced until the estimated batch size reaches the batch size, or the first pending block has waited longer
+     * than the max delay. Batching is disabled when the batch size is not positive.
+     */
+    public static final String KEY_OF_MAILBOX_BATCH_SIZE_BYTES = "pinot.query.runner.mailbox.batch.size.bytes";
+    public static final int DEFAULT_MAILBOX_BATCH_SIZE_BYTES = 0;
+    public static final String KEY_OF_MAILBOX_BATCH_MAX_DELAY_MS = "pinot.query.runner.mailbox.batch.max.delay.ms";
+    public static final long DEFAULT_MAILBOX_BATCH_MAX_DELAY_MS = 100L;
+
     /**
      * Configuration for server port, port that opens and accepts
      * {@link org.apache.pinot.query.runtime.plan.DistributedStagePlan} and start executing query stages.
@@ -1184,18 +1304,67 @@ public class CommonConstants {
     public static final String KEY_OF_MAX_ROWS_IN_JOIN = "pinot.query.join.max.rows";
     public static final String KEY_OF_JOIN_OVERFLOW_MODE = "pinot.query.join.overflow.mode";
 
+    /**
+     * Mode when the number of rows in the join hash table exceeds the limit:
+     * <ul>
+     *   <li>THROW: Stop building the hash table and throw an exception.</li>
+     *   <li>BREAK: Stop building the hash table and continue with partial results.</li>
+     *   <li>SPILL: Partition both join inputs to local disk and join one partition at a time (grace hash join), so
+     *   that only the right rows of a single partition are kept in memory.</li>
+     * </ul>
+     */
     public enum JoinOverFlowMode {
-      THROW, BREAK
+      THROW, BREAK, SPILL
     }
 
+    /**
+     * Local directory where the multi-stage operators spill intermediate results that do not fit in memory. Defaults
+     * to the JVM temporary directory.
+     */
+    public static final String KEY_OF_SPILL_DIR = "pinot.query.runner.spill.dir";
+
+    /**
+     * Max number of rows the multi-stage sort operator keeps in memory. Once reached, the rows are sorted and spilled
+     * to the spill directory as a sorted run, and the runs are merged when producing the output.
+     */
+    public static final String KEY_OF_MAX_ROWS_IN_SORT = "pinot.query.sort.max.rows";
+
     /**
      * Configuration for window overflow.
      */
     public static final String KEY_OF_MAX_ROWS_IN_WINDOW = "pinot.query.window.max.rows";
     public static final String KEY_OF_WINDOW_OVERFLOW_MODE = "pinot.query.window.overflow.mode";
 
+    /**
+     * Mode when the number of rows buffered by the multi-stage window operator reaches the max rows in window:
+     * <ul>
+     *   <li>THROW: Fail the query.</li>
+     *   <li>BREAK: Stop consuming the input, results might be partial.</li>
+     *   <li>SPILL: Hash partition the rows to local disk on the PARTITION BY keys and process one partition at a time,
+     *   results are complete. When the input is sorted on the PARTITION BY keys, only one window partition is buffered
+     *   at a time and the limit does not apply.</li>
+     * </ul>
+     */
     public enum WindowOverFlowMode {
-      THROW, BREAK
+      THROW, BREAK, SPILL
+    }
+
+    /**
+     * Configuration for group-by overflow, i.e. when the number of groups in the multi-stage aggregate operator reaches
+     * the num groups limit.
+     */
+    public static final String KEY_OF_GROUP_BY_OVERFLOW_MODE = "pinot.query.groupby.overflow.mode";
+
+    /**
+     * Mode when the number of groups reaches the num groups limit:
+     * <ul>
+     *   <li>BREAK: Stop adding new groups, the groups beyond the limit are dropped and results might be partial.</li>
+     *   <li>SPILL: Hash partition the partial aggregates to local disk and merge one partition at a time, so that
+     *   results are complete while at most the num groups limit is kept in memory.</li>
+     * </ul>
+     */
+    public enum GroupByOverFlowMode {
+      BREAK, SPILL
     }
 
     /**
@@ -113,15 +113,41 @@ public class QuotaConfigTest {
     }
   }
 
+  @Test
+  public void testDocsScannedQuota()
+      throws IOException {
+    {
+      String quotaConfigStr = "{\"maxDocsScannedPerSecond\" : \"1e9\"}";
+      QuotaConfig quotaConfig = JsonUtils.stringToObject(quotaConfigStr, QuotaConfig.class);
+      assertEquals(quotaConfig.getMaxDocsScannedPerSecond(), "1.0E9");
+      assertEquals(quotaConfig.getMaxDocsScannedRate(), 1e9);
+    }
+    {
+      String quotaConfigStr = "{}";
+      QuotaConfig quotaConfig = JsonUtils.stringToObject(quotaConfigStr, QuotaConfig.class);
+      assertNull(quotaConfig.getMaxDocsScannedPerSecond());
+      assertEquals(quotaConfig.getMaxDocsScannedRate(), -1.0);
+    }
+    try {
+      String quotaConfigStr = "{\"maxDocsScannedPerSecond\" : \"0\"}";
+      JsonUtils.stringToObject(quotaConfigStr, QuotaConfig.class);
+      fail();
+    } catch (Exception e) {
+      // Expected
+    }
+  }
+
   @Test
   public void testSerDe()
       throws IOException {
-    QuotaConfig quotaConfig = new QuotaConfig("100G", "100.0");
+    QuotaConfig quotaConfig = new QuotaConfig("100G", "100.0", "1000000.0");
     JsonNode quotaConfigJson = quotaConfig.toJsonNode();
     assertEquals(quotaConfigJson.get("storage").asText(), "100G");
     assertEquals(quotaConfigJson.get("maxQueriesPerSecond").asText(), "100.0");
+    assertEquals(quotaConfigJson.get("maxDocsScannedPerSecond").asText(), "1000000.0");
     assertNull(quotaConfigJson.get("storageInBytes"));
     assertNull(quotaConfigJson.get("maxQPS"));
+    assertNull(quotaConfigJson.get("maxDocsScannedRate"));
 
     assertEquals(JsonUtils.jsonNodeToObject(quotaConfigJson, QuotaConfig.class), quotaConfig);
     assertEquals(JsonUtils.stringToObject(quotaConfig.toJsonString(), QuotaConfig.class), quotaConfig);